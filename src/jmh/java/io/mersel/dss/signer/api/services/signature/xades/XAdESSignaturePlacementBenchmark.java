@@ -0,0 +1,141 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import eu.europa.esig.dss.alert.SilentOnStatusAlert;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.InMemoryDocument;
+import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.xades.signature.XAdESDomDocument;
+import eu.europa.esig.dss.xades.signature.XAdESService;
+import eu.europa.esig.dss.xml.utils.DomUtils;
+import io.mersel.dss.signer.api.e2e.verifier.E2eFixtures;
+import io.mersel.dss.signer.api.e2e.verifier.E2eSigningMaterialFactory;
+import io.mersel.dss.signer.api.e2e.verifier.PfxTestKey;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.models.enums.XadesSignatureLevel;
+import io.mersel.dss.signer.api.services.crypto.CryptoSignerService;
+import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
+import io.mersel.dss.signer.api.services.crypto.SignatureAlgorithmResolverService;
+import io.mersel.dss.signer.api.services.timestamp.TimestampConfigurationService;
+import io.mersel.dss.signer.api.services.util.CompressionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link XAdESSignatureService} imza yerleştirme adımının eski (serileştir →
+ * yeniden parse et) ve yeni (builder DOM'u üzerinden) yollarını karşılaştırır.
+ *
+ * <p>İmza bir kez üretilir; her çağrıda yalnızca yerleştirme adımı ölçülür:</p>
+ * <ul>
+ *   <li>{@link #legacyReparse()} — DSS'in {@code createXmlDocument} ile yaptığı
+ *       serileştirme, servisteki {@code dssDocumentToBytes} + {@code parseDocument}
+ *       + {@code findSignatureElement} ve son serileştirme.</li>
+ *   <li>{@link #directDom()} — {@link XAdESDomDocument} üzerinden doğrudan
+ *       yerleştirme ve tek serileştirme.</li>
+ * </ul>
+ *
+ * <p>İki yol da ana belgenin ve imza elemanının kopyası üzerinde çalışır
+ * (yerleştirme imzayı kaynak DOM'dan ayırır); kopyalama maliyeti her iki
+ * tarafta da olduğundan fark yalnızca kaldırılan turdan gelir.
+ * {@link #signBesEndToEnd()} tam BES imzasını bağlam için ölçer.</p>
+ *
+ * <pre>
+ * mvn -Pbenchmark -DskipTests test-compile exec:exec \
+ *     -Djmh.args="XAdESSignaturePlacementBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XAdESSignaturePlacementBenchmark {
+
+    private XAdESSignatureService service;
+    private XmlProcessingService xmlProcessor;
+    private SigningMaterial material;
+    private byte[] efatura;
+
+    private Document mainDocument;
+    private XAdESDomDocument signedDocument;
+
+    @Setup
+    public void setUp() throws Exception {
+        CommonCertificateVerifier verifier = new CommonCertificateVerifier();
+        verifier.setAlertOnMissingRevocationData(new SilentOnStatusAlert());
+        verifier.setAlertOnNoRevocationAfterBestSignatureTime(new SilentOnStatusAlert());
+        verifier.setAlertOnRevokedCertificate(new SilentOnStatusAlert());
+        verifier.setAlertOnExpiredCertificate(new SilentOnStatusAlert());
+        verifier.setAlertOnNotYetValidCertificate(new SilentOnStatusAlert());
+
+        xmlProcessor = new XmlProcessingService();
+        service = new XAdESSignatureService(
+                new XAdESService(verifier),
+                new XAdESParametersBuilderService(new DigestAlgorithmResolverService()),
+                xmlProcessor,
+                new XAdESDocumentPlacementService(),
+                new XAdESLevelUpgradeService(verifier,
+                        new TimestampConfigurationService("", "", "", false)),
+                new CryptoSignerService(new SignatureAlgorithmResolverService()),
+                verifier,
+                new CompressionService(),
+                new Semaphore(Integer.MAX_VALUE)) {
+            @Override
+            byte[] placeSignature(Document main, DSSDocument signed, DocumentType documentType) {
+                // İlk imzadan yerleştirme girdilerini yakala; sonraki çağrılar
+                // (signBesEndToEnd) gerçek yoldan geçer.
+                if (signedDocument == null) {
+                    mainDocument = (Document) main.cloneNode(true);
+                    signedDocument = (XAdESDomDocument) signed;
+                    Element signature = (Element) signedDocument.getSignatureElement().cloneNode(true);
+                    return super.placeSignature(main, new XAdESDomDocument(
+                            signedDocument.getDocumentDom(), signature), documentType);
+                }
+                return super.placeSignature(main, signed, documentType);
+            }
+        };
+        material = E2eSigningMaterialFactory.load(PfxTestKey.KURUM01_RSA2048);
+        efatura = E2eFixtures.efaturaXml();
+
+        signBesEndToEnd();
+    }
+
+    @Benchmark
+    public byte[] legacyReparse() {
+        DSSDocument asBytes = new InMemoryDocument(DomUtils.serializeNode(signedDocument.getDocumentDom()));
+        byte[] signedBytes = xmlProcessor.dssDocumentToBytes(asBytes);
+        Document signedDom = xmlProcessor.parseDocument(signedBytes);
+        Element signature = xmlProcessor.findSignatureElement(signedDom);
+        return service.placeSignature((Document) mainDocument.cloneNode(true),
+                new XAdESDomDocument(signedDom, signature), DocumentType.UblDocument);
+    }
+
+    @Benchmark
+    public byte[] directDom() {
+        Element signature = (Element) signedDocument.getSignatureElement().cloneNode(true);
+        return service.placeSignature((Document) mainDocument.cloneNode(true),
+                new XAdESDomDocument(signedDocument.getDocumentDom(), signature),
+                DocumentType.UblDocument);
+    }
+
+    @Benchmark
+    public byte[] signBesEndToEnd() {
+        return service.signXml(new ByteArrayInputStream(efatura), DocumentType.UblDocument,
+                null, false, material, XadesSignatureLevel.XADES_BES).getSignedDocument();
+    }
+}
@@ -0,0 +1,80 @@
+package io.mersel.dss.signer.api.services.timestamp.tubitak;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TÜBİTAK kimlik token'ı üretim hızını (token/s) karşılaştırır.
+ *
+ * <ul>
+ *   <li>{@link #perRequestDerivation()} — önceki yol:
+ *       {@link TubitakAuthenticationHelper#encryptIdentity(int, String, byte[])}
+ *       her token için yeni salt, PBKDF2 ve yeni {@code Cipher}.</li>
+ *   <li>{@link #cachedKey()} — {@link TubitakIdentityTokenFactory}; anahtar
+ *       ölçüm boyunca yenilenmez, token başına yalnızca AES + DER + hex.</li>
+ *   <li>{@link #cachedKeyDefaultRotation()} — varsayılan rotasyonla
+ *       (1000 istekte bir PBKDF2) gerçekçi ortalama.</li>
+ * </ul>
+ *
+ * <p>{@code -t 4} ile eş zamanlı çağrıda anahtar paylaşımının çekişme
+ * maliyeti de görülebilir.</p>
+ *
+ * <pre>
+ * mvn -Pbenchmark -DskipTests test-compile exec:exec \
+ *     -Djmh.args="TubitakIdentityTokenBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+public class TubitakIdentityTokenBenchmark {
+
+    private static final int CUSTOMER_ID = 12345;
+    private static final String PASSWORD = "parola";
+
+    private final byte[] dataHash = new byte[32];
+
+    private TubitakIdentityTokenFactory cached;
+    private TubitakIdentityTokenFactory defaultRotation;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < dataHash.length; i++) {
+            dataHash[i] = (byte) (i * 31);
+        }
+        cached = new TubitakIdentityTokenFactory(CUSTOMER_ID, PASSWORD, 0, 0);
+        defaultRotation = new TubitakIdentityTokenFactory(CUSTOMER_ID, PASSWORD,
+                TubitakIdentityTokenFactory.DEFAULT_ROTATION_MILLIS,
+                TubitakIdentityTokenFactory.DEFAULT_ROTATION_REQUESTS);
+    }
+
+    @Benchmark
+    public String perRequestDerivation() {
+        return TubitakAuthenticationHelper.encryptIdentity(CUSTOMER_ID, PASSWORD, dataHash);
+    }
+
+    @Benchmark
+    public String cachedKey() {
+        return cached.createToken(dataHash);
+    }
+
+    @Benchmark
+    public String cachedKeyDefaultRotation() {
+        return defaultRotation.createToken(dataHash);
+    }
+}
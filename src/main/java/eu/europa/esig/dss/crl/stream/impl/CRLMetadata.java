@@ -0,0 +1,81 @@
+// @formatter:off
+
+package eu.europa.esig.dss.crl.stream.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.bouncycastle.asn1.x509.Extension;
+
+// ########################OVERRIDE_DSS#########################
+// #####  DİKKAT: OVERRIDE DEĞİLDİR!                        ####
+// #####  dss-crl-parser-stream'in paket içi CRLParser'ına  ####
+// #####  erişmek için aynı pakete eklenmiş köprü sınıfıdır.####
+// #####  CRL'in tamamı X509CRL nesne ağacına çevrilmeden,  ####
+// #####  yalnızca başlık alanları akış üzerinden okunur.   ####
+// #############################################################
+
+/**
+ * Bir CRL'in XAdES {@code <xades:CRLIdentifier>} için gereken başlık bilgisi:
+ * CRL numarası, {@code thisUpdate}, {@code nextUpdate} ve issuer.
+ *
+ * <p>{@link #read(InputStream)}, DSS'in akış tabanlı {@link CRLParser}'ını
+ * kullanır: iptal edilmiş sertifika listesi belleğe alınmadan atlanır. KamuSM
+ * gibi onlarca MB'lık CRL'lerde {@code CertificateFactory.generateCRL}'in
+ * kurduğu tam nesne ağacı oluşmaz.</p>
+ *
+ * <p>Değişmezdir; thread'ler arasında paylaşılabilir.</p>
+ */
+public final class CRLMetadata {
+
+    private final String crlNumber;
+    private final Date thisUpdate;
+    private final Date nextUpdate;
+    private final X500Principal issuer;
+
+    private CRLMetadata(String crlNumber, Date thisUpdate, Date nextUpdate, X500Principal issuer) {
+        this.crlNumber = crlNumber;
+        this.thisUpdate = thisUpdate;
+        this.nextUpdate = nextUpdate;
+        this.issuer = issuer;
+    }
+
+    /**
+     * CRL'i akış üzerinden okuyup başlık bilgisini döner. Akış kapatılmaz.
+     *
+     * @param crlStream DER kodlu CRL
+     * @return başlık bilgisi; CRL numarası uzantısı yoksa {@link #getCrlNumber()} {@code null}
+     * @throws IOException CRL yapısı okunamazsa
+     */
+    public static CRLMetadata read(InputStream crlStream) throws IOException {
+        CRLInfo info = new CRLParser().retrieveInfo(crlStream);
+        byte[] crlNumberExtension = info.getNonCriticalExtension(Extension.cRLNumber.getId());
+        if (crlNumberExtension == null) {
+            crlNumberExtension = info.getCriticalExtension(Extension.cRLNumber.getId());
+        }
+        String crlNumber = crlNumberExtension != null
+                ? eu.europa.esig.dss.xades.signature.XadesUtil.extractCrlNumber(crlNumberExtension)
+                : null;
+        return new CRLMetadata(crlNumber, info.getThisUpdate(), info.getNextUpdate(), info.getIssuer());
+    }
+
+    /** CRL numarası (ondalık); uzantı yoksa {@code null}. */
+    public String getCrlNumber() {
+        return crlNumber;
+    }
+
+    public Date getThisUpdate() {
+        return thisUpdate == null ? null : new Date(thisUpdate.getTime());
+    }
+
+    public Date getNextUpdate() {
+        return nextUpdate == null ? null : new Date(nextUpdate.getTime());
+    }
+
+    public X500Principal getIssuer() {
+        return issuer;
+    }
+}
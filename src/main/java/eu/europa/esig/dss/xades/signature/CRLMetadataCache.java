@@ -0,0 +1,104 @@
+// @formatter:off
+
+package eu.europa.esig.dss.xades.signature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.crl.stream.impl.CRLMetadata;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+import eu.europa.esig.dss.utils.Utils;
+
+// ########################OVERRIDE_DSS#########################
+// #####  DİKKAT: OVERRIDE DEĞİLDİR!                        ####
+// #####  XAdESLevelC.incorporateCRLRefs'in <xades:Number>  ####
+// #####  için ihtiyaç duyduğu CRL başlık bilgisini, CRL    ####
+// #####  özetine göre bir kez okuyup saklayan yardımcı.    ####
+// #############################################################
+
+/**
+ * CRL başlık bilgisinin ({@link CRLMetadata}) CRL özetine göre tutulan,
+ * boyutu sınırlı önbelleği.
+ *
+ * <p>Aynı CRL sürümü yayımlanma aralığı boyunca (KamuSM'de saatler) her
+ * XAdES-C imzasında tekrar gelir. Başlık bilgisi CRL baytlarının SHA-256
+ * özetine bağlanır; CRL akış üzerinden yalnızca yeni bir sürüm görüldüğünde
+ * okunur. Özet, DSS {@code Token} içinde algoritma başına saklandığından
+ * aynı token için ikinci kez hesaplanmaz.</p>
+ *
+ * <p>Okunamayan CRL önbelleğe alınmaz; çağıran {@code null} alır.</p>
+ */
+public final class CRLMetadataCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CRLMetadataCache.class);
+
+    /** Aynı anda geçerli CRL sürümü sayısı az; birkaç issuer × birkaç sürüm. */
+    static final int MAX_ENTRIES = 64;
+
+    private static final Map<String, CRLMetadata> CACHE =
+            new LinkedHashMap<String, CRLMetadata>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CRLMetadata> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            };
+
+    private static final AtomicLong PARSE_COUNT = new AtomicLong();
+
+    private CRLMetadataCache() {
+    }
+
+    /**
+     * CRL'in başlık bilgisini döner; bu CRL sürümü ilk kez görülüyorsa akış
+     * üzerinden okur.
+     *
+     * @param crlToken CRL token'ı
+     * @return başlık bilgisi; CRL okunamazsa {@code null}
+     */
+    public static CRLMetadata get(CRLToken crlToken) {
+        String key = Utils.toBase64(crlToken.getDigest(DigestAlgorithm.SHA256));
+        synchronized (CACHE) {
+            CRLMetadata cached = CACHE.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // Okuma kilit dışında yapılır; aynı sürümü eş zamanlı okuyan iki thread
+        // aynı sonucu üretir, ikinci yazma zararsızdır.
+        CRLMetadata metadata;
+        try (InputStream crlStream = crlToken.getCRLStream()) {
+            metadata = CRLMetadata.read(crlStream);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("CRL başlık bilgisi okunamadı, <xades:Number> eklenmeyecek. Issuer: {}, hata: {}",
+                    crlToken.getIssuerX500Principal(), e.getMessage());
+            return null;
+        }
+        PARSE_COUNT.incrementAndGet();
+
+        synchronized (CACHE) {
+            CACHE.put(key, metadata);
+        }
+        return metadata;
+    }
+
+    /** Başlangıçtan beri akış üzerinden okunan CRL sayısı. */
+    static long getParseCount() {
+        return PARSE_COUNT.get();
+    }
+
+    static void clear() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package eu.europa.esig.dss.xades.signature;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Objects;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import eu.europa.esig.dss.enumerations.MimeTypeEnum;
+import eu.europa.esig.dss.model.CommonDocument;
+import eu.europa.esig.dss.xml.utils.DomUtils;
+
+// ########################OVERRIDE_DSS#########################
+// #####  DİKKAT: OVERRIDE DEĞİLDİR!                        ####
+// #####  XAdESSignatureBuilder#signDocument çıktısını DOM   ####
+// #####  olarak taşıyan DSSDocument. DSS upstream imzalı    ####
+// #####  DOM'u hemen byte[]'a serileştirir; imza servisi    ####
+// #####  ise ds:Signature'ı ana belgeye taşımak için bu     ####
+// #####  byte'ları yeniden parse ederdi.                    ####
+// #############################################################
+
+/**
+ * İmza builder'ının ürettiği DOM'u serileştirmeden taşıyan {@link CommonDocument}.
+ *
+ * <p>İmza servisi {@link #getSignatureElement()} ile {@code <ds:Signature>}
+ * elemanına doğrudan erişir ve ana belgeye yerleştirir; böylece BES akışında
+ * serileştir → yeniden parse et turu tamamen ortadan kalkar. DSS tarafında
+ * byte gerektiren her çağrı (seviye yükseltme, {@code writeTo}, digest) için
+ * DOM ilk {@link #openStream()} çağrısında bir kez, DSS ile aynı
+ * {@link DomUtils#serializeNode} üzerinden serileştirilir ve saklanır.</p>
+ *
+ * <p>DOM thread-safe değildir; belge tek bir imza isteğine aittir ve istekler
+ * arasında paylaşılmamalıdır.</p>
+ */
+public class XAdESDomDocument extends CommonDocument {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Document documentDom;
+    private final transient Element signatureElement;
+    private byte[] serialized;
+
+    /**
+     * @param documentDom      imzanın eklendiği belge DOM'u
+     * @param signatureElement builder'ın oluşturduğu {@code <ds:Signature>} elemanı
+     */
+    public XAdESDomDocument(Document documentDom, Element signatureElement) {
+        this.documentDom = Objects.requireNonNull(documentDom, "documentDom");
+        this.signatureElement = Objects.requireNonNull(signatureElement, "signatureElement");
+        this.mimeType = MimeTypeEnum.XML;
+    }
+
+    /** İmzalı belge DOM'u. Serileştirme yapılmaz. */
+    public Document getDocumentDom() {
+        return documentDom;
+    }
+
+    /**
+     * Builder'ın oluşturduğu {@code <ds:Signature>} elemanı. Eleman başka bir
+     * belgeye taşınırsa kaynak DOM değişir; daha önce serileştirilmemişse
+     * belge bundan sonra byte olarak okunmamalıdır.
+     */
+    public Element getSignatureElement() {
+        return signatureElement;
+    }
+
+    @Override
+    public InputStream openStream() {
+        return new ByteArrayInputStream(getBytes());
+    }
+
+    private synchronized byte[] getBytes() {
+        if (serialized == null) {
+            serialized = DomUtils.serializeNode(documentDom);
+        }
+        return serialized;
+    }
+}
@@ -22,6 +22,7 @@
  */
 package eu.europa.esig.dss.xades.signature;
 
+import eu.europa.esig.dss.crl.stream.impl.CRLMetadata;
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.model.x509.CertificateToken;
 import eu.europa.esig.dss.signature.SignatureRequirementsChecker;
@@ -45,8 +46,6 @@ import org.w3c.dom.Element;
 
 import javax.xml.datatype.XMLGregorianCalendar;
 
-import java.security.cert.CertificateFactory;
-import java.security.cert.X509CRL;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -65,7 +64,8 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
 
     // ################ BLOK BAŞLANGICI (XADES-C,XL GELİŞMELERİ) ################
     // DSS-XAdES-C seviye geliştirmeleri için dokümantasyon:
-    // - OCSP ve CRL doğrulama nesneleri thread-safe olarak ve imza başına özgü olarak cache'lenir.
+    // - OCSP ve CRL doğrulama nesneleri süreç genelindeki, sınırlı RevocationTokenCache'te paylaşılır;
+    //   C seviyesinde referanslanan OCSP token'ları uzantı örneği başına pinnedOcspTokens'ta sabitlenir.
     // - C seviyesi (referans oluşturma) ve XL seviyesi (bileşen gömme) için aynı doğrulama verisi yeniden kullanılır.
     // - Tüm detaylar ve örnek iş akışları teknik dokümantasyonda açıklanmıştır.
     
@@ -80,7 +80,11 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
     // doğru ve tutarlı şekilde kullanılması hedeflenmiştir.
     //
     // Bu kapsamda;
-    // - OCSP ve CRL token'ları thread-safe ve imzaya özel olarak cache'lenmektedir.
+    // - OCSP ve CRL token'ları süreç genelindeki, sınırlı ve thread-safe
+    //   RevocationTokenCache'te tutulur; eş zamanlı imzalar aynı yanıtı paylaşır.
+    // - C seviyesinde referanslanan OCSP token'ları uzantı örneği başına
+    //   pinnedOcspTokens'ta sabitlenir; C ile XL arasında önbellek yenilense de
+    //   token değişmez.
     // - Aynı veriler, hem referans oluştururken (C seviyesi) hem de gömülü veri eklerken 
     //   (XL seviyesi) tekrar kullanılmaktadır.
     // - Bu sayede OCSP/CRL digest eşleşmezliği ve tutarsızlıklar engellenir.
@@ -102,19 +106,21 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
     protected ValidationDataContainer cachedValidationDataContainer;
 
     /**
-     * Thread-safe, signature-specific cache for OCSP tokens.
-     * Outer Map: Signature ID -> Inner cache
-     * Inner Map: Certificate (base64) -> OCSPToken
-     * 
-     * This ensures:
-     * 1. Thread-safety for concurrent signature operations
-     * 2. Cache isolation between different signatures
-     * 3. No cache pollution between requests
+     * OCSP tokens referenced by this extension at C-level, keyed by
+     * {@link io.mersel.dss.signer.api.services.revocation.RevocationTokenCache#key}
+     * (certificate, issuer). XL-level embeds exactly these tokens.
+     *
+     * The tokens themselves come from the process-wide, bounded
+     * {@code RevocationTokenCache} behind the certificate verifier's OCSP source,
+     * so concurrent signatures share them. This map only pins them for the
+     * lifetime of one extension (DSS creates a new level instance per call),
+     * so a cache refresh or eviction between C and XL cannot swap the token.
+     * Nothing to clean up: the map is collected with the instance.
      */
-    protected static final java.util.concurrent.ConcurrentHashMap<String, java.util.concurrent.ConcurrentHashMap<String, OCSPToken>> ocspCacheBySignature = new java.util.concurrent.ConcurrentHashMap<>();
+    protected final java.util.Map<String, OCSPToken> pinnedOcspTokens = new java.util.LinkedHashMap<>();
 
     /**
-     * Current signature ID being processed (for cache lookup)
+     * Current signature ID being processed (for logging)
      */
     protected String currentSignatureId;
     // ################ BLOK BİTTİ (XADES-C,XL GELİŞMELERİ) ################
@@ -165,31 +171,24 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
         // 1. CompleteCertificateRefs ve CompleteRevocationRefs
         //    öğeleri UnsignedSignatureProperties içine eklenir.
         //
-        // 2. OCSP/CRL yanıtları bu aşamada elde edilir ve
-        //    imza-özel (signature-specific) cache'te saklanır.
+        // 2. OCSP/CRL yanıtları süreç geneli RevocationTokenCache
+        //    üzerinden elde edilir; C seviyesinde kullanılan OCSP
+        //    token'ları bu örneğe sabitlenir (pinnedOcspTokens).
         //
-        // 3. Cache kullanımı sayesinde, aynı revocation verileri
+        // 3. Sabitleme sayesinde, aynı revocation verileri
         //    hem C seviyesinde (referans) hem de XL seviyesinde
         //    (gömülü değer) tutarlı şekilde kullanılır.
         //
-        // 4. Thread-safe ConcurrentHashMap ile eş zamanlı işlemler
-        //    izole edilir ve cache kirliliği engellenir.
+        // 4. DSS her uzatma çağrısında yeni seviye örneği oluşturur;
+        //    eş zamanlı imzalar birbirinin sabitlemesini görmez.
         //
         // Bu sayede OCSP/CRL digest eşleşmezliği önlenir ve
         // imza arşiv seviyelerine (XL, A) sorunsuz geçiş sağlanır.
         // #############################################################
 
-        // Initialize signature-specific cache context
+        // Signature ID is only used to correlate C/XL log lines
         if (!signaturesToExtend.isEmpty()) {
-            AdvancedSignature firstSignature = signaturesToExtend.get(0);
-            currentSignatureId = firstSignature.getId();
-            if (currentSignatureId == null || currentSignatureId.isEmpty()) {
-                currentSignatureId = "sig_" + System.currentTimeMillis() + "_"
-                        + System.identityHashCode(firstSignature);
-            }
-
-            // Initialize cache for this signature if not exists
-            ocspCacheBySignature.putIfAbsent(currentSignatureId, new java.util.concurrent.ConcurrentHashMap<>());
+            currentSignatureId = signaturesToExtend.get(0).getId();
         }
         // ################ BLOK BİTTİ (XADES-C,XL GELİŞMELERİ) ################        
 
@@ -426,15 +425,14 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
             //  https://github.com/esig/dss/pull/187
             //  Kalıcı çözüm resmi yayınlanana kadar bu satırlar override olarak çerçevemizde tutulacaktır.
             //  (NOT: Bu bir override değildir; eksik davranışın tamamlanmasıdır.)
+            //  CRL numarası X509CRL nesne ağacı kurulmadan akış üzerinden okunur ve
+            //  CRL özetine göre saklanır (bkz. CRLMetadataCache); aynı CRL sürümü
+            //  imza başına yeniden okunmaz.
 
-
-            try {
-                X509CRL x509CRL = (X509CRL) CertificateFactory.getInstance("X.509")
-                        .generateCRL(crlToken.getCRLStream());
-                String crlNumber = XadesUtil.extractCrlNumber(x509CRL);
+            final CRLMetadata crlMetadata = CRLMetadataCache.get(crlToken);
+            if (crlMetadata != null && crlMetadata.getCrlNumber() != null) {
                 DomUtils.addTextElement(documentDom, crlIdentifierDom, getXadesNamespace(),
-                        getCurrentXAdESElements().getElementNumber(), crlNumber);
-            } catch (Exception ignored) {
+                        getCurrentXAdESElements().getElementNumber(), crlMetadata.getCrlNumber());
             }
 
         }
@@ -523,135 +521,35 @@ public class XAdESLevelC extends XAdESLevelBaselineT {
                 // yol açmaktadır.
                 //
                 // Çözüm olarak:
-                // 1. Her OCSP token, ilgili sertifikanın Base64 anahtarı
-                //    ile imza-özel (signature-specific) cache'te saklanır.
+                // 1. OCSP token'ları süreç geneli, boyutu sınırlı
+                //    RevocationTokenCache'ten (sertifika, issuer) anahtarıyla
+                //    gelir; tazelik/nextUpdate dolunca önbellekten düşer.
                 //
-                // 2. XL-seviyesinde aynı sertifika için OCSP gerektiğinde,
-                //    cache'ten alınarak tutarlılık garanti edilir.
+                // 2. C seviyesinde referansı yazılan token bu uzatma
+                //    örneğine (pinnedOcspTokens) sabitlenir; XL-seviyesinde
+                //    aynı çift için bu token gömülür. Önbellek arada
+                //    yenilense de C/XL/A aynı token'ı görür.
                 //
-                // 3. Thread-safe ConcurrentHashMap kullanımı ile eş zamanlı
-                //    işlemler güvenli şekilde izole edilir.
-                //
-                // 4. Cache, imza işlemi tamamlandıktan sonra temizlenir.
+                // 3. Sabitleme örneğe bağlıdır; imza bitince örnekle birlikte
+                //    toplanır, ayrıca temizlik gerekmez.
                 //
                 // Bu sayede OCSPRef digest'i ile EncapsulatedOCSPValue
                 // digest'i her zaman eşleşir ve XAdES-A doğrulaması başarılı olur.
                 // #############################################################
-                
-                try {
-                    if (currentSignatureId != null) {
-                        CertificateToken relatedCert = ocspToken.getRelatedCertificate();
-                        if (relatedCert != null) {
-                            String certKey = Utils.toBase64(relatedCert.getEncoded());
-
-                            // Get signature-specific cache
-                            java.util.concurrent.ConcurrentHashMap<String, OCSPToken> signatureCache = ocspCacheBySignature
-                                    .get(currentSignatureId);
-
-                            if (signatureCache != null) {
-                                signatureCache.put(certKey, ocspToken);
-
-                                // Also store digest for debugging
-                                byte[] ocspDigest = ocspToken.getDigest(digestAlgorithm);
-                                LOGGER.info("C-LEVEL [{}]: Cached OCSP for cert {} with digest {}", 
-                                        currentSignatureId, 
-                                        certKey.substring(0, Math.min(20, certKey.length())),
-                                        Utils.toBase64(ocspDigest).substring(0, 20));
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    LOGGER.error("C-LEVEL: Failed to cache OCSP token: {}", e.getMessage());
-                    e.printStackTrace();
-                    throw e;
-                }
-                // ################ BLOK BİTTİ (OCSP CACHE) ################
-            }
-        }
-    }
 
-    // ################ BLOK BAŞLANGICI (CACHE CLEANUP) ################
-    // ########################OVERRIDE_DSS#########################
-    // ##### Bu alan, OCSP cache temizliği için eklenen           #
-    // ##### yardımcı metodları içerir. Memory leak önlenir.      #
-    // ##### DSS orijinalinde bulunmayan ek fonksiyonlardır.      #
-    // #############################################################
-    //
-    // DSS kütüphanesinde OCSP cache mekanizması olmadığı için
-    // cache temizliği de yoktur. Bizim eklediğimiz cache
-    // yapısının memory leak'e yol açmaması için bu metodlar
-    // geliştirilmiştir.
-    //
-    // İki tür temizleme sağlanır:
-    //
-    // 1. cleanupOcspCache(signatureId):
-    //    Belirli bir imza işlemi tamamlandığında, o imzaya
-    //    özel cache'in hemen silinmesini sağlar. SignService'de
-    //    her imza işlemi sonrası finally bloğunda çağrılır.
-    //
-    // 2. cleanupOldCaches(maxAgeMillis):
-    //    Eğer bir nedenle (exception, crash vb.) cleanup
-    //    çağrılmamışsa, eski cache'leri periyodik olarak
-    //    temizler. Güvenlik ağı (fallback) görevi görür.
-    //
-    // Thread-safe: ConcurrentHashMap kullanımı sayesinde
-    // eş zamanlı temizleme işlemleri güvenlidir.
-    //
-    // Kullanım:
-    // - Her imza sonrası: cleanupOcspCache(signatureId)
-    // - Periyodik: cleanupOldCaches(5 * 60 * 1000L) // 5 dakika
-    // #############################################################
-
-    /**
-     * Cleans up the OCSP cache for a specific signature.
-     * Should be called after signature extension is complete.
-     * Thread-safe operation.
-     * 
-     * @param signatureId The signature ID to clean up
-     */
-    public static void cleanupOcspCache(String signatureId) {
-        if (signatureId != null) {
-            java.util.concurrent.ConcurrentHashMap<String, OCSPToken> removed = ocspCacheBySignature
-                    .remove(signatureId);
-            if (removed != null) {
-                LOGGER.info("🧹 Cleaned up OCSP cache for signature: {} (removed {} entries)", 
-                        signatureId, removed.size());
-            }
-        }
-    }
-
-    /**
-     * Cleans up all OCSP caches older than the specified age.
-     * Useful for preventing memory leaks if cleanup wasn't called explicitly.
-     * Thread-safe operation.
-     * 
-     * @param maxAgeMillis Maximum age in milliseconds
-     */
-    public static void cleanupOldCaches(long maxAgeMillis) {
-        long cutoffTime = System.currentTimeMillis() - maxAgeMillis;
-        int removedCount = 0;
-
-        for (String signatureId : ocspCacheBySignature.keySet()) {
-            // Extract timestamp from signature ID if it follows our format
-            if (signatureId.startsWith("sig_")) {
-                try {
-                    String[] parts = signatureId.split("_");
-                    if (parts.length >= 2) {
-                        long timestamp = Long.parseLong(parts[1]);
-                        if (timestamp < cutoffTime) {
-                            ocspCacheBySignature.remove(signatureId);
-                            removedCount++;
-                        }
+                CertificateToken relatedCert = ocspToken.getRelatedCertificate();
+                if (relatedCert != null) {
+                    String pinKey = io.mersel.dss.signer.api.services.revocation.RevocationTokenCache
+                            .key(relatedCert, ocspToken.getIssuerCertificateToken());
+                    pinnedOcspTokens.put(pinKey, ocspToken);
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug("C-LEVEL [{}]: Pinned OCSP for {} with digest {}",
+                                currentSignatureId, relatedCert.getDSSIdAsString(),
+                                Utils.toBase64(ocspToken.getDigest(digestAlgorithm)));
                     }
-                } catch (NumberFormatException ignored) {
-                    // Skip if timestamp can't be parsed
                 }
+                // ################ BLOK BİTTİ (OCSP CACHE) ################
             }
         }
-
-        if (removedCount > 0) {
-            LOGGER.info("🧹 Cleaned up {} old OCSP cache(s)", removedCount);
-        }
     }
-    // ################ BLOK BİTTİ (CACHE CLEANUP) ################
 }
\ No newline at end of file
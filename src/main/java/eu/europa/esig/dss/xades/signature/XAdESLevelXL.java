@@ -495,100 +495,53 @@ public class XAdESLevelXL extends XAdESLevelX {
     }
 
     /**
-     * Replaces OCSP tokens with cached versions from C-level to ensure digest
-     * consistency.
-     * Matches by CERTIFICATE (not digest) since same cert gets different OCSP
-     * responses over time.
+     * Replaces OCSP tokens with the ones pinned at C-level to ensure digest
+     * consistency. Matches by (certificate, issuer), not digest, since the same
+     * certificate gets different OCSP responses over time.
      * 
      * @param newOcspTokens The newly fetched OCSP tokens
-     * @return A set of OCSP tokens with cached versions where available
+     * @return A set of OCSP tokens with pinned versions where available
      */
     private Set<OCSPToken> replaceWithCachedOcspTokens(Set<OCSPToken> newOcspTokens) {
-        LOGGER.info("=== XL-LEVEL: replaceWithCachedOcspTokens ===");
-
         if (newOcspTokens == null || newOcspTokens.isEmpty()) {
-            LOGGER.info("XL-LEVEL: No new OCSP tokens to process");
             return newOcspTokens;
         }
 
-        // Get signature-specific cache
-        java.util.concurrent.ConcurrentHashMap<String, OCSPToken> signatureCache = null;
-        if (currentSignatureId != null) {
-            signatureCache = ocspCacheBySignature.get(currentSignatureId);
-        }
-
-        if (signatureCache == null || signatureCache.isEmpty()) {
-            LOGGER.error("XL-LEVEL: ERROR - No cached OCSP tokens available for signature: {}", currentSignatureId);
+        if (pinnedOcspTokens.isEmpty()) {
+            LOGGER.error("XL-LEVEL: ERROR - No OCSP tokens pinned at C-level for signature: {}", currentSignatureId);
             LOGGER.error("XL-LEVEL: This will cause 'OCSP not found in references' error!");
             return newOcspTokens;
         }
 
-        LOGGER.info("XL-LEVEL [{}]: Cache has {} OCSP tokens", currentSignatureId, signatureCache.size());
-        LOGGER.info("XL-LEVEL: Processing {} new OCSP tokens", newOcspTokens.size());
-
         Set<OCSPToken> replacedTokens = new java.util.LinkedHashSet<>();
-        DigestAlgorithm digestAlgorithm = params.getTokenReferencesDigestAlgorithm();
-
         int replacedCount = 0;
         int notFoundCount = 0;
 
         for (OCSPToken newToken : newOcspTokens) {
-            try {
-                // Get the certificate that this OCSP is validating
-                CertificateToken relatedCert = newToken.getRelatedCertificate();
-
-                if (relatedCert == null) {
-                    LOGGER.warn("XL-LEVEL: WARNING - OCSP token has no related certificate!");
-                    replacedTokens.add(newToken);
-                    notFoundCount++;
-                    continue;
-                }
-
-                String certKey = Utils.toBase64(relatedCert.getEncoded());
-                byte[] newOcspDigest = newToken.getDigest(digestAlgorithm);
-
-                LOGGER.info("XL-LEVEL [{}]: Processing OCSP for cert {}", 
-                        currentSignatureId, certKey.substring(0, Math.min(20, certKey.length())));
-                LOGGER.info("XL-LEVEL: New OCSP digest: {}", 
-                        Utils.toBase64(newOcspDigest).substring(0, 20));
-
-                // Check if we have a cached token for this certificate in signature-specific
-                // cache
-                OCSPToken cachedToken = signatureCache.get(certKey);
-
-                if (cachedToken != null) {
-                    // Use cached token - ensures it has a matching OCSPRef from C-level
-                    byte[] cachedOcspDigest = cachedToken.getDigest(digestAlgorithm);
-
-                    LOGGER.info("XL-LEVEL: ✅ Found cached OCSP!");
-                    LOGGER.info("XL-LEVEL: Cached OCSP digest: {}", 
-                            Utils.toBase64(cachedOcspDigest).substring(0, 20));
-                    LOGGER.info("XL-LEVEL: Using CACHED token (has OCSPRef)");
-
-                    replacedTokens.add(cachedToken);
-                    replacedCount++;
-                } else {
-                    // No cached version for this certificate - this will cause validation error!
-                    LOGGER.error("XL-LEVEL: ❌ ERROR - No cached OCSP for this certificate!");
-                    LOGGER.error("XL-LEVEL: This OCSP will have NO OCSPRef!");
-                    LOGGER.error("XL-LEVEL: Validation will fail!");
+            CertificateToken relatedCert = newToken.getRelatedCertificate();
+            if (relatedCert == null) {
+                LOGGER.warn("XL-LEVEL: WARNING - OCSP token has no related certificate!");
+                replacedTokens.add(newToken);
+                notFoundCount++;
+                continue;
+            }
 
-                    replacedTokens.add(newToken);
-                    notFoundCount++;
-                }
-            } catch (Exception e) {
-                LOGGER.error("XL-LEVEL: Exception while processing OCSP: {}", e.getMessage());
-                e.printStackTrace();
+            OCSPToken pinnedToken = pinnedOcspTokens.get(io.mersel.dss.signer.api.services.revocation
+                    .RevocationTokenCache.key(relatedCert, newToken.getIssuerCertificateToken()));
+            if (pinnedToken != null) {
+                // Pinned token has a matching OCSPRef from C-level
+                replacedTokens.add(pinnedToken);
+                replacedCount++;
+            } else {
+                LOGGER.error("XL-LEVEL [{}]: ❌ No C-level OCSP for {}; this OCSP will have NO OCSPRef "
+                        + "and validation will fail!", currentSignatureId, relatedCert.getDSSIdAsString());
                 replacedTokens.add(newToken);
                 notFoundCount++;
             }
         }
 
-        LOGGER.info("=== XL-LEVEL SUMMARY ===");
-        LOGGER.info("Total OCSP tokens: {}", newOcspTokens.size());
-        LOGGER.info("Replaced with cached: {}", replacedCount);
-        LOGGER.info("Not found in cache: {}", notFoundCount);
-        LOGGER.info("========================");
+        LOGGER.debug("XL-LEVEL [{}]: {} OCSP token(s), {} replaced with C-level token, {} not found",
+                currentSignatureId, newOcspTokens.size(), replacedCount, notFoundCount);
 
         return replacedTokens;
     }
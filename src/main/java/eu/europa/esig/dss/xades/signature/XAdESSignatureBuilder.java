@@ -1741,7 +1741,7 @@ public abstract class XAdESSignatureBuilder extends XAdESBuilder implements Sign
     }
 
     /**
-     * Adds signature value to the signature and returns XML signature (InMemoryDocument)
+     * Adds signature value to the signature and returns XML signature ({@link XAdESDomDocument})
      *
      * @param signatureValue byte array
      * @return {@link DSSDocument} representing the signature
@@ -1767,7 +1767,17 @@ public abstract class XAdESSignatureBuilder extends XAdESBuilder implements Sign
         final String signatureValueBase64Encoded = Utils.toBase64(signatureValueBytes);
         final Text signatureValueNode = documentDom.createTextNode(signatureValueBase64Encoded);
         signatureValueDom.appendChild(signatureValueNode);
-        return createXmlDocument();
+        // ########################OVERRIDE_DSS#########################
+        // ##### DSS burada DOM'u byte[]'a serileştirir; imza servisi #
+        // ##### ise ds:Signature'ı ana belgeye taşımak için bunu     #
+        // ##### yeniden parse ederdi. Girintisiz çıktıda DOM        #
+        // ##### XAdESDomDocument ile olduğu gibi döndürülür;        #
+        // ##### serileştirme yalnızca byte istenirse yapılır.       #
+        // #############################################################
+        if (params.isPrettyPrint()) {
+            return createXmlDocument();
+        }
+        return new XAdESDomDocument(documentDom, signatureDom);
     }
 
     /**
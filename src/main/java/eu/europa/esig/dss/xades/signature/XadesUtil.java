@@ -199,6 +199,20 @@ public class XadesUtil {
                     "CRL Number extension (" + Extension.cRLNumber.getId() + ") not found in the CRL.");
         }
 
+        return extractCrlNumber(extensionValue);
+    }
+
+    /**
+     * Decodes the CRL Number from the raw extension value, i.e. the DER encoded
+     * OCTET STRING as returned by {@link X509CRL#getExtensionValue(String)}.
+     * Lets streaming CRL parsers read the number without building an X509CRL.
+     *
+     * @param extensionValue The DER encoded OCTET STRING wrapping the CRL Number INTEGER.
+     * @return The String representation of the CRL Number.
+     * @throws IOException If an error occurs during ASN.1/DER parsing.
+     */
+    public static String extractCrlNumber(byte[] extensionValue) throws IOException {
+
         // --- Bouncy Castle ASN.1/DER Decoding ---
 
         // Step 1: The value returned by getExtensionValue() is the DER encoding
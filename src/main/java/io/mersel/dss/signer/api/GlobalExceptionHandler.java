@@ -2,10 +2,12 @@ package io.mersel.dss.signer.api;
 
 import io.mersel.dss.signer.api.exceptions.CertificateValidationException;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.exceptions.SigningCapacityException;
 import io.mersel.dss.signer.api.exceptions.TimestampException;
 import io.mersel.dss.signer.api.models.ErrorModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.HttpMediaTypeNotSupportedException;
@@ -37,6 +39,21 @@ public class GlobalExceptionHandler {
             .body(new ErrorModel(ex.getErrorCode(), ex.getMessage()));
     }
 
+    /**
+     * İmza kapasitesi reddini yönetir: kuyruk dolu → 429, permit zaman aşımı
+     * → 503. Her ikisinde de istemciye {@code Retry-After} (saniye) döner.
+     */
+    @ExceptionHandler(SigningCapacityException.class)
+    public ResponseEntity<ErrorModel> handleSigningCapacityException(SigningCapacityException ex) {
+        LOGGER.warn("İmza isteği kapasite nedeniyle reddedildi: {} - {}", ex.getErrorCode(), ex.getMessage());
+        HttpStatus status = ex.getReason() == SigningCapacityException.Reason.QUEUE_FULL
+            ? HttpStatus.TOO_MANY_REQUESTS
+            : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(new ErrorModel(ex.getErrorCode(), ex.getMessage()));
+    }
+
     /**
      * Sertifika doğrulama exception'larını yönetir.
      */
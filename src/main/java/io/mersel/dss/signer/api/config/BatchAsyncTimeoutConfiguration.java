@@ -0,0 +1,65 @@
+package io.mersel.dss.signer.api.config;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Toplu ZIP endpoint'leri için servlet async zaman aşımı.
+ *
+ * <p>{@code /v1/xadessign/batch} ve {@code /v1/xades/upgrade/batch} yanıtı
+ * {@code StreamingResponseBody} ile saatlerce akabilir. Uzun zaman aşımı
+ * ({@code XADES_BATCH_REQUEST_TIMEOUT_MS}, default 1 saat) yalnızca bu iki
+ * endpoint'e uygulanır; PAdES/CAdES ve streaming XAdES/WS-Security
+ * yanıtları global {@code spring.mvc.async.request-timeout} ile kalır.</p>
+ */
+@Configuration
+public class BatchAsyncTimeoutConfiguration implements WebMvcConfigurer {
+
+    /** Uzun zaman aşımı alan endpoint kalıpları. */
+    static final Set<String> BATCH_ENDPOINTS = Collections.unmodifiableSet(new HashSet<String>(
+            Arrays.asList("/v1/xadessign/batch", "/v1/xades/upgrade/batch")));
+
+    @Value("${XADES_BATCH_REQUEST_TIMEOUT_MS:3600000}")
+    private long batchRequestTimeoutMillis;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new BatchTimeoutInterceptor(batchRequestTimeoutMillis));
+    }
+
+    /**
+     * Async işlem başlamadan hemen önce, eşleşen handler toplu endpoint'lerden
+     * biriyse isteğin zaman aşımını uzatır. Spring bu noktada interceptor'a
+     * henüz başlatılmamış {@link AsyncWebRequest}'i verir.
+     */
+    public static final class BatchTimeoutInterceptor implements CallableProcessingInterceptor {
+
+        private final long timeoutMillis;
+
+        public BatchTimeoutInterceptor(long timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        @Override
+        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+            Object pattern = request.getAttribute(
+                    HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (timeoutMillis > 0 && request instanceof AsyncWebRequest && BATCH_ENDPOINTS.contains(pattern)) {
+                ((AsyncWebRequest) request).setTimeout(timeoutMillis);
+            }
+        }
+    }
+}
@@ -13,18 +13,30 @@ import io.mersel.dss.signer.api.models.SigningMaterial;
 import io.mersel.dss.signer.api.models.configurations.SignatureServiceConfiguration;
 import io.mersel.dss.signer.api.services.SigningMaterialFactory;
 import io.mersel.dss.signer.api.services.certificate.CertificateChainProvider;
+import io.mersel.dss.signer.api.services.concurrency.AdaptiveSigningLimiter;
+import io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter;
+import io.mersel.dss.signer.api.services.concurrency.MicroBatchingSigningBackend;
+import io.mersel.dss.signer.api.services.concurrency.SigningLimiter;
 import io.mersel.dss.signer.api.services.certificate.LocalCertificateChainProvider;
 import io.mersel.dss.signer.api.services.certificate.OnlineCertificateChainProvider;
 import io.mersel.dss.signer.api.services.keystore.KeyStoreProvider;
+import io.mersel.dss.signer.api.services.metrics.RevocationHttpMetrics;
+import io.mersel.dss.signer.api.services.metrics.SigningMicroBatchMetrics;
 import io.mersel.dss.signer.api.services.keystore.PKCS11KeyStoreProvider;
 import io.mersel.dss.signer.api.services.keystore.PfxKeyStoreProvider;
 import io.mersel.dss.signer.api.services.keystore.iaik.IaikPkcs11Module;
 import io.mersel.dss.signer.api.services.keystore.iaik.Pkcs11ModulePort;
 import io.mersel.dss.signer.api.services.keystore.iaik.bridge.Pkcs11BridgeConditions;
+import io.mersel.dss.signer.api.services.keystore.iaik.bridge.Pkcs11ConnectionPool;
 import io.mersel.dss.signer.api.services.keystore.iaik.bridge.Pkcs11HelperProcess;
 import io.mersel.dss.signer.api.services.keystore.iaik.bridge.RemotePkcs11Module;
+import io.mersel.dss.signer.api.services.revocation.CachingCRLSource;
+import io.mersel.dss.signer.api.services.revocation.CachingOCSPSource;
+import io.mersel.dss.signer.api.services.revocation.PooledRevocationDataLoader;
+import io.mersel.dss.signer.api.services.revocation.RevocationTokenCache;
 import io.mersel.dss.signer.api.services.KamusmRootCertificateService;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
@@ -38,7 +50,6 @@ import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 
 /**
@@ -48,6 +59,12 @@ import java.util.stream.Collectors;
 @Configuration
 public class SignatureConfiguration {
 
+    /**
+     * İptal verisinin (OCSP/CRL) imza, zaman damgası ve iptal verisi
+     * bağlamlarında kabul edilen azami tazeliği (ms).
+     */
+    public static final long REVOCATION_MAX_FRESHNESS_MS = 5 * 60 * 1000L;
+
     private final SignatureServiceConfiguration config;
     private final KamusmRootCertificateService rootCertificateService;
 
@@ -226,10 +243,20 @@ public class SignatureConfiguration {
             throw new io.mersel.dss.signer.api.exceptions.KeyStoreException(
                 "PKCS#11 helper process başlatılamadı: " + e.getMessage(), e);
         }
-        return new RemotePkcs11Module(
+        Pkcs11ConnectionPool pool = new Pkcs11ConnectionPool(
             helper,
+            config.getPkcs11BridgePoolSize(),
             config.getPkcs11HelperConnectTimeoutMs(),
-            config.getPkcs11HelperReadTimeoutMs());
+            config.getPkcs11HelperReadTimeoutMs(),
+            config.getPkcs11BridgePoolIdleTimeoutMs(),
+            config.getPkcs11BridgePoolValidateAfterIdleMs(),
+            config.getPkcs11BridgePipelineConnections());
+        LOGGER.info("PKCS#11 köprü bağlantı havuzu: maxSize={}, pipelineConnections={}, "
+                + "idleTimeoutMs={}, validateAfterIdleMs={}",
+            pool.getMaxSize(), pool.getPipelineConnectionLimit(),
+            config.getPkcs11BridgePoolIdleTimeoutMs(),
+            config.getPkcs11BridgePoolValidateAfterIdleMs());
+        return new RemotePkcs11Module(helper, pool);
     }
 
     /** Boşlukla ayrılmış JVM opt string'ini listeye çevirir (boş token'ları eler). */
@@ -251,12 +278,12 @@ public class SignatureConfiguration {
      * Öncelik sırasına göre sertifika zinciri sağlayıcılarını verir.
      */
     @Bean
-    public List<CertificateChainProvider> certificateChainProviders() {
+    public List<CertificateChainProvider> certificateChainProviders(PooledRevocationDataLoader revocationDataLoader) {
         List<CertificateChainProvider> providers = new ArrayList<>();
         
         // Online sağlayıcı (yüksek öncelik)
         if (config.isCertificateChainGetOnline()) {
-            providers.add(new OnlineCertificateChainProvider());
+            providers.add(new OnlineCertificateChainProvider(revocationDataLoader));
         }
         
         // Yerel dosya sağlayıcı (yedek)
@@ -302,10 +329,45 @@ public class SignatureConfiguration {
     /**
      * Uygulama için ana imzalama materyalini sağlar.
      * Başlangıçta bir kez oluşturulur ve tüm imzalama işlemleri için tekrar kullanılır.
+     *
+     * <p>{@code SIGN_MICROBATCH_ENABLED=true} iken imza çağrıları
+     * {@link #signingMicroBatcher} üzerinden geçer.</p>
      */
     @Bean
-    public SigningMaterial signingMaterial(SigningContext signingContext) {
-        return signingContext.getMaterial();
+    public SigningMaterial signingMaterial(SigningContext signingContext,
+                                           ObjectProvider<MicroBatchingSigningBackend> microBatcherProvider) {
+        SigningMaterial material = signingContext.getMaterial();
+        MicroBatchingSigningBackend microBatcher = microBatcherProvider.getIfAvailable();
+        if (microBatcher == null && config.isSignMicrobatchEnabled()) {
+            LOGGER.warn("SIGN_MICROBATCH_ENABLED yalnızca PKCS#11 yolunda etkilidir; {} için yoksayıldı",
+                    material.getBackendName());
+        }
+        return microBatcher != null ? material.withSigningBackend(microBatcher) : material;
+    }
+
+    /**
+     * Eş zamanlı tekil imza çağrılarını toplayıp HSM'e toplu iş olarak
+     * gönderen dispatcher. PFX yolunda JCA imzası zaten süreç içidir;
+     * toplamanın kazancı yoktur — {@link Pkcs11BridgeConditions.Enabled}
+     * bean'i yalnızca PKCS#11 yolunda yaratır.
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "SIGN_MICROBATCH_ENABLED", havingValue = "true")
+    @Conditional(Pkcs11BridgeConditions.Enabled.class)
+    public MicroBatchingSigningBackend signingMicroBatcher(SigningContext signingContext,
+                                                           SigningLimiter signingLimiter,
+                                                           SigningMicroBatchMetrics metrics) {
+        SigningMaterial material = signingContext.getMaterial();
+        if (!material.isPkcs11()) {
+            throw new IllegalStateException("SIGN_MICROBATCH_ENABLED PKCS#11 backend'i bekliyor, "
+                    + material.getBackendName() + " çözümlendi");
+        }
+        int maxSessions = Math.max(1, config.getMaxSessionCount());
+        int maxItems = config.getSignMicrobatchMaxItems() > 0 ? config.getSignMicrobatchMaxItems() : maxSessions;
+        return new MicroBatchingSigningBackend(material.getSigningBackend(),
+                Math.max(0L, config.getSignMicrobatchWindowMicros()), maxItems, maxSessions,
+                signingLimiter instanceof AdaptiveSigningLimiter ? (AdaptiveSigningLimiter) signingLimiter : null,
+                metrics);
     }
 
     /**
@@ -333,18 +395,90 @@ public class SignatureConfiguration {
     }
 
     /**
-     * Eşzamanlı imza işlemlerini kontrol etmek için semaphore sağlar.
+     * Eşzamanlı imza işlemlerini kontrol eden limiter'ı sağlar.
+     *
+     * <p>{@code SIGNING_LIMITER_ENABLED=true} (default) iken HSM gecikmesine
+     * göre limitini {@code [SIGNING_LIMITER_MIN_LIMIT, MAX_SESSION_COUNT]}
+     * aralığında ayarlayan {@link AdaptiveSigningLimiter} döner; kapalıyken
+     * {@code MAX_SESSION_COUNT} permit'lik {@link FixedSigningLimiter}.</p>
      */
     @Bean
-    public Semaphore signatureSemaphore() {
-        return new Semaphore(config.getMaxSessionCount());
+    public SigningLimiter signingLimiter() {
+        int maxSessions = config.getMaxSessionCount();
+        if (!config.isSigningLimiterEnabled()) {
+            return new FixedSigningLimiter(maxSessions);
+        }
+        int minLimit = Math.min(Math.max(1, config.getSigningLimiterMinLimit()), maxSessions);
+        AdaptiveSigningLimiter limiter = new AdaptiveSigningLimiter(
+                minLimit,
+                maxSessions,
+                config.getSigningLimiterQueueSize(),
+                config.getSigningLimiterAcquireTimeoutMs(),
+                config.getSigningLimiterLatencyThresholdMs(),
+                config.getSigningLimiterDecreaseFactor(),
+                AdaptiveSigningLimiter.parsePriorities(config.getSigningLimiterPriorities()));
+        LOGGER.info("Adaptif imza limiter'ı etkin. Limit: [{}, {}], kuyruk: {}, zaman aşımı: {} ms, "
+                        + "gecikme eşiği: {} ms",
+                minLimit, maxSessions, config.getSigningLimiterQueueSize(),
+                config.getSigningLimiterAcquireTimeoutMs(), config.getSigningLimiterLatencyThresholdMs());
+        return limiter;
+    }
+
+    /**
+     * Süreç geneli OCSP/CRL yanıt önbelleği. Tazelik sınırı
+     * {@link #certificateVerifier} ile aynıdır; önbellek bu sınırı geçemeyecek
+     * yanıtı vermez.
+     */
+    @Bean
+    public RevocationTokenCache revocationTokenCache() {
+        return new RevocationTokenCache(
+                REVOCATION_MAX_FRESHNESS_MS,
+                config.getRevocationPrefetchSafetyMarginMs(),
+                config.getRevocationPrefetchRefreshAheadMs(),
+                config.getRevocationCacheMaxEntries());
+    }
+
+    /**
+     * OCSP, CRL ve AIA (DSS kaynakları ve {@link OnlineCertificateChainProvider})
+     * isteklerinin paylaştığı, host başına havuzlu HTTP loader'ı.
+     */
+    @Bean(destroyMethod = "close")
+    public PooledRevocationDataLoader revocationDataLoader(ObjectProvider<RevocationHttpMetrics> metrics) {
+        PooledRevocationDataLoader dataLoader = new PooledRevocationDataLoader(metrics.getIfAvailable());
+        int maxConnections = Math.max(1, config.getRevocationHttpMaxConnectionsPerHost());
+        dataLoader.setTimeoutConnection(config.getRevocationHttpConnectTimeoutMs());
+        dataLoader.setTimeoutResponse(config.getRevocationHttpReadTimeoutMs());
+        dataLoader.setTimeoutSocket(config.getRevocationHttpReadTimeoutMs());
+        dataLoader.setTimeoutConnectionRequest(config.getRevocationHttpPoolLeaseTimeoutMs());
+        // Havuz host başına kurulduğundan toplam sınır da host sınırıdır
+        dataLoader.setConnectionsMaxTotal(maxConnections);
+        dataLoader.setConnectionsMaxPerRoute(maxConnections);
+        dataLoader.setConnectionKeepAlive(config.getRevocationHttpKeepAliveMs());
+        dataLoader.setIdleEvictionMillis(config.getRevocationHttpIdleEvictionMs());
+        dataLoader.setMaxResponseBytes(config.getRevocationHttpMaxResponseBytes());
+        dataLoader.setMaxRetries(config.getRevocationHttpMaxRetries());
+        LOGGER.info("OCSP/CRL/AIA HTTP havuzu: host başına {} bağlantı, bağlantı/okuma timeout {}/{} ms, "
+                        + "azami yanıt {} bayt",
+                maxConnections, config.getRevocationHttpConnectTimeoutMs(),
+                config.getRevocationHttpReadTimeoutMs(), config.getRevocationHttpMaxResponseBytes());
+        return dataLoader;
     }
 
     /**
      * Tam yapılandırılmış DSS sertifika doğrulayıcısını sağlar.
+     *
+     * <p>OCSP ve CRL kaynakları {@link RevocationTokenCache}'teki yanıtı önce
+     * deneyen sarmalayıcılarla verilir; aynı (sertifika, issuer) çifti için
+     * imzalar ve XAdES-C/XL/A seviyeleri aynı yanıtı kullanır.
+     * {@code REVOCATION_PREFETCH_ENABLED} yalnızca önbelleği arka planda
+     * dolduran {@code RevocationPrefetcher}'ı açar/kapatır.</p>
+     *
+     * <p>OCSP, CRL ve AIA kaynaklarının tümü {@link PooledRevocationDataLoader}
+     * üzerinden konuşur.</p>
      */
     @Bean
-    public CertificateVerifier certificateVerifier() {
+    public CertificateVerifier certificateVerifier(RevocationTokenCache revocationTokenCache,
+                                                   PooledRevocationDataLoader revocationDataLoader) {
         CommonCertificateVerifier verifier = new CommonCertificateVerifier();
         
         // Güvenilir sertifika kaynaklarını yapılandır
@@ -359,27 +493,26 @@ public class SignatureConfiguration {
         // İptal verisi doğrulayıcısını yapılandır
         RevocationDataVerifier revocationVerifier = 
             RevocationDataVerifier.createDefaultRevocationDataVerifier();
-        Long fiveMinutes = 5 * 60 * 1000L;
         revocationVerifier.setCheckRevocationFreshnessNextUpdate(true);
-        revocationVerifier.setSignatureMaximumRevocationFreshness(fiveMinutes);
-        revocationVerifier.setTimestampMaximumRevocationFreshness(fiveMinutes);
-        revocationVerifier.setRevocationMaximumRevocationFreshness(fiveMinutes);
+        revocationVerifier.setSignatureMaximumRevocationFreshness(REVOCATION_MAX_FRESHNESS_MS);
+        revocationVerifier.setTimestampMaximumRevocationFreshness(REVOCATION_MAX_FRESHNESS_MS);
+        revocationVerifier.setRevocationMaximumRevocationFreshness(REVOCATION_MAX_FRESHNESS_MS);
         verifier.setRevocationDataVerifier(revocationVerifier);
 
         // İptal yedeklemeyi etkinleştir
         verifier.setRevocationFallback(true);
 
         // OCSP kaynağını yapılandır
-        OnlineOCSPSource ocspSource = new OnlineOCSPSource();
-        verifier.setOcspSource(ocspSource);
+        verifier.setOcspSource(new CachingOCSPSource(
+            new OnlineOCSPSource(revocationDataLoader), revocationTokenCache));
 
         // Zincir oluşturma için AIA kaynağını yapılandır
-        DefaultAIASource aiaSource = new DefaultAIASource();
+        DefaultAIASource aiaSource = new DefaultAIASource(revocationDataLoader);
         verifier.setAIASource(aiaSource);
 
         // CRL kaynağını yapılandır
-        OnlineCRLSource crlSource = new OnlineCRLSource();
-        verifier.setCrlSource(crlSource);
+        verifier.setCrlSource(new CachingCRLSource(
+            new OnlineCRLSource(revocationDataLoader), revocationTokenCache));
 
         return verifier;
     }
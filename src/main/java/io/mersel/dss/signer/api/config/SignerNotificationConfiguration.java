@@ -25,6 +25,11 @@ import org.springframework.context.annotation.Configuration;
  *       </ul>
  *       Heartbeat scheduler thread'inde tetiklenir; istek bağlamı yoktur,
  *       <code>x-log-*</code> alanı boş gelir.</li>
+ *   <li><b>{@code xades-upgrade-completed} / {@code xades-upgrade-failed}</b>
+ *       — Asenkron XAdES-A yükseltme işi bittiğinde. Worker thread'inde
+ *       tetiklenir; işi gönderen isteğin <code>x-log-*</code> header'ları
+ *       iş kaydından payload'a eklenir. Slack'e yalnız başarısız işler
+ *       gider.</li>
  * </ul>
  *
  * <h3>Aktivasyon kuralı</h3>
@@ -59,7 +64,7 @@ import org.springframework.context.annotation.Configuration;
  * <p><b>Olay seviyesinde kapatma</b>: Operatör yalnız heartbeat alarmı
  * isteyip signature-failure'ı kapatmak (veya tersi) isterse iki bayrağı
  * da kullanabilir: {@link #signatureFailureEnabled},
- * {@link #heartbeatEnabled}.</p>
+ * {@link #heartbeatEnabled}, {@link #xadesUpgradeEnabled}.</p>
  *
  * @see io.mersel.dss.signer.api.services.notification.SignerNotifier
  * @see io.mersel.dss.signer.api.services.notification.SignerEventWebhookPayload
@@ -91,6 +96,15 @@ public class SignerNotificationConfiguration {
     @Value("${notification.signer.events.heartbeat.enabled:${SIGNER_NOTIFICATION_HEARTBEAT_ENABLED:true}}")
     private boolean heartbeatEnabled;
 
+    /**
+     * Olay seviyesi anahtar — asenkron XAdES-A yükseltme işlerinin
+     * {@code xades-upgrade-completed} / {@code xades-upgrade-failed}
+     * olaylarını gönder. Default {@code true}; istemci durumu yalnız polling
+     * ile izliyorsa {@code false} yapılabilir.
+     */
+    @Value("${notification.signer.events.xades-upgrade.enabled:${SIGNER_NOTIFICATION_XADES_UPGRADE_ENABLED:true}}")
+    private boolean xadesUpgradeEnabled;
+
     /**
      * Generic webhook URL — operatörün kendi alert/ticket/audit sistemi.
      * Boş ise generic webhook tetiklenmez (Slack hâlâ tetiklenebilir).
@@ -208,6 +222,14 @@ public class SignerNotificationConfiguration {
         this.heartbeatEnabled = heartbeatEnabled;
     }
 
+    public boolean isXadesUpgradeEnabled() {
+        return xadesUpgradeEnabled;
+    }
+
+    public void setXadesUpgradeEnabled(boolean xadesUpgradeEnabled) {
+        this.xadesUpgradeEnabled = xadesUpgradeEnabled;
+    }
+
     public String getWebhookUrl() {
         return webhookUrl;
     }
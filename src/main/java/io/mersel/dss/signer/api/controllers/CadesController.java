@@ -1,11 +1,16 @@
 package io.mersel.dss.signer.api.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.UUID;
 
+import io.mersel.dss.signer.api.exceptions.SigningCapacityException;
 import io.mersel.dss.signer.api.models.SigningMaterial;
 import io.mersel.dss.signer.api.services.metrics.SignatureMetrics;
 import io.mersel.dss.signer.api.services.notification.SignerNotifier;
 import io.mersel.dss.signer.api.services.signature.cades.CAdESSignatureService;
+import io.mersel.dss.signer.api.services.signature.cades.SpooledCmsSignature;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -16,6 +21,7 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -46,6 +52,10 @@ import io.mersel.dss.signer.api.models.SignResponse;
  * Base64 olarak da gönderilir. Attached modda bu header eklenmez çünkü CMS zarfı
  * büyük dosyalarda HTTP header boyut limitini aşabilir.</p>
  *
+ * <p>Her iki modda da belge heap'e alınmaz: detached modda digest stream
+ * okunurken hesaplanır, attached modda içerik geçici dosyaya spool edilir ve
+ * CMS zarfı yanıt gövdesine akış halinde yazılır.</p>
+ *
  * @see CAdESSignatureService
  * @see SigningMaterial
  */
@@ -119,27 +129,46 @@ public class CadesController {
             inputSize = dto.getDocument().getSize();
             sample = signatureMetrics.start("CAdES", "binary", detached ? "detached" : "attached");
 
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .header("Content-Disposition",
+                            "attachment; filename=\"signed-" + UUID.randomUUID() + ".p7s\"")
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM);
+
+            if (!detached) {
+                // Gömülü imza içeriği spool dosyasından akış halinde yazılır;
+                // CMS zarfı heap'te hiç oluşturulmaz. Base64 header'ı da bu yüzden
+                // (ve HTTP header boyut limiti nedeniyle) eklenmez.
+                SpooledCmsSignature signature;
+                try (InputStream is = dto.getDocument().getInputStream()) {
+                    signature = cadesSignatureService.signEnveloping(is, signingMaterial);
+                }
+                LOGGER.info("CAdES imzası başarıyla oluşturuldu (detached: false)");
+                return builder.body(streamEnveloping(signature, sample, inputSize));
+            }
+
             SignResponse result;
-            try (java.io.InputStream is = dto.getDocument().getInputStream()) {
-                result = cadesSignatureService.signData(is, detached, signingMaterial);
+            try (InputStream is = dto.getDocument().getInputStream()) {
+                result = cadesSignatureService.signData(is, true, signingMaterial);
             }
 
             sample.success(inputSize,
                     result.getSignedDocument() != null ? result.getSignedDocument().length : -1);
             LOGGER.info("CAdES imzası başarıyla oluşturuldu (detached: {})", detached);
 
-            // Attached imzada CMS zarfı orijinal belgeyi de içerdiğinden Base64 hali
-            // çok büyük olabilir; bu yüzden header yalnızca detached modda eklenir.
-            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
-                    .header("Content-Disposition",
-                            "attachment; filename=\"signed-" + UUID.randomUUID() + ".p7s\"")
-                    .contentType(MediaType.APPLICATION_OCTET_STREAM);
-            if (detached) {
-                builder = builder.header("x-signature-value", result.getSignatureValue());
-            }
-            return builder.body(result.getSignedDocument());
+            return builder
+                    .header("x-signature-value", result.getSignatureValue())
+                    .body(result.getSignedDocument());
 
         } catch (Exception e) {
+            // Kapasite reddi imza hatası değildir: bildirim gönderilmez,
+            // GlobalExceptionHandler 429/503 + Retry-After döner.
+            SigningCapacityException overload = SigningCapacityException.find(e);
+            if (overload != null) {
+                if (sample != null) {
+                    sample.failure(inputSize);
+                }
+                throw overload;
+            }
             LOGGER.error("CAdES imzası oluşturulurken hata", e);
             if (sample != null) {
                 sample.failure(inputSize);
@@ -169,4 +198,26 @@ public class CadesController {
                     .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Spool'lu gömülü imzayı yanıt gövdesine yazar ve spool dosyasını siler.
+     * Metrik örneği, gerçekte yazılan byte sayısı bilindiğinde kapatılır.
+     */
+    private static StreamingResponseBody streamEnveloping(SpooledCmsSignature signature,
+                                                          SignatureMetrics.Sample sample,
+                                                          long inputSize) {
+        return out -> {
+            CountingOutputStream counting = new CountingOutputStream(out);
+            try {
+                signature.writeTo(counting);
+                sample.success(inputSize, counting.getByteCount());
+            } catch (IOException | RuntimeException e) {
+                sample.failure(inputSize);
+                LOGGER.error("CAdES gömülü imza yanıtı yazılamadı", e);
+                throw e;
+            } finally {
+                signature.close();
+            }
+        };
+    }
+}
@@ -1,8 +1,11 @@
 package io.mersel.dss.signer.api.controllers;
 
+import io.mersel.dss.signer.api.dtos.SignHashBatchDto;
+import io.mersel.dss.signer.api.dtos.SignHashBatchResponseDto;
 import io.mersel.dss.signer.api.dtos.SignHashDto;
 import io.mersel.dss.signer.api.dtos.SignHashResponseDto;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.BatchSignResult;
 import io.mersel.dss.signer.api.models.ErrorModel;
 import io.mersel.dss.signer.api.services.metrics.SignatureMetrics;
 import io.mersel.dss.signer.api.services.notification.SignerNotifier;
@@ -23,7 +26,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
 
 /**
  * Pre-hashed digest imzalama endpoint'i.
@@ -34,6 +39,11 @@ import java.util.Base64;
  * uygulanır; ECDSA için raw eğri imzalama yapılır. Tipik kullanım e-Defter
  * mali mührü ve manuel XAdES SignedInfo digest imzalama akışlarıdır.</p>
  *
+ * <p>{@code POST /v1/hashsign/batch} — aynı sözleşmenin toplu sürümü; e-Arşiv
+ * gibi yüksek hacimli akışlarda digest başına bir HTTP/HSM round-trip'i yerine
+ * tek çağrıda yüzlerce digest imzalar. Sonuçlar girdi sırasıyla, öğe bazında
+ * hata bilgisiyle döner.</p>
+ *
  * <h3>Mimari notu</h3>
  * <p>Bu controller, XAdES belge imzalama akışlarından (bkz. {@link XadesController})
  * ayrı bir sorumluluk taşır: belge formatı, namespace, canonicalization gibi
@@ -137,4 +147,121 @@ public class HashSignatureController {
                 .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
         }
     }
+
+    @Operation(
+        summary = "Birden çok pre-hashed digest'i tek çağrıda imzalar (e-Arşiv toplu akışları için)",
+        description = "Tüm digest'ler aynı anahtar ve digestAlgorithm ile imzalanır. HSM arka ucunda "
+                + "öğeler session havuzuna paralel dağıtılır. Sonuçlar girdi sırasıyla döner; HSM "
+                + "kaynaklı hatalar öğe bazında raporlanır (kısmi başarıda da 200). Geçersiz bir öğe "
+                + "tüm isteği 400 ile reddeder."
+    )
+    @RequestMapping(
+        value = "/v1/hashsign/batch",
+        method = RequestMethod.POST,
+        consumes = {MediaType.APPLICATION_JSON_VALUE},
+        produces = {MediaType.APPLICATION_JSON_VALUE}
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200",
+            content = @Content(schema = @Schema(implementation = SignHashBatchResponseDto.class))),
+        @ApiResponse(responseCode = "400",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))),
+        @ApiResponse(responseCode = "500",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class)))
+    })
+    public ResponseEntity<?> signHashBatch(@RequestBody(required = false) SignHashBatchDto dto) {
+        if (dto == null || dto.getBase64EncodedDigests() == null
+                || dto.getBase64EncodedDigests().isEmpty()) {
+            LOGGER.warn("Geçersiz toplu hash imzalama isteği: digest listesi eksik");
+            return ResponseEntity.badRequest()
+                .body(new ErrorModel("INVALID_INPUT", "base64EncodedDigests zorunludur"));
+        }
+
+        List<String> encoded = dto.getBase64EncodedDigests();
+        List<byte[]> digests = new ArrayList<>(encoded.size());
+        long totalInput = 0;
+        for (int i = 0; i < encoded.size(); i++) {
+            String value = encoded.get(i);
+            if (value == null || value.trim().isEmpty()) {
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel("INVALID_INPUT", "base64EncodedDigests[" + i + "] boş olamaz"));
+            }
+            try {
+                byte[] digest = Base64.getDecoder().decode(value.trim());
+                digests.add(digest);
+                totalInput += digest.length;
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Geçersiz toplu hash imzalama isteği: öğe {} base64 decode başarısız: {}",
+                    i, e.getMessage());
+                return ResponseEntity.badRequest()
+                    .body(new ErrorModel("INVALID_INPUT",
+                        "base64EncodedDigests[" + i + "] geçerli bir base64 değil: " + e.getMessage()));
+            }
+        }
+
+        SignatureMetrics.Sample sample = signatureMetrics.start(
+                "Hash", "digest-batch",
+                dto.getDigestAlgorithm() != null ? dto.getDigestAlgorithm().name() : null);
+        try {
+            List<BatchSignResult> results =
+                rawHashSignatureService.signDigestBatch(digests, dto.getDigestAlgorithm());
+
+            List<SignHashBatchResponseDto.Item> items = new ArrayList<>(results.size());
+            long totalOutput = 0;
+            String firstError = null;
+            for (int i = 0; i < results.size(); i++) {
+                BatchSignResult result = results.get(i);
+                if (result.isSuccess()) {
+                    byte[] signature = result.getSignature();
+                    totalOutput += signature.length;
+                    items.add(new SignHashBatchResponseDto.Item(
+                        i, Base64.getEncoder().encodeToString(signature), null));
+                } else {
+                    if (firstError == null) {
+                        firstError = "digests[" + i + "]: " + result.getErrorMessage();
+                    }
+                    items.add(new SignHashBatchResponseDto.Item(i, null, result.getErrorMessage()));
+                }
+            }
+            SignHashBatchResponseDto body = new SignHashBatchResponseDto(items);
+
+            if (body.getFailureCount() == 0) {
+                sample.success(totalInput, totalOutput);
+            } else {
+                sample.failure(totalInput);
+                LOGGER.error("Toplu hash imzasında {} / {} öğe başarısız; ilk hata: {}",
+                    body.getFailureCount(), items.size(), firstError);
+                // Öğe başına değil, istek başına tek bildirim: HSM kesintisinde
+                // yüzlerce öğe aynı anda düşer, alarm fırtınası istemiyoruz.
+                signerNotifier.notifyOnSignatureFailure(
+                        "/v1/hashsign/batch", "Hash",
+                        new SignatureException(body.getFailureCount() + " / " + items.size()
+                            + " öğe imzalanamadı; ilk hata: " + firstError),
+                        null, null, null);
+            }
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Toplu hash imzalama validasyon hatası: {}", e.getMessage());
+            sample.failure(totalInput);
+            return ResponseEntity.badRequest()
+                .body(new ErrorModel("INVALID_INPUT", e.getMessage()));
+        } catch (SignatureException e) {
+            sample.failure(totalInput);
+            LOGGER.error("Toplu hash imzası oluşturulamadı (errorCode={}): {}",
+                e.getErrorCode(), e.getMessage(), e);
+            signerNotifier.notifyOnSignatureFailure(
+                    "/v1/hashsign/batch", "Hash", e, null, null, null);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
+        } catch (Exception e) {
+            sample.failure(totalInput);
+            LOGGER.error("Toplu hash imzası oluşturulurken beklenmedik hata", e);
+            signerNotifier.notifyOnSignatureFailure(
+                    "/v1/hashsign/batch", "Hash", e, null, null, null);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
+        }
+    }
 }
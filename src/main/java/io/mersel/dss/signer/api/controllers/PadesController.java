@@ -1,11 +1,14 @@
 package io.mersel.dss.signer.api.controllers;
 
+import java.io.IOException;
 import java.util.UUID;
 
+import io.mersel.dss.signer.api.exceptions.SigningCapacityException;
 import io.mersel.dss.signer.api.models.SigningMaterial;
 import io.mersel.dss.signer.api.services.metrics.SignatureMetrics;
 import io.mersel.dss.signer.api.services.notification.SignerNotifier;
 import io.mersel.dss.signer.api.services.signature.pades.PAdESSignatureService;
+import io.mersel.dss.signer.api.services.signature.pades.SpooledPdfSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -16,6 +19,7 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -24,7 +28,6 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.mersel.dss.signer.api.dtos.SignPadesDto;
 import io.mersel.dss.signer.api.models.ErrorModel;
-import io.mersel.dss.signer.api.models.SignResponse;
 
 /**
  * PAdES (PDF İleri Seviye Elektronik İmza) işlemleri için REST controller.
@@ -86,9 +89,9 @@ public class PadesController {
             // explicit kapatılmazsa Windows'ta cleanupMultipart "Cannot delete
             // upload_*.tmp" UncheckedIOException'a düşer (Linux'ta belirti
             // vermez ama handle yine sızar). CADES endpoint'iyle tutarlı pattern.
-            SignResponse result;
+            SpooledPdfSignature result;
             try (java.io.InputStream is = dto.getDocument().getInputStream()) {
-                result = padesSignatureService.signPdf(
+                result = padesSignatureService.signPdfToFile(
                     is,
                     attachment,
                     dto.getAttachmentFileName(),
@@ -96,21 +99,37 @@ public class PadesController {
                     signingMaterial
                 );
             }
-
-            sample.success(inputSize,
-                    result.getSignedDocument() != null ? result.getSignedDocument().length : -1);
             LOGGER.info("PAdES imzası başarıyla oluşturuldu (ekleme modu: {})", appendMode);
 
             // Content-Type açıkça set ediliyor — Spring default'ta byte[] body için
             // application/octet-stream üretir; bu PDF'i browser'ın inline gösterememesine
             // ve client tarafında "binary blob" sanılmasına yol açıyor.
+            // İmzalı PDF diskten akıtılır; Content-Length açıkça verildiği için
+            // yanıt chunked encoding'e düşmez (proxy/LB uyumluluğu korunur).
+            long outputSize;
+            try {
+                outputSize = result.getContentLength();
+            } catch (IOException e) {
+                result.close();
+                throw e;
+            }
             return ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_PDF)
+                .contentLength(outputSize)
                 .header("Content-Disposition",
                     "attachment; filename=\"signed-" + UUID.randomUUID() + ".pdf\"")
-                .body(result.getSignedDocument());
+                .body(streamSignedPdf(result, sample, inputSize, outputSize));
 
         } catch (Exception e) {
+            // Kapasite reddi imza hatası değildir: bildirim gönderilmez,
+            // GlobalExceptionHandler 429/503 + Retry-After döner.
+            SigningCapacityException overload = SigningCapacityException.find(e);
+            if (overload != null) {
+                if (sample != null) {
+                    sample.failure(inputSize);
+                }
+                throw overload;
+            }
             LOGGER.error("PAdES imzası oluşturulurken hata", e);
             if (sample != null) {
                 sample.failure(inputSize);
@@ -137,4 +156,25 @@ public class PadesController {
                 .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
         }
     }
+
+    /**
+     * Disk üzerindeki imzalı PDF'i yanıt gövdesine yazar ve geçici dosyayı siler.
+     */
+    private static StreamingResponseBody streamSignedPdf(SpooledPdfSignature signed,
+                                                         SignatureMetrics.Sample sample,
+                                                         long inputSize,
+                                                         long outputSize) {
+        return out -> {
+            try {
+                signed.writeTo(out);
+                sample.success(inputSize, outputSize);
+            } catch (IOException | RuntimeException e) {
+                sample.failure(inputSize);
+                LOGGER.error("İmzalı PDF yanıtı yazılamadı", e);
+                throw e;
+            } finally {
+                signed.close();
+            }
+        };
+    }
 }
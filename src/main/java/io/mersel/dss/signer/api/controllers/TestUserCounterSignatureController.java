@@ -44,7 +44,7 @@ import java.util.UUID;
  * <p>Bu controller ve arkasındaki
  * {@link TestUserCounterSignatureService} <strong>tamamen izoledir</strong>:
  * ne ortak {@code SigningMaterial} / {@code SigningMaterialFactory} /
- * {@code CryptoSignerService} / {@code Semaphore} / {@code CertificateVerifier}
+ * {@code CryptoSignerService} / {@code SigningLimiter} / {@code CertificateVerifier}
  * bean'ine, ne de ortak {@code SignerNotifier}'a bağlıdır. Standart imza
  * süreçlerinde yapılan herhangi bir değişiklik bu endpoint'i etkilemez ve
  * tersi. Tek paylaşılan kaynak repo'daki {@code resources/test-certs/}
@@ -0,0 +1,146 @@
+package io.mersel.dss.signer.api.controllers;
+
+import io.mersel.dss.signer.api.dtos.SignXadesBatchDto;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.BatchManifest;
+import io.mersel.dss.signer.api.models.ErrorModel;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.services.metrics.SignatureMetrics;
+import io.mersel.dss.signer.api.services.notification.SignerNotifier;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESBatchSignatureService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.UUID;
+
+/**
+ * Toplu XAdES imzalama endpoint'i.
+ *
+ * <p>{@code POST /v1/xadessign/batch} — her girdisi bir XML belgesi olan ZIP
+ * alır, belgeleri {@link XAdESBatchSignatureService} ile sınırlı paralellikte
+ * imzalar ve imzalı belgeleri aynı adlarla ZIP olarak akış halinde döner.
+ * Tek tek {@code /v1/xadessign} çağrısına göre belge başına multipart parse,
+ * HTTP round-trip ve header maliyeti ortadan kalkar.</p>
+ *
+ * <h3>Yanıt sözleşmesi</h3>
+ * <p>Yanıt akış olarak yazıldığı için durum kodu baştan 200'dür. Belge bazında
+ * sonuç ve toplu işi kesen hatalar arşivin son girdisi olan
+ * {@code manifest.json}'da raporlanır. Yalnız girdi doğrulaması (belge / belge
+ * tipi eksik) 400 döner.</p>
+ */
+@RestController
+@CrossOrigin(origins = "*", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.OPTIONS})
+public class XadesBatchController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XadesBatchController.class);
+
+    private static final String ENDPOINT = "/v1/xadessign/batch";
+
+    private final XAdESBatchSignatureService batchSignatureService;
+    private final SigningMaterial signingMaterial;
+    private final SignerNotifier signerNotifier;
+    private final SignatureMetrics signatureMetrics;
+
+    public XadesBatchController(XAdESBatchSignatureService batchSignatureService,
+                                SigningMaterial signingMaterial,
+                                SignerNotifier signerNotifier,
+                                SignatureMetrics signatureMetrics) {
+        this.batchSignatureService = batchSignatureService;
+        this.signingMaterial = signingMaterial;
+        this.signerNotifier = signerNotifier;
+        this.signatureMetrics = signatureMetrics;
+    }
+
+    @Operation(
+        summary = "ZIP içindeki XML belgelerini toplu olarak XAdES ile imzalar",
+        description = "Her ZIP girdisi ayrı bir belge olarak imzalanır; documentType ve signatureLevel "
+                + "tüm girdilere uygulanır. Yanıt, imzalı belgeleri aynı adlarla ve girdi sırasıyla "
+                + "içeren bir ZIP'tir; son girdi belge bazında durumu veren manifest.json'dur. "
+                + "Kısmi hatalarda da 200 döner — manifest'teki 'failed' ve 'error' alanları kontrol edilmelidir."
+    )
+    @RequestMapping(value = "/v1/xadessign/batch", method = RequestMethod.POST,
+        consumes = {MediaType.MULTIPART_FORM_DATA_VALUE})
+    @ApiResponses({
+        @ApiResponse(responseCode = "200",
+            content = @Content(mediaType = "application/zip",
+                schema = @Schema(type = "string", format = "binary"))),
+        @ApiResponse(responseCode = "400",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class)))
+    })
+    public ResponseEntity<?> signXadesBatch(@ModelAttribute SignXadesBatchDto dto) {
+        if (dto.getDocument() == null || dto.getDocument().isEmpty()
+                || dto.getDocumentType() == null || dto.getDocumentType() == DocumentType.None) {
+            LOGGER.warn("Geçersiz toplu imza isteği: ZIP veya belge tipi eksik");
+            return ResponseEntity.badRequest()
+                .body(new ErrorModel("INVALID_INPUT", "ZIP belgesi ve belge tipi zorunludur"));
+        }
+
+        long inputSize = dto.getDocument().getSize();
+        String fileName = dto.getDocument().getOriginalFilename();
+
+        // Servlet async: gövde MVC task executor'ında yazılır, istek thread'i
+        // serbest kalır. Multipart temp dosyası istek tamamlanana kadar yaşar.
+        StreamingResponseBody body = out -> {
+            SignatureMetrics.Sample sample = signatureMetrics.start("XAdES-batch",
+                    dto.getDocumentType().name(), dto.getSignatureLevel().name());
+            BatchManifest manifest;
+            try (InputStream is = dto.getDocument().getInputStream()) {
+                manifest = batchSignatureService.signZip(is, out,
+                        dto.getDocumentType(), signingMaterial, dto.getSignatureLevel());
+            } catch (Exception e) {
+                sample.failure(inputSize);
+                LOGGER.error("XAdES toplu imza akışı yarıda kesildi", e);
+                signerNotifier.notifyOnSignatureFailure(
+                        ENDPOINT, "XAdES", e, null, fileName, "application/zip");
+                throw e;
+            }
+
+            if (manifest.getFailed() == 0 && manifest.getError() == null) {
+                sample.success(inputSize, -1);
+                return;
+            }
+            sample.failure(inputSize);
+            // Belge başına değil, toplu iş başına tek bildirim (HSM kesintisinde
+            // binlerce girdi aynı anda düşer).
+            signerNotifier.notifyOnSignatureFailure(ENDPOINT, "XAdES",
+                    new SignatureException(summarize(manifest)), null, fileName, "application/zip");
+        };
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/zip"))
+            .header("Content-Disposition",
+                "attachment; filename=\"signed-batch-" + UUID.randomUUID() + ".zip\"")
+            .body(body);
+    }
+
+    private static String summarize(BatchManifest manifest) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(manifest.getFailed()).append(" / ").append(manifest.getTotal())
+            .append(" belge imzalanamadı");
+        for (BatchManifest.Entry entry : manifest.getEntries()) {
+            if (BatchManifest.STATUS_FAILED.equals(entry.getStatus())) {
+                sb.append("; ilk hata (").append(entry.getName()).append("): ").append(entry.getError());
+                break;
+            }
+        }
+        if (manifest.getError() != null) {
+            sb.append("; toplu iş kesildi: ").append(manifest.getError());
+        }
+        return sb.toString();
+    }
+}
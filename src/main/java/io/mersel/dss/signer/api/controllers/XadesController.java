@@ -2,14 +2,21 @@ package io.mersel.dss.signer.api.controllers;
 
 import io.mersel.dss.signer.api.dtos.SignWsSecurityDto;
 import io.mersel.dss.signer.api.dtos.SignXadesDto;
+import io.mersel.dss.signer.api.dtos.XadesUpgradeJobDto;
+import io.mersel.dss.signer.api.exceptions.SigningCapacityException;
 import io.mersel.dss.signer.api.models.ErrorModel;
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.XadesUpgradeJob;
 import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.models.enums.XadesSignatureLevel;
 import io.mersel.dss.signer.api.services.metrics.SignatureMetrics;
 import io.mersel.dss.signer.api.services.notification.SignerNotifier;
+import io.mersel.dss.signer.api.services.signature.wssecurity.StreamingWsSecurityEnvelope;
 import io.mersel.dss.signer.api.services.signature.wssecurity.WsSecuritySignatureService;
+import io.mersel.dss.signer.api.services.signature.xades.StreamingXadesDocument;
 import io.mersel.dss.signer.api.services.signature.xades.XAdESSignatureService;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESUpgradeJobService;
 import io.mersel.dss.signer.api.util.Utilities;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -18,6 +25,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -26,8 +36,10 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.w3c.dom.Document;
 
+import java.io.IOException;
 import java.util.UUID;
 
 /**
@@ -47,7 +59,9 @@ public class XadesController {
     private final char[] signingPin;
     private final SignerNotifier signerNotifier;
     private final SignatureMetrics signatureMetrics;
+    private final XAdESUpgradeJobService upgradeJobService;
 
+    /** Asenkron XAdES-A yükseltmesi olmadan. */
     public XadesController(XAdESSignatureService xadesSignatureService,
                           WsSecuritySignatureService wsSecuritySignatureService,
                           SigningMaterial signingMaterial,
@@ -55,6 +69,35 @@ public class XadesController {
                           char[] signingPin,
                           SignerNotifier signerNotifier,
                           SignatureMetrics signatureMetrics) {
+        this(xadesSignatureService, wsSecuritySignatureService, signingMaterial, signingAlias,
+            signingPin, signerNotifier, signatureMetrics, (XAdESUpgradeJobService) null);
+    }
+
+    @Autowired
+    public XadesController(XAdESSignatureService xadesSignatureService,
+                          WsSecuritySignatureService wsSecuritySignatureService,
+                          SigningMaterial signingMaterial,
+                          String signingAlias,
+                          char[] signingPin,
+                          SignerNotifier signerNotifier,
+                          SignatureMetrics signatureMetrics,
+                          ObjectProvider<XAdESUpgradeJobService> upgradeJobService) {
+        this(xadesSignatureService, wsSecuritySignatureService, signingMaterial, signingAlias,
+            signingPin, signerNotifier, signatureMetrics, upgradeJobService.getIfAvailable());
+    }
+
+    /**
+     * @param upgradeJobService {@code null} → {@code asyncUpgrade} istekleri 400 ile reddedilir
+     */
+    public XadesController(XAdESSignatureService xadesSignatureService,
+                          WsSecuritySignatureService wsSecuritySignatureService,
+                          SigningMaterial signingMaterial,
+                          String signingAlias,
+                          char[] signingPin,
+                          SignerNotifier signerNotifier,
+                          SignatureMetrics signatureMetrics,
+                          XAdESUpgradeJobService upgradeJobService) {
+        this.upgradeJobService = upgradeJobService;
         this.xadesSignatureService = xadesSignatureService;
         this.wsSecuritySignatureService = wsSecuritySignatureService;
         this.signingMaterial = signingMaterial;
@@ -70,13 +113,17 @@ public class XadesController {
                 + "İmza profili (XADES_BES / XADES_A) tamamen 'signatureLevel' alanı ile belirlenir; "
                 + "documentType seviye kararına dahil değildir. Alan gönderilmezse XADES_BES uygulanır "
                 + "(TSA çağrılmaz, kontör harcanmaz). XADES_A istenirse TSA yapılandırılmamışsa "
-                + "istek TIMESTAMP_ERROR ile reddedilir."
+                + "istek TIMESTAMP_ERROR ile reddedilir. XADES_A + asyncUpgrade=true ise BES imzası "
+                + "hemen üretilir ve 202 + iş kimliği döner; XAdES-A yükseltmesi arka planda yapılır "
+                + "(GET /v1/xades/jobs/{jobId})."
     )
     @RequestMapping(value = "/v1/xadessign", method = RequestMethod.POST, 
         consumes = {MediaType.MULTIPART_FORM_DATA_VALUE})
     @ApiResponses({
         @ApiResponse(responseCode = "200", 
             content = @Content(schema = @Schema(type = "string", format = "binary"))),
+        @ApiResponse(responseCode = "202",
+            content = @Content(schema = @Schema(implementation = XadesUpgradeJobDto.class))),
         @ApiResponse(responseCode = "400", 
             content = @Content(schema = @Schema(implementation = ErrorModel.class))),
         @ApiResponse(responseCode = "500")
@@ -92,11 +139,39 @@ public class XadesController {
             }
 
             boolean zipped = Boolean.TRUE.equals(dto.getZipFile());
+            boolean async = Boolean.TRUE.equals(dto.getAsyncUpgrade())
+                    && dto.getSignatureLevel() == XadesSignatureLevel.XADES_A;
+            if (async) {
+                if (upgradeJobService == null) {
+                    return ResponseEntity.badRequest()
+                        .body(new ErrorModel("ASYNC_UPGRADE_DISABLED",
+                            "Asenkron XAdES-A yükseltmesi kapalı (XADES_ASYNC_UPGRADE_ENABLED=true ile açılır)"));
+                }
+                // TSA yoksa veya kuyruk doluysa HSM'e gitmeden reddet.
+                upgradeJobService.ensureAccepting();
+            }
             inputSize = dto.getDocument().getSize();
             sample = signatureMetrics.start("XAdES",
                     dto.getDocumentType().name(),
                     dto.getSignatureLevel().name());
 
+            // Büyük belgeler (yalnız BES, ZIP'siz) DOM'a yüklenmeden imzalanır;
+            // yanıt gövdesi multipart dosyadan ikinci kez okunarak yazılır.
+            // Akış modunun desteklemediği belgelerde (null) DOM yoluna devam edilir.
+            if (!zipped && dto.getSignatureLevel() == XadesSignatureLevel.XADES_BES
+                    && xadesSignatureService.isStreamingEligible(inputSize)) {
+                StreamingXadesDocument streamed = xadesSignatureService.prepareStreaming(
+                    dto.getDocument(), dto.getDocumentType(), dto.getSignatureId(), signingMaterial);
+                if (streamed != null) {
+                    return ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_XML)
+                        .header("x-signature-value", streamed.getSignatureValue())
+                        .header("Content-Disposition",
+                            "attachment; filename=\"signed-" + UUID.randomUUID() + ".xml\"")
+                        .body(streamWithMetrics(streamed::writeTo, sample, inputSize, "XML"));
+                }
+            }
+
             // try-with-resources: MultipartFile.getInputStream() Tomcat'in
             // disk-tabanlı temp dosyasına bir FileInputStream açar. Bu stream
             // explicit kapatılmazsa Windows'ta dosya silinmesi (cleanupMultipart)
@@ -105,16 +180,28 @@ public class XadesController {
             // CADES endpoint'iyle tutarlı pattern.
             SignResponse result;
             try (java.io.InputStream is = dto.getDocument().getInputStream()) {
+                // Asenkron modda seviye yükseltmesi worker'a bırakılır.
                 result = xadesSignatureService.signXml(
                     is,
                     dto.getDocumentType(),
                     dto.getSignatureId(),
                     zipped,
                     signingMaterial,
-                    dto.getSignatureLevel()
+                    async ? XadesSignatureLevel.XADES_BES : dto.getSignatureLevel()
                 );
             }
 
+            if (async) {
+                XadesUpgradeJob job = upgradeJobService.submit(result.getSignedDocument(),
+                    dto.getDocumentType(), zipped, result.getSignatureValue());
+                sample.success(inputSize, result.getSignedDocument().length);
+                String statusUrl = "/v1/xades/jobs/" + job.getJobId();
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.LOCATION, statusUrl)
+                    .header("x-signature-value", result.getSignatureValue())
+                    .body(XadesUpgradeJobDto.from(job));
+            }
+
             sample.success(inputSize,
                     result.getSignedDocument() != null ? result.getSignedDocument().length : -1);
             LOGGER.info("XAdES imzası başarıyla oluşturuldu. Belge tipi: {}", 
@@ -130,6 +217,15 @@ public class XadesController {
                 .body(result.getSignedDocument());
 
         } catch (Exception e) {
+            // Kapasite reddi imza hatası değildir: bildirim gönderilmez,
+            // GlobalExceptionHandler 429/503 + Retry-After döner.
+            SigningCapacityException overload = SigningCapacityException.find(e);
+            if (overload != null) {
+                if (sample != null) {
+                    sample.failure(inputSize);
+                }
+                throw overload;
+            }
             LOGGER.error("XAdES imzası oluşturulurken hata", e);
             if (sample != null) {
                 sample.failure(inputSize);
@@ -182,6 +278,27 @@ public class XadesController {
             }
 
             inputSize = dto.getDocument().getSize();
+            boolean useSoap12 = Boolean.TRUE.equals(dto.getSoap1Dot2());
+
+            LOGGER.info("WS-Security imzalama isteği - soap1Dot2 parametresi: {}, useSoap12: {}", 
+                dto.getSoap1Dot2(), useSoap12);
+
+            // Büyük zarflar DOM'a yüklenmeden imzalanır; yanıt gövdesi
+            // multipart dosyadan ikinci kez okunarak yazılır. Akış modunun
+            // desteklemediği zarflarda (null) DOM yoluna devam edilir.
+            if (wsSecuritySignatureService.isStreamingEligible(inputSize)) {
+                sample = signatureMetrics.start("WS-Security", "soap",
+                        useSoap12 ? "SOAP1.2" : "SOAP1.1");
+                StreamingWsSecurityEnvelope streamed = wsSecuritySignatureService.prepareStreaming(
+                    dto.getDocument(), useSoap12, signingMaterial);
+                if (streamed != null) {
+                    return ResponseEntity.ok()
+                        .contentType(MediaType.TEXT_XML)
+                        .header("Content-Disposition",
+                            "attachment; filename=\"signed-soap-" + UUID.randomUUID() + ".xml\"")
+                        .body(streamWithMetrics(streamed::writeTo, sample, inputSize, "SOAP"));
+                }
+            }
 
             // try-with-resources: aynı handle-leak kontratı signXades ile;
             // SOAP parse'i InputStream'i tek-geçişte tükettiği için scope
@@ -191,12 +308,10 @@ public class XadesController {
                 soapDocument = Utilities.LoadXMLFromInputStream(is);
             }
 
-            boolean useSoap12 = Boolean.TRUE.equals(dto.getSoap1Dot2());
-            sample = signatureMetrics.start("WS-Security", "soap",
-                    useSoap12 ? "SOAP1.2" : "SOAP1.1");
-
-            LOGGER.info("WS-Security imzalama isteği - soap1Dot2 parametresi: {}, useSoap12: {}", 
-                dto.getSoap1Dot2(), useSoap12);
+            if (sample == null) {
+                sample = signatureMetrics.start("WS-Security", "soap",
+                        useSoap12 ? "SOAP1.2" : "SOAP1.1");
+            }
 
             SignResponse result = wsSecuritySignatureService.signSoapEnvelope(
                 soapDocument,
@@ -220,6 +335,15 @@ public class XadesController {
                 .body(result.getSignedDocument());
 
         } catch (Exception e) {
+            // Kapasite reddi imza hatası değildir: bildirim gönderilmez,
+            // GlobalExceptionHandler 429/503 + Retry-After döner.
+            SigningCapacityException overload = SigningCapacityException.find(e);
+            if (overload != null) {
+                if (sample != null) {
+                    sample.failure(inputSize);
+                }
+                throw overload;
+            }
             LOGGER.error("WS-Security imzası oluşturulurken hata", e);
             if (sample != null) {
                 sample.failure(inputSize);
@@ -247,4 +371,25 @@ public class XadesController {
                 .body(new ErrorModel("SIGNATURE_FAILED", e.getMessage()));
         }
     }
+
+    /**
+     * Akış yanıtını sarar; metrik, ikinci geçiş ({@code writeTo}) bittikten
+     * sonra kaydedilir. Yazma hatası (istemci koptu, multipart geçici dosyası
+     * silindi) başarı değil hata olarak sayılır.
+     */
+    private static StreamingResponseBody streamWithMetrics(StreamingResponseBody body,
+                                                           SignatureMetrics.Sample sample,
+                                                           long inputSize,
+                                                           String what) {
+        return out -> {
+            try {
+                body.writeTo(out);
+                sample.success(inputSize, -1);
+            } catch (IOException | RuntimeException e) {
+                sample.failure(inputSize);
+                LOGGER.error("İmzalı {} yanıtı yazılamadı", what, e);
+                throw e;
+            }
+        };
+    }
 }
@@ -0,0 +1,204 @@
+package io.mersel.dss.signer.api.controllers;
+
+import io.mersel.dss.signer.api.dtos.UpgradeXadesDto;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.exceptions.SigningCapacityException;
+import io.mersel.dss.signer.api.exceptions.TimestampException;
+import io.mersel.dss.signer.api.models.BatchManifest;
+import io.mersel.dss.signer.api.models.ErrorModel;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.models.enums.XadesSignatureLevel;
+import io.mersel.dss.signer.api.services.metrics.SignatureMetrics;
+import io.mersel.dss.signer.api.services.notification.SignerNotifier;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESBatchSignatureService;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESSignatureService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.UUID;
+
+/**
+ * Mevcut XAdES-BES/T imzalarını yeniden imzalamadan XAdES-A'ya yükselten
+ * endpoint'ler.
+ *
+ * <ul>
+ *   <li>{@code POST /v1/xades/upgrade} — tek imzalı XML belgesi; yanıt
+ *       XAdES-A belgesidir.</li>
+ *   <li>{@code POST /v1/xades/upgrade/batch} — her girdisi imzalı bir XML
+ *       belgesi olan ZIP; yanıt {@code /v1/xadessign/batch} ile aynı adlarla
+ *       ve son girdi {@code manifest.json} olacak şekilde akış olarak
+ *       yazılır. Belgeler tamamlanma sırasıyla yazılır; manifest girdi
+ *       sırasındadır.</li>
+ * </ul>
+ *
+ * <p>HSM'e gidilmez; süre TSA ve OCSP/CRL G/Ç'sidir. Toplu yükseltme ayrı
+ * bir worker havuzunda ({@code XADES_UPGRADE_PARALLELISM}) çalışır, TSA'ya
+ * giden eş zamanlı istek {@code TS_MAX_CONCURRENT_REQUESTS} ile sınırlıdır.</p>
+ */
+@RestController
+@CrossOrigin(origins = "*", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.OPTIONS})
+public class XadesUpgradeController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XadesUpgradeController.class);
+
+    private static final String ENDPOINT = "/v1/xades/upgrade";
+    private static final String BATCH_ENDPOINT = "/v1/xades/upgrade/batch";
+
+    private final XAdESSignatureService xadesSignatureService;
+    private final XAdESBatchSignatureService batchSignatureService;
+    private final SigningMaterial signingMaterial;
+    private final SignerNotifier signerNotifier;
+    private final SignatureMetrics signatureMetrics;
+
+    public XadesUpgradeController(XAdESSignatureService xadesSignatureService,
+                                  XAdESBatchSignatureService batchSignatureService,
+                                  SigningMaterial signingMaterial,
+                                  SignerNotifier signerNotifier,
+                                  SignatureMetrics signatureMetrics) {
+        this.xadesSignatureService = xadesSignatureService;
+        this.batchSignatureService = batchSignatureService;
+        this.signingMaterial = signingMaterial;
+        this.signerNotifier = signerNotifier;
+        this.signatureMetrics = signatureMetrics;
+    }
+
+    @Operation(
+        summary = "İmzalı XML belgesini XAdES-A seviyesine yükseltir",
+        description = "Belge yeniden imzalanmaz; mevcut imzaya imza zaman damgası, doğrulama verisi "
+                + "ve arşiv zaman damgası eklenir. TSA yapılandırılmamışsa veya erişilemezse 503 döner."
+    )
+    @RequestMapping(value = "/v1/xades/upgrade", method = RequestMethod.POST,
+        consumes = {MediaType.MULTIPART_FORM_DATA_VALUE})
+    @ApiResponses({
+        @ApiResponse(responseCode = "200",
+            content = @Content(mediaType = "application/xml",
+                schema = @Schema(type = "string", format = "binary"))),
+        @ApiResponse(responseCode = "400",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))),
+        @ApiResponse(responseCode = "503",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))),
+        @ApiResponse(responseCode = "500")
+    })
+    public ResponseEntity<?> upgradeXades(@ModelAttribute UpgradeXadesDto dto) {
+        if (dto.getDocument() == null || dto.getDocument().isEmpty()) {
+            LOGGER.warn("Geçersiz yükseltme isteği: belge eksik");
+            return ResponseEntity.badRequest()
+                .body(new ErrorModel("INVALID_INPUT", "İmzalı belge zorunludur"));
+        }
+
+        DocumentType documentType = documentTypeOf(dto);
+        long inputSize = dto.getDocument().getSize();
+        SignatureMetrics.Sample sample = signatureMetrics.start("XAdES-upgrade",
+                documentType.name(), XadesSignatureLevel.XADES_A.name());
+        try {
+            byte[] upgraded = xadesSignatureService.upgradeToArchive(
+                    dto.getDocument().getBytes(), documentType, signingMaterial);
+            sample.success(inputSize, upgraded.length);
+            LOGGER.info("XAdES-A yükseltmesi tamamlandı. Belge tipi: {}", documentType);
+
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_XML)
+                .header("Content-Disposition",
+                    "attachment; filename=\"upgraded-" + UUID.randomUUID() + ".xml\"")
+                .body(upgraded);
+
+        } catch (Exception e) {
+            sample.failure(inputSize);
+            SigningCapacityException overload = SigningCapacityException.find(e);
+            if (overload != null) {
+                throw overload;
+            }
+            LOGGER.error("XAdES-A yükseltmesi yapılamadı", e);
+            signerNotifier.notifyOnSignatureFailure(ENDPOINT, "XAdES", e, null,
+                    dto.getDocument().getOriginalFilename(), dto.getDocument().getContentType());
+            if (e instanceof TimestampException) {
+                // GlobalExceptionHandler → 503 TIMESTAMP_ERROR; istemci yeniden deneyebilir.
+                throw (TimestampException) e;
+            }
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorModel("UPGRADE_FAILED", e.getMessage()));
+        }
+    }
+
+    @Operation(
+        summary = "ZIP içindeki imzalı XML belgelerini toplu olarak XAdES-A seviyesine yükseltir",
+        description = "Her ZIP girdisi ayrı bir imzalı belge olarak yükseltilir. Yanıt, XAdES-A belgelerini "
+                + "aynı adlarla içeren bir ZIP'tir; belgeler tamamlanma sırasıyla akış olarak yazılır "
+                + "(girdi sırası manifest'teki 'index' alanındadır). Son girdi belge bazında durumu veren manifest.json'dur. Kısmi hatalarda da "
+                + "200 döner — manifest'teki 'failed' ve 'error' alanları kontrol edilmelidir."
+    )
+    @RequestMapping(value = "/v1/xades/upgrade/batch", method = RequestMethod.POST,
+        consumes = {MediaType.MULTIPART_FORM_DATA_VALUE})
+    @ApiResponses({
+        @ApiResponse(responseCode = "200",
+            content = @Content(mediaType = "application/zip",
+                schema = @Schema(type = "string", format = "binary"))),
+        @ApiResponse(responseCode = "400",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class)))
+    })
+    public ResponseEntity<?> upgradeXadesBatch(@ModelAttribute UpgradeXadesDto dto) {
+        if (dto.getDocument() == null || dto.getDocument().isEmpty()) {
+            LOGGER.warn("Geçersiz toplu yükseltme isteği: ZIP eksik");
+            return ResponseEntity.badRequest()
+                .body(new ErrorModel("INVALID_INPUT", "ZIP belgesi zorunludur"));
+        }
+
+        DocumentType documentType = documentTypeOf(dto);
+        long inputSize = dto.getDocument().getSize();
+        String fileName = dto.getDocument().getOriginalFilename();
+
+        StreamingResponseBody body = out -> {
+            SignatureMetrics.Sample sample = signatureMetrics.start("XAdES-upgrade-batch",
+                    documentType.name(), XadesSignatureLevel.XADES_A.name());
+            BatchManifest manifest;
+            try (InputStream is = dto.getDocument().getInputStream()) {
+                manifest = batchSignatureService.upgradeZip(is, out, documentType, signingMaterial);
+            } catch (Exception e) {
+                sample.failure(inputSize);
+                LOGGER.error("XAdES toplu yükseltme akışı yarıda kesildi", e);
+                signerNotifier.notifyOnSignatureFailure(
+                        BATCH_ENDPOINT, "XAdES", e, null, fileName, "application/zip");
+                throw e;
+            }
+
+            if (manifest.getFailed() == 0 && manifest.getError() == null) {
+                sample.success(inputSize, -1);
+                return;
+            }
+            sample.failure(inputSize);
+            signerNotifier.notifyOnSignatureFailure(BATCH_ENDPOINT, "XAdES",
+                    new SignatureException(manifest.getFailed() + " / " + manifest.getTotal()
+                            + " belge yükseltilemedi"
+                            + (manifest.getError() != null ? "; toplu iş kesildi: " + manifest.getError() : "")),
+                    null, fileName, "application/zip");
+        };
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/zip"))
+            .header("Content-Disposition",
+                "attachment; filename=\"upgraded-batch-" + UUID.randomUUID() + ".zip\"")
+            .body(body);
+    }
+
+    private static DocumentType documentTypeOf(UpgradeXadesDto dto) {
+        DocumentType documentType = dto.getDocumentType();
+        return documentType == null || documentType == DocumentType.None
+            ? DocumentType.OtherXmlDocument : documentType;
+    }
+}
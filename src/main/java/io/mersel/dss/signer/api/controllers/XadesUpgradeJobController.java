@@ -0,0 +1,116 @@
+package io.mersel.dss.signer.api.controllers;
+
+import io.mersel.dss.signer.api.dtos.XadesUpgradeJobDto;
+import io.mersel.dss.signer.api.models.ErrorModel;
+import io.mersel.dss.signer.api.models.XadesUpgradeJob;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESUpgradeJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Asenkron XAdES-A yükseltme işlerinin durum ve sonuç endpoint'leri.
+ * İşler {@code /v1/xadessign} üzerinden {@code asyncUpgrade=true} ile
+ * oluşturulur.
+ */
+@RestController
+@ConditionalOnProperty(name = "XADES_ASYNC_UPGRADE_ENABLED", havingValue = "true")
+@CrossOrigin(origins = "*", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.OPTIONS})
+public class XadesUpgradeJobController {
+
+    private final XAdESUpgradeJobService upgradeJobService;
+
+    public XadesUpgradeJobController(XAdESUpgradeJobService upgradeJobService) {
+        this.upgradeJobService = upgradeJobService;
+    }
+
+    @Operation(
+        summary = "Asenkron XAdES-A yükseltme işinin durumunu döner",
+        description = "PENDING / RUNNING / COMPLETED / FAILED. COMPLETED ise resultUrl doludur."
+    )
+    @RequestMapping(value = "/v1/xades/jobs/{jobId}", method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @ApiResponses({
+        @ApiResponse(responseCode = "200",
+            content = @Content(schema = @Schema(implementation = XadesUpgradeJobDto.class))),
+        @ApiResponse(responseCode = "404",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class)))
+    })
+    public ResponseEntity<?> getJob(@PathVariable("jobId") String jobId) {
+        XadesUpgradeJob job = upgradeJobService.find(jobId);
+        if (job == null) {
+            return notFound(jobId);
+        }
+        return ResponseEntity.ok(XadesUpgradeJobDto.from(job));
+    }
+
+    @Operation(
+        summary = "Tamamlanan işin XAdES-A belgesini döner",
+        description = "İş henüz bitmediyse 202 + durum, başarısızsa 409 döner. "
+                + "İmza isteğinde zipFile=true verildiyse sonuç ZIP'tir."
+    )
+    @RequestMapping(value = "/v1/xades/jobs/{jobId}/result", method = RequestMethod.GET)
+    @ApiResponses({
+        @ApiResponse(responseCode = "200",
+            content = @Content(schema = @Schema(type = "string", format = "binary"))),
+        @ApiResponse(responseCode = "202",
+            content = @Content(schema = @Schema(implementation = XadesUpgradeJobDto.class))),
+        @ApiResponse(responseCode = "404",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class))),
+        @ApiResponse(responseCode = "409",
+            content = @Content(schema = @Schema(implementation = ErrorModel.class)))
+    })
+    public ResponseEntity<?> getResult(@PathVariable("jobId") String jobId) {
+        XadesUpgradeJob job = upgradeJobService.find(jobId);
+        if (job == null) {
+            return notFound(jobId);
+        }
+        switch (job.getStatus()) {
+            case COMPLETED:
+                break;
+            case FAILED:
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorModel(
+                        job.getErrorCode() != null ? job.getErrorCode() : "UPGRADE_FAILED",
+                        job.getErrorMessage()));
+            default:
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(XadesUpgradeJobDto.from(job));
+        }
+
+        Path result = upgradeJobService.resultPath(jobId);
+        if (!Files.isRegularFile(result)) {
+            // Saklama süresi dolup silinmiş olabilir.
+            return notFound(jobId);
+        }
+        // Dosya akış olarak yazılır; büyük belgeler heap'e alınmaz.
+        String extension = job.isZipped() ? "zip" : "xml";
+        return ResponseEntity.ok()
+            .contentType(job.isZipped() ? MediaType.APPLICATION_OCTET_STREAM : MediaType.APPLICATION_XML)
+            .header("x-signature-value", job.getSignatureValue())
+            .header("Content-Disposition",
+                "attachment; filename=\"signed-" + job.getJobId() + "." + extension + "\"")
+            .body(new FileSystemResource(result));
+    }
+
+    private static ResponseEntity<ErrorModel> notFound(String jobId) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body(new ErrorModel("JOB_NOT_FOUND", "Yükseltme işi bulunamadı: " + jobId));
+    }
+}
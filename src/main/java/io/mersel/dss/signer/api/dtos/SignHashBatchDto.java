@@ -0,0 +1,65 @@
+package io.mersel.dss.signer.api.dtos;
+
+import java.util.List;
+
+import javax.validation.constraints.NotEmpty;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * {@code POST /v1/hashsign/batch} endpoint'i için request body kontratı.
+ *
+ * <p>{@link SignHashDto}'nun toplu sürümüdür: tüm digest'ler aynı anahtar ve
+ * aynı {@link #digestAlgorithm} ile imzalanır. Yanıttaki sonuçlar
+ * {@link #base64EncodedDigests} sırasıyla birebir eşleşir.</p>
+ *
+ * <h3>Validation</h3>
+ * <ul>
+ *   <li>Liste boş olamaz ve {@code HASHSIGN_BATCH_MAX_ITEMS} (varsayılan 1000)
+ *       öğeyi aşamaz.</li>
+ *   <li>Tek bir öğe geçersizse (base64 değil, uzunluk uyumsuz) tüm istek
+ *       400 INVALID_INPUT ile reddedilir; mesaj öğe indeksini içerir.</li>
+ * </ul>
+ */
+@Schema(description = "Pre-hashed digest toplu imzalama isteği")
+public class SignHashBatchDto {
+
+    @ArraySchema(
+        arraySchema = @Schema(
+            description = "İmzalanacak hash'lerin base64 encoded değerleri. Her öğenin decoded "
+                    + "uzunluğu digestAlgorithm ile uyumlu olmalıdır.",
+            requiredMode = Schema.RequiredMode.REQUIRED),
+        schema = @Schema(example = "47DEQpj8HBSa+/TImW+5JCeuQeRkm5NMpJWZG3hSuFU=")
+    )
+    @NotEmpty
+    private List<String> base64EncodedDigests;
+
+    @Schema(
+        description = "Tüm öğeler için ortak hash algoritması. Boş bırakılırsa SHA256 default uygulanır.",
+        example = "SHA256",
+        defaultValue = "SHA256",
+        enumAsRef = true
+    )
+    private DigestAlgorithm digestAlgorithm = DigestAlgorithm.SHA256;
+
+    public List<String> getBase64EncodedDigests() {
+        return base64EncodedDigests;
+    }
+
+    public void setBase64EncodedDigests(List<String> base64EncodedDigests) {
+        this.base64EncodedDigests = base64EncodedDigests;
+    }
+
+    public DigestAlgorithm getDigestAlgorithm() {
+        return digestAlgorithm;
+    }
+
+    /**
+     * Setter; {@code null} geçirildiğinde alan {@link DigestAlgorithm#SHA256}'ya düşer.
+     */
+    public void setDigestAlgorithm(DigestAlgorithm digestAlgorithm) {
+        this.digestAlgorithm = (digestAlgorithm != null) ? digestAlgorithm : DigestAlgorithm.SHA256;
+    }
+}
@@ -0,0 +1,115 @@
+package io.mersel.dss.signer.api.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * {@code POST /v1/hashsign/batch} endpoint'inin yanıtı.
+ *
+ * <p>{@link #results} listesi istekteki digest sırasıyla birebir eşleşir.
+ * HSM/backend kaynaklı hatalar öğe bazında raporlanır: başarısız öğenin
+ * {@code base64EncodedSignature} alanı boş, {@code errorMessage} alanı
+ * doludur. Kısmi başarısızlık durumunda bile HTTP 200 döner; caller
+ * {@link #failureCount} üzerinden kontrol etmelidir.</p>
+ */
+@Schema(description = "Pre-hashed digest toplu imzalama yanıtı")
+public class SignHashBatchResponseDto {
+
+    @Schema(description = "Başarıyla imzalanan öğe sayısı", example = "100")
+    private int successCount;
+
+    @Schema(description = "İmzalanamayan öğe sayısı", example = "0")
+    private int failureCount;
+
+    @Schema(description = "Girdi sırasıyla öğe bazında sonuçlar")
+    private List<Item> results = new ArrayList<>();
+
+    public SignHashBatchResponseDto() {
+    }
+
+    public SignHashBatchResponseDto(List<Item> results) {
+        this.results = results;
+        for (Item item : results) {
+            if (item.getErrorMessage() == null) {
+                successCount++;
+            } else {
+                failureCount++;
+            }
+        }
+    }
+
+    public int getSuccessCount() {
+        return successCount;
+    }
+
+    public void setSuccessCount(int successCount) {
+        this.successCount = successCount;
+    }
+
+    public int getFailureCount() {
+        return failureCount;
+    }
+
+    public void setFailureCount(int failureCount) {
+        this.failureCount = failureCount;
+    }
+
+    public List<Item> getResults() {
+        return results;
+    }
+
+    public void setResults(List<Item> results) {
+        this.results = results;
+    }
+
+    /**
+     * Tek bir digest'in imza sonucu.
+     */
+    @Schema(description = "Toplu imzada tek öğe sonucu")
+    public static class Item {
+
+        @Schema(description = "İstekteki digest indeksi (0 tabanlı)", example = "0")
+        private int index;
+
+        @Schema(description = "İmza baytlarının base64 encoded değeri; hata durumunda null")
+        private String base64EncodedSignature;
+
+        @Schema(description = "Öğe imzalanamadıysa hata mesajı; başarıda null")
+        private String errorMessage;
+
+        public Item() {
+        }
+
+        public Item(int index, String base64EncodedSignature, String errorMessage) {
+            this.index = index;
+            this.base64EncodedSignature = base64EncodedSignature;
+            this.errorMessage = errorMessage;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public String getBase64EncodedSignature() {
+            return base64EncodedSignature;
+        }
+
+        public void setBase64EncodedSignature(String base64EncodedSignature) {
+            this.base64EncodedSignature = base64EncodedSignature;
+        }
+
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+
+        public void setErrorMessage(String errorMessage) {
+            this.errorMessage = errorMessage;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package io.mersel.dss.signer.api.dtos;
+
+import javax.validation.constraints.NotBlank;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.models.enums.XadesSignatureLevel;
+
+/**
+ * {@code POST /v1/xadessign/batch} endpoint'i için multipart form kontratı.
+ *
+ * <p>{@link SignXadesDto}'dan farkı: {@code Document} tek belge değil, her
+ * girdisi ayrı bir XML belgesi olan ZIP arşividir. {@code DocumentType} ve
+ * {@code SignatureLevel} tüm girdilere uygulanır. İmza ID'si her belge için
+ * otomatik üretilir; {@code SignatureId} / {@code ZipFile} alanları yoktur.</p>
+ */
+public class SignXadesBatchDto {
+    private MultipartFile Document;
+    private DocumentType DocumentType;
+
+    /**
+     * Tüm girdiler için XAdES profili; {@link SignXadesDto#getSignatureLevel()}
+     * ile aynı "asla null" kontratı.
+     */
+    private XadesSignatureLevel SignatureLevel = XadesSignatureLevel.XADES_BES;
+
+    public MultipartFile getDocument() {
+        return Document;
+    }
+
+    @NotBlank
+    @Schema(description = "İmzalanacak XML belgelerini içeren ZIP arşivi")
+    public void setDocument(MultipartFile document) {
+        Document = document;
+    }
+
+    public io.mersel.dss.signer.api.models.enums.DocumentType getDocumentType() {
+        return DocumentType;
+    }
+
+    @NotBlank
+    @Schema(enumAsRef = true)
+    public void setDocumentType(io.mersel.dss.signer.api.models.enums.DocumentType documentType) {
+        DocumentType = documentType;
+    }
+
+    public XadesSignatureLevel getSignatureLevel() {
+        return SignatureLevel;
+    }
+
+    /**
+     * Setter; {@code null} geçirildiğinde alan {@link XadesSignatureLevel#XADES_BES}'e düşer.
+     */
+    @Schema(
+        enumAsRef = true,
+        description = "Tüm girdiler için XAdES imza profili. Boş bırakılırsa XADES_BES uygulanır.",
+        example = "XADES_BES",
+        defaultValue = "XADES_BES"
+    )
+    public void setSignatureLevel(XadesSignatureLevel signatureLevel) {
+        SignatureLevel = signatureLevel != null ? signatureLevel : XadesSignatureLevel.XADES_BES;
+    }
+}
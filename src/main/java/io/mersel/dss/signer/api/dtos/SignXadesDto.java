@@ -29,6 +29,13 @@ public class SignXadesDto {
      */
     private XadesSignatureLevel SignatureLevel = XadesSignatureLevel.XADES_BES;
 
+    /**
+     * {@code true} ve {@link XadesSignatureLevel#XADES_A} ise BES imzası
+     * senkron üretilir, XAdES-A yükseltmesi arka planda yapılır; yanıt 202 ve
+     * iş kimliğidir. XADES_BES isteklerinde etkisizdir.
+     */
+    private Boolean AsyncUpgrade;
+
     public String getSignatureId() {
         return SignatureId;
     }
@@ -92,4 +99,19 @@ public class SignXadesDto {
     public void setSignatureLevel(XadesSignatureLevel signatureLevel) {
         SignatureLevel = signatureLevel != null ? signatureLevel : XadesSignatureLevel.XADES_BES;
     }
+
+    public Boolean getAsyncUpgrade() {
+        return AsyncUpgrade;
+    }
+
+    @Schema(
+        description = "XADES_A için asenkron yükseltme. true ise BES imzası hemen üretilir, "
+                + "yanıt 202 + iş kimliğidir; XAdES-A belgesi GET /v1/xades/jobs/{jobId}/result "
+                + "ile alınır. XADES_BES isteklerinde etkisizdir.",
+        example = "false",
+        defaultValue = "false"
+    )
+    public void setAsyncUpgrade(Boolean asyncUpgrade) {
+        AsyncUpgrade = asyncUpgrade;
+    }
 }
@@ -0,0 +1,42 @@
+package io.mersel.dss.signer.api.dtos;
+
+import javax.validation.constraints.NotBlank;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+
+/**
+ * {@code POST /v1/xades/upgrade} ve {@code /v1/xades/upgrade/batch}
+ * endpoint'leri için multipart form kontratı.
+ *
+ * <p>{@code Document} tek endpoint'te imzalı bir XML belgesi, toplu
+ * endpoint'te her girdisi imzalı bir XML belgesi olan ZIP arşividir.
+ * Belgeler yeniden imzalanmaz; mevcut imzalara XAdES-A özellikleri
+ * eklenir. {@code DocumentType} boş bırakılırsa
+ * {@link DocumentType#OtherXmlDocument} uygulanır.</p>
+ */
+public class UpgradeXadesDto {
+    private MultipartFile Document;
+    private DocumentType DocumentType;
+
+    public MultipartFile getDocument() {
+        return Document;
+    }
+
+    @NotBlank
+    @Schema(description = "XAdES-A'ya yükseltilecek imzalı XML belgesi (toplu endpoint'te ZIP arşivi)")
+    public void setDocument(MultipartFile document) {
+        Document = document;
+    }
+
+    public io.mersel.dss.signer.api.models.enums.DocumentType getDocumentType() {
+        return DocumentType;
+    }
+
+    @Schema(enumAsRef = true, description = "Belge tipi. Boş bırakılırsa OtherXmlDocument uygulanır.")
+    public void setDocumentType(io.mersel.dss.signer.api.models.enums.DocumentType documentType) {
+        DocumentType = documentType;
+    }
+}
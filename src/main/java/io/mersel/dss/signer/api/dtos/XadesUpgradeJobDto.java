@@ -0,0 +1,127 @@
+package io.mersel.dss.signer.api.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.mersel.dss.signer.api.models.XadesUpgradeJob;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Date;
+
+/**
+ * Asenkron XAdES-A yükseltme işinin durum bilgisi DTO.
+ */
+@Schema(description = "Asenkron XAdES-A yükseltme işinin durumu")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class XadesUpgradeJobDto {
+
+    @Schema(description = "İş kimliği", example = "3f2b6c1e-8a4d-4c2b-9f1e-2d7a5b9c0e11")
+    @JsonProperty("jobId")
+    private String jobId;
+
+    @Schema(description = "İş durumu", example = "PENDING",
+            allowableValues = {"PENDING", "RUNNING", "COMPLETED", "FAILED"})
+    @JsonProperty("status")
+    private String status;
+
+    @Schema(description = "Belge tipi", example = "UblDocument")
+    @JsonProperty("documentType")
+    private String documentType;
+
+    @Schema(description = "BES imza değeri (Base64); XAdES-A yükseltmesinde değişmez")
+    @JsonProperty("signatureValue")
+    private String signatureValue;
+
+    @Schema(description = "Yapılan deneme sayısı", example = "1")
+    @JsonProperty("attempts")
+    private int attempts;
+
+    @Schema(description = "İşin kabul anı")
+    @JsonProperty("createdAt")
+    private Date createdAt;
+
+    @Schema(description = "Bir sonraki deneme anı (yeniden deneme bekleniyorsa)")
+    @JsonProperty("nextAttemptAt")
+    private Date nextAttemptAt;
+
+    @Schema(description = "İşin bittiği an (COMPLETED / FAILED)")
+    @JsonProperty("completedAt")
+    private Date completedAt;
+
+    @Schema(description = "Sonuç belgesinin indirme adresi (COMPLETED)",
+            example = "/v1/xades/jobs/3f2b6c1e-8a4d-4c2b-9f1e-2d7a5b9c0e11/result")
+    @JsonProperty("resultUrl")
+    private String resultUrl;
+
+    @Schema(description = "Son denemenin hata kodu")
+    @JsonProperty("errorCode")
+    private String errorCode;
+
+    @Schema(description = "Son denemenin hata mesajı")
+    @JsonProperty("errorMessage")
+    private String errorMessage;
+
+    public XadesUpgradeJobDto() {
+    }
+
+    public static XadesUpgradeJobDto from(XadesUpgradeJob job) {
+        XadesUpgradeJobDto dto = new XadesUpgradeJobDto();
+        dto.jobId = job.getJobId();
+        dto.status = job.getStatus() != null ? job.getStatus().name() : null;
+        dto.documentType = job.getDocumentType();
+        dto.signatureValue = job.getSignatureValue();
+        dto.attempts = job.getAttempts();
+        dto.createdAt = new Date(job.getCreatedAt());
+        dto.nextAttemptAt = job.getNextAttemptAt() != null ? new Date(job.getNextAttemptAt()) : null;
+        dto.completedAt = job.getCompletedAt() != null ? new Date(job.getCompletedAt()) : null;
+        if (job.getStatus() == XadesUpgradeJob.Status.COMPLETED) {
+            dto.resultUrl = "/v1/xades/jobs/" + job.getJobId() + "/result";
+        }
+        dto.errorCode = job.getErrorCode();
+        dto.errorMessage = job.getErrorMessage();
+        return dto;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getDocumentType() {
+        return documentType;
+    }
+
+    public String getSignatureValue() {
+        return signatureValue;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public Date getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public Date getCompletedAt() {
+        return completedAt;
+    }
+
+    public String getResultUrl() {
+        return resultUrl;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
@@ -0,0 +1,57 @@
+package io.mersel.dss.signer.api.exceptions;
+
+/**
+ * İmza kapasitesi dolduğunda fırlatılan exception.
+ *
+ * <p>{@link io.mersel.dss.signer.api.services.concurrency.AdaptiveSigningLimiter}
+ * bekleme kuyruğu doluysa ({@link Reason#QUEUE_FULL} → HTTP 429) veya permit
+ * zaman aşımı içinde alınamazsa ({@link Reason#TIMEOUT} → HTTP 503) fırlatır.
+ * {@link #getRetryAfterSeconds()} yanıtın {@code Retry-After} header'ına
+ * yazılır.</p>
+ */
+public class SigningCapacityException extends SignatureException {
+
+    /** Reddetme nedeni. */
+    public enum Reason {
+        /** Bekleme kuyruğu dolu; istek hiç kuyruğa alınmadı. */
+        QUEUE_FULL,
+        /** Kuyrukta beklenirken permit zaman aşımı doldu. */
+        TIMEOUT
+    }
+
+    private final Reason reason;
+    private final long retryAfterSeconds;
+
+    public SigningCapacityException(Reason reason, long retryAfterSeconds, String message) {
+        super(reason == Reason.QUEUE_FULL ? "SIGNING_QUEUE_FULL" : "SIGNING_TIMEOUT", message);
+        this.reason = reason;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * Cause zincirinde bir {@link SigningCapacityException} arar. İmza servisleri
+     * alt katman hatalarını {@link SignatureException} ile sarabildiği için
+     * controller'lar kapasite reddini bu yolla ayırt eder.
+     *
+     * @return bulunan exception veya {@code null}
+     */
+    public static SigningCapacityException find(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof SigningCapacityException) {
+                return (SigningCapacityException) t;
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,129 @@
+package io.mersel.dss.signer.api.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Toplu imza ZIP yanıtındaki {@code manifest.json} içeriği.
+ *
+ * <p>Girdi ZIP'indeki her belge için bir {@link Entry} taşır (girdi sırasıyla).
+ * Yanıt akış olarak üretildiğinden HTTP durum kodu ilk bayt yazıldığında
+ * kesinleşir; kısmi hatalar ve toplu işin yarıda kesilmesi (bozuk ZIP, girdi
+ * sınırı) yalnızca bu manifest üzerinden raporlanır. Caller {@link #getFailed()}
+ * ve {@link #getError()} alanlarını kontrol etmelidir.</p>
+ */
+public class BatchManifest {
+
+    public static final String STATUS_SIGNED = "SIGNED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private final String documentType;
+    private final String signatureLevel;
+    private final List<Entry> entries = new ArrayList<>();
+    private int signed;
+    private int failed;
+    private String error;
+
+    public BatchManifest(String documentType, String signatureLevel) {
+        this.documentType = documentType;
+        this.signatureLevel = signatureLevel;
+    }
+
+    public void addSigned(int index, String name, String signedEntry, String signatureValue) {
+        entries.add(new Entry(index, name, STATUS_SIGNED, signedEntry, signatureValue, null));
+        signed++;
+    }
+
+    public void addFailed(int index, String name, String errorMessage) {
+        entries.add(new Entry(index, name, STATUS_FAILED, null, null, errorMessage));
+        failed++;
+    }
+
+    public String getDocumentType() {
+        return documentType;
+    }
+
+    public String getSignatureLevel() {
+        return signatureLevel;
+    }
+
+    public int getTotal() {
+        return entries.size();
+    }
+
+    public int getSigned() {
+        return signed;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    /** Toplu işi yarıda kesen hata (bozuk ZIP, girdi sınırı); yoksa {@code null}. */
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    /** Satırları girdi sırasına ({@link Entry#getIndex()}) dizer; sonuçlar tamamlanma sırasıyla eklenebilir. */
+    public void sortByIndex() {
+        entries.sort(Comparator.comparingInt(Entry::getIndex));
+    }
+
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /** Tek bir ZIP girdisinin imza sonucu. */
+    public static final class Entry {
+        private final int index;
+        private final String name;
+        private final String status;
+        private final String signedEntry;
+        private final String signatureValue;
+        private final String error;
+
+        Entry(int index, String name, String status, String signedEntry,
+              String signatureValue, String error) {
+            this.index = index;
+            this.name = name;
+            this.status = status;
+            this.signedEntry = signedEntry;
+            this.signatureValue = signatureValue;
+            this.error = error;
+        }
+
+        /** Girdi ZIP'indeki sıra (0 tabanlı, dizinler sayılmaz). */
+        public int getIndex() {
+            return index;
+        }
+
+        /** Girdi ZIP'indeki özgün ad. */
+        public String getName() {
+            return name;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        /** Yanıt ZIP'indeki imzalı girdinin adı; hata durumunda {@code null}. */
+        public String getSignedEntry() {
+            return signedEntry;
+        }
+
+        /** {@code <ds:SignatureValue>} base64 değeri; hata durumunda {@code null}. */
+        public String getSignatureValue() {
+            return signatureValue;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package io.mersel.dss.signer.api.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Toplu imzalamada tek bir öğenin sonucu: ya imza byte'ları ya da hata mesajı.
+ *
+ * <p>Toplu imza yolları ({@link SigningBackend#signDigestBatch},
+ * {@link io.mersel.dss.signer.api.services.keystore.iaik.Pkcs11Signer#signBatch})
+ * hatayı öğe bazında raporlar: bir öğenin başarısızlığı diğerlerini
+ * etkilemez ve sonuç listesi girdiyle <b>aynı sırada</b> döner.</p>
+ */
+public final class BatchSignResult {
+
+    private final byte[] signature;
+    private final String errorMessage;
+
+    private BatchSignResult(byte[] signature, String errorMessage) {
+        this.signature = signature;
+        this.errorMessage = errorMessage;
+    }
+
+    public static BatchSignResult success(byte[] signature) {
+        if (signature == null) {
+            throw new IllegalArgumentException("Başarılı sonuçta imza null olamaz");
+        }
+        return new BatchSignResult(signature, null);
+    }
+
+    public static BatchSignResult failure(String errorMessage) {
+        return new BatchSignResult(null, errorMessage != null ? errorMessage : "bilinmeyen hata");
+    }
+
+    /** Exception'ı öğe hatasına çevirir ({@code SınıfAdı: mesaj}). */
+    public static BatchSignResult failure(Throwable cause) {
+        return failure(cause.getClass().getSimpleName() + ": " + cause.getMessage());
+    }
+
+    public boolean isSuccess() {
+        return signature != null;
+    }
+
+    /** Başarılıysa imza byte'ları; aksi halde {@code null}. */
+    public byte[] getSignature() {
+        return signature;
+    }
+
+    /** Başarısızsa hata mesajı; aksi halde {@code null}. */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    /**
+     * Öğeleri sırayla tek tek imzalayan referans uygulama; her öğenin
+     * exception'ı kendi sonucuna yazılır. Native toplu yolu olmayan
+     * backend'lerin default davranışıdır.
+     */
+    public static List<BatchSignResult> sequential(List<byte[]> items, Function<byte[], byte[]> signOne) {
+        List<BatchSignResult> results = new ArrayList<>(items.size());
+        for (byte[] item : items) {
+            try {
+                results.add(success(signOne.apply(item)));
+            } catch (RuntimeException e) {
+                results.add(failure(e));
+            }
+        }
+        return Collections.unmodifiableList(results);
+    }
+}
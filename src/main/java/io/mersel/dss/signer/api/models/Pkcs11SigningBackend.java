@@ -5,6 +5,8 @@ import eu.europa.esig.dss.enumerations.SignatureAlgorithm;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
 import io.mersel.dss.signer.api.services.keystore.iaik.Pkcs11Signer;
 
+import java.util.List;
+
 /**
  * PKCS#11 tabanlı imzalama arka ucu.
  *
@@ -56,6 +58,32 @@ public final class Pkcs11SigningBackend implements SigningBackend {
         }
     }
 
+    @Override
+    public List<BatchSignResult> signBatch(List<byte[]> dataToSign, SignatureAlgorithm signatureAlgorithm) {
+        try {
+            return signer.signBatch(dataToSign, signatureAlgorithm);
+        } catch (SignatureException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SignatureException("HSM toplu imzası oluşturulamadı", e);
+        }
+    }
+
+    @Override
+    public List<BatchSignResult> signDigestBatch(List<byte[]> digests, DigestAlgorithm digestAlgorithm) {
+        // Öğe hataları zaten BatchSignResult içinde; burada yalnız toplu
+        // çağrının kendisinin (IPC, token kapalı vb.) hatası sarılır.
+        try {
+            return signer.signDigestBatch(digests, digestAlgorithm);
+        } catch (SignatureException e) {
+            throw e;
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SignatureException("HSM toplu digest imzası oluşturulamadı", e);
+        }
+    }
+
     public Pkcs11Signer getSigner() {
         return signer;
     }
@@ -0,0 +1,110 @@
+package io.mersel.dss.signer.api.models;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.DERSet;
+import org.bouncycastle.asn1.cms.Attribute;
+import org.bouncycastle.asn1.ess.ESSCertIDv2;
+import org.bouncycastle.asn1.ess.SigningCertificateV2;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.IssuerSerial;
+import org.bouncycastle.cert.jcajce.JcaCertStore;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.cert.X509Certificate;
+import java.util.List;
+
+/**
+ * İmzalama sertifikasından bir digest algoritması için türetilen, süreç
+ * boyunca sabit değerler: sertifika digest'i, {@code IssuerSerial},
+ * {@code SigningCertificateV2} signed attribute'u ve zincirin
+ * {@link JcaCertStore}'u.
+ *
+ * <p>{@link SigningMaterial#getPrecomputedCertificate(DigestAlgorithm)}
+ * üzerinden materyal başına bir kez hesaplanır. Değerler yalnızca
+ * materyalin final sertifika ve zincir alanlarına bağlıdır; anahtar
+ * handle'ı yenilense de değişmezler.</p>
+ *
+ * <p>Immutable ve thread-safe'tir; BouncyCastle ASN.1 nesneleri ve
+ * {@link JcaCertStore} okumada paylaşılabilir.</p>
+ */
+public final class PrecomputedSigningCertificate {
+
+    private final DigestAlgorithm digestAlgorithm;
+    private final byte[] certificateDigest;
+    private final IssuerSerial issuerSerial;
+    private final Attribute signingCertificateV2;
+    private final JcaCertStore certificateStore;
+
+    private PrecomputedSigningCertificate(DigestAlgorithm digestAlgorithm,
+                                          byte[] certificateDigest,
+                                          IssuerSerial issuerSerial,
+                                          Attribute signingCertificateV2,
+                                          JcaCertStore certificateStore) {
+        this.digestAlgorithm = digestAlgorithm;
+        this.certificateDigest = certificateDigest;
+        this.issuerSerial = issuerSerial;
+        this.signingCertificateV2 = signingCertificateV2;
+        this.certificateStore = certificateStore;
+    }
+
+    /**
+     * Sertifika ve zincir için değerleri hesaplar.
+     *
+     * @throws IllegalStateException sertifika kodlanamaz veya digest
+     *         algoritması JCA'da yoksa
+     */
+    static PrecomputedSigningCertificate compute(X509Certificate certificate,
+                                                 List<X509Certificate> certificateChain,
+                                                 DigestAlgorithm digestAlgorithm) {
+        try {
+            byte[] certificateDigest = MessageDigest.getInstance(digestAlgorithm.getJavaName())
+                    .digest(certificate.getEncoded());
+
+            GeneralNames issuer = new GeneralNames(new GeneralName(
+                    X500Name.getInstance(certificate.getIssuerX500Principal().getEncoded())));
+            IssuerSerial issuerSerial = new IssuerSerial(issuer, certificate.getSerialNumber());
+
+            ESSCertIDv2 essCertId = new ESSCertIDv2(
+                    new AlgorithmIdentifier(new ASN1ObjectIdentifier(digestAlgorithm.getOid())),
+                    certificateDigest, issuerSerial);
+            Attribute signingCertificateV2 = new Attribute(
+                    PKCSObjectIdentifiers.id_aa_signingCertificateV2,
+                    new DERSet(new SigningCertificateV2(new ESSCertIDv2[]{essCertId})));
+
+            return new PrecomputedSigningCertificate(digestAlgorithm, certificateDigest,
+                    issuerSerial, signingCertificateV2, new JcaCertStore(certificateChain));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(
+                    "İmzalama sertifikası ön hesaplamaları oluşturulamadı: " + e.getMessage(), e);
+        }
+    }
+
+    public DigestAlgorithm getDigestAlgorithm() {
+        return digestAlgorithm;
+    }
+
+    /** Sertifikanın DER kodlamasının digest'i (kopya). */
+    public byte[] getCertificateDigest() {
+        return certificateDigest.clone();
+    }
+
+    public IssuerSerial getIssuerSerial() {
+        return issuerSerial;
+    }
+
+    /** {@code id-aa-signingCertificateV2} signed attribute'u (ESSCertIDv2 + IssuerSerial). */
+    public Attribute getSigningCertificateV2() {
+        return signingCertificateV2;
+    }
+
+    /** CMS'e eklenecek sertifika zinciri. */
+    public JcaCertStore getCertificateStore() {
+        return certificateStore;
+    }
+}
@@ -3,6 +3,8 @@ package io.mersel.dss.signer.api.models;
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.enumerations.SignatureAlgorithm;
 
+import java.util.List;
+
 /**
  * Düşük seviye imzalama arka uç kontratı.
  *
@@ -69,4 +71,28 @@ public interface SigningBackend {
      *         {@code digestAlgorithm} ile uyumsuzsa
      */
     byte[] signDigest(byte[] digest, DigestAlgorithm digestAlgorithm);
+
+    /**
+     * Aynı anahtarla çok sayıda raw veriyi imzalar; {@link #sign}'ın toplu
+     * karşılığı. Sonuçlar girdiyle aynı sıradadır, hatalar öğe bazında
+     * {@link BatchSignResult} içinde raporlanır.
+     *
+     * <p>Default implementasyon {@link #sign} ile sırayla imzalar.</p>
+     */
+    default List<BatchSignResult> signBatch(List<byte[]> dataToSign, SignatureAlgorithm signatureAlgorithm) {
+        return BatchSignResult.sequential(dataToSign, d -> sign(d, signatureAlgorithm));
+    }
+
+    /**
+     * Aynı anahtarla çok sayıda pre-hashed digest'i imzalar. Sonuçlar girdiyle
+     * aynı sıradadır; hatalar öğe bazında {@link BatchSignResult} içinde
+     * raporlanır (tek öğenin hatası tüm toplu çağrıyı düşürmez).
+     *
+     * <p>Default implementasyon {@link #signDigest} ile sırayla imzalar.
+     * PKCS#11 arka ucu bunu HSM session havuzuna yayan native toplu yola
+     * yönlendirir.</p>
+     */
+    default List<BatchSignResult> signDigestBatch(List<byte[]> digests, DigestAlgorithm digestAlgorithm) {
+        return BatchSignResult.sequential(digests, d -> signDigest(d, digestAlgorithm));
+    }
 }
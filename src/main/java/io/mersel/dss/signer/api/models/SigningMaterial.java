@@ -10,6 +10,8 @@ import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
 /**
@@ -32,9 +34,20 @@ import java.util.stream.Collectors;
 public final class SigningMaterial {
 
     private final SigningBackend signingBackend;
+    /**
+     * Anahtara erişen asıl backend. Genellikle {@link #signingBackend} ile
+     * aynıdır; {@link #withSigningBackend} ile bir dispatcher takıldığında
+     * altta kalan PFX/HSM backend'idir.
+     */
+    private final SigningBackend keyBackend;
     private final X509Certificate signingCertificate;
     private final List<X509Certificate> certificateChain;
     private final List<CertificateToken> certificateTokens;
+    /**
+     * Digest algoritması → sertifika ön hesaplamaları. Aynı sertifikayı
+     * taşıyan {@link #withSigningBackend} kopyalarıyla paylaşılır.
+     */
+    private final ConcurrentMap<DigestAlgorithm, PrecomputedSigningCertificate> precomputedCertificates;
 
     /** PFX yolu için kurucu. */
     public SigningMaterial(PrivateKey privateKey,
@@ -53,7 +66,23 @@ public final class SigningMaterial {
     private SigningMaterial(SigningBackend signingBackend,
                             X509Certificate signingCertificate,
                             List<X509Certificate> certificateChain) {
-        if (signingBackend == null) {
+        this(signingBackend, signingBackend, signingCertificate, certificateChain);
+    }
+
+    private SigningMaterial(SigningBackend signingBackend,
+                            SigningBackend keyBackend,
+                            X509Certificate signingCertificate,
+                            List<X509Certificate> certificateChain) {
+        this(signingBackend, keyBackend, signingCertificate, certificateChain,
+                new ConcurrentHashMap<DigestAlgorithm, PrecomputedSigningCertificate>());
+    }
+
+    private SigningMaterial(SigningBackend signingBackend,
+                            SigningBackend keyBackend,
+                            X509Certificate signingCertificate,
+                            List<X509Certificate> certificateChain,
+                            ConcurrentMap<DigestAlgorithm, PrecomputedSigningCertificate> precomputedCertificates) {
+        if (signingBackend == null || keyBackend == null) {
             throw new IllegalArgumentException("SigningMaterial: signingBackend null olamaz");
         }
         if (signingCertificate == null) {
@@ -63,11 +92,13 @@ public final class SigningMaterial {
             throw new IllegalArgumentException("SigningMaterial: certificateChain boş olamaz");
         }
         this.signingBackend = signingBackend;
+        this.keyBackend = keyBackend;
         this.signingCertificate = signingCertificate;
         this.certificateChain = Collections.unmodifiableList(new ArrayList<>(certificateChain));
         this.certificateTokens = this.certificateChain.stream()
                 .map(CertificateToken::new)
                 .collect(Collectors.toList());
+        this.precomputedCertificates = precomputedCertificates;
     }
 
     /**
@@ -75,8 +106,8 @@ public final class SigningMaterial {
      * HSM yolunda imza için {@link #getPkcs11Signer()} kullanılmalıdır.
      */
     public PrivateKey getPrivateKey() {
-        if (signingBackend instanceof JcaSigningBackend) {
-            return ((JcaSigningBackend) signingBackend).getPrivateKey();
+        if (keyBackend instanceof JcaSigningBackend) {
+            return ((JcaSigningBackend) keyBackend).getPrivateKey();
         }
         return null;
     }
@@ -85,8 +116,8 @@ public final class SigningMaterial {
      * HSM (PKCS#11) yolunda imza atan token. PFX yolunda {@code null}.
      */
     public Pkcs11Signer getPkcs11Signer() {
-        if (signingBackend instanceof Pkcs11SigningBackend) {
-            return ((Pkcs11SigningBackend) signingBackend).getSigner();
+        if (keyBackend instanceof Pkcs11SigningBackend) {
+            return ((Pkcs11SigningBackend) keyBackend).getSigner();
         }
         return null;
     }
@@ -104,6 +135,18 @@ public final class SigningMaterial {
         return signingBackend;
     }
 
+    /**
+     * Aynı sertifika zinciriyle, imza çağrılarını {@code signingBackend}'e
+     * yönlendiren yeni bir materyal döner (örn. mikro-toplu dispatcher).
+     * {@link #getPrivateKey()} ve {@link #getPkcs11Signer()} bu materyalin
+     * asıl anahtar backend'ini vermeye devam eder; heartbeat gibi doğrudan
+     * token'a giden bileşenler sarmalayıcıdan etkilenmez.
+     */
+    public SigningMaterial withSigningBackend(SigningBackend signingBackend) {
+        return new SigningMaterial(signingBackend, keyBackend, signingCertificate, certificateChain,
+                precomputedCertificates);
+    }
+
     public byte[] sign(byte[] dataToSign, SignatureAlgorithm signatureAlgorithm) {
         return signingBackend.sign(dataToSign, signatureAlgorithm);
     }
@@ -116,6 +159,14 @@ public final class SigningMaterial {
         return signingBackend.signDigest(digest, digestAlgorithm);
     }
 
+    /**
+     * Toplu pre-hashed digest yolu; sonuçlar girdiyle aynı sırada, hatalar
+     * öğe bazında. Bkz. {@link SigningBackend#signDigestBatch(List, DigestAlgorithm)}.
+     */
+    public List<BatchSignResult> signDigestBatch(List<byte[]> digests, DigestAlgorithm digestAlgorithm) {
+        return signingBackend.signDigestBatch(digests, digestAlgorithm);
+    }
+
     public X509Certificate getSigningCertificate() {
         return signingCertificate;
     }
@@ -131,4 +182,15 @@ public final class SigningMaterial {
     public CertificateToken getPrimaryCertificateToken() {
         return certificateTokens.get(0);
     }
+
+    /**
+     * İmzalama sertifikasının bu digest algoritması için ön hesaplanmış
+     * değerleri; ilk çağrıda hesaplanır.
+     *
+     * @throws IllegalStateException değerler hesaplanamazsa
+     */
+    public PrecomputedSigningCertificate getPrecomputedCertificate(DigestAlgorithm digestAlgorithm) {
+        return precomputedCertificates.computeIfAbsent(digestAlgorithm,
+                algorithm -> PrecomputedSigningCertificate.compute(signingCertificate, certificateChain, algorithm));
+    }
 }
@@ -0,0 +1,160 @@
+package io.mersel.dss.signer.api.models;
+
+import java.util.Map;
+
+/**
+ * Asenkron XAdES-A yükseltme işinin kalıcı kaydı.
+ *
+ * <p>İş dizinindeki {@code job.json} dosyasına JSON olarak yazılır; süreç
+ * yeniden başladığında {@link Status#PENDING} ve {@link Status#RUNNING}
+ * işler bu kayıttan kuyruğa geri alınır. Zaman alanları epoch milisaniyedir.</p>
+ */
+public class XadesUpgradeJob {
+
+    /** İş durumu. */
+    public enum Status {
+        /** Kuyrukta; ilk deneme ya da yeniden deneme bekleniyor. */
+        PENDING,
+        /** Bir worker yükseltmeyi yürütüyor. */
+        RUNNING,
+        /** XAdES-A belgesi hazır. */
+        COMPLETED,
+        /** Tüm denemeler başarısız oldu; BES belgesi yükseltilmedi. */
+        FAILED;
+
+        public boolean isTerminal() {
+            return this == COMPLETED || this == FAILED;
+        }
+    }
+
+    private String jobId;
+    private Status status;
+    private String documentType;
+    private boolean zipped;
+    private String signatureValue;
+    private int attempts;
+    private long createdAt;
+    private long updatedAt;
+    private Long nextAttemptAt;
+    private Long completedAt;
+    private Long resultSizeBytes;
+    private String errorCode;
+    private String errorMessage;
+    private Map<String, String> logHeaders;
+
+    public XadesUpgradeJob() {
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getDocumentType() {
+        return documentType;
+    }
+
+    public void setDocumentType(String documentType) {
+        this.documentType = documentType;
+    }
+
+    public boolean isZipped() {
+        return zipped;
+    }
+
+    public void setZipped(boolean zipped) {
+        this.zipped = zipped;
+    }
+
+    public String getSignatureValue() {
+        return signatureValue;
+    }
+
+    public void setSignatureValue(String signatureValue) {
+        this.signatureValue = signatureValue;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(Long nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public Long getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Long completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public Long getResultSizeBytes() {
+        return resultSizeBytes;
+    }
+
+    public void setResultSizeBytes(Long resultSizeBytes) {
+        this.resultSizeBytes = resultSizeBytes;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public void setErrorCode(String errorCode) {
+        this.errorCode = errorCode;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    /** İşi gönderen isteğin {@code x-log-*} başlıkları (worker log'ları ve webhook için). */
+    public Map<String, String> getLogHeaders() {
+        return logHeaders;
+    }
+
+    public void setLogHeaders(Map<String, String> logHeaders) {
+        this.logHeaders = logHeaders;
+    }
+}
@@ -92,6 +92,34 @@ public class SignatureServiceConfiguration {
     @Value("${PKCS11_HELPER_READ_TIMEOUT_MS:60000}")
     private int pkcs11HelperReadTimeoutMs;
 
+    /**
+     * Helper'a açılan uzun-ömürlü, auth edilmiş bağlantı havuzunun boyutu.
+     * {@code <= 0} (default) → {@code MAX_SESSION_COUNT} ile aynı. Bu değer
+     * aynı zamanda helper'a uçuşta olabilecek toplam çağrı üst sınırıdır;
+     * helper'ın worker havuzu da {@code MAX_SESSION_COUNT} boyutundadır.
+     */
+    @Value("${PKCS11_BRIDGE_POOL_SIZE:0}")
+    private int pkcs11BridgePoolSize;
+
+    /** Boşta bu süreden (ms) uzun kalan havuz bağlantıları kapatılır. */
+    @Value("${PKCS11_BRIDGE_POOL_IDLE_TIMEOUT_MS:300000}")
+    private long pkcs11BridgePoolIdleTimeoutMs;
+
+    /**
+     * Boşta bu süreden (ms) uzun kalmış bir bağlantı, yeniden verilmeden önce
+     * {@code OP_PING} ile doğrulanır. {@code 0} → doğrulama kapalı.
+     */
+    @Value("${PKCS11_BRIDGE_POOL_VALIDATE_AFTER_IDLE_MS:30000}")
+    private long pkcs11BridgePoolValidateAfterIdleMs;
+
+    /**
+     * Pipelined (protokol v2) paylaşılan bağlantı sayısı üst sınırı. Çağrılar
+     * bu kadar soket üzerinde {@code requestId} ile çoklanır. {@code 0} →
+     * pipelining kapalı; her çağrı kendi bağlantısını kullanır (v1).
+     */
+    @Value("${PKCS11_BRIDGE_PIPELINE_CONNECTIONS:2}")
+    private int pkcs11BridgePipelineConnections;
+
     @Value("${CERTIFICATE_PIN}")
     private String certificatePin;
 
@@ -130,7 +158,7 @@ public class SignatureServiceConfiguration {
      *
      * <ol>
      *   <li><b>Spring semaphore</b> — pipeline'a giriş bileti
-     *       ({@link io.mersel.dss.signer.api.config.SignatureConfiguration#signatureSemaphore()}).
+     *       ({@link io.mersel.dss.signer.api.config.SignatureConfiguration#signingLimiter()}).
      *       Hem PFX hem HSM yolunda geçerli.</li>
      *   <li><b>IAIK PKCS11Token internal pool</b> — wrapper'ın
      *       {@code numSessions} ctor parametresine geçirilir. Sadece HSM
@@ -214,6 +242,153 @@ public class SignatureServiceConfiguration {
     @Value("${HSM_HEARTBEAT_INTERVAL_SECONDS:60}")
     private int hsmHeartbeatIntervalSeconds;
 
+    /**
+     * {@code true} (default) ise imza permit'i HSM gecikmesine göre limitini
+     * ayarlayan {@link io.mersel.dss.signer.api.services.concurrency.AdaptiveSigningLimiter}
+     * ile verilir; {@code MAX_SESSION_COUNT} bu durumda limitin üst sınırıdır.
+     * {@code false} ise sabit {@code FixedSigningLimiter(MAX_SESSION_COUNT)}
+     * kullanılır (kuyruk sınırı ve 429/503 reddi yoktur).
+     */
+    @Value("${SIGNING_LIMITER_ENABLED:true}")
+    private boolean signingLimiterEnabled;
+
+    /** Adaptif limitin düşebileceği en küçük değer. */
+    @Value("${SIGNING_LIMITER_MIN_LIMIT:1}")
+    private int signingLimiterMinLimit;
+
+    /**
+     * Limit doluyken bekleyebilecek en fazla istek. Dolu kuyruğa gelen istek
+     * HTTP 429 + {@code Retry-After} ile reddedilir.
+     */
+    @Value("${SIGNING_LIMITER_QUEUE_SIZE:100}")
+    private int signingLimiterQueueSize;
+
+    /**
+     * Kuyrukta en fazla bekleme süresi (ms). Aşılırsa HTTP 503 +
+     * {@code Retry-After}. {@code <=0} süresiz bekler.
+     */
+    @Value("${SIGNING_LIMITER_ACQUIRE_TIMEOUT_MS:30000}")
+    private long signingLimiterAcquireTimeoutMs;
+
+    /**
+     * Bu süreyi (ms) aşan HSM imza çağrısı limiti çarpımsal olarak düşürür;
+     * altındaki çağrılar limit doluyken limiti birer birer artırır.
+     */
+    @Value("${SIGNING_LIMITER_LATENCY_THRESHOLD_MS:1000}")
+    private long signingLimiterLatencyThresholdMs;
+
+    /** Eşik aşıldığında limitin çarpılacağı katsayı. */
+    @Value("${SIGNING_LIMITER_DECREASE_FACTOR:0.9}")
+    private double signingLimiterDecreaseFactor;
+
+    /**
+     * Kuyruk önceliği, {@code FORMAT:ÖNCELİK} çiftleri. Formatlar
+     * {@code XADES, CADES, PADES, WSSECURITY}; öncelikler
+     * {@code HIGH, NORMAL, LOW}. Tanımlanmayan format {@code NORMAL}'dır.
+     */
+    @Value("${SIGNING_LIMITER_PRIORITIES:WSSECURITY:HIGH,XADES:NORMAL,CADES:NORMAL,PADES:LOW}")
+    private String signingLimiterPriorities;
+
+    /**
+     * {@code true} ise eş zamanlı tekil imza çağrıları
+     * {@link io.mersel.dss.signer.api.services.concurrency.MicroBatchingSigningBackend}
+     * ile kısa bir pencerede toplanıp HSM session havuzuna tek adımda yayılır.
+     * Default {@code false}; yalnızca PKCS#11 yolunda etkilidir.
+     */
+    @Value("${SIGN_MICROBATCH_ENABLED:false}")
+    private boolean signMicrobatchEnabled;
+
+    /** İlk istekten itibaren toplama penceresi (µs). */
+    @Value("${SIGN_MICROBATCH_WINDOW_MICROS:1000}")
+    private long signMicrobatchWindowMicros;
+
+    /**
+     * Pencereyi erken kapatan öğe sayısı. {@code <=0} ise
+     * {@code MAX_SESSION_COUNT} kullanılır.
+     */
+    @Value("${SIGN_MICROBATCH_MAX_ITEMS:0}")
+    private int signMicrobatchMaxItems;
+
+    /**
+     * İmza sertifika zinciri için OCSP/CRL yanıtlarını arka planda önceden
+     * çeker. {@code true} iken XAdES-C/XL/A yükseltmeleri iptal verisini
+     * önbellekteki sıcak kopyadan alır; {@code false} ise önbellek yalnızca
+     * istek yolunda doldurulur.
+     */
+    @Value("${REVOCATION_PREFETCH_ENABLED:true}")
+    private boolean revocationPrefetchEnabled;
+
+    /** Önceden çekme turları arasındaki süre (ms). */
+    @Value("${REVOCATION_PREFETCH_INTERVAL_MS:30000}")
+    private long revocationPrefetchIntervalMs;
+
+    /**
+     * Sıcak yanıtın kullanım süresi dolmadan bu kadar (ms) önce yenilenir.
+     * {@code REVOCATION_PREFETCH_INTERVAL_MS}'den büyük olmalıdır.
+     */
+    @Value("${REVOCATION_PREFETCH_REFRESH_AHEAD_MS:120000}")
+    private long revocationPrefetchRefreshAheadMs;
+
+    /**
+     * Tazelik penceresi veya {@code nextUpdate} sınırına bu kadar (ms) kala
+     * sıcak yanıt artık verilmez; TSA ve doğrulama süresi için pay.
+     */
+    @Value("${REVOCATION_PREFETCH_SAFETY_MARGIN_MS:60000}")
+    private long revocationPrefetchSafetyMarginMs;
+
+    /**
+     * Süreç geneli iptal yanıtı önbelleğinde tür (OCSP/CRL) başına azami
+     * kayıt sayısı. Aşılırsa süresi en erken dolacak kayıtlar silinir.
+     */
+    @Value("${REVOCATION_CACHE_MAX_ENTRIES:1000}")
+    private int revocationCacheMaxEntries;
+
+    /**
+     * OCSP, CRL ve AIA isteklerinin paylaştığı HTTP havuzunun ayarları.
+     * Süreler milisaniyedir. Havuz host başınadır; bir host'a aynı anda en
+     * fazla {@code REVOCATION_HTTP_MAX_CONNECTIONS_PER_HOST} bağlantı açılır,
+     * fazlası {@code REVOCATION_HTTP_POOL_LEASE_TIMEOUT_MS} kadar bekler.
+     */
+    @Value("${REVOCATION_HTTP_CONNECT_TIMEOUT_MS:5000}")
+    private int revocationHttpConnectTimeoutMs;
+
+    @Value("${REVOCATION_HTTP_READ_TIMEOUT_MS:30000}")
+    private int revocationHttpReadTimeoutMs;
+
+    @Value("${REVOCATION_HTTP_POOL_LEASE_TIMEOUT_MS:5000}")
+    private int revocationHttpPoolLeaseTimeoutMs;
+
+    @Value("${REVOCATION_HTTP_MAX_CONNECTIONS_PER_HOST:10}")
+    private int revocationHttpMaxConnectionsPerHost;
+
+    @Value("${REVOCATION_HTTP_KEEP_ALIVE_MS:60000}")
+    private int revocationHttpKeepAliveMs;
+
+    @Value("${REVOCATION_HTTP_IDLE_EVICTION_MS:30000}")
+    private int revocationHttpIdleEvictionMs;
+
+    /**
+     * Kabul edilen azami yanıt boyutu (bayt). KamuSM CRL'leri onlarca MB
+     * olabildiğinden varsayılan 100 MB'tır. {@code <=0} → sınırsız.
+     */
+    @Value("${REVOCATION_HTTP_MAX_RESPONSE_BYTES:104857600}")
+    private long revocationHttpMaxResponseBytes;
+
+    /** Geçici G/Ç hatalarında yeniden deneme sayısı. */
+    @Value("${REVOCATION_HTTP_MAX_RETRIES:1}")
+    private int revocationHttpMaxRetries;
+
+    /**
+     * XAdES-A yükseltmesinde OCSP/CRL isteklerini zaman damgasıyla aynı anda
+     * başlatan G/Ç havuzu. {@code XADES_UPGRADE_PARALLEL_IO_ENABLED=false}
+     * sıralı (DSS varsayılanı) davranışa döner.
+     */
+    @Value("${XADES_UPGRADE_IO_THREADS:8}")
+    private int xadesUpgradeIoThreads;
+
+    @Value("${XADES_UPGRADE_IO_QUEUE_SIZE:256}")
+    private int xadesUpgradeIoQueueSize;
+
 
     @Value("${CERTSTORE_PATH:SertifikaDeposu.svt}")
     private String certStorePath;
@@ -301,6 +476,23 @@ public class SignatureServiceConfiguration {
         return pkcs11HelperReadTimeoutMs;
     }
 
+    /** Etkin havuz boyutu: açıkça verilmediyse {@code MAX_SESSION_COUNT}. */
+    public int getPkcs11BridgePoolSize() {
+        return pkcs11BridgePoolSize > 0 ? pkcs11BridgePoolSize : Math.max(1, maxSessionCount);
+    }
+
+    public long getPkcs11BridgePoolIdleTimeoutMs() {
+        return pkcs11BridgePoolIdleTimeoutMs;
+    }
+
+    public long getPkcs11BridgePoolValidateAfterIdleMs() {
+        return pkcs11BridgePoolValidateAfterIdleMs;
+    }
+
+    public int getPkcs11BridgePipelineConnections() {
+        return pkcs11BridgePipelineConnections;
+    }
+
     public String getIssuerCertificatePath() {
         return issuerCertificatePath;
     }
@@ -349,6 +541,106 @@ public class SignatureServiceConfiguration {
         return hsmHeartbeatIntervalSeconds;
     }
 
+    public boolean isSigningLimiterEnabled() {
+        return signingLimiterEnabled;
+    }
+
+    public int getSigningLimiterMinLimit() {
+        return signingLimiterMinLimit;
+    }
+
+    public int getSigningLimiterQueueSize() {
+        return signingLimiterQueueSize;
+    }
+
+    public long getSigningLimiterAcquireTimeoutMs() {
+        return signingLimiterAcquireTimeoutMs;
+    }
+
+    public long getSigningLimiterLatencyThresholdMs() {
+        return signingLimiterLatencyThresholdMs;
+    }
+
+    public double getSigningLimiterDecreaseFactor() {
+        return signingLimiterDecreaseFactor;
+    }
+
+    public String getSigningLimiterPriorities() {
+        return signingLimiterPriorities;
+    }
+
+    public boolean isSignMicrobatchEnabled() {
+        return signMicrobatchEnabled;
+    }
+
+    public long getSignMicrobatchWindowMicros() {
+        return signMicrobatchWindowMicros;
+    }
+
+    public int getSignMicrobatchMaxItems() {
+        return signMicrobatchMaxItems;
+    }
+
+    public boolean isRevocationPrefetchEnabled() {
+        return revocationPrefetchEnabled;
+    }
+
+    public long getRevocationPrefetchIntervalMs() {
+        return revocationPrefetchIntervalMs;
+    }
+
+    public long getRevocationPrefetchRefreshAheadMs() {
+        return revocationPrefetchRefreshAheadMs;
+    }
+
+    public long getRevocationPrefetchSafetyMarginMs() {
+        return revocationPrefetchSafetyMarginMs;
+    }
+
+    public int getRevocationCacheMaxEntries() {
+        return revocationCacheMaxEntries;
+    }
+
+    public int getRevocationHttpConnectTimeoutMs() {
+        return revocationHttpConnectTimeoutMs;
+    }
+
+    public int getRevocationHttpReadTimeoutMs() {
+        return revocationHttpReadTimeoutMs;
+    }
+
+    public int getRevocationHttpPoolLeaseTimeoutMs() {
+        return revocationHttpPoolLeaseTimeoutMs;
+    }
+
+    public int getRevocationHttpMaxConnectionsPerHost() {
+        return revocationHttpMaxConnectionsPerHost;
+    }
+
+    public int getRevocationHttpKeepAliveMs() {
+        return revocationHttpKeepAliveMs;
+    }
+
+    public int getRevocationHttpIdleEvictionMs() {
+        return revocationHttpIdleEvictionMs;
+    }
+
+    public long getRevocationHttpMaxResponseBytes() {
+        return revocationHttpMaxResponseBytes;
+    }
+
+    public int getRevocationHttpMaxRetries() {
+        return revocationHttpMaxRetries;
+    }
+
+    public int getXadesUpgradeIoThreads() {
+        return xadesUpgradeIoThreads;
+    }
+
+    public int getXadesUpgradeIoQueueSize() {
+        return xadesUpgradeIoQueueSize;
+    }
+
     /**
      * Etkin TÜBİTAK modu. {@code IS_TUBITAK_TSP} açıkça {@code true} ise
      * her zaman {@code true}; aksi halde {@code TS_SERVER_HOST} KamuSM
@@ -0,0 +1,15 @@
+package io.mersel.dss.signer.api.models.enums;
+
+/**
+ * İmza permit'i isteyen belge formatı.
+ *
+ * <p>{@link io.mersel.dss.signer.api.services.concurrency.AdaptiveSigningLimiter}
+ * bekleme kuyruğunu formatın önceliğine göre sıralar ve reddetme
+ * metriklerini format bazında etiketler.</p>
+ */
+public enum SignatureFormat {
+    XADES,
+    CADES,
+    PADES,
+    WSSECURITY
+}
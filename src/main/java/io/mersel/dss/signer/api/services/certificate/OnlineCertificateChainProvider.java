@@ -1,5 +1,6 @@
 package io.mersel.dss.signer.api.services.certificate;
 
+import eu.europa.esig.dss.spi.client.http.DataLoader;
 import org.bouncycastle.asn1.ASN1Encodable;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.asn1.ASN1Sequence;
@@ -10,22 +11,34 @@ import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.InputStream;
-import java.net.URL;
+import java.io.ByteArrayInputStream;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * AIA (Authority Information Access) üzerinden issuer sertifikalarını indirerek sertifika zinciri oluşturur.
  * Güncel sertifikaları sağladığı için tercih edilen yöntemdir.
+ *
+ * <p>İndirme, iptal verisi ve DSS AIA kaynağıyla aynı {@link DataLoader}
+ * üzerinden yapılır; bağlantı havuzu, timeout ve boyut sınırı paylaşılır.</p>
  */
 public class OnlineCertificateChainProvider implements CertificateChainProvider {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(OnlineCertificateChainProvider.class);
     private static final String CA_ISSUER_OID = "1.3.6.1.5.5.7.48.2";
 
+    private final DataLoader dataLoader;
+
+    /**
+     * @param dataLoader issuer sertifikalarını indirecek loader
+     */
+    public OnlineCertificateChainProvider(DataLoader dataLoader) {
+        this.dataLoader = Objects.requireNonNull(dataLoader, "dataLoader");
+    }
+
     @Override
     public List<X509Certificate> buildChain(X509Certificate cert) throws Exception {
         List<X509Certificate> chain = new ArrayList<>();
@@ -101,11 +114,9 @@ public class OnlineCertificateChainProvider implements CertificateChainProvider
     }
 
     private X509Certificate downloadCertificate(String urlStr) throws Exception {
-        URL url = new URL(urlStr);
-        try (InputStream in = url.openStream()) {
-            CertificateFactory cf = CertificateFactory.getInstance("X.509");
-            return (X509Certificate) cf.generateCertificate(in);
-        }
+        byte[] encoded = dataLoader.get(urlStr);
+        CertificateFactory cf = CertificateFactory.getInstance("X.509");
+        return (X509Certificate) cf.generateCertificate(new ByteArrayInputStream(encoded));
     }
 
     private boolean isSelfSigned(X509Certificate cert) {
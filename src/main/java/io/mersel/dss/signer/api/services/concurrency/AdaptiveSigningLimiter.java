@@ -0,0 +1,417 @@
+package io.mersel.dss.signer.api.services.concurrency;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.mersel.dss.signer.api.exceptions.SigningCapacityException;
+import io.mersel.dss.signer.api.models.enums.SignatureFormat;
+
+/**
+ * HSM gecikmesine göre eş zamanlılık sınırını ayarlayan imza permit'i.
+ *
+ * <p>Sabit {@link FixedSigningLimiter} yerine kullanılır. Permit imza
+ * servislerinde yalnızca HSM imza çağrısı etrafında tutulduğu için
+ * acquire → release arası süre doğrudan HSM gecikmesidir; başlangıç anı
+ * {@link #acquire} dönüş değeriyle taşınır, permit başka bir thread'de
+ * bırakılsa da örnek kaybolmaz. Limit AIMD ile güncellenir:</p>
+ * <ul>
+ *   <li><b>Additive increase</b> — sınıra dayanmış (saturated) durumda gelen
+ *       örnek eşiğin altındaysa limit {@code 1/limit} artar; yaklaşık her
+ *       "limit kadar" başarılı imzada bir permit eklenir.</li>
+ *   <li><b>Multiplicative decrease</b> — örnek eşiği aşarsa limit
+ *       {@code decreaseFactor} ile çarpılır. Aynı yük dalgasındaki örnekler
+ *       limiti üst üste düşürmesin diye yalnızca son düşüşten sonra başlamış
+ *       bir imza yeniden düşüş tetikler.</li>
+ * </ul>
+ * <p>Limit {@code [minLimit, maxLimit]} aralığında kalır; başlangıç değeri
+ * {@code maxLimit}'tir (eski sabit semaphore ile aynı davranış).</p>
+ *
+ * <p>Limit doluyken gelen istekler sınırlı bir kuyrukta bekler. Kuyruk
+ * formatın önceliğine, aynı öncelikte geliş sırasına göre boşaltılır; boşalan
+ * permit doğrudan sıradaki bekleyene devredilir (barging yok). Kuyruk doluysa
+ * {@link SigningCapacityException.Reason#QUEUE_FULL}, bekleme
+ * {@code acquireTimeout} içinde bitmezse
+ * {@link SigningCapacityException.Reason#TIMEOUT} fırlatılır.</p>
+ */
+public class AdaptiveSigningLimiter implements SigningLimiter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveSigningLimiter.class);
+
+    /** Kuyruk önceliği; küçük ordinal önce servis edilir. */
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
+    /** Gecikme ortalaması (EWMA) için yeni örneğin ağırlığı. */
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<Waiter>();
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueCapacity;
+    private final long acquireTimeoutNanos;
+    private final long latencyThresholdNanos;
+    private final double decreaseFactor;
+    private final Map<SignatureFormat, Priority> priorities;
+    private final Map<SignatureFormat, AtomicLong> queueFullRejections;
+    private final Map<SignatureFormat, AtomicLong> timeoutRejections;
+
+    private double limit;
+    private int inFlight;
+    private long sequence;
+    private long lastDecreaseNanos;
+    private double averageLatencyNanos;
+    private boolean backendSamples;
+
+    /**
+     * @param minLimit             limitin düşebileceği en küçük değer (&gt;= 1)
+     * @param maxLimit             başlangıç ve en büyük limit (genellikle MAX_SESSION_COUNT)
+     * @param queueCapacity        bekleyebilecek en fazla istek; 0 ise limit doluyken hemen reddedilir
+     * @param acquireTimeoutMillis kuyrukta en fazla bekleme süresi; &lt;= 0 ise süresiz
+     * @param latencyThresholdMillis bu süreyi aşan HSM çağrısı limiti düşürür
+     * @param decreaseFactor       düşüşte limitin çarpılacağı katsayı (0, 1)
+     * @param priorities           format → öncelik; eksik formatlar {@link Priority#NORMAL}
+     */
+    public AdaptiveSigningLimiter(int minLimit,
+                                  int maxLimit,
+                                  int queueCapacity,
+                                  long acquireTimeoutMillis,
+                                  long latencyThresholdMillis,
+                                  double decreaseFactor,
+                                  Map<SignatureFormat, Priority> priorities) {
+        if (maxLimit < 1) {
+            throw new IllegalArgumentException("maxLimit en az 1 olmalı: " + maxLimit);
+        }
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException(
+                    "minLimit 1 ile maxLimit (" + maxLimit + ") arasında olmalı: " + minLimit);
+        }
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("queueCapacity negatif olamaz: " + queueCapacity);
+        }
+        if (latencyThresholdMillis <= 0) {
+            throw new IllegalArgumentException(
+                    "latencyThresholdMillis pozitif olmalı: " + latencyThresholdMillis);
+        }
+        if (!(decreaseFactor > 0.0 && decreaseFactor < 1.0)) {
+            throw new IllegalArgumentException("decreaseFactor (0, 1) aralığında olmalı: " + decreaseFactor);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueCapacity = queueCapacity;
+        this.acquireTimeoutNanos = acquireTimeoutMillis > 0
+                ? TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis) : 0L;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+        this.decreaseFactor = decreaseFactor;
+        this.priorities = new EnumMap<SignatureFormat, Priority>(SignatureFormat.class);
+        this.queueFullRejections = new EnumMap<SignatureFormat, AtomicLong>(SignatureFormat.class);
+        this.timeoutRejections = new EnumMap<SignatureFormat, AtomicLong>(SignatureFormat.class);
+        for (SignatureFormat format : SignatureFormat.values()) {
+            Priority priority = priorities != null ? priorities.get(format) : null;
+            this.priorities.put(format, priority != null ? priority : Priority.NORMAL);
+            this.queueFullRejections.put(format, new AtomicLong());
+            this.timeoutRejections.put(format, new AtomicLong());
+        }
+        this.limit = maxLimit;
+        this.lastDecreaseNanos = System.nanoTime();
+    }
+
+    /**
+     * {@code WSSECURITY:HIGH,PADES:LOW} biçimindeki öncelik tanımını çözer.
+     * Boş değer boş map döner.
+     *
+     * @throws IllegalArgumentException bilinmeyen format veya öncelik
+     */
+    public static Map<SignatureFormat, Priority> parsePriorities(String spec) {
+        Map<SignatureFormat, Priority> result = new EnumMap<SignatureFormat, Priority>(SignatureFormat.class);
+        if (spec == null || spec.trim().isEmpty()) {
+            return result;
+        }
+        for (String entry : spec.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Geçersiz öncelik tanımı (FORMAT:ÖNCELİK bekleniyor): " + trimmed);
+            }
+            SignatureFormat format = SignatureFormat.valueOf(
+                    trimmed.substring(0, separator).trim().toUpperCase(Locale.ROOT));
+            Priority priority = Priority.valueOf(
+                    trimmed.substring(separator + 1).trim().toUpperCase(Locale.ROOT));
+            result.put(format, priority);
+        }
+        return result;
+    }
+
+    /**
+     * Formatın önceliğiyle bir permit alır.
+     *
+     * @return permit'in verildiği an (nanoTime); gecikme örneği bu andan ölçülür
+     * @throws SigningCapacityException kuyruk dolu veya bekleme zaman aşımına uğradı
+     * @throws InterruptedException     beklerken thread kesildi
+     */
+    @Override
+    public long acquire(SignatureFormat format) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        lock.lock();
+        try {
+            if (waiters.isEmpty() && inFlight < currentLimit()) {
+                inFlight++;
+                return System.nanoTime();
+            }
+            if (waiters.size() >= queueCapacity) {
+                throw reject(SigningCapacityException.Reason.QUEUE_FULL, format);
+            }
+            Waiter waiter = new Waiter(priorities.get(format), sequence++, lock.newCondition());
+            waiters.add(waiter);
+            try {
+                long remaining = acquireTimeoutNanos;
+                while (!waiter.granted) {
+                    if (acquireTimeoutNanos == 0L) {
+                        waiter.condition.await();
+                        continue;
+                    }
+                    if (remaining <= 0L) {
+                        waiters.remove(waiter);
+                        throw reject(SigningCapacityException.Reason.TIMEOUT, format);
+                    }
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                if (waiter.granted) {
+                    // Permit devredilmiş ama kullanılmayacak; sıradakine aktar.
+                    inFlight--;
+                    dispatch();
+                } else {
+                    waiters.remove(waiter);
+                }
+                throw e;
+            }
+            return System.nanoTime();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Permit'i bırakır, {@code permit} (acquire anı) ile şimdi arasından
+     * gecikme örneği alır ve boşalan kapasiteyi kuyruktaki bekleyenlere
+     * dağıtır.
+     */
+    @Override
+    public void release(long permit) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            if (inFlight == 0) {
+                LOGGER.warn("Alınmamış imza permit'i bırakılmaya çalışıldı; yok sayılıyor");
+                return;
+            }
+            boolean saturated = inFlight >= currentLimit() || !waiters.isEmpty();
+            inFlight--;
+            if (!backendSamples) {
+                recordSample(permit, now, saturated);
+            }
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gecikme örneklerini permit süresinden değil, imza backend'inin HSM
+     * çağrı süresinden alır; bundan sonra {@link #release(long)} örnek
+     * almaz. {@link MicroBatchingSigningBackend} çağıranlar permit'i toplama
+     * penceresinde de tuttuğu için pencere süresi gecikmeye karışmasın diye
+     * bunu açar.
+     */
+    void sampleFromBackend() {
+        lock.lock();
+        try {
+            backendSamples = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Backend'in {@code items} öğelik bir HSM çağrısının süresini öğe başına
+     * bir örnek olarak uygular; artış hızı tekil imzalardaki gibi kalır.
+     */
+    void recordBackendSample(long startNanos, long endNanos, int items) {
+        lock.lock();
+        try {
+            boolean saturated = inFlight >= currentLimit() || !waiters.isEmpty();
+            for (int i = 0; i < items; i++) {
+                recordSample(startNanos, endNanos, saturated);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bir HSM gecikme örneğini AIMD kuralına uygular. {@link #release(long)}
+     * içinden lock tutulurken çağrılır; testler tek thread'den doğrudan
+     * sentetik örnek verir.
+     */
+    void recordSample(long startNanos, long endNanos, boolean saturated) {
+        long latency = endNanos - startNanos;
+        averageLatencyNanos = averageLatencyNanos == 0.0
+                ? latency
+                : averageLatencyNanos * (1.0 - LATENCY_SMOOTHING) + latency * LATENCY_SMOOTHING;
+
+        if (latency > latencyThresholdNanos) {
+            if (startNanos - lastDecreaseNanos > 0L) {
+                double previous = limit;
+                limit = Math.max(minLimit, limit * decreaseFactor);
+                lastDecreaseNanos = endNanos;
+                if ((int) previous != (int) limit) {
+                    LOGGER.info("HSM gecikmesi eşiği aştı ({} ms); imza eş zamanlılık limiti {} -> {}",
+                            TimeUnit.NANOSECONDS.toMillis(latency), (int) previous, (int) limit);
+                }
+            }
+        } else if (saturated && limit < maxLimit) {
+            int previous = (int) limit;
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+            if (previous != (int) limit) {
+                LOGGER.debug("İmza eş zamanlılık limiti artırıldı: {} -> {}", previous, (int) limit);
+            }
+        }
+    }
+
+    /** Boş kapasite kadar bekleyeni öncelik sırasıyla uyandırır. */
+    private void dispatch() {
+        while (!waiters.isEmpty() && inFlight < currentLimit()) {
+            Waiter next = waiters.poll();
+            next.granted = true;
+            inFlight++;
+            next.condition.signal();
+        }
+    }
+
+    private int currentLimit() {
+        return Math.max(minLimit, (int) limit);
+    }
+
+    private SigningCapacityException reject(SigningCapacityException.Reason reason, SignatureFormat format) {
+        if (format != null) {
+            (reason == SigningCapacityException.Reason.QUEUE_FULL ? queueFullRejections : timeoutRejections)
+                    .get(format).incrementAndGet();
+        }
+        long retryAfter = estimateRetryAfterSeconds();
+        String message = reason == SigningCapacityException.Reason.QUEUE_FULL
+                ? "İmza kuyruğu dolu (" + waiters.size() + " bekleyen); " + retryAfter + " sn sonra tekrar deneyin"
+                : "İmza permit'i " + TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos)
+                        + " ms içinde alınamadı; " + retryAfter + " sn sonra tekrar deneyin";
+        LOGGER.warn("İmza isteği reddedildi. Neden: {}, Format: {}, Limit: {}, Aktif: {}, Kuyruk: {}",
+                reason, format, currentLimit(), inFlight, waiters.size());
+        return new SigningCapacityException(reason, retryAfter, message);
+    }
+
+    /** Kuyruğun mevcut limit ve ortalama gecikmeyle boşalma süresi (en az 1 sn). */
+    private long estimateRetryAfterSeconds() {
+        double drainNanos = (waiters.size() + 1) * averageLatencyNanos / currentLimit();
+        return Math.max(1L, (long) Math.ceil(drainNanos / TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    // ---- İstatistikler ----
+
+    /** Güncel eş zamanlılık limiti. */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Şu an HSM çağrısında olan (permit tutan) istek sayısı. */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Kuyrukta bekleyen istek sayısı. */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Ortalama (EWMA) HSM gecikmesi, milisaniye. */
+    public double getAverageLatencyMillis() {
+        lock.lock();
+        try {
+            return averageLatencyNanos / TimeUnit.MILLISECONDS.toNanos(1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Verilen neden ve format için toplam reddetme sayısı. */
+    public long getRejections(SigningCapacityException.Reason reason, SignatureFormat format) {
+        return (reason == SigningCapacityException.Reason.QUEUE_FULL ? queueFullRejections : timeoutRejections)
+                .get(format).get();
+    }
+
+    /** Limit içinde boşta kalan permit sayısı. */
+    public int availablePermits() {
+        lock.lock();
+        try {
+            return Math.max(0, currentLimit() - inFlight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[limit=" + getLimit() + ", inFlight=" + getInFlight()
+                + ", queue=" + getQueueDepth() + "]";
+    }
+
+    private static final class Waiter implements Comparable<Waiter> {
+        private final Priority priority;
+        private final long sequence;
+        private final Condition condition;
+        private boolean granted;
+
+        Waiter(Priority priority, long sequence, Condition condition) {
+            this.priority = priority != null ? priority : Priority.NORMAL;
+            this.sequence = sequence;
+            this.condition = condition;
+        }
+
+        @Override
+        public int compareTo(Waiter other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
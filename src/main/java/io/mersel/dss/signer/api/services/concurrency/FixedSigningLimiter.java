@@ -0,0 +1,50 @@
+package io.mersel.dss.signer.api.services.concurrency;
+
+import java.util.concurrent.Semaphore;
+
+import io.mersel.dss.signer.api.models.enums.SignatureFormat;
+
+/**
+ * Sabit sayıda permit veren {@link SigningLimiter}; {@link Semaphore}'u sarar.
+ *
+ * <p>{@code SIGNING_LIMITER_ENABLED=false} iken kullanılır
+ * ({@code Semaphore(MAX_SESSION_COUNT)}). Format önceliği ve reddetme yoktur;
+ * limit doluyken çağıran süresiz bekler.</p>
+ */
+public final class FixedSigningLimiter implements SigningLimiter {
+
+    private final Semaphore permits;
+
+    public FixedSigningLimiter(int permits) {
+        this(new Semaphore(permits));
+    }
+
+    /** Testler permit sayısını gözlemleyebilsin diye dışarıdan verilen semaphore'u kullanır. */
+    public FixedSigningLimiter(Semaphore permits) {
+        if (permits == null) {
+            throw new IllegalArgumentException("Semaphore null olamaz");
+        }
+        this.permits = permits;
+    }
+
+    @Override
+    public long acquire(SignatureFormat format) throws InterruptedException {
+        permits.acquire();
+        return System.nanoTime();
+    }
+
+    @Override
+    public void release(long permit) {
+        permits.release();
+    }
+
+    /** Boştaki permit sayısı. */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[available=" + availablePermits() + "]";
+    }
+}
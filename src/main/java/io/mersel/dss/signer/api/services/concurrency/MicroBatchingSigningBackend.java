@@ -0,0 +1,361 @@
+package io.mersel.dss.signer.api.services.concurrency;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.SignatureAlgorithm;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.BatchSignResult;
+import io.mersel.dss.signer.api.models.SigningBackend;
+import io.mersel.dss.signer.api.services.metrics.SigningMicroBatchMetrics;
+
+/**
+ * Eş zamanlı tekil imza çağrılarını kısa bir pencerede toplayıp HSM'e toplu
+ * iş olarak gönderen {@link SigningBackend} sarmalayıcısı.
+ *
+ * <p>Her {@link #sign} / {@link #signDigest} çağrısı kuyruğa bir istek bırakır
+ * ve kendi sonucunu bekler. Toplayıcı thread ilk istekten itibaren en fazla
+ * {@code window} kadar bekler ya da {@code maxBatchSize} isteğe ulaşınca
+ * pencereyi erken kapatır. Toplanan istekler mod ve algoritmaya göre gruplanır;
+ * her grup {@link SigningBackend#signBatch} / {@link SigningBackend#signDigestBatch}
+ * ile tek adımda session havuzuna yayılır ve her çağıranın future'ı kendi
+ * {@link BatchSignResult}'ı ile tamamlanır. Çağıranlar için API değişmez.</p>
+ *
+ * <p>Toplu işte başarısız olan öğe tekil yoldan bir kez daha denenir; böylece
+ * çağıran tekil imzanın exception tipini (örn. geçersiz digest için
+ * {@link IllegalArgumentException}) görmeye devam eder. Tek öğelik grup
+ * doğrudan tekil yoldan imzalanır.</p>
+ *
+ * <p>Çağıranlar imza permit'ini ({@code signingLimiter}) zaten tuttuğundan
+ * bir penceredeki istek sayısı permit limitini aşmaz; pencere yalnızca aynı
+ * anda gelen çağrıları tek zamanlama adımında birleştirir. Permit pencere
+ * boyunca da tutulduğu için {@link AdaptiveSigningLimiter} gecikme
+ * örneklerini permit süresinden değil buradaki delegate çağrılarının
+ * süresinden alır; pencere beklemesi AIMD limitini (dolayısıyla toplu iş
+ * boyutunu) düşürmez.</p>
+ */
+public final class MicroBatchingSigningBackend implements SigningBackend {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MicroBatchingSigningBackend.class);
+
+    /** Toplayıcının kapanma bayrağını kontrol etme aralığı. */
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final SigningBackend delegate;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final AdaptiveSigningLimiter limiter;
+    private final SigningMicroBatchMetrics metrics;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<Request>();
+    private final ExecutorService dispatchers;
+    private final Thread collector;
+    private volatile boolean running = true;
+
+    /**
+     * @param delegate      asıl imzalama backend'i
+     * @param windowMicros  ilk istekten itibaren toplama penceresi (µs, &gt;= 0)
+     * @param maxBatchSize  pencereyi erken kapatan öğe sayısı (&gt;= 1)
+     * @param dispatcherThreads aynı anda çalışabilecek toplu iş sayısı
+     *                      (&gt;= 1; genellikle {@code MAX_SESSION_COUNT})
+     * @param limiter       gecikme örneklerini delegate çağrılarından alacak
+     *                      limiter; {@code null} → örnek verilmez (sabit limiter)
+     * @param metrics       toplu iş metrikleri; {@code null} → metrik yok
+     */
+    public MicroBatchingSigningBackend(SigningBackend delegate,
+                                       long windowMicros,
+                                       int maxBatchSize,
+                                       int dispatcherThreads,
+                                       AdaptiveSigningLimiter limiter,
+                                       SigningMicroBatchMetrics metrics) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("MicroBatchingSigningBackend: delegate null olamaz");
+        }
+        if (windowMicros < 0) {
+            throw new IllegalArgumentException("windowMicros negatif olamaz: " + windowMicros);
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize en az 1 olmalı: " + maxBatchSize);
+        }
+        if (dispatcherThreads < 1) {
+            throw new IllegalArgumentException("dispatcherThreads en az 1 olmalı: " + dispatcherThreads);
+        }
+        this.delegate = delegate;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.maxBatchSize = maxBatchSize;
+        this.limiter = limiter;
+        this.metrics = metrics;
+        if (limiter != null) {
+            limiter.sampleFromBackend();
+        }
+
+        AtomicInteger seq = new AtomicInteger();
+        // Session havuzundan fazla eş zamanlı toplu iş HSM'de yalnızca sıra
+        // bekler; fazla gruplar havuz kuyruğunda bekler.
+        this.dispatchers = Executors.newFixedThreadPool(dispatcherThreads, r -> {
+            Thread t = new Thread(r, "sign-microbatch-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.collector = new Thread(this::collectLoop, "sign-microbatch-collector");
+        this.collector.setDaemon(true);
+        this.collector.start();
+        LOGGER.info("İmza mikro-toplu dispatcher'ı etkin. Backend: {}, pencere: {} µs, azami öğe: {}, "
+                + "dispatcher: {}", delegate.getName(), windowMicros, maxBatchSize, dispatcherThreads);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public boolean isPkcs11() {
+        return delegate.isPkcs11();
+    }
+
+    @Override
+    public byte[] sign(byte[] dataToSign, SignatureAlgorithm signatureAlgorithm) {
+        return submit(new Request(dataToSign, signatureAlgorithm, false));
+    }
+
+    @Override
+    public byte[] signDigest(byte[] digest, DigestAlgorithm digestAlgorithm) {
+        return submit(new Request(digest, digestAlgorithm, true));
+    }
+
+    /**
+     * Zaten toplu olan çağrılar pencereyi beklemeden doğrudan iletilir.
+     * Bu çağrılar imza permit'i tutmaz (ör. {@code /v1/hashsign/batch});
+     * süreleri binlerce öğenin toplamı olduğundan limiter'a örnek verilmez.
+     */
+    @Override
+    public List<BatchSignResult> signBatch(List<byte[]> dataToSign, SignatureAlgorithm signatureAlgorithm) {
+        return delegate.signBatch(dataToSign, signatureAlgorithm);
+    }
+
+    @Override
+    public List<BatchSignResult> signDigestBatch(List<byte[]> digests, DigestAlgorithm digestAlgorithm) {
+        return delegate.signDigestBatch(digests, digestAlgorithm);
+    }
+
+    public SigningBackend getDelegate() {
+        return delegate;
+    }
+
+    public long getWindowMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(windowNanos);
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Toplayıcıyı durdurur; kuyrukta kalan istekler son bir toplu işte
+     * gönderilir. Sonraki çağrılar doğrudan delegate'e gider.
+     */
+    public void shutdown() {
+        running = false;
+        collector.interrupt();
+        try {
+            collector.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dispatchers.shutdown();
+    }
+
+    private byte[] submit(Request request) {
+        if (!running || request.algorithm == null) {
+            // Algoritmasız çağrıyı delegate kendi hatasıyla reddeder.
+            return signSingle(request);
+        }
+        queue.add(request);
+        if (!running && queue.remove(request)) {
+            // shutdown ile yarıştık; toplayıcı bu isteği görmeyecek.
+            return signSingle(request);
+        }
+        try {
+            return request.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SignatureException("İmza sonucu beklenirken kesildi", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SignatureException("Mikro-toplu imza başarısız", cause);
+        }
+    }
+
+    private void collectLoop() {
+        List<Request> window = new ArrayList<Request>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Request first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                window.add(first);
+                long deadline = first.enqueuedAt + windowNanos;
+                while (window.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Request next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    window.add(next);
+                }
+            } catch (InterruptedException e) {
+                // shutdown; toplanmış ve kuyrukta kalan istekler aşağıda gönderilir.
+                queue.drainTo(window);
+            }
+            if (!window.isEmpty()) {
+                dispatch(window);
+                window = new ArrayList<Request>(maxBatchSize);
+            }
+        }
+    }
+
+    private void dispatch(List<Request> window) {
+        long now = System.nanoTime();
+        Map<Enum<?>, List<Request>> groups = new LinkedHashMap<Enum<?>, List<Request>>();
+        for (Request request : window) {
+            if (metrics != null) {
+                metrics.recordWindowWait(now - request.enqueuedAt);
+            }
+            List<Request> group = groups.get(request.algorithm);
+            if (group == null) {
+                group = new ArrayList<Request>();
+                groups.put(request.algorithm, group);
+            }
+            group.add(request);
+        }
+        for (List<Request> group : groups.values()) {
+            try {
+                dispatchers.execute(() -> signGroup(group));
+            } catch (RejectedExecutionException e) {
+                // Kapanış sırasında havuz reddederse toplayıcı thread imzalar.
+                signGroup(group);
+            }
+        }
+    }
+
+    private void signGroup(List<Request> group) {
+        if (metrics != null) {
+            metrics.recordBatch(group.size());
+        }
+        if (group.size() == 1) {
+            completeSingle(group.get(0));
+            return;
+        }
+
+        Request head = group.get(0);
+        List<byte[]> items = new ArrayList<byte[]>(group.size());
+        for (Request request : group) {
+            items.add(request.payload);
+        }
+        List<BatchSignResult> results;
+        long start = System.nanoTime();
+        try {
+            results = head.digestMode
+                    ? delegate.signDigestBatch(items, (DigestAlgorithm) head.algorithm)
+                    : delegate.signBatch(items, (SignatureAlgorithm) head.algorithm);
+        } catch (RuntimeException | Error e) {
+            for (Request request : group) {
+                request.future.completeExceptionally(e);
+            }
+            return;
+        } finally {
+            sample(start, items.size());
+        }
+        if (results == null || results.size() != group.size()) {
+            SignatureException mismatch = new SignatureException("Toplu imza sonuç sayısı uyuşmuyor: beklenen "
+                    + group.size() + ", gelen " + (results == null ? 0 : results.size()));
+            for (Request request : group) {
+                request.future.completeExceptionally(mismatch);
+            }
+            return;
+        }
+        for (int i = 0; i < group.size(); i++) {
+            BatchSignResult result = results.get(i);
+            Request request = group.get(i);
+            if (result.isSuccess()) {
+                request.future.complete(result.getSignature());
+            } else {
+                LOGGER.debug("Mikro-toplu öğe başarısız, tekil yoldan yeniden deneniyor: {}",
+                        result.getErrorMessage());
+                if (metrics != null) {
+                    metrics.recordItemRetry();
+                }
+                completeSingle(request);
+            }
+        }
+    }
+
+    private byte[] signSingle(Request request) {
+        long start = System.nanoTime();
+        try {
+            return request.signSingle(delegate);
+        } finally {
+            sample(start, 1);
+        }
+    }
+
+    private void completeSingle(Request request) {
+        try {
+            request.future.complete(signSingle(request));
+        } catch (RuntimeException | Error e) {
+            request.future.completeExceptionally(e);
+        }
+    }
+
+    /** Delegate çağrısının süresini limiter'a gecikme örneği olarak verir. */
+    private void sample(long startNanos, int items) {
+        if (limiter != null) {
+            limiter.recordBackendSample(startNanos, System.nanoTime(), items);
+        }
+    }
+
+    /** Kuyruktaki tek imza çağrısı. */
+    private static final class Request {
+        final byte[] payload;
+        final Enum<?> algorithm;
+        final boolean digestMode;
+        final long enqueuedAt = System.nanoTime();
+        final CompletableFuture<byte[]> future = new CompletableFuture<byte[]>();
+
+        Request(byte[] payload, Enum<?> algorithm, boolean digestMode) {
+            this.payload = payload;
+            this.algorithm = algorithm;
+            this.digestMode = digestMode;
+        }
+
+        byte[] signSingle(SigningBackend backend) {
+            return digestMode
+                    ? backend.signDigest(payload, (DigestAlgorithm) algorithm)
+                    : backend.sign(payload, (SignatureAlgorithm) algorithm);
+        }
+    }
+}
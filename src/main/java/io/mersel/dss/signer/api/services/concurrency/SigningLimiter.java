@@ -0,0 +1,46 @@
+package io.mersel.dss.signer.api.services.concurrency;
+
+import io.mersel.dss.signer.api.exceptions.SigningCapacityException;
+import io.mersel.dss.signer.api.models.enums.SignatureFormat;
+
+/**
+ * HSM imza çağrısı etrafında tutulan eş zamanlılık permit'i.
+ *
+ * <p>İmza servisleri permit'i yalnızca {@code SigningMaterial#sign} çağrısı
+ * süresince tutar:</p>
+ * <pre>{@code
+ * long permit = signingLimiter.acquire(SignatureFormat.XADES);
+ * try {
+ *     ... HSM imzası ...
+ * } finally {
+ *     signingLimiter.release(permit);
+ * }
+ * }</pre>
+ *
+ * <p>{@link #acquire} permit'in verildiği anı ({@link System#nanoTime()})
+ * döner; {@link #release} bu değerle çağrılır. Permit'i bırakan thread
+ * alan thread'den farklı olabilir — gecikme ölçümü thread'e bağlı değildir.</p>
+ *
+ * <p>Uygulamalar: sabit {@link FixedSigningLimiter} ve gecikmeye göre
+ * limitini ayarlayan {@link AdaptiveSigningLimiter}
+ * ({@code SIGNING_LIMITER_ENABLED}).</p>
+ */
+public interface SigningLimiter {
+
+    /**
+     * Formatın önceliğiyle bir permit alır; kapasite yoksa bekler.
+     *
+     * @param format kuyruk önceliği ve metrik etiketi; {@code null} → varsayılan öncelik
+     * @return permit'in verildiği an (nanoTime); {@link #release(long)}'e verilir
+     * @throws SigningCapacityException uygulama bekleyeni reddettiyse (kuyruk dolu, zaman aşımı)
+     * @throws InterruptedException     beklerken thread kesildi
+     */
+    long acquire(SignatureFormat format) throws InterruptedException;
+
+    /**
+     * {@link #acquire} ile alınan permit'i bırakır.
+     *
+     * @param permit {@link #acquire}'ın döndürdüğü değer
+     */
+    void release(long permit);
+}
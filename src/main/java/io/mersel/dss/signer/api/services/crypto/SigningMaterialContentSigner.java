@@ -4,9 +4,12 @@ import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.enumerations.EncryptionAlgorithm;
 import eu.europa.esig.dss.enumerations.SignatureAlgorithm;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.SignatureFormat;
+import io.mersel.dss.signer.api.services.concurrency.SigningLimiter;
 import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
 import org.bouncycastle.operator.ContentSigner;
 import org.bouncycastle.operator.DefaultSignatureAlgorithmIdentifierFinder;
+import org.bouncycastle.operator.RuntimeOperatorException;
 
 import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
@@ -18,6 +21,11 @@ import java.io.OutputStream;
  * <p>PAdES gibi CMS tabanlı akışlar BC {@code ContentSigner} ister. Bu adaptör,
  * PFX ve PKCS#11 ayrımını belge formatı servisinin içine taşımadan
  * {@link SigningMaterial} üzerindeki ortak imzalama kontratına bağlar.</p>
+ *
+ * <p>Limiter verilirse permit yalnızca {@link #getSignature()} içindeki
+ * {@link SigningMaterial#sign} çağrısı süresince tutulur. BouncyCastle içerik
+ * digest'ini ve signed attribute'ları bu çağrıdan önce, CMS kodlamasını
+ * sonra yapar; bu işler HSM session'ı beklemeden paralel yürür.</p>
  */
 public final class SigningMaterialContentSigner implements ContentSigner {
 
@@ -28,8 +36,21 @@ public final class SigningMaterialContentSigner implements ContentSigner {
     private final SignatureAlgorithm signatureAlgorithm;
     private final AlgorithmIdentifier algorithmIdentifier;
     private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+    private final SigningLimiter signingLimiter;
+    private final SignatureFormat format;
 
     public SigningMaterialContentSigner(SigningMaterial material, DigestAlgorithm digestAlgorithm) {
+        this(material, digestAlgorithm, null, null);
+    }
+
+    /**
+     * @param signingLimiter imza çağrısı süresince permit veren limiter; {@code null} → sınırsız
+     * @param format         permit kuyruğundaki öncelik ve metrik etiketi için belge formatı
+     */
+    public SigningMaterialContentSigner(SigningMaterial material,
+                                        DigestAlgorithm digestAlgorithm,
+                                        SigningLimiter signingLimiter,
+                                        SignatureFormat format) {
         if (material == null) {
             throw new IllegalArgumentException("SigningMaterial null olamaz");
         }
@@ -42,6 +63,8 @@ public final class SigningMaterialContentSigner implements ContentSigner {
                 "DSS SignatureAlgorithm bulunamadı: enc=" + encryption + ", digest=" + digestAlgorithm);
         }
         this.algorithmIdentifier = SIG_ALG_FINDER.find(signatureAlgorithm.getJCEId());
+        this.signingLimiter = signingLimiter;
+        this.format = format;
     }
 
     @Override
@@ -56,6 +79,21 @@ public final class SigningMaterialContentSigner implements ContentSigner {
 
     @Override
     public byte[] getSignature() {
-        return material.sign(buffer.toByteArray(), signatureAlgorithm);
+        byte[] signedAttributes = buffer.toByteArray();
+        if (signingLimiter == null) {
+            return material.sign(signedAttributes, signatureAlgorithm);
+        }
+        long permit;
+        try {
+            permit = signingLimiter.acquire(format);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeOperatorException("İmza permit'i beklenirken kesildi", e);
+        }
+        try {
+            return material.sign(signedAttributes, signatureAlgorithm);
+        } finally {
+            signingLimiter.release(permit);
+        }
     }
 }
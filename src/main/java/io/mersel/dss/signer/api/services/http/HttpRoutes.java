@@ -0,0 +1,36 @@
+package io.mersel.dss.signer.api.services.http;
+
+import org.apache.hc.client5.http.classic.methods.HttpUriRequest;
+
+import java.net.URI;
+import java.util.Locale;
+
+/**
+ * Host başına bağlantı havuzu tutan data loader'ların ortak anahtar ve
+ * etiket yardımcıları.
+ */
+public final class HttpRoutes {
+
+    private HttpRoutes() {
+    }
+
+    /**
+     * Havuz anahtarı: scheme + host + port. Kimlik bilgileri URL'nin
+     * host'una göre bağlandığı için yol (path) anahtara girmez.
+     */
+    public static String routeKey(String url) {
+        URI uri = URI.create(url.trim());
+        String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : "http";
+        int port = uri.getPort() >= 0 ? uri.getPort() : ("https".equals(scheme) ? 443 : 80);
+        return scheme + "://" + uri.getHost() + ":" + port;
+    }
+
+    /** Metrik etiketi için isteğin host'u; çözülemezse {@code null}. */
+    public static String hostOf(HttpUriRequest request) {
+        try {
+            return request.getUri().getHost();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
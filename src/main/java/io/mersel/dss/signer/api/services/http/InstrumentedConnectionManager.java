@@ -0,0 +1,159 @@
+package io.mersel.dss.signer.api.services.http;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongConsumer;
+
+/**
+ * Havuzdan bağlantı alma ({@code LeaseRequest#get}) süresini ölçen
+ * sarmalayıcı. {@link ConnPoolControl}'ü de uyguladığı için
+ * {@code HttpClientBuilder} boştaki bağlantı temizleyicisini kurabilir.
+ */
+public final class InstrumentedConnectionManager
+        implements HttpClientConnectionManager, ConnPoolControl<HttpRoute> {
+
+    private final HttpClientConnectionManager delegate;
+    private final ConnPoolControl<HttpRoute> pool;
+    private final LongConsumer leaseRecorder;
+
+    private InstrumentedConnectionManager(HttpClientConnectionManager delegate,
+                                          ConnPoolControl<HttpRoute> pool,
+                                          LongConsumer leaseRecorder) {
+        this.delegate = delegate;
+        this.pool = pool;
+        this.leaseRecorder = leaseRecorder;
+    }
+
+    /**
+     * Havuzu sarmalar. Havuz {@link ConnPoolControl} değilse veya kaydedici
+     * yoksa aynı havuz döner.
+     *
+     * @param manager       DSS'in kurduğu bağlantı havuzu
+     * @param leaseRecorder lease süresini (ns) alan kaydedici; {@code null} → ölçüm yok
+     */
+    public static HttpClientConnectionManager wrap(HttpClientConnectionManager manager,
+                                                   LongConsumer leaseRecorder) {
+        if (leaseRecorder == null || !(manager instanceof ConnPoolControl)) {
+            return manager;
+        }
+        @SuppressWarnings("unchecked")
+        ConnPoolControl<HttpRoute> pool = (ConnPoolControl<HttpRoute>) manager;
+        return new InstrumentedConnectionManager(manager, pool, leaseRecorder);
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        long start = System.nanoTime();
+        LeaseRequest lease = delegate.lease(id, route, requestTimeout, state);
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout)
+                    throws InterruptedException, ExecutionException, TimeoutException {
+                try {
+                    return lease.get(timeout);
+                } finally {
+                    leaseRecorder.accept(System.nanoTime() - start);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return lease.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void release(ConnectionEndpoint endpoint, Object newState, TimeValue validDuration) {
+        delegate.release(endpoint, newState, validDuration);
+    }
+
+    @Override
+    public void connect(ConnectionEndpoint endpoint, TimeValue connectTimeout, HttpContext context)
+            throws IOException {
+        delegate.connect(endpoint, connectTimeout, context);
+    }
+
+    @Override
+    public void upgrade(ConnectionEndpoint endpoint, HttpContext context) throws IOException {
+        delegate.upgrade(endpoint, context);
+    }
+
+    @Override
+    public void close(CloseMode closeMode) {
+        delegate.close(closeMode);
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    @Override
+    public void setMaxTotal(int max) {
+        pool.setMaxTotal(max);
+    }
+
+    @Override
+    public int getMaxTotal() {
+        return pool.getMaxTotal();
+    }
+
+    @Override
+    public void setDefaultMaxPerRoute(int max) {
+        pool.setDefaultMaxPerRoute(max);
+    }
+
+    @Override
+    public int getDefaultMaxPerRoute() {
+        return pool.getDefaultMaxPerRoute();
+    }
+
+    @Override
+    public void setMaxPerRoute(HttpRoute route, int max) {
+        pool.setMaxPerRoute(route, max);
+    }
+
+    @Override
+    public int getMaxPerRoute(HttpRoute route) {
+        return pool.getMaxPerRoute(route);
+    }
+
+    @Override
+    public void closeIdle(TimeValue idleTime) {
+        pool.closeIdle(idleTime);
+    }
+
+    @Override
+    public void closeExpired() {
+        pool.closeExpired();
+    }
+
+    @Override
+    public Set<HttpRoute> getRoutes() {
+        return pool.getRoutes();
+    }
+
+    @Override
+    public PoolStats getTotalStats() {
+        return pool.getTotalStats();
+    }
+
+    @Override
+    public PoolStats getStats(HttpRoute route) {
+        return pool.getStats(route);
+    }
+}
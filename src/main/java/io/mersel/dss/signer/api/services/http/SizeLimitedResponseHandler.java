@@ -0,0 +1,70 @@
+package io.mersel.dss.signer.api.services.http;
+
+import eu.europa.esig.dss.service.http.commons.CommonsHttpClientResponseHandler;
+import org.apache.hc.core5.http.HttpEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Yanıt gövdesini en fazla {@code maxBytes} bayt okuyan DSS yanıt işleyicisi.
+ *
+ * <p>DSS'in varsayılan işleyicisi gövdenin tamamını belleğe alır; bozuk veya
+ * kötü niyetli bir sunucu heap'i doldurabilir. {@code Content-Length}
+ * sınırı aşıyorsa gövde hiç okunmaz; başlık yoksa (chunked) okuma sınır
+ * aşıldığı anda kesilir. Her iki durumda da {@link ResponseTooLargeException}
+ * atılır ve bağlantı havuza iade edilmez.</p>
+ */
+public class SizeLimitedResponseHandler extends CommonsHttpClientResponseHandler {
+
+    private final long maxBytes;
+
+    /**
+     * @param maxBytes kabul edilen azami gövde boyutu; {@code <=0} → sınırsız
+     */
+    public SizeLimitedResponseHandler(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    protected byte[] getContent(HttpEntity entity) throws IOException {
+        if (maxBytes <= 0) {
+            return super.getContent(entity);
+        }
+        if (entity.getContentLength() > maxBytes) {
+            throw new ResponseTooLargeException(entity.getContentLength(), maxBytes);
+        }
+        try (InputStream in = entity.getContent()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(
+                    (int) Math.min(Math.max(entity.getContentLength(), 1024), maxBytes));
+            byte[] buffer = new byte[8192];
+            long total = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+                if (total > maxBytes) {
+                    throw new ResponseTooLargeException(-1, maxBytes);
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /** Yanıt gövdesi boyut sınırını aştı. */
+    public static class ResponseTooLargeException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        ResponseTooLargeException(long contentLength, long maxBytes) {
+            super(contentLength >= 0
+                    ? "Yanıt boyutu sınırı aşıyor: " + contentLength + " > " + maxBytes + " bayt"
+                    : "Yanıt boyutu sınırı aşıyor: > " + maxBytes + " bayt");
+        }
+    }
+}
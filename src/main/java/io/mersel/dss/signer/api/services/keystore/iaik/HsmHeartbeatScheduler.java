@@ -83,7 +83,7 @@ import java.util.concurrent.atomic.AtomicLong;
  *
  * <h2>Concurrency</h2>
  * <p>{@code @Scheduled} fixedDelay kullanır: önceki heartbeat tamamlanmadan
- * yeni iteration başlamaz. Heartbeat üst seviye {@code signatureSemaphore}
+ * yeni iteration başlamaz. Heartbeat üst seviye {@code signingLimiter}
  * permit tüketmez. Reinit'in {@link IaikPkcs11Module} tarafındaki
  * {@code reinitLock} üstünde sign çağrılarıyla yarış senaryosu için
  * bkz. {@link IaikPkcs11Module#reinitializeForSmsRecovery}.</p>
@@ -5,6 +5,7 @@ import eu.europa.esig.dss.enumerations.EncryptionAlgorithm;
 import eu.europa.esig.dss.enumerations.SignatureAlgorithm;
 import io.mersel.dss.signer.api.dtos.CertificateInfoDto;
 import io.mersel.dss.signer.api.exceptions.KeyStoreException;
+import io.mersel.dss.signer.api.models.BatchSignResult;
 import io.mersel.dss.signer.api.services.X509ExtensionInspector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +38,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
  * xipki/ipkcs11wrapper (IAIK PKCS#11 Wrapper 1.6.8 kod tabanı) üzerinden HSM
@@ -69,7 +77,7 @@ import java.util.concurrent.ConcurrentHashMap;
  * ({@code MAX_SESSION_COUNT}) ve iki katmana aynı değer beslenir:</p>
  * <ol>
  *   <li><b>Spring semaphore</b> — uygulama-seviyesi soft cap.
- *       {@link io.mersel.dss.signer.api.config.SignatureConfiguration#signatureSemaphore()}.
+ *       {@link io.mersel.dss.signer.api.config.SignatureConfiguration#signingLimiter()}.
  *       Pipeline'a giriş bileti; PFX ve HSM yollarının ikisinde de geçerli.</li>
  *   <li><b>PKCS11Token internal pool</b> — wrapper-seviyesi hard cap. Ctor'un
  *       {@code numSessions} parametresinden okur. {@code null} verilirse
@@ -194,6 +202,15 @@ public class IaikPkcs11Module implements InitializingBean, DisposableBean, Pkcs1
      */
     private final Map<String, ResolvedKey> resolvedKeyCache = new ConcurrentHashMap<>();
 
+    /**
+     * {@link #signBatchOnSessions} yardımcı worker'ları; ilk toplu imzada
+     * tembel oluşturulur, {@link #destroy()} ile kapatılır.
+     */
+    private ThreadPoolExecutor batchExecutor;
+
+    /** {@code sessionPoolSize} verilmediğinde (wrapper default havuzu) toplu imza paralelliği. */
+    private static final int DEFAULT_BATCH_PARALLELISM = 8;
+
     /**
      * Geriye uyumlu kısa ctor: {@code forceNullInitArgs=false} ve
      * {@code sessionPoolSize=0} (wrapper default cap=32). Testler ve
@@ -366,6 +383,10 @@ public class IaikPkcs11Module implements InitializingBean, DisposableBean, Pkcs1
                 if (pin != null) {
                     Arrays.fill(pin, '\0');
                 }
+                if (batchExecutor != null) {
+                    batchExecutor.shutdownNow();
+                    batchExecutor = null;
+                }
                 resolvedKeyCache.clear();
                 LOGGER.info("ipkcs11wrapper modülü kapatıldı.");
             } catch (Exception e) {
@@ -393,7 +414,7 @@ public class IaikPkcs11Module implements InitializingBean, DisposableBean, Pkcs1
      *
      * <h2>Thread-safety / in-flight sign çağrıları</h2>
      * <p>Reinit anında başka thread'ler {@code token.sign(...)} ortasında
-     * olabilir. Onları durdurmuyoruz — drain {@code signatureSemaphore}
+     * olabilir. Onları durdurmuyoruz — drain {@code signingLimiter}
      * üzerinde uzun bir pencere açar ve customer p99 latency'yi şişirir.
      * Yerine: stale token/module referansları üstünde patlayan in-flight
      * sign'lar {@link #signOnSession(ResolvedKey, byte[], SignatureAlgorithm)}
@@ -632,7 +653,7 @@ public class IaikPkcs11Module implements InitializingBean, DisposableBean, Pkcs1
      *
      * <p>PKCS11Token kendi içinde thread-safe oturum havuzu yönettiği için
      * bu metoda eş zamanlı çağrı sağlanır; üst sınır
-     * {@code signatureSemaphore} ile kontrol edilir.</p>
+     * {@code signingLimiter} ile kontrol edilir.</p>
      */
     /**
      * Heartbeat amaçlı tek-shot imza. SafeNet HSM ailesinde idle kalan
@@ -750,6 +771,86 @@ public class IaikPkcs11Module implements InitializingBean, DisposableBean, Pkcs1
         }
     }
 
+    /**
+     * Toplu imza fan-out'u: öğeleri {@link PKCS11Token} session havuzuna yayar.
+     *
+     * <p>{@code min(batchParallelism, n)} işçi ortak bir indeks sayacından öğe
+     * çeker; çağıran thread de işçilerden biridir, böylece yardımcı worker'lar
+     * başka toplu çağrılar yüzünden meşgul olsa bile toplu iş ilerler. Her
+     * öğe kendi {@code signOne} çağrısında (L2 SMS recovery dahil) imzalanır;
+     * exception o öğenin {@link BatchSignResult}'ına yazılır. Sonuçlar girdi
+     * sırasıyla döner.</p>
+     *
+     * <p>Gerçek eşzamanlılık tavanı yine {@link PKCS11Token}'ın session
+     * havuzudur; AKİS ({@link #singleThreadedMode}) yolunda toplu imza
+     * sıralıdır.</p>
+     */
+    List<BatchSignResult> signBatchOnSessions(List<byte[]> items, Function<byte[], byte[]> signOne) {
+        int n = items.size();
+        BatchSignResult[] results = new BatchSignResult[n];
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            int i;
+            while ((i = next.getAndIncrement()) < n) {
+                try {
+                    results[i] = BatchSignResult.success(signOne.apply(items.get(i)));
+                } catch (RuntimeException e) {
+                    results[i] = BatchSignResult.failure(e);
+                }
+            }
+        };
+
+        int helpers = Math.min(batchParallelism(), n) - 1;
+        List<Future<?>> futures = new ArrayList<>(Math.max(0, helpers));
+        if (helpers > 0) {
+            ThreadPoolExecutor executor = batchExecutor();
+            for (int h = 0; h < helpers; h++) {
+                futures.add(executor.submit(worker));
+            }
+        }
+        worker.run();
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new io.mersel.dss.signer.api.exceptions.SignatureException(
+                    "Toplu imza beklenirken kesildi", e);
+            } catch (ExecutionException e) {
+                // worker exception'ları öğe sonucuna yazar; buraya düşmez.
+                throw new io.mersel.dss.signer.api.exceptions.SignatureException(
+                    "Toplu imza worker'ı beklenmedik şekilde sonlandı", e.getCause());
+            }
+        }
+        LOGGER.debug("Toplu imza tamamlandı: öğe={}, paralellik={}", n, helpers + 1);
+        return Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    /** Toplu imzada aynı anda kullanılacak session sayısı. */
+    int batchParallelism() {
+        if (singleThreadedMode) {
+            return 1;
+        }
+        return sessionPoolSize > 0 ? sessionPoolSize : DEFAULT_BATCH_PARALLELISM;
+    }
+
+    private synchronized ThreadPoolExecutor batchExecutor() {
+        if (batchExecutor == null) {
+            int threads = Math.max(1, batchParallelism() - 1);
+            AtomicInteger seq = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "pkcs11-batch-sign-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+            executor.allowCoreThreadTimeOut(true);
+            batchExecutor = executor;
+        }
+        return batchExecutor;
+    }
+
     /**
      * {@link io.mersel.dss.signer.api.exceptions.SignatureException} sarıcısının
      * altındaki PKCS11Exception'a bakıp SMS-aile error code'unu çıkarır;
@@ -3,6 +3,7 @@ package io.mersel.dss.signer.api.services.keystore.iaik;
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.enumerations.EncryptionAlgorithm;
 import eu.europa.esig.dss.enumerations.SignatureAlgorithm;
+import io.mersel.dss.signer.api.models.BatchSignResult;
 
 import java.security.cert.X509Certificate;
 import java.util.List;
@@ -65,6 +66,21 @@ final class IaikPkcs11Signer implements Pkcs11Signer {
         return module.signOnSessionRawDigest(resolvedKey, digest, digestAlgorithm, enc);
     }
 
+    /**
+     * Toplu imza — öğeler {@link IaikPkcs11Module#signBatchOnSessions} ile
+     * session havuzuna yayılır; her öğe {@link #sign} ile aynı yoldan (L2 SMS
+     * recovery dahil) geçer.
+     */
+    @Override
+    public List<BatchSignResult> signBatch(List<byte[]> dataToSign, SignatureAlgorithm signatureAlgorithm) {
+        return module.signBatchOnSessions(dataToSign, d -> sign(d, signatureAlgorithm));
+    }
+
+    @Override
+    public List<BatchSignResult> signDigestBatch(List<byte[]> digests, DigestAlgorithm digestAlgorithm) {
+        return module.signBatchOnSessions(digests, d -> signDigest(d, digestAlgorithm));
+    }
+
     /**
      * HSM heartbeat scheduler için package-private erişim. Heartbeat L1
      * yolu üzerinden Cryptoki reinit'i bağımsız tetikler ve reinit sonrası
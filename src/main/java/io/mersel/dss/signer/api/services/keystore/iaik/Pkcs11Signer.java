@@ -2,6 +2,7 @@ package io.mersel.dss.signer.api.services.keystore.iaik;
 
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.enumerations.SignatureAlgorithm;
+import io.mersel.dss.signer.api.models.BatchSignResult;
 
 import java.security.cert.X509Certificate;
 import java.util.List;
@@ -61,4 +62,26 @@ public interface Pkcs11Signer {
      * @return JCA uyumlu imza byte'ları
      */
     byte[] signDigest(byte[] digest, DigestAlgorithm digestAlgorithm);
+
+    /**
+     * Aynı anahtarla çok sayıda ham veriyi imzalar ({@link #sign} semantiği).
+     * Sonuç listesi girdiyle <b>aynı sıradadır</b>; her öğenin hatası kendi
+     * {@link BatchSignResult}'ına yazılır, diğer öğeleri etkilemez.
+     *
+     * <p>Default implementasyon öğeleri sırayla {@link #sign} ile imzalar.
+     * {@link IaikPkcs11Module} toplu çağrıyı session havuzuna yayar; köprü
+     * ({@code RemotePkcs11Signer}) tüm toplu çağrıyı tek
+     * {@code OP_SIGN_BATCH} frame'inde taşır.</p>
+     */
+    default List<BatchSignResult> signBatch(List<byte[]> dataToSign, SignatureAlgorithm signatureAlgorithm) {
+        return BatchSignResult.sequential(dataToSign, d -> sign(d, signatureAlgorithm));
+    }
+
+    /**
+     * {@link #signBatch}'in pre-hashed digest karşılığı ({@link #signDigest}
+     * semantiği); sıra ve öğe-bazlı hata sözleşmesi aynıdır.
+     */
+    default List<BatchSignResult> signDigestBatch(List<byte[]> digests, DigestAlgorithm digestAlgorithm) {
+        return BatchSignResult.sequential(digests, d -> signDigest(d, digestAlgorithm));
+    }
 }
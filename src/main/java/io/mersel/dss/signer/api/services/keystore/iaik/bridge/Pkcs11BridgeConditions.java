@@ -31,6 +31,14 @@ public final class Pkcs11BridgeConditions {
         }
     }
 
+    /** PKCS#11 yolu (in-process veya helper) kullanılacaksa aktif; PFX yolunda pasif. */
+    public static final class Enabled implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return strategy(context) != Pkcs11BridgeDecision.Strategy.NONE;
+        }
+    }
+
     /** DLL ayrı bit'likteki helper process'te yüklenecekse aktif. */
     public static final class Remote implements Condition {
         @Override
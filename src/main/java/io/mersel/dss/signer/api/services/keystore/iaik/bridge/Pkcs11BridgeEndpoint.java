@@ -57,6 +57,7 @@ public class Pkcs11BridgeEndpoint {
         out.put("helperPort", module.getHelperPort());
         out.put("successfulOperations", module.getSuccessfulOperationCount());
         out.put("ipcHealthyFlag", module.isIpcHealthy());
+        out.put("connectionPool", poolDetails(module.getConnectionPool()));
 
         // Aktif IPC probe (helper sadece ayakta değil, yanıt veriyor mu).
         Map<String, Object> ipc = new LinkedHashMap<>();
@@ -81,6 +82,23 @@ public class Pkcs11BridgeEndpoint {
         return out;
     }
 
+    private static Map<String, Object> poolDetails(Pkcs11ConnectionPool pool) {
+        Map<String, Object> p = new LinkedHashMap<>();
+        p.put("maxSize", pool.getMaxSize());
+        p.put("open", pool.getOpenConnections());
+        p.put("idle", pool.getIdleConnections());
+        p.put("leased", pool.getLeasedConnections());
+        p.put("pipelined", pool.isPipelined());
+        p.put("pipelinedConnections", pool.getPipelinedConnections());
+        p.put("hits", pool.getHits());
+        p.put("misses", pool.getMisses());
+        p.put("reconnects", pool.getReconnects());
+        p.put("evictions", pool.getEvictions());
+        p.put("waitCount", pool.getWaitCount());
+        p.put("waitTotalMs", pool.getWaitNanos() / 1_000_000L);
+        return p;
+    }
+
     private Map<String, Object> heartbeatDetails(boolean helperAlive) {
         Map<String, Object> hb = new LinkedHashMap<>();
         if (!helperAlive) {
@@ -1,6 +1,7 @@
 package io.mersel.dss.signer.api.services.keystore.iaik.bridge;
 
 import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
@@ -9,6 +10,8 @@ import org.springframework.context.annotation.Conditional;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
 import java.util.function.ToLongFunction;
 
 /**
@@ -26,6 +29,14 @@ import java.util.function.ToLongFunction;
  *   <li>{@code pkcs11_bridge_heartbeat_consecutive_failures} — ardışık başarısızlık</li>
  *   <li>{@code pkcs11_bridge_heartbeat_reinit_attempts} / {@code _successes} / {@code _failures}
  *       — Cryptoki reinit istatistikleri</li>
+ *   <li>{@code pkcs11_bridge_pool_hits_total} / {@code _misses_total} — bağlantı havuzu
+ *       yeniden kullanım / yeni bağlantı (connect + auth) sayısı</li>
+ *   <li>{@code pkcs11_bridge_pool_wait_seconds} — havuz doluyken kiralama bekleme
+ *       süresi (count + sum)</li>
+ *   <li>{@code pkcs11_bridge_pool_connections{state=open|idle|leased|pipelined}} ve
+ *       {@code pkcs11_bridge_pool_max} — havuz doluluğu</li>
+ *   <li>{@code pkcs11_bridge_pool_reconnects_total} / {@code _evictions_total} — kopan
+ *       bağlantı sonrası şeffaf reconnect ve idle eviction sayıları</li>
  * </ul>
  *
  * <h2>Tasarım</h2>
@@ -58,7 +69,7 @@ public class Pkcs11BridgeMetrics {
         this.module = module;
         registerMeters(registry);
         LOGGER.info("PKCS#11 köprü metrikleri kaydedildi (Prometheus): "
-            + "helper_alive, ipc_healthy, successful_operations + heartbeat sayaçları.");
+            + "helper_alive, ipc_healthy, successful_operations, heartbeat ve bağlantı havuzu sayaçları.");
     }
 
     private void registerMeters(MeterRegistry registry) {
@@ -107,6 +118,51 @@ public class Pkcs11BridgeMetrics {
         registerHeartbeatGauge(registry, "pkcs11.bridge.heartbeat.reinit.failures",
             "Cryptoki reinit başarısızlık sayısı (helper restart'ta sıfırlanır)",
             s -> s.reinitFailures);
+
+        registerPoolMeters(registry, module.getConnectionPool());
+    }
+
+    private void registerPoolMeters(MeterRegistry registry, Pkcs11ConnectionPool pool) {
+        FunctionCounter.builder("pkcs11.bridge.pool.hits", pool, p -> (double) p.getHits())
+            .description("Havuzdaki auth edilmiş bağlantının yeniden kullanıldığı kiralama sayısı")
+            .tag(COMPONENT_TAG_KEY, COMPONENT_TAG_VAL)
+            .register(registry);
+        FunctionCounter.builder("pkcs11.bridge.pool.misses", pool, p -> (double) p.getMisses())
+            .description("Boş bağlantı olmadığı için yeni bağlantı (connect + auth) açılan kiralama sayısı")
+            .tag(COMPONENT_TAG_KEY, COMPONENT_TAG_VAL)
+            .register(registry);
+        FunctionCounter.builder("pkcs11.bridge.pool.reconnects", pool, p -> (double) p.getReconnects())
+            .description("Kopan havuz bağlantısı sonrası şeffaf reconnect + retry sayısı")
+            .tag(COMPONENT_TAG_KEY, COMPONENT_TAG_VAL)
+            .register(registry);
+        FunctionCounter.builder("pkcs11.bridge.pool.evictions", pool, p -> (double) p.getEvictions())
+            .description("Idle timeout veya helper restart'ı nedeniyle kapatılan boştaki bağlantı sayısı")
+            .tag(COMPONENT_TAG_KEY, COMPONENT_TAG_VAL)
+            .register(registry);
+        FunctionTimer.builder("pkcs11.bridge.pool.wait", pool,
+                Pkcs11ConnectionPool::getWaitCount,
+                p -> (double) p.getWaitNanos(), TimeUnit.NANOSECONDS)
+            .description("Havuz doluyken bağlantı kiralamak için beklenen süre")
+            .tag(COMPONENT_TAG_KEY, COMPONENT_TAG_VAL)
+            .register(registry);
+
+        registerPoolGauge(registry, pool, "open", p -> p.getOpenConnections());
+        registerPoolGauge(registry, pool, "idle", p -> p.getIdleConnections());
+        registerPoolGauge(registry, pool, "leased", p -> p.getLeasedConnections());
+        registerPoolGauge(registry, pool, "pipelined", p -> p.getPipelinedConnections());
+        Gauge.builder("pkcs11.bridge.pool.max", pool, p -> p.getMaxSize())
+            .description("Köprü bağlantı havuzu üst sınırı (default MAX_SESSION_COUNT)")
+            .tag(COMPONENT_TAG_KEY, COMPONENT_TAG_VAL)
+            .register(registry);
+    }
+
+    private static void registerPoolGauge(MeterRegistry registry, Pkcs11ConnectionPool pool,
+                                          String state, ToDoubleFunction<Pkcs11ConnectionPool> accessor) {
+        Gauge.builder("pkcs11.bridge.pool.connections", pool, accessor)
+            .description("Köprü bağlantı havuzundaki bağlantı sayısı (state=open|idle|leased)")
+            .tag(COMPONENT_TAG_KEY, COMPONENT_TAG_VAL)
+            .tag("state", state)
+            .register(registry);
     }
 
     private void registerHeartbeatGauge(MeterRegistry registry, String name, String description,
@@ -0,0 +1,763 @@
+package io.mersel.dss.signer.api.services.keystore.iaik.bridge;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link RemotePkcs11Module} ile {@link Pkcs11HelperServer} arasındaki
+ * <b>uzun-ömürlü, auth edilmiş</b> loopback bağlantı havuzu.
+ *
+ * <h2>Neden?</h2>
+ * <p>İstek başına kısa-ömürlü bağlantı modelinde her imza
+ * {@code connect → OP_AUTH → status → istek → yanıt → close} zincirini öder.
+ * e-Fatura tepe yükünde connect + auth round-trip'i HSM imzasının kendisinden
+ * pahalıya geliyordu. Havuz, auth'u bağlantı başına <b>bir kez</b> öder;
+ * sonraki imzalar yalnızca tek frame round-trip'i yapar.</p>
+ *
+ * <h2>Davranış</h2>
+ * <ul>
+ *   <li><b>Boyut</b> — en fazla {@code maxSize} eş zamanlı çağrı (default
+ *       {@code MAX_SESSION_COUNT}); bu değer HSM session havuzuyla hizalıdır.</li>
+ *   <li><b>LIFO</b> — en son kullanılan bağlantı önce verilir; yük düşünce
+ *       kuyruğun dibindeki bağlantılar boşta yaşlanıp evict edilir.</li>
+ *   <li><b>Sağlık kontrolü</b> — {@code validateAfterIdleMs}'ten uzun süre boşta
+ *       kalan bağlantı, verilmeden önce {@code OP_PING} ile doğrulanır.</li>
+ *   <li><b>Idle eviction</b> — arka plan görevi {@code idleTimeoutMs}'i aşan
+ *       boştaki bağlantıları kapatır.</li>
+ *   <li><b>Şeffaf reconnect</b> — helper restart'ı sonrası port değişir; eski
+ *       porta ait bağlantılar verilmeden önce atılır. Yeniden kullanılan bir
+ *       bağlantıda IO hatası alınırsa (helper ölmüş, soket kopmuş) havuz
+ *       boşaltılır ve istek <b>tek kez</b> taze bağlantıyla tekrarlanır. Okuma
+ *       timeout'u (HSM yavaş) retry edilmez — HSM'e çift yük bindirmemek için.</li>
+ *   <li><b>Pipelining (protokol v2)</b> — {@code pipelineConnections > 0} ise
+ *       çağrılar az sayıda (en fazla {@code pipelineConnections}) paylaşılan
+ *       bağlantı üzerinden {@code requestId} ile çoklanır: her bağlantıda aynı
+ *       anda birden çok istek uçuşta olabilir, helper yanıtları sıra dışı
+ *       döner. Yeni paylaşılan bağlantı yalnızca mevcutların hepsi meşgulse
+ *       açılır; aksi halde en az yüklü olan seçilir. Toplam uçuştaki çağrı
+ *       sayısı yine {@code maxSize} ile sınırlıdır. Helper v2'yi müzakere
+ *       etmezse (eski helper) havuz kalıcı olarak yukarıdaki bağlantı başına
+ *       tek istek (v1) moduna düşer.</li>
+ * </ul>
+ *
+ * <p>Metrikler (hit / miss / bekleme süresi / açık ve boştaki bağlantı sayısı)
+ * {@link Pkcs11BridgeMetrics} tarafından Micrometer'a yayınlanır.</p>
+ */
+public final class Pkcs11ConnectionPool implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Pkcs11ConnectionPool.class);
+
+    /** Havuzun bağlandığı helper uç noktası (restart sonrası port değişebilir). */
+    interface Target {
+        String getBindHost();
+
+        int getPort();
+
+        String getToken();
+    }
+
+    private final Target target;
+    private final int maxSize;
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long validateAfterIdleMs;
+    /** v2 paylaşılan bağlantı üst sınırı; 0 = pipelining kapalı (yalnız v1). */
+    private final int pipelineConnections;
+
+    /** Boştaki bağlantılar; başı = en son iade edilen (LIFO). */
+    private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    /** Eş zamanlı kiralanabilecek bağlantı sayısı üst sınırı. */
+    private final Semaphore permits;
+    /** Pipelined (v2) paylaşılan bağlantılar. */
+    private final CopyOnWriteArrayList<MuxConnection> mux = new CopyOnWriteArrayList<>();
+    private final Object muxOpenLock = new Object();
+    /** Helper v2'yi müzakere etmedi → kalıcı olarak v1 moduna düşüldü. */
+    private volatile boolean pipelineUnsupported;
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final ScheduledExecutorService evictor;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong waitCount = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+
+    public Pkcs11ConnectionPool(Pkcs11HelperProcess helper,
+                                int maxSize,
+                                int connectTimeoutMs,
+                                int readTimeoutMs,
+                                long idleTimeoutMs,
+                                long validateAfterIdleMs,
+                                int pipelineConnections) {
+        this(new Target() {
+            @Override
+            public String getBindHost() {
+                return helper.getBindHost();
+            }
+
+            @Override
+            public int getPort() {
+                return helper.getPort();
+            }
+
+            @Override
+            public String getToken() {
+                return helper.getToken();
+            }
+        }, maxSize, connectTimeoutMs, readTimeoutMs, idleTimeoutMs, validateAfterIdleMs,
+            pipelineConnections);
+    }
+
+    /** Pipelining kapalı (yalnız v1) form. */
+    Pkcs11ConnectionPool(Target target,
+                         int maxSize,
+                         int connectTimeoutMs,
+                         int readTimeoutMs,
+                         long idleTimeoutMs,
+                         long validateAfterIdleMs) {
+        this(target, maxSize, connectTimeoutMs, readTimeoutMs, idleTimeoutMs, validateAfterIdleMs, 0);
+    }
+
+    Pkcs11ConnectionPool(Target target,
+                         int maxSize,
+                         int connectTimeoutMs,
+                         int readTimeoutMs,
+                         long idleTimeoutMs,
+                         long validateAfterIdleMs,
+                         int pipelineConnections) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Bağlantı havuzu boyutu en az 1 olmalı: " + maxSize);
+        }
+        this.target = target;
+        this.maxSize = maxSize;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.validateAfterIdleMs = validateAfterIdleMs;
+        this.pipelineConnections = Math.max(0, Math.min(pipelineConnections, maxSize));
+        this.permits = new Semaphore(maxSize, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pkcs11-bridge-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        if (idleTimeoutMs > 0) {
+            long period = Math.max(1000L, Math.min(idleTimeoutMs / 2, 30_000L));
+            evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Havuzdan bir bağlantı kiralar, tek frame gönderir, yanıt frame'ini döner.
+     * Yeniden kullanılan bir bağlantı koparsa istek tek kez taze bağlantıyla
+     * tekrarlanır (bkz. sınıf Javadoc'u).
+     */
+    public byte[] roundTrip(byte[] requestPayload, String opName) throws IOException {
+        acquirePermit(opName);
+        try {
+            if (isPipelined()) {
+                byte[] response = pipelinedRoundTrip(requestPayload, opName);
+                if (response != null) {
+                    return response;
+                }
+                // null → helper v2'yi müzakere etmedi; v1 yoluna düş.
+            }
+            return exclusiveRoundTrip(requestPayload, opName);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** v1: bağlantı çağrı boyunca tek kiracıya aittir. */
+    private byte[] exclusiveRoundTrip(byte[] requestPayload, String opName) throws IOException {
+        PooledConnection conn = borrow();
+        try {
+            byte[] response = conn.exchange(requestPayload);
+            giveBack(conn);
+            return response;
+        } catch (IOException e) {
+            discard(conn);
+            if (!conn.reused || e instanceof SocketTimeoutException) {
+                throw e;
+            }
+            // Havuzdaki diğer bağlantılar da büyük olasılıkla aynı (ölü)
+            // helper'a ait — hepsini at, taze bağlantıyla tek-shot retry.
+            reconnects.incrementAndGet();
+            LOGGER.info("Havuzdaki bağlantı kopmuş ({}: {}); havuz boşaltılıp "
+                + "taze bağlantıyla tekrar deneniyor.", opName, e.getMessage());
+            drainIdle();
+            PooledConnection fresh = openConnection();
+            try {
+                byte[] response = fresh.exchange(requestPayload);
+                giveBack(fresh);
+                return response;
+            } catch (IOException retryEx) {
+                discard(fresh);
+                throw retryEx;
+            }
+        }
+    }
+
+    /**
+     * v2: çağrı paylaşılan bir bağlantıya {@code requestId} ile çoklanır.
+     * Helper v2'yi desteklemiyorsa {@code null} döner.
+     */
+    private byte[] pipelinedRoundTrip(byte[] requestPayload, String opName) throws IOException {
+        MuxConnection conn = leaseMux();
+        if (conn == null) {
+            return null;
+        }
+        boolean reused = conn.markUsed();
+        try {
+            return conn.call(requestPayload, readTimeoutMs);
+        } catch (IOException e) {
+            if (e instanceof SocketTimeoutException) {
+                // Yalnız bu çağrı zaman aşımına uğradı; bağlantı diğer
+                // uçuştaki çağrılar için sağlam kalabilir.
+                throw e;
+            }
+            discardMux(conn);
+            if (!reused) {
+                throw e;
+            }
+            reconnects.incrementAndGet();
+            LOGGER.info("Pipelined köprü bağlantısı kopmuş ({}: {}); taze bağlantıyla "
+                + "tekrar deneniyor.", opName, e.getMessage());
+            // Aynı kopuşu gören diğer çağıranlar da buraya düşer; leaseMux
+            // ilk açılan taze bağlantıyı paylaştırır, üst sınır korunur.
+            MuxConnection fresh = leaseMux();
+            if (fresh == null) {
+                return null;
+            }
+            fresh.markUsed();
+            try {
+                return fresh.call(requestPayload, readTimeoutMs);
+            } catch (IOException retryEx) {
+                if (!(retryEx instanceof SocketTimeoutException)) {
+                    discardMux(fresh);
+                }
+                throw retryEx;
+            }
+        }
+    }
+
+    /**
+     * Paylaşılan bağlantı seçer: boşta olan ya da (kapasite doluysa) en az
+     * yüklü mevcut bağlantı; hepsi meşgul ve kapasite varsa yenisini açar.
+     */
+    private MuxConnection leaseMux() throws IOException {
+        MuxConnection best = pickMux();
+        if (best != null) {
+            return best;
+        }
+        synchronized (muxOpenLock) {
+            best = pickMux();
+            return best != null ? best : openMux();
+        }
+    }
+
+    /** @return kullanılabilir mevcut bağlantı; yenisi açılmalıysa {@code null}. */
+    private MuxConnection pickMux() {
+        int currentPort = target.getPort();
+        MuxConnection best = null;
+        for (MuxConnection c : mux) {
+            if (c.port != currentPort || !c.isOpen()) {
+                discardMux(c);
+                continue;
+            }
+            if (best == null || c.inFlight() < best.inFlight()) {
+                best = c;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        if (best.inFlight() > 0 && mux.size() < pipelineConnections) {
+            return null;
+        }
+        if (best.inFlight() == 0 && validateAfterIdleMs > 0
+                && best.idleMillis() >= validateAfterIdleMs && !best.ping(readTimeoutMs)) {
+            discardMux(best);
+            return null;
+        }
+        hits.incrementAndGet();
+        return best;
+    }
+
+    /** Yeni v2 bağlantısı açar; helper v1 müzakere ederse {@code null}. */
+    private MuxConnection openMux() throws IOException {
+        int port = target.getPort();
+        Socket socket = connect(port);
+        try {
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            int version = authenticate(in, out, target.getToken(), Pkcs11WireProtocol.PROTOCOL_V2);
+            if (version < Pkcs11WireProtocol.PROTOCOL_V2) {
+                pipelineUnsupported = true;
+                LOGGER.info("PKCS#11 helper protokol v{} müzakere etti; pipelining kapatılıp "
+                    + "bağlantı başına tek istek moduna geçiliyor.", version);
+                closeQuietly(socket);
+                return null;
+            }
+            // Okuyucu thread boşta da bloklayabilmeli; çağrı timeout'u
+            // future üzerinde uygulanır.
+            socket.setSoTimeout(0);
+            MuxConnection conn = new MuxConnection(socket, port, in, out);
+            conn.startReader();
+            mux.add(conn);
+            openConnections.incrementAndGet();
+            misses.incrementAndGet();
+            return conn;
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(socket);
+            throw e;
+        }
+    }
+
+    private void discardMux(MuxConnection conn) {
+        if (mux.remove(conn)) {
+            openConnections.decrementAndGet();
+        }
+        conn.close(new IOException("Pipelined köprü bağlantısı kapatıldı"));
+    }
+
+    private void acquirePermit(String opName) throws IOException {
+        if (closed.get()) {
+            throw new IOException("PKCS#11 köprü bağlantı havuzu kapalı");
+        }
+        if (permits.tryAcquire()) {
+            return;
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(readTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Köprü bağlantısı beklenirken kesildi (" + opName + ")", e);
+        } finally {
+            waitCount.incrementAndGet();
+            waitNanos.addAndGet(System.nanoTime() - start);
+        }
+        if (!acquired) {
+            throw new IOException("Köprü bağlantı havuzu " + readTimeoutMs
+                + "ms içinde boş bağlantı veremedi (maxSize=" + maxSize + ", op=" + opName + ")");
+        }
+    }
+
+    /** Sağlıklı bir boştaki bağlantı döner; yoksa yenisini açar (miss). */
+    private PooledConnection borrow() throws IOException {
+        int currentPort = target.getPort();
+        PooledConnection conn;
+        while ((conn = idle.pollFirst()) != null) {
+            if (conn.port != currentPort || conn.socket.isClosed()) {
+                // Helper restart'ından kalan (eski porta bağlı) bağlantı.
+                discard(conn);
+                continue;
+            }
+            if (validateAfterIdleMs > 0 && conn.idleMillis() >= validateAfterIdleMs && !conn.ping()) {
+                discard(conn);
+                continue;
+            }
+            conn.reused = true;
+            hits.incrementAndGet();
+            return conn;
+        }
+        misses.incrementAndGet();
+        return openConnection();
+    }
+
+    private PooledConnection openConnection() throws IOException {
+        int port = target.getPort();
+        Socket socket = connect(port);
+        try {
+            PooledConnection conn = new PooledConnection(socket, port);
+            conn.authenticate(target.getToken());
+            openConnections.incrementAndGet();
+            return conn;
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(socket);
+            throw e;
+        }
+    }
+
+    private Socket connect(int port) throws IOException {
+        if (port < 0) {
+            throw new IOException("PKCS#11 helper hazır değil (port bilinmiyor)");
+        }
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(target.getBindHost(), port), connectTimeoutMs);
+            socket.setSoTimeout(readTimeoutMs);
+            socket.setTcpNoDelay(true);
+            socket.setKeepAlive(true);
+            return socket;
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(socket);
+            throw e;
+        }
+    }
+
+    /**
+     * {@code OP_AUTH} gönderir ve müzakere edilen protokol sürümünü döner.
+     * {@code requestedVersion <= PROTOCOL_V1} ise sürüm alanı hiç gönderilmez
+     * (eski biçim). Sürüm alanı olmayan {@code STATUS_OK} yanıtı v1 demektir.
+     */
+    private static int authenticate(DataInputStream in, DataOutputStream out,
+                                    String token, int requestedVersion) throws IOException {
+        Pkcs11WireProtocol.PayloadWriter w = Pkcs11WireProtocol.newPayload()
+            .writeByte(Pkcs11WireProtocol.OP_AUTH)
+            .writeString(token);
+        if (requestedVersion > Pkcs11WireProtocol.PROTOCOL_V1) {
+            w.writeInt(requestedVersion);
+        }
+        Pkcs11WireProtocol.writeFrame(out, w.toByteArray());
+        byte[] resp = Pkcs11WireProtocol.readFrame(in);
+        if (resp.length == 0 || resp[0] != Pkcs11WireProtocol.STATUS_OK) {
+            // RemotePkcs11Module.checkStatus ile aynı anlam: auth reddi
+            // konfigürasyon hatasıdır, retry edilmez.
+            throw new io.mersel.dss.signer.api.exceptions.KeyStoreException(
+                "PKCS#11 helper auth reddedildi (bağlantı havuzu)");
+        }
+        Pkcs11WireProtocol.PayloadReader r = new Pkcs11WireProtocol.PayloadReader(resp);
+        r.readByte();
+        return r.remaining() >= 4 ? r.readInt() : Pkcs11WireProtocol.PROTOCOL_V1;
+    }
+
+    private void giveBack(PooledConnection conn) {
+        if (closed.get()) {
+            discard(conn);
+            return;
+        }
+        conn.lastUsedNanos = System.nanoTime();
+        idle.offerFirst(conn);
+    }
+
+    private void discard(PooledConnection conn) {
+        if (conn.close()) {
+            openConnections.decrementAndGet();
+        }
+    }
+
+    private void drainIdle() {
+        PooledConnection conn;
+        while ((conn = idle.pollFirst()) != null) {
+            discard(conn);
+        }
+    }
+
+    /**
+     * Arka plan görevi: {@code idleTimeoutMs}'i aşan veya helper restart'ı
+     * nedeniyle eski porta bağlı kalmış boştaki bağlantıları kapatır.
+     */
+    void evictIdle() {
+        int currentPort = target.getPort();
+        Iterator<PooledConnection> it = idle.iterator();
+        while (it.hasNext()) {
+            PooledConnection conn = it.next();
+            boolean stale = conn.port != currentPort || conn.socket.isClosed();
+            if ((stale || conn.idleMillis() >= idleTimeoutMs) && idle.remove(conn)) {
+                discard(conn);
+                evictions.incrementAndGet();
+            }
+        }
+        for (MuxConnection conn : mux) {
+            boolean stale = conn.port != currentPort || !conn.isOpen();
+            if (stale || (conn.inFlight() == 0 && conn.idleMillis() >= idleTimeoutMs)) {
+                discardMux(conn);
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            evictor.shutdownNow();
+            drainIdle();
+            for (MuxConnection conn : mux) {
+                discardMux(conn);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Gözlemlenebilirlik (Pkcs11BridgeMetrics + actuator endpoint)
+    // ------------------------------------------------------------------
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    public int getIdleConnections() {
+        int idleMux = 0;
+        for (MuxConnection conn : mux) {
+            if (conn.inFlight() == 0) {
+                idleMux++;
+            }
+        }
+        return idle.size() + idleMux;
+    }
+
+    /** Açık pipelined (v2) paylaşılan bağlantı sayısı. */
+    public int getPipelinedConnections() {
+        return mux.size();
+    }
+
+    /** Pipelining yapılandırılmış ve helper tarafından reddedilmemiş mi. */
+    public boolean isPipelined() {
+        return pipelineConnections > 0 && !pipelineUnsupported;
+    }
+
+    public int getPipelineConnectionLimit() {
+        return pipelineConnections;
+    }
+
+    public int getLeasedConnections() {
+        return maxSize - permits.availablePermits();
+    }
+
+    /** Boştaki bağlantı yeniden kullanıldı. */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /** Boştaki bağlantı yoktu; yeni bağlantı açılıp auth edildi. */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getReconnects() {
+        return reconnects.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /** Havuz dolu olduğu için beklemek zorunda kalan kiralama sayısı. */
+    public long getWaitCount() {
+        return waitCount.get();
+    }
+
+    /** Kiralama beklemelerinde geçen toplam süre (ns). */
+    public long getWaitNanos() {
+        return waitNanos.get();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /** Auth edilmiş tek bir loopback bağlantısı. Aynı anda tek kiracıya aittir. */
+    private static final class PooledConnection {
+        final Socket socket;
+        final int port;
+        final DataInputStream in;
+        final DataOutputStream out;
+        final AtomicBoolean open = new AtomicBoolean(true);
+        volatile long lastUsedNanos = System.nanoTime();
+        /** Havuzdan yeniden kullanılarak mı verildi (kopma → retry kararı için). */
+        boolean reused;
+
+        PooledConnection(Socket socket, int port) throws IOException {
+            this.socket = socket;
+            this.port = port;
+            this.in = new DataInputStream(socket.getInputStream());
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        void authenticate(String token) throws IOException {
+            Pkcs11ConnectionPool.authenticate(in, out, token, Pkcs11WireProtocol.PROTOCOL_V1);
+        }
+
+        byte[] exchange(byte[] payload) throws IOException {
+            Pkcs11WireProtocol.writeFrame(out, payload);
+            return Pkcs11WireProtocol.readFrame(in);
+        }
+
+        /** Hafif sağlık kontrolü — native DLL'e dokunmayan {@code OP_PING}. */
+        boolean ping() {
+            try {
+                byte[] resp = exchange(Pkcs11WireProtocol.newPayload()
+                    .writeByte(Pkcs11WireProtocol.OP_PING)
+                    .toByteArray());
+                return resp.length > 0 && resp[0] == Pkcs11WireProtocol.STATUS_OK;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        long idleMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastUsedNanos);
+        }
+
+        /** @return bu çağrı bağlantıyı gerçekten kapattıysa {@code true}. */
+        boolean close() {
+            if (!open.compareAndSet(true, false)) {
+                return false;
+            }
+            closeQuietly(socket);
+            return true;
+        }
+    }
+
+    /**
+     * Pipelined (v2) paylaşılan bağlantı. Çok sayıda çağıran aynı anda
+     * {@link #call} yapabilir; yazımlar {@code out} üzerinde serileşir, yanıtlar
+     * tek bir okuyucu thread tarafından {@code requestId} ile ilgili
+     * future'a teslim edilir.
+     */
+    private static final class MuxConnection {
+        final Socket socket;
+        final int port;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private final AtomicBoolean open = new AtomicBoolean(true);
+        private final AtomicBoolean used = new AtomicBoolean(false);
+        private final AtomicInteger requestIds = new AtomicInteger();
+        private final ConcurrentHashMap<Integer, CompletableFuture<byte[]>> pending =
+            new ConcurrentHashMap<>();
+        volatile long lastUsedNanos = System.nanoTime();
+
+        MuxConnection(Socket socket, int port, DataInputStream in, DataOutputStream out) {
+            this.socket = socket;
+            this.port = port;
+            this.in = in;
+            this.out = out;
+        }
+
+        void startReader() {
+            Thread t = new Thread(this::readLoop, "pkcs11-bridge-mux-reader-" + socket.getLocalPort());
+            t.setDaemon(true);
+            t.start();
+        }
+
+        /** @return bağlantı bu çağrıdan önce de kullanılmışsa {@code true} (retry kararı için). */
+        boolean markUsed() {
+            return used.getAndSet(true);
+        }
+
+        byte[] call(byte[] payload, int timeoutMs) throws IOException {
+            int id = requestIds.incrementAndGet();
+            CompletableFuture<byte[]> future = new CompletableFuture<>();
+            pending.put(id, future);
+            try {
+                // put'tan sonra kontrol: okuyucu ölmüşse failAll bu girdiyi
+                // görmemiş olabilir.
+                if (!open.get()) {
+                    throw new IOException("Pipelined köprü bağlantısı kapalı");
+                }
+                synchronized (out) {
+                    Pkcs11WireProtocol.writeFrame(out, id, payload);
+                }
+                return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                throw new SocketTimeoutException("Helper " + timeoutMs + "ms içinde yanıt vermedi (requestId=" + id + ")");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new IOException(cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Helper yanıtı beklenirken kesildi");
+            } catch (IOException e) {
+                close(e);
+                throw e;
+            } finally {
+                pending.remove(id);
+                lastUsedNanos = System.nanoTime();
+            }
+        }
+
+        private void readLoop() {
+            try {
+                while (open.get()) {
+                    Pkcs11WireProtocol.TaggedFrame frame = Pkcs11WireProtocol.readTaggedFrame(in);
+                    CompletableFuture<byte[]> future = pending.remove(frame.requestId);
+                    if (future != null) {
+                        future.complete(frame.payload);
+                    }
+                    // future yoksa çağıran zaman aşımına uğramış; geç yanıt atılır.
+                }
+            } catch (IOException e) {
+                close(e);
+            }
+        }
+
+        /** Hafif sağlık kontrolü — native DLL'e dokunmayan {@code OP_PING}. */
+        boolean ping(int timeoutMs) {
+            try {
+                byte[] resp = call(Pkcs11WireProtocol.newPayload()
+                    .writeByte(Pkcs11WireProtocol.OP_PING)
+                    .toByteArray(), timeoutMs);
+                return resp.length > 0 && resp[0] == Pkcs11WireProtocol.STATUS_OK;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        int inFlight() {
+            return pending.size();
+        }
+
+        boolean isOpen() {
+            return open.get();
+        }
+
+        long idleMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastUsedNanos);
+        }
+
+        /** Soketi kapatır ve uçuştaki tüm çağrıları {@code cause} ile sonlandırır. */
+        void close(IOException cause) {
+            if (!open.compareAndSet(true, false)) {
+                return;
+            }
+            closeQuietly(socket);
+            for (Integer id : pending.keySet()) {
+                CompletableFuture<byte[]> future = pending.remove(id);
+                if (future != null) {
+                    future.completeExceptionally(cause);
+                }
+            }
+        }
+    }
+}
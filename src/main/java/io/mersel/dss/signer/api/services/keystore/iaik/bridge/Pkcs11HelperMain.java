@@ -60,7 +60,7 @@ public final class Pkcs11HelperMain {
             libraryPath, slot, slotIndex, pin.toCharArray(), nullInitArgs, maxSessions);
         module.afterPropertiesSet();
 
-        Pkcs11HelperServer server = new Pkcs11HelperServer(module, token, bindHost, port);
+        Pkcs11HelperServer server = new Pkcs11HelperServer(module, token, bindHost, port, maxSessions);
         int actualPort = server.start();
 
         // Remote modda heartbeat helper'ın içinde (DLL'e bitişik) çalışır.
@@ -3,6 +3,7 @@ package io.mersel.dss.signer.api.services.keystore.iaik.bridge;
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.enumerations.SignatureAlgorithm;
 import io.mersel.dss.signer.api.dtos.CertificateInfoDto;
+import io.mersel.dss.signer.api.models.BatchSignResult;
 import io.mersel.dss.signer.api.services.keystore.iaik.IaikPkcs11Module;
 import io.mersel.dss.signer.api.services.keystore.iaik.Pkcs11Signer;
 import org.slf4j.Logger;
@@ -18,21 +19,41 @@ import java.net.ServerSocket;
 import java.net.Socket;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Helper process'in IPC sunucusu. {@link IaikPkcs11Module}'ü (native DLL'i bu
  * process'in kendi bit'liğinde yükleyerek) sarmalar ve loopback üzerinden gelen
- * istekleri (find-signer, list-certificates, sign, sign-digest) ona delege eder.
+ * istekleri (find-signer, list-certificates, sign, sign-digest, sign-batch) ona
+ * delege eder.
  *
- * <p>Bağlantı başına bir worker thread; her bağlantı önce {@link
- * Pkcs11WireProtocol#OP_AUTH} ile token doğrular. Eş zamanlı imza paralelliği
- * client'ın bağlantı havuzu boyutuyla (ana process'teki {@code MAX_SESSION_COUNT})
- * belirlenir; {@link IaikPkcs11Module}'ün kendi session pool'u alttan
- * eşzamanlılığı yönetir.</p>
+ * <p>Bağlantı başına bir okuyucu thread; her bağlantı önce {@link
+ * Pkcs11WireProtocol#OP_AUTH} ile token doğrular (ve protokol sürümünü
+ * müzakere eder), ardından client'ın {@link Pkcs11ConnectionPool}'u tarafından
+ * uzun süre (çok sayıda frame için) yeniden kullanılır.</p>
+ * <ul>
+ *   <li><b>v1</b> — frame'ler okuyucu thread'de sırayla işlenir; bağlantı başına
+ *       paralellik 1'dir.</li>
+ *   <li><b>v2 (pipelined)</b> — okuyucu thread frame'leri HSM session havuzu
+ *       boyutunda ({@code MAX_SESSION_COUNT}) paylaşılan bir worker havuzuna
+ *       devreder; yanıtlar tamamlandıkça, {@code requestId} ile etiketlenerek
+ *       sıra dışı yazılır. Birkaç soket tüm HSM session'larını doyurabilir.
+ *       Worker kuyruğu dolarsa frame hemen {@link Pkcs11WireProtocol#STATUS_ERROR}
+ *       ve {@link Pkcs11WireProtocol#HELPER_BUSY_MARKER} ile yanıtlanır;
+ *       okuyucu thread imza çalıştırmaz, diğer frame'leri okumaya devam eder.
+ *       Client bu yanıtı {@code SigningCapacityException} (QUEUE_FULL)
+ *       olarak görür.</li>
+ * </ul>
+ * <p>{@link IaikPkcs11Module}'ün kendi session pool'u alttan eşzamanlılığı
+ * yönetmeye devam eder.</p>
  *
  * <p>Native handle hiç wire'dan geçmez: client {@link OP_FIND_SIGNER} ile
  * opak bir {@code signerId} (int) alır; sonraki sign çağrılarında bu id ile
@@ -44,6 +65,14 @@ public final class Pkcs11HelperServer {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Pkcs11HelperServer.class);
 
+    /** Worker sayısı verilmediğinde kullanılan pipelined worker havuzu boyutu. */
+    static final int DEFAULT_WORKER_THREADS = 4;
+    /**
+     * Worker başına kuyrukta bekleyebilecek pipelined istek sayısı; kuyruk
+     * doluysa istek {@link Pkcs11WireProtocol#HELPER_BUSY_MARKER} ile reddedilir.
+     */
+    private static final int WORKER_QUEUE_PER_THREAD = 64;
+
     private final IaikPkcs11Module module;
     private final byte[] expectedTokenBytes;
     private final String bindHost;
@@ -55,17 +84,50 @@ public final class Pkcs11HelperServer {
     private volatile ServerSocket serverSocket;
     /** Remote heartbeat monitör'ünün IPC ile durumunu sorabilmesi için; null = kapalı. */
     private volatile HelperHeartbeat heartbeat;
+    /** v2 (pipelined) bağlantılarının paylaştığı worker havuzu. */
+    private final ThreadPoolExecutor workers;
 
+    /** Worker sayısı verilmeyen form (testler); {@link #DEFAULT_WORKER_THREADS} kullanılır. */
     public Pkcs11HelperServer(IaikPkcs11Module module,
                               String expectedToken,
                               String bindHost,
                               int requestedPort) {
+        this(module, expectedToken, bindHost, requestedPort, DEFAULT_WORKER_THREADS);
+    }
+
+    /**
+     * @param workerThreads pipelined (v2) isteklerini işleyen worker sayısı;
+     *                      HSM session havuzuyla ({@code MAX_SESSION_COUNT})
+     *                      hizalı tutulmalıdır — fazlası session beklemekten
+     *                      öteye geçmez.
+     */
+    public Pkcs11HelperServer(IaikPkcs11Module module,
+                              String expectedToken,
+                              String bindHost,
+                              int requestedPort,
+                              int workerThreads) {
         this.module = module;
         this.expectedTokenBytes = expectedToken == null
             ? new byte[0]
             : expectedToken.getBytes(StandardCharsets.UTF_8);
         this.bindHost = bindHost;
         this.requestedPort = requestedPort;
+        int threads = Math.max(1, workerThreads);
+        AtomicInteger workerSeq = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads,
+            60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(threads * WORKER_QUEUE_PER_THREAD),
+            r -> {
+                Thread t = new Thread(r, "pkcs11-helper-worker-" + workerSeq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    /** Pipelined worker havuzu boyutu (gözlem/test için). */
+    public int getWorkerThreads() {
+        return workers.getMaximumPoolSize();
     }
 
     /** Heartbeat'i (varsa) bağlar; {@code OP_HEARTBEAT_STATUS} bu örneği sorar. */
@@ -107,6 +169,7 @@ public final class Pkcs11HelperServer {
 
     public void stop() {
         running.set(false);
+        workers.shutdown();
         try {
             if (serverSocket != null) {
                 serverSocket.close();
@@ -127,21 +190,27 @@ public final class Pkcs11HelperServer {
             byte op0 = r0.readByte();
             if (op0 != Pkcs11WireProtocol.OP_AUTH || !authOk(r0.readString())) {
                 LOGGER.warn("Auth başarısız; bağlantı kapatılıyor.");
-                writeStatus(out, Pkcs11WireProtocol.STATUS_AUTH_FAILED, "auth failed");
+                Pkcs11WireProtocol.writeFrame(out,
+                    statusFrame(Pkcs11WireProtocol.STATUS_AUTH_FAILED, "auth failed"));
                 socket.close();
                 return;
             }
-            writeStatus(out, Pkcs11WireProtocol.STATUS_OK, null);
-
-            // Komut döngüsü.
-            while (running.get()) {
-                byte[] frame;
-                try {
-                    frame = Pkcs11WireProtocol.readFrame(in);
-                } catch (EOFException eof) {
-                    break; // client kapandı
-                }
-                dispatch(frame, out);
+            // Sürüm alanı yoksa eski (v1) client — yanıt da eski biçimde kalır.
+            if (r0.remaining() < 4) {
+                Pkcs11WireProtocol.writeFrame(out, statusFrame(Pkcs11WireProtocol.STATUS_OK, null));
+                serveSerial(in, out);
+                return;
+            }
+            int negotiated = Math.max(Pkcs11WireProtocol.PROTOCOL_V1,
+                Math.min(r0.readInt(), Pkcs11WireProtocol.PROTOCOL_MAX));
+            Pkcs11WireProtocol.writeFrame(out, Pkcs11WireProtocol.newPayload()
+                .writeByte(Pkcs11WireProtocol.STATUS_OK)
+                .writeInt(negotiated)
+                .toByteArray());
+            if (negotiated >= Pkcs11WireProtocol.PROTOCOL_V2) {
+                servePipelined(socket, in, out);
+            } else {
+                serveSerial(in, out);
             }
         } catch (IOException e) {
             LOGGER.debug("Bağlantı sonlandı: {}", e.getMessage());
@@ -150,50 +219,94 @@ public final class Pkcs11HelperServer {
         }
     }
 
-    private void dispatch(byte[] frame, DataOutputStream out) throws IOException {
+    /** {@link Pkcs11WireProtocol#PROTOCOL_V1}: frame'ler bu thread'de sırayla işlenir. */
+    private void serveSerial(DataInputStream in, DataOutputStream out) throws IOException {
+        while (running.get()) {
+            byte[] frame;
+            try {
+                frame = Pkcs11WireProtocol.readFrame(in);
+            } catch (EOFException eof) {
+                break; // client kapandı
+            }
+            Pkcs11WireProtocol.writeFrame(out, dispatch(frame));
+        }
+    }
+
+    /**
+     * {@link Pkcs11WireProtocol#PROTOCOL_V2}: bu thread yalnızca frame okur ve
+     * worker havuzuna devreder; yanıtlar tamamlandıkça (sıra dışı) aynı
+     * {@code requestId} ile yazılır. Yazımlar {@code out} üzerinde serileşir.
+     */
+    private void servePipelined(Socket socket, DataInputStream in, DataOutputStream out) throws IOException {
+        while (running.get()) {
+            Pkcs11WireProtocol.TaggedFrame frame;
+            try {
+                frame = Pkcs11WireProtocol.readTaggedFrame(in);
+            } catch (EOFException eof) {
+                break; // client kapandı
+            }
+            try {
+                workers.execute(() -> reply(socket, out, frame.requestId, dispatch(frame.payload)));
+            } catch (RejectedExecutionException e) {
+                // Okuyucu thread imzayı kendisi çalıştırmaz: bu bağlantıdaki
+                // sonraki frame'ler HSM çağrısının arkasında beklerdi.
+                LOGGER.debug("Pipelined worker kuyruğu dolu; istek reddedildi (requestId={}).",
+                    frame.requestId);
+                reply(socket, out, frame.requestId, statusFrame(Pkcs11WireProtocol.STATUS_ERROR,
+                    Pkcs11WireProtocol.HELPER_BUSY_MARKER + " worker kuyruğu dolu"));
+            }
+        }
+    }
+
+    private static void reply(Socket socket, DataOutputStream out, int requestId, byte[] response) {
+        try {
+            synchronized (out) {
+                Pkcs11WireProtocol.writeFrame(out, requestId, response);
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Pipelined yanıt yazılamadı (requestId={}): {}", requestId, e.getMessage());
+            try { socket.close(); } catch (IOException ignored) { }
+        }
+    }
+
+    /** Tek bir istek frame'ini işler ve yanıt payload'ını döner; hata da yanıttır. */
+    private byte[] dispatch(byte[] frame) {
         Pkcs11WireProtocol.PayloadReader r = new Pkcs11WireProtocol.PayloadReader(frame);
         byte op = r.readByte();
         try {
             switch (op) {
                 case Pkcs11WireProtocol.OP_PING:
-                    writeStatus(out, Pkcs11WireProtocol.STATUS_OK, null);
-                    break;
+                    return statusFrame(Pkcs11WireProtocol.STATUS_OK, null);
                 case Pkcs11WireProtocol.OP_HEARTBEAT_STATUS:
-                    handleHeartbeatStatus(out);
-                    break;
+                    return handleHeartbeatStatus();
                 case Pkcs11WireProtocol.OP_FIND_SIGNER:
-                    handleFindSigner(r, out);
-                    break;
+                    return handleFindSigner(r);
                 case Pkcs11WireProtocol.OP_LIST_CERTIFICATES:
-                    handleListCertificates(out);
-                    break;
+                    return handleListCertificates();
                 case Pkcs11WireProtocol.OP_SIGN:
-                    handleSign(r, out, false);
-                    break;
+                    return handleSign(r, false);
                 case Pkcs11WireProtocol.OP_SIGN_DIGEST:
-                    handleSign(r, out, true);
-                    break;
+                    return handleSign(r, true);
+                case Pkcs11WireProtocol.OP_SIGN_BATCH:
+                    return handleSignBatch(r);
                 case Pkcs11WireProtocol.OP_INVALIDATE_CACHE:
                     module.invalidateKeyCache();
                     signers.clear();
-                    writeStatus(out, Pkcs11WireProtocol.STATUS_OK, null);
-                    break;
+                    return statusFrame(Pkcs11WireProtocol.STATUS_OK, null);
                 case Pkcs11WireProtocol.OP_SHUTDOWN:
-                    writeStatus(out, Pkcs11WireProtocol.STATUS_OK, null);
                     stop();
-                    break;
+                    return statusFrame(Pkcs11WireProtocol.STATUS_OK, null);
                 default:
-                    writeStatus(out, Pkcs11WireProtocol.STATUS_ERROR, "bilinmeyen opcode: " + op);
+                    return statusFrame(Pkcs11WireProtocol.STATUS_ERROR, "bilinmeyen opcode: " + op);
             }
         } catch (Exception e) {
             LOGGER.warn("Komut işlenirken hata (op={}): {}", op, e.toString());
-            writeStatus(out, Pkcs11WireProtocol.STATUS_ERROR,
+            return statusFrame(Pkcs11WireProtocol.STATUS_ERROR,
                 e.getClass().getSimpleName() + ": " + e.getMessage());
         }
     }
 
-    private void handleFindSigner(Pkcs11WireProtocol.PayloadReader r, DataOutputStream out)
-            throws IOException {
+    private byte[] handleFindSigner(Pkcs11WireProtocol.PayloadReader r) {
         String alias = r.readString();
         String serial = r.readString();
         Pkcs11Signer signer = module.findSigner(alias, serial);
@@ -206,13 +319,13 @@ public final class Pkcs11HelperServer {
         w.writeString(signer.getAlias());
         w.writeBytes(WireCodec.encodeCert(signer.getCertificate()));
         w.writeBytes(WireCodec.encodeCertChain(signer.getCertificateChain()));
-        Pkcs11WireProtocol.writeFrame(out, w.toByteArray());
+        return w.toByteArray();
     }
 
-    private void handleHeartbeatStatus(DataOutputStream out) throws IOException {
+    private byte[] handleHeartbeatStatus() {
         HelperHeartbeat hb = this.heartbeat;
         HelperHeartbeat.Status st = hb != null ? hb.currentStatus() : HelperHeartbeat.Status.disabled();
-        Pkcs11WireProtocol.PayloadWriter w = Pkcs11WireProtocol.newPayload()
+        return Pkcs11WireProtocol.newPayload()
             .writeByte(Pkcs11WireProtocol.STATUS_OK)
             .writeByte(st.enabled ? 1 : 0)
             .writeLong(st.successCount)
@@ -222,30 +335,28 @@ public final class Pkcs11HelperServer {
             .writeLong(st.reinitSuccesses)
             .writeLong(st.reinitFailures)
             .writeLong(st.lastSuccessAtMillis)
-            .writeString(st.lastErrorMessage);
-        Pkcs11WireProtocol.writeFrame(out, w.toByteArray());
+            .writeString(st.lastErrorMessage)
+            .toByteArray();
     }
 
-    private void handleListCertificates(DataOutputStream out) throws IOException {
+    private byte[] handleListCertificates() {
         List<CertificateInfoDto> certs = module.listCertificates();
         byte[] json = WireCodec.encodeCertInfoList(certs);
         Pkcs11WireProtocol.PayloadWriter w = Pkcs11WireProtocol.newPayload();
         w.writeByte(Pkcs11WireProtocol.STATUS_OK);
         w.writeBytes(json);
-        Pkcs11WireProtocol.writeFrame(out, w.toByteArray());
+        return w.toByteArray();
     }
 
-    private void handleSign(Pkcs11WireProtocol.PayloadReader r, DataOutputStream out, boolean digestMode)
-            throws IOException {
+    private byte[] handleSign(Pkcs11WireProtocol.PayloadReader r, boolean digestMode) {
         int signerId = r.readInt();
         String algName = r.readString();
         byte[] data = r.readBytes();
         Pkcs11Signer signer = signers.get(signerId);
         if (signer == null) {
-            writeStatus(out, Pkcs11WireProtocol.STATUS_ERROR,
+            return statusFrame(Pkcs11WireProtocol.STATUS_ERROR,
                 Pkcs11WireProtocol.UNKNOWN_SIGNER_MARKER + " signerId=" + signerId
                 + " (helper restart olmuş olabilir)");
-            return;
         }
         byte[] signature = digestMode
             ? signer.signDigest(data, DigestAlgorithm.valueOf(algName))
@@ -253,16 +364,49 @@ public final class Pkcs11HelperServer {
         Pkcs11WireProtocol.PayloadWriter w = Pkcs11WireProtocol.newPayload();
         w.writeByte(Pkcs11WireProtocol.STATUS_OK);
         w.writeBytes(signature);
-        Pkcs11WireProtocol.writeFrame(out, w.toByteArray());
+        return w.toByteArray();
+    }
+
+    private byte[] handleSignBatch(Pkcs11WireProtocol.PayloadReader r) {
+        int signerId = r.readInt();
+        byte mode = r.readByte();
+        String algName = r.readString();
+        int count = r.readInt();
+        List<byte[]> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(r.readBytes());
+        }
+        Pkcs11Signer signer = signers.get(signerId);
+        if (signer == null) {
+            return statusFrame(Pkcs11WireProtocol.STATUS_ERROR,
+                Pkcs11WireProtocol.UNKNOWN_SIGNER_MARKER + " signerId=" + signerId
+                + " (helper restart olmuş olabilir)");
+        }
+        List<BatchSignResult> results = mode == Pkcs11WireProtocol.BATCH_MODE_DIGEST
+            ? signer.signDigestBatch(items, DigestAlgorithm.valueOf(algName))
+            : signer.signBatch(items, SignatureAlgorithm.valueOf(algName));
+        Pkcs11WireProtocol.PayloadWriter w = Pkcs11WireProtocol.newPayload();
+        w.writeByte(Pkcs11WireProtocol.STATUS_OK);
+        w.writeInt(results.size());
+        for (BatchSignResult result : results) {
+            if (result.isSuccess()) {
+                w.writeByte(Pkcs11WireProtocol.ITEM_OK);
+                w.writeBytes(result.getSignature());
+            } else {
+                w.writeByte(Pkcs11WireProtocol.ITEM_ERROR);
+                w.writeString(result.getErrorMessage());
+            }
+        }
+        return w.toByteArray();
     }
 
-    private void writeStatus(DataOutputStream out, byte status, String message) throws IOException {
+    private static byte[] statusFrame(byte status, String message) {
         Pkcs11WireProtocol.PayloadWriter w = Pkcs11WireProtocol.newPayload();
         w.writeByte(status);
         if (status != Pkcs11WireProtocol.STATUS_OK) {
             w.writeString(message);
         }
-        Pkcs11WireProtocol.writeFrame(out, w.toByteArray());
+        return w.toByteArray();
     }
 
     /** Sabit-zamanlı token karşılaştırması (timing-attack korunaklı). */
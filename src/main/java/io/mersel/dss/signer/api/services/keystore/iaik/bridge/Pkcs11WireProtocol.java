@@ -26,6 +26,24 @@ import java.io.IOException;
  * {@link #OP_AUTH} ile tek-seferlik paylaşılan token taşır. Token eşleşmezse
  * server bağlantıyı {@link #STATUS_AUTH_FAILED} ile kapatır. PIN asla wire'dan
  * geçmez — helper'a kendi env/argümanıyla verilir.</p>
+ *
+ * <h2>Sürüm müzakeresi ve pipelining</h2>
+ * <p>AUTH frame'i opsiyonel bir {@code int32} sürüm alanı taşıyabilir:
+ * {@code [OP_AUTH][token][int32 istenenSürüm]}. Sürümü tanıyan server
+ * {@code [STATUS_OK][int32 anlaşılanSürüm]} döner; eski server sondaki alanı
+ * okumadan yalnızca {@code STATUS_OK} döner ve client bunu
+ * {@link #PROTOCOL_V1} olarak yorumlar. Böylece eski client ↔ yeni helper ve
+ * yeni client ↔ eski helper kombinasyonları çalışmaya devam eder.</p>
+ * <ul>
+ *   <li>{@link #PROTOCOL_V1} — katı istek/yanıt; bağlantı başına aynı anda tek
+ *       frame.</li>
+ *   <li>{@link #PROTOCOL_V2} — AUTH sonrası her frame
+ *       {@code [int32 length][int32 requestId][payload]} biçimindedir
+ *       ({@code length} requestId'yi de kapsar). Client aynı bağlantıdan yanıt
+ *       beklemeden çok sayıda istek gönderebilir; helper istekleri worker
+ *       havuzunda paralel işler ve yanıtları <b>tamamlanma sırasıyla</b>
+ *       (istek sırasından bağımsız) aynı {@code requestId} ile yazar.</li>
+ * </ul>
  */
 public final class Pkcs11WireProtocol {
 
@@ -42,12 +60,35 @@ public final class Pkcs11WireProtocol {
     public static final byte OP_PING              = 7;
     public static final byte OP_SHUTDOWN          = 8;
     public static final byte OP_HEARTBEAT_STATUS  = 9;
+    /**
+     * Toplu imza: {@code [op][int32 signerId][byte mod][alg][int32 n]{bytes}}.
+     * Mod {@link #BATCH_MODE_SIGN} (ham veri) veya {@link #BATCH_MODE_DIGEST}
+     * (pre-hashed). Yanıt: {@code [STATUS_OK][int32 n]} ve girdi sırasıyla her
+     * öğe için {@code [ITEM_OK][bytes imza]} ya da {@code [ITEM_ERROR][string mesaj]}.
+     * Öğe hataları frame'i düşürmez; yalnız stale {@code signerId} gibi toplu
+     * çağrının kendisine ait hatalar {@link #STATUS_ERROR} döner.
+     */
+    public static final byte OP_SIGN_BATCH        = 10;
+
+    // ---- OP_SIGN_BATCH alanları ----
+    public static final byte BATCH_MODE_SIGN   = 0;
+    public static final byte BATCH_MODE_DIGEST = 1;
+    public static final byte ITEM_OK    = 0;
+    public static final byte ITEM_ERROR = 1;
 
     // ---- Status (yanıt ilk byte'ı) ----
     public static final byte STATUS_OK          = 0;
     public static final byte STATUS_ERROR       = 1;
     public static final byte STATUS_AUTH_FAILED = 2;
 
+    // ---- Protokol sürümleri (AUTH frame'inde müzakere edilir) ----
+    /** Katı istek/yanıt; AUTH'ta sürüm alanı göndermeyen client'lar da bu sürümdedir. */
+    public static final int PROTOCOL_V1 = 1;
+    /** Frame başına {@code requestId}; aynı bağlantıda eş zamanlı, sıra dışı yanıtlar. */
+    public static final int PROTOCOL_V2 = 2;
+    /** Bu derlemenin desteklediği en yüksek sürüm. */
+    public static final int PROTOCOL_MAX = PROTOCOL_V2;
+
     /**
      * Helper restart olduğunda eski {@code signerId} kaybolur. Bu durumu
      * client'ın hedefli olarak yakalayıp signer'ı yeniden çözmesi (re-resolve)
@@ -55,6 +96,13 @@ public final class Pkcs11WireProtocol {
      */
     public static final String UNKNOWN_SIGNER_MARKER = "UNKNOWN_SIGNER";
 
+    /**
+     * Pipelined worker kuyruğu dolduğunda helper isteği işlemeden bu marker'la
+     * başlayan hata döner; client bunu kapasite reddi (geri basınç) olarak
+     * yüzeye çıkarır.
+     */
+    public static final String HELPER_BUSY_MARKER = "HELPER_BUSY";
+
     /**
      * Tek bir mesaj çerçevesini yazar (uzunluk-prefix'li). Çağıran payload'ı
      * {@link #newPayload()} ile kurar.
@@ -76,6 +124,41 @@ public final class Pkcs11WireProtocol {
         return buf;
     }
 
+    /**
+     * {@link #PROTOCOL_V2} çerçevesi yazar: {@code [int32 length][int32 requestId][payload]}.
+     * Aynı stream'e birden çok thread yazıyorsa çağıran stream üzerinde
+     * senkronize olmalıdır.
+     */
+    public static void writeFrame(DataOutputStream out, int requestId, byte[] payload) throws IOException {
+        out.writeInt(payload.length + 4);
+        out.writeInt(requestId);
+        out.write(payload);
+        out.flush();
+    }
+
+    /** {@link #PROTOCOL_V2} çerçevesi okur. Karşı taraf kapanırsa {@link EOFException}. */
+    public static TaggedFrame readTaggedFrame(DataInputStream in) throws IOException {
+        int len = in.readInt();
+        if (len < 4 || len > MAX_FRAME_BYTES) {
+            throw new IOException("Geçersiz frame uzunluğu: " + len);
+        }
+        int requestId = in.readInt();
+        byte[] buf = new byte[len - 4];
+        in.readFully(buf);
+        return new TaggedFrame(requestId, buf);
+    }
+
+    /** {@code requestId} ile etiketlenmiş {@link #PROTOCOL_V2} çerçevesi. */
+    public static final class TaggedFrame {
+        public final int requestId;
+        public final byte[] payload;
+
+        public TaggedFrame(int requestId, byte[] payload) {
+            this.requestId = requestId;
+            this.payload = payload;
+        }
+    }
+
     /** 64 MB üst sınır — digest/imza/sertifika listesi bunun çok altındadır;
      *  bozuk/zararlı uzunluk değerine karşı koruma. */
     private static final int MAX_FRAME_BYTES = 64 * 1024 * 1024;
@@ -149,6 +232,11 @@ public final class Pkcs11WireProtocol {
             this.dis = new DataInputStream(new java.io.ByteArrayInputStream(payload));
         }
 
+        /** Okunmamış byte sayısı — opsiyonel sondaki alanları (ör. AUTH sürümü) tespit için. */
+        public int remaining() {
+            try { return dis.available(); } catch (IOException e) { throw new IllegalStateException(e); }
+        }
+
         public byte readByte() {
             try { return dis.readByte(); } catch (IOException e) { throw new IllegalStateException(e); }
         }
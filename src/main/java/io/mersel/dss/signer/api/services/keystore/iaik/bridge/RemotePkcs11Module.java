@@ -3,18 +3,17 @@ package io.mersel.dss.signer.api.services.keystore.iaik.bridge;
 import io.mersel.dss.signer.api.dtos.CertificateInfoDto;
 import io.mersel.dss.signer.api.exceptions.KeyStoreException;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.exceptions.SigningCapacityException;
+import io.mersel.dss.signer.api.models.BatchSignResult;
 import io.mersel.dss.signer.api.services.keystore.iaik.Pkcs11ModulePort;
 import io.mersel.dss.signer.api.services.keystore.iaik.Pkcs11Signer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedOutputStream;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
-import java.net.InetSocketAddress;
-import java.net.Socket;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -30,10 +29,11 @@ import java.util.concurrent.atomic.AtomicLong;
  * digest→imza round-trip'i yaptığı için dar adres alanı sorun olmaz.</p>
  *
  * <h2>Bağlantı modeli</h2>
- * <p>İstek başına kısa-ömürlü loopback bağlantı (connect → auth → 1 round-trip
- * → close). HSM imzası zaten ms mertebesinde donanım round-trip'i olduğundan
- * loopback connect maliyeti ihmal edilebilir; ayrıca bu model helper restart'ı
- * (port değişimi) şeffaf yönetir — her istek güncel portu sorar.</p>
+ * <p>Uzun-ömürlü, auth edilmiş loopback bağlantı havuzu
+ * ({@link Pkcs11ConnectionPool}). Auth bağlantı başına bir kez ödenir; her
+ * imza yalnızca tek frame round-trip'idir. Helper restart'ı (port değişimi)
+ * havuz tarafından şeffaf yönetilir: eski porta bağlı bağlantılar atılır,
+ * kopan bağlantıdaki istek taze bağlantıyla tek kez tekrarlanır.</p>
  */
 public final class RemotePkcs11Module implements Pkcs11ModulePort {
 
@@ -43,18 +43,16 @@ public final class RemotePkcs11Module implements Pkcs11ModulePort {
     private static final long HEALTH_LOG_INTERVAL_MS = 5 * 60_000L;
 
     private final Pkcs11HelperProcess helper;
-    private final int connectTimeoutMs;
-    private final int readTimeoutMs;
+    private final Pkcs11ConnectionPool pool;
 
     /** Sağlık gözlemlenebilirliği — durum-geçişli, spam'lemeyen loglama için. */
     private final AtomicLong successCount = new AtomicLong();
     private final AtomicBoolean healthy = new AtomicBoolean(true);
     private volatile long lastHealthyLogAtMs = 0L;
 
-    public RemotePkcs11Module(Pkcs11HelperProcess helper, int connectTimeoutMs, int readTimeoutMs) {
+    public RemotePkcs11Module(Pkcs11HelperProcess helper, Pkcs11ConnectionPool pool) {
         this.helper = helper;
-        this.connectTimeoutMs = connectTimeoutMs;
-        this.readTimeoutMs = readTimeoutMs;
+        this.pool = pool;
     }
 
     @Override
@@ -94,7 +92,8 @@ public final class RemotePkcs11Module implements Pkcs11ModulePort {
 
     @Override
     public void destroy() {
-        LOGGER.info("Remote PKCS#11 modülü kapatılıyor (helper teardown).");
+        LOGGER.info("Remote PKCS#11 modülü kapatılıyor (bağlantı havuzu + helper teardown).");
+        pool.close();
         helper.close();
     }
 
@@ -130,6 +129,11 @@ public final class RemotePkcs11Module implements Pkcs11ModulePort {
         return helper.getPort();
     }
 
+    /** Helper'a giden uzun-ömürlü bağlantı havuzu (metrik/teşhis için). */
+    public Pkcs11ConnectionPool getConnectionPool() {
+        return pool;
+    }
+
     /** Köprü üzerinden tamamlanan başarılı IPC işlemi sayısı (ping dahil). */
     public long getSuccessfulOperationCount() {
         return successCount.get();
@@ -197,6 +201,56 @@ public final class RemotePkcs11Module implements Pkcs11ModulePort {
         }
     }
 
+    /**
+     * Toplu imza — tüm öğeler tek {@code OP_SIGN_BATCH} frame'inde taşınır;
+     * framing, auth ve bağlam geçişi toplu çağrı başına bir kez ödenir. Helper
+     * tarafında öğeler HSM session havuzuna yayılır. Stale {@code signerId}
+     * durumunda {@link #sign} ile aynı re-resolve + tek-shot retry uygulanır.
+     */
+    List<BatchSignResult> signBatch(RemotePkcs11Signer signer, List<byte[]> items,
+                                    String algName, boolean digestMode) {
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            return signBatchOnce(signer.getSignerId(), items, algName, digestMode);
+        } catch (UnknownSignerException stale) {
+            LOGGER.warn("Remote signerId stale (helper restart); signer re-resolve + toplu retry. alias='{}'",
+                signer.getAlias());
+            RemotePkcs11Signer refreshed = resolveSigner(signer.getRequestedAlias(),
+                signer.getRequestedSerial());
+            signer.refreshFrom(refreshed);
+            return signBatchOnce(signer.getSignerId(), items, algName, digestMode);
+        }
+    }
+
+    private List<BatchSignResult> signBatchOnce(int signerId, List<byte[]> items,
+                                                String algName, boolean digestMode) {
+        Pkcs11WireProtocol.PayloadWriter w = Pkcs11WireProtocol.newPayload()
+            .writeByte(Pkcs11WireProtocol.OP_SIGN_BATCH)
+            .writeInt(signerId)
+            .writeByte(digestMode ? Pkcs11WireProtocol.BATCH_MODE_DIGEST : Pkcs11WireProtocol.BATCH_MODE_SIGN)
+            .writeString(algName)
+            .writeInt(items.size());
+        for (byte[] item : items) {
+            w.writeBytes(item);
+        }
+        Pkcs11WireProtocol.PayloadReader r = call(w.toByteArray(),
+            digestMode ? "signDigestBatch" : "signBatch");
+        int count = r.readInt();
+        if (count != items.size()) {
+            throw new SignatureException("PKCS#11 helper toplu imzada " + count
+                + " sonuç döndürdü, " + items.size() + " bekleniyordu");
+        }
+        List<BatchSignResult> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(r.readByte() == Pkcs11WireProtocol.ITEM_OK
+                ? BatchSignResult.success(r.readBytes())
+                : BatchSignResult.failure(r.readString()));
+        }
+        return Collections.unmodifiableList(results);
+    }
+
     private byte[] signOnce(int signerId, byte[] data, String algName, boolean digestMode) {
         byte op = digestMode ? Pkcs11WireProtocol.OP_SIGN_DIGEST : Pkcs11WireProtocol.OP_SIGN;
         Pkcs11WireProtocol.PayloadWriter w = Pkcs11WireProtocol.newPayload()
@@ -213,34 +267,18 @@ public final class RemotePkcs11Module implements Pkcs11ModulePort {
     // ------------------------------------------------------------------
 
     /**
-     * Bağlanır, auth eder, tek frame gönderir, yanıtı okur. Status OK ise
-     * (status byte'ı tüketilmiş) {@link Pkcs11WireProtocol.PayloadReader} döner;
-     * hata ise uygun exception fırlatır.
+     * Havuzdan auth edilmiş bir bağlantı kiralar, tek frame gönderir, yanıtı
+     * okur. Status OK ise (status byte'ı tüketilmiş)
+     * {@link Pkcs11WireProtocol.PayloadReader} döner; hata ise uygun exception
+     * fırlatır.
      */
     private Pkcs11WireProtocol.PayloadReader call(byte[] requestPayload, String opName) {
-        int port = helper.getPort();
-        if (port < 0) {
+        if (helper.getPort() < 0) {
             throw new SignatureException("PKCS#11 helper hazır değil (port bilinmiyor); "
                 + opName + " yapılamıyor.");
         }
-        Socket socket = new Socket();
         try {
-            socket.connect(new InetSocketAddress(helper.getBindHost(), port), connectTimeoutMs);
-            socket.setSoTimeout(readTimeoutMs);
-            socket.setTcpNoDelay(true);
-            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
-            DataInputStream in = new DataInputStream(socket.getInputStream());
-
-            // Auth.
-            Pkcs11WireProtocol.writeFrame(out, Pkcs11WireProtocol.newPayload()
-                .writeByte(Pkcs11WireProtocol.OP_AUTH)
-                .writeString(helper.getToken())
-                .toByteArray());
-            checkStatus(Pkcs11WireProtocol.readFrame(in), opName + " (auth)");
-
-            // İstek + yanıt.
-            Pkcs11WireProtocol.writeFrame(out, requestPayload);
-            byte[] respFrame = Pkcs11WireProtocol.readFrame(in);
+            byte[] respFrame = pool.roundTrip(requestPayload, opName);
             // Helper'dan yanıt frame'i alındı → IPC taşıması sağlıklı.
             recordHealthy(opName);
             return checkStatus(respFrame, opName);
@@ -248,8 +286,6 @@ public final class RemotePkcs11Module implements Pkcs11ModulePort {
             recordUnhealthy(opName, e);
             throw new SignatureException("PKCS#11 helper IPC hatası (" + opName + "): "
                 + e.getMessage(), e);
-        } finally {
-            try { socket.close(); } catch (IOException ignored) { }
         }
     }
 
@@ -303,6 +339,10 @@ public final class RemotePkcs11Module implements Pkcs11ModulePort {
         if (message != null && message.startsWith(Pkcs11WireProtocol.UNKNOWN_SIGNER_MARKER)) {
             throw new UnknownSignerException(message);
         }
+        if (message != null && message.startsWith(Pkcs11WireProtocol.HELPER_BUSY_MARKER)) {
+            throw new SigningCapacityException(SigningCapacityException.Reason.QUEUE_FULL, 1,
+                "PKCS#11 helper meşgul (" + opName + "): " + message);
+        }
         throw new SignatureException("PKCS#11 helper hata döndürdü (" + opName + "): " + message);
     }
 
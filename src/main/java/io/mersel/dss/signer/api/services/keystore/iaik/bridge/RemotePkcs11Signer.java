@@ -2,6 +2,7 @@ package io.mersel.dss.signer.api.services.keystore.iaik.bridge;
 
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.enumerations.SignatureAlgorithm;
+import io.mersel.dss.signer.api.models.BatchSignResult;
 import io.mersel.dss.signer.api.services.keystore.iaik.Pkcs11Signer;
 
 import java.security.cert.X509Certificate;
@@ -77,6 +78,19 @@ public final class RemotePkcs11Signer implements Pkcs11Signer {
         return module.sign(this, digest, digestAlgorithm.name(), true);
     }
 
+    @Override
+    public List<BatchSignResult> signBatch(List<byte[]> dataToSign, SignatureAlgorithm signatureAlgorithm) {
+        return module.signBatch(this, dataToSign, signatureAlgorithm.name(), false);
+    }
+
+    @Override
+    public List<BatchSignResult> signDigestBatch(List<byte[]> digests, DigestAlgorithm digestAlgorithm) {
+        if (digestAlgorithm == null) {
+            throw new IllegalArgumentException("signDigestBatch: digestAlgorithm null olamaz");
+        }
+        return module.signBatch(this, digests, digestAlgorithm.name(), true);
+    }
+
     int getSignerId() {
         return signerId;
     }
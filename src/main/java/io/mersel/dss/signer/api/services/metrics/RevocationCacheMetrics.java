@@ -0,0 +1,62 @@
+package io.mersel.dss.signer.api.services.metrics;
+
+import io.mersel.dss.signer.api.services.revocation.RevocationTokenCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link RevocationTokenCache} için Micrometer/Prometheus metrikleri.
+ *
+ * <h2>Yayınlanan metrikler</h2>
+ * <ul>
+ *   <li>{@code signer_revocation_cache_size} — önbellekteki kayıt sayısı.
+ *       Etiket: {@code type} (ocsp|crl).</li>
+ *   <li>{@code signer_revocation_cache_hits_total} /
+ *       {@code signer_revocation_cache_misses_total} — istek yolunda
+ *       önbellekten karşılanan / online kaynağa giden sorgular.</li>
+ *   <li>{@code signer_revocation_cache_evictions_total} — silinen kayıtlar.
+ *       Etiket: {@code reason} (expired|capacity).</li>
+ * </ul>
+ *
+ * <p>{@code capacity} tahliyesi sürekli artıyorsa
+ * {@code REVOCATION_CACHE_MAX_ENTRIES} çalışma kümesine göre küçüktür.</p>
+ */
+@Component
+public class RevocationCacheMetrics {
+
+    private static final String SIZE = "signer.revocation.cache.size";
+    private static final String HITS = "signer.revocation.cache.hits";
+    private static final String MISSES = "signer.revocation.cache.misses";
+    private static final String EVICTIONS = "signer.revocation.cache.evictions";
+
+    public RevocationCacheMetrics(MeterRegistry registry, RevocationTokenCache cache) {
+        register(registry, cache);
+    }
+
+    static void register(MeterRegistry registry, RevocationTokenCache cache) {
+        Gauge.builder(SIZE, cache, RevocationTokenCache::getOcspSize)
+            .description("İptal yanıtı önbelleğindeki kayıt sayısı")
+            .tag("type", "ocsp")
+            .register(registry);
+        Gauge.builder(SIZE, cache, RevocationTokenCache::getCrlSize)
+            .description("İptal yanıtı önbelleğindeki kayıt sayısı")
+            .tag("type", "crl")
+            .register(registry);
+        FunctionCounter.builder(HITS, cache, c -> (double) c.getHits())
+            .description("İptal yanıtı önbelleğinden karşılanan sorgu sayısı")
+            .register(registry);
+        FunctionCounter.builder(MISSES, cache, c -> (double) c.getMisses())
+            .description("İptal yanıtı önbelleğinde bulunamayıp online kaynağa giden sorgu sayısı")
+            .register(registry);
+        FunctionCounter.builder(EVICTIONS, cache, c -> (double) c.getExpiredEvictions())
+            .description("İptal yanıtı önbelleğinden silinen kayıt sayısı")
+            .tag("reason", "expired")
+            .register(registry);
+        FunctionCounter.builder(EVICTIONS, cache, c -> (double) c.getCapacityEvictions())
+            .description("İptal yanıtı önbelleğinden silinen kayıt sayısı")
+            .tag("reason", "capacity")
+            .register(registry);
+    }
+}
@@ -0,0 +1,75 @@
+package io.mersel.dss.signer.api.services.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * İptal verisi (OCSP/CRL) ve AIA HTTP taşıması için Micrometer/Prometheus
+ * metrikleri.
+ *
+ * <h2>Yayınlanan metrikler</h2>
+ * <ul>
+ *   <li>{@code signer_revocation_http_pool_lease_seconds} — bağlantı
+ *       havuzundan bağlantı alma (lease) süresi. Yüksek p99 host başına
+ *       bağlantı sınırının ({@code REVOCATION_HTTP_MAX_CONNECTIONS_PER_HOST})
+ *       dar kaldığını gösterir.</li>
+ *   <li>{@code signer_revocation_http_request_seconds} — isteğin uçtan uca
+ *       süresi (lease + bağlantı + yanıt). Etiketler: {@code host},
+ *       {@code outcome} (success|error).</li>
+ *   <li>{@code signer_revocation_http_response_rejected_total} — boyut
+ *       sınırını ({@code REVOCATION_HTTP_MAX_RESPONSE_BYTES}) aştığı için
+ *       reddedilen yanıtlar. Etiket: {@code host}.</li>
+ * </ul>
+ */
+@Component
+public class RevocationHttpMetrics {
+
+    private static final String LEASE = "signer.revocation.http.pool.lease";
+    private static final String REQUEST = "signer.revocation.http.request";
+    private static final String REJECTED = "signer.revocation.http.response.rejected";
+
+    private final MeterRegistry registry;
+    private final Timer leaseTimer;
+
+    public RevocationHttpMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.leaseTimer = Timer.builder(LEASE)
+            .description("OCSP/CRL/AIA bağlantı havuzundan bağlantı alma süresi")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(10)))
+            .maximumExpectedValue(Duration.ofSeconds(30))
+            .register(registry);
+    }
+
+    /** Havuzdan bağlantı alma süresini kaydeder. */
+    public void recordLease(long nanos) {
+        leaseTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Tamamlanan (veya başarısız) bir OCSP/CRL/AIA isteğinin süresini kaydeder. */
+    public void recordRequest(String host, long nanos, boolean success) {
+        Timer.builder(REQUEST)
+            .description("OCSP/CRL/AIA HTTP isteği süresi")
+            .tag("host", host != null ? host : "unknown")
+            .tag("outcome", success ? "success" : "error")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(1))
+            .maximumExpectedValue(Duration.ofSeconds(60))
+            .register(registry)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Boyut sınırını aştığı için reddedilen bir yanıtı sayar. */
+    public void recordRejectedResponse(String host) {
+        Counter.builder(REJECTED)
+            .description("Boyut sınırını aştığı için reddedilen OCSP/CRL/AIA yanıtı sayısı")
+            .tag("host", host != null ? host : "unknown")
+            .register(registry)
+            .increment();
+    }
+}
@@ -0,0 +1,70 @@
+package io.mersel.dss.signer.api.services.metrics;
+
+import io.mersel.dss.signer.api.exceptions.SigningCapacityException;
+import io.mersel.dss.signer.api.models.enums.SignatureFormat;
+import io.mersel.dss.signer.api.services.concurrency.AdaptiveSigningLimiter;
+import io.mersel.dss.signer.api.services.concurrency.SigningLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * {@link AdaptiveSigningLimiter} için Micrometer/Prometheus metrikleri.
+ *
+ * <h2>Yayınlanan metrikler</h2>
+ * <ul>
+ *   <li>{@code signer_limiter_limit} — güncel eş zamanlılık limiti.</li>
+ *   <li>{@code signer_limiter_inflight} — HSM imza çağrısında olan istek sayısı.</li>
+ *   <li>{@code signer_limiter_queue_depth} — permit bekleyen istek sayısı.</li>
+ *   <li>{@code signer_limiter_latency_ms} — HSM imza gecikmesinin hareketli
+ *       ortalaması (limit kararı bu değere göre verilir).</li>
+ *   <li>{@code signer_limiter_rejections_total} — reddedilen istekler.
+ *       Etiketler: {@code reason} (queue_full|timeout), {@code format}.</li>
+ * </ul>
+ *
+ * <p>{@code SIGNING_LIMITER_ENABLED=false} iken bean sabit
+ * {@link io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter}
+ * olduğundan hiçbir metrik kaydedilmez.</p>
+ */
+@Component
+public class SigningLimiterMetrics {
+
+    private static final String LIMIT = "signer.limiter.limit";
+    private static final String IN_FLIGHT = "signer.limiter.inflight";
+    private static final String QUEUE_DEPTH = "signer.limiter.queue.depth";
+    private static final String LATENCY = "signer.limiter.latency.ms";
+    private static final String REJECTIONS = "signer.limiter.rejections";
+
+    public SigningLimiterMetrics(MeterRegistry registry, SigningLimiter signingLimiter) {
+        if (signingLimiter instanceof AdaptiveSigningLimiter) {
+            register(registry, (AdaptiveSigningLimiter) signingLimiter);
+        }
+    }
+
+    static void register(MeterRegistry registry, AdaptiveSigningLimiter limiter) {
+        Gauge.builder(LIMIT, limiter, AdaptiveSigningLimiter::getLimit)
+            .description("Adaptif imza eş zamanlılık limiti")
+            .register(registry);
+        Gauge.builder(IN_FLIGHT, limiter, AdaptiveSigningLimiter::getInFlight)
+            .description("HSM imza çağrısında olan istek sayısı")
+            .register(registry);
+        Gauge.builder(QUEUE_DEPTH, limiter, AdaptiveSigningLimiter::getQueueDepth)
+            .description("İmza permit'i bekleyen istek sayısı")
+            .register(registry);
+        Gauge.builder(LATENCY, limiter, AdaptiveSigningLimiter::getAverageLatencyMillis)
+            .description("HSM imza gecikmesinin hareketli ortalaması (ms)")
+            .register(registry);
+        for (SigningCapacityException.Reason reason : SigningCapacityException.Reason.values()) {
+            for (SignatureFormat format : SignatureFormat.values()) {
+                FunctionCounter.builder(REJECTIONS, limiter, l -> (double) l.getRejections(reason, format))
+                    .description("Kapasite nedeniyle reddedilen imza istekleri")
+                    .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                    .tag("format", format.name())
+                    .register(registry);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package io.mersel.dss.signer.api.services.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * İmza mikro-toplu dispatcher'ı
+ * ({@link io.mersel.dss.signer.api.services.concurrency.MicroBatchingSigningBackend})
+ * için Micrometer/Prometheus metrikleri.
+ *
+ * <h2>Yayınlanan metrikler</h2>
+ * <ul>
+ *   <li>{@code signer_microbatch_size} — HSM'e tek adımda giden toplu işin
+ *       öğe sayısı. Ortalama 1'e yakınsa pencere boşuna bekletiyordur.</li>
+ *   <li>{@code signer_microbatch_window_wait_seconds} — bir imza çağrısının
+ *       toplama penceresinde geçirdiği süre (kuyruğa girişten HSM'e
+ *       gönderilene kadar).</li>
+ *   <li>{@code signer_microbatch_item_retries_total} — toplu işte başarısız
+ *       olup tekil çağrıyla yeniden denenen öğeler.</li>
+ * </ul>
+ *
+ * <p>{@code SIGN_MICROBATCH_ENABLED=false} iken dispatcher yaratılmaz ve
+ * metrikler sıfırda kalır.</p>
+ */
+@Component
+public class SigningMicroBatchMetrics {
+
+    private static final String BATCH_SIZE = "signer.microbatch.size";
+    private static final String WINDOW_WAIT = "signer.microbatch.window.wait";
+    private static final String ITEM_RETRIES = "signer.microbatch.item.retries";
+
+    private final DistributionSummary batchSize;
+    private final Timer windowWait;
+    private final Counter itemRetries;
+
+    public SigningMicroBatchMetrics(MeterRegistry registry) {
+        this.batchSize = DistributionSummary.builder(BATCH_SIZE)
+            .description("Mikro-toplu imza işinin öğe sayısı")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(1.0)
+            .maximumExpectedValue(256.0)
+            .register(registry);
+        this.windowWait = Timer.builder(WINDOW_WAIT)
+            .description("İmza çağrısının mikro-toplu penceresinde bekleme süresi")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(10)))
+            .maximumExpectedValue(Duration.ofMillis(100))
+            .register(registry);
+        this.itemRetries = Counter.builder(ITEM_RETRIES)
+            .description("Toplu işte başarısız olup tekil çağrıyla yeniden denenen öğeler")
+            .register(registry);
+    }
+
+    /** HSM'e gönderilen bir toplu işin öğe sayısını kaydeder. */
+    public void recordBatch(int size) {
+        batchSize.record(size);
+    }
+
+    /** Tek bir çağrının pencerede geçirdiği süreyi kaydeder. */
+    public void recordWindowWait(long nanos) {
+        windowWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Tekil yeniden denemeye düşen öğeyi sayar. */
+    public void recordItemRetry() {
+        itemRetries.increment();
+    }
+}
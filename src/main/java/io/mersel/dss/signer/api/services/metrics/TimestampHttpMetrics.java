@@ -0,0 +1,78 @@
+package io.mersel.dss.signer.api.services.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Zaman damgası (TSA) HTTP taşıması için Micrometer/Prometheus metrikleri.
+ *
+ * <h2>Yayınlanan metrikler</h2>
+ * <ul>
+ *   <li>{@code signer_tsa_pool_lease_seconds} — bağlantı havuzundan bağlantı
+ *       alma (lease) süresi. Yüksek p99 havuzun küçük kaldığını
+ *       ({@code TS_HTTP_MAX_CONNECTIONS}) gösterir.</li>
+ *   <li>{@code signer_tsa_request_seconds} — TSA isteğinin uçtan uca süresi
+ *       (lease + bağlantı + yanıt). Etiketler: {@code host},
+ *       {@code outcome} (success|error).</li>
+ *   <li>{@code signer_tsa_throttle_wait_seconds} — isteğin TSA eş zamanlılık
+ *       sınırında ({@code TS_MAX_CONCURRENT_REQUESTS}) sıra bekleme süresi.
+ *       Sürekli yüksekse sınır veya TSA kapasitesi yetersizdir.</li>
+ * </ul>
+ *
+ * <p>İki timer da Prometheus histogram bucket'ları ile yayınlanır; quantile'lar
+ * sunucu tarafında {@code histogram_quantile} ile hesaplanır.</p>
+ */
+@Component
+public class TimestampHttpMetrics {
+
+    private static final String LEASE = "signer.tsa.pool.lease";
+    private static final String REQUEST = "signer.tsa.request";
+    private static final String THROTTLE_WAIT = "signer.tsa.throttle.wait";
+
+    private final MeterRegistry registry;
+    private final Timer leaseTimer;
+    private final Timer throttleWaitTimer;
+
+    public TimestampHttpMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.leaseTimer = Timer.builder(LEASE)
+            .description("TSA bağlantı havuzundan bağlantı alma süresi")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(10)))
+            .maximumExpectedValue(Duration.ofSeconds(30))
+            .register(registry);
+        this.throttleWaitTimer = Timer.builder(THROTTLE_WAIT)
+            .description("TSA eş zamanlılık sınırında sıra bekleme süresi")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(10)))
+            .maximumExpectedValue(Duration.ofSeconds(60))
+            .register(registry);
+    }
+
+    /** Havuzdan bağlantı alma süresini kaydeder. */
+    public void recordLease(long nanos) {
+        leaseTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Tamamlanan (veya başarısız) bir TSA isteğinin süresini kaydeder. */
+    public void recordRequest(String host, long nanos, boolean success) {
+        Timer.builder(REQUEST)
+            .description("TSA HTTP isteği süresi")
+            .tag("host", host != null ? host : "unknown")
+            .tag("outcome", success ? "success" : "error")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(1))
+            .maximumExpectedValue(Duration.ofSeconds(60))
+            .register(registry)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** TSA eş zamanlılık sınırında geçen sıra bekleme süresini kaydeder. */
+    public void recordThrottleWait(long nanos) {
+        throttleWaitTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,71 @@
+package io.mersel.dss.signer.api.services.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Asenkron XAdES-A yükseltme işleri için Micrometer/Prometheus metrikleri.
+ *
+ * <h2>Yayınlanan metrikler</h2>
+ * <ul>
+ *   <li>{@code signer_xades_upgrade_jobs_active} — kuyrukta bekleyen veya
+ *       yürüyen iş sayısı. {@code XADES_ASYNC_MAX_ACTIVE_JOBS}'a yaklaşması
+ *       worker sayısının veya TSA kapasitesinin yetmediğini gösterir.</li>
+ *   <li>{@code signer_xades_upgrade_job_attempt_seconds} — tek yükseltme
+ *       denemesinin süresi (TSA + OCSP/CRL). Etiket: {@code outcome}
+ *       (success|retry|failed).</li>
+ *   <li>{@code signer_xades_upgrade_job_completion_seconds} — işin
+ *       kabulünden XAdES-A belgesinin hazır olmasına kadar geçen süre
+ *       (kuyruk bekleme + yeniden denemeler dahil).</li>
+ * </ul>
+ */
+@Component
+public class XadesUpgradeJobMetrics {
+
+    private static final String ACTIVE = "signer.xades.upgrade.jobs.active";
+    private static final String ATTEMPT = "signer.xades.upgrade.job.attempt";
+    private static final String COMPLETION = "signer.xades.upgrade.job.completion";
+
+    private final MeterRegistry registry;
+    private final Timer completionTimer;
+
+    public XadesUpgradeJobMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.completionTimer = Timer.builder(COMPLETION)
+            .description("Yükseltme işinin kabulünden tamamlanmasına kadar geçen süre")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(100))
+            .maximumExpectedValue(Duration.ofHours(1))
+            .register(registry);
+    }
+
+    /** Aktif iş sayısı göstergesini kaydeder. */
+    public void bindActiveJobs(Supplier<Number> activeJobs) {
+        Gauge.builder(ACTIVE, activeJobs)
+            .description("Kuyrukta bekleyen veya yürüyen XAdES-A yükseltme işi sayısı")
+            .register(registry);
+    }
+
+    /** Bir yükseltme denemesinin süresini ve sonucunu kaydeder. */
+    public void recordAttempt(long nanos, String outcome) {
+        Timer.builder(ATTEMPT)
+            .description("Tek XAdES-A yükseltme denemesinin süresi")
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(10))
+            .maximumExpectedValue(Duration.ofMinutes(5))
+            .register(registry)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Tamamlanan işin kabulden itibaren geçen süresini kaydeder. */
+    public void recordCompletion(long millis) {
+        completionTimer.record(Math.max(0, millis), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,56 @@
+package io.mersel.dss.signer.api.services.metrics;
+
+import io.mersel.dss.signer.api.util.xml.XmlProcessorPool;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link XmlProcessorPool} için Micrometer/Prometheus metrikleri.
+ *
+ * <h2>Yayınlanan metrikler</h2>
+ * <ul>
+ *   <li>{@code signer_xml_pool_hits_total} / {@code signer_xml_pool_misses_total} —
+ *       thread önbelleğindeki örneğin yeniden kullanımı / yeni örnek üretimi.
+ *       Etiket: {@code pool} (document-builder|transformer).</li>
+ *   <li>{@code signer_xml_pool_hit_ratio} — başlangıçtan beri isabet oranı (0..1).
+ *       Anlık oran için {@code rate(hits) / (rate(hits) + rate(misses))} kullanılmalı.</li>
+ * </ul>
+ *
+ * <p>Miss sayısı uzun vadede kabaca istek thread'i sayısında durmalıdır; sürekli
+ * artıyorsa iç içe kullanım veya reset hatası örnekleri önbellekten düşürüyordur.</p>
+ */
+@Component
+public class XmlProcessingMetrics {
+
+    private static final String HITS = "signer.xml.pool.hits";
+    private static final String MISSES = "signer.xml.pool.misses";
+    private static final String HIT_RATIO = "signer.xml.pool.hit.ratio";
+
+    public XmlProcessingMetrics(MeterRegistry registry) {
+        register(registry, "document-builder", XmlProcessorPool.documentBuilderStats());
+        register(registry, "transformer", XmlProcessorPool.transformerStats());
+    }
+
+    private static void register(MeterRegistry registry, String pool, XmlProcessorPool.Stats stats) {
+        FunctionCounter.builder(HITS, stats, s -> (double) s.getHits())
+            .description("XML işlemci havuzunda önbellekteki örneğin yeniden kullanım sayısı")
+            .tag("pool", pool)
+            .register(registry);
+        FunctionCounter.builder(MISSES, stats, s -> (double) s.getMisses())
+            .description("XML işlemci havuzunda yeni örnek üretim sayısı")
+            .tag("pool", pool)
+            .register(registry);
+        Gauge.builder(HIT_RATIO, stats, XmlProcessingMetrics::hitRatio)
+            .description("XML işlemci havuzu isabet oranı (başlangıçtan beri)")
+            .tag("pool", pool)
+            .register(registry);
+    }
+
+    static double hitRatio(XmlProcessorPool.Stats stats) {
+        long hits = stats.getHits();
+        long total = hits + stats.getMisses();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
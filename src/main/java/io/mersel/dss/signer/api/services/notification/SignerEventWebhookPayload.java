@@ -19,6 +19,9 @@ import java.util.Map;
  *       {@code heartbeat-reinit-failed} — HSM heartbeat state transition'ları.
  *       Bu durumda {@link #heartbeat} doludur; {@link #signatureFailure}
  *       ve {@link #file} null.</li>
+ *   <li>{@code xades-upgrade-completed} / {@code xades-upgrade-failed} —
+ *       Asenkron XAdES-A yükseltme işinin sonucu. Bu durumda
+ *       {@link #xadesUpgrade} doludur; diğer sub-object'ler null.</li>
  * </ul>
  *
  * <p><b>Tasarım kararları</b>:</p>
@@ -79,6 +82,11 @@ public class SignerEventWebhookPayload {
      */
     private HeartbeatEvent heartbeat;
 
+    /**
+     * Asenkron XAdES-A yükseltme işinin sonucu. Diğer event'lerde null.
+     */
+    private XadesUpgradeEvent xadesUpgrade;
+
     /**
      * Request'e {@code x-log-*} prefix'iyle gelen korelasyon/audit
      * header'larının {@code Map<headerName, value>} kopyası. Anahtarlar
@@ -143,6 +151,14 @@ public class SignerEventWebhookPayload {
         this.heartbeat = heartbeat;
     }
 
+    public XadesUpgradeEvent getXadesUpgrade() {
+        return xadesUpgrade;
+    }
+
+    public void setXadesUpgrade(XadesUpgradeEvent xadesUpgrade) {
+        this.xadesUpgrade = xadesUpgrade;
+    }
+
     public Map<String, String> getLogHeaders() {
         return logHeaders;
     }
@@ -341,4 +357,69 @@ public class SignerEventWebhookPayload {
         public String getErrorClass() { return errorClass; }
         public void setErrorClass(String errorClass) { this.errorClass = errorClass; }
     }
+
+    /**
+     * Asenkron XAdES-A yükseltme işinin durumu. Receiver sonucu
+     * {@code GET /v1/xades/jobs/{jobId}/result} ile indirir; belge payload'a
+     * eklenmez.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class XadesUpgradeEvent {
+
+        /** İş kimliği (imza isteğinin 202 yanıtında dönen değer). */
+        private String jobId;
+
+        /** {@code "COMPLETED"} veya {@code "FAILED"}. */
+        private String status;
+
+        /** Belge tipi enum adı (örn. {@code "UblDocument"}). */
+        private String documentType;
+
+        /** Yapılan deneme sayısı. */
+        private Integer attempts;
+
+        /** İşin kabul anı. */
+        private Date createdAt;
+
+        /** İşin bittiği an. */
+        private Date completedAt;
+
+        /** XAdES-A sonucunun boyutu (COMPLETED'da). */
+        private Long resultSizeBytes;
+
+        /** Son denemenin hata kodu (FAILED'da; domain exception değilse null). */
+        private String errorCode;
+
+        /** Son denemenin hata mesajı (FAILED'da). */
+        private String errorMessage;
+
+        public XadesUpgradeEvent() {}
+
+        public String getJobId() { return jobId; }
+        public void setJobId(String jobId) { this.jobId = jobId; }
+
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+
+        public String getDocumentType() { return documentType; }
+        public void setDocumentType(String documentType) { this.documentType = documentType; }
+
+        public Integer getAttempts() { return attempts; }
+        public void setAttempts(Integer attempts) { this.attempts = attempts; }
+
+        public Date getCreatedAt() { return createdAt; }
+        public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
+
+        public Date getCompletedAt() { return completedAt; }
+        public void setCompletedAt(Date completedAt) { this.completedAt = completedAt; }
+
+        public Long getResultSizeBytes() { return resultSizeBytes; }
+        public void setResultSizeBytes(Long resultSizeBytes) { this.resultSizeBytes = resultSizeBytes; }
+
+        public String getErrorCode() { return errorCode; }
+        public void setErrorCode(String errorCode) { this.errorCode = errorCode; }
+
+        public String getErrorMessage() { return errorMessage; }
+        public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+    }
 }
@@ -6,6 +6,7 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import io.mersel.dss.signer.api.config.LogHeadersFilter;
 import io.mersel.dss.signer.api.config.SignerNotificationConfiguration;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.XadesUpgradeJob;
 import okhttp3.Call;
 import okhttp3.Callback;
 import okhttp3.MediaType;
@@ -56,6 +57,9 @@ import java.util.function.LongSupplier;
  *       olayları ({@link HeartbeatEventType}). Heartbeat scheduler thread'i
  *       request bağlamına sahip olmadığı için {@code x-log-*} alanı boş;
  *       payload yalnız HSM/scheduler sayaçlarını taşır.</li>
+ *   <li><b>{@code xades-upgrade-*}</b> — Asenkron XAdES-A yükseltme işi
+ *       bittiğinde ({@link #notifyOnXadesUpgradeJob}). Worker thread'inde
+ *       tetiklenir; {@code x-log-*} başlıkları iş kaydından gelir.</li>
  * </ul>
  *
  * <h3>Davranış sözleşmesi</h3>
@@ -92,6 +96,10 @@ public class SignerNotifier {
     /** Webhook payload schema'sında sabit event tipi (signature-failure). */
     static final String EVENT_TYPE_SIGNATURE_FAILURE = "signature-failure";
 
+    /** Asenkron XAdES-A yükseltme işi event tipleri. */
+    static final String EVENT_TYPE_XADES_UPGRADE_COMPLETED = "xades-upgrade-completed";
+    static final String EVENT_TYPE_XADES_UPGRADE_FAILED = "xades-upgrade-failed";
+
     /** Operatöre rehberlik için contentOmittedReason kodları (kararlı API). */
     static final String OMITTED_BY_CONFIG = "EXCLUDED_BY_CONFIG";
     static final String OMITTED_EXCEEDED_MAX_SIZE = "EXCEEDED_MAX_SIZE";
@@ -422,6 +430,73 @@ public class SignerNotifier {
         // Bot file upload heartbeat için ATLANIR — dosya yok.
     }
 
+    // =====================================================================
+    // PUBLIC API — XAdES-A upgrade job dispatch
+    // =====================================================================
+
+    /**
+     * Asenkron XAdES-A yükseltme işi bittiğinde fire-and-forget bildirim.
+     * Generic webhook'a her iki sonuç da gider; Slack'e yalnız başarısız
+     * işler (alarm kanalını tamamlanan işlerle doldurmamak için). Bot file
+     * upload atlanır — belge payload'a eklenmez, receiver sonucu API'den
+     * indirir.
+     *
+     * @param job   Terminal durumdaki iş ({@code COMPLETED} / {@code FAILED}).
+     * @param error Son denemenin hatası; tamamlanan işte {@code null}.
+     */
+    public void notifyOnXadesUpgradeJob(XadesUpgradeJob job, Throwable error) {
+        try {
+            doNotifyOnXadesUpgradeJob(job, error);
+        } catch (Throwable t) {
+            logger.warn("SignerNotifier xades-upgrade: beklenmedik hata, "
+                    + "bildirim atlandı (iş akışı etkilenmedi): {}", t.toString());
+        }
+    }
+
+    private void doNotifyOnXadesUpgradeJob(XadesUpgradeJob job, Throwable error) {
+        if (job == null || job.getStatus() == null || !job.getStatus().isTerminal()) {
+            return;
+        }
+        if (!config.isEnabled() || !config.isXadesUpgradeEnabled()
+                || !config.hasAnyDestination()) {
+            return;
+        }
+
+        boolean failed = job.getStatus() == XadesUpgradeJob.Status.FAILED;
+        String eventCode = failed
+                ? EVENT_TYPE_XADES_UPGRADE_FAILED : EVENT_TYPE_XADES_UPGRADE_COMPLETED;
+        Map<String, String> logHeaders = job.getLogHeaders() != null
+                ? job.getLogHeaders() : Collections.<String, String>emptyMap();
+
+        SignerEventWebhookPayload payload;
+        try {
+            payload = buildXadesUpgradePayload(job, eventCode, logHeaders);
+        } catch (Exception buildEx) {
+            logger.warn("SignerNotifier xades-upgrade payload build failed; "
+                    + "bildirim atlanıyor: {}", buildEx.getMessage());
+            return;
+        }
+
+        if (config.hasWebhookDestination()) {
+            try {
+                fireWebhookPost(config.getWebhookUrl(), serializeOrEmpty(payload),
+                        eventCode, logHeaders);
+            } catch (Exception e) {
+                logger.warn("SignerNotifier xades-upgrade webhook dispatch failed: {}",
+                        e.getMessage());
+            }
+        }
+        if (failed && config.hasSlackDestination()) {
+            try {
+                fireSimplePost(config.getSlackWebhookUrl(),
+                        buildSlackBodyForXadesUpgradeFailure(job, logHeaders), "slack");
+            } catch (Exception e) {
+                logger.warn("SignerNotifier xades-upgrade slack message dispatch failed: {}",
+                        e.getMessage());
+            }
+        }
+    }
+
     // =====================================================================
     // x-log-* MDC capture
     // =====================================================================
@@ -556,6 +631,42 @@ public class SignerNotifier {
         return payload;
     }
 
+    // =====================================================================
+    // Payload builders — XAdES-A upgrade job
+    // =====================================================================
+
+    SignerEventWebhookPayload buildXadesUpgradePayload(
+            XadesUpgradeJob job,
+            String eventCode,
+            Map<String, String> logHeaders) {
+
+        SignerEventWebhookPayload payload = new SignerEventWebhookPayload();
+        payload.setEvent(eventCode);
+        payload.setSource(resolveSource());
+        payload.setNotificationTime(clock.get());
+
+        SignerEventWebhookPayload.XadesUpgradeEvent xe =
+                new SignerEventWebhookPayload.XadesUpgradeEvent();
+        xe.setJobId(job.getJobId());
+        xe.setStatus(job.getStatus().name());
+        xe.setDocumentType(job.getDocumentType());
+        xe.setAttempts(job.getAttempts());
+        xe.setCreatedAt(new Date(job.getCreatedAt()));
+        if (job.getCompletedAt() != null) {
+            xe.setCompletedAt(new Date(job.getCompletedAt()));
+        }
+        xe.setResultSizeBytes(job.getResultSizeBytes());
+        xe.setErrorCode(job.getErrorCode());
+        xe.setErrorMessage(job.getErrorMessage());
+        payload.setXadesUpgrade(xe);
+
+        if (logHeaders != null && !logHeaders.isEmpty()) {
+            payload.setLogHeaders(new TreeMap<>(logHeaders));
+        }
+
+        return payload;
+    }
+
     // =====================================================================
     // Slack body — signature failure
     // =====================================================================
@@ -695,6 +806,47 @@ public class SignerNotifier {
         return serializeOrEmpty(root);
     }
 
+    // =====================================================================
+    // Slack body — XAdES-A upgrade failure
+    // =====================================================================
+
+    String buildSlackBodyForXadesUpgradeFailure(XadesUpgradeJob job, Map<String, String> logHeaders) {
+        Map<String, Object> root = new LinkedHashMap<>();
+
+        String title = "Mersel DSS Signer - XAdES-A UPGRADE FAILED";
+        String fallbackText = title + ": " + safeStr(job.getJobId(), "<unknown>");
+        root.put("text", fallbackText);
+
+        List<Map<String, Object>> blocks = new ArrayList<>();
+        blocks.add(slackHeader("\u26A0\uFE0F " + title));
+
+        List<Map<String, Object>> summaryFields = new ArrayList<>();
+        summaryFields.add(slackField("*İş:*\n`" + safeStr(job.getJobId(), "<unknown>") + "`"));
+        summaryFields.add(slackField("*Belge Tipi:*\n" + safeStr(job.getDocumentType(), "<unknown>")));
+        summaryFields.add(slackField("*Deneme:*\n" + job.getAttempts()));
+        if (job.getErrorCode() != null) {
+            summaryFields.add(slackField("*Hata Kodu:*\n`" + job.getErrorCode() + "`"));
+        }
+        blocks.add(slackSectionWithFields(summaryFields));
+
+        if (logHeaders != null && !logHeaders.isEmpty()) {
+            blocks.add(buildLogHeadersBlock(logHeaders));
+        }
+
+        if (job.getErrorMessage() != null && !job.getErrorMessage().isEmpty()) {
+            blocks.add(slackSectionMarkdown("*Hata Mesajı:*\n```"
+                    + truncate(job.getErrorMessage(), 1500) + "```"));
+        }
+
+        Map<String, Object> attachment = new LinkedHashMap<>();
+        attachment.put("color", SLACK_WARNING_COLOR);
+        attachment.put("blocks", blocks);
+        attachment.put("fallback", fallbackText);
+        root.put("attachments", Collections.singletonList(attachment));
+
+        return serializeOrEmpty(root);
+    }
+
     // =====================================================================
     // Slack helpers
     // =====================================================================
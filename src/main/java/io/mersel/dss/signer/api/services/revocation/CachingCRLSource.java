@@ -0,0 +1,58 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLSource;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+
+/**
+ * Süreç geneli {@link RevocationTokenCache}'teki CRL yanıtını veren, yoksa
+ * online kaynağa düşen {@link CRLSource}.
+ *
+ * <p>İstek yolunda online kaynaktan gelen yanıt da önbelleğe yazılır; aynı
+ * çift için sonraki istekler (başka imzalar ve {@link RevocationPrefetcher}
+ * dahil) onu kullanır.</p>
+ *
+ * <p>Aynı çift için eş zamanlı online istekler tek isteğe indirilir: örneğin
+ * XAdES-C seviyesi, {@link ParallelRevocationFetcher}'ın o anda sürdürdüğü
+ * isteğin sonucunu bekler ve aynı token örneğini alır.</p>
+ */
+public class CachingCRLSource implements CRLSource {
+
+    private static final long serialVersionUID = 1L;
+
+    private final CRLSource delegate;
+    private final transient RevocationTokenCache cache;
+    private final transient InFlightFetches<CRLToken> inFlight = new InFlightFetches<>();
+
+    public CachingCRLSource(CRLSource delegate, RevocationTokenCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public CRLToken getRevocationToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+        CRLToken token = cache.getCrl(certificateToken, issuerCertificateToken);
+        if (token != null) {
+            return token;
+        }
+        return refresh(certificateToken, issuerCertificateToken);
+    }
+
+    /**
+     * Önbelleğe bakmadan online kaynaktan yanıt çeker ve önbelleğe yazar.
+     * Aynı çift için süren bir istek varsa onun sonucunu döner.
+     *
+     * @return online yanıt; CRL dağıtım noktası yoksa {@code null}
+     */
+    public CRLToken refresh(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+        return inFlight.fetch(RevocationTokenCache.key(certificateToken, issuerCertificateToken), () -> {
+            CRLToken token = delegate.getRevocationToken(certificateToken, issuerCertificateToken);
+            cache.putCrl(certificateToken, issuerCertificateToken, token);
+            return token;
+        });
+    }
+
+    public RevocationTokenCache getCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,58 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPSource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+
+/**
+ * Süreç geneli {@link RevocationTokenCache}'teki OCSP yanıtını veren, yoksa
+ * online kaynağa düşen {@link OCSPSource}.
+ *
+ * <p>İstek yolunda online kaynaktan gelen yanıt da önbelleğe yazılır; aynı
+ * çift için sonraki istekler (başka imzalar ve {@link RevocationPrefetcher}
+ * dahil) onu kullanır.</p>
+ *
+ * <p>Aynı çift için eş zamanlı online istekler tek isteğe indirilir: örneğin
+ * XAdES-C seviyesi, {@link ParallelRevocationFetcher}'ın o anda sürdürdüğü
+ * isteğin sonucunu bekler ve aynı token örneğini alır.</p>
+ */
+public class CachingOCSPSource implements OCSPSource {
+
+    private static final long serialVersionUID = 1L;
+
+    private final OCSPSource delegate;
+    private final transient RevocationTokenCache cache;
+    private final transient InFlightFetches<OCSPToken> inFlight = new InFlightFetches<>();
+
+    public CachingOCSPSource(OCSPSource delegate, RevocationTokenCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public OCSPToken getRevocationToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+        OCSPToken token = cache.getOcsp(certificateToken, issuerCertificateToken);
+        if (token != null) {
+            return token;
+        }
+        return refresh(certificateToken, issuerCertificateToken);
+    }
+
+    /**
+     * Önbelleğe bakmadan online kaynaktan yanıt çeker ve önbelleğe yazar.
+     * Aynı çift için süren bir istek varsa onun sonucunu döner.
+     *
+     * @return online yanıt; OCSP erişim noktası yoksa {@code null}
+     */
+    public OCSPToken refresh(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+        return inFlight.fetch(RevocationTokenCache.key(certificateToken, issuerCertificateToken), () -> {
+            OCSPToken token = delegate.getRevocationToken(certificateToken, issuerCertificateToken);
+            cache.putOcsp(certificateToken, issuerCertificateToken, token);
+            return token;
+        });
+    }
+
+    public RevocationTokenCache getCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,57 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Aynı anahtar için eş zamanlı çağrıları tek bir online isteğe indirir.
+ *
+ * <p>İlk çağıran isteği kendi thread'inde yapar; o sırada aynı anahtarla
+ * gelenler sonucu (veya hatayı) bekler. İstek bitince kayıt silinir; sonraki
+ * çağrı yeniden online gider. Bekleyen hiçbir zaman başka bir bekleyeni
+ * beklemediği için kilitlenme oluşmaz.</p>
+ */
+final class InFlightFetches<T> {
+
+    private final Map<String, CompletableFuture<T>> inFlight = new ConcurrentHashMap<>();
+
+    T fetch(String key, Supplier<T> fetcher) {
+        CompletableFuture<T> mine = new CompletableFuture<>();
+        CompletableFuture<T> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return join(existing);
+        }
+        try {
+            T result = fetcher.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    int size() {
+        return inFlight.size();
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
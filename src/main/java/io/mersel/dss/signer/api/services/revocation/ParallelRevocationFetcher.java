@@ -0,0 +1,228 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.TimestampBinary;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.model.x509.X500PrincipalHelper;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.spi.validation.CertificateVerifier;
+import eu.europa.esig.dss.spi.x509.ListCertificateSource;
+import eu.europa.esig.dss.spi.x509.tsp.TSPSource;
+import io.mersel.dss.signer.api.models.configurations.SignatureServiceConfiguration;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cms.CMSSignedData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * XAdES seviye yükseltmesindeki OCSP/CRL isteklerini, istek thread'i zaman
+ * damgası beklerken sınırlı bir G/Ç havuzunda önceden başlatır.
+ *
+ * <h2>Neden var?</h2>
+ * <p>DSS {@code XAdESLevelA} T → C → XL → A adımlarını sırayla yürütür:
+ * imza zaman damgası gelmeden C seviyesi iptal verisini istemez. Bu sınıf
+ * imza zincirinin iptal verisini T adımıyla aynı anda, TSA zincirininkini
+ * ise zaman damgası yanıtı gelir gelmez çeker; C seviyesine gelindiğinde
+ * yanıtlar {@link RevocationTokenCache}'tedir ya da {@link CachingOCSPSource}
+ * / {@link CachingCRLSource} süren isteğe katılır. Arşiv zaman damgası XL'den
+ * sonra sırasıyla alınmaya devam eder.</p>
+ *
+ * <h2>Çıktı</h2>
+ * <p>XML'i yine DSS üretir; bu sınıf yalnızca önbelleği ısıtır. C seviyesi
+ * aynı (sertifika, issuer) çifti için sıralı akıştaki token'ı alır, çıktı
+ * sıralı akışla bayt bayt aynıdır.</p>
+ *
+ * <h2>Sınırlar</h2>
+ * <ul>
+ *   <li>Havuz {@code XADES_UPGRADE_IO_THREADS} thread ve
+ *       {@code XADES_UPGRADE_IO_QUEUE_SIZE} kuyrukla sınırlıdır. Kuyruk
+ *       doluysa iş atlanır; C seviyesi yanıtı her zamanki gibi kendisi
+ *       çeker.</li>
+ *   <li>Hatalar yutulur (DEBUG); önceden çekme başarısızsa istek yolu
+ *       değişmez.</li>
+ *   <li>Önce OCSP, OCSP yanıtı yoksa CRL istenir (DSS ile aynı sıra).</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty(name = "XADES_UPGRADE_PARALLEL_IO_ENABLED", havingValue = "true", matchIfMissing = true)
+public class ParallelRevocationFetcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelRevocationFetcher.class);
+
+    private final CachingOCSPSource ocspSource;
+    private final CachingCRLSource crlSource;
+    private final ListCertificateSource trustedSources;
+    private final ThreadPoolExecutor executor;
+
+    @Autowired
+    public ParallelRevocationFetcher(CertificateVerifier certificateVerifier,
+                                     SignatureServiceConfiguration config) {
+        this(certificateVerifier.getOcspSource() instanceof CachingOCSPSource
+                        ? (CachingOCSPSource) certificateVerifier.getOcspSource() : null,
+                certificateVerifier.getCrlSource() instanceof CachingCRLSource
+                        ? (CachingCRLSource) certificateVerifier.getCrlSource() : null,
+                certificateVerifier.getTrustedCertSources(),
+                config.getXadesUpgradeIoThreads(),
+                config.getXadesUpgradeIoQueueSize());
+    }
+
+    ParallelRevocationFetcher(CachingOCSPSource ocspSource, CachingCRLSource crlSource,
+                              ListCertificateSource trustedSources, int threads, int queueSize) {
+        this.ocspSource = ocspSource;
+        this.crlSource = crlSource;
+        this.trustedSources = trustedSources != null ? trustedSources : new ListCertificateSource();
+        int poolSize = Math.max(1, threads);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                r -> {
+                    Thread t = new Thread(r, "xades-upgrade-io-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        if (ocspSource == null && crlSource == null) {
+            LOGGER.warn("Doğrulayıcıda önbellekli OCSP/CRL kaynağı yok; XAdES yükseltmesinde iptal verisi "
+                    + "paralel çekilmeyecek.");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Zincirdeki her (sertifika, issuer) çifti için iptal verisini havuzda
+     * çekmeye başlar ve beklemeden döner. Issuer önce zincirde, sonra güvenilir
+     * sertifika kaynağında aranır (TSA token'ları çoğunlukla yalnızca TSA
+     * sertifikasını taşır).
+     *
+     * @param chain sertifika zinciri (sıra önemsiz); güvenilir, kendinden
+     *              imzalı ve issuer'ı bulunamayan sertifikalar atlanır
+     * @return başlatılan işler (test ve teşhis için); havuz doluysa eksik olabilir
+     */
+    public List<Future<?>> fetchAsync(Collection<CertificateToken> chain) {
+        if (ocspSource == null && crlSource == null || chain == null || chain.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Future<?>> started = new ArrayList<>();
+        for (CertificateToken[] pair : issuerPairs(chain)) {
+            try {
+                started.add(executor.submit(() -> fetch(pair[0], pair[1])));
+            } catch (RejectedExecutionException e) {
+                LOGGER.debug("G/Ç havuzu dolu, iptal verisi istek yolunda çekilecek. Sertifika: {}",
+                        pair[0].getDSSIdAsString());
+            }
+        }
+        return started;
+    }
+
+    /**
+     * Zaman damgası yanıtı gelir gelmez TSA sertifika zincirinin iptal
+     * verisini çekmeye başlayan {@link TSPSource} sarmalayıcısı.
+     */
+    public TSPSource decorate(TSPSource delegate) {
+        if (ocspSource == null && crlSource == null) {
+            return delegate;
+        }
+        return new PrefetchingTSPSource(delegate, this);
+    }
+
+    private void fetch(CertificateToken certificate, CertificateToken issuer) {
+        try {
+            if (ocspSource != null && ocspSource.getRevocationToken(certificate, issuer) != null) {
+                return;
+            }
+            if (crlSource != null) {
+                crlSource.getRevocationToken(certificate, issuer);
+            }
+        } catch (Exception e) {
+            LOGGER.debug("İptal verisi paralel çekilemedi, istek yolunda tekrar denenecek. Sertifika: {}, hata: {}",
+                    certificate.getDSSIdAsString(), e.getMessage());
+        }
+    }
+
+    private List<CertificateToken[]> issuerPairs(Collection<CertificateToken> chain) {
+        List<CertificateToken[]> pairs = new ArrayList<>();
+        for (CertificateToken certificate : chain) {
+            if (certificate.isSelfSigned() || trustedSources.isTrusted(certificate)) {
+                continue;
+            }
+            CertificateToken issuer = findIssuer(certificate, chain);
+            if (issuer != null) {
+                pairs.add(new CertificateToken[]{certificate, issuer});
+            }
+        }
+        return pairs;
+    }
+
+    private CertificateToken findIssuer(CertificateToken certificate, Collection<CertificateToken> chain) {
+        for (CertificateToken candidate : chain) {
+            if (candidate != certificate && certificate.isSignedBy(candidate)) {
+                return candidate;
+            }
+        }
+        for (CertificateToken candidate : trustedSources.getBySubject(
+                new X500PrincipalHelper(certificate.getIssuerX500Principal()))) {
+            if (certificate.isSignedBy(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /** Zaman damgası token'ına gömülü sertifikalar; okunamazsa boş liste. */
+    static List<CertificateToken> embeddedCertificates(TimestampBinary timestamp) {
+        if (timestamp == null) {
+            return Collections.emptyList();
+        }
+        try {
+            List<CertificateToken> certificates = new ArrayList<>();
+            for (X509CertificateHolder holder : new CMSSignedData(timestamp.getBytes()).getCertificates()
+                    .getMatches(null)) {
+                certificates.add(DSSUtils.loadCertificate(holder.getEncoded()));
+            }
+            return certificates;
+        } catch (Exception e) {
+            LOGGER.debug("Zaman damgası sertifikaları okunamadı: {}", e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    private static final class PrefetchingTSPSource implements TSPSource {
+
+        private static final long serialVersionUID = 1L;
+
+        private final TSPSource delegate;
+        private final transient ParallelRevocationFetcher fetcher;
+
+        PrefetchingTSPSource(TSPSource delegate, ParallelRevocationFetcher fetcher) {
+            this.delegate = delegate;
+            this.fetcher = fetcher;
+        }
+
+        @Override
+        public TimestampBinary getTimeStampResponse(DigestAlgorithm digestAlgorithm, byte[] digest) {
+            TimestampBinary timestamp = delegate.getTimeStampResponse(digestAlgorithm, digest);
+            fetcher.fetchAsync(embeddedCertificates(timestamp));
+            return timestamp;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.service.http.commons.CommonsDataLoader;
+import io.mersel.dss.signer.api.services.http.HttpRoutes;
+import io.mersel.dss.signer.api.services.http.InstrumentedConnectionManager;
+import io.mersel.dss.signer.api.services.http.SizeLimitedResponseHandler;
+import io.mersel.dss.signer.api.services.metrics.RevocationHttpMetrics;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequest;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.impl.DefaultHttpRequestRetryStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * OCSP, CRL ve AIA isteklerinin tamamının geçtiği, bağlantı havuzunu
+ * istekler arasında paylaşan {@link CommonsDataLoader}.
+ *
+ * <p>DSS'in varsayılan kaynakları ({@code OnlineOCSPSource},
+ * {@code OnlineCRLSource}, {@code DefaultAIASource}) kendi loader'larını kurar
+ * ve her istekte yeni bir {@code CloseableHttpClient} açıp kapatır. Bu sınıf
+ * {@code PooledTimestampDataLoader} ile aynı şekilde client'ı host başına bir
+ * kez kurar ve saklar; aynı OCSP responder'ına / CRL dağıtım noktasına giden
+ * istekler keep-alive bağlantıları yeniden kullanır.</p>
+ *
+ * <ul>
+ *   <li>Host başına eş zamanlı bağlantı {@code setConnectionsMaxPerRoute} ile
+ *       sınırlıdır; sınır doluyken istek {@code setTimeoutConnectionRequest}
+ *       kadar bekler, sonra hata alır. Yavaş bir CRL sunucusu diğer host'ların
+ *       havuzunu tüketmez.</li>
+ *   <li>Yanıt gövdesi {@link #setMaxResponseBytes(long)} ile sınırlıdır
+ *       ({@link SizeLimitedResponseHandler}).</li>
+ *   <li>Bağlantı kurulamama gibi geçici G/Ç hataları
+ *       {@link #setMaxRetries(int)} kez yeniden denenir.</li>
+ *   <li>{@link RevocationHttpMetrics} verilirse lease ve istek süreleri host
+ *       etiketiyle histogram olarak kaydedilir.</li>
+ * </ul>
+ *
+ * <p>İçerik tipi OCSP POST istekleri için {@code application/ocsp-request}'tir;
+ * gövdesiz GET isteklerinde (CRL, AIA, GET ile OCSP) {@code Content-Type}
+ * başlığı gönderilmez. Ayarlar client ilk istekte kurulduğundan ondan önce
+ * yapılmalıdır. {@link #close()} tüm havuzları kapatır.</p>
+ */
+public class PooledRevocationDataLoader extends CommonsDataLoader implements Closeable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PooledRevocationDataLoader.class);
+
+    /** OCSP POST isteklerinin içerik tipi (RFC 6960 Ek A). */
+    public static final String OCSP_CONTENT_TYPE = "application/ocsp-request";
+
+    private final transient RevocationHttpMetrics metrics;
+    private final transient Map<String, CloseableHttpClient> clients = new ConcurrentHashMap<>();
+
+    private int idleEvictionMillis = 30_000;
+    private long maxResponseBytes;
+    private int maxRetries;
+
+    /**
+     * @param metrics havuz ve istek metrikleri; {@code null} → metrik yok
+     */
+    public PooledRevocationDataLoader(RevocationHttpMetrics metrics) {
+        super(OCSP_CONTENT_TYPE);
+        this.metrics = metrics;
+        setMaxRetries(0);
+    }
+
+    /**
+     * Boşta kalan bağlantıların kapatılacağı süre (ms). {@code <=0} ise
+     * yalnızca süresi dolmuş (keep-alive/TTL) bağlantılar temizlenir.
+     */
+    public void setIdleEvictionMillis(int idleEvictionMillis) {
+        this.idleEvictionMillis = idleEvictionMillis;
+    }
+
+    public int getIdleEvictionMillis() {
+        return idleEvictionMillis;
+    }
+
+    /**
+     * Kabul edilen azami yanıt gövdesi (bayt). {@code <=0} → sınırsız.
+     */
+    public void setMaxResponseBytes(long maxResponseBytes) {
+        this.maxResponseBytes = maxResponseBytes;
+        setHttpClientResponseHandler(new SizeLimitedResponseHandler(maxResponseBytes));
+    }
+
+    public long getMaxResponseBytes() {
+        return maxResponseBytes;
+    }
+
+    /**
+     * Geçici G/Ç hatalarında yeniden deneme sayısı. {@code 0} → yeniden
+     * deneme yok. Denemeler arası bekleme 200 ms'dir.
+     */
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = Math.max(0, maxRetries);
+        setRetryStrategy(new DefaultHttpRequestRetryStrategy(this.maxRetries, TimeValue.ofMilliseconds(200)));
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Host başına önbellekteki client'ı döner; yoksa DSS'in builder'ı ile bir
+     * kez kurar.
+     */
+    @Override
+    protected synchronized CloseableHttpClient getHttpClient(String url) {
+        String key = HttpRoutes.routeKey(url);
+        CloseableHttpClient client = clients.get(key);
+        if (client == null) {
+            HttpClientBuilder builder = getHttpClientBuilder(url).evictExpiredConnections();
+            if (idleEvictionMillis > 0) {
+                builder.evictIdleConnections(TimeValue.ofMilliseconds(idleEvictionMillis));
+            }
+            client = builder.build();
+            clients.put(key, client);
+            LOGGER.info("OCSP/CRL/AIA HTTP bağlantı havuzu oluşturuldu: {} (maks. {} bağlantı, boşta kapatma {} ms)",
+                    key, getConnectionsMaxPerRoute(), idleEvictionMillis);
+        }
+        return client;
+    }
+
+    /** DSS'in kurduğu havuzu lease süresini ölçen bir sarmalayıcıyla döner. */
+    @Override
+    protected HttpClientConnectionManager getConnectionManager() {
+        return InstrumentedConnectionManager.wrap(super.getConnectionManager(),
+                metrics != null ? metrics::recordLease : null);
+    }
+
+    /** GET isteğinin gövdesi yoktur; OCSP içerik tipi CRL/AIA sunucularına gönderilmez. */
+    @Override
+    protected synchronized HttpGet getHttpRequest(String url) throws URISyntaxException {
+        HttpGet request = super.getHttpRequest(url);
+        request.removeHeaders(HttpHeaders.CONTENT_TYPE);
+        return request;
+    }
+
+    @Override
+    protected byte[] execute(CloseableHttpClient client, HttpUriRequest request) throws IOException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            byte[] response = super.execute(client, request);
+            success = true;
+            return response;
+        } catch (SizeLimitedResponseHandler.ResponseTooLargeException e) {
+            LOGGER.warn("İptal/AIA yanıtı boyut sınırını aştı, reddedildi. URL: {}, {}",
+                    request.getRequestUri(), e.getMessage());
+            if (metrics != null) {
+                metrics.recordRejectedResponse(HttpRoutes.hostOf(request));
+            }
+            throw e;
+        } finally {
+            if (metrics != null) {
+                metrics.recordRequest(HttpRoutes.hostOf(request), System.nanoTime() - start, success);
+            }
+        }
+    }
+
+    /** Paylaşılan client DSS'in her istekten sonraki kapatma çağrısında açık bırakılır. */
+    @Override
+    protected void closeQuietly(HttpUriRequestBase httpRequest, CloseableHttpClient client) {
+        // Paylaşılan client bilerek açık bırakılır.
+    }
+
+    /** Tüm host havuzlarını kapatır. */
+    @Override
+    public void close() {
+        for (CloseableHttpClient client : clients.values()) {
+            client.close(CloseMode.GRACEFUL);
+        }
+        clients.clear();
+    }
+}
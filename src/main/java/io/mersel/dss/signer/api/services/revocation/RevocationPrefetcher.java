@@ -0,0 +1,185 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.enumerations.CertificateStatus;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.validation.CertificateVerifier;
+import eu.europa.esig.dss.spi.x509.revocation.RevocationToken;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.configurations.SignatureServiceConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * İmza sertifika zincirinin OCSP/CRL yanıtlarını arka planda çeken
+ * zamanlayıcı.
+ *
+ * <h2>Neden var?</h2>
+ * <p>Servis, yeniden başlatmalar arasında değişmeyen tek bir
+ * {@link SigningMaterial} ile imzalar. Buna rağmen her XAdES-C/XL/A
+ * yükseltmesi istek sırasında OCSP/CRL sunucusuna gidiyordu; iptal verisi
+ * gecikmesi doğrudan yanıt süresine ekleniyordu. Bu sınıf zincirdeki her
+ * (sertifika, issuer) çifti için yanıtı istekten önce çekip
+ * {@link RevocationTokenCache}'e koyar; {@link CachingOCSPSource} /
+ * {@link CachingCRLSource} istek yolunda sıcak yanıtı verir.</p>
+ *
+ * <h2>Davranış</h2>
+ * <ul>
+ *   <li>Her {@code REVOCATION_PREFETCH_INTERVAL_MS}'de bir zincir taranır;
+ *       önbellekteki yanıtı yenileme zamanı gelmiş çiftler yeniden çekilir
+ *       (bkz. {@link RevocationTokenCache} tazelik kuralı).</li>
+ *   <li>DSS'in yükleme stratejisiyle aynı sıra izlenir: önce OCSP, OCSP
+ *       yanıtı alınamazsa CRL.</li>
+ *   <li>Kendinden imzalı kök sertifika ve zincirde issuer'ı bulunmayan
+ *       sertifika atlanır; onlar için istek yolu değişmez.</li>
+ *   <li>Hatalar loglanır ve bir sonraki turda tekrar denenir; önbellek boşsa
+ *       istek yolu online kaynağa düşer.</li>
+ * </ul>
+ *
+ * <p>Yavaş bir OCSP sunucusu Spring'in ortak zamanlayıcı thread'ini (HSM
+ * heartbeat'i) bekletmesin diye kendi daemon thread'inde çalışır.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "REVOCATION_PREFETCH_ENABLED", havingValue = "true", matchIfMissing = true)
+public class RevocationPrefetcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RevocationPrefetcher.class);
+
+    private final List<CertificateToken[]> pairs;
+    private final CachingOCSPSource ocspSource;
+    private final CachingCRLSource crlSource;
+    private final long intervalMs;
+
+    private ScheduledExecutorService scheduler;
+
+    public RevocationPrefetcher(SigningMaterial signingMaterial,
+                                CertificateVerifier certificateVerifier,
+                                SignatureServiceConfiguration config) {
+        this(signingMaterial.getCertificateTokens(),
+                certificateVerifier.getOcspSource() instanceof CachingOCSPSource
+                        ? (CachingOCSPSource) certificateVerifier.getOcspSource() : null,
+                certificateVerifier.getCrlSource() instanceof CachingCRLSource
+                        ? (CachingCRLSource) certificateVerifier.getCrlSource() : null,
+                config.getRevocationPrefetchIntervalMs());
+    }
+
+    RevocationPrefetcher(List<CertificateToken> chain,
+                         CachingOCSPSource ocspSource,
+                         CachingCRLSource crlSource,
+                         long intervalMs) {
+        this.pairs = issuerPairs(chain);
+        this.ocspSource = ocspSource;
+        this.crlSource = crlSource;
+        this.intervalMs = Math.max(1000L, intervalMs);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (ocspSource == null && crlSource == null) {
+            LOGGER.warn("İptal verisi ön yüklemesi etkin ama doğrulayıcıda önbellekli OCSP/CRL kaynağı yok; "
+                    + "zamanlayıcı başlatılmadı.");
+            return;
+        }
+        if (pairs.isEmpty()) {
+            LOGGER.info("İmza sertifika zincirinde issuer'ı bilinen sertifika yok; iptal verisi ön yüklemesi atlandı.");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "revocation-prefetcher");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, intervalMs, TimeUnit.MILLISECONDS);
+        LOGGER.info("İptal verisi ön yüklemesi başlatıldı. Sertifika sayısı: {}, aralık: {} ms",
+                pairs.size(), intervalMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Yenileme zamanı gelmiş tüm çiftleri çeker. Zamanlayıcı dışında da
+     * (örn. test) çağrılabilir.
+     */
+    public void refresh() {
+        for (CertificateToken[] pair : pairs) {
+            try {
+                refreshPair(pair[0], pair[1]);
+            } catch (Exception e) {
+                // Zamanlayıcı thread'i ölmesin; sonraki turda tekrar denenir.
+                LOGGER.warn("İptal verisi ön yüklemesi başarısız. Sertifika: {}, hata: {}",
+                        pair[0].getSubject().getPrettyPrintRFC2253(), e.getMessage());
+                LOGGER.debug("Hata detayı", e);
+            }
+        }
+    }
+
+    private void refreshPair(CertificateToken certificate, CertificateToken issuer) {
+        RevocationTokenCache cache = ocspSource != null ? ocspSource.getCache() : crlSource.getCache();
+        if (ocspSource != null) {
+            if (!cache.needsOcspRefresh(certificate, issuer)) {
+                return;
+            }
+            RevocationToken<?> ocsp = ocspSource.refresh(certificate, issuer);
+            if (ocsp != null) {
+                logFetched("OCSP", certificate, ocsp);
+                return;
+            }
+        }
+        if (crlSource != null && cache.needsCrlRefresh(certificate, issuer)) {
+            RevocationToken<?> crl = crlSource.refresh(certificate, issuer);
+            if (crl != null) {
+                logFetched("CRL", certificate, crl);
+            }
+        }
+    }
+
+    private static void logFetched(String type, CertificateToken certificate, RevocationToken<?> token) {
+        if (token.getStatus() == CertificateStatus.REVOKED) {
+            LOGGER.error("{} yanıtına göre imza zincirindeki sertifika İPTAL EDİLMİŞ: {} (iptal tarihi: {})",
+                    type, certificate.getSubject().getPrettyPrintRFC2253(), token.getRevocationDate());
+        } else {
+            LOGGER.debug("{} yanıtı önceden çekildi. Sertifika: {}, durum: {}, thisUpdate: {}, nextUpdate: {}",
+                    type, certificate.getSubject().getPrettyPrintRFC2253(), token.getStatus(),
+                    token.getThisUpdate(), token.getNextUpdate());
+        }
+    }
+
+    /**
+     * Zincirdeki her sertifikayı zincir içindeki issuer'ı ile eşler.
+     * Kendinden imzalı sertifikalar (kök) ve issuer'ı zincirde olmayanlar
+     * listeye girmez.
+     */
+    static List<CertificateToken[]> issuerPairs(List<CertificateToken> chain) {
+        if (chain == null || chain.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<CertificateToken[]> result = new ArrayList<>();
+        for (CertificateToken certificate : chain) {
+            if (certificate.isSelfSigned()) {
+                continue;
+            }
+            for (CertificateToken candidate : chain) {
+                if (candidate != certificate && certificate.isSignedBy(candidate)) {
+                    result.add(new CertificateToken[]{certificate, candidate});
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,276 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.x509.revocation.RevocationToken;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Süreç genelinde paylaşılan, boyutu sınırlı OCSP/CRL yanıt önbelleği.
+ *
+ * <p>Anahtar (sertifika, issuer) çiftidir; aynı çift için tüm imzalar aynı
+ * token örneğini alır. Bir yanıt yalnızca DSS'in {@code RevocationDataVerifier}'ında
+ * ayarlı tazelik kuralını geçeceği sürece verilir:</p>
+ * <ul>
+ *   <li>Çekildiği anda tazelik penceresi içinde olan yanıt (tipik OCSP)
+ *       {@code thisUpdate + maxFreshness - safetyMargin} anına kadar
+ *       verilir.</li>
+ *   <li>Çekildiği anda zaten pencere dışında olan yanıt (saatler önce
+ *       yayımlanmış CRL) yeniden çekmek aynı yanıtı getireceğinden
+ *       {@code nextUpdate - safetyMargin} anına kadar verilir; {@code nextUpdate}
+ *       yoksa çekilme anından itibaren {@code maxFreshness - safetyMargin}.</li>
+ *   <li>Her iki durumda da {@code nextUpdate} geçmiş yanıt verilmez.</li>
+ * </ul>
+ *
+ * <h2>Tahliye</h2>
+ * <ul>
+ *   <li>Süresi dolan kayıt okunduğu anda silinir ({@code expired}).</li>
+ *   <li>Tür başına kayıt sayısı {@code maxEntries}'i aşarsa önce süresi
+ *       dolanlar, yetmezse süresi en erken dolacak kayıtlar silinir
+ *       ({@code capacity}).</li>
+ * </ul>
+ *
+ * <p>Yanıt, verilebilir sürenin bitişinden {@code refreshAhead} önce
+ * "yenilenmeli" sayılır; {@link RevocationPrefetcher} bu sınıfa bakarak
+ * hangi çifti ne zaman yenileyeceğine karar verir. İmzası doğrulanamayan
+ * yanıtlar önbelleğe alınmaz.</p>
+ *
+ * <p>Aynı token örneği eş zamanlı isteklere paylaştırılır; DSS'in bellek içi
+ * kaynakları ({@code ListRevocationSource}) da aynı şekilde çalışır.</p>
+ */
+public class RevocationTokenCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RevocationTokenCache.class);
+
+    /** Tür (OCSP/CRL) başına varsayılan azami kayıt sayısı. */
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    private final long maxFreshnessMs;
+    private final long safetyMarginMs;
+    private final long refreshAheadMs;
+    private final int maxEntries;
+    private final LongSupplier clock;
+
+    private final Map<String, Entry<OCSPToken>> ocspEntries = new ConcurrentHashMap<>();
+    private final Map<String, Entry<CRLToken>> crlEntries = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong expiredEvictions = new AtomicLong();
+    private final AtomicLong capacityEvictions = new AtomicLong();
+
+    /**
+     * @param maxFreshnessMs  DSS doğrulayıcısındaki azami iptal verisi tazeliği (ms)
+     * @param safetyMarginMs  Sınıra bu kadar kala yanıt artık verilmez (ms)
+     * @param refreshAheadMs  Verilebilir sürenin bitişinden bu kadar önce yenilenir (ms)
+     */
+    public RevocationTokenCache(long maxFreshnessMs, long safetyMarginMs, long refreshAheadMs) {
+        this(maxFreshnessMs, safetyMarginMs, refreshAheadMs, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param maxEntries Tür (OCSP/CRL) başına azami kayıt sayısı
+     */
+    public RevocationTokenCache(long maxFreshnessMs, long safetyMarginMs, long refreshAheadMs, int maxEntries) {
+        this(maxFreshnessMs, safetyMarginMs, refreshAheadMs, maxEntries, System::currentTimeMillis);
+    }
+
+    RevocationTokenCache(long maxFreshnessMs, long safetyMarginMs, long refreshAheadMs, LongSupplier clock) {
+        this(maxFreshnessMs, safetyMarginMs, refreshAheadMs, DEFAULT_MAX_ENTRIES, clock);
+    }
+
+    RevocationTokenCache(long maxFreshnessMs, long safetyMarginMs, long refreshAheadMs, int maxEntries,
+                         LongSupplier clock) {
+        this.maxFreshnessMs = maxFreshnessMs;
+        this.safetyMarginMs = Math.max(0, safetyMarginMs);
+        this.refreshAheadMs = Math.max(0, refreshAheadMs);
+        this.maxEntries = Math.max(1, maxEntries);
+        this.clock = clock;
+    }
+
+    /** Verilebilir OCSP yanıtını döner; yoksa {@code null}. */
+    public OCSPToken getOcsp(CertificateToken certificate, CertificateToken issuer) {
+        return get(ocspEntries, certificate, issuer);
+    }
+
+    /** Verilebilir CRL yanıtını döner; yoksa {@code null}. */
+    public CRLToken getCrl(CertificateToken certificate, CertificateToken issuer) {
+        return get(crlEntries, certificate, issuer);
+    }
+
+    /** @return yanıt önbelleğe alındıysa {@code true} */
+    public boolean putOcsp(CertificateToken certificate, CertificateToken issuer, OCSPToken token) {
+        return put(ocspEntries, certificate, issuer, token);
+    }
+
+    /** @return yanıt önbelleğe alındıysa {@code true} */
+    public boolean putCrl(CertificateToken certificate, CertificateToken issuer, CRLToken token) {
+        return put(crlEntries, certificate, issuer, token);
+    }
+
+    /** Çift için OCSP yanıtı yoksa veya yenileme zamanı geldiyse {@code true}. */
+    public boolean needsOcspRefresh(CertificateToken certificate, CertificateToken issuer) {
+        return needsRefresh(ocspEntries.get(key(certificate, issuer)));
+    }
+
+    /** Çift için CRL yanıtı yoksa veya yenileme zamanı geldiyse {@code true}. */
+    public boolean needsCrlRefresh(CertificateToken certificate, CertificateToken issuer) {
+        return needsRefresh(crlEntries.get(key(certificate, issuer)));
+    }
+
+    /** Önbellekteki OCSP kaydı sayısı (henüz silinmemiş süresi dolmuşlar dahil). */
+    public int getOcspSize() {
+        return ocspEntries.size();
+    }
+
+    /** Önbellekteki CRL kaydı sayısı (henüz silinmemiş süresi dolmuşlar dahil). */
+    public int getCrlSize() {
+        return crlEntries.size();
+    }
+
+    /** İstek yolunda önbellekten karşılanan sorgu sayısı. */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /** İstek yolunda önbellekte bulunamayıp online kaynağa giden sorgu sayısı. */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /** Süresi dolduğu için silinen kayıt sayısı. */
+    public long getExpiredEvictions() {
+        return expiredEvictions.get();
+    }
+
+    /** Kapasite aşıldığı için silinen kayıt sayısı. */
+    public long getCapacityEvictions() {
+        return capacityEvictions.get();
+    }
+
+    /**
+     * Önbellek anahtarı. Aynı çifti farklı yerlerde eşlemek isteyenler
+     * (örn. XAdES-C/XL seviyeleri) bu biçimi kullanır.
+     */
+    public static String key(CertificateToken certificate, CertificateToken issuer) {
+        return certificate.getDSSIdAsString() + '|' + (issuer != null ? issuer.getDSSIdAsString() : "");
+    }
+
+    private <T extends RevocationToken<?>> T get(Map<String, Entry<T>> entries,
+                                                 CertificateToken certificate,
+                                                 CertificateToken issuer) {
+        String key = key(certificate, issuer);
+        Entry<T> entry = entries.get(key);
+        if (entry != null) {
+            if (clock.getAsLong() < entry.servableUntil) {
+                hits.incrementAndGet();
+                return entry.token;
+            }
+            if (entries.remove(key, entry)) {
+                expiredEvictions.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    private <T extends RevocationToken<?>> boolean put(Map<String, Entry<T>> entries,
+                                                       CertificateToken certificate,
+                                                       CertificateToken issuer,
+                                                       T token) {
+        if (token == null) {
+            return false;
+        }
+        if (!token.isValid()) {
+            LOGGER.warn("İmzası doğrulanamayan iptal yanıtı önbelleğe alınmadı. Sertifika: {}, kaynak: {}",
+                    certificate.getDSSIdAsString(), token.getSourceURL());
+            return false;
+        }
+        long now = clock.getAsLong();
+        long servableUntil = servableUntil(token, now);
+        if (servableUntil <= now) {
+            LOGGER.debug("İptal yanıtı kullanılabilir süre dışında, önbelleğe alınmadı. Sertifika: {}",
+                    certificate.getDSSIdAsString());
+            return false;
+        }
+        entries.put(key(certificate, issuer), new Entry<>(token, servableUntil));
+        if (entries.size() > maxEntries) {
+            evict(entries, now);
+        }
+        return true;
+    }
+
+    /**
+     * Önce süresi dolan kayıtları, kapasite hâlâ aşılıyorsa süresi en erken
+     * dolacak kayıtları siler. Yalnızca kapasite aşıldığında çalışır; sıcak
+     * yolda tarama yapılmaz.
+     */
+    private synchronized <T> void evict(Map<String, Entry<T>> entries, long now) {
+        List<Map.Entry<String, Entry<T>>> live = new ArrayList<>(entries.size());
+        for (Map.Entry<String, Entry<T>> e : entries.entrySet()) {
+            if (e.getValue().servableUntil <= now) {
+                if (entries.remove(e.getKey(), e.getValue())) {
+                    expiredEvictions.incrementAndGet();
+                }
+            } else {
+                live.add(e);
+            }
+        }
+        int excess = entries.size() - maxEntries;
+        if (excess <= 0) {
+            return;
+        }
+        live.sort((a, b) -> Long.compare(a.getValue().servableUntil, b.getValue().servableUntil));
+        for (int i = 0; i < live.size() && excess > 0; i++) {
+            Map.Entry<String, Entry<T>> e = live.get(i);
+            if (entries.remove(e.getKey(), e.getValue())) {
+                capacityEvictions.incrementAndGet();
+                excess--;
+            }
+        }
+        LOGGER.debug("İptal yanıtı önbelleği kapasiteyi aştı; süresi en erken dolacak kayıtlar silindi. "
+                + "Kapasite: {}", maxEntries);
+    }
+
+    private boolean needsRefresh(Entry<?> entry) {
+        return entry == null || clock.getAsLong() >= entry.servableUntil - refreshAheadMs;
+    }
+
+    /** Yanıtın DSS tazelik kuralını güvenle geçeceği son an. */
+    private long servableUntil(RevocationToken<?> token, long fetchedAt) {
+        Date thisUpdate = token.getThisUpdate();
+        Date nextUpdate = token.getNextUpdate();
+        long until;
+        if (thisUpdate != null && fetchedAt - thisUpdate.getTime() < maxFreshnessMs) {
+            until = thisUpdate.getTime() + maxFreshnessMs;
+        } else if (nextUpdate != null) {
+            until = nextUpdate.getTime();
+        } else {
+            until = fetchedAt + maxFreshnessMs;
+        }
+        if (nextUpdate != null) {
+            until = Math.min(until, nextUpdate.getTime());
+        }
+        return until - safetyMarginMs;
+    }
+
+    private static final class Entry<T> {
+        private final T token;
+        private final long servableUntil;
+
+        Entry(T token, long servableUntil) {
+            this.token = token;
+            this.servableUntil = servableUntil;
+        }
+    }
+}
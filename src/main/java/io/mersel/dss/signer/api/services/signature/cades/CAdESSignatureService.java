@@ -1,10 +1,17 @@
 package io.mersel.dss.signer.api.services.signature.cades;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.util.Base64;
-import java.util.concurrent.Semaphore;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.bouncycastle.cms.CMSSignedData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -15,12 +22,16 @@ import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.enumerations.SignatureLevel;
 import eu.europa.esig.dss.enumerations.SignaturePackaging;
 import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DigestDocument;
 import eu.europa.esig.dss.model.InMemoryDocument;
 import eu.europa.esig.dss.model.SignatureValue;
 import eu.europa.esig.dss.model.ToBeSigned;
+import eu.europa.esig.dss.spi.DSSUtils;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.SignatureFormat;
+import io.mersel.dss.signer.api.services.concurrency.SigningLimiter;
 import io.mersel.dss.signer.api.services.crypto.CryptoSignerService;
 import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
 
@@ -39,7 +50,9 @@ import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
  *
  * <h3>Eşzamanlılık</h3>
  * <p>PKCS#11 (HSM) session havuzlarının tükenmesini engellemek için eş zamanlı imza
- * sayısı bir {@link Semaphore} ile sınırlandırılır.</p>
+ * sayısı bir {@link SigningLimiter} ile sınırlandırılır. Permit yalnızca
+ * {@link CryptoSignerService#sign} çağrısı süresince tutulur; digest, signed
+ * attribute ve CMS kodlaması permit beklemeden paralel yürür.</p>
  *
  * @see CAdESService
  * @see CryptoSignerService
@@ -49,31 +62,39 @@ import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
 public class CAdESSignatureService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CAdESSignatureService.class);
+    private static final String DOCUMENT_NAME = "document.bin";
+    private static final String SPOOL_PREFIX = "cades-spool-";
 
     private final CAdESService cadesService;
     private final CryptoSignerService cryptoSigner;
     private final DigestAlgorithmResolverService digestAlgorithmResolver;
-    private final Semaphore semaphore;
+    private final SigningLimiter signingLimiter;
 
     /**
      * @param cadesService            DSS CAdES imza servisi
      * @param cryptoSigner            HSM-aware kriptografik imzalama servisi
      * @param digestAlgorithmResolver sertifikaya göre digest algoritma çözümleme servisi
-     * @param signatureSemaphore      eş zamanlı imza işlemi sayısını kısıtlayan semaphore
+     * @param signingLimiter          eş zamanlı imza işlemi sayısını kısıtlayan limiter
      */
     public CAdESSignatureService(CAdESService cadesService,
                                  CryptoSignerService cryptoSigner,
                                  DigestAlgorithmResolverService digestAlgorithmResolver,
-                                 Semaphore signatureSemaphore) {
+                                 SigningLimiter signingLimiter) {
         this.cadesService = cadesService;
         this.cryptoSigner = cryptoSigner;
         this.digestAlgorithmResolver = digestAlgorithmResolver;
-        this.semaphore = signatureSemaphore;
+        this.signingLimiter = signingLimiter;
     }
 
     /**
      * Verilen stream'deki veriyi okuyarak CAdES-BES imzası üretir.
      *
+     * <p>Ayrık (detached) modda içerik heap'e alınmaz: stream okunurken digest
+     * hesaplanır ve imza yalnızca digest'i taşıyan bir {@link DigestDocument}
+     * üzerinden üretilir. Gömülü (enveloping) modda içerik CMS zarfına girdiği
+     * için burada bellekte tutulur; büyük dosyalar için
+     * {@link #signEnveloping(InputStream, SigningMaterial)} kullanılmalıdır.</p>
+     *
      * @param dataInputStream imzalanacak dosyanın stream'i — metot içinde tüketilir, kapatılmaz
      * @param detached        {@code true} → ayrık imza, {@code false} → gömülü imza
      * @param material        sertifika zinciri ve private key'i barındıran imzalama materyali
@@ -84,43 +105,110 @@ public class CAdESSignatureService {
                                  boolean detached,
                                  SigningMaterial material) {
         try {
-            byte[] contentBytes = IOUtils.toByteArray(dataInputStream);
-            DSSDocument document = new InMemoryDocument(contentBytes, "document.bin");
-
             DigestAlgorithm digestAlgorithm =
                     digestAlgorithmResolver.resolveDigestAlgorithm(material.getSigningCertificate());
 
-            CAdESSignatureParameters parameters = buildParameters(detached, digestAlgorithm, material);
+            DSSDocument document;
+            if (detached) {
+                MessageDigest messageDigest = digestAlgorithm.getMessageDigest();
+                IOUtils.copy(dataInputStream, new DigestOutputStream(NullOutputStream.INSTANCE, messageDigest));
+                document = new DigestDocument(digestAlgorithm, messageDigest.digest(), DOCUMENT_NAME);
+            } else {
+                document = new InMemoryDocument(IOUtils.toByteArray(dataInputStream), DOCUMENT_NAME);
+            }
 
-            semaphore.acquire();
-            try {
-                ToBeSigned dataToSign = cadesService.getDataToSign(document, parameters);
+            SignResponse response = sign(document, detached, digestAlgorithm, material);
+            LOGGER.info("CAdES imzası başarıyla oluşturuldu (detached: {})", detached);
+            return response;
 
-                SignatureValue signatureValue = cryptoSigner.sign(
-                        dataToSign,
-                        material,
-                        digestAlgorithm);
+        } catch (SignatureException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.error("CAdES imzası oluşturulurken hata", e);
+            throw new SignatureException("CADES_SIGN_ERROR", "CAdES imzası oluşturulamadı", e);
+        }
+    }
 
-                DSSDocument signedDocument = cadesService.signDocument(document, parameters, signatureValue);
+    /**
+     * Gömülü (enveloping) CAdES-BES imzasını belge boyutundan bağımsız heap ile üretir.
+     *
+     * <p>Stream geçici dosyaya yazılırken digest'i hesaplanır; imza bu digest
+     * üzerinden ayrık CMS olarak üretilir (HSM çağrısı yalnızca bu aşamadadır).
+     * Dönen {@link SpooledCmsSignature} gömülü CMS'i spool dosyasından akış
+     * halinde yazar ve kapatıldığında dosyayı siler.</p>
+     *
+     * @param dataInputStream imzalanacak dosyanın stream'i — metot içinde tüketilir, kapatılmaz
+     * @param material        sertifika zinciri ve private key'i barındıran imzalama materyali
+     * @return çağıranın yazıp kapatması gereken spool'lu imza
+     * @throws SignatureException imza oluşturma sırasında herhangi bir hata meydana gelirse
+     */
+    public SpooledCmsSignature signEnveloping(InputStream dataInputStream, SigningMaterial material) {
+        Path spool = null;
+        try {
+            DigestAlgorithm digestAlgorithm =
+                    digestAlgorithmResolver.resolveDigestAlgorithm(material.getSigningCertificate());
+            MessageDigest messageDigest = digestAlgorithm.getMessageDigest();
 
-                byte[] signedBytes = IOUtils.toByteArray(signedDocument.openStream());
-                String encodedSignature = Base64.getEncoder().encodeToString(signatureValue.getValue());
+            spool = Files.createTempFile(SPOOL_PREFIX, ".bin");
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(spool), messageDigest)) {
+                IOUtils.copy(dataInputStream, out);
+            }
+            DSSDocument document = new DigestDocument(digestAlgorithm, messageDigest.digest(), DOCUMENT_NAME);
 
-                LOGGER.info("CAdES imzası başarıyla oluşturuldu (detached: {})", detached);
-                return new SignResponse(signedBytes, encodedSignature);
+            SignResponse detachedSignature = sign(document, true, digestAlgorithm, material);
+            SpooledCmsSignature signature = new SpooledCmsSignature(spool,
+                    new CMSSignedData(detachedSignature.getSignedDocument()),
+                    detachedSignature.getSignatureValue());
+            spool = null;
 
-            } finally {
-                semaphore.release();
-            }
+            LOGGER.info("CAdES imzası başarıyla oluşturuldu (detached: false, spool)");
+            return signature;
 
         } catch (SignatureException e) {
             throw e;
         } catch (Exception e) {
             LOGGER.error("CAdES imzası oluşturulurken hata", e);
             throw new SignatureException("CADES_SIGN_ERROR", "CAdES imzası oluşturulamadı", e);
+        } finally {
+            if (spool != null) {
+                try {
+                    Files.deleteIfExists(spool);
+                } catch (IOException e) {
+                    LOGGER.warn("CAdES spool dosyası silinemedi: {}", spool, e);
+                }
+            }
         }
     }
 
+    private SignResponse sign(DSSDocument document,
+                              boolean detached,
+                              DigestAlgorithm digestAlgorithm,
+                              SigningMaterial material) throws InterruptedException {
+        CAdESSignatureParameters parameters = buildParameters(detached, digestAlgorithm, material);
+
+        // Digest ve signed attribute'lar (getDataToSign) ile CMS kodlaması
+        // (signDocument) permit dışında; yalnızca HSM/PFX imza çağrısı
+        // MAX_SESSION_COUNT permit'lerinden birini tutar.
+        ToBeSigned dataToSign = cadesService.getDataToSign(document, parameters);
+
+        SignatureValue signatureValue;
+        long permit = signingLimiter.acquire(SignatureFormat.CADES);
+        try {
+            signatureValue = cryptoSigner.sign(
+                    dataToSign,
+                    material,
+                    digestAlgorithm);
+        } finally {
+            signingLimiter.release(permit);
+        }
+
+        DSSDocument signedDocument = cadesService.signDocument(document, parameters, signatureValue);
+
+        byte[] signedBytes = DSSUtils.toByteArray(signedDocument);
+        String encodedSignature = Base64.getEncoder().encodeToString(signatureValue.getValue());
+        return new SignResponse(signedBytes, encodedSignature);
+    }
+
     /**
      * DSS {@link CAdESSignatureParameters} nesnesini oluşturur.
      *
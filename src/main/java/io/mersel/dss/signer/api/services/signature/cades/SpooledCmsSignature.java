@@ -0,0 +1,107 @@
+package io.mersel.dss.signer.api.services.signature.cades;
+
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.CMSSignedDataStreamGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Diske spool edilmiş içerik üzerinde üretilmiş, gömülü (enveloping) çıktısı
+ * akış halinde yazılan CAdES imzası.
+ *
+ * <p>İmza, içeriğin digest'i üzerinden ayrık (detached) CMS olarak üretilir.
+ * Gömülü CMS'in {@code SignerInfo}'su ayrık olanla birebir aynıdır (imzalı
+ * {@code message-digest} içeriğin digest'idir); iki yapı yalnızca
+ * {@code encapContentInfo.eContent} alanında ayrılır. {@link #writeTo(OutputStream)}
+ * bu yüzden DSS'in ürettiği {@code SignerInfo} ve sertifikaları değiştirmeden
+ * alır, içeriği spool dosyasından okuyarak {@link CMSSignedDataStreamGenerator}
+ * ile BER (belirsiz uzunluklu) olarak yazar. Heap kullanımı belge boyutundan
+ * bağımsızdır.</p>
+ *
+ * <p>Spool dosyası {@link #close()} ile silinir; çağıran taraf (controller'daki
+ * akış gövdesi) yazım bitince kapatmakla yükümlüdür.</p>
+ */
+public class SpooledCmsSignature implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpooledCmsSignature.class);
+
+    private final Path content;
+    private final CMSSignedData detachedSignature;
+    private final String signatureValue;
+
+    SpooledCmsSignature(Path content, CMSSignedData detachedSignature, String signatureValue) {
+        this.content = content;
+        this.detachedSignature = detachedSignature;
+        this.signatureValue = signatureValue;
+    }
+
+    /** Base64 kodlanmış ham imza değeri. */
+    public String getSignatureValue() {
+        return signatureValue;
+    }
+
+    /** Spool edilmiş içeriğin boyutu (byte). */
+    public long getContentLength() throws IOException {
+        return Files.size(content);
+    }
+
+    /**
+     * Gömülü CMS'i (.p7s) verilen akışa yazar. Akış kapatılmaz.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        CMSSignedDataStreamGenerator generator = new CMSSignedDataStreamGenerator();
+        try {
+            generator.addCertificates(detachedSignature.getCertificates());
+            generator.addCRLs(detachedSignature.getCRLs());
+            generator.addSigners(detachedSignature.getSignerInfos());
+        } catch (CMSException e) {
+            throw new IOException("CMS imza yapısı kopyalanamadı", e);
+        }
+
+        try (OutputStream encapsulated = generator.open(new NonClosingOutputStream(out), true);
+             InputStream in = Files.newInputStream(content)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                encapsulated.write(buffer, 0, read);
+            }
+        }
+    }
+
+    /** Spool dosyasını siler. */
+    @Override
+    public void close() {
+        try {
+            Files.deleteIfExists(content);
+        } catch (IOException e) {
+            LOGGER.warn("CAdES spool dosyası silinemedi: {}", content, e);
+        }
+    }
+
+    /** Generator kapanırken alttaki yanıt akışını kapatmasın. */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
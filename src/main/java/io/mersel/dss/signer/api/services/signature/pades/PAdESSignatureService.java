@@ -1,29 +1,24 @@
 package io.mersel.dss.signer.api.services.signature.pades;
 
+import com.itextpdf.text.io.RandomAccessSourceFactory;
 import com.itextpdf.text.pdf.*;
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.PrecomputedSigningCertificate;
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.SignatureFormat;
+import io.mersel.dss.signer.api.services.concurrency.SigningLimiter;
 import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
 import io.mersel.dss.signer.api.services.crypto.SigningMaterialContentSigner;
 import org.apache.commons.io.IOUtils;
 import org.bouncycastle.asn1.ASN1EncodableVector;
-import org.bouncycastle.asn1.DERSet;
-import org.bouncycastle.asn1.cms.Attribute;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.asn1.cms.AttributeTable;
-import org.bouncycastle.asn1.ess.ESSCertIDv2;
-import org.bouncycastle.asn1.ess.SigningCertificateV2;
-import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
-import org.bouncycastle.asn1.x500.X500Name;
-import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
-import org.bouncycastle.asn1.x509.GeneralName;
-import org.bouncycastle.asn1.x509.GeneralNames;
-import org.bouncycastle.asn1.x509.IssuerSerial;
-import org.bouncycastle.cert.jcajce.JcaCertStore;
-import org.bouncycastle.cms.CMSProcessableByteArray;
+import org.bouncycastle.asn1.cms.CMSObjectIdentifiers;
 import org.bouncycastle.cms.CMSSignedData;
 import org.bouncycastle.cms.CMSSignedDataGenerator;
+import org.bouncycastle.cms.CMSTypedData;
 import org.bouncycastle.cms.DefaultSignedAttributeTableGenerator;
 import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
 import org.bouncycastle.operator.ContentSigner;
@@ -33,11 +28,14 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.security.MessageDigest;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Calendar;
 import java.util.HashMap;
-import java.util.concurrent.Semaphore;
 
 /**
  * PAdES (PDF İleri Seviye Elektronik İmza) imzaları oluşturan servis.
@@ -56,18 +54,25 @@ public class PAdESSignatureService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PAdESSignatureService.class);
     private static final int SIGNATURE_SIZE_ESTIMATE = 8192;
+    private static final int RANGE_BUFFER_SIZE = 64 * 1024;
+    private static final String SPOOL_PREFIX = "pades-spool-";
+    private static final String SIGNED_PREFIX = "pades-signed-";
 
-    private final Semaphore semaphore;
+    private final SigningLimiter signingLimiter;
     private final DigestAlgorithmResolverService digestAlgorithmResolver;
 
-    public PAdESSignatureService(Semaphore signatureSemaphore,
+    public PAdESSignatureService(SigningLimiter signingLimiter,
                                  DigestAlgorithmResolverService digestAlgorithmResolver) {
-        this.semaphore = signatureSemaphore;
+        this.signingLimiter = signingLimiter;
         this.digestAlgorithmResolver = digestAlgorithmResolver;
     }
 
     /**
      * PDF belgesini PAdES imzası ile imzalar.
+     *
+     * <p>{@link #signPdfToFile} üzerine kurulu uyumluluk metodu: imzalı PDF
+     * sonunda byte dizisine okunur. Büyük belgelerde doğrudan
+     * {@link #signPdfToFile} kullanılmalıdır.</p>
      * 
      * @param pdfInputStream PDF belgesi içeren input stream
      * @param attachment İsteğe bağlı dosya eki içeriği
@@ -81,52 +86,112 @@ public class PAdESSignatureService {
                                String attachmentFileName,
                                boolean appendMode,
                                SigningMaterial material) {
-        try {
-            PdfReader reader = new PdfReader(pdfInputStream);
+        try (SpooledPdfSignature signed = signPdfToFile(
+                pdfInputStream, attachment, attachmentFileName, appendMode, material)) {
             ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            PdfStamper stamper = PdfStamper.createSignature(
-                reader, outputStream, '\0', null, appendMode);
+            signed.writeTo(outputStream);
+            return new SignResponse(outputStream.toByteArray(), null);
+        } catch (IOException e) {
+            LOGGER.error("İmzalı PDF okunamadı", e);
+            throw new SignatureException("PAdES imzası oluşturulamadı", e);
+        }
+    }
 
-            // Dosya eki varsa ekle
-            if (attachment != null && attachment.length > 0 && attachmentFileName != null) {
-                stamper.addFileAttachment(null, attachment, null, attachmentFileName);
-            }
+    /**
+     * PDF belgesini PAdES imzası ile imzalar; heap kullanımı PDF boyutundan
+     * bağımsızdır.
+     *
+     * <p>Akış önce geçici dosyaya yazılır ve iText'e memory-mapped, kısmi
+     * okuma (partial read) modunda açılır; nesneler yalnızca ihtiyaç
+     * duyulduğunda yüklenir. İmzalı çıktı doğrudan ikinci bir geçici dosyaya
+     * yazılır, imzalanacak byte aralıkları bu dosyadan okunarak digest'e akıtılır
+     * ve {@code /Contents} hex değeri iText tarafından dosyaya yerinde yazılır.</p>
+     *
+     * @param pdfInputStream PDF belgesi içeren input stream — tüketilir, kapatılmaz
+     * @param attachment İsteğe bağlı dosya eki içeriği
+     * @param attachmentFileName İsteğe bağlı ek dosya adı
+     * @param appendMode İmzanın eklenmesi (true) veya yeni revizyon (false)
+     * @param material İmzalama sertifikası ve private key içeren materyal
+     * @return çağıranın yazıp kapatması gereken, disk üzerindeki imzalı PDF
+     */
+    public SpooledPdfSignature signPdfToFile(InputStream pdfInputStream,
+                                             byte[] attachment,
+                                             String attachmentFileName,
+                                             boolean appendMode,
+                                             SigningMaterial material) {
+        Path source = null;
+        Path signed = null;
+        try {
+            source = Files.createTempFile(SPOOL_PREFIX, ".pdf");
+            Files.copy(pdfInputStream, source, StandardCopyOption.REPLACE_EXISTING);
+            signed = Files.createTempFile(SIGNED_PREFIX, ".pdf");
+
+            PdfReader reader = new PdfReader(new RandomAccessFileOrArray(
+                new RandomAccessSourceFactory().createBestSource(source.toString())), null);
+            try {
+                // os = null: çıktı yalnızca tempFile'a yazılır ve orada kalır.
+                PdfStamper stamper = PdfStamper.createSignature(
+                    reader, null, '\0', signed.toFile(), appendMode);
+
+                // Dosya eki varsa ekle
+                if (attachment != null && attachment.length > 0 && attachmentFileName != null) {
+                    stamper.addFileAttachment(null, attachment, null, attachmentFileName);
+                }
+
+                // İmza görünümünü yapılandır
+                PdfSignatureAppearance appearance = stamper.getSignatureAppearance();
+                appearance.setLocation("Turkey");
+                appearance.setSignDate(Calendar.getInstance());
+
+                // İmza sözlüğünü oluştur
+                PdfSignature pdfSignature = new PdfSignature(
+                    PdfName.ADOBE_PPKLITE, PdfName.ETSI_CADES_DETACHED);
+                pdfSignature.setReason(appearance.getReason());
+                pdfSignature.setLocation(appearance.getLocation());
+                pdfSignature.setContact(appearance.getContact());
+                pdfSignature.setDate(new PdfDate(appearance.getSignDate()));
+                appearance.setCryptoDictionary(pdfSignature);
 
-            // İmza görünümünü yapılandır
-            PdfSignatureAppearance appearance = stamper.getSignatureAppearance();
-            appearance.setLocation("Turkey");
-            appearance.setSignDate(Calendar.getInstance());
-
-            // İmza sözlüğünü oluştur
-            PdfSignature pdfSignature = new PdfSignature(
-                PdfName.ADOBE_PPKLITE, PdfName.ETSI_CADES_DETACHED);
-            pdfSignature.setReason(appearance.getReason());
-            pdfSignature.setLocation(appearance.getLocation());
-            pdfSignature.setContact(appearance.getContact());
-            pdfSignature.setDate(new PdfDate(appearance.getSignDate()));
-            appearance.setCryptoDictionary(pdfSignature);
-
-            // İmza için yer ayır
-            HashMap<PdfName, Integer> exclusionSizes = new HashMap<>();
-            exclusionSizes.put(PdfName.CONTENTS, SIGNATURE_SIZE_ESTIMATE * 2 + 2);
-            appearance.preClose(exclusionSizes);
-
-            // CMS imzasını oluştur
-            byte[] signatureBytes = createCMSSignature(
-                appearance, material);
-
-            // İmzayı göm
-            PdfDictionary dictionary = new PdfDictionary();
-            dictionary.put(PdfName.CONTENTS, 
-                new PdfString(signatureBytes).setHexWriting(true));
-            appearance.close(dictionary);
+                // İmza için yer ayır
+                HashMap<PdfName, Integer> exclusionSizes = new HashMap<>();
+                exclusionSizes.put(PdfName.CONTENTS, SIGNATURE_SIZE_ESTIMATE * 2 + 2);
+                appearance.preClose(exclusionSizes);
 
+                // CMS imzasını oluştur
+                byte[] signatureBytes = createCMSSignature(
+                    appearance, material);
+
+                // İmzayı göm
+                PdfDictionary dictionary = new PdfDictionary();
+                dictionary.put(PdfName.CONTENTS,
+                    new PdfString(signatureBytes).setHexWriting(true));
+                appearance.close(dictionary);
+            } finally {
+                reader.close();
+            }
+
+            SpooledPdfSignature result = new SpooledPdfSignature(signed);
+            signed = null;
             LOGGER.info("PAdES imzası başarıyla oluşturuldu");
-            return new SignResponse(outputStream.toByteArray(), null);
+            return result;
 
         } catch (Exception e) {
             LOGGER.error("PAdES imzası oluşturulurken hata", e);
             throw new SignatureException("PAdES imzası oluşturulamadı", e);
+        } finally {
+            deleteQuietly(source);
+            deleteQuietly(signed);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.warn("PAdES geçici dosyası silinemedi: {}", path, e);
         }
     }
 
@@ -146,36 +211,14 @@ public class PAdESSignatureService {
                                      SigningMaterial material) throws Exception {
         DigestAlgorithm digest = digestAlgorithmResolver.resolveDigestAlgorithm(
             material.getSigningCertificate());
-        String digestAlgName = digest.getJavaName();
-        org.bouncycastle.asn1.ASN1ObjectIdentifier digestOid =
-            new org.bouncycastle.asn1.ASN1ObjectIdentifier(digest.getOid());
-
-        // SigningCertificateV2 için sertifika hash'i hesapla
-        MessageDigest messageDigest = MessageDigest.getInstance(digestAlgName);
-        byte[] certificateHash = messageDigest.digest(
-            material.getSigningCertificate().getEncoded());
-
-        // Issuer serial oluştur
-        GeneralName generalName = new GeneralName(
-            X500Name.getInstance(material.getSigningCertificate()
-                .getIssuerX500Principal().getEncoded()));
-        GeneralNames generalNames = new GeneralNames(generalName);
-        IssuerSerial issuerSerial = new IssuerSerial(
-            generalNames, material.getSigningCertificate().getSerialNumber());
-
-        // Create SigningCertificateV2 attribute
-        ESSCertIDv2 essCert = new ESSCertIDv2(
-            new AlgorithmIdentifier(digestOid),
-            certificateHash, issuerSerial);
-        SigningCertificateV2 signingCertificateV2 = new SigningCertificateV2(
-            new ESSCertIDv2[]{essCert});
-        Attribute signingCertAttr = new Attribute(
-            PKCSObjectIdentifiers.id_aa_signingCertificateV2,
-            new DERSet(signingCertificateV2));
+
+        // SigningCertificateV2 (sertifika hash'i + IssuerSerial) ve zincir
+        // store'u materyal başına bir kez hesaplanır
+        PrecomputedSigningCertificate precomputed = material.getPrecomputedCertificate(digest);
 
         // Build signed attributes
         ASN1EncodableVector signedAttributes = new ASN1EncodableVector();
-        signedAttributes.add(signingCertAttr);
+        signedAttributes.add(precomputed.getSigningCertificateV2());
         AttributeTable attributeTable = new AttributeTable(signedAttributes);
 
         // Create signer
@@ -194,40 +237,65 @@ public class PAdESSignatureService {
         generator.addSignerInfoGenerator(
             signerInfoGeneratorBuilder.build(contentSigner, 
                 material.getSigningCertificate()));
-        generator.addCertificates(new JcaCertStore(material.getCertificateChain()));
+        generator.addCertificates(precomputed.getCertificateStore());
 
-        // Sign PDF content
-        InputStream rangeStream = appearance.getRangeStream();
-        byte[] rangeBytes = IOUtils.toByteArray(rangeStream);
+        // Sign PDF content — byte aralıkları digest'e dosyadan akıtılır.
+        // Digest, signed attribute'lar ve CMS kodlaması permit dışında yapılır;
+        // permit yalnızca ContentSigner içindeki HSM/PFX imza çağrısında tutulur.
+        CMSSignedData signedData = generator.generate(
+            new ByteRangeContent(appearance), false);
+        byte[] encodedSignature = signedData.getEncoded();
 
-        semaphore.acquire();
-        try {
-            CMSSignedData signedData = generator.generate(
-                new CMSProcessableByteArray(rangeBytes), false);
-            byte[] encodedSignature = signedData.getEncoded();
-
-            if (encodedSignature.length > SIGNATURE_SIZE_ESTIMATE) {
-                throw new SignatureException(
-                    "Signature size exceeds reserved space: " + 
-                    encodedSignature.length + " > " + SIGNATURE_SIZE_ESTIMATE);
-            }
-
-            // Pad signature to reserved size
-            byte[] paddedSignature = new byte[SIGNATURE_SIZE_ESTIMATE];
-            System.arraycopy(encodedSignature, 0, paddedSignature, 0, 
-                encodedSignature.length);
+        if (encodedSignature.length > SIGNATURE_SIZE_ESTIMATE) {
+            throw new SignatureException(
+                "Signature size exceeds reserved space: " + 
+                encodedSignature.length + " > " + SIGNATURE_SIZE_ESTIMATE);
+        }
 
-            return paddedSignature;
+        // Pad signature to reserved size
+        byte[] paddedSignature = new byte[SIGNATURE_SIZE_ESTIMATE];
+        System.arraycopy(encodedSignature, 0, paddedSignature, 0, 
+            encodedSignature.length);
 
-        } finally {
-            semaphore.release();
-        }
+        return paddedSignature;
     }
 
     /**
      * Material'in arka ucundan bağımsız tek {@link ContentSigner} üretir.
+     * İmza permit'i yalnızca imza çağrısı süresince tutulur.
      */
     private ContentSigner buildContentSigner(SigningMaterial material, DigestAlgorithm digest) throws Exception {
-        return new SigningMaterialContentSigner(material, digest);
+        return new SigningMaterialContentSigner(material, digest, signingLimiter, SignatureFormat.PADES);
+    }
+
+    /**
+     * İmzalanacak byte aralıklarını ({@code /ByteRange}) belleğe almadan CMS
+     * üretecine akıtan içerik. Ayrık imzada BouncyCastle içeriği yalnızca
+     * digest hesabı için {@link #write(OutputStream)} üzerinden okur.
+     */
+    private static final class ByteRangeContent implements CMSTypedData {
+
+        private final PdfSignatureAppearance appearance;
+
+        ByteRangeContent(PdfSignatureAppearance appearance) {
+            this.appearance = appearance;
+        }
+
+        @Override
+        public ASN1ObjectIdentifier getContentType() {
+            return CMSObjectIdentifiers.data;
+        }
+
+        @Override
+        public void write(OutputStream out) throws IOException {
+            try (InputStream rangeStream = appearance.getRangeStream()) {
+                IOUtils.copy(rangeStream, out, RANGE_BUFFER_SIZE);
+            }
+        }
+
+        @Override
+        public Object getContent() {
+            return appearance;
+        }
     }
 }
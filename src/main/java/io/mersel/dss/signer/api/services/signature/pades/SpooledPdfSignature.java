@@ -0,0 +1,51 @@
+package io.mersel.dss.signer.api.services.signature.pades;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Disk üzerinde tutulan imzalı PDF.
+ *
+ * <p>{@link PAdESSignatureService#signPdfToFile} imzalı çıktıyı geçici dosyaya
+ * yazar; {@code /Contents} imza değeri de iText tarafından bu dosyanın içine
+ * yerinde yazılır. Çağıran taraf {@link #writeTo(OutputStream)} ile yanıta
+ * akıtır ve {@link #close()} ile dosyayı siler.</p>
+ */
+public class SpooledPdfSignature implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpooledPdfSignature.class);
+
+    private final Path signedPdf;
+
+    SpooledPdfSignature(Path signedPdf) {
+        this.signedPdf = signedPdf;
+    }
+
+    /** İmzalı PDF'in boyutu (byte). */
+    public long getContentLength() throws IOException {
+        return Files.size(signedPdf);
+    }
+
+    /**
+     * İmzalı PDF'i verilen akışa yazar. Akış kapatılmaz.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        Files.copy(signedPdf, out);
+    }
+
+    /** Geçici dosyayı siler. */
+    @Override
+    public void close() {
+        try {
+            Files.deleteIfExists(signedPdf);
+        } catch (IOException e) {
+            LOGGER.warn("İmzalı PDF geçici dosyası silinemedi: {}", signedPdf, e);
+        }
+    }
+}
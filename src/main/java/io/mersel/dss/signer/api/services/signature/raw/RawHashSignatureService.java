@@ -2,13 +2,16 @@ package io.mersel.dss.signer.api.services.signature.raw;
 
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.BatchSignResult;
 import io.mersel.dss.signer.api.models.SigningMaterial;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.security.cert.X509Certificate;
+import java.util.List;
 import java.util.Locale;
 
 /**
@@ -40,17 +43,35 @@ import java.util.Locale;
  *   String base64 = Base64.getEncoder().encodeToString(signature);
  *   // base64 -> <ds:SignatureValue>
  * }</pre>
+ *
+ * <h3>Toplu imza</h3>
+ * <p>{@link #signDigestBatch} aynı anahtarla çok sayıda digest'i tek çağrıda
+ * imzalar (e-Arşiv toplu koşuları). PKCS#11 arka ucunda öğeler HSM session
+ * havuzuna yayılır; köprü modunda tüm toplu iş tek IPC frame'inde taşınır.
+ * Girdi hatası tüm isteği reddeder; HSM/backend hataları öğe bazında
+ * raporlanır.</p>
  */
 @Service
 public class RawHashSignatureService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RawHashSignatureService.class);
 
+    /** {@code HASHSIGN_BATCH_MAX_ITEMS} verilmediğinde toplu istek başına üst sınır. */
+    public static final int DEFAULT_MAX_BATCH_ITEMS = 1000;
+
     private final SigningMaterial signingMaterial;
+    private final int maxBatchItems;
 
-    @Autowired
     public RawHashSignatureService(SigningMaterial signingMaterial) {
+        this(signingMaterial, DEFAULT_MAX_BATCH_ITEMS);
+    }
+
+    @Autowired
+    public RawHashSignatureService(SigningMaterial signingMaterial,
+                                   @Value("${HASHSIGN_BATCH_MAX_ITEMS:" + DEFAULT_MAX_BATCH_ITEMS + "}")
+                                   int maxBatchItems) {
         this.signingMaterial = signingMaterial;
+        this.maxBatchItems = maxBatchItems > 0 ? maxBatchItems : DEFAULT_MAX_BATCH_ITEMS;
     }
 
     /**
@@ -92,6 +113,63 @@ public class RawHashSignatureService {
         return signature;
     }
 
+    /**
+     * Aynı anahtarla çok sayıda pre-hashed digest'i imzalar.
+     *
+     * <p>Tüm digest'ler imzalamadan <b>önce</b> doğrulanır; tek bir geçersiz
+     * öğe (null, uzunluk uyumsuz) tüm isteği {@link IllegalArgumentException}
+     * ile reddeder — mesaj öğe indeksini içerir. Doğrulamadan geçen toplu iş
+     * backend'e tek seferde verilir; HSM/backend hataları öğe bazında
+     * {@link BatchSignResult} içinde döner ve sonuçlar girdi sırasındadır.</p>
+     *
+     * @param digests         pre-computed hash'ler; boş olamaz, en fazla
+     *                        {@code HASHSIGN_BATCH_MAX_ITEMS} öğe
+     * @param digestAlgorithm tüm öğeler için ortak hash algoritması; null ise SHA256
+     * @throws IllegalArgumentException liste boş/çok büyük ya da bir öğe geçersiz
+     * @throws SignatureException       toplu çağrının kendisi başarısız olursa
+     *                                  (ör. köprü IPC hatası)
+     */
+    public List<BatchSignResult> signDigestBatch(List<byte[]> digests, DigestAlgorithm digestAlgorithm) {
+        DigestAlgorithm effectiveAlg = (digestAlgorithm != null) ? digestAlgorithm : DigestAlgorithm.SHA256;
+        if (digests == null || digests.isEmpty()) {
+            throw new IllegalArgumentException("digests listesi boş olamaz");
+        }
+        if (digests.size() > maxBatchItems) {
+            throw new IllegalArgumentException(String.format(Locale.ROOT,
+                "Toplu istek en fazla %d digest içerebilir, %d alındı", maxBatchItems, digests.size()));
+        }
+        for (int i = 0; i < digests.size(); i++) {
+            try {
+                validateDigest(digests.get(i), effectiveAlg);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("digests[" + i + "]: " + e.getMessage(), e);
+            }
+        }
+        if (signingMaterial.getSigningCertificate() == null) {
+            throw new SignatureException("İmzalama sertifikası yüklenmemiş");
+        }
+
+        long startNanos = System.nanoTime();
+        List<BatchSignResult> results = signingMaterial.signDigestBatch(digests, effectiveAlg);
+        long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000L;
+
+        int failed = 0;
+        for (BatchSignResult result : results) {
+            if (!result.isSuccess()) {
+                failed++;
+            }
+        }
+        LOGGER.info("Toplu hash imzası tamamlandı: backend={}, digestAlg={}, öğe={}, başarılı={}, "
+                + "başarısız={}, elapsedMs={}",
+            signingMaterial.getBackendName(), effectiveAlg, digests.size(),
+            digests.size() - failed, failed, elapsedMs);
+        return results;
+    }
+
+    public int getMaxBatchItems() {
+        return maxBatchItems;
+    }
+
     /**
      * Digest girdi doğrulaması:
      * <ul>
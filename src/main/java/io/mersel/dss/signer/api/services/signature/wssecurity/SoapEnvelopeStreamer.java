@@ -0,0 +1,498 @@
+package io.mersel.dss.signer.api.services.signature.wssecurity;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import io.mersel.dss.signer.api.constants.XmlConstants;
+import io.mersel.dss.signer.api.util.xml.DomCompatibleXmlWriter;
+import io.mersel.dss.signer.api.util.xml.ExclusiveC14nWriter;
+import io.mersel.dss.signer.api.util.xml.SecureXmlFactories;
+import io.mersel.dss.signer.api.util.xml.XmlAttribute;
+import org.apache.commons.io.output.NullOutputStream;
+import org.w3c.dom.Element;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Result;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * WS-Security akış modunun iki geçişi. Zarf hiçbir zaman DOM'a yüklenmez;
+ * bellekte yalnızca açık elementlerin adları ve namespace kapsamı tutulur.
+ *
+ * <ol>
+ *   <li>{@link #scan}: zarfın DOM yolunun göreceği yapıda olduğunu doğrular
+ *       ve SOAP Body'yi, DOM yolunun yapacağı değişikliklerle
+ *       ({@code Id} eklenir; {@code wsu:Id}, {@code xmlns:xsi},
+ *       {@code xmlns:xsd} silinir) EXC-C14N'leyip doğrudan digest'e
+ *       besler.</li>
+ *   <li>{@link #rewrite}: zarfı {@link DomCompatibleXmlWriter} ile yeniden
+ *       yazar; Security başlığını Header'ın ilk çocuğu olarak (Header yoksa
+ *       Body'den önce yeni Header ile) araya koyar.</li>
+ * </ol>
+ *
+ * <p>Byte uyumunun garanti edilemediği yapılar (DOCTYPE, XML 1.1,
+ * {@code standalone} bildirimi, hâlihazırda Security başlığı, kök çocuğu
+ * olmayan Header/Body, imza ID'leriyle çakışan {@code Id}'ler, çıktı
+ * kaçışlamasını değiştiren işlem talimatları, ayrıştırılamayan girdi)
+ * tarama sonucunda {@link Scan#getFallbackReason()} ile bildirilir; çağıran
+ * DOM yoluna düşer ve hata/çıktı davranışı değişmez.</p>
+ */
+final class SoapEnvelopeStreamer {
+
+    private static final String HEADER = "Header";
+    private static final String BODY = "Body";
+    private static final String LEXICAL_HANDLER = "http://xml.org/sax/properties/lexical-handler";
+
+    private SoapEnvelopeStreamer() {
+    }
+
+    /** Birinci geçişin sonucu. */
+    static final class Scan {
+        private final String fallbackReason;
+        private final boolean headerPresent;
+        private final byte[] bodyDigest;
+
+        private Scan(String fallbackReason, boolean headerPresent, byte[] bodyDigest) {
+            this.fallbackReason = fallbackReason;
+            this.headerPresent = headerPresent;
+            this.bodyDigest = bodyDigest;
+        }
+
+        static Scan fallback(String reason) {
+            return new Scan(reason, false, null);
+        }
+
+        /** {@code null} → akış modu kullanılabilir. */
+        String getFallbackReason() {
+            return fallbackReason;
+        }
+
+        boolean isHeaderPresent() {
+            return headerPresent;
+        }
+
+        byte[] getBodyDigest() {
+            return bodyDigest;
+        }
+    }
+
+    /**
+     * Birinci geçiş: yapı denetimi ve Body digest'i.
+     *
+     * @param digestAlgorithm Body referansının digest algoritması
+     */
+    static Scan scan(InputStream in, String soapNamespace, DigestAlgorithm digestAlgorithm) throws IOException {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance(digestAlgorithm.getJavaName());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Digest algoritması bulunamadı: " + digestAlgorithm, e);
+        }
+        XMLStreamReader reader = null;
+        try {
+            reader = newReader(in);
+            String version = reader.getVersion();
+            if (version != null && !"1.0".equals(version)) {
+                return Scan.fallback("XML " + version);
+            }
+            if (reader.standaloneSet()) {
+                return Scan.fallback("standalone bildirimi");
+            }
+            // DOM yolu bildirilen kodlamayı çıktıya taşır; akış modu yalnız UTF-8 yazar.
+            String encoding = reader.getCharacterEncodingScheme();
+            if (encoding != null && !"UTF-8".equals(encoding)) {
+                return Scan.fallback(encoding + " kodlama bildirimi");
+            }
+
+            int depth = 0;
+            int headerDepth = 0;          // ilk Header'ın derinliği; 0 → henüz yok
+            boolean insideHeader = false;
+            int bodyDepth = 0;            // ilk Body'nin derinliği; 0 → henüz yok
+            boolean bodyDone = false;
+            ExclusiveC14nWriter c14n = null;
+            String rootQname = null;
+            String rootNamespace = null;
+            List<XmlAttribute> rootAttributes = null;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                switch (event) {
+                    case XMLStreamConstants.START_ELEMENT: {
+                        depth++;
+                        String namespace = reader.getNamespaceURI();
+                        String localName = reader.getLocalName();
+                        String qname = qname(reader);
+                        List<XmlAttribute> attributes = XmlAttribute.fromReader(reader);
+                        boolean soap = soapNamespace.equals(namespace);
+                        boolean isBody = false;
+
+                        if (depth == 1) {
+                            rootQname = qname;
+                            rootNamespace = namespace;
+                            rootAttributes = attributes;
+                        }
+                        if (soap && HEADER.equals(localName) && headerDepth == 0) {
+                            if (depth != 2) {
+                                return Scan.fallback("Header kök elementin çocuğu değil");
+                            }
+                            headerDepth = depth;
+                            insideHeader = true;
+                        } else if (insideHeader && XmlConstants.NS_WSSE.equals(namespace)
+                                && "Security".equals(localName)) {
+                            return Scan.fallback("mevcut Security başlığı");
+                        }
+                        if (soap && BODY.equals(localName) && bodyDepth == 0) {
+                            if (depth != 2) {
+                                return Scan.fallback("Body kök elementin çocuğu değil");
+                            }
+                            bodyDepth = depth;
+                            isBody = true;
+                            attributes = bodyAttributes(attributes);
+                            c14n = new ExclusiveC14nWriter(new DigestOutputStream(NullOutputStream.INSTANCE, md));
+                            c14n.addAncestor(rootQname, rootNamespace, rootAttributes);
+                        }
+                        if (collidesWithSignatureIds(attributes, isBody)) {
+                            return Scan.fallback("imza ID'siyle çakışan Id");
+                        }
+                        if (c14n != null) {
+                            c14n.startElement(qname, namespace, attributes);
+                        }
+                        break;
+                    }
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (c14n != null) {
+                            c14n.endElement();
+                            if (depth == bodyDepth) {
+                                c14n.flush();
+                                c14n = null;
+                                bodyDone = true;
+                            }
+                        }
+                        if (depth == headerDepth) {
+                            insideHeader = false;
+                        }
+                        depth--;
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.SPACE:
+                    case XMLStreamConstants.CDATA:
+                        if (c14n != null) {
+                            c14n.text(reader.getText());
+                        }
+                        break;
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                        if (isOutputEscapingInstruction(reader.getPITarget())) {
+                            return Scan.fallback("çıktı kaçışlama talimatı");
+                        }
+                        if (c14n != null) {
+                            c14n.processingInstruction(reader.getPITarget(), piData(reader));
+                        }
+                        break;
+                    case XMLStreamConstants.DTD:
+                        return Scan.fallback("DOCTYPE");
+                    default:
+                        break;
+                }
+            }
+            if (!bodyDone) {
+                return Scan.fallback("Body bulunamadı");
+            }
+            return new Scan(null, headerDepth != 0, md.digest());
+        } catch (XMLStreamException e) {
+            return Scan.fallback("ayrıştırılamadı: " + e.getMessage());
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    /**
+     * İkinci geçiş: zarfı Security başlığıyla birlikte yazar. Girdinin
+     * {@link #scan} ile denetlenmiş olması beklenir.
+     *
+     * <p>Bu geçiş StAX yerine SAX kullanır: JDK StAX okuyucusu uzun CDATA
+     * bölümlerini tampon sınırında birden çok {@code CDATA} olayına böler ve
+     * bitişik iki gerçek bölümden ayırt edilemez; DOM yolu ise bölüm
+     * sınırlarını korur. SAX {@code startCDATA}/{@code endCDATA} sınırları
+     * kesin bildirir. Bellekte tutulan en büyük parça tek bir CDATA
+     * bölümüdür.</p>
+     *
+     * @param headerPresent {@link Scan#isHeaderPresent()}
+     * @param security      imzalanmış {@code wsse:Security} elementi
+     */
+    static void rewrite(InputStream in,
+                        OutputStream out,
+                        String soapNamespace,
+                        boolean headerPresent,
+                        Element security) throws IOException, SAXException {
+        XMLReader reader;
+        try {
+            reader = SecureXmlFactories.newSAXParserFactory().newSAXParser().getXMLReader();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("SAX parser oluşturulamadı", e);
+        }
+        RewriteHandler handler = new RewriteHandler(
+                new DomCompatibleXmlWriter(out), soapNamespace, headerPresent, security);
+        reader.setContentHandler(handler);
+        reader.setProperty(LEXICAL_HANDLER, handler);
+        try {
+            reader.parse(new InputSource(in));
+        } catch (SAXException e) {
+            if (e.getException() instanceof IOException) {
+                throw (IOException) e.getException();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * DOM yolunun Body'ye uyguladığı değişiklikler: {@code Id} eklenir ya da
+     * değeri değişir; {@code wsu:Id}, {@code xmlns:xsi}, {@code xmlns:xsd}
+     * qname ile silinir.
+     */
+    static List<XmlAttribute> bodyAttributes(List<XmlAttribute> attributes) {
+        List<XmlAttribute> result = new ArrayList<XmlAttribute>(attributes.size() + 1);
+        boolean idSet = false;
+        for (XmlAttribute attribute : attributes) {
+            String name = attribute.getQname();
+            if ("wsu:Id".equals(name) || "xmlns:xsi".equals(name) || "xmlns:xsd".equals(name)) {
+                continue;
+            }
+            if ("Id".equals(name)) {
+                result.add(new XmlAttribute("Id", attribute.getNamespaceUri(), WsSecuritySignatureService.BODY_ID));
+                idSet = true;
+            } else {
+                result.add(attribute);
+            }
+        }
+        if (!idSet) {
+            result.add(new XmlAttribute("Id", null, WsSecuritySignatureService.BODY_ID));
+        }
+        return result;
+    }
+
+    /**
+     * DOM yolu referans hedeflerini {@code Id} / {@code wsu:Id} indeksinde
+     * belge sırasıyla arar; zarfta aynı ID'yi taşıyan başka element varsa
+     * imza yanlış hedefi kapsayabilir. Bu durumda akış modu kullanılmaz.
+     */
+    private static boolean collidesWithSignatureIds(List<XmlAttribute> attributes, boolean body) {
+        for (XmlAttribute attribute : attributes) {
+            boolean plainId = "Id".equals(attribute.getQname());
+            boolean wsuId = XmlConstants.NS_WSU.equals(attribute.getNamespaceUri())
+                    && "Id".equals(attribute.getLocalName());
+            if ((plainId && !body) || wsuId) {
+                String value = attribute.getValue();
+                if (WsSecuritySignatureService.BODY_ID.equals(value)
+                        || WsSecuritySignatureService.TS_ID.equals(value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** DOM yolunun Header oluştururken kullandığı önek. */
+    private static String createdHeaderPrefix(String soapNamespace) {
+        return XmlConstants.NS_SOAP_1_DOT_2_ENVELOPE.equals(soapNamespace) ? "env" : "soapenv";
+    }
+
+    private static boolean isOutputEscapingInstruction(String target) {
+        return Result.PI_DISABLE_OUTPUT_ESCAPING.equals(target) || Result.PI_ENABLE_OUTPUT_ESCAPING.equals(target);
+    }
+
+    private static XMLStreamReader newReader(InputStream in) throws XMLStreamException {
+        XMLInputFactory factory = SecureXmlFactories.newXMLInputFactory();
+        return factory.createXMLStreamReader(in);
+    }
+
+    private static String qname(XMLStreamReader reader) {
+        String prefix = reader.getPrefix();
+        return prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+    }
+
+    private static String piData(XMLStreamReader reader) {
+        String data = reader.getPIData();
+        return data == null ? "" : data;
+    }
+
+    private static void closeQuietly(XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException ignored) {
+                // Okuyucu kapatma hatası alttaki akışı etkilemez; akış çağıranındır.
+            }
+        }
+    }
+
+    /** {@link #rewrite} olaylarını {@link DomCompatibleXmlWriter}'a aktarır. */
+    private static final class RewriteHandler extends DefaultHandler implements LexicalHandler {
+
+        private final DomCompatibleXmlWriter writer;
+        private final String soapNamespace;
+        private final boolean headerPresent;
+        private final Element security;
+        private final List<String[]> declarations = new ArrayList<String[]>();
+        private final StringBuilder cdata = new StringBuilder();
+        private boolean inCdata;
+        private int depth;
+        private boolean headerWritten;
+        private boolean bodyWritten;
+
+        RewriteHandler(DomCompatibleXmlWriter writer, String soapNamespace, boolean headerPresent, Element security) {
+            this.writer = writer;
+            this.soapNamespace = soapNamespace;
+            this.headerPresent = headerPresent;
+            this.security = security;
+        }
+
+        @Override
+        public void startDocument() throws SAXException {
+            try {
+                writer.startDocument();
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+        }
+
+        @Override
+        public void endDocument() throws SAXException {
+            try {
+                writer.endDocument();
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+        }
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) {
+            declarations.add(new String[] {prefix, uri});
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attrs) throws SAXException {
+            depth++;
+            String namespace = uri.isEmpty() ? null : uri;
+            List<XmlAttribute> attributes = XmlAttribute.fromSax(declarations, attrs);
+            declarations.clear();
+            boolean soapChild = depth == 2 && soapNamespace.equals(uri);
+            try {
+                if (soapChild && BODY.equals(localName) && !bodyWritten) {
+                    bodyWritten = true;
+                    if (!headerPresent && !headerWritten) {
+                        headerWritten = true;
+                        writer.startElement(createdHeaderPrefix(soapNamespace) + ":" + HEADER,
+                                soapNamespace, Collections.<XmlAttribute>emptyList());
+                        writer.element(security);
+                        writer.endElement();
+                    }
+                    writer.startElement(qName, namespace, bodyAttributes(attributes));
+                } else if (soapChild && HEADER.equals(localName) && !headerWritten) {
+                    headerWritten = true;
+                    writer.startElement(qName, namespace, attributes);
+                    writer.element(security);
+                } else {
+                    writer.startElement(qName, namespace, attributes);
+                }
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            try {
+                writer.endElement();
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+            depth--;
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            if (inCdata) {
+                cdata.append(ch, start, length);
+                return;
+            }
+            try {
+                writer.characters(new String(ch, start, length));
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+        }
+
+        @Override
+        public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+            characters(ch, start, length);
+        }
+
+        @Override
+        public void processingInstruction(String target, String data) throws SAXException {
+            try {
+                writer.processingInstruction(target, data == null ? "" : data);
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+        }
+
+        @Override
+        public void startCDATA() {
+            inCdata = true;
+            cdata.setLength(0);
+        }
+
+        @Override
+        public void endCDATA() throws SAXException {
+            inCdata = false;
+            try {
+                writer.cdata(cdata.toString());
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+            cdata.setLength(0);
+        }
+
+        @Override
+        public void comment(char[] ch, int start, int length) throws SAXException {
+            try {
+                writer.comment(new String(ch, start, length));
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+        }
+
+        @Override
+        public void startDTD(String name, String publicId, String systemId) {
+            // scan DOCTYPE'lı zarfı DOM yoluna düşürür; buraya gelinmez.
+        }
+
+        @Override
+        public void endDTD() {
+        }
+
+        @Override
+        public void startEntity(String name) {
+        }
+
+        @Override
+        public void endEntity(String name) {
+        }
+    }
+}
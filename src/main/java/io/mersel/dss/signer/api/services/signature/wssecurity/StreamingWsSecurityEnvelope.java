@@ -0,0 +1,46 @@
+package io.mersel.dss.signer.api.services.signature.wssecurity;
+
+import org.springframework.core.io.InputStreamSource;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Akış modunda imzalanmış, henüz yazılmamış SOAP zarfı
+ * ({@link WsSecuritySignatureService#prepareStreaming}). İmza hesaplanmıştır;
+ * {@link #writeTo} zarfı kaynaktan ikinci kez okuyup Security başlığıyla
+ * birlikte hedefe yazar. Kaynak, yazma bitene kadar okunabilir kalmalıdır.
+ */
+public final class StreamingWsSecurityEnvelope {
+
+    private final InputStreamSource source;
+    private final String soapNamespace;
+    private final boolean headerPresent;
+    private final Element securityElement;
+
+    StreamingWsSecurityEnvelope(InputStreamSource source,
+                                String soapNamespace,
+                                boolean headerPresent,
+                                Element securityElement) {
+        this.source = source;
+        this.soapNamespace = soapNamespace;
+        this.headerPresent = headerPresent;
+        this.securityElement = securityElement;
+    }
+
+    /**
+     * İmzalı zarfı yazar; {@code out} kapatılmaz. Birden fazla kez
+     * çağrılabilir, her çağrı aynı byte'ları üretir.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        try (InputStream in = source.getInputStream()) {
+            SoapEnvelopeStreamer.rewrite(in, out, soapNamespace, headerPresent, securityElement);
+        } catch (SAXException e) {
+            // Birinci geçiş aynı girdiyi ayrıştırdı; buraya ancak kaynak değiştiyse gelinir.
+            throw new IOException("İmzalı SOAP zarfı yazılamadı", e);
+        }
+    }
+}
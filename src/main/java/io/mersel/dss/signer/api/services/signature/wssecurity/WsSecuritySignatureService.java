@@ -7,32 +7,40 @@ import io.mersel.dss.signer.api.constants.XmlConstants;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.SignatureFormat;
+import io.mersel.dss.signer.api.services.concurrency.SigningLimiter;
 import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
 import io.mersel.dss.signer.api.services.keystore.iaik.Pkcs11EcdsaSignatureEncoder;
 import io.mersel.dss.signer.api.services.keystore.iaik.Pkcs11Signer;
-import io.mersel.dss.signer.api.util.xml.SecureXmlFactories;
+import io.mersel.dss.signer.api.util.xml.XmlProcessorPool;
 import org.apache.xml.security.Init;
 import org.apache.xml.security.c14n.Canonicalizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.stereotype.Service;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
+import org.apache.commons.io.output.NullOutputStream;
+import org.w3c.dom.Node;
+
 import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.security.cert.X509Certificate;
 import java.security.interfaces.DSAPublicKey;
 import java.security.interfaces.ECPublicKey;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.Base64;
-import java.util.concurrent.Semaphore;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * SOAP mesajları için WS-Security XML imzaları oluşturan servis.
@@ -49,8 +57,10 @@ import java.util.concurrent.Semaphore;
  *   <li><b>SignedInfo</b> + <b>Reference</b> elementlerini doğrudan DOM ile
  *       inşa ederiz.</li>
  *   <li>Her referans için hedef elementi <b>Apache Santuario</b>'nun
- *       {@link Canonicalizer}'ı ile EXC-C14N'leyip {@link MessageDigest}
- *       ile hash'leriz.</li>
+ *       {@link Canonicalizer}'ı ile EXC-C14N'leyip doğrudan bir
+ *       {@link DigestOutputStream}'e yazarız; kanonik byte'lar bellekte
+ *       biriktirilmez. Hedefler tek geçişte kurulan {@code Id}/{@code wsu:Id}
+ *       indeksinden bulunur.</li>
  *   <li>SignedInfo'yu yine EXC-C14N'leyip {@link CryptoSigner} aracılığıyla
  *       imzalarız — PFX yolunda JCA, HSM yolunda
  *       {@link Pkcs11Signer#sign(byte[], SignatureAlgorithm)}.</li>
@@ -61,16 +71,19 @@ import java.util.concurrent.Semaphore;
  * </ol>
  *
  * <h2>Thread-safety</h2>
- * <p>{@code signatureSemaphore} aynı anda imza atan thread sayısını sınırlar
- * (HSM session pool boyutuyla eşleşmeli). Servis state'siz; her çağrı izole.</p>
+ * <p>{@code signingLimiter} aynı anda imza atan thread sayısını sınırlar
+ * (HSM session pool boyutuyla eşleşmeli). Permit yalnızca backend imza
+ * çağrısı ({@link #signRaw}) etrafında tutulur; DOM inşası, kanonikleştirme
+ * ve digest hesabı permit dışında yapılır, böylece büyük SOAP zarfları
+ * eş zamanlı XAdES imzalarını bekletmez. Servis state'siz; her çağrı izole.</p>
  */
 @Service
 public class WsSecuritySignatureService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(WsSecuritySignatureService.class);
 
-    private static final String BODY_ID = "SignedSoapBodyContent";
-    private static final String TS_ID = "SignedSoapTimestampContent";
+    static final String BODY_ID = "SignedSoapBodyContent";
+    static final String TS_ID = "SignedSoapTimestampContent";
     private static final String NS_WSSE = "http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-secext-1.0.xsd";
     private static final String NS_DSIG = "http://www.w3.org/2000/09/xmldsig#";
     private static final String NS_DSIG_MORE = "http://www.w3.org/2001/04/xmldsig-more#";
@@ -94,15 +107,106 @@ public class WsSecuritySignatureService {
     @Value("${WSSECURITY_TIMESTAMP_TTL_SECONDS:60}")
     private long timestampTtlSeconds = 60L;
 
-    private final Semaphore semaphore;
+    /**
+     * Bu boyuttan (byte) büyük zarflar akış modunda imzalanır
+     * ({@link #prepareStreaming}); {@code 0} → akış modu kapalı. Ortam
+     * değişkeni {@code WSSECURITY_STREAMING_THRESHOLD_BYTES}.
+     */
+    @Value("${WSSECURITY_STREAMING_THRESHOLD_BYTES:0}")
+    private long streamingThresholdBytes = 0L;
+
+    /** {@code wsu:Timestamp} saati; testler sabit saat verebilir. */
+    private Clock clock = Clock.systemUTC();
+
+    private final SigningLimiter signingLimiter;
     private final DigestAlgorithmResolverService digestAlgorithmResolver;
 
-    public WsSecuritySignatureService(Semaphore signatureSemaphore,
+    public WsSecuritySignatureService(SigningLimiter signingLimiter,
                                       DigestAlgorithmResolverService digestAlgorithmResolver) {
-        this.semaphore = signatureSemaphore;
+        this.signingLimiter = signingLimiter;
         this.digestAlgorithmResolver = digestAlgorithmResolver;
     }
 
+    /**
+     * Bu boyuttaki zarfın akış modunda imzalanıp imzalanmayacağı
+     * ({@code WSSECURITY_STREAMING_THRESHOLD_BYTES}).
+     */
+    public boolean isStreamingEligible(long envelopeSize) {
+        return streamingThresholdBytes > 0 && envelopeSize >= streamingThresholdBytes;
+    }
+
+    /**
+     * Akış modu: zarfı DOM'a yüklemeden imzalar. Girdi iki kez okunur;
+     * birinci geçişte SOAP Body EXC-C14N'lenip doğrudan digest'e beslenir,
+     * küçük Security başlığı (Timestamp, BinarySecurityToken, Signature)
+     * ayrı bir DOM'da kurulup imzalanır. İkinci geçiş
+     * {@link StreamingWsSecurityEnvelope#writeTo} çağrıldığında zarfı
+     * Security başlığıyla birlikte yazar. Bellek kullanımı zarf boyutundan
+     * bağımsızdır; çıktı {@link #signSoapEnvelope} ile byte düzeyinde aynıdır.
+     *
+     * <p>İmza (ve permit) bu çağrı içinde tamamlanır; dolayısıyla kapasite
+     * reddi ve imza hataları yanıt yazılmaya başlamadan yüzeye çıkar.</p>
+     *
+     * @param source zarf kaynağı; iki kez açılabilmeli (örn. {@code MultipartFile})
+     * @return yazılmaya hazır imzalı zarf; zarf akış modunun byte uyumunu
+     *         garanti edemediği bir yapı içeriyorsa {@code null} — çağıran
+     *         {@link #signSoapEnvelope} ile DOM yoluna düşmelidir
+     */
+    public StreamingWsSecurityEnvelope prepareStreaming(InputStreamSource source,
+                                                        boolean useSoap12,
+                                                        SigningMaterial material) {
+        try {
+            String soapNamespace = useSoap12
+                ? XmlConstants.NS_SOAP_1_DOT_2_ENVELOPE
+                : XmlConstants.NS_SOAP_ENVELOPE;
+            DigestAlgorithm digestAlg = digestAlgorithmResolver.resolveDigestAlgorithm(
+                material.getSigningCertificate());
+
+            SoapEnvelopeStreamer.Scan scan;
+            try (InputStream in = source.getInputStream()) {
+                scan = SoapEnvelopeStreamer.scan(in, soapNamespace, digestAlg);
+            }
+            if (scan.getFallbackReason() != null) {
+                LOGGER.info("WS-Security akış modu kullanılamıyor ({}), DOM yoluna düşülüyor",
+                    scan.getFallbackReason());
+                return null;
+            }
+
+            Document scratch = XmlProcessorPool.newDocument();
+            Element securityElement = newSecurityElement(scratch);
+            scratch.appendChild(securityElement);
+            Element timestamp = newTimestamp(scratch);
+            securityElement.appendChild(newBinarySecurityToken(scratch, material));
+            securityElement.appendChild(timestamp);
+            String bstReference = "X509-" + material.getSigningCertificate().getSerialNumber();
+
+            byte[] bodyDigest = scan.getBodyDigest();
+            signDocument(securityElement, material, bstReference, (id, alg) -> {
+                if (TS_ID.equals(id)) {
+                    return canonicalDigest(timestamp, alg);
+                }
+                if (BODY_ID.equals(id) && alg == digestAlg) {
+                    return bodyDigest;
+                }
+                return null;
+            });
+
+            LOGGER.info("WS-Security imzası akış modunda oluşturuldu (SOAP {}, backend={})",
+                useSoap12 ? "1.2" : "1.1",
+                material.isPkcs11() ? "HSM/PKCS#11" : "PFX/JCA");
+            return new StreamingWsSecurityEnvelope(source, soapNamespace, scan.isHeaderPresent(), securityElement);
+
+        } catch (Exception e) {
+            LOGGER.error("WS-Security imzası oluşturulurken hata", e);
+            throw new SignatureException("WS-Security imzası oluşturulamadı", e);
+        }
+    }
+
+    /** Testler için: {@code wsu:Timestamp} zamanını sabitler. */
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
     /**
      * SOAP zarfını WS-Security imzası ile imzalar. PFX ve HSM yapılandırmaları
      * her ikisi de desteklenir.
@@ -135,8 +239,9 @@ public class WsSecuritySignatureService {
             String bstReference = addBinarySecurityToken(
                 soapDocument, soapNamespace, material);
 
-            Element testTimestamp = findElementById(soapDocument, TS_ID);
-            Element testBody = findElementById(soapDocument, BODY_ID);
+            Map<String, Element> idIndex = indexElementIds(soapDocument);
+            Element testTimestamp = idIndex.get(TS_ID);
+            Element testBody = idIndex.get(BODY_ID);
             LOGGER.debug("Pre-signature validation - Timestamp found: {}, Body found: {}",
                 testTimestamp != null, testBody != null);
             if (testTimestamp == null) {
@@ -146,7 +251,10 @@ public class WsSecuritySignatureService {
                 LOGGER.error("{} elementi bulunamadı!", BODY_ID);
             }
 
-            signDocument(soapDocument, securityElement, material, bstReference);
+            signDocument(securityElement, material, bstReference, (id, alg) -> {
+                Element target = idIndex.get(id);
+                return target == null ? null : canonicalDigest(target, alg);
+            });
 
             byte[] signedBytes = documentToBytes(soapDocument);
 
@@ -191,15 +299,7 @@ public class WsSecuritySignatureService {
             .getElementsByTagNameNS(XmlConstants.NS_WSSE, "Security").item(0);
 
         if (securityElement == null) {
-            securityElement = document.createElementNS(XmlConstants.NS_WSSE, "wsse:Security");
-            securityElement.setAttributeNS(
-                "http://www.w3.org/2000/xmlns/",
-                "xmlns:wsse",
-                XmlConstants.NS_WSSE);
-            securityElement.setAttributeNS(
-                "http://www.w3.org/2000/xmlns/",
-                "xmlns:wsu",
-                XmlConstants.NS_WSU);
+            securityElement = newSecurityElement(document);
 
             if (soapHeaderElement.hasChildNodes()) {
                 soapHeaderElement.insertBefore(securityElement, soapHeaderElement.getFirstChild());
@@ -213,26 +313,44 @@ public class WsSecuritySignatureService {
         return securityElement;
     }
 
+    private static Element newSecurityElement(Document document) {
+        Element securityElement = document.createElementNS(XmlConstants.NS_WSSE, "wsse:Security");
+        securityElement.setAttributeNS(
+            "http://www.w3.org/2000/xmlns/",
+            "xmlns:wsse",
+            XmlConstants.NS_WSSE);
+        securityElement.setAttributeNS(
+            "http://www.w3.org/2000/xmlns/",
+            "xmlns:wsu",
+            XmlConstants.NS_WSU);
+        return securityElement;
+    }
+
     private void addTimestamp(Document document, Element securityElement) {
+        Element timestampElement = newTimestamp(document);
+
+        if (securityElement.hasChildNodes()) {
+            securityElement.insertBefore(timestampElement, securityElement.getFirstChild());
+        } else {
+            securityElement.appendChild(timestampElement);
+        }
+    }
+
+    private Element newTimestamp(Document document) {
         Element timestampElement = document.createElementNS(XmlConstants.NS_WSU, "wsu:Timestamp");
         timestampElement.setAttribute("Id", TS_ID);
         timestampElement.setIdAttribute("Id", true);
 
         Element createdElement = document.createElementNS(XmlConstants.NS_WSU, "wsu:Created");
-        java.time.Instant now = java.time.Instant.now();
+        Instant now = Instant.now(clock);
         createdElement.setTextContent(now.toString());
         timestampElement.appendChild(createdElement);
 
         Element expiresElement = document.createElementNS(XmlConstants.NS_WSU, "wsu:Expires");
-        java.time.Instant expires = now.plusSeconds(timestampTtlSeconds);
+        Instant expires = now.plusSeconds(timestampTtlSeconds);
         expiresElement.setTextContent(expires.toString());
         timestampElement.appendChild(expiresElement);
-
-        if (securityElement.hasChildNodes()) {
-            securityElement.insertBefore(timestampElement, securityElement.getFirstChild());
-        } else {
-            securityElement.appendChild(timestampElement);
-        }
+        return timestampElement;
     }
 
     private String addBinarySecurityToken(Document document,
@@ -253,19 +371,23 @@ public class WsSecuritySignatureService {
             headerElement.appendChild(securityElement);
         }
 
+        securityElement.insertBefore(newBinarySecurityToken(document, material), securityElement.getFirstChild());
+
+        return bstReference;
+    }
+
+    private static Element newBinarySecurityToken(Document document, SigningMaterial material) throws Exception {
         Element binarySecurityToken = document.createElementNS(
             XmlConstants.NS_WSSE, "wsse:BinarySecurityToken");
         binarySecurityToken.setAttribute("EncodingType", XmlConstants.ATTR_EncodingType);
         binarySecurityToken.setAttribute("ValueType", XmlConstants.ATTR_ValueType);
-        binarySecurityToken.setAttributeNS(XmlConstants.NS_WSU, "wsu:Id", bstReference);
+        binarySecurityToken.setAttributeNS(XmlConstants.NS_WSU, "wsu:Id",
+            "X509-" + material.getSigningCertificate().getSerialNumber());
         binarySecurityToken.setIdAttributeNS(XmlConstants.NS_WSU, "Id", true);
         binarySecurityToken.setTextContent(
             Base64.getEncoder().encodeToString(
                 material.getSigningCertificate().getEncoded()));
-
-        securityElement.insertBefore(binarySecurityToken, securityElement.getFirstChild());
-
-        return bstReference;
+        return binarySecurityToken;
     }
 
     /**
@@ -274,94 +396,92 @@ public class WsSecuritySignatureService {
      *
      * <p>Bu yol PFX (JCA) ve HSM (PKCS#11) için tamamen ortaktır; tek fark
      * {@link #signRaw} içindeki backend seçimi.</p>
+     *
+     * @param digester referans ID'si için kanonik digest kaynağı (DOM
+     *                 yolunda {@link #indexElementIds} indeksi, akış
+     *                 modunda önceden hesaplanmış Body digest'i)
      */
-    private void signDocument(Document document,
-                             Element securityElement,
+    private void signDocument(Element securityElement,
                              SigningMaterial material,
-                             String bstReference) throws Exception {
-        semaphore.acquire();
-        try {
-            X509Certificate cert = material.getSigningCertificate();
-            DigestAlgorithm digestAlg = digestAlgorithmResolver.resolveDigestAlgorithm(cert);
-            EncryptionAlgorithm encAlg = EncryptionAlgorithm.forKey(cert.getPublicKey());
-            SignatureAlgorithm sigAlg = SignatureAlgorithm.getAlgorithm(encAlg, digestAlg);
-            if (sigAlg == null) {
-                throw new SignatureException(
-                    "Desteklenmeyen kombinasyon: enc=" + encAlg + ", digest=" + digestAlg);
-            }
-            String signatureMethodUri = signatureMethodUri(sigAlg);
-            String digestMethodUri = digestMethodUri(digestAlg);
-
-            // 1) <ds:Signature> skeleton'u
-            Element signatureElem = document.createElementNS(NS_DSIG, "ds:Signature");
-            signatureElem.setAttributeNS("http://www.w3.org/2000/xmlns/", "xmlns:ds", NS_DSIG);
-
-            Element signedInfo = document.createElementNS(NS_DSIG, "ds:SignedInfo");
-            Element cm = document.createElementNS(NS_DSIG, "ds:CanonicalizationMethod");
-            cm.setAttribute("Algorithm", C14N_EXCL);
-            signedInfo.appendChild(cm);
-
-            Element sm = document.createElementNS(NS_DSIG, "ds:SignatureMethod");
-            sm.setAttribute("Algorithm", signatureMethodUri);
-            signedInfo.appendChild(sm);
-
-            // Referanslar: Timestamp + Body
-            signedInfo.appendChild(buildReference(document, TS_ID, digestMethodUri));
-            signedInfo.appendChild(buildReference(document, BODY_ID, digestMethodUri));
-
-            signatureElem.appendChild(signedInfo);
-
-            Element sigValueElem = document.createElementNS(NS_DSIG, "ds:SignatureValue");
-            signatureElem.appendChild(sigValueElem);
-
-            // KeyInfo → SecurityTokenReference → BST reference
-            signatureElem.appendChild(buildKeyInfo(document, bstReference));
-
-            // Security header'ın altına Signature ekle.
-            securityElement.appendChild(signatureElem);
-
-            // 2) Referansların DigestValue'larını hesapla.
-            NodeList refs = signedInfo.getElementsByTagNameNS(NS_DSIG, "Reference");
-            for (int i = 0; i < refs.getLength(); i++) {
-                Element refElem = (Element) refs.item(i);
-                String uri = refElem.getAttribute("URI");
-                String id = uri.startsWith("#") ? uri.substring(1) : uri;
-                Element target = findElementById(document, id);
-                if (target == null) {
-                    throw new SignatureException("Reference URI=" + uri + " hedefi DOM'da bulunamadı");
-                }
-                byte[] c14nBytes = canonicalize(target);
-                byte[] digest = MessageDigest.getInstance(digestAlg.getJavaName()).digest(c14nBytes);
-                Element digestValueElem = (Element) refElem
-                    .getElementsByTagNameNS(NS_DSIG, "DigestValue").item(0);
-                digestValueElem.setTextContent(Base64.getEncoder().encodeToString(digest));
-            }
-
-            // 3) SignedInfo'yu canonicalize edip imzala.
-            byte[] signedInfoBytes = canonicalize(signedInfo);
-            byte[] signatureBytes = signRaw(signedInfoBytes, material, sigAlg);
-
-            // 4) ECDSA/DSA imzaları XMLDsig spec'ine göre raw r||s'a indirgenir
-            //    (RFC 4051 §3.4.1, DSA için xmldsig dsa-sha1/256).
-            //    PFX yolunda JCA Signature.sign() DER üretir;
-            //    HSM yolunda IaikPkcs11Module DER'e normalize ediyor — her iki
-            //    durumda da DER'den raw'a çevirmek gerek. DSA için aynı encoder
-            //    çalışır çünkü hem ECDSA hem DSA imzası ASN.1
-            //    {@code SEQUENCE { INTEGER r, INTEGER s }} formatındadır;
-            //    aradaki tek fark "field size" — ECDSA için curve P-XXX bit,
-            //    DSA için subprime Q'nun bit uzunluğu.
-            if (isEcdsa(encAlg)) {
-                int fieldSize = ecFieldSizeBytes(cert);
-                signatureBytes = Pkcs11EcdsaSignatureEncoder.derToRaw(signatureBytes, fieldSize);
-            } else if (encAlg == EncryptionAlgorithm.DSA) {
-                int fieldSize = dsaFieldSizeBytes(cert);
-                signatureBytes = Pkcs11EcdsaSignatureEncoder.derToRaw(signatureBytes, fieldSize);
+                             String bstReference,
+                             ReferenceDigester digester) throws Exception {
+        Document document = securityElement.getOwnerDocument();
+        X509Certificate cert = material.getSigningCertificate();
+        DigestAlgorithm digestAlg = digestAlgorithmResolver.resolveDigestAlgorithm(cert);
+        EncryptionAlgorithm encAlg = EncryptionAlgorithm.forKey(cert.getPublicKey());
+        SignatureAlgorithm sigAlg = SignatureAlgorithm.getAlgorithm(encAlg, digestAlg);
+        if (sigAlg == null) {
+            throw new SignatureException(
+                "Desteklenmeyen kombinasyon: enc=" + encAlg + ", digest=" + digestAlg);
+        }
+        String signatureMethodUri = signatureMethodUri(sigAlg);
+        String digestMethodUri = digestMethodUri(digestAlg);
+
+        // 1) <ds:Signature> skeleton'u
+        Element signatureElem = document.createElementNS(NS_DSIG, "ds:Signature");
+        signatureElem.setAttributeNS("http://www.w3.org/2000/xmlns/", "xmlns:ds", NS_DSIG);
+
+        Element signedInfo = document.createElementNS(NS_DSIG, "ds:SignedInfo");
+        Element cm = document.createElementNS(NS_DSIG, "ds:CanonicalizationMethod");
+        cm.setAttribute("Algorithm", C14N_EXCL);
+        signedInfo.appendChild(cm);
+
+        Element sm = document.createElementNS(NS_DSIG, "ds:SignatureMethod");
+        sm.setAttribute("Algorithm", signatureMethodUri);
+        signedInfo.appendChild(sm);
+
+        // Referanslar: Timestamp + Body
+        signedInfo.appendChild(buildReference(document, TS_ID, digestMethodUri));
+        signedInfo.appendChild(buildReference(document, BODY_ID, digestMethodUri));
+
+        signatureElem.appendChild(signedInfo);
+
+        Element sigValueElem = document.createElementNS(NS_DSIG, "ds:SignatureValue");
+        signatureElem.appendChild(sigValueElem);
+
+        // KeyInfo → SecurityTokenReference → BST reference
+        signatureElem.appendChild(buildKeyInfo(document, bstReference));
+
+        // Security header'ın altına Signature ekle.
+        securityElement.appendChild(signatureElem);
+
+        // 2) Referansların DigestValue'larını hesapla.
+        NodeList refs = signedInfo.getElementsByTagNameNS(NS_DSIG, "Reference");
+        for (int i = 0; i < refs.getLength(); i++) {
+            Element refElem = (Element) refs.item(i);
+            String uri = refElem.getAttribute("URI");
+            String id = uri.startsWith("#") ? uri.substring(1) : uri;
+            byte[] digest = digester.digest(id, digestAlg);
+            if (digest == null) {
+                throw new SignatureException("Reference URI=" + uri + " hedefi DOM'da bulunamadı");
             }
+            Element digestValueElem = (Element) refElem
+                .getElementsByTagNameNS(NS_DSIG, "DigestValue").item(0);
+            digestValueElem.setTextContent(Base64.getEncoder().encodeToString(digest));
+        }
 
-            sigValueElem.setTextContent(Base64.getEncoder().encodeToString(signatureBytes));
-        } finally {
-            semaphore.release();
+        // 3) SignedInfo'yu canonicalize edip imzala.
+        byte[] signedInfoBytes = canonicalize(signedInfo);
+        byte[] signatureBytes = signRaw(signedInfoBytes, material, sigAlg);
+
+        // 4) ECDSA/DSA imzaları XMLDsig spec'ine göre raw r||s'a indirgenir
+        //    (RFC 4051 §3.4.1, DSA için xmldsig dsa-sha1/256).
+        //    PFX yolunda JCA Signature.sign() DER üretir;
+        //    HSM yolunda IaikPkcs11Module DER'e normalize ediyor — her iki
+        //    durumda da DER'den raw'a çevirmek gerek. DSA için aynı encoder
+        //    çalışır çünkü hem ECDSA hem DSA imzası ASN.1
+        //    {@code SEQUENCE { INTEGER r, INTEGER s }} formatındadır;
+        //    aradaki tek fark "field size" — ECDSA için curve P-XXX bit,
+        //    DSA için subprime Q'nun bit uzunluğu.
+        if (isEcdsa(encAlg)) {
+            int fieldSize = ecFieldSizeBytes(cert);
+            signatureBytes = Pkcs11EcdsaSignatureEncoder.derToRaw(signatureBytes, fieldSize);
+        } else if (encAlg == EncryptionAlgorithm.DSA) {
+            int fieldSize = dsaFieldSizeBytes(cert);
+            signatureBytes = Pkcs11EcdsaSignatureEncoder.derToRaw(signatureBytes, fieldSize);
         }
+
+        sigValueElem.setTextContent(Base64.getEncoder().encodeToString(signatureBytes));
     }
 
     private Element buildReference(Document document, String elementId, String digestMethodUri) {
@@ -402,9 +522,16 @@ public class WsSecuritySignatureService {
      * Backend-agnostic imzalama: PFX yolunda JCA, HSM yolunda PKCS#11.
      * Çıktı ECDSA için <b>DER SEQUENCE</b>, RSA için RSASSA-PKCS1-v1_5 encoded
      * (her ikisi de {@link SigningMaterial} kontratının standart çıktısı).
+     *
+     * <p>İmza permit'i yalnızca bu çağrı boyunca tutulur.</p>
      */
     private byte[] signRaw(byte[] data, SigningMaterial material, SignatureAlgorithm sigAlg) throws Exception {
-        return material.sign(data, sigAlg);
+        long permit = signingLimiter.acquire(SignatureFormat.WSSECURITY);
+        try {
+            return material.sign(data, sigAlg);
+        } finally {
+            signingLimiter.release(permit);
+        }
     }
 
     private byte[] canonicalize(Element element) throws Exception {
@@ -414,6 +541,17 @@ public class WsSecuritySignatureService {
         return out.toByteArray();
     }
 
+    /**
+     * Elementi EXC-C14N ile kanonikleştirip çıktıyı doğrudan digest'e besler;
+     * büyük SOAP gövdeleri için ara byte dizisi oluşmaz.
+     */
+    private byte[] canonicalDigest(Element element, DigestAlgorithm digestAlg) throws Exception {
+        MessageDigest md = MessageDigest.getInstance(digestAlg.getJavaName());
+        Canonicalizer.getInstance(C14N_EXCL)
+            .canonicalizeSubtree(element, new DigestOutputStream(NullOutputStream.INSTANCE, md));
+        return md.digest();
+    }
+
     private static boolean isEcdsa(EncryptionAlgorithm enc) {
         return enc == EncryptionAlgorithm.ECDSA || enc == EncryptionAlgorithm.PLAIN_ECDSA;
     }
@@ -505,46 +643,41 @@ public class WsSecuritySignatureService {
     }
 
     /**
-     * Tüm dokümanda recursive olarak verilen ID değerini taşıyan elementi arar.
-     * "Id" (WS-Security tarzı) ve "wsu:Id" attribute'larını kontrol eder.
+     * Dokümanı tek geçişte dolaşıp {@code Id} (WS-Security tarzı) ve
+     * {@code wsu:Id} attribute değerlerini elemente eşler. Aynı ID birden
+     * fazla elementte varsa belge sırasındaki ilki geçerlidir. Derin SOAP
+     * gövdelerinde stack taşmaması için dolaşım iteratiftir.
      */
-    private Element findElementById(Document document, String id) {
-        return findElementByIdRecursive(document.getDocumentElement(), id);
-    }
-
-    private Element findElementByIdRecursive(Element element, String id) {
-        if (id == null || id.isEmpty()) {
-            return null;
-        }
-        String elementId = element.getAttribute("Id");
-        if (elementId != null && !elementId.isEmpty() && id.equals(elementId)) {
-            return element;
-        }
-        String wsuId = element.getAttributeNS(XmlConstants.NS_WSU, "Id");
-        if (wsuId != null && !wsuId.isEmpty() && id.equals(wsuId)) {
-            return element;
-        }
-        org.w3c.dom.NodeList children = element.getChildNodes();
-        for (int i = 0; i < children.getLength(); i++) {
-            org.w3c.dom.Node node = children.item(i);
-            if (node instanceof Element) {
-                Element found = findElementByIdRecursive((Element) node, id);
-                if (found != null) {
-                    return found;
+    private static Map<String, Element> indexElementIds(Document document) {
+        Map<String, Element> index = new HashMap<>();
+        Deque<Element> stack = new ArrayDeque<>();
+        stack.push(document.getDocumentElement());
+        while (!stack.isEmpty()) {
+            Element element = stack.pop();
+            putIdIfAbsent(index, element.getAttribute("Id"), element);
+            putIdIfAbsent(index, element.getAttributeNS(XmlConstants.NS_WSU, "Id"), element);
+            // Belge sırasını korumak için çocuklar tersten yığına konur.
+            for (Node child = element.getLastChild(); child != null; child = child.getPreviousSibling()) {
+                if (child instanceof Element) {
+                    stack.push((Element) child);
                 }
             }
         }
-        return null;
+        return index;
+    }
+
+    /** Referans hedefinin EXC-C14N digest'i; hedef yoksa {@code null}. */
+    private interface ReferenceDigester {
+        byte[] digest(String id, DigestAlgorithm digestAlg) throws Exception;
+    }
+
+    private static void putIdIfAbsent(Map<String, Element> index, String id, Element element) {
+        if (id != null && !id.isEmpty() && !index.containsKey(id)) {
+            index.put(id, element);
+        }
     }
 
     private byte[] documentToBytes(Document document) throws Exception {
-        TransformerFactory transformerFactory = SecureXmlFactories.newTransformerFactory();
-        Transformer transformer = transformerFactory.newTransformer();
-        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
-        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        transformer.transform(new DOMSource(document), new StreamResult(outputStream));
-        return outputStream.toByteArray();
+        return XmlProcessorPool.serialize(document);
     }
 }
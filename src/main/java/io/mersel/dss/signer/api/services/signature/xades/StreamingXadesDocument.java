@@ -0,0 +1,58 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import org.springframework.core.io.InputStreamSource;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Akış modunda imzalanmış, henüz yazılmamış XML belgesi
+ * ({@link XAdESSignatureService#prepareStreaming}). İmza hesaplanmıştır;
+ * {@link #writeTo} belgeyi kaynaktan ikinci kez okuyup {@code ds:Signature}
+ * ile birlikte hedefe yazar. Kaynak, yazma bitene kadar okunabilir kalmalıdır.
+ */
+public final class StreamingXadesDocument {
+
+    private final InputStreamSource source;
+    private final DocumentType documentType;
+    private final String declaredEncoding;
+    private final boolean standalone;
+    private final Element signatureElement;
+    private final String signatureValue;
+
+    StreamingXadesDocument(InputStreamSource source,
+                           DocumentType documentType,
+                           String declaredEncoding,
+                           boolean standalone,
+                           Element signatureElement,
+                           String signatureValue) {
+        this.source = source;
+        this.documentType = documentType;
+        this.declaredEncoding = declaredEncoding;
+        this.standalone = standalone;
+        this.signatureElement = signatureElement;
+        this.signatureValue = signatureValue;
+    }
+
+    /** Base64 imza değeri ({@code x-signature-value}). */
+    public String getSignatureValue() {
+        return signatureValue;
+    }
+
+    /**
+     * İmzalı belgeyi yazar; {@code out} kapatılmaz. Birden fazla kez
+     * çağrılabilir, her çağrı aynı byte'ları üretir.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        try (InputStream in = source.getInputStream()) {
+            XAdESDocumentStreamer.rewrite(in, out, documentType, declaredEncoding, standalone, signatureElement);
+        } catch (SAXException e) {
+            // Birinci geçiş aynı girdiyi ayrıştırdı; buraya ancak kaynak değiştiyse gelinir.
+            throw new IOException("İmzalı XML belgesi yazılamadı", e);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package io.mersel.dss.signer.api.services.signature.xades;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.enums.TestCompany;
+import io.mersel.dss.signer.api.util.xml.XmlProcessorPool;
 import org.apache.xml.security.Init;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,14 +30,6 @@ import javax.xml.crypto.dsig.keyinfo.KeyInfoFactory;
 import javax.xml.crypto.dsig.keyinfo.X509Data;
 import javax.xml.crypto.dsig.spec.C14NMethodParameterSpec;
 import javax.xml.crypto.dsig.spec.TransformParameterSpec;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.nio.file.Files;
@@ -95,7 +88,7 @@ import java.util.UUID;
  * <h3>Production'da KULLANILMAZ</h3>
  * <p>Bu servis production imzalama pipeline'ından <strong>tamamen
  * izoledir</strong>: ne {@code SigningMaterial}, ne {@code SigningMaterialFactory},
- * ne ortak {@code CertificateVerifier}, ne {@code Semaphore}, ne
+ * ne ortak {@code CertificateVerifier}, ne {@code SigningLimiter}, ne
  * {@code XAdESService} bean'ine bağlıdır. Üretim akışında yapılan herhangi
  * bir değişiklik bu endpoint'i etkilemez ve tersi.</p>
  */
@@ -644,11 +637,7 @@ public class TestUserCounterSignatureService {
 
     private static Document parseXml(byte[] xmlBytes) {
         try {
-            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-            dbf.setNamespaceAware(true);
-            dbf.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-            DocumentBuilder builder = dbf.newDocumentBuilder();
-            return builder.parse(new ByteArrayInputStream(xmlBytes));
+            return XmlProcessorPool.parse(xmlBytes);
         } catch (Exception e) {
             throw new SignatureException("XML parse edilemedi: " + e.getMessage(), e);
         }
@@ -656,12 +645,7 @@ public class TestUserCounterSignatureService {
 
     private static byte[] serialise(Document doc) {
         try {
-            Transformer transformer = TransformerFactory.newInstance().newTransformer();
-            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
-            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            transformer.transform(new DOMSource(doc), new StreamResult(out));
-            return out.toByteArray();
+            return XmlProcessorPool.serialize(doc);
         } catch (Exception e) {
             throw new SignatureException("XML serileştirilemedi: " + e.getMessage(), e);
         }
@@ -21,11 +21,11 @@ import java.util.Set;
  *
  * <h3>Neden var?</h3>
  * <p>{@code CommonCertificateVerifier} uygulamada <strong>singleton</strong>
- * olarak paylaşılır (bkz. {@code SignatureConfiguration#certificateVerifier()})
+ * olarak paylaşılır (bkz. {@code SignatureConfiguration#certificateVerifier})
  * ve {@code XAdESService} / {@code XAdESLevelUpgradeService} / CAdES servisi
  * gibi tüm imza yollarınca ortak kullanılır. Önceki tasarımda her XAdES isteği,
  * imzalama sertifika zincirini bu paylaşılan verifier'ın <em>adjunct</em>
- * kaynağına yazıyordu. {@code signatureSemaphore} permits &gt; 1 olduğundan
+ * kaynağına yazıyordu. {@code signingLimiter} permits &gt; 1 olduğundan
  * (eş zamanlı imza), iki istek aynı anda adjunct'ı set/okuyabiliyordu:</p>
  *
  * <ul>
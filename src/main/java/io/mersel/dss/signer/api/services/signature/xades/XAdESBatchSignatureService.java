@@ -0,0 +1,529 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.exceptions.SigningCapacityException;
+import io.mersel.dss.signer.api.models.BatchManifest;
+import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.models.enums.XadesSignatureLevel;
+import io.mersel.dss.signer.api.services.util.CompressionService;
+
+/**
+ * ZIP içindeki çok sayıda XML belgesini tek istekte XAdES ile imzalar
+ * ({@link #signZip}) veya mevcut imzalarını XAdES-A'ya yükseltir
+ * ({@link #upgradeZip}).
+ *
+ * <h3>Pipeline</h3>
+ * <p>Girdi ZIP'i akış olarak okunur; her girdi sınırlı bir worker havuzuna
+ * verilir ve {@link XAdESSignatureService#signXml} ile tek belge akışının
+ * tamamı (parse → UBLExtensions yerleşimi → {@code getDataToSign} → HSM imzası
+ * → {@code signDocument} → serileştirme) worker'da çalışır. Farklı belgelerin
+ * aşamaları böylece üst üste biner: biri HSM'de beklerken diğeri parse
+ * edilir. HSM eş zamanlılığı yine {@code signingLimiter} ile sınırlıdır.</p>
+ *
+ * <h3>Bellek</h3>
+ * <p>Aynı anda en fazla {@code 2 × parallelism} belge bellekte tutulur: okuyucu
+ * pencere dolunca en eski belgenin sonucunu yanıt ZIP'ine yazıp belleğini
+ * bırakmadan yeni girdi okumaz. Yanıt ZIP'i doğrudan çıkış akışına yazılır;
+ * toplu işin tamamı hiçbir zaman heap'te birikmez. Yalnızca küçük manifest
+ * satırları sona kadar tutulur.</p>
+ *
+ * <h3>Çıkış sırası</h3>
+ * <p>{@link #signZip} girdileri girdi sırasıyla yazar; belge süreleri HSM
+ * imzasıyla benzer olduğundan pencerenin başındaki belge nadiren darboğazdır.
+ * {@link #upgradeZip} girdileri tamamlanma sırasıyla yazar: yükseltme süresi
+ * TSA ve OCSP/CRL yanıtına göre belgeden belgeye çok değişir; girdi sırası
+ * korunursa tek yavaş belge tüm pencereyi bekletirdi. Çıkış adları her iki
+ * modda da girdi sırasıyla ayrılır ve manifest satırları girdi sırasına
+ * dizilir; hangi sonucun hangi girdiye ait olduğu {@code index} alanındadır.</p>
+ *
+ * <h3>Hata modeli</h3>
+ * <p>Bir belgenin hatası diğerlerini etkilemez; manifest'te {@code FAILED}
+ * olarak işaretlenir. İmza limiter'ının kapasite reddi
+ * ({@link SigningCapacityException}) hemen hata sayılmaz; belge
+ * {@code Retry-After} sonrası en fazla {@value #MAX_CAPACITY_ATTEMPTS} kez
+ * denenir, yine alınamazsa kapasite nedeniyle {@code FAILED} olur. Bozuk ZIP veya girdi sınırı aşımı toplu işi o noktada
+ * keser — o ana kadar imzalananlar yine yazılır ve kesinti
+ * {@link BatchManifest#getError()} ile raporlanır. Manifest her koşulda
+ * arşivin son girdisi olarak ({@value #MANIFEST_ENTRY_NAME}) yazılır.</p>
+ *
+ * <h3>Toplu yükseltme</h3>
+ * <p>{@link #upgradeZip} aynı pipeline'ı ayrı bir worker havuzunda
+ * ({@code XADES_UPGRADE_PARALLELISM}) çalıştırır: yükseltme HSM'e gitmez,
+ * süresi TSA ve OCSP/CRL G/Ç'sidir; imza havuzunu HSM session sayısına göre
+ * boyutlanmış bırakmak için iki havuz ayrıdır. TSA'ya giden eş zamanlı istek
+ * {@code TS_MAX_CONCURRENT_REQUESTS} ile ayrıca sınırlıdır; iptal verisi
+ * süreç genelindeki önbellekten paylaşılır, aynı CA zincirine ait binlerce
+ * belge için OCSP/CRL bir kez çekilir.</p>
+ */
+@Service
+public class XAdESBatchSignatureService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XAdESBatchSignatureService.class);
+
+    public static final String MANIFEST_ENTRY_NAME = "manifest.json";
+
+    /** {@code XADES_BATCH_MAX_ENTRIES} verilmediğinde istek başına girdi sınırı. */
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    /** {@code XADES_BATCH_MAX_ENTRY_BYTES} verilmediğinde girdi başına açılmış boyut sınırı (50 MB). */
+    public static final long DEFAULT_MAX_ENTRY_BYTES = 50L * 1024 * 1024;
+
+    /**
+     * Kapasite reddi alan bir girdinin en fazla deneme sayısı. Aşılırsa girdi
+     * kapasite nedeniyle {@code FAILED} yazılır; süregelen aşırı yükte toplu
+     * iş worker'ları sonsuza dek beklemez.
+     */
+    static final int MAX_CAPACITY_ATTEMPTS = 5;
+
+    /** {@code XADES_UPGRADE_PARALLELISM} verilmediğinde eş zamanlı yükseltme sayısı. */
+    public static final int DEFAULT_UPGRADE_PARALLELISM = 8;
+
+    private final XAdESSignatureService xadesSignatureService;
+    private final CompressionService compressionService;
+    private final int parallelism;
+    private final int upgradeParallelism;
+    private final int maxEntries;
+    private final long maxEntryBytes;
+    private final ThreadPoolExecutor workers;
+    private final ThreadPoolExecutor upgradeWorkers;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    public XAdESBatchSignatureService(XAdESSignatureService xadesSignatureService,
+            CompressionService compressionService,
+            int parallelism,
+            int maxSessionCount,
+            int maxEntries,
+            long maxEntryBytes) {
+        this(xadesSignatureService, compressionService, parallelism, maxSessionCount,
+                maxEntries, maxEntryBytes, DEFAULT_UPGRADE_PARALLELISM);
+    }
+
+    @Autowired
+    public XAdESBatchSignatureService(XAdESSignatureService xadesSignatureService,
+            CompressionService compressionService,
+            @Value("${XADES_BATCH_PARALLELISM:0}") int parallelism,
+            @Value("${MAX_SESSION_COUNT:5}") int maxSessionCount,
+            @Value("${XADES_BATCH_MAX_ENTRIES:" + DEFAULT_MAX_ENTRIES + "}") int maxEntries,
+            @Value("${XADES_BATCH_MAX_ENTRY_BYTES:" + DEFAULT_MAX_ENTRY_BYTES + "}") long maxEntryBytes,
+            @Value("${XADES_UPGRADE_PARALLELISM:" + DEFAULT_UPGRADE_PARALLELISM + "}") int upgradeParallelism) {
+        this.xadesSignatureService = xadesSignatureService;
+        this.compressionService = compressionService;
+        // HSM session sayısından bir fazla worker: session'lar doluyken bir
+        // worker sıradaki belgeyi parse edip hazırda bekletir.
+        this.parallelism = parallelism > 0 ? parallelism : Math.max(2, maxSessionCount + 1);
+        this.maxEntries = maxEntries > 0 ? maxEntries : DEFAULT_MAX_ENTRIES;
+        this.maxEntryBytes = maxEntryBytes > 0 ? maxEntryBytes : DEFAULT_MAX_ENTRY_BYTES;
+        this.upgradeParallelism = upgradeParallelism > 0 ? upgradeParallelism : DEFAULT_UPGRADE_PARALLELISM;
+        this.workers = newWorkerPool(this.parallelism, "xades-batch-");
+        this.upgradeWorkers = newWorkerPool(this.upgradeParallelism, "xades-upgrade-batch-");
+
+        LOGGER.info("XAdES toplu imza servisi hazır: paralellik={}, yükseltme paralelliği={}, "
+                + "maxEntries={}, maxEntryBytes={}",
+                this.parallelism, this.upgradeParallelism, this.maxEntries, this.maxEntryBytes);
+    }
+
+    /**
+     * Girdi ZIP'indeki her XML belgesini imzalar ve imzalı belgeleri aynı
+     * adlarla, girdi sırasıyla {@code out}'a ZIP olarak yazar. Son girdi
+     * {@value #MANIFEST_ENTRY_NAME}'dir. {@code out} kapatılmaz.
+     *
+     * @param zipInputStream  girdi ZIP akışı (kapatılır)
+     * @param out             yanıt akışı
+     * @param documentType    tüm girdiler için belge tipi
+     * @param material        imzalama materyali
+     * @param signatureLevel  tüm girdiler için XAdES profili
+     * @return yazılan manifest (metrik / bildirim için)
+     * @throws IOException çıkış akışına yazılamazsa (ör. client bağlantıyı kapattı);
+     *                     bekleyen imzalar iptal edilir
+     */
+    public BatchManifest signZip(InputStream zipInputStream,
+            OutputStream out,
+            DocumentType documentType,
+            SigningMaterial material,
+            XadesSignatureLevel signatureLevel) throws IOException {
+        BatchManifest manifest = new BatchManifest(
+                documentType != null ? documentType.name() : null,
+                signatureLevel != null ? signatureLevel.name() : null);
+        return processZip(zipInputStream, out, manifest, workers, parallelism, "imza", true,
+                xml -> xadesSignatureService.signXml(new ByteArrayInputStream(xml), documentType,
+                        null, false, material, signatureLevel));
+    }
+
+    /**
+     * Girdi ZIP'indeki imzalı XML belgelerini (XAdES-BES/T) yeniden imzalamadan
+     * XAdES-A'ya yükseltir ve sonuçları {@link #signZip} ile aynı adlarla
+     * yazar; belgeler tamamlanma sırasıyla yazılır, manifest satırları girdi
+     * sırasındadır ve son girdi {@value #MANIFEST_ENTRY_NAME}'dir.
+     * Manifest'te {@code SIGNED} durumu girdinin XAdES-A olarak yazıldığını
+     * belirtir; imza değeri yükseltmede değişmediği için boş bırakılır.
+     *
+     * @param zipInputStream girdi ZIP akışı (kapatılır)
+     * @param out            yanıt akışı
+     * @param documentType   tüm girdiler için belge tipi
+     * @param material       imzalama materyali (sertifika zinciri doğrulayıcıya eklenir)
+     * @return yazılan manifest
+     * @throws IOException çıkış akışına yazılamazsa; bekleyen yükseltmeler iptal edilir
+     */
+    public BatchManifest upgradeZip(InputStream zipInputStream,
+            OutputStream out,
+            DocumentType documentType,
+            SigningMaterial material) throws IOException {
+        BatchManifest manifest = new BatchManifest(
+                documentType != null ? documentType.name() : null,
+                XadesSignatureLevel.XADES_A.name());
+        return processZip(zipInputStream, out, manifest, upgradeWorkers, upgradeParallelism, "yükseltme",
+                false, xml -> new SignResponse(
+                        xadesSignatureService.upgradeToArchive(xml, documentType, material), null));
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getUpgradeParallelism() {
+        return upgradeParallelism;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        upgradeWorkers.shutdownNow();
+    }
+
+    private BatchManifest processZip(InputStream zipInputStream,
+            OutputStream out,
+            BatchManifest manifest,
+            ThreadPoolExecutor pool,
+            int poolSize,
+            String operation,
+            boolean inputOrder,
+            DocumentTask task) throws IOException {
+        long startNanos = System.nanoTime();
+        Set<String> usedNames = new HashSet<>();
+        usedNames.add(MANIFEST_ENTRY_NAME);
+        Deque<Pending> window = new ArrayDeque<>();
+        int windowSize = poolSize * 2;
+        // Girdi sırasında tamamlanan future'lar kimse almayacağı için kuyruğa
+        // bırakılmaz; CompletionService yalnız tamamlanma sırası modunda.
+        CompletionService<SignResponse> completion = inputOrder ? null : new ExecutorCompletionService<>(pool);
+        Function<Callable<SignResponse>, Future<SignResponse>> submitter =
+                inputOrder ? pool::submit : completion::submit;
+
+        ZipOutputStream zos = new ZipOutputStream(new NonClosingOutputStream(out));
+        boolean completed = false;
+        try {
+            int index = 0;
+            try (ZipInputStream zis = compressionService.openZip(zipInputStream)) {
+                ZipEntry entry;
+                while ((entry = zis.getNextEntry()) != null) {
+                    if (entry.isDirectory()) {
+                        continue;
+                    }
+                    if (index >= maxEntries) {
+                        manifest.setError("Toplu istek en fazla " + maxEntries
+                                + " belge içerebilir; kalan girdiler işlenmedi");
+                        break;
+                    }
+                    Pending pending = submit(index++, entry.getName(), zis, submitter, task, usedNames);
+                    if (pending.future == null && !inputOrder) {
+                        drain(pending, zos, manifest);
+                        continue;
+                    }
+                    window.addLast(pending);
+                    while (window.size() >= windowSize) {
+                        drain(next(window, completion), zos, manifest);
+                    }
+                }
+            } catch (ResponseWriteException e) {
+                // Çıkış akışı hatası girdi hatası değildir; toplu işi bitirir.
+                throw e;
+            } catch (SignatureException | IOException e) {
+                // ZIP akışı bozuk: o ana kadar okunanlar imzalanıp yazılır.
+                LOGGER.warn("Toplu {} girdisi okunamadı, işlem {}. girdide kesildi: {}",
+                        operation, index, e.getMessage());
+                manifest.setError("Girdi ZIP okunamadı: " + describe(e));
+            }
+            if (index == 0 && manifest.getError() == null) {
+                manifest.setError("ZIP arşivi işlenecek girdi içermiyor");
+            }
+
+            while (!window.isEmpty()) {
+                drain(next(window, completion), zos, manifest);
+            }
+
+            manifest.sortByIndex();
+            compressionService.writeEntry(zos, MANIFEST_ENTRY_NAME,
+                    objectMapper.writeValueAsBytes(manifest));
+            zos.finish();
+            completed = true;
+        } catch (ResponseWriteException e) {
+            throw (IOException) e.getCause();
+        } finally {
+            if (!completed) {
+                for (Pending pending : window) {
+                    // Okunamayan girdi (Pending.failed) için çalışan iş yok.
+                    if (pending.future != null) {
+                        pending.future.cancel(true);
+                    }
+                }
+            }
+        }
+
+        LOGGER.info("XAdES toplu {} tamamlandı: belge={}, başarılı={}, başarısız={}, "
+                + "kesinti={}, elapsedMs={}",
+                operation, manifest.getTotal(), manifest.getSigned(), manifest.getFailed(),
+                manifest.getError() != null, (System.nanoTime() - startNanos) / 1_000_000L);
+        return manifest;
+    }
+
+    private static ThreadPoolExecutor newWorkerPool(int size, String threadNamePrefix) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(size, size,
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, threadNamePrefix + threadIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private Pending submit(int index, String name, ZipInputStream zis,
+            Function<Callable<SignResponse>, Future<SignResponse>> submitter,
+            DocumentTask task, Set<String> usedNames) {
+        // Ad girdi sırasıyla ayrılır: tamamlanma sırası modunda da çakışan
+        // adların son eki belirleyici kalır.
+        String outputName = uniqueName(safeEntryName(name, index), usedNames);
+        byte[] xmlBytes;
+        try {
+            xmlBytes = compressionService.readEntry(zis, maxEntryBytes);
+        } catch (SignatureException e) {
+            if (e.getCause() instanceof IOException) {
+                // Girdi içeriği değil akışın kendisi bozuk — toplu işi kes.
+                throw e;
+            }
+            return Pending.failed(index, name, describe(e));
+        }
+        Future<SignResponse> future = submitter.apply(() -> applyWithBackpressure(task, xmlBytes, index, name));
+        return new Pending(index, name, outputName, future, null);
+    }
+
+    /**
+     * Kapasite reddi (limiter kuyruğu dolu / permit zaman aşımı) belgenin
+     * hatası değil geri basınçtır: worker {@code Retry-After} kadar bekleyip
+     * belgeyi en fazla {@value #MAX_CAPACITY_ATTEMPTS} kez dener; son
+     * denemede de reddedilirse girdi kapasite nedeniyle {@code FAILED} olur.
+     * Toplu iş iptal edilirse ({@code cancel(true)}) bekleme kesilir.
+     */
+    private static SignResponse applyWithBackpressure(DocumentTask task, byte[] xml, int index, String name)
+            throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return task.apply(xml);
+            } catch (RuntimeException e) {
+                SigningCapacityException capacity = SigningCapacityException.find(e);
+                if (capacity == null) {
+                    throw e;
+                }
+                if (attempt >= MAX_CAPACITY_ATTEMPTS) {
+                    throw new SignatureException("İmza kapasitesi " + attempt + " denemede alınamadı ("
+                            + capacity.getReason() + ")", capacity);
+                }
+                LOGGER.debug("Toplu işlemde imza kapasitesi dolu ({}); girdi {} sn sonra yeniden denenecek: "
+                        + "index={}, ad={}", capacity.getReason(), capacity.getRetryAfterSeconds(), index, name);
+                TimeUnit.SECONDS.sleep(capacity.getRetryAfterSeconds());
+            }
+        }
+    }
+
+    /**
+     * Yazılacak sıradaki girdiyi pencereden çıkarır: {@code completion} yoksa
+     * en eski girdi, varsa ilk tamamlanan girdi.
+     */
+    private static Pending next(Deque<Pending> window, CompletionService<SignResponse> completion) {
+        if (completion == null) {
+            return window.removeFirst();
+        }
+        Future<SignResponse> done;
+        try {
+            done = completion.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SignatureException("Toplu işlem beklenirken kesildi", e);
+        }
+        for (Iterator<Pending> it = window.iterator(); it.hasNext(); ) {
+            Pending pending = it.next();
+            if (pending.future == done) {
+                it.remove();
+                return pending;
+            }
+        }
+        throw new IllegalStateException("Tamamlanan iş pencerede bulunamadı");
+    }
+
+    private void drain(Pending pending, ZipOutputStream zos, BatchManifest manifest) throws IOException {
+        if (pending.future == null) {
+            manifest.addFailed(pending.index, pending.name, pending.error);
+            return;
+        }
+        SignResponse response;
+        try {
+            response = pending.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SignatureException("Toplu işlem beklenirken kesildi", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            LOGGER.warn("Toplu işlemde girdi işlenemedi: index={}, ad={}: {}",
+                    pending.index, pending.name, describe(cause));
+            manifest.addFailed(pending.index, pending.name, describe(cause));
+            return;
+        }
+        try {
+            compressionService.writeEntry(zos, pending.outputName, response.getSignedDocument());
+        } catch (IOException e) {
+            throw new ResponseWriteException(e);
+        }
+        manifest.addSigned(pending.index, pending.name, pending.outputName, response.getSignatureValue());
+    }
+
+    /**
+     * Girdi adını yanıt ZIP'i için güvenli hale getirir: ters bölü → bölü,
+     * kök ve {@code ..} segmentleri atılır (zip-slip). Boş kalırsa sıra
+     * numarasından ad üretilir.
+     */
+    static String safeEntryName(String name, int index) {
+        StringBuilder sb = new StringBuilder();
+        if (name != null) {
+            for (String segment : name.replace('\\', '/').split("/")) {
+                if (segment.isEmpty() || ".".equals(segment) || "..".equals(segment)) {
+                    continue;
+                }
+                if (sb.length() > 0) {
+                    sb.append('/');
+                }
+                sb.append(segment);
+            }
+        }
+        return sb.length() > 0 ? sb.toString() : "document-" + index + ".xml";
+    }
+
+    private static String uniqueName(String name, Set<String> usedNames) {
+        if (usedNames.add(name)) {
+            return name;
+        }
+        int dot = name.lastIndexOf('.');
+        String base = dot > name.lastIndexOf('/') && dot > 0 ? name.substring(0, dot) : name;
+        String ext = base.length() < name.length() ? name.substring(base.length()) : "";
+        for (int i = 2; ; i++) {
+            String candidate = base + "-" + i + ext;
+            if (usedNames.add(candidate)) {
+                return candidate;
+            }
+        }
+    }
+
+    /** {@code signXml} hatası genel sarmalayıcı mesaj taşır; kök nedeni de ekle. */
+    private static String describe(Throwable error) {
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        Throwable root = error.getCause();
+        while (root != null && root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        if (root != null && root.getMessage() != null && !message.contains(root.getMessage())) {
+            message = message + ": " + root.getMessage();
+        }
+        return message;
+    }
+
+    /** Tek girdi için worker'da çalışan işlem (imza veya yükseltme). */
+    private interface DocumentTask {
+        SignResponse apply(byte[] xml);
+    }
+
+    private static final class Pending {
+        final int index;
+        final String name;
+        final String outputName;
+        final Future<SignResponse> future;
+        final String error;
+
+        Pending(int index, String name, String outputName, Future<SignResponse> future, String error) {
+            this.index = index;
+            this.name = name;
+            this.outputName = outputName;
+            this.future = future;
+            this.error = error;
+        }
+
+        static Pending failed(int index, String name, String error) {
+            return new Pending(index, name, null, null, error);
+        }
+    }
+
+    /** {@link ZipOutputStream#close()} servlet çıkış akışını kapatmasın. */
+    /**
+     * Yanıt akışına yazılamadı (ör. client bağlantıyı kapattı). Okuma
+     * döngüsündeki girdi {@link IOException}'larından ayırmak için sarılır;
+     * {@code processZip} asıl hatayı fırlatır.
+     */
+    private static final class ResponseWriteException extends IOException {
+        ResponseWriteException(IOException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
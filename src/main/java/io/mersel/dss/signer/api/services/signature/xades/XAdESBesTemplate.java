@@ -0,0 +1,240 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.MimeType;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.InMemoryDocument;
+import eu.europa.esig.dss.spi.validation.CertificateVerifier;
+import eu.europa.esig.dss.utils.Utils;
+import eu.europa.esig.dss.xades.DSSXMLUtils;
+import eu.europa.esig.dss.xades.XAdESSignatureParameters;
+import eu.europa.esig.dss.xades.reference.DSSReference;
+import eu.europa.esig.dss.xades.signature.XAdESDomDocument;
+import eu.europa.esig.dss.xades.signature.XAdESSignatureBuilder;
+import eu.europa.esig.dss.xades.signature.XAdESSigningTimeZoneHolder;
+import eu.europa.esig.dss.xml.utils.XMLCanonicalizer;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * UBL belgeleri için XAdES-BES imzasının önceden çizilmiş iskeleti.
+ *
+ * <p>İmzanın yapısı (SignedInfo algoritmaları, KeyInfo, SigningCertificate,
+ * SignerRole, DataObjectFormat) yalnızca imzalama sertifikasına ve digest
+ * algoritmasına bağlıdır. Şablon bir kez DSS'in kendi
+ * {@link XAdESSignatureBuilder}'ı ile küçük bir kök belge üzerinde kurulur;
+ * her istekte bu {@code ds:Signature} kopyalanır ve yalnızca değişen alanlar
+ * doldurulur: imza Id'si, belge referansının Id'si, SigningTime, iki
+ * referansın digest'i ve SignatureValue. Kanonikleştirme ve digest çağrıları
+ * builder'ınkilerle aynıdır; çıktı DSS yoluyla byte düzeyinde aynıdır.</p>
+ *
+ * <p>Thread-safe'tir: şablon DOM'u yalnızca kopyalanırken okunur (Xerces
+ * DOM'u okumada da thread-safe olmadığından kopyalama senkronizedir); her
+ * {@link Instance} tek bir isteğe aittir.</p>
+ */
+final class XAdESBesTemplate {
+
+    private static final String SIGNED_PROPERTIES_TYPE = "http://uri.etsi.org/01903#SignedProperties";
+    /** Belge referansının digest'i: DSS aynı belge ({@code URI=""}) referanslarında yorumları düşürür. */
+    private static final String DOCUMENT_CANONICALIZATION = "http://www.w3.org/TR/2001/REC-xml-c14n-20010315";
+    private static final byte[] STUB_DOCUMENT =
+            "<Invoice xmlns=\"urn:oasis:names:specification:ubl:schema:xsd:Invoice-2\"/>"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private final Element signature;
+    private final DigestAlgorithm digestAlgorithm;
+    private final String signedInfoCanonicalizationMethod;
+    private final String signedPropertiesCanonicalizationMethod;
+
+    // Değişken düğümlerin ds:Signature'dan itibaren çocuk sıra yolları
+    private final int[] signedInfoPath;
+    private final int[] signedPropertiesReferencePath;
+    private final int[] signedPropertiesDigestPath;
+    private final int[] documentReferencePath;
+    private final int[] documentDigestPath;
+    private final int[] signatureValuePath;
+    private final int[] qualifyingPropertiesPath;
+    private final int[] signedPropertiesPath;
+    private final int[] signingTimePath;
+    private final int[] dataObjectFormatPath;
+
+    private XAdESBesTemplate(Element signature, XAdESSignatureParameters parameters) {
+        this.signature = signature;
+        this.digestAlgorithm = parameters.getDigestAlgorithm();
+        this.signedInfoCanonicalizationMethod = parameters.getSignedInfoCanonicalizationMethod();
+        this.signedPropertiesCanonicalizationMethod = parameters.getSignedPropertiesCanonicalizationMethod();
+
+        Element signedInfo = child(signature, "SignedInfo");
+        Element signedPropertiesReference = null;
+        Element documentReference = null;
+        for (Element reference : children(signedInfo, "Reference")) {
+            if (SIGNED_PROPERTIES_TYPE.equals(reference.getAttribute("Type"))) {
+                signedPropertiesReference = reference;
+            } else if (reference.hasAttribute("URI") && reference.getAttribute("URI").isEmpty()) {
+                documentReference = reference;
+            }
+        }
+        if (signedPropertiesReference == null || documentReference == null) {
+            throw new IllegalStateException("Şablonda SignedProperties ve belge referansları bulunamadı");
+        }
+        Element qualifyingProperties = child(child(signature, "Object"), "QualifyingProperties");
+        Element signedProperties = child(qualifyingProperties, "SignedProperties");
+
+        this.signedInfoPath = pathOf(signedInfo);
+        this.signedPropertiesReferencePath = pathOf(signedPropertiesReference);
+        this.signedPropertiesDigestPath = pathOf(child(signedPropertiesReference, "DigestValue"));
+        this.documentReferencePath = pathOf(documentReference);
+        this.documentDigestPath = pathOf(child(documentReference, "DigestValue"));
+        this.signatureValuePath = pathOf(child(signature, "SignatureValue"));
+        this.qualifyingPropertiesPath = pathOf(qualifyingProperties);
+        this.signedPropertiesPath = pathOf(signedProperties);
+        this.signingTimePath = pathOf(child(child(signedProperties, "SignedSignatureProperties"), "SigningTime"));
+        this.dataObjectFormatPath = pathOf(child(child(signedProperties, "SignedDataObjectProperties"),
+                "DataObjectFormat"));
+    }
+
+    /**
+     * Şablonu DSS builder'ı ile çizer.
+     *
+     * @param parameters {@link XAdESParametersBuilderService#buildParameters} ile
+     *                   UBL için kurulmuş parametreler; imza tarihi ve Id'ler
+     *                   şablona girmez, her istekte yeniden yazılır
+     * @throws IllegalStateException DSS'in ürettiği yapı beklenenden farklıysa
+     */
+    static XAdESBesTemplate render(XAdESSignatureParameters parameters, CertificateVerifier certificateVerifier) {
+        DSSDocument stub = new InMemoryDocument(STUB_DOCUMENT, "template.xml", MimeType.fromFileExtension("xml"));
+        for (DSSReference reference : parameters.getReferences()) {
+            if (reference.getContents() == null && !SIGNED_PROPERTIES_TYPE.equals(reference.getType())) {
+                reference.setContents(stub);
+            }
+        }
+        XAdESSignatureBuilder builder = XAdESSignatureBuilder.getSignatureBuilder(parameters, stub, certificateVerifier);
+        builder.build();
+        DSSDocument signed = builder.signDocument(new byte[0]);
+        if (!(signed instanceof XAdESDomDocument)) {
+            throw new IllegalStateException("DSS imzalı belgesi DOM olarak dönmedi");
+        }
+        return new XAdESBesTemplate(((XAdESDomDocument) signed).getSignatureElement(), parameters);
+    }
+
+    /**
+     * Şablonun bir kopyasını belgenin kök elementinin son çocuğu olarak
+     * ekler (DSS'in enveloped imzayı kurduğu yer) ve isteğe özgü alanları,
+     * belge ve SignedProperties digest'leriyle birlikte doldurur. Belge
+     * digest'i imza eklenmeden önce hesaplanır (enveloped transform).
+     *
+     * @param parameters isteğin parametreleri (imza Id'si, belge referansı, imza tarihi)
+     */
+    Instance attach(Document document, XAdESSignatureParameters parameters) {
+        byte[] documentDigest = DSSXMLUtils.getDigestOnCanonicalizedNode(
+                document, digestAlgorithm, DOCUMENT_CANONICALIZATION).getValue();
+
+        Element copy;
+        synchronized (signature) {
+            copy = (Element) document.importNode(signature, true);
+        }
+        document.getDocumentElement().appendChild(copy);
+
+        String signatureId = parameters.getDeterministicId();
+        DSSReference documentReference = documentReferenceOf(parameters);
+        copy.setAttribute("Id", signatureId);
+        at(copy, signedPropertiesReferencePath).setAttribute("URI", "#xades-" + signatureId);
+        at(copy, signatureValuePath).setAttribute("Id", "value-" + signatureId);
+        at(copy, qualifyingPropertiesPath).setAttribute("Target", "#" + signatureId);
+        at(copy, signedPropertiesPath).setAttribute("Id", "xades-" + signatureId);
+        at(copy, documentReferencePath).setAttribute("Id", documentReference.getId());
+        at(copy, dataObjectFormatPath).setAttribute("ObjectReference",
+                parameters.getDataObjectFormatList().get(0).getObjectReference());
+        at(copy, signingTimePath).setTextContent(
+                XAdESSigningTimeZoneHolder.formatSigningTime(parameters.bLevel().getSigningDate()));
+        at(copy, documentDigestPath).setTextContent(Utils.toBase64(documentDigest));
+
+        byte[] signedPropertiesDigest = DSSXMLUtils.getDigestOnCanonicalizedNode(
+                at(copy, signedPropertiesPath), digestAlgorithm, signedPropertiesCanonicalizationMethod).getValue();
+        at(copy, signedPropertiesDigestPath).setTextContent(Utils.toBase64(signedPropertiesDigest));
+        return new Instance(copy);
+    }
+
+    /** Belgeye eklenmiş, imza değeri bekleyen şablon kopyası. */
+    final class Instance {
+        private final Element signatureElement;
+
+        private Instance(Element signatureElement) {
+            this.signatureElement = signatureElement;
+        }
+
+        /** İmzalanacak veri: SignedInfo'nun belgedeki yerinde kanonik hâli. */
+        byte[] canonicalSignedInfo() {
+            return XMLCanonicalizer.createInstance(signedInfoCanonicalizationMethod)
+                    .canonicalize(at(signatureElement, signedInfoPath));
+        }
+
+        void setSignatureValue(byte[] signatureValue) {
+            at(signatureElement, signatureValuePath).setTextContent(Utils.toBase64(signatureValue));
+        }
+
+        Element getSignatureElement() {
+            return signatureElement;
+        }
+    }
+
+    private static DSSReference documentReferenceOf(XAdESSignatureParameters parameters) {
+        for (DSSReference reference : parameters.getReferences()) {
+            if (!SIGNED_PROPERTIES_TYPE.equals(reference.getType())) {
+                return reference;
+            }
+        }
+        throw new IllegalStateException("Parametrelerde belge referansı yok");
+    }
+
+    private static Element child(Element parent, String localName) {
+        List<Element> found = children(parent, localName);
+        if (found.isEmpty()) {
+            throw new IllegalStateException("Şablonda " + localName + " bulunamadı");
+        }
+        return found.get(0);
+    }
+
+    private static List<Element> children(Element parent, String localName) {
+        List<Element> found = new ArrayList<Element>();
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node instanceof Element && localName.equals(node.getLocalName())) {
+                found.add((Element) node);
+            }
+        }
+        return found;
+    }
+
+    /** {@code ds:Signature}'dan düğüme çocuk sıra numaraları. */
+    private int[] pathOf(Node node) {
+        List<Integer> reversed = new ArrayList<Integer>();
+        for (Node current = node; current != signature; current = current.getParentNode()) {
+            int index = 0;
+            for (Node sibling = current.getPreviousSibling(); sibling != null; sibling = sibling.getPreviousSibling()) {
+                index++;
+            }
+            reversed.add(index);
+        }
+        int[] path = new int[reversed.size()];
+        for (int i = 0; i < path.length; i++) {
+            path[i] = reversed.get(path.length - 1 - i);
+        }
+        return path;
+    }
+
+    private static Element at(Element signatureCopy, int[] path) {
+        Node node = signatureCopy;
+        for (int index : path) {
+            node = node.getFirstChild();
+            for (int i = 0; i < index; i++) {
+                node = node.getNextSibling();
+            }
+        }
+        return (Element) node;
+    }
+}
@@ -0,0 +1,504 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import io.mersel.dss.signer.api.constants.XmlConstants;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.util.xml.DomCompatibleXmlWriter;
+import io.mersel.dss.signer.api.util.xml.InclusiveC14nWriter;
+import io.mersel.dss.signer.api.util.xml.SecureXmlFactories;
+import io.mersel.dss.signer.api.util.xml.XmlAttribute;
+import org.apache.commons.io.output.NullOutputStream;
+import org.w3c.dom.Element;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.XMLConstants;
+import javax.xml.crypto.dsig.XMLSignature;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Result;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * XAdES akış modunun iki geçişi. Belge hiçbir zaman DOM'a yüklenmez;
+ * bellekte yalnızca açık elementlerin adları ve namespace kapsamı tutulur.
+ *
+ * <ol>
+ *   <li>{@link #scan}: belgenin DOM yolunun göreceği yapıda olduğunu ve
+ *       imzanın yerleşeceği hedef elementin bulunduğunu doğrular; belgeyi
+ *       (UBL'de kökteki {@code xmlns:ext} garantisiyle) inclusive C14N'leyip
+ *       doğrudan digest'e besler. Bu, DSS'in {@code URI=""} + enveloped
+ *       transform referansı için hesapladığı digest'tir: DSS aynı belge
+ *       referanslarında yorumları düşürür ve imza o anda belgede yoktur.</li>
+ *   <li>{@link #rewrite}: belgeyi {@link DomCompatibleXmlWriter} ile yeniden
+ *       yazar; imzayı hedef elementin son çocuğu olarak araya koyar
+ *       ({@link XAdESDocumentPlacementService#placeSignatureElement} ile aynı
+ *       yer).</li>
+ * </ol>
+ *
+ * <p>Yerleşimi sabit olan tipler desteklenir: UBL (belgede zaten bulunan ilk
+ * {@code ext:ExtensionContent}), e-Arşiv ve e-Bilet raporu ({@code baslik}),
+ * diğer XML (kök). DOM yolunun yapıyı değiştirdiği ya da hata verdiği
+ * durumlar (ExtensionContent'i olmayan UBL, HrXml, hedefi olmayan rapor,
+ * belgede hâlihazırda {@code ds:Signature}, kökte başka URI'ye bağlı
+ * {@code xmlns:ext}, göreli namespace URI'si) ile byte uyumunun garanti
+ * edilemediği yapılar (DOCTYPE, XML 1.1, UTF-8 dışı kodlama, çıktı kaçışlamasını değiştiren işlem talimatları,
+ * ayrıştırılamayan girdi) {@link Scan#getFallbackReason()} ile bildirilir;
+ * çağıran DOM yoluna düşer ve hata/çıktı davranışı değişmez.</p>
+ */
+final class XAdESDocumentStreamer {
+
+    private static final String LEXICAL_HANDLER = "http://xml.org/sax/properties/lexical-handler";
+    private static final String EXT_DECLARATION = XMLConstants.XMLNS_ATTRIBUTE + ":ext";
+
+    private XAdESDocumentStreamer() {
+    }
+
+    /** Birinci geçişin sonucu. */
+    static final class Scan {
+        private final String fallbackReason;
+        private final byte[] documentDigest;
+        private final String declaredEncoding;
+        private final boolean standalone;
+        private final String rootQname;
+        private final String rootNamespace;
+        private final List<XmlAttribute> rootAttributes;
+
+        private Scan(String fallbackReason, byte[] documentDigest, String declaredEncoding, boolean standalone,
+                     String rootQname, String rootNamespace, List<XmlAttribute> rootAttributes) {
+            this.fallbackReason = fallbackReason;
+            this.documentDigest = documentDigest;
+            this.declaredEncoding = declaredEncoding;
+            this.standalone = standalone;
+            this.rootQname = rootQname;
+            this.rootNamespace = rootNamespace;
+            this.rootAttributes = rootAttributes;
+        }
+
+        static Scan fallback(String reason) {
+            return new Scan(reason, null, null, false, null, null, null);
+        }
+
+        /** {@code null} → akış modu kullanılabilir. */
+        String getFallbackReason() {
+            return fallbackReason;
+        }
+
+        /** Enveloped referansın digest değeri. */
+        byte[] getDocumentDigest() {
+            return documentDigest;
+        }
+
+        /** XML bildirimindeki kodlama adı (UTF-8'in bir yazımı); bildirim yoksa {@code null}. */
+        String getDeclaredEncoding() {
+            return declaredEncoding;
+        }
+
+        /** XML bildiriminde {@code standalone="yes"} var mı. */
+        boolean isStandalone() {
+            return standalone;
+        }
+
+        String getRootQname() {
+            return rootQname;
+        }
+
+        /** Kök elementin namespace'i; yoksa {@code null}. */
+        String getRootNamespace() {
+            return rootNamespace;
+        }
+
+        /** DOM yolunun değişiklikleri uygulanmış kök attribute'ları. */
+        List<XmlAttribute> getRootAttributes() {
+            return rootAttributes;
+        }
+    }
+
+    /** İmzanın yerleşeceği element; {@code namespace == null} → kök. */
+    private static final class Target {
+        private static final Target ROOT = new Target(null, null);
+
+        final String namespace;
+        final String localName;
+
+        private Target(String namespace, String localName) {
+            this.namespace = namespace;
+            this.localName = localName;
+        }
+
+        /** {@link XAdESDocumentPlacementService} kurallarının sabit hedefli kısmı; HrXml için {@code null}. */
+        static Target of(DocumentType documentType) {
+            switch (documentType) {
+                case UblDocument:
+                    return new Target(XmlConstants.NS_UBL_EXTENSION, "ExtensionContent");
+                case EArchiveReport:
+                    return new Target(XmlConstants.NS_EARSIV, "baslik");
+                case EBiletReport:
+                    return new Target(XmlConstants.NS_BILET, "baslik");
+                case HrXml:
+                    return null;
+                default:
+                    return ROOT;
+            }
+        }
+
+        boolean matches(int depth, String elementNamespace, String elementLocalName) {
+            if (namespace == null) {
+                return depth == 1;
+            }
+            return namespace.equals(elementNamespace) && localName.equals(elementLocalName);
+        }
+    }
+
+    /**
+     * Birinci geçiş: yapı denetimi ve belge digest'i.
+     *
+     * @param digestAlgorithm belge referansının digest algoritması
+     */
+    static Scan scan(InputStream in, DocumentType documentType, DigestAlgorithm digestAlgorithm) throws IOException {
+        Target target = Target.of(documentType);
+        if (target == null) {
+            return Scan.fallback(documentType + " yerleşimi belgeye bağlı");
+        }
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance(digestAlgorithm.getJavaName());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Digest algoritması bulunamadı: " + digestAlgorithm, e);
+        }
+        XMLStreamReader reader = null;
+        try {
+            reader = SecureXmlFactories.newXMLInputFactory().createXMLStreamReader(in);
+            String version = reader.getVersion();
+            if (version != null && !"1.0".equals(version)) {
+                return Scan.fallback("XML " + version);
+            }
+            boolean standalone = reader.standaloneSet() && reader.isStandalone();
+            String encoding = reader.getCharacterEncodingScheme();
+            if (encoding != null && !"UTF-8".equalsIgnoreCase(encoding)) {
+                return Scan.fallback(encoding + " kodlama bildirimi");
+            }
+
+            InclusiveC14nWriter c14n = new InclusiveC14nWriter(new DigestOutputStream(NullOutputStream.INSTANCE, md));
+            int depth = 0;
+            boolean targetFound = false;
+            String rootQname = null;
+            String rootNamespace = null;
+            List<XmlAttribute> rootAttributes = null;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                switch (event) {
+                    case XMLStreamConstants.START_ELEMENT: {
+                        depth++;
+                        String namespace = reader.getNamespaceURI();
+                        String localName = reader.getLocalName();
+                        List<XmlAttribute> attributes = XmlAttribute.fromReader(reader);
+                        if (XMLSignature.XMLNS.equals(namespace) && "Signature".equals(localName)) {
+                            return Scan.fallback("belgede ds:Signature var");
+                        }
+                        if (hasRelativeNamespace(attributes)) {
+                            return Scan.fallback("göreli namespace URI'si");
+                        }
+                        if (depth == 1) {
+                            if (documentType == DocumentType.UblDocument) {
+                                attributes = withExtensionNamespace(attributes);
+                                if (attributes == null) {
+                                    return Scan.fallback("kökte başka URI'ye bağlı xmlns:ext");
+                                }
+                            }
+                            rootQname = qname(reader);
+                            rootNamespace = namespace == null || namespace.isEmpty() ? null : namespace;
+                            rootAttributes = attributes;
+                        }
+                        if (!targetFound && target.matches(depth, namespace, localName)) {
+                            targetFound = true;
+                        }
+                        c14n.startElement(qname(reader), attributes);
+                        break;
+                    }
+                    case XMLStreamConstants.END_ELEMENT:
+                        c14n.endElement();
+                        depth--;
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.SPACE:
+                    case XMLStreamConstants.CDATA:
+                        if (depth > 0) {
+                            c14n.text(reader.getText());
+                        }
+                        break;
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION: {
+                        String piTarget = reader.getPITarget();
+                        if (Result.PI_DISABLE_OUTPUT_ESCAPING.equals(piTarget)
+                                || Result.PI_ENABLE_OUTPUT_ESCAPING.equals(piTarget)) {
+                            return Scan.fallback("çıktı kaçışlama talimatı");
+                        }
+                        String data = reader.getPIData();
+                        c14n.processingInstruction(piTarget, data == null ? "" : data);
+                        break;
+                    }
+                    case XMLStreamConstants.DTD:
+                        return Scan.fallback("DOCTYPE");
+                    default:
+                        break;
+                }
+            }
+            if (!targetFound) {
+                return Scan.fallback("imza yerleşim hedefi bulunamadı");
+            }
+            c14n.flush();
+            return new Scan(null, md.digest(), encoding, standalone, rootQname, rootNamespace, rootAttributes);
+        } catch (XMLStreamException e) {
+            return Scan.fallback("ayrıştırılamadı: " + e.getMessage());
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                    // Okuyucu kapatma hatası alttaki akışı etkilemez; akış çağıranındır.
+                }
+            }
+        }
+    }
+
+    /**
+     * İkinci geçiş: belgeyi imzayla birlikte yazar. Girdinin {@link #scan}
+     * ile denetlenmiş olması beklenir.
+     *
+     * <p>SOAP akış moduyla aynı nedenle (JDK StAX uzun CDATA bölümlerini
+     * böler, DOM yolu bölüm sınırlarını korur) bu geçiş SAX kullanır.</p>
+     *
+     * @param declaredEncoding {@link Scan#getDeclaredEncoding()}
+     * @param standalone       {@link Scan#isStandalone()}
+     * @param signature        imzalanmış {@code ds:Signature} elementi
+     */
+    static void rewrite(InputStream in,
+                        OutputStream out,
+                        DocumentType documentType,
+                        String declaredEncoding,
+                        boolean standalone,
+                        Element signature) throws IOException, SAXException {
+        XMLReader reader;
+        try {
+            reader = SecureXmlFactories.newSAXParserFactory().newSAXParser().getXMLReader();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("SAX parser oluşturulamadı", e);
+        }
+        RewriteHandler handler = new RewriteHandler(new DomCompatibleXmlWriter(out),
+                documentType, Target.of(documentType), declaredEncoding, standalone, signature);
+        reader.setContentHandler(handler);
+        reader.setProperty(LEXICAL_HANDLER, handler);
+        try {
+            reader.parse(new InputSource(in));
+        } catch (SAXException e) {
+            if (e.getException() instanceof IOException) {
+                throw (IOException) e.getException();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * {@link XAdESDocumentPlacementService#ensureUblExtensionContentExists}'in
+     * kök elemana uyguladığı değişiklik: {@code xmlns:ext} yoksa eklenir.
+     *
+     * @return değiştirilmiş liste; kökte {@code xmlns:ext} başka bir URI'ye
+     *         bağlıysa {@code null} (DOM yolu bağı değiştirir, öneki kullanan
+     *         kök çocuklarının serileştirmesi belirsizleşir)
+     */
+    static List<XmlAttribute> withExtensionNamespace(List<XmlAttribute> attributes) {
+        for (XmlAttribute attribute : attributes) {
+            if (EXT_DECLARATION.equals(attribute.getQname())) {
+                return XmlConstants.NS_UBL_EXTENSION.equals(attribute.getValue()) ? attributes : null;
+            }
+        }
+        List<XmlAttribute> result = new ArrayList<XmlAttribute>(attributes);
+        result.add(new XmlAttribute(EXT_DECLARATION, XMLConstants.XMLNS_ATTRIBUTE_NS_URI,
+                XmlConstants.NS_UBL_EXTENSION));
+        return result;
+    }
+
+    /** Santuario C14N göreli namespace URI'sini reddeder; DOM yolu hatayı kendisi üretsin. */
+    private static boolean hasRelativeNamespace(List<XmlAttribute> attributes) {
+        for (XmlAttribute attribute : attributes) {
+            if (attribute.isNamespaceDeclaration() && !attribute.getValue().isEmpty()
+                    && attribute.getValue().indexOf(':') <= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String qname(XMLStreamReader reader) {
+        String prefix = reader.getPrefix();
+        return prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+    }
+
+    /** {@link #rewrite} olaylarını {@link DomCompatibleXmlWriter}'a aktarır. */
+    private static final class RewriteHandler extends DefaultHandler implements LexicalHandler {
+
+        private final DomCompatibleXmlWriter writer;
+        private final DocumentType documentType;
+        private final Target target;
+        private final String declaredEncoding;
+        private final boolean standalone;
+        private final Element signature;
+        private final List<String[]> declarations = new ArrayList<String[]>();
+        private final StringBuilder cdata = new StringBuilder();
+        private boolean inCdata;
+        private int depth;
+        /** Hedef elementin derinliği; 0 → henüz açılmadı. */
+        private int targetDepth;
+        private boolean signatureWritten;
+
+        RewriteHandler(DomCompatibleXmlWriter writer, DocumentType documentType, Target target,
+                       String declaredEncoding, boolean standalone, Element signature) {
+            this.writer = writer;
+            this.documentType = documentType;
+            this.target = target;
+            this.declaredEncoding = declaredEncoding;
+            this.standalone = standalone;
+            this.signature = signature;
+        }
+
+        @Override
+        public void startDocument() throws SAXException {
+            try {
+                writer.startDocument(declaredEncoding, standalone);
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+        }
+
+        @Override
+        public void endDocument() throws SAXException {
+            try {
+                writer.endDocument();
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+        }
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) {
+            declarations.add(new String[] {prefix, uri});
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attrs) throws SAXException {
+            depth++;
+            List<XmlAttribute> attributes = XmlAttribute.fromSax(declarations, attrs);
+            declarations.clear();
+            if (depth == 1 && documentType == DocumentType.UblDocument) {
+                attributes = withExtensionNamespace(attributes);
+            }
+            if (targetDepth == 0 && !signatureWritten && target.matches(depth, uri, localName)) {
+                targetDepth = depth;
+            }
+            try {
+                writer.startElement(qName, uri.isEmpty() ? null : uri, attributes);
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            try {
+                if (depth == targetDepth) {
+                    writer.element(signature);
+                    signatureWritten = true;
+                    targetDepth = 0;
+                }
+                writer.endElement();
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+            depth--;
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            if (inCdata) {
+                cdata.append(ch, start, length);
+                return;
+            }
+            try {
+                writer.characters(new String(ch, start, length));
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+        }
+
+        @Override
+        public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+            characters(ch, start, length);
+        }
+
+        @Override
+        public void processingInstruction(String piTarget, String data) throws SAXException {
+            try {
+                writer.processingInstruction(piTarget, data == null ? "" : data);
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+        }
+
+        @Override
+        public void startCDATA() {
+            inCdata = true;
+            cdata.setLength(0);
+        }
+
+        @Override
+        public void endCDATA() throws SAXException {
+            inCdata = false;
+            try {
+                writer.cdata(cdata.toString());
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+            cdata.setLength(0);
+        }
+
+        @Override
+        public void comment(char[] ch, int start, int length) throws SAXException {
+            try {
+                writer.comment(new String(ch, start, length));
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+        }
+
+        @Override
+        public void startDTD(String name, String publicId, String systemId) {
+            // scan DOCTYPE'lı belgeyi DOM yoluna düşürür; buraya gelinmez.
+        }
+
+        @Override
+        public void endDTD() {
+        }
+
+        @Override
+        public void startEntity(String name) {
+        }
+
+        @Override
+        public void endEntity(String name) {
+        }
+    }
+}
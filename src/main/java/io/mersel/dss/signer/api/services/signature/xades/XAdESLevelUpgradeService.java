@@ -2,18 +2,25 @@ package io.mersel.dss.signer.api.services.signature.xades;
 
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.x509.CertificateToken;
 import eu.europa.esig.dss.spi.validation.CertificateVerifier;
+import eu.europa.esig.dss.spi.x509.tsp.TSPSource;
 import eu.europa.esig.dss.xades.XAdESSignatureParameters;
 import eu.europa.esig.dss.xades.XAdESTimestampParameters;
 import eu.europa.esig.dss.xades.signature.XAdESLevelA;
 import io.mersel.dss.signer.api.exceptions.TimestampException;
 import io.mersel.dss.signer.api.models.enums.XadesSignatureLevel;
+import io.mersel.dss.signer.api.services.revocation.ParallelRevocationFetcher;
 import io.mersel.dss.signer.api.services.timestamp.TimestampConfigurationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.xml.crypto.dsig.CanonicalizationMethod;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * XAdES imza seviyelerini yükselten servis.
@@ -54,6 +61,14 @@ import javax.xml.crypto.dsig.CanonicalizationMethod;
  * XADES_A profilinin talep edilmesi çağıran tarafın sorumluluğundadır. Sistem
  * documentType'a göre proaktif yükseltme yapmadığı için, eski client'ların
  * doğrudan {@code XadesSignatureLevel.XADES_A} göndermesi gerekir.</p>
+ *
+ * <h3>Paralel G/Ç</h3>
+ * <p>{@link ParallelRevocationFetcher} varsa imza zincirinin OCSP/CRL
+ * istekleri, DSS T seviyesinde imza zaman damgasını beklerken G/Ç havuzunda
+ * başlatılır; TSA zincirininkiler zaman damgası yanıtı gelir gelmez başlar.
+ * C/XL seviyeleri yanıtları önbellekten alır veya süren isteğe katılır, arşiv
+ * zaman damgası XL'den sonra alınır. XML'i yine DSS ürettiğinden çıktı sıralı
+ * akışla aynıdır.</p>
  */
 @Service
 public class XAdESLevelUpgradeService {
@@ -62,11 +77,30 @@ public class XAdESLevelUpgradeService {
 
     private final CertificateVerifier certificateVerifier;
     private final TimestampConfigurationService timestampService;
+    private final ParallelRevocationFetcher revocationFetcher;
 
+    /** Sıralı G/Ç (paralel iptal verisi çekme yok). */
     public XAdESLevelUpgradeService(CertificateVerifier certificateVerifier,
                                    TimestampConfigurationService timestampService) {
+        this(certificateVerifier, timestampService, (ParallelRevocationFetcher) null);
+    }
+
+    @Autowired
+    public XAdESLevelUpgradeService(CertificateVerifier certificateVerifier,
+                                   TimestampConfigurationService timestampService,
+                                   ObjectProvider<ParallelRevocationFetcher> revocationFetcher) {
+        this(certificateVerifier, timestampService, revocationFetcher.getIfAvailable());
+    }
+
+    /**
+     * @param revocationFetcher {@code null} → iptal verisi C seviyesinde sırayla çekilir
+     */
+    public XAdESLevelUpgradeService(CertificateVerifier certificateVerifier,
+                                   TimestampConfigurationService timestampService,
+                                   ParallelRevocationFetcher revocationFetcher) {
         this.certificateVerifier = certificateVerifier;
         this.timestampService = timestampService;
+        this.revocationFetcher = revocationFetcher;
     }
 
     /**
@@ -108,8 +142,15 @@ public class XAdESLevelUpgradeService {
             baseParameters.setContentTimestampParameters(tsParams);
             baseParameters.setEn319132(false);
 
+            TSPSource tspSource = timestampService.getTspSource();
+            if (revocationFetcher != null) {
+                // T seviyesinin TSA isteğiyle aynı anda imza zincirinin iptal verisi
+                revocationFetcher.fetchAsync(signingChain(baseParameters));
+                tspSource = revocationFetcher.decorate(tspSource);
+            }
+
             XAdESLevelA levelA = new XAdESLevelA(certificateVerifier);
-            levelA.setTspSource(timestampService.getTspSource());
+            levelA.setTspSource(tspSource);
 
             DSSDocument upgradedDocument = levelA.extendSignatures(signedDocument, baseParameters);
 
@@ -127,4 +168,15 @@ public class XAdESLevelUpgradeService {
             throw new TimestampException(message, ex);
         }
     }
+
+    private static List<CertificateToken> signingChain(XAdESSignatureParameters parameters) {
+        List<CertificateToken> chain = new ArrayList<>();
+        if (parameters.getSigningCertificate() != null) {
+            chain.add(parameters.getSigningCertificate());
+        }
+        if (parameters.getCertificateChain() != null) {
+            chain.addAll(parameters.getCertificateChain());
+        }
+        return chain;
+    }
 }
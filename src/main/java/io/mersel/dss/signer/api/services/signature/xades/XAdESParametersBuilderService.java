@@ -59,8 +59,7 @@ public class XAdESParametersBuilderService {
         params.setSignatureLevel(SignatureLevel.XAdES_BASELINE_B);
 
         // Digest algoritmaları
-        DigestAlgorithm digestAlgorithm = digestAlgorithmResolver.resolveDigestAlgorithm(
-                material.getSigningCertificate());
+        DigestAlgorithm digestAlgorithm = resolveDigestAlgorithm(material);
         params.setDigestAlgorithm(digestAlgorithm);
         params.setSigningCertificateDigestMethod(digestAlgorithm);
         params.setTokenReferencesDigestAlgorithm(digestAlgorithm);
@@ -115,6 +114,15 @@ public class XAdESParametersBuilderService {
         return params;
     }
 
+    /**
+     * {@link #buildParameters} ile kurulan parametrelerin (ve belge
+     * referansının) digest algoritması. Akış modu belge digest'ini
+     * parametrelerden önce hesapladığı için ayrıca açılmıştır.
+     */
+    public DigestAlgorithm resolveDigestAlgorithm(SigningMaterial material) {
+        return digestAlgorithmResolver.resolveDigestAlgorithm(material.getSigningCertificate());
+    }
+
     /**
      * İmza için referansları oluşturur.
      */
@@ -2,35 +2,47 @@ package io.mersel.dss.signer.api.services.signature.xades;
 
 import java.io.InputStream;
 import java.util.Base64;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.xml.XMLConstants;
+import javax.xml.crypto.dsig.XMLSignature;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.stereotype.Service;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.enumerations.MimeType;
 import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DigestDocument;
 import eu.europa.esig.dss.model.InMemoryDocument;
 import eu.europa.esig.dss.model.SignatureValue;
 import eu.europa.esig.dss.model.ToBeSigned;
 import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.signature.SignatureRequirementsChecker;
 import eu.europa.esig.dss.spi.validation.CertificateVerifier;
 import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
 import eu.europa.esig.dss.spi.x509.CertificateSource;
 import eu.europa.esig.dss.spi.x509.ListCertificateSource;
-import eu.europa.esig.dss.validation.SignedDocumentValidator;
 import eu.europa.esig.dss.xades.XAdESSignatureParameters;
 import eu.europa.esig.dss.xades.reference.DSSReference;
-import eu.europa.esig.dss.xades.signature.XAdESLevelC;
+import eu.europa.esig.dss.xades.signature.XAdESDomDocument;
 import eu.europa.esig.dss.xades.signature.XAdESService;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
 import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.models.enums.SignatureFormat;
 import io.mersel.dss.signer.api.models.enums.XadesSignatureLevel;
+import io.mersel.dss.signer.api.services.concurrency.SigningLimiter;
 import io.mersel.dss.signer.api.services.crypto.CryptoSignerService;
+import io.mersel.dss.signer.api.util.xml.XmlAttribute;
+import io.mersel.dss.signer.api.util.xml.XmlProcessorPool;
 
 /**
  * XAdES imzaları oluşturan servis.
@@ -53,7 +65,7 @@ public class XAdESSignatureService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(XAdESSignatureService.class);
     private static final String DEFAULT_XML_NAME = "document.xml";
-    private static final String ZIP_ENTRY_NAME = "signedcontent.xml";
+    static final String ZIP_ENTRY_NAME = "signedcontent.xml";
     private static final String SIGNED_PROPERTIES_TYPE = "http://uri.etsi.org/01903#SignedProperties";
 
     private final XAdESService xadesService;
@@ -64,7 +76,27 @@ public class XAdESSignatureService {
     private final CryptoSignerService cryptoSigner;
     private final CertificateVerifier certificateVerifier;
     private final io.mersel.dss.signer.api.services.util.CompressionService compressionService;
-    private final Semaphore semaphore;
+    private final SigningLimiter signingLimiter;
+
+    /**
+     * Bu boyuttan (byte) büyük/eşit belgeler akış modunda imzalanır
+     * ({@link #prepareStreaming}); {@code 0} → akış modu kapalı. Ortam
+     * değişkeni: {@code XADES_STREAMING_THRESHOLD_BYTES}.
+     */
+    @Value("${XADES_STREAMING_THRESHOLD_BYTES:0}")
+    private long streamingThresholdBytes = 0L;
+
+    /**
+     * UBL belgelerinin XAdES-BES imzası DSS builder'ı yerine önceden
+     * çizilmiş şablondan üretilir ({@link #signWithBesTemplate}). Ortam
+     * değişkeni: {@code XADES_BES_TEMPLATE_ENABLED}.
+     */
+    @Value("${XADES_BES_TEMPLATE_ENABLED:false}")
+    private boolean besTemplateEnabled = false;
+
+    /** İmzalama sertifikası + digest algoritması → XAdES-BES şablonu. */
+    private final ConcurrentMap<String, XAdESBesTemplate> besTemplates =
+            new ConcurrentHashMap<String, XAdESBesTemplate>();
 
     public XAdESSignatureService(XAdESService xadesService,
             XAdESParametersBuilderService parametersBuilder,
@@ -74,7 +106,7 @@ public class XAdESSignatureService {
             CryptoSignerService cryptoSigner,
             CertificateVerifier certificateVerifier,
             io.mersel.dss.signer.api.services.util.CompressionService compressionService,
-            Semaphore signatureSemaphore) {
+            SigningLimiter signingLimiter) {
         this.xadesService = xadesService;
         this.parametersBuilder = parametersBuilder;
         this.xmlProcessor = xmlProcessor;
@@ -83,7 +115,7 @@ public class XAdESSignatureService {
         this.cryptoSigner = cryptoSigner;
         this.certificateVerifier = certificateVerifier;
         this.compressionService = compressionService;
-        this.semaphore = signatureSemaphore;
+        this.signingLimiter = signingLimiter;
     }
 
     /**
@@ -123,29 +155,39 @@ public class XAdESSignatureService {
             // 3. Belgeyi parse et
             Document document = xmlProcessor.parseDocument(xmlBytes);
 
-            // 4. UBL belgeleri için UBLExtensions'ı imzadan ÖNCE ekle.
-            // İmza, belgenin canonical formu üzerinden hesaplanır. UBLExtensions
-            // imza yerleştirme sırasında eklenirse, imzalanan içerik ile nihai
-            // belge uyuşmaz ve doğrulama başarısız olur.
-            if (documentType == DocumentType.UblDocument) {
-                documentPlacement.ensureUblExtensionContentExists(document);
-                xmlBytes = xmlProcessor.documentToBytes(document);
+            // 4. UBL + XAdES-BES: şablon hızlı yolu (XADES_BES_TEMPLATE_ENABLED).
+            // Uygun değilse (mevcut imza, şablon çizilemedi) null → DSS yolu.
+            SignResponse response = null;
+            if (besTemplateEnabled && documentType == DocumentType.UblDocument
+                    && signatureLevel == XadesSignatureLevel.XADES_BES) {
+                response = signWithBesTemplate(document, signatureId, material);
             }
 
-            // 5. Parametreleri oluştur
-            DSSDocument dssDocument = new InMemoryDocument(xmlBytes, DEFAULT_XML_NAME,
-                    MimeType.fromFileExtension("xml"));
-            XAdESSignatureParameters parameters = parametersBuilder.buildParameters(
-                    document, documentType, signatureId, material);
+            if (response == null) {
+                // 5. UBL belgeleri için UBLExtensions'ı imzadan ÖNCE ekle.
+                // İmza, belgenin canonical formu üzerinden hesaplanır. UBLExtensions
+                // imza yerleştirme sırasında eklenirse, imzalanan içerik ile nihai
+                // belge uyuşmaz ve doğrulama başarısız olur.
+                if (documentType == DocumentType.UblDocument) {
+                    documentPlacement.ensureUblExtensionContentExists(document);
+                    xmlBytes = xmlProcessor.documentToBytes(document);
+                }
 
-            // 6. İmzalama sertifika zincirini doğrulayıcıya ekle
-            addSigningCertificateChainToVerifier(material);
+                // 6. Parametreleri oluştur
+                DSSDocument dssDocument = new InMemoryDocument(xmlBytes, DEFAULT_XML_NAME,
+                        MimeType.fromFileExtension("xml"));
+                XAdESSignatureParameters parameters = parametersBuilder.buildParameters(
+                        document, documentType, signatureId, material);
 
-            // 7. İmzayı oluştur
-            SignResponse response = createSignature(document, dssDocument, parameters,
-                    documentType, material, signatureLevel);
+                // 7. İmzalama sertifika zincirini doğrulayıcıya ekle
+                addSigningCertificateChainToVerifier(material);
+
+                // 8. İmzayı oluştur
+                response = createSignature(document, dssDocument, parameters,
+                        documentType, material, signatureLevel);
+            }
 
-            // 8. Gerekirse ZIP'le
+            // 9. Gerekirse ZIP'le
             if (zipped) {
                 byte[] zippedBytes = compressionService.zipBytes(ZIP_ENTRY_NAME, response.getSignedDocument());
                 return new SignResponse(zippedBytes, response.getSignatureValue());
@@ -167,9 +209,229 @@ public class XAdESSignatureService {
         }
     }
 
+    /**
+     * Yerleştirilmiş bir XAdES-BES/T belgesini yeniden imzalamadan XAdES-A
+     * seviyesine yükseltir. HSM çağrısı yapılmaz; yalnızca TSA ve
+     * OCSP/CRL G/Ç'si yürür, imza permit'i tutulmaz.
+     *
+     * <p>İmza yerinde genişletilir: {@code UBLExtensions} içine yerleşmiş
+     * {@code <ds:Signature>}'a unsigned özellikler eklenir, belgenin geri
+     * kalanı değişmez. Asenkron yükseltme işleri
+     * ({@link XAdESUpgradeJobService}) ve {@code /v1/xades/upgrade}
+     * tarafından kullanılır.</p>
+     *
+     * @param signedXml    imzalı belge (ZIP'siz XML)
+     * @param documentType belge tipi; parametreler imzadaki ile aynı kurallarla kurulur
+     * @param material     imzalama materyali (sertifika zinciri doğrulayıcıya eklenir)
+     * @return XAdES-A belgesinin byte'ları
+     * @throws io.mersel.dss.signer.api.exceptions.TimestampException TSA yoksa veya yükseltme başarısızsa
+     */
+    public byte[] upgradeToArchive(byte[] signedXml,
+            DocumentType documentType,
+            SigningMaterial material) {
+        try {
+            if (documentType == null || documentType == DocumentType.None) {
+                documentType = DocumentType.OtherXmlDocument;
+            }
+            Document document = xmlProcessor.parseDocument(signedXml);
+            XAdESSignatureParameters parameters = parametersBuilder.buildParameters(
+                    document, documentType, null, material);
+            addSigningCertificateChainToVerifier(material);
+
+            DSSDocument signedDocument = new InMemoryDocument(signedXml, DEFAULT_XML_NAME,
+                    MimeType.fromFileExtension("xml"));
+            DSSDocument upgraded = levelUpgradeService.upgradeIfNeeded(
+                    signedDocument, parameters, XadesSignatureLevel.XADES_A);
+            return xmlProcessor.dssDocumentToBytes(upgraded);
+        } catch (SignatureException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.error("XAdES-A yükseltmesi sırasında hata", e);
+            throw new SignatureException("XAdES-A yükseltmesi yapılamadı", e);
+        } finally {
+            clearThreadLocalAdjunct();
+        }
+    }
+
+    /**
+     * XAdES-BES şablon hızlı yolu (yalnız UBL): DSS'in imza oluşturucusu
+     * yerine sertifika ve digest algoritması başına bir kez çizilmiş
+     * {@link XAdESBesTemplate} kopyalanır; istek başına yalnızca değişen
+     * alanlar doldurulur, küçük SignedInfo kanonikleştirilip imzalanır.
+     * Sertifika geçerlilik kontrolü DSS'teki ile aynıdır. Çıktı DSS yoluyla
+     * byte düzeyinde aynıdır.
+     *
+     * @return imzalı belge; belgede zaten {@code ds:Signature} varsa (DSS'in
+     *         paralel imza kontrolü) ya da şablon çizilemediyse {@code null} —
+     *         çağıran DSS yoluna düşer. {@code null} dönüldüğünde belge
+     *         değiştirilmemiştir.
+     */
+    private SignResponse signWithBesTemplate(Document document,
+            String signatureId,
+            SigningMaterial material) throws InterruptedException {
+        if (document.getElementsByTagNameNS(XMLSignature.XMLNS, "Signature").getLength() > 0) {
+            return null;
+        }
+        XAdESBesTemplate template = besTemplateFor(material);
+        if (template == null) {
+            return null;
+        }
+
+        documentPlacement.ensureUblExtensionContentExists(document);
+        XAdESSignatureParameters parameters = parametersBuilder.buildParameters(
+                document, DocumentType.UblDocument, signatureId, material);
+        addSigningCertificateChainToVerifier(material);
+        new SignatureRequirementsChecker(certificateVerifier, parameters)
+                .assertSigningCertificateIsValid(parameters.getSigningCertificate());
+
+        XAdESBesTemplate.Instance signature = template.attach(document, parameters);
+        SignatureValue signatureValue;
+        long permit = signingLimiter.acquire(SignatureFormat.XADES);
+        try {
+            signatureValue = cryptoSigner.sign(
+                    new ToBeSigned(signature.canonicalSignedInfo()),
+                    material,
+                    parameters.getDigestAlgorithm());
+        } finally {
+            signingLimiter.release(permit);
+        }
+        signatureValue = ensureXadesSignatureValueFormat(parameters, signatureValue);
+        signature.setSignatureValue(signatureValue.getValue());
+
+        documentPlacement.placeSignatureElement(document, signature.getSignatureElement(), DocumentType.UblDocument);
+        LOGGER.debug("XAdES-BES imzası şablondan oluşturuldu");
+        return new SignResponse(xmlProcessor.documentToBytes(document),
+                Base64.getEncoder().encodeToString(signatureValue.getValue()));
+    }
+
+    /**
+     * Materyalin imzalama sertifikası ve digest algoritması için şablon;
+     * ilk istekte çizilir. Çizilemezse {@code null} (DSS yolu).
+     */
+    private XAdESBesTemplate besTemplateFor(SigningMaterial material) {
+        DigestAlgorithm digestAlgorithm = parametersBuilder.resolveDigestAlgorithm(material);
+        String key = material.getPrimaryCertificateToken().getDSSIdAsString() + "/" + digestAlgorithm.name();
+        try {
+            return besTemplates.computeIfAbsent(key, k -> XAdESBesTemplate.render(
+                    parametersBuilder.buildParameters(null, DocumentType.UblDocument, null, material),
+                    certificateVerifier));
+        } catch (RuntimeException e) {
+            LOGGER.warn("XAdES-BES şablonu oluşturulamadı, DSS yoluna düşülüyor: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /** Test desteği: {@code XADES_BES_TEMPLATE_ENABLED}. */
+    void setBesTemplateEnabled(boolean besTemplateEnabled) {
+        this.besTemplateEnabled = besTemplateEnabled;
+    }
+
+    /**
+     * Bu boyuttaki belgenin akış modunda imzalanıp imzalanmayacağı
+     * ({@code XADES_STREAMING_THRESHOLD_BYTES}).
+     */
+    public boolean isStreamingEligible(long documentSize) {
+        return streamingThresholdBytes > 0 && documentSize >= streamingThresholdBytes;
+    }
+
+    /**
+     * Akış modu (yalnız XAdES-BES, ZIP'siz): belgeyi DOM'a yüklemeden
+     * imzalar. Girdi iki kez okunur; birinci geçişte belge inclusive
+     * C14N'lenip enveloped referansın digest'i doğrudan hesaplanır ve DSS'e
+     * {@link DigestDocument} olarak verilir. DSS imzayı yalnızca kök
+     * elementin namespace kapsamını taşıyan küçük bir kök belge üzerinde
+     * kurar (SignedInfo'nun inclusive C14N'i bu kapsamı içerir). İkinci geçiş
+     * {@link StreamingXadesDocument#writeTo} çağrıldığında belgeyi
+     * {@code ds:Signature} ile birlikte yazar. Bellek kullanımı belge
+     * boyutundan bağımsızdır; çıktı {@link #signXml} ile byte düzeyinde
+     * aynıdır.
+     *
+     * <p>İmza (ve permit) bu çağrı içinde tamamlanır; dolayısıyla kapasite
+     * reddi ve imza hataları yanıt yazılmaya başlamadan yüzeye çıkar.</p>
+     *
+     * @param source belge kaynağı; iki kez açılabilmeli (örn. {@code MultipartFile})
+     * @return yazılmaya hazır imzalı belge; belge tipi veya yapısı akış
+     *         modunun byte uyumunu garanti edemiyorsa {@code null} — çağıran
+     *         {@link #signXml} ile DOM yoluna düşmelidir
+     */
+    public StreamingXadesDocument prepareStreaming(InputStreamSource source,
+            DocumentType documentType,
+            String signatureId,
+            SigningMaterial material) {
+        try {
+            if (documentType == null || documentType == DocumentType.None) {
+                documentType = DocumentType.OtherXmlDocument;
+            }
+            DigestAlgorithm digestAlgorithm = parametersBuilder.resolveDigestAlgorithm(material);
+
+            XAdESDocumentStreamer.Scan scan;
+            try (InputStream in = source.getInputStream()) {
+                scan = XAdESDocumentStreamer.scan(in, documentType, digestAlgorithm);
+            }
+            if (scan.getFallbackReason() != null) {
+                LOGGER.info("XAdES akış modu kullanılamıyor ({}), DOM yoluna düşülüyor",
+                        scan.getFallbackReason());
+                return null;
+            }
+
+            Document rootDocument = newRootDocument(scan);
+            DSSDocument dssDocument = new InMemoryDocument(xmlProcessor.documentToBytes(rootDocument),
+                    DEFAULT_XML_NAME, MimeType.fromFileExtension("xml"));
+            XAdESSignatureParameters parameters = parametersBuilder.buildParameters(
+                    rootDocument, documentType, signatureId, material);
+            for (DSSReference reference : parameters.getReferences()) {
+                if (reference.getContents() == null &&
+                        (reference.getType() == null ||
+                                !SIGNED_PROPERTIES_TYPE.equals(reference.getType()))) {
+                    reference.setContents(new DigestDocument(
+                            digestAlgorithm, scan.getDocumentDigest(), DEFAULT_XML_NAME));
+                }
+            }
+
+            addSigningCertificateChainToVerifier(material);
+
+            DssSignature signature = signWithDss(dssDocument, parameters, material);
+            Element signatureElement = signatureElementOf(signature.document);
+            if (signatureElement == null) {
+                throw new SignatureException("DSS imzalı belgesinde ds:Signature bulunamadı");
+            }
+
+            LOGGER.info("XAdES imzası akış modunda oluşturuldu. Belge tipi: {}", documentType);
+            return new StreamingXadesDocument(source, documentType, scan.getDeclaredEncoding(), scan.isStandalone(),
+                    signatureElement, Base64.getEncoder().encodeToString(signature.value.getValue()));
+
+        } catch (SignatureException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.error("XAdES imzası oluşturulurken hata", e);
+            throw new SignatureException("XAdES imzası oluşturulamadı", e);
+        } finally {
+            clearThreadLocalAdjunct();
+        }
+    }
+
+    /**
+     * DSS'in imzayı altına kurduğu kök belge: asıl kök elementin adı,
+     * namespace bildirimleri ve {@code xml:*} attribute'ları, çocuksuz.
+     * SignedInfo ve SignedProperties'in inclusive C14N'i yalnızca bu
+     * kapsamı görür; sonuç asıl belge üzerinde kurulanla aynıdır.
+     */
+    private static Document newRootDocument(XAdESDocumentStreamer.Scan scan) {
+        Document document = XmlProcessorPool.newDocument();
+        Element root = document.createElementNS(scan.getRootNamespace(), scan.getRootQname());
+        for (XmlAttribute attribute : scan.getRootAttributes()) {
+            if (attribute.isNamespaceDeclaration()
+                    || XMLConstants.XML_NS_URI.equals(attribute.getNamespaceUri())) {
+                root.setAttributeNS(attribute.getNamespaceUri(), attribute.getQname(), attribute.getValue());
+            }
+        }
+        document.appendChild(root);
+        return document;
+    }
+
     /**
      * İmzalama sürecini orkestre ederek imzayı oluşturur.
-     * Semaphore ile eşzamanlı imza sayısını kontrol eder.
+     * İmza permit'i yalnızca HSM imza çağrısı etrafında tutulur.
      */
     private SignResponse createSignature(Document mainDocument,
             DSSDocument dssDocument,
@@ -178,102 +440,129 @@ public class XAdESSignatureService {
             SigningMaterial material,
             XadesSignatureLevel signatureLevel) throws Exception {
 
-        // OCSP cache cleanup için signature ID'yi takip et
-        String actualSignatureId = null;
-        SignatureValue capturedSignatureValue = null;
-
-        semaphore.acquire();
-        try {
-            // Referanslar için içerik ayarla
-            if (parameters.getReferences() != null) {
-                for (DSSReference reference : parameters.getReferences()) {
-                    if (reference.getContents() == null &&
-                            (reference.getType() == null ||
-                                    !SIGNED_PROPERTIES_TYPE.equals(reference.getType()))) {
-                        reference.setContents(dssDocument);
-                    }
+        // Referanslar için içerik ayarla
+        if (parameters.getReferences() != null) {
+            for (DSSReference reference : parameters.getReferences()) {
+                if (reference.getContents() == null &&
+                        (reference.getType() == null ||
+                                !SIGNED_PROPERTIES_TYPE.equals(reference.getType()))) {
+                    reference.setContents(dssDocument);
                 }
             }
+        }
 
-            ToBeSigned dataToSign = xadesService.getDataToSign(dssDocument, parameters);
+        DssSignature signature = signWithDss(dssDocument, parameters, material);
+        SignatureValue capturedSignatureValue = signature.value;
+        DSSDocument signedDocument = signature.document;
 
-            // Veriyi imzala
-            SignatureValue signatureValue = cryptoSigner.sign(
+        // İmza seviyesi tamamen request ile gelen 'signatureLevel' alanına bağlıdır.
+        // documentType artık seviye kararına dahil değildir; rapor tipi olsa bile
+        // XADES_A açıkça istenmediği sürece archive timestamp eklenmez.
+        signedDocument = levelUpgradeService.upgradeIfNeeded(
+                signedDocument, parameters, signatureLevel);
+
+        // Son işleme: İmzayı doğru konuma yerleştir
+        byte[] finalSignedBytes = placeSignature(mainDocument, signedDocument, documentType);
+
+        // SignatureValue'yu Base64 string'e çevir
+        String encodedSignature = capturedSignatureValue != null
+                ? Base64.getEncoder().encodeToString(capturedSignatureValue.getValue())
+                : null;
+
+        return new SignResponse(finalSignedBytes, encodedSignature);
+    }
+
+    /**
+     * DSS ile imzalar: imzalanacak veri, HSM/PFX imzası, DSS'in imzalı
+     * belgesi. Referans içerikleri çağıran tarafından ayarlanmış olmalıdır.
+     * İmza permit'i yalnızca HSM imza çağrısı etrafında tutulur.
+     */
+    private DssSignature signWithDss(DSSDocument dssDocument,
+            XAdESSignatureParameters parameters,
+            SigningMaterial material) throws InterruptedException {
+        ToBeSigned dataToSign = xadesService.getDataToSign(dssDocument, parameters);
+
+        // Veriyi imzala. Permit yalnızca HSM çağrısı süresince tutulur;
+        // seviye yükseltmedeki TSA/OCSP ağ çağrıları eş zamanlılık
+        // limitini ve limiter'ın gecikme örneklerini etkilemez.
+        SignatureValue signatureValue;
+        long permit = signingLimiter.acquire(SignatureFormat.XADES);
+        try {
+            signatureValue = cryptoSigner.sign(
                     dataToSign,
                     material,
                     parameters.getDigestAlgorithm());
+        } finally {
+            signingLimiter.release(permit);
+        }
 
-            // XML-DSig (XAdES) spec'i ECDSA SignatureValue'nun r||s (plain) formatında
-            // olmasını şart koşar; DSS XAdESSignatureBuilder.signDocument() içinde
-            // ensurePlainSignatureValue() çağrısı bulunmasına rağmen 6.3 sürümünde
-            // bazı senaryolarda DER bytes XML'e olduğu gibi yazılıyor ve sonuçta
-            // verifier SIG_CRYPTO_FAILURE üretiyor. Burada DSS'e vermeden önce
-            // explicit convert ederek tüm akışlar için garanti altına alıyoruz.
-            // RSA için ensurePlainSignatureValue no-op, bu yüzden zararsız.
-            signatureValue = ensureXadesSignatureValueFormat(parameters, signatureValue);
-
-            // ÖNEMLİ: capturedSignatureValue'yu DÖNÜŞÜM SONRASI değerle set et.
-            // Aksi halde response'taki "x-signature-value" header'ı (ve
-            // SignResponse.signatureValue) XML içindeki gerçek <ds:SignatureValue>
-            // ile uyuşmaz — ECDSA için header DER, XML plain r||s döner. Tüketici
-            // tarafın header'ı XML ile diff'lediği akışlar sessizce kırılır.
-            capturedSignatureValue = signatureValue;
-
-            // İmzalı belgeyi oluştur
-            DSSDocument signedDocument = xadesService.signDocument(
-                    dssDocument, parameters, signatureValue);
-
-            // İmza seviyesi tamamen request ile gelen 'signatureLevel' alanına bağlıdır.
-            // documentType artık seviye kararına dahil değildir; rapor tipi olsa bile
-            // XADES_A açıkça istenmediği sürece archive timestamp eklenmez.
-            signedDocument = levelUpgradeService.upgradeIfNeeded(
-                    signedDocument, parameters, signatureLevel);
-
-            // Signature ID'yi yakala (cache cleanup için)
-            SignedDocumentValidator tempValidator = SignedDocumentValidator.fromDocument(signedDocument);
-            if (tempValidator.getSignatures() != null && !tempValidator.getSignatures().isEmpty()) {
-                actualSignatureId = tempValidator.getSignatures().get(0).getId();
-            }
+        // XML-DSig (XAdES) spec'i ECDSA SignatureValue'nun r||s (plain) formatında
+        // olmasını şart koşar; DSS XAdESSignatureBuilder.signDocument() içinde
+        // ensurePlainSignatureValue() çağrısı bulunmasına rağmen 6.3 sürümünde
+        // bazı senaryolarda DER bytes XML'e olduğu gibi yazılıyor ve sonuçta
+        // verifier SIG_CRYPTO_FAILURE üretiyor. Burada DSS'e vermeden önce
+        // explicit convert ederek tüm akışlar için garanti altına alıyoruz.
+        // RSA için ensurePlainSignatureValue no-op, bu yüzden zararsız.
+        signatureValue = ensureXadesSignatureValueFormat(parameters, signatureValue);
+
+        // İmzalı belgeyi oluştur
+        DSSDocument signedDocument = xadesService.signDocument(
+                dssDocument, parameters, signatureValue);
+
+        // ÖNEMLİ: döndürülen imza değeri DÖNÜŞÜM SONRASI değerdir.
+        // Aksi halde response'taki "x-signature-value" header'ı (ve
+        // SignResponse.signatureValue) XML içindeki gerçek <ds:SignatureValue>
+        // ile uyuşmaz — ECDSA için header DER, XML plain r||s döner. Tüketici
+        // tarafın header'ı XML ile diff'lediği akışlar sessizce kırılır.
+        return new DssSignature(signedDocument, signatureValue);
 
-            // Son işleme: İmzayı doğru konuma yerleştir
-            byte[] signedBytes = xmlProcessor.dssDocumentToBytes(signedDocument);
-            Document signedDom = xmlProcessor.parseDocument(signedBytes);
-            Element signatureElement = xmlProcessor.findSignatureElement(signedDom);
-
-            byte[] finalSignedBytes;
-            if (signatureElement != null) {
-                documentPlacement.placeSignatureElement(
-                        mainDocument, signatureElement, documentType);
-                finalSignedBytes = xmlProcessor.documentToBytes(mainDocument);
-            } else {
-                finalSignedBytes = signedBytes;
-            }
+    }
 
-            // SignatureValue'yu Base64 string'e çevir
-            String encodedSignature = capturedSignatureValue != null
-                    ? Base64.getEncoder().encodeToString(capturedSignatureValue.getValue())
-                    : null;
+    /** {@link #signWithDss} sonucu. */
+    private static final class DssSignature {
+        final DSSDocument document;
+        final SignatureValue value;
 
-            return new SignResponse(finalSignedBytes, encodedSignature);
+        DssSignature(DSSDocument document, SignatureValue value) {
+            this.document = document;
+            this.value = value;
+        }
+    }
 
-        } finally {
-            semaphore.release();
-
-            // OCSP cache cleanup (memory leak önleme)
-            if (actualSignatureId != null) {
-                // 1. Bu imzaya özel cache'i temizle (her imza için)
-                XAdESLevelC.cleanupOcspCache(actualSignatureId);
-
-                // 2. Eski genel cache'leri temizle (sadece XADES_A upgrade yapıldıysa)
-                // Çünkü XADES_A upgrade sırasında çok fazla OCSP/CRL cache'i oluşur.
-                // documentType ile koşullamak yerine, gerçekten XADES_A istenmiş mi
-                // olduğuna bakıyoruz: rapor tipinde olup XADES_BES seçilen istek
-                // hiç ek OCSP/CRL üretmez, gereksiz cleanup tetiklenmesin.
-                if (signatureLevel == XadesSignatureLevel.XADES_A) {
-                    XAdESLevelC.cleanupOldCaches(5 * 60 * 1000L);
-                }
-            }
+    /**
+     * İmzayı ana belgedeki hedef konumuna yerleştirip nihai byte'ları üretir.
+     *
+     * <p>BES akışında DSS builder'ı imzalı DOM'u {@link XAdESDomDocument} olarak
+     * döndürür; {@code <ds:Signature>} doğrudan bu DOM'dan alınır ve ana belge
+     * tek sefer serileştirilir. Seviye yükseltmesi (XAdES-A) veya girintili
+     * çıktı gibi belgenin byte olarak döndüğü durumlarda imza, byte'lar parse
+     * edilerek bulunur.</p>
+     *
+     * <p>Yerleştirme imzayı kaynak DOM'dan ayırır; {@code signedDocument} bu
+     * çağrıdan sonra kullanılmamalıdır.</p>
+     */
+    byte[] placeSignature(Document mainDocument, DSSDocument signedDocument,
+            DocumentType documentType) {
+        Element signatureElement = signatureElementOf(signedDocument);
+        if (signatureElement == null) {
+            return xmlProcessor.dssDocumentToBytes(signedDocument);
+        }
+
+        documentPlacement.placeSignatureElement(mainDocument, signatureElement, documentType);
+        return xmlProcessor.documentToBytes(mainDocument);
+    }
+
+    /**
+     * DSS'in imzalı belgesindeki {@code <ds:Signature>}; BES akışında
+     * {@link XAdESDomDocument}'tan doğrudan, aksi halde byte'lar parse
+     * edilerek bulunur. İmza yoksa {@code null}.
+     */
+    private Element signatureElementOf(DSSDocument signedDocument) {
+        if (signedDocument instanceof XAdESDomDocument) {
+            return ((XAdESDomDocument) signedDocument).getSignatureElement();
         }
+        byte[] signedBytes = xmlProcessor.dssDocumentToBytes(signedDocument);
+        return xmlProcessor.findSignatureElement(xmlProcessor.parseDocument(signedBytes));
     }
 
     /**
@@ -287,7 +576,7 @@ public class XAdESSignatureService {
      * Bu, DSS doğrulayıcısının zinciri çevrimiçi bulabilmesini sağlar.
      *
      * <p><strong>Eş zamanlılık:</strong> {@code certificateVerifier} paylaşılan
-     * singleton'dır ve {@code signatureSemaphore} birden fazla eş zamanlı imzaya
+     * singleton'dır ve {@code signingLimiter} birden fazla eş zamanlı imzaya
      * izin verir. Bu yüzden zincir, verifier'a {@link ThreadLocalAdjunctCertificateSource}
      * üzerinden <em>thread-izole</em> yazılır — eş zamanlı istekler birbirinin
      * adjunct kaynağını ezmez. Kaynak gerekirse tek seferlik (lazy, senkron)
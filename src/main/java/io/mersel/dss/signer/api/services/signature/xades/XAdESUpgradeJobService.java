@@ -0,0 +1,479 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.mersel.dss.signer.api.config.LogHeadersFilter;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.exceptions.SigningCapacityException;
+import io.mersel.dss.signer.api.exceptions.TimestampException;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.XadesUpgradeJob;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.services.metrics.XadesUpgradeJobMetrics;
+import io.mersel.dss.signer.api.services.notification.SignerNotifier;
+import io.mersel.dss.signer.api.services.timestamp.TimestampConfigurationService;
+import io.mersel.dss.signer.api.services.util.CompressionService;
+
+/**
+ * XAdES-A yükseltmesini istek thread'inden alıp kalıcı bir kuyrukta arka
+ * planda yürüten servis.
+ *
+ * <h3>Akış</h3>
+ * <ol>
+ *   <li>Controller BES imzasını senkron üretir (HSM çağrısı istek
+ *       thread'inde) ve {@link #submit} ile işi kuyruğa yazar; istemci iş
+ *       kimliğini alır.</li>
+ *   <li>Worker {@link XAdESSignatureService#upgradeToArchive} ile belgeyi
+ *       XAdES-A'ya yükseltir (TSA + OCSP/CRL). Sonuç iş dizinine yazılır.</li>
+ *   <li>İstemci durumu {@code GET /v1/xades/jobs/{jobId}} ile sorgular;
+ *       tamamlanan/başarısız işler için {@link SignerNotifier} webhook'u
+ *       gönderilir.</li>
+ * </ol>
+ *
+ * <h3>Dayanıklılık</h3>
+ * <p>Kuyruk {@link XAdESUpgradeJobStore} ile diske yazılır. Açılışta
+ * {@code PENDING}/{@code RUNNING} işler yeniden kuyruğa alınır; yarıda
+ * kesilen deneme sayılmış olur. Yükseltme yalnızca unsigned özellik eklediği
+ * için aynı BES belgesinin yeniden denenmesi güvenlidir.</p>
+ *
+ * <h3>Sınırlar</h3>
+ * <ul>
+ *   <li>{@code XADES_ASYNC_WORKERS} eş zamanlı yükseltme; TSA'ya giden eş
+ *       zamanlı istek sayısını da sınırlar.</li>
+ *   <li>{@code XADES_ASYNC_MAX_ACTIVE_JOBS} aşılırsa yeni iş HSM'e gitmeden
+ *       {@link SigningCapacityException} (429) ile reddedilir.</li>
+ *   <li>Başarısız deneme {@code XADES_ASYNC_MAX_ATTEMPTS}'e kadar üstel
+ *       beklemeyle ({@code XADES_ASYNC_RETRY_DELAY_MS × 2^n}) yeniden
+ *       denenir.</li>
+ *   <li>Bitmiş işler {@code XADES_ASYNC_JOB_RETENTION_MS} sonra silinir.</li>
+ * </ul>
+ *
+ * <p>Opt-in'dir ({@code XADES_ASYNC_UPGRADE_ENABLED=true}). İş dizini
+ * oluşturulamazsa (salt okunur dosya sistemi vb.) uygulama yine açılır;
+ * uyarı loglanır ve asenkron istekler {@code ASYNC_JOB_STORE_ERROR} ile
+ * reddedilir.</p>
+ */
+@Service
+@ConditionalOnProperty(name = "XADES_ASYNC_UPGRADE_ENABLED", havingValue = "true")
+public class XAdESUpgradeJobService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XAdESUpgradeJobService.class);
+
+    /** Yeniden denemeler arası bekleme üst sınırı. */
+    private static final long MAX_RETRY_DELAY_MS = TimeUnit.HOURS.toMillis(1);
+
+    private final XAdESSignatureService xadesSignatureService;
+    private final TimestampConfigurationService timestampService;
+    private final SigningMaterial signingMaterial;
+    private final CompressionService compressionService;
+    private final SignerNotifier signerNotifier;
+    private final XadesUpgradeJobMetrics metrics;
+    /** {@code null} → iş dizini açılamadı; servis iş kabul etmez. */
+    private final XAdESUpgradeJobStore store;
+    private final ScheduledThreadPoolExecutor workers;
+    private final int maxActiveJobs;
+    private final int maxAttempts;
+    private final long retryDelayMillis;
+    private final long retentionMillis;
+    private final AtomicInteger activeJobs = new AtomicInteger();
+
+    /** Test hook'u — epoch milisaniye saati. */
+    private LongSupplier clock = System::currentTimeMillis;
+
+    @Autowired
+    public XAdESUpgradeJobService(XAdESSignatureService xadesSignatureService,
+            TimestampConfigurationService timestampService,
+            SigningMaterial signingMaterial,
+            CompressionService compressionService,
+            SignerNotifier signerNotifier,
+            ObjectProvider<XadesUpgradeJobMetrics> metrics,
+            @Value("${XADES_ASYNC_JOB_DIR:xades-upgrade-jobs}") String jobDir,
+            @Value("${XADES_ASYNC_WORKERS:4}") int workers,
+            @Value("${XADES_ASYNC_MAX_ACTIVE_JOBS:10000}") int maxActiveJobs,
+            @Value("${XADES_ASYNC_MAX_ATTEMPTS:3}") int maxAttempts,
+            @Value("${XADES_ASYNC_RETRY_DELAY_MS:30000}") long retryDelayMillis,
+            @Value("${XADES_ASYNC_JOB_RETENTION_MS:86400000}") long retentionMillis) {
+        this(xadesSignatureService, timestampService, signingMaterial, compressionService, signerNotifier,
+                metrics.getIfAvailable(), openStore(jobDir),
+                workers, maxActiveJobs, maxAttempts, retryDelayMillis, retentionMillis);
+    }
+
+    /**
+     * @param metrics {@code null} → metrik yok
+     * @param store   {@code null} → iş dizini kullanılamıyor; yeni işler reddedilir
+     */
+    public XAdESUpgradeJobService(XAdESSignatureService xadesSignatureService,
+            TimestampConfigurationService timestampService,
+            SigningMaterial signingMaterial,
+            CompressionService compressionService,
+            SignerNotifier signerNotifier,
+            XadesUpgradeJobMetrics metrics,
+            XAdESUpgradeJobStore store,
+            int workers,
+            int maxActiveJobs,
+            int maxAttempts,
+            long retryDelayMillis,
+            long retentionMillis) {
+        this.xadesSignatureService = xadesSignatureService;
+        this.timestampService = timestampService;
+        this.signingMaterial = signingMaterial;
+        this.compressionService = compressionService;
+        this.signerNotifier = signerNotifier;
+        this.metrics = metrics;
+        this.store = store;
+        this.maxActiveJobs = Math.max(1, maxActiveJobs);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelayMillis = Math.max(0, retryDelayMillis);
+        this.retentionMillis = retentionMillis;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = new ScheduledThreadPoolExecutor(Math.max(1, workers), r -> {
+            Thread t = new Thread(r, "xades-upgrade-job-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.workers.setRemoveOnCancelPolicy(true);
+        if (metrics != null) {
+            metrics.bindActiveJobs(activeJobs::get);
+        }
+    }
+
+    /**
+     * Önceki süreçten kalan {@code PENDING}/{@code RUNNING} işleri kuyruğa
+     * geri alır. Yeniden deneme zamanı gelmemiş işler kalan süre kadar
+     * bekletilir.
+     */
+    @PostConstruct
+    public void recover() throws IOException {
+        if (store == null) {
+            return;
+        }
+        List<XadesUpgradeJob> jobs = store.list();
+        int recovered = 0;
+        long now = clock.getAsLong();
+        for (XadesUpgradeJob job : jobs) {
+            if (job.getStatus() == null || job.getStatus().isTerminal()) {
+                continue;
+            }
+            activeJobs.incrementAndGet();
+            long delay = job.getNextAttemptAt() != null ? Math.max(0, job.getNextAttemptAt() - now) : 0;
+            schedule(job.getJobId(), delay);
+            recovered++;
+        }
+        LOGGER.info("XAdES-A yükseltme kuyruğu hazır: dizin={}, kurtarılan iş={}, maxActive={}, maxAttempts={}",
+                store.getRoot(), recovered, maxActiveJobs, maxAttempts);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Yürüyen işler RUNNING olarak kalır ve bir sonraki açılışta yeniden denenir.
+        workers.shutdownNow();
+    }
+
+    /**
+     * Yeni iş kabul edilebilir mi? BES imzası için HSM'e gitmeden önce
+     * çağrılır; reddedilecek bir iş için imza harcanmaz.
+     *
+     * @throws TimestampException TSA yapılandırılmamışsa
+     * @throws SigningCapacityException aktif iş sınırı doluysa
+     * @throws SignatureException iş dizini kullanılamıyorsa
+     */
+    public void ensureAccepting() {
+        ensureStoreAvailable();
+        if (!timestampService.isAvailable()) {
+            throw new TimestampException("XADES_A profili istendi ancak timestamp sunucusu yapılandırılmamış. "
+                    + "TS_SERVER_HOST property'sini ayarlayın.");
+        }
+        if (activeJobs.get() >= maxActiveJobs) {
+            throw capacityExceeded();
+        }
+    }
+
+    /**
+     * BES belgesini kalıcı kuyruğa yazar ve yükseltmeyi planlar. İstek
+     * thread'inin {@code x-log-*} MDC değerleri işle birlikte saklanır.
+     *
+     * @param signedDocument yerleştirilmiş XAdES-BES belgesi; {@code zipped} ise ZIP
+     * @param documentType   belge tipi
+     * @param zipped         BES belgesi ZIP'li mi; sonuç da aynı biçimde döner
+     * @param signatureValue BES imza değeri (Base64); XAdES-A'da değişmez
+     * @return kabul edilen iş ({@code PENDING})
+     */
+    public XadesUpgradeJob submit(byte[] signedDocument,
+            DocumentType documentType,
+            boolean zipped,
+            String signatureValue) {
+        ensureStoreAvailable();
+        if (activeJobs.incrementAndGet() > maxActiveJobs) {
+            activeJobs.decrementAndGet();
+            throw capacityExceeded();
+        }
+        long now = clock.getAsLong();
+        XadesUpgradeJob job = new XadesUpgradeJob();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setStatus(XadesUpgradeJob.Status.PENDING);
+        job.setDocumentType(documentType != null ? documentType.name() : null);
+        job.setZipped(zipped);
+        job.setSignatureValue(signatureValue);
+        job.setCreatedAt(now);
+        job.setUpdatedAt(now);
+        Map<String, String> logHeaders = collectLogHeadersFromMdc();
+        job.setLogHeaders(logHeaders.isEmpty() ? null : logHeaders);
+        try {
+            store.create(job, signedDocument);
+        } catch (IOException e) {
+            activeJobs.decrementAndGet();
+            throw new SignatureException("ASYNC_JOB_STORE_ERROR", "Yükseltme işi kuyruğa yazılamadı", e);
+        }
+        schedule(job.getJobId(), 0);
+        LOGGER.info("XAdES-A yükseltme işi kuyruğa alındı: {} (belge tipi: {})", job.getJobId(), job.getDocumentType());
+        return job;
+    }
+
+    /**
+     * @return iş kaydı; yoksa veya kimlik geçersizse {@code null}
+     */
+    public XadesUpgradeJob find(String jobId) {
+        return store != null ? store.find(jobId) : null;
+    }
+
+    /** Tamamlanan işin sonuç dosyası; iş {@code COMPLETED} değilse dosya yoktur. */
+    public Path resultPath(String jobId) {
+        ensureStoreAvailable();
+        return store.resultPath(jobId);
+    }
+
+    public int getActiveJobs() {
+        return activeJobs.get();
+    }
+
+    /** Saklama süresi dolmuş bitmiş işleri siler. */
+    @Scheduled(fixedDelayString = "${XADES_ASYNC_JOB_CLEANUP_INTERVAL_MS:600000}",
+            initialDelayString = "${XADES_ASYNC_JOB_CLEANUP_INTERVAL_MS:600000}")
+    public void purgeExpiredJobs() {
+        if (store == null || retentionMillis <= 0) {
+            return;
+        }
+        long cutoff = clock.getAsLong() - retentionMillis;
+        try {
+            for (XadesUpgradeJob job : store.list()) {
+                if (job.getStatus() != null && job.getStatus().isTerminal()
+                        && job.getUpdatedAt() < cutoff) {
+                    store.delete(job.getJobId());
+                    LOGGER.debug("Süresi dolan yükseltme işi silindi: {}", job.getJobId());
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Süresi dolan yükseltme işleri temizlenemedi: {}", e.getMessage());
+        }
+    }
+
+    void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * İş dizinini açar. Açılamazsa uygulamanın açılışını durdurmak yerine
+     * uyarı loglar ve {@code null} döner.
+     */
+    private static XAdESUpgradeJobStore openStore(String jobDir) {
+        try {
+            return new XAdESUpgradeJobStore(Paths.get(jobDir));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("XAdES-A yükseltme iş dizini açılamadı ({}): {}. Asenkron yükseltme istekleri "
+                    + "reddedilecek; kalıcı ve yazılabilir bir XADES_ASYNC_JOB_DIR ayarlayın.", jobDir, e.toString());
+            return null;
+        }
+    }
+
+    private void ensureStoreAvailable() {
+        if (store == null) {
+            throw new SignatureException("ASYNC_JOB_STORE_ERROR",
+                    "Yükseltme iş dizini kullanılamıyor (XADES_ASYNC_JOB_DIR)");
+        }
+    }
+
+    private void schedule(String jobId, long delayMillis) {
+        try {
+            workers.schedule(() -> process(jobId), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Kapanış sırasında: iş diskte PENDING kalır, açılışta kurtarılır.
+            LOGGER.info("Servis kapanıyor, yükseltme işi sonraki açılışa bırakıldı: {}", jobId);
+        }
+    }
+
+    private void process(String jobId) {
+        XadesUpgradeJob job = store.find(jobId);
+        if (job == null || job.getStatus() == null || job.getStatus().isTerminal()) {
+            activeJobs.decrementAndGet();
+            return;
+        }
+        Map<String, String> logHeaders = job.getLogHeaders();
+        putLogHeadersToMdc(logHeaders);
+        long start = System.nanoTime();
+        try {
+            job.setStatus(XadesUpgradeJob.Status.RUNNING);
+            job.setAttempts(job.getAttempts() + 1);
+            job.setNextAttemptAt(null);
+            job.setUpdatedAt(clock.getAsLong());
+            store.save(job);
+
+            byte[] signedDocument = store.readSignedDocument(jobId);
+            if (job.isZipped()) {
+                signedDocument = compressionService.unzipFirstEntry(new ByteArrayInputStream(signedDocument));
+            }
+            byte[] upgraded = xadesSignatureService.upgradeToArchive(
+                    signedDocument, documentTypeOf(job), signingMaterial);
+            byte[] result = job.isZipped()
+                    ? compressionService.zipBytes(XAdESSignatureService.ZIP_ENTRY_NAME, upgraded)
+                    : upgraded;
+            store.writeResult(jobId, result);
+
+            long now = clock.getAsLong();
+            job.setStatus(XadesUpgradeJob.Status.COMPLETED);
+            job.setCompletedAt(now);
+            job.setUpdatedAt(now);
+            job.setResultSizeBytes((long) result.length);
+            job.setErrorCode(null);
+            job.setErrorMessage(null);
+            store.save(job);
+            store.deleteSignedDocument(jobId);
+            activeJobs.decrementAndGet();
+
+            if (metrics != null) {
+                metrics.recordAttempt(System.nanoTime() - start, "success");
+                metrics.recordCompletion(now - job.getCreatedAt());
+            }
+            LOGGER.info("XAdES-A yükseltme işi tamamlandı: {} (deneme: {}, {} byte)",
+                    jobId, job.getAttempts(), result.length);
+            signerNotifier.notifyOnXadesUpgradeJob(job, null);
+        } catch (Exception e) {
+            if (workers.isShutdown()) {
+                LOGGER.info("Servis kapanıyor, yükseltme işi sonraki açılışta yeniden denenecek: {}", jobId);
+                return;
+            }
+            onAttemptFailed(job, e, System.nanoTime() - start);
+        } finally {
+            removeLogHeadersFromMdc(logHeaders);
+        }
+    }
+
+    private void onAttemptFailed(XadesUpgradeJob job, Exception error, long attemptNanos) {
+        long now = clock.getAsLong();
+        job.setErrorCode(error instanceof SignatureException ? ((SignatureException) error).getErrorCode() : null);
+        job.setErrorMessage(error.getMessage());
+        job.setUpdatedAt(now);
+
+        if (job.getAttempts() < maxAttempts) {
+            long delay = retryDelay(job.getAttempts());
+            job.setStatus(XadesUpgradeJob.Status.PENDING);
+            job.setNextAttemptAt(now + delay);
+            saveQuietly(job);
+            if (metrics != null) {
+                metrics.recordAttempt(attemptNanos, "retry");
+            }
+            LOGGER.warn("XAdES-A yükseltme denemesi başarısız, {} ms sonra yeniden denenecek: {} (deneme {}/{}) - {}",
+                    delay, job.getJobId(), job.getAttempts(), maxAttempts, error.getMessage());
+            schedule(job.getJobId(), delay);
+            return;
+        }
+
+        job.setStatus(XadesUpgradeJob.Status.FAILED);
+        job.setCompletedAt(now);
+        saveQuietly(job);
+        activeJobs.decrementAndGet();
+        if (metrics != null) {
+            metrics.recordAttempt(attemptNanos, "failed");
+        }
+        LOGGER.error("XAdES-A yükseltme işi başarısız, deneme hakkı kalmadı: {} ({} deneme)",
+                job.getJobId(), job.getAttempts(), error);
+        signerNotifier.notifyOnXadesUpgradeJob(job, error);
+    }
+
+    private long retryDelay(int attempts) {
+        int shift = Math.min(Math.max(0, attempts - 1), 20);
+        return Math.min(retryDelayMillis << shift, MAX_RETRY_DELAY_MS);
+    }
+
+    private void saveQuietly(XadesUpgradeJob job) {
+        try {
+            store.save(job);
+        } catch (IOException e) {
+            LOGGER.error("Yükseltme işi kaydı güncellenemedi: {}", job.getJobId(), e);
+        }
+    }
+
+    private SigningCapacityException capacityExceeded() {
+        long retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(retryDelayMillis));
+        return new SigningCapacityException(SigningCapacityException.Reason.QUEUE_FULL, retryAfterSeconds,
+                "XAdES-A yükseltme kuyruğu dolu (" + maxActiveJobs + " aktif iş)");
+    }
+
+    private static DocumentType documentTypeOf(XadesUpgradeJob job) {
+        if (job.getDocumentType() == null) {
+            return DocumentType.OtherXmlDocument;
+        }
+        try {
+            return DocumentType.valueOf(job.getDocumentType());
+        } catch (IllegalArgumentException e) {
+            return DocumentType.OtherXmlDocument;
+        }
+    }
+
+    private static Map<String, String> collectLogHeadersFromMdc() {
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        if (mdc == null || mdc.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> headers = new TreeMap<>();
+        for (Map.Entry<String, String> e : mdc.entrySet()) {
+            if (e.getKey() != null && e.getKey().startsWith(LogHeadersFilter.MDC_KEY_PREFIX)
+                    && e.getValue() != null && !e.getValue().isEmpty()) {
+                headers.put(e.getKey().substring(LogHeadersFilter.MDC_KEY_PREFIX.length()), e.getValue());
+            }
+        }
+        return headers;
+    }
+
+    private static void putLogHeadersToMdc(Map<String, String> logHeaders) {
+        if (logHeaders != null) {
+            for (Map.Entry<String, String> e : logHeaders.entrySet()) {
+                MDC.put(LogHeadersFilter.MDC_KEY_PREFIX + e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    private static void removeLogHeadersFromMdc(Map<String, String> logHeaders) {
+        if (logHeaders != null) {
+            for (String header : logHeaders.keySet()) {
+                MDC.remove(LogHeadersFilter.MDC_KEY_PREFIX + header);
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.mersel.dss.signer.api.models.XadesUpgradeJob;
+
+/**
+ * Asenkron XAdES-A yükseltme işleri için dosya tabanlı kalıcı kuyruk.
+ *
+ * <h3>Dizin düzeni</h3>
+ * <pre>
+ * {root}/{jobId}/job.json         iş kaydı ({@link XadesUpgradeJob})
+ * {root}/{jobId}/signed-bes.xml   yükseltilecek BES belgesi
+ * {root}/{jobId}/result           XAdES-A belgesi (XML veya ZIP)
+ * </pre>
+ *
+ * <h3>Dayanıklılık</h3>
+ * <p>Her dosya önce {@code .tmp} adıyla yazılıp diske zorlanır
+ * ({@code fsync}), sonra atomik olarak yerine taşınır; okuyan taraf yarım
+ * yazılmış bir kayıt görmez. Yeni iş dizini de aynı şekilde {@code .tmp}
+ * dizininde hazırlanıp tek seferde görünür olur — süreç oluşturma sırasında
+ * çökerse iş hiç kabul edilmemiş sayılır ve açılışta artık silinir.</p>
+ *
+ * <p>Sınıf thread-safe değildir; aynı işin kaydını aynı anda tek bir thread
+ * yazmalıdır ({@link XAdESUpgradeJobService} bunu garanti eder). Okumalar
+ * her zaman tutarlı bir kayıt görür.</p>
+ */
+public class XAdESUpgradeJobStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XAdESUpgradeJobStore.class);
+
+    static final String JOB_FILE = "job.json";
+    static final String SIGNED_DOCUMENT_FILE = "signed-bes.xml";
+    static final String RESULT_FILE = "result";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private final Path root;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    /**
+     * @param root iş dizini; yoksa oluşturulur
+     * @throws IOException dizin oluşturulamazsa
+     */
+    public XAdESUpgradeJobStore(Path root) throws IOException {
+        this.root = Files.createDirectories(root).toAbsolutePath();
+        removeIncompleteWrites();
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /** İş kimliği yalnızca UUID olabilir; yol enjeksiyonuna karşı tek giriş kapısı. */
+    public static boolean isValidJobId(String jobId) {
+        if (jobId == null || jobId.length() != 36) {
+            return false;
+        }
+        try {
+            return UUID.fromString(jobId).toString().equals(jobId);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /** Kaydı ve BES belgesini yazar; iş dizini ancak ikisi de diskteyken görünür olur. */
+    public void create(XadesUpgradeJob job, byte[] signedDocument) throws IOException {
+        Path finalDir = jobDir(job.getJobId());
+        Path tmpDir = root.resolve(job.getJobId() + TMP_SUFFIX);
+        Files.createDirectories(tmpDir);
+        writeDurably(tmpDir.resolve(SIGNED_DOCUMENT_FILE), signedDocument);
+        writeDurably(tmpDir.resolve(JOB_FILE), objectMapper.writeValueAsBytes(job));
+        move(tmpDir, finalDir);
+    }
+
+    /** Kaydı atomik olarak günceller. */
+    public void save(XadesUpgradeJob job) throws IOException {
+        Path file = jobDir(job.getJobId()).resolve(JOB_FILE);
+        writeAtomically(file, objectMapper.writeValueAsBytes(job));
+    }
+
+    /**
+     * @return kayıt; kimlik geçersizse, iş yoksa veya okunamıyorsa {@code null}
+     */
+    public XadesUpgradeJob find(String jobId) {
+        if (!isValidJobId(jobId)) {
+            return null;
+        }
+        Path file = jobDir(jobId).resolve(JOB_FILE);
+        try {
+            return objectMapper.readValue(Files.readAllBytes(file), XadesUpgradeJob.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOGGER.warn("Yükseltme işi kaydı okunamadı: {} - {}", jobId, e.getMessage());
+            return null;
+        }
+    }
+
+    /** Dizindeki tüm okunabilir iş kayıtları. */
+    public List<XadesUpgradeJob> list() throws IOException {
+        List<XadesUpgradeJob> jobs = new ArrayList<>();
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                XadesUpgradeJob job = find(dir.getFileName().toString());
+                if (job != null) {
+                    jobs.add(job);
+                }
+            }
+        }
+        return jobs;
+    }
+
+    public byte[] readSignedDocument(String jobId) throws IOException {
+        return Files.readAllBytes(jobDir(jobId).resolve(SIGNED_DOCUMENT_FILE));
+    }
+
+    public void writeResult(String jobId, byte[] result) throws IOException {
+        writeAtomically(jobDir(jobId).resolve(RESULT_FILE), result);
+    }
+
+    /** Sonuç dosyasının yolu; dosya yalnızca iş {@code COMPLETED} ise vardır. */
+    public Path resultPath(String jobId) {
+        return jobDir(jobId).resolve(RESULT_FILE);
+    }
+
+    /** BES belgesini siler (sonuç yazıldıktan sonra artık gerekmez). */
+    public void deleteSignedDocument(String jobId) throws IOException {
+        Files.deleteIfExists(jobDir(jobId).resolve(SIGNED_DOCUMENT_FILE));
+    }
+
+    /** İş dizinini tamamen siler. */
+    public void delete(String jobId) throws IOException {
+        if (isValidJobId(jobId)) {
+            deleteRecursively(jobDir(jobId));
+        }
+    }
+
+    private Path jobDir(String jobId) {
+        if (!isValidJobId(jobId)) {
+            throw new IllegalArgumentException("Geçersiz iş kimliği: " + jobId);
+        }
+        return root.resolve(jobId);
+    }
+
+    private void writeAtomically(Path target, byte[] content) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + TMP_SUFFIX);
+        writeDurably(tmp, content);
+        move(tmp, target);
+    }
+
+    private static void writeDurably(Path file, byte[] content) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** Önceki süreçten kalan yarım yazımları ({@code *.tmp}) siler. */
+    private void removeIncompleteWrites() throws IOException {
+        try (Stream<Path> paths = Files.walk(root, 2)) {
+            List<Path> leftovers = new ArrayList<>();
+            paths.filter(p -> p.getFileName().toString().endsWith(TMP_SUFFIX)).forEach(leftovers::add);
+            for (Path leftover : leftovers) {
+                LOGGER.warn("Yarım kalmış yükseltme işi yazımı siliniyor: {}", leftover);
+                deleteRecursively(leftover);
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            List<Path> ordered = new ArrayList<>();
+            paths.sorted(Comparator.reverseOrder()).forEach(ordered::add);
+            for (Path p : ordered) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package io.mersel.dss.signer.api.services.signature.xades;
 import eu.europa.esig.dss.model.DSSDocument;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
 import io.mersel.dss.signer.api.util.xml.SecureXmlFactories;
+import io.mersel.dss.signer.api.util.xml.XmlProcessorPool;
 import org.springframework.stereotype.Service;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -10,16 +11,7 @@ import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import javax.xml.crypto.dsig.XMLSignature;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
@@ -30,24 +22,17 @@ import java.io.IOException;
 @Service
 public class XmlProcessingService {
 
-    private final DocumentBuilderFactory documentBuilderFactory;
-
-    public XmlProcessingService() {
-        // XXE-güvenli (hardened) factory; SecureXmlFactories merkezi olarak
-        // DOCTYPE/external entity/DTD/XInclude vektörlerini kapatır.
-        this.documentBuilderFactory = SecureXmlFactories.newDocumentBuilderFactory();
-    }
-
     /**
      * XML byte'larını DOM Document'e ayrıştırır.
+     *
+     * <p>XXE-güvenli (hardened) builder {@link XmlProcessorPool}'dan alınır;
+     * {@link SecureXmlFactories} DOCTYPE/external entity/DTD/XInclude
+     * vektörlerini kapatır.</p>
      */
     public Document parseDocument(byte[] xmlBytes) {
         try {
-            DocumentBuilder builder = documentBuilderFactory.newDocumentBuilder();
-            try (ByteArrayInputStream inputStream = new ByteArrayInputStream(xmlBytes)) {
-                return builder.parse(inputStream);
-            }
-        } catch (ParserConfigurationException | SAXException | IOException e) {
+            return XmlProcessorPool.parse(xmlBytes);
+        } catch (SAXException | IOException e) {
             throw new SignatureException("XML belgesi ayrıştırılamadı", e);
         }
     }
@@ -57,15 +42,7 @@ public class XmlProcessingService {
      */
     public byte[] documentToBytes(Document document) {
         try {
-            TransformerFactory transformerFactory = SecureXmlFactories.newTransformerFactory();
-            Transformer transformer = transformerFactory.newTransformer();
-            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
-            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-            
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            transformer.transform(new DOMSource(document), new StreamResult(outputStream));
-            return outputStream.toByteArray();
-            
+            return XmlProcessorPool.serialize(document);
         } catch (TransformerException e) {
             throw new SignatureException("Belge byte dizisine dönüştürülemedi", e);
         }
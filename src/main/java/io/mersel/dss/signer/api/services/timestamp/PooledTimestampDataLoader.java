@@ -0,0 +1,140 @@
+package io.mersel.dss.signer.api.services.timestamp;
+
+import eu.europa.esig.dss.service.http.commons.TimestampDataLoader;
+import io.mersel.dss.signer.api.services.http.HttpRoutes;
+import io.mersel.dss.signer.api.services.http.InstrumentedConnectionManager;
+import io.mersel.dss.signer.api.services.metrics.TimestampHttpMetrics;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequest;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bağlantı havuzunu istekler arasında paylaşan {@link TimestampDataLoader}.
+ *
+ * <p>DSS {@code CommonsDataLoader} her {@code post}/{@code get} çağrısında
+ * yeni bir {@code CloseableHttpClient} (ve onunla birlikte yeni bir bağlantı
+ * havuzu) kurar, istek bitince kapatır. Her zaman damgası isteği böylece
+ * TCP + TLS el sıkışmasını yeniden öder. Bu sınıf DSS'in kurduğu client'ı
+ * (kimlik doğrulama, TLS ve timeout ayarları dahil) host başına bir kez
+ * oluşturup saklar; bağlantılar keep-alive ile yeniden kullanılır.</p>
+ *
+ * <ul>
+ *   <li>Havuz sınırları, timeout'lar ve keep-alive DSS setter'larıyla
+ *       ({@code setConnectionsMaxPerRoute}, {@code setTimeoutConnection},
+ *       {@code setTimeoutResponse}...) verilir. Client ilk istekte
+ *       kurulduğundan ayarlar ondan önce yapılmalıdır.</li>
+ *   <li>{@link #setIdleEvictionMillis(int)} süresinden uzun boşta kalan ve
+ *       süresi dolmuş bağlantılar arka planda kapatılır; TSA'nın sessizce
+ *       kapattığı soketler havuzda birikmez.</li>
+ *   <li>{@link TimestampHttpMetrics} verilirse havuzdan bağlantı alma süresi
+ *       ve istek süresi histogram olarak kaydedilir.</li>
+ * </ul>
+ *
+ * <p>Aynı örnek {@code OnlineTSPSource} üzerinden eş zamanlı kullanılır;
+ * client önbelleği thread-safe'tir. {@link #close()} tüm havuzları kapatır.</p>
+ */
+public class PooledTimestampDataLoader extends TimestampDataLoader implements Closeable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PooledTimestampDataLoader.class);
+
+    private final transient TimestampHttpMetrics metrics;
+    private final transient Map<String, CloseableHttpClient> clients = new ConcurrentHashMap<>();
+
+    private int idleEvictionMillis = 30_000;
+
+    /**
+     * @param metrics havuz ve istek metrikleri; {@code null} → metrik yok
+     */
+    public PooledTimestampDataLoader(TimestampHttpMetrics metrics) {
+        super();
+        this.metrics = metrics;
+    }
+
+    /**
+     * Boşta kalan bağlantıların kapatılacağı süre (ms). {@code <=0} ise
+     * yalnızca süresi dolmuş (keep-alive/TTL) bağlantılar temizlenir.
+     */
+    public void setIdleEvictionMillis(int idleEvictionMillis) {
+        this.idleEvictionMillis = idleEvictionMillis;
+    }
+
+    public int getIdleEvictionMillis() {
+        return idleEvictionMillis;
+    }
+
+    /**
+     * Host başına önbellekteki client'ı döner; yoksa DSS'in builder'ı ile bir
+     * kez kurar. Kimlik bilgileri URL'nin host'una göre bağlandığı için anahtar
+     * scheme + host + port'tur.
+     */
+    @Override
+    protected synchronized CloseableHttpClient getHttpClient(String url) {
+        String key = HttpRoutes.routeKey(url);
+        CloseableHttpClient client = clients.get(key);
+        if (client == null) {
+            HttpClientBuilder builder = getHttpClientBuilder(url).evictExpiredConnections();
+            if (idleEvictionMillis > 0) {
+                builder.evictIdleConnections(TimeValue.ofMilliseconds(idleEvictionMillis));
+            }
+            client = builder.build();
+            clients.put(key, client);
+            LOGGER.info("TSA HTTP bağlantı havuzu oluşturuldu: {} (maks. {} bağlantı, boşta kapatma {} ms)",
+                    key, getConnectionsMaxPerRoute(), idleEvictionMillis);
+        }
+        return client;
+    }
+
+    /** DSS'in kurduğu havuzu lease süresini ölçen bir sarmalayıcıyla döner. */
+    @Override
+    protected HttpClientConnectionManager getConnectionManager() {
+        return InstrumentedConnectionManager.wrap(super.getConnectionManager(),
+                metrics != null ? metrics::recordLease : null);
+    }
+
+    @Override
+    protected byte[] execute(CloseableHttpClient client, HttpUriRequest request) throws IOException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            byte[] response = super.execute(client, request);
+            success = true;
+            return response;
+        } finally {
+            if (metrics != null) {
+                metrics.recordRequest(HttpRoutes.hostOf(request), System.nanoTime() - start, success);
+            }
+        }
+    }
+
+    /**
+     * DSS her istekten sonra client'ı kapatır; paylaşılan client kapatılmaz.
+     * Yanıt {@code HttpClientResponseHandler} ile okunduğundan bağlantı
+     * havuza (başarıda) iade edilmiş veya (hatada) atılmıştır.
+     */
+    @Override
+    protected void closeQuietly(HttpUriRequestBase httpRequest, CloseableHttpClient client) {
+        // Paylaşılan client bilerek açık bırakılır.
+    }
+
+    /** Tüm host havuzlarını kapatır. */
+    @Override
+    public void close() {
+        for (CloseableHttpClient client : clients.values()) {
+            client.close(CloseMode.GRACEFUL);
+        }
+        clients.clear();
+    }
+}
@@ -0,0 +1,80 @@
+package io.mersel.dss.signer.api.services.timestamp;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.TimestampBinary;
+import eu.europa.esig.dss.service.tsp.OnlineTSPSource;
+import eu.europa.esig.dss.spi.client.http.DataLoader;
+import io.mersel.dss.signer.api.exceptions.TimestampException;
+import io.mersel.dss.signer.api.services.metrics.TimestampHttpMetrics;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TSA'ya giden eş zamanlı istek sayısını sınırlayan {@link OnlineTSPSource}.
+ *
+ * <p>Havuz sınırını ({@code TS_HTTP_MAX_CONNECTIONS}) aşan istekler
+ * bağlantı kiralama timeout'unda ({@code TS_HTTP_POOL_LEASE_TIMEOUT_MS})
+ * hata alıyordu; toplu XAdES-A yükseltmesi gibi yüzlerce belgenin aynı anda
+ * zaman damgası istediği akışlarda bu, TSA yavaşladığında topluca başarısız
+ * olmak demekti. Bu sınıf istekleri bir semafor önünde sıraya koyar ve en
+ * fazla {@code maxConcurrent} tanesini TSA'ya bırakır. Sıra bekleme süresi
+ * {@code maxWaitMillis}'i aşarsa {@link TimestampException} fırlatılır.</p>
+ *
+ * <p>Semafor adil (FIFO) çalışır; uzun bekleyen istek öne geçilmez.</p>
+ */
+public class ThrottledOnlineTSPSource extends OnlineTSPSource {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Semaphore permits;
+    private final transient TimestampHttpMetrics metrics;
+    private final int maxConcurrent;
+    private final long maxWaitMillis;
+
+    /**
+     * @param metrics bekleme süresi metriği; {@code null} → metrik yok
+     */
+    public ThrottledOnlineTSPSource(String tspServer, DataLoader dataLoader,
+                                    int maxConcurrent, long maxWaitMillis,
+                                    TimestampHttpMetrics metrics) {
+        super(tspServer, dataLoader);
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxWaitMillis = Math.max(0, maxWaitMillis);
+        this.permits = new Semaphore(this.maxConcurrent, true);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public TimestampBinary getTimeStampResponse(DigestAlgorithm digestAlgorithm, byte[] digest) {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimestampException("Zaman damgası sırası beklenirken kesildi", e);
+        }
+        if (metrics != null) {
+            metrics.recordThrottleWait(System.nanoTime() - start);
+        }
+        if (!acquired) {
+            throw new TimestampException("TSA eş zamanlı istek sınırı (" + maxConcurrent
+                    + ") doluydu; " + maxWaitMillis + " ms içinde sıra gelmedi");
+        }
+        try {
+            return super.getTimeStampResponse(digestAlgorithm, digest);
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /** Şu an TSA'da süren istek sayısı. */
+    public int getInFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+}
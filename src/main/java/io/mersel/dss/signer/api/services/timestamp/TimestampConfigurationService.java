@@ -1,16 +1,19 @@
 package io.mersel.dss.signer.api.services.timestamp;
 
-import eu.europa.esig.dss.service.http.commons.TimestampDataLoader;
 import eu.europa.esig.dss.service.tsp.OnlineTSPSource;
 import io.mersel.dss.signer.api.exceptions.TimestampException;
+import io.mersel.dss.signer.api.services.metrics.TimestampHttpMetrics;
+import io.mersel.dss.signer.api.services.timestamp.tubitak.TubitakIdentityTokenFactory;
 import io.mersel.dss.signer.api.services.timestamp.tubitak.TubitakTimestampDataLoader;
 import io.mersel.dss.signer.api.services.timestamp.tubitak.TubitakTspDetector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import javax.annotation.PreDestroy;
 import java.net.URI;
 
 /**
@@ -24,19 +27,50 @@ public class TimestampConfigurationService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TimestampConfigurationService.class);
 
+    static final int DEFAULT_CONNECT_TIMEOUT_MS = 5_000;
+    static final int DEFAULT_READ_TIMEOUT_MS = 30_000;
+    static final int DEFAULT_LEASE_TIMEOUT_MS = 5_000;
+    static final int DEFAULT_MAX_CONNECTIONS = 20;
+    static final int DEFAULT_KEEP_ALIVE_MS = 60_000;
+    static final int DEFAULT_IDLE_EVICTION_MS = 30_000;
+    static final long DEFAULT_CONCURRENCY_WAIT_MS = 60_000;
+
     private final String tspServerUrl;
     private final String tspUserId;
     private final String tspUserPassword;
     private final boolean isTubitakTsp;
+    private final TimestampHttpMetrics httpMetrics;
+
+    private int connectTimeoutMs = DEFAULT_CONNECT_TIMEOUT_MS;
+    private int readTimeoutMs = DEFAULT_READ_TIMEOUT_MS;
+    private int leaseTimeoutMs = DEFAULT_LEASE_TIMEOUT_MS;
+    private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+    private int keepAliveMs = DEFAULT_KEEP_ALIVE_MS;
+    private int idleEvictionMs = DEFAULT_IDLE_EVICTION_MS;
+    private int maxConcurrentRequests;
+    private long concurrencyWaitMs = DEFAULT_CONCURRENCY_WAIT_MS;
+    private long tubitakKeyRotationMs = TubitakIdentityTokenFactory.DEFAULT_ROTATION_MILLIS;
+    private long tubitakKeyRotationRequests = TubitakIdentityTokenFactory.DEFAULT_ROTATION_REQUESTS;
     
     private volatile OnlineTSPSource tspSource;
+    private volatile PooledTimestampDataLoader pooledDataLoader;
     private volatile boolean configured = false;
 
+    public TimestampConfigurationService(String tspServerUrl,
+                                         String tspUserId,
+                                         String tspUserPassword,
+                                         boolean isTubitakTsp) {
+        this(tspServerUrl, tspUserId, tspUserPassword, isTubitakTsp, null);
+    }
+
+    @Autowired
     public TimestampConfigurationService(
             @Value("${TS_SERVER_HOST:}") String tspServerUrl,
             @Value("${TS_USER_ID:}") String tspUserId,
             @Value("${TS_USER_PASSWORD:}") String tspUserPassword,
-            @Value("${IS_TUBITAK_TSP:false}") boolean isTubitakTsp) {
+            @Value("${IS_TUBITAK_TSP:false}") boolean isTubitakTsp,
+            TimestampHttpMetrics httpMetrics) {
+        this.httpMetrics = httpMetrics;
         this.tspServerUrl = tspServerUrl;
         this.tspUserId = tspUserId;
         this.tspUserPassword = tspUserPassword;
@@ -72,22 +106,29 @@ public class TimestampConfigurationService {
             }
 
             try {
-                TimestampDataLoader dataLoader;
+                PooledTimestampDataLoader dataLoader;
                 
                 if (isTubitakTsp) {
                     dataLoader = configureTubitakAuthentication();
                 } else {
-                    dataLoader = new TimestampDataLoader();
+                    dataLoader = new PooledTimestampDataLoader(httpMetrics);
                     if (StringUtils.hasText(tspUserId)) {
                         configureStandardAuthentication(dataLoader);
                     }
                 }
+                configureHttpTransport(dataLoader);
 
-                tspSource = new OnlineTSPSource(tspServerUrl, dataLoader);
+                ThrottledOnlineTSPSource throttledSource = new ThrottledOnlineTSPSource(
+                        tspServerUrl, dataLoader,
+                        maxConcurrentRequests > 0 ? maxConcurrentRequests : maxConnections,
+                        concurrencyWaitMs, httpMetrics);
+                tspSource = throttledSource;
+                pooledDataLoader = dataLoader;
                 configured = true;
 
-                LOGGER.info("Timestamp sunucusu yapılandırıldı: {} (Tip: {})", 
-                        tspServerUrl, isTubitakTsp ? "TÜBİTAK" : "Standart");
+                LOGGER.info("Timestamp sunucusu yapılandırıldı: {} (Tip: {}, eş zamanlı istek sınırı: {})",
+                        tspServerUrl, isTubitakTsp ? "TÜBİTAK" : "Standart",
+                        throttledSource.getMaxConcurrent());
                 return tspSource;
 
             } catch (Exception e) {
@@ -97,6 +138,66 @@ public class TimestampConfigurationService {
         }
     }
 
+    /**
+     * TSA HTTP havuzu ayarları. Değerler milisaniyedir; havuz ilk zaman damgası
+     * isteğinde kurulduğundan {@link #getTspSource()} öncesinde set edilmelidir.
+     */
+    @Autowired
+    void configureHttpPool(
+            @Value("${TS_HTTP_CONNECT_TIMEOUT_MS:" + DEFAULT_CONNECT_TIMEOUT_MS + "}") int connectTimeoutMs,
+            @Value("${TS_HTTP_READ_TIMEOUT_MS:" + DEFAULT_READ_TIMEOUT_MS + "}") int readTimeoutMs,
+            @Value("${TS_HTTP_POOL_LEASE_TIMEOUT_MS:" + DEFAULT_LEASE_TIMEOUT_MS + "}") int leaseTimeoutMs,
+            @Value("${TS_HTTP_MAX_CONNECTIONS:" + DEFAULT_MAX_CONNECTIONS + "}") int maxConnections,
+            @Value("${TS_HTTP_KEEP_ALIVE_MS:" + DEFAULT_KEEP_ALIVE_MS + "}") int keepAliveMs,
+            @Value("${TS_HTTP_IDLE_EVICTION_MS:" + DEFAULT_IDLE_EVICTION_MS + "}") int idleEvictionMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.leaseTimeoutMs = leaseTimeoutMs;
+        this.maxConnections = Math.max(1, maxConnections);
+        this.keepAliveMs = keepAliveMs;
+        this.idleEvictionMs = idleEvictionMs;
+    }
+
+    /**
+     * TSA'ya giden eş zamanlı istek sınırı. {@code maxConcurrentRequests <= 0}
+     * ise {@code TS_HTTP_MAX_CONNECTIONS} kullanılır; sınırı aşan istekler
+     * havuz kiralama timeout'unda düşmek yerine {@code waitMs} kadar sırada
+     * bekler.
+     */
+    @Autowired
+    void configureConcurrencyLimit(
+            @Value("${TS_MAX_CONCURRENT_REQUESTS:0}") int maxConcurrentRequests,
+            @Value("${TS_CONCURRENCY_WAIT_MS:" + DEFAULT_CONCURRENCY_WAIT_MS + "}") long waitMs) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.concurrencyWaitMs = waitMs;
+    }
+
+    /**
+     * TÜBİTAK kimlik token'larında kullanılan PBKDF2 anahtarının rotasyon
+     * ayarları. {@code TS_TUBITAK_KEY_ROTATION_REQUESTS=1} her istekte yeni
+     * salt ile anahtar türetir (önbelleksiz davranış).
+     */
+    @Autowired
+    void configureTubitakKeyRotation(
+            @Value("${TS_TUBITAK_KEY_ROTATION_MS:" + TubitakIdentityTokenFactory.DEFAULT_ROTATION_MILLIS + "}")
+                    long rotationMs,
+            @Value("${TS_TUBITAK_KEY_ROTATION_REQUESTS:" + TubitakIdentityTokenFactory.DEFAULT_ROTATION_REQUESTS + "}")
+                    long rotationRequests) {
+        this.tubitakKeyRotationMs = rotationMs;
+        this.tubitakKeyRotationRequests = rotationRequests;
+    }
+
+    /**
+     * Yapılandırılmış TSP kaynağının HTTP havuzunu kapatır.
+     */
+    @PreDestroy
+    public void close() {
+        PooledTimestampDataLoader loader = pooledDataLoader;
+        if (loader != null) {
+            loader.close();
+        }
+    }
+
     /**
      * Timestamp servisinin kullanılabilir ve yapılandırılmış olup olmadığını kontrol eder.
      */
@@ -107,7 +208,7 @@ public class TimestampConfigurationService {
     /**
      * TÜBİTAK zaman damgası sunucusu için DataLoader yapılandırır.
      */
-    private TimestampDataLoader configureTubitakAuthentication() {
+    private PooledTimestampDataLoader configureTubitakAuthentication() {
         if (!StringUtils.hasText(tspUserId)) {
             throw new TimestampException(
                 "TÜBİTAK TSP için kullanıcı ID gerekli. TS_USER_ID ayarlayın.");
@@ -120,12 +221,16 @@ public class TimestampConfigurationService {
 
         try {
             int customerId = Integer.parseInt(tspUserId);
-            TubitakTimestampDataLoader dataLoader = new TubitakTimestampDataLoader(
+            TubitakIdentityTokenFactory tokenFactory = new TubitakIdentityTokenFactory(
                     customerId,
-                    tspUserPassword
+                    tspUserPassword,
+                    tubitakKeyRotationMs,
+                    tubitakKeyRotationRequests
             );
+            TubitakTimestampDataLoader dataLoader = new TubitakTimestampDataLoader(tokenFactory, httpMetrics);
             
-            LOGGER.info("TÜBİTAK timestamp yapılandırıldı. Kullanıcı ID: {}", customerId);
+            LOGGER.info("TÜBİTAK timestamp yapılandırıldı. Kullanıcı ID: {} (anahtar rotasyonu: {} ms / {} istek)",
+                    customerId, tubitakKeyRotationMs, tubitakKeyRotationRequests);
             return dataLoader;
             
         } catch (NumberFormatException e) {
@@ -134,10 +239,26 @@ public class TimestampConfigurationService {
         }
     }
 
+    /**
+     * Havuz sınırlarını, timeout'ları ve keep-alive süresini DSS setter'ları
+     * üzerinden uygular. Tek TSA host'u olduğundan toplam ve host başı sınır
+     * aynıdır.
+     */
+    private void configureHttpTransport(PooledTimestampDataLoader dataLoader) {
+        dataLoader.setTimeoutConnection(connectTimeoutMs);
+        dataLoader.setTimeoutResponse(readTimeoutMs);
+        dataLoader.setTimeoutSocket(readTimeoutMs);
+        dataLoader.setTimeoutConnectionRequest(leaseTimeoutMs);
+        dataLoader.setConnectionsMaxTotal(maxConnections);
+        dataLoader.setConnectionsMaxPerRoute(maxConnections);
+        dataLoader.setConnectionKeepAlive(keepAliveMs);
+        dataLoader.setIdleEvictionMillis(idleEvictionMs);
+    }
+
     /**
      * Standart HTTP Basic Auth yapılandırır.
      */
-    private void configureStandardAuthentication(TimestampDataLoader dataLoader) {
+    private void configureStandardAuthentication(PooledTimestampDataLoader dataLoader) {
         try {
             URI tspUri = URI.create(tspServerUrl);
             int port = tspUri.getPort();
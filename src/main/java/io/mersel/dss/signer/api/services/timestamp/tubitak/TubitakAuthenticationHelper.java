@@ -23,20 +23,24 @@ import java.security.spec.KeySpec;
  * TÜBİTAK zaman damgası sunucusunun gerektirdiği özel kimlik doğrulama
  * mekanizmasını uygular. Müşteri kimlik bilgileri ve timestamp verisi
  * kullanılarak güvenli bir authentication token üretir.
+ * <p>
+ * Bu sınıftaki metotlar her çağrıda yeni salt ile PBKDF2 anahtar türetir.
+ * Yüksek hacimde türetilmiş anahtarı önbellekleyen yol için
+ * {@link TubitakIdentityTokenFactory} kullanılır; token formatı aynıdır.
  */
 public class TubitakAuthenticationHelper {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TubitakAuthenticationHelper.class);
 
+    static final int DEFAULT_ITERATION_COUNT = 100;
+    static final int SALT_SIZE = 16;
+    static final int IV_SIZE = 16;
+
     private static final String PBKDF2_ALGORITHM = "PBKDF2WithHmacSHA256";
     private static final String AES_ALGORITHM = "AES";
     private static final String CIPHER_TRANSFORMATION = "AES/CBC/PKCS5Padding";
     
     private static final int KEY_LENGTH = 256;
-    private static final int DEFAULT_ITERATION_COUNT = 100;
-    
-    private static final int SALT_SIZE = 16;
-    private static final int IV_SIZE = 16;
 
     /**
      * TÜBİTAK kimlik doğrulama token'ı oluşturur.
@@ -102,7 +106,7 @@ public class TubitakAuthenticationHelper {
     /**
      * PBKDF2 ile anahtar türetir.
      */
-    private static SecretKey deriveKey(String password, byte[] salt, int iterationCount) throws Exception {
+    static SecretKey deriveKey(String password, byte[] salt, int iterationCount) throws Exception {
         SecretKeyFactory factory = SecretKeyFactory.getInstance(PBKDF2_ALGORITHM);
         KeySpec spec = new PBEKeySpec(
                 password.toCharArray(),
@@ -118,16 +122,26 @@ public class TubitakAuthenticationHelper {
      * AES-256-CBC ile veriyi şifreler.
      */
     private static byte[] encrypt(byte[] data, SecretKey key, byte[] iv) throws Exception {
-        Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
-        IvParameterSpec ivSpec = new IvParameterSpec(iv);
-        cipher.init(Cipher.ENCRYPT_MODE, key, ivSpec);
+        return encrypt(Cipher.getInstance(CIPHER_TRANSFORMATION), data, key, iv);
+    }
+
+    /**
+     * Verilen {@link Cipher} örneğiyle AES-256-CBC şifreleme yapar; örnek
+     * çağıran tarafından yeniden kullanılabilir (thread başına bir örnek).
+     */
+    static byte[] encrypt(Cipher cipher, byte[] data, SecretKey key, byte[] iv) throws Exception {
+        cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
         return cipher.doFinal(data);
     }
 
+    static Cipher newCipher() throws Exception {
+        return Cipher.getInstance(CIPHER_TRANSFORMATION);
+    }
+
     /**
      * Authentication token'ı ASN.1 yapısında oluşturur ve DER encode eder.
      */
-    private static byte[] buildAuthenticationToken(
+    static byte[] buildAuthenticationToken(
             int customerId,
             byte[] salt,
             int iterationCount,
@@ -151,6 +165,68 @@ public class TubitakAuthenticationHelper {
         return bOut.toByteArray();
     }
 
+    /**
+     * Token'ın istekten bağımsız ilk üç alanını (müşteri no, salt, iterasyon)
+     * DER olarak kodlar. Sonuç {@link #assembleAuthenticationToken} ile her
+     * istekte yeniden kullanılır.
+     */
+    static byte[] encodeFixedFields(int customerId, byte[] salt, int iterationCount) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new ASN1Integer(BigInteger.valueOf(customerId)).getEncoded(ASN1Encoding.DER));
+        out.write(new DEROctetString(salt).getEncoded(ASN1Encoding.DER));
+        out.write(new ASN1Integer(BigInteger.valueOf(iterationCount)).getEncoded(ASN1Encoding.DER));
+        return out.toByteArray();
+    }
+
+    /**
+     * Önceden kodlanmış sabit alanlara IV ve şifreli veriyi ekleyerek
+     * {@link #buildAuthenticationToken} ile bayt bayt aynı DER SEQUENCE üretir.
+     */
+    static byte[] assembleAuthenticationToken(byte[] fixedFields, byte[] iv, byte[] encryptedData) {
+        int contentLength = fixedFields.length
+                + encodedLength(iv.length) + encodedLength(encryptedData.length);
+        byte[] out = new byte[encodedLength(contentLength)];
+        int pos = writeHeader(out, 0, 0x30, contentLength);
+        System.arraycopy(fixedFields, 0, out, pos, fixedFields.length);
+        pos += fixedFields.length;
+        pos = writeHeader(out, pos, 0x04, iv.length);
+        System.arraycopy(iv, 0, out, pos, iv.length);
+        pos += iv.length;
+        pos = writeHeader(out, pos, 0x04, encryptedData.length);
+        System.arraycopy(encryptedData, 0, out, pos, encryptedData.length);
+        return out;
+    }
+
+    /** Tag + DER uzunluk + içerik toplam uzunluğu. */
+    private static int encodedLength(int contentLength) {
+        return 1 + lengthOctets(contentLength) + contentLength;
+    }
+
+    private static int lengthOctets(int length) {
+        if (length < 0x80) {
+            return 1;
+        }
+        int octets = 1;
+        for (int v = length; v != 0; v >>>= 8) {
+            octets++;
+        }
+        return octets;
+    }
+
+    private static int writeHeader(byte[] out, int pos, int tag, int length) {
+        out[pos++] = (byte) tag;
+        if (length < 0x80) {
+            out[pos++] = (byte) length;
+            return pos;
+        }
+        int octets = lengthOctets(length) - 1;
+        out[pos++] = (byte) (0x80 | octets);
+        for (int i = octets - 1; i >= 0; i--) {
+            out[pos++] = (byte) (length >>> (8 * i));
+        }
+        return pos;
+    }
+
     /**
      * TÜBİTAK kimlik doğrulama hatası.
      */
@@ -0,0 +1,186 @@
+package io.mersel.dss.signer.api.services.timestamp.tubitak;
+
+import io.mersel.dss.signer.api.services.timestamp.tubitak.TubitakAuthenticationHelper.TubitakAuthenticationException;
+import io.mersel.dss.signer.api.util.CryptoUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Türetilmiş anahtarı önbellekleyen TÜBİTAK kimlik token üreticisi.
+ * <p>
+ * {@link TubitakAuthenticationHelper#encryptIdentity(int, String, byte[])}
+ * her istekte yeni salt üretip PBKDF2 ile anahtar türetir; PBKDF2 bilerek
+ * yavaş olduğundan bu, her zaman damgası isteğine sabit bir CPU maliyeti
+ * ekler. Bu sınıf salt'ı ve türetilmiş AES anahtarını belirli bir süre veya
+ * istek sayısı boyunca saklar; istek başına yalnızca taze IV ile veri
+ * hash'inin AES şifrelemesi yapılır.
+ * <p>
+ * Token'ın sabit alanları (müşteri no, salt, iterasyon) anahtarla birlikte
+ * bir kez DER olarak kodlanır. Üretilen token, aynı salt ve IV ile
+ * {@code TubitakAuthenticationHelper} çıktısıyla bayt bayt aynıdır; sunucu
+ * her token'daki salt ile anahtarı kendisi türettiğinden tarafında değişiklik
+ * gerekmez.
+ * <p>
+ * Sınıf thread-safe'tir: anahtar değişmez bir nesnede tutulur, rotasyon
+ * yalnızca bir thread tarafından yapılır ve {@link Cipher} thread başına
+ * saklanır.
+ */
+public class TubitakIdentityTokenFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TubitakIdentityTokenFactory.class);
+
+    /** Varsayılan anahtar ömrü: 5 dakika. */
+    public static final long DEFAULT_ROTATION_MILLIS = 300_000L;
+
+    /** Varsayılan anahtar başına istek sayısı. */
+    public static final long DEFAULT_ROTATION_REQUESTS = 1_000L;
+
+    private final int customerId;
+    private final String customerPassword;
+    private final int iterationCount;
+    private final long rotationNanos;
+    private final long rotationRequests;
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadLocal<Cipher> cipher = new ThreadLocal<>();
+
+    private volatile DerivedKey current;
+
+    /**
+     * @param customerId       Müşteri numarası
+     * @param customerPassword Müşteri parolası
+     * @param rotationMillis   Anahtarın yenileneceği süre (ms); {@code <=0} → süre sınırı yok
+     * @param rotationRequests Anahtarın yenileneceği istek sayısı; {@code <=0} → sayı sınırı yok,
+     *                         {@code 1} → her istekte yeni salt (önbelleksiz davranış)
+     */
+    public TubitakIdentityTokenFactory(int customerId,
+                                       String customerPassword,
+                                       long rotationMillis,
+                                       long rotationRequests) {
+        this(customerId, customerPassword, rotationMillis, rotationRequests,
+                TubitakAuthenticationHelper.DEFAULT_ITERATION_COUNT);
+    }
+
+    TubitakIdentityTokenFactory(int customerId,
+                                String customerPassword,
+                                long rotationMillis,
+                                long rotationRequests,
+                                int iterationCount) {
+        this.customerId = customerId;
+        this.customerPassword = customerPassword;
+        this.rotationNanos = rotationMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(rotationMillis) : 0;
+        this.rotationRequests = rotationRequests;
+        this.iterationCount = iterationCount;
+    }
+
+    /**
+     * Verilen veri hash'i için kimlik token'ı üretir.
+     *
+     * @param dataHash Timestamp alınacak verinin hash değeri
+     * @return Hex string formatında authentication token
+     * @throws TubitakAuthenticationException Şifreleme hatası durumunda
+     */
+    public String createToken(byte[] dataHash) {
+        try {
+            DerivedKey key = acquireKey();
+            byte[] iv = new byte[TubitakAuthenticationHelper.IV_SIZE];
+            random.nextBytes(iv);
+            byte[] encrypted = TubitakAuthenticationHelper.encrypt(cipher(), dataHash, key.key, iv);
+            return CryptoUtils.bytesToHex(
+                    TubitakAuthenticationHelper.assembleAuthenticationToken(key.fixedFields, iv, encrypted));
+        } catch (TubitakAuthenticationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new TubitakAuthenticationException("Kimlik şifreleme başarısız", e);
+        }
+    }
+
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    /** Şu ana kadar yapılan PBKDF2 türetme sayısı (izleme ve test için). */
+    long getDerivationCount() {
+        DerivedKey key = current;
+        return key == null ? 0 : key.generation;
+    }
+
+    /**
+     * Geçerli anahtarı döner ve kullanım sayacını artırır; süre veya sayı
+     * sınırı aşılmışsa yeni salt ile anahtarı yeniden türetir.
+     */
+    private DerivedKey acquireKey() throws Exception {
+        DerivedKey key = current;
+        if (key != null && key.tryUse(rotationNanos, rotationRequests)) {
+            return key;
+        }
+        synchronized (this) {
+            key = current;
+            if (key != null && key.tryUse(rotationNanos, rotationRequests)) {
+                return key;
+            }
+            long generation = key == null ? 1 : key.generation + 1;
+            DerivedKey fresh = derive(generation);
+            fresh.uses.incrementAndGet();
+            current = fresh;
+            return fresh;
+        }
+    }
+
+    private DerivedKey derive(long generation) throws Exception {
+        byte[] salt = new byte[TubitakAuthenticationHelper.SALT_SIZE];
+        random.nextBytes(salt);
+        SecretKey key = TubitakAuthenticationHelper.deriveKey(customerPassword, salt, iterationCount);
+        byte[] fixedFields = TubitakAuthenticationHelper.encodeFixedFields(customerId, salt, iterationCount);
+        LOGGER.debug("TÜBİTAK kimlik anahtarı türetildi. Müşteri ID: {}, nesil: {}", customerId, generation);
+        return new DerivedKey(key, fixedFields, generation, System.nanoTime());
+    }
+
+    private Cipher cipher() throws Exception {
+        Cipher c = cipher.get();
+        if (c == null) {
+            c = TubitakAuthenticationHelper.newCipher();
+            cipher.set(c);
+        }
+        return c;
+    }
+
+    /** Salt'a bağlı, değişmez anahtar malzemesi ve kullanım sayacı. */
+    private static final class DerivedKey {
+        private final SecretKey key;
+        private final byte[] fixedFields;
+        private final long generation;
+        private final long createdNanos;
+        private final AtomicLong uses = new AtomicLong();
+
+        DerivedKey(SecretKey key, byte[] fixedFields, long generation, long createdNanos) {
+            this.key = key;
+            this.fixedFields = fixedFields;
+            this.generation = generation;
+            this.createdNanos = createdNanos;
+        }
+
+        boolean tryUse(long rotationNanos, long rotationRequests) {
+            if (rotationNanos > 0 && System.nanoTime() - createdNanos >= rotationNanos) {
+                return false;
+            }
+            if (rotationRequests <= 0) {
+                uses.incrementAndGet();
+                return true;
+            }
+            long used;
+            do {
+                used = uses.get();
+                if (used >= rotationRequests) {
+                    return false;
+                }
+            } while (!uses.compareAndSet(used, used + 1));
+            return true;
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package io.mersel.dss.signer.api.services.timestamp.tubitak;
 
-import eu.europa.esig.dss.service.http.commons.TimestampDataLoader;
+import io.mersel.dss.signer.api.services.metrics.TimestampHttpMetrics;
+import io.mersel.dss.signer.api.services.timestamp.PooledTimestampDataLoader;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
 import org.bouncycastle.asn1.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -14,18 +20,21 @@ import java.util.Map;
  * TÜBİTAK ESYA Zaman Damgası servisi için özelleştirilmiş DataLoader.
  * <p>
  * Timestamp request'lerine TÜBİTAK'ın gerektirdiği kimlik doğrulama
- * bilgilerini otomatik olarak ekler.
+ * bilgilerini otomatik olarak ekler. İstekler {@link PooledTimestampDataLoader}
+ * havuzu üzerinden keep-alive bağlantılarla gönderilir.
  */
-public class TubitakTimestampDataLoader extends TimestampDataLoader {
+public class TubitakTimestampDataLoader extends PooledTimestampDataLoader {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TubitakTimestampDataLoader.class);
 
     private static final String IDENTITY_HEADER = "identity";
     private static final String USER_AGENT_HEADER = "User-Agent";
     private static final String TUBITAK_USER_AGENT = "UEKAE TSS Client";
+    private static final ContentType TIMESTAMP_QUERY_CONTENT_TYPE =
+            ContentType.create("application/timestamp-query");
+    private static final String TIMESTAMP_REPLY_CONTENT_TYPE = "application/timestamp-reply";
 
-    private final int customerId;
-    private final String customerPassword;
+    private final TubitakIdentityTokenFactory tokenFactory;
 
     /**
      * TÜBİTAK timestamp data loader oluşturur.
@@ -34,11 +43,35 @@ public class TubitakTimestampDataLoader extends TimestampDataLoader {
      * @param customerPassword Müşteri parolası
      */
     public TubitakTimestampDataLoader(int customerId, String customerPassword) {
-        super();
-        this.customerId = customerId;
-        this.customerPassword = customerPassword;
+        this(customerId, customerPassword, null);
+    }
+
+    /**
+     * TÜBİTAK timestamp data loader oluşturur.
+     *
+     * @param customerId       Müşteri numarası
+     * @param customerPassword Müşteri parolası
+     * @param metrics          TSA havuz ve istek metrikleri; {@code null} → metrik yok
+     */
+    public TubitakTimestampDataLoader(int customerId, String customerPassword,
+                                      TimestampHttpMetrics metrics) {
+        this(new TubitakIdentityTokenFactory(customerId, customerPassword,
+                TubitakIdentityTokenFactory.DEFAULT_ROTATION_MILLIS,
+                TubitakIdentityTokenFactory.DEFAULT_ROTATION_REQUESTS), metrics);
+    }
+
+    /**
+     * TÜBİTAK timestamp data loader oluşturur.
+     *
+     * @param tokenFactory Kimlik token üreticisi (anahtar rotasyon ayarlarıyla)
+     * @param metrics      TSA havuz ve istek metrikleri; {@code null} → metrik yok
+     */
+    public TubitakTimestampDataLoader(TubitakIdentityTokenFactory tokenFactory,
+                                      TimestampHttpMetrics metrics) {
+        super(metrics);
+        this.tokenFactory = tokenFactory;
         
-        LOGGER.info("TÜBİTAK Timestamp DataLoader oluşturuldu. Müşteri ID: {}", customerId);
+        LOGGER.info("TÜBİTAK Timestamp DataLoader oluşturuldu. Müşteri ID: {}", tokenFactory.getCustomerId());
     }
 
     @Override
@@ -47,11 +80,7 @@ public class TubitakTimestampDataLoader extends TimestampDataLoader {
             byte[] dataHash = extractHashFromTimeStampRequest(content);
 
             if (dataHash != null) {
-                String authToken = TubitakAuthenticationHelper.encryptIdentity(
-                        customerId,
-                        customerPassword,
-                        dataHash
-                );
+                String authToken = tokenFactory.createToken(dataHash);
 
                 Map<String, String> headers = new HashMap<>();
                 headers.put(IDENTITY_HEADER, authToken);
@@ -73,40 +102,19 @@ public class TubitakTimestampDataLoader extends TimestampDataLoader {
     }
 
     /**
-     * Özel header'lar ile HTTP POST isteği gönderir.
+     * Özel header'lar ile HTTP POST isteği gönderir. İstek, üst sınıfın
+     * paylaşılan (keep-alive) bağlantı havuzu üzerinden yürür.
      */
     private byte[] postWithHeaders(String url, byte[] content, Map<String, String> customHeaders) {
+        HttpPost httpPost = new HttpPost(URI.create(url.trim()));
+        httpPost.setHeader(HttpHeaders.ACCEPT, TIMESTAMP_REPLY_CONTENT_TYPE);
+        for (Map.Entry<String, String> entry : customHeaders.entrySet()) {
+            httpPost.setHeader(entry.getKey(), entry.getValue());
+        }
+        httpPost.setEntity(new ByteArrayEntity(content, TIMESTAMP_QUERY_CONTENT_TYPE));
+
         try {
-            org.apache.http.client.methods.HttpPost httpPost = 
-                    new org.apache.http.client.methods.HttpPost(url);
-            
-            httpPost.setHeader("Content-Type", "application/timestamp-query");
-            httpPost.setHeader("Accept", "application/timestamp-reply");
-            for (Map.Entry<String, String> entry : customHeaders.entrySet()) {
-                httpPost.setHeader(entry.getKey(), entry.getValue());
-            }
-            
-            httpPost.setEntity(new org.apache.http.entity.ByteArrayEntity(content));
-            
-            org.apache.http.impl.client.CloseableHttpClient httpClient = 
-                    org.apache.http.impl.client.HttpClients.createDefault();
-            
-            try (org.apache.http.client.methods.CloseableHttpResponse response = 
-                    httpClient.execute(httpPost)) {
-                
-                int statusCode = response.getStatusLine().getStatusCode();
-                LOGGER.debug("HTTP response status: {}", statusCode);
-                
-                if (statusCode != 200) {
-                    throw new RuntimeException("HTTP error: " + statusCode);
-                }
-                
-                return org.apache.http.util.EntityUtils.toByteArray(
-                        response.getEntity());
-            } finally {
-                httpClient.close();
-            }
-            
+            return execute(getHttpClient(url), httpPost);
         } catch (Exception e) {
             LOGGER.error("HTTP request hatası: {}", e.getMessage());
             throw new RuntimeException("Timestamp HTTP request başarısız", e);
@@ -61,5 +61,62 @@ public class CompressionService {
             throw new SignatureException("ZIP içeriği çıkarılamadı", e);
         }
     }
-}
 
+    /**
+     * Çok girdili ZIP'i akış olarak okumak için açar. Girdi adlarında UTF-8
+     * bayrağı yoksa {@link #unzipFirstEntry} ile aynı ISO-8859-1 yorumu uygulanır.
+     *
+     * @param inputStream ZIP input stream
+     * @return çağıranın kapatması gereken {@link ZipInputStream}
+     */
+    public ZipInputStream openZip(InputStream inputStream) {
+        return new ZipInputStream(inputStream, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * {@link ZipInputStream}'in geçerli girdisini okur. Açılmış boyut
+     * {@code maxBytes}'ı aşarsa okuma kesilir (zip-bomb koruması); akış bir
+     * sonraki {@code getNextEntry()} ile kullanılmaya devam edebilir.
+     *
+     * @param zipInputStream girdiye konumlanmış ZIP akışı
+     * @param maxBytes       izin verilen en büyük açılmış boyut
+     * @return girdi içeriği
+     */
+    public byte[] readEntry(ZipInputStream zipInputStream, long maxBytes) {
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            long total = 0;
+            int read;
+            while ((read = zipInputStream.read(buffer)) != -1) {
+                total += read;
+                if (total > maxBytes) {
+                    throw new SignatureException(
+                        "ZIP girdisi izin verilen boyutu aşıyor (" + maxBytes + " byte)");
+                }
+                baos.write(buffer, 0, read);
+            }
+            return baos.toByteArray();
+        } catch (IOException e) {
+            throw new SignatureException("ZIP girdisi okunamadı", e);
+        }
+    }
+
+    /**
+     * Açık bir {@link ZipOutputStream}'e tek girdi yazar. Akışı kapatmaz;
+     * çok girdili arşivleri parça parça üretmek için kullanılır.
+     *
+     * @param zipOutputStream hedef ZIP akışı
+     * @param filename        girdi adı
+     * @param content         girdi içeriği
+     * @throws IOException hedef akışa yazılamazsa (ör. client bağlantıyı kapattı)
+     */
+    public void writeEntry(ZipOutputStream zipOutputStream, String filename, byte[] content)
+            throws IOException {
+        ZipEntry entry = new ZipEntry(filename);
+        entry.setSize(content.length);
+        zipOutputStream.putNextEntry(entry);
+        zipOutputStream.write(content);
+        zipOutputStream.closeEntry();
+    }
+}
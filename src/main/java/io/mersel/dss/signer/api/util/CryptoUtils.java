@@ -16,6 +16,8 @@ public final class CryptoUtils {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CryptoUtils.class);
 
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     private CryptoUtils() {
         // Utility class - instantiation engellendi
     }
@@ -30,11 +32,13 @@ public final class CryptoUtils {
         if (bytes == null || bytes.length == 0) {
             return "";
         }
-        StringBuilder sb = new StringBuilder(bytes.length * 2);
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int v = bytes[i] & 0xFF;
+            hex[i * 2] = HEX_DIGITS[v >>> 4];
+            hex[i * 2 + 1] = HEX_DIGITS[v & 0x0F];
         }
-        return sb.toString();
+        return new String(hex);
     }
 
     /**
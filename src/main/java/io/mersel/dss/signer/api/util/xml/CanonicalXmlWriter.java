@@ -0,0 +1,175 @@
+package io.mersel.dss.signer.api.util.xml;
+
+import javax.xml.XMLConstants;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+
+/**
+ * Kanonik XML akış yazıcılarının ({@link ExclusiveC14nWriter},
+ * {@link InclusiveC14nWriter}) ortak çıktı kuralları: attribute sırası,
+ * metin/attribute kaçışlaması, işlem talimatı biçimi. Hangi namespace
+ * bildiriminin yazılacağı alt sınıfın kararıdır.
+ *
+ * <p>Thread-safe değildir.</p>
+ */
+abstract class CanonicalXmlWriter {
+
+    /** Varsayılan namespace'in sembol tablosundaki anahtarı (Santuario ile aynı). */
+    static final String DEFAULT_KEY = XMLConstants.XMLNS_ATTRIBUTE;
+
+    /** Santuario {@code AttrCompare}: namespace bildirimleri önce, sonra namespace'siz, sonra URI + yerel ad. */
+    static final Comparator<XmlAttribute> C14N_ATTRIBUTE_ORDER = (a, b) -> {
+        boolean nsA = a.isNamespaceDeclaration();
+        boolean nsB = b.isNamespaceDeclaration();
+        if (nsA || nsB) {
+            if (nsA && nsB) {
+                return declarationSortKey(a).compareTo(declarationSortKey(b));
+            }
+            return nsA ? -1 : 1;
+        }
+        String uriA = a.getNamespaceUri();
+        String uriB = b.getNamespaceUri();
+        if (uriA == null || uriB == null) {
+            if (uriA == null && uriB == null) {
+                return a.getQname().compareTo(b.getQname());
+            }
+            return uriA == null ? -1 : 1;
+        }
+        int byUri = uriA.compareTo(uriB);
+        return byUri != 0 ? byUri : a.getLocalName().compareTo(b.getLocalName());
+    };
+
+    final Writer out;
+    private final Deque<String> openElements = new ArrayDeque<String>();
+
+    CanonicalXmlWriter(OutputStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+    }
+
+    /** Açık element sayısı; {@code 0} → belge düzeyi. */
+    final int depth() {
+        return openElements.size();
+    }
+
+    /**
+     * Başlangıç etiketini yazar.
+     *
+     * @param attributes {@link #C14N_ATTRIBUTE_ORDER} ile sıralı, yazılacak attribute'lar
+     */
+    final void writeStartTag(String qname, Iterable<XmlAttribute> attributes) throws IOException {
+        openElements.push(qname);
+        out.write('<');
+        out.write(qname);
+        for (XmlAttribute attribute : attributes) {
+            out.write(' ');
+            out.write(attribute.getQname());
+            out.write("=\"");
+            writeAttributeValue(attribute.getValue());
+            out.write('"');
+        }
+        out.write('>');
+    }
+
+    public void endElement() throws IOException {
+        out.write("</");
+        out.write(openElements.pop());
+        out.write('>');
+    }
+
+    /** Metin ve CDATA içeriği (kanonik biçimde ikisi de kaçışlı metindir). */
+    public void text(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    out.write("&amp;");
+                    break;
+                case '<':
+                    out.write("&lt;");
+                    break;
+                case '>':
+                    out.write("&gt;");
+                    break;
+                case '\r':
+                    out.write("&#xD;");
+                    break;
+                default:
+                    out.write(c);
+            }
+        }
+    }
+
+    public void processingInstruction(String target, String data) throws IOException {
+        out.write("<?");
+        out.write(target.replace("\r", "&#xD;"));
+        if (!data.isEmpty()) {
+            out.write(' ');
+            out.write(data.replace("\r", "&#xD;"));
+        }
+        out.write("?>");
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private void writeAttributeValue(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&':
+                    out.write("&amp;");
+                    break;
+                case '<':
+                    out.write("&lt;");
+                    break;
+                case '"':
+                    out.write("&quot;");
+                    break;
+                case '\t':
+                    out.write("&#x9;");
+                    break;
+                case '\n':
+                    out.write("&#xA;");
+                    break;
+                case '\r':
+                    out.write("&#xD;");
+                    break;
+                default:
+                    out.write(c);
+            }
+        }
+    }
+
+    /** {@code xmlns} → {@code ""} (varsayılan), {@code xmlns:p} → {@code p}; tablo anahtarı için {@link #DEFAULT_KEY}. */
+    static String declaredPrefix(XmlAttribute declaration) {
+        String name = declaration.getQname();
+        int colon = name.indexOf(':');
+        return colon > 0 ? name.substring(colon + 1) : DEFAULT_KEY;
+    }
+
+    /** Bildirimlerin sıralama anahtarı: varsayılan namespace ({@code ""}) önce gelir. */
+    private static String declarationSortKey(XmlAttribute declaration) {
+        String name = declaration.getQname();
+        int colon = name.indexOf(':');
+        return colon > 0 ? name.substring(colon + 1) : "";
+    }
+
+    /** {@code xmlns:xml} bildirimi hiçbir zaman tabloya girmez. */
+    static boolean isXmlPrefixDeclaration(XmlAttribute declaration) {
+        return XMLConstants.XML_NS_PREFIX.equals(declaredPrefix(declaration))
+                && XMLConstants.XML_NS_URI.equals(declaration.getValue());
+    }
+
+    static String prefixOf(String qname) {
+        int colon = qname.indexOf(':');
+        return colon > 0 ? qname.substring(0, colon) : null;
+    }
+}
@@ -0,0 +1,407 @@
+package io.mersel.dss.signer.api.util.xml;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.XMLConstants;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Olay tabanlı XML yazıcısı; çıktısı {@link XmlProcessorPool#serialize}'ın
+ * (JDK identity transformer, UTF-8, XML bildirimi açık) aynı DOM için
+ * ürettiği byte'larla birebir aynıdır.
+ *
+ * <p>WS-Security ve XAdES akış modları belgeyi DOM'a yüklemeden bu
+ * yazıcıdan geçirir; DOM yolunun çıktısıyla byte uyumu buradaki kurallara
+ * dayanır:</p>
+ * <ul>
+ *   <li>Attribute'lar DOM'daki gibi qname sırasıyla; önce namespace
+ *       bildirimleri, sonra diğerleri, en sonda elementin kendi namespace'i
+ *       kapsamda değilse onun bildirimi yazılır (kök elementte bu bildirim
+ *       en başa gelir). Kapsamda aynı URI'ye bağlı önekin tekrar bildirimi
+ *       düşürülür.</li>
+ *   <li>Boş element {@code <e/>}; CDATA bölümleri korunur.</li>
+ *   <li>Metinde {@code & < >}, {@code \r}, C0/C1 kontrol karakterleri ve
+ *       BMP dışı karakterler karakter referansına; attribute'ta ayrıca
+ *       {@code "} ve tüm C0 karakterleri kaçışlanır.</li>
+ * </ul>
+ *
+ * <p>Thread-safe değildir; her akış kendi örneğini kullanır.</p>
+ */
+public final class DomCompatibleXmlWriter {
+
+    private static final String DEFAULT_ENCODING = "UTF-8";
+    private static final String CDATA_OPEN = "<![CDATA[";
+    private static final String CDATA_CLOSE = "]]>";
+
+    /** Element başlangıcında attribute'ların DOM {@code NamedNodeMap} sırası. */
+    private static final Comparator<XmlAttribute> DOM_ATTRIBUTE_ORDER =
+            Comparator.comparing(XmlAttribute::getQname);
+
+    private final Writer out;
+    private final String lineSeparator = System.lineSeparator();
+    private final Map<String, Deque<Mapping>> namespaces = new HashMap<String, Deque<Mapping>>();
+    private final Deque<Mapping> declarations = new ArrayDeque<Mapping>();
+    private final Deque<String> openElements = new ArrayDeque<String>();
+    private final Map<String, String> pendingAttributes = new LinkedHashMap<String, String>();
+    private boolean startTagOpen;
+    private boolean cdataOpen;
+    /** Önceki metin parçasının sonunda kalan yüksek surrogate (0 → yok). */
+    private char pendingHighSurrogate;
+
+    public DomCompatibleXmlWriter(OutputStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+        pushNamespace("", "", 0);
+        pushNamespace(XMLConstants.XML_NS_PREFIX, XMLConstants.XML_NS_URI, 0);
+    }
+
+    public void startDocument() throws IOException {
+        startDocument(null, false);
+    }
+
+    /**
+     * XML bildirimini yazar. Serializer, belgenin bildirdiği kodlama adını
+     * ({@link org.w3c.dom.Document#getXmlEncoding()}) olduğu gibi taşır
+     * (örneğin {@code utf-8} küçük harfle kalır); {@code standalone="yes"}
+     * bildirilmiş belgede {@code standalone} yazılmaz.
+     *
+     * @param declaredEncoding kaynaktaki {@code encoding} değeri (UTF-8'in bir
+     *                         yazımı olmalı); bildirim yoksa {@code null}
+     * @param standalone       kaynakta {@code standalone="yes"} var mı
+     */
+    public void startDocument(String declaredEncoding, boolean standalone) throws IOException {
+        out.write("<?xml version=\"1.0\" encoding=\"");
+        out.write(declaredEncoding != null ? declaredEncoding : DEFAULT_ENCODING);
+        out.write(standalone ? "\"?>" : "\" standalone=\"no\"?>");
+    }
+
+    /** Yazılmamış byte'ları alttaki akışa iletir; akışı kapatmaz. */
+    public void endDocument() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * @param qname        elementin kaynaktaki adı ({@code p:local} / {@code local})
+     * @param namespaceUri elementin namespace'i; yoksa {@code null}
+     * @param attributes   namespace bildirimleri dahil attribute'lar (sıra önemsiz)
+     */
+    public void startElement(String qname, String namespaceUri, List<XmlAttribute> attributes) throws IOException {
+        closeStartTag();
+        closeCdata();
+        out.write('<');
+        out.write(qname);
+        openElements.push(qname);
+        startTagOpen = true;
+
+        if (openElements.size() == 1 && namespaceUri != null && !namespaceUri.isEmpty()) {
+            // Serializer kök elementi tamponlar ve kendi namespace'ini ilk bildirir.
+            int colon = qname.lastIndexOf(':');
+            declareNamespace(colon > 0 ? qname.substring(0, colon) : "", namespaceUri);
+        }
+        List<XmlAttribute> sorted = new ArrayList<XmlAttribute>(attributes);
+        sorted.sort(DOM_ATTRIBUTE_ORDER);
+        for (XmlAttribute attribute : sorted) {
+            String name = attribute.getQname();
+            if (name.startsWith(XMLConstants.XMLNS_ATTRIBUTE)) {
+                int colon = name.lastIndexOf(':');
+                declareNamespace(colon > 0 ? name.substring(colon + 1) : "", attribute.getValue());
+            }
+        }
+        for (XmlAttribute attribute : sorted) {
+            String name = attribute.getQname();
+            if (name.startsWith(XMLConstants.XMLNS_ATTRIBUTE)) {
+                continue;
+            }
+            String uri = attribute.getNamespaceUri();
+            if (uri != null) {
+                int colon = name.lastIndexOf(':');
+                String prefix = colon > 0
+                        ? name.substring(0, colon)
+                        : XMLConstants.XML_NS_URI.equals(uri) ? XMLConstants.XML_NS_PREFIX : "ns0";
+                declareNamespace(prefix, uri);
+                pendingAttributes.put(patchName(prefix + ":" + name), attribute.getValue());
+            } else {
+                pendingAttributes.put(patchName(name), attribute.getValue());
+            }
+        }
+        if (namespaceUri != null && !namespaceUri.isEmpty()) {
+            int colon = qname.lastIndexOf(':');
+            declareNamespace(colon > 0 ? qname.substring(0, colon) : "", namespaceUri);
+        } else {
+            declareNamespace("", "");
+        }
+    }
+
+    public void endElement() throws IOException {
+        closeCdata();
+        String qname = openElements.pop();
+        if (startTagOpen) {
+            writeAttributes();
+            out.write("/>");
+            startTagOpen = false;
+        } else {
+            out.write("</");
+            out.write(qname);
+            out.write('>');
+        }
+        int depth = openElements.size() + 1;
+        while (!declarations.isEmpty() && declarations.peek().depth >= depth) {
+            Mapping mapping = declarations.pop();
+            namespaces.get(mapping.prefix).pop();
+        }
+    }
+
+    public void characters(String text) throws IOException {
+        if (text.isEmpty()) {
+            return;
+        }
+        closeStartTag();
+        closeCdata();
+        int i = 0;
+        if (pendingHighSurrogate != 0) {
+            writeCharRef(Character.toCodePoint(pendingHighSurrogate, text.charAt(0)));
+            pendingHighSurrogate = 0;
+            i = 1;
+        }
+        for (; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                out.write(lineSeparator);
+            } else if (c == '&') {
+                out.write("&amp;");
+            } else if (c == '<') {
+                out.write("&lt;");
+            } else if (c == '>') {
+                out.write("&gt;");
+            } else if (Character.isHighSurrogate(c)) {
+                if (i + 1 == text.length()) {
+                    // Çift bir sonraki metin olayında tamamlanır.
+                    pendingHighSurrogate = c;
+                } else {
+                    writeCharRef(Character.toCodePoint(c, text.charAt(++i)));
+                }
+            } else if ((c < 0x20 && c != '\t') || (c >= 0x7F && c <= 0x9F)) {
+                writeCharRef(c);
+            } else {
+                out.write(c);
+            }
+        }
+    }
+
+    public void cdata(String text) throws IOException {
+        if (text.isEmpty()) {
+            return;
+        }
+        closeStartTag();
+        if (!cdataOpen && !Character.isSurrogate(text.charAt(0)) && !isRestrictedControl(text.charAt(0))) {
+            out.write(CDATA_OPEN);
+            cdataOpen = true;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                out.write(lineSeparator);
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()) {
+                // UTF-8'de kodlanabilir; bölüm açık değilse bölüm dışında ham yazılır.
+                out.write(c);
+                out.write(text.charAt(++i));
+            } else if (isRestrictedControl(c)) {
+                closeCdata();
+                writeCharRef(c);
+            } else {
+                if (!cdataOpen) {
+                    out.write(CDATA_OPEN);
+                    cdataOpen = true;
+                }
+                out.write(c);
+            }
+        }
+        closeCdata();
+    }
+
+    public void comment(String text) throws IOException {
+        closeStartTag();
+        closeCdata();
+        out.write("<!--");
+        out.write(text);
+        out.write("-->");
+    }
+
+    public void processingInstruction(String target, String data) throws IOException {
+        closeStartTag();
+        closeCdata();
+        out.write("<?");
+        out.write(target);
+        if (!data.isEmpty() && !Character.isSpaceChar(data.charAt(0))) {
+            out.write(' ');
+        }
+        out.write(data.replace("?>", "? >"));
+        out.write("?>");
+    }
+
+    /** DOM alt ağacını, aynı kapsam bilgisiyle olay olarak yazar. */
+    public void element(Element element) throws IOException {
+        startElement(element.getNodeName(), element.getNamespaceURI(), XmlAttribute.fromElement(element));
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            switch (child.getNodeType()) {
+                case Node.ELEMENT_NODE:
+                    element((Element) child);
+                    break;
+                case Node.TEXT_NODE:
+                    characters(child.getNodeValue());
+                    break;
+                case Node.CDATA_SECTION_NODE:
+                    cdata(child.getNodeValue());
+                    break;
+                case Node.COMMENT_NODE:
+                    comment(child.getNodeValue());
+                    break;
+                case Node.PROCESSING_INSTRUCTION_NODE:
+                    processingInstruction(child.getNodeName(), child.getNodeValue());
+                    break;
+                default:
+                    break;
+            }
+        }
+        endElement();
+    }
+
+    /**
+     * Öneki mevcut derinlikte bildirir; önek {@code xml} ile başlıyorsa ya da
+     * kapsamda zaten aynı URI'ye bağlıysa hiçbir şey yazılmaz.
+     */
+    private void declareNamespace(String prefix, String uri) {
+        if (!pushNamespace(prefix, uri, openElements.size())) {
+            return;
+        }
+        if (prefix.isEmpty()) {
+            pendingAttributes.put(XMLConstants.XMLNS_ATTRIBUTE, uri);
+        } else if (!uri.isEmpty()) {
+            pendingAttributes.put(XMLConstants.XMLNS_ATTRIBUTE + ":" + prefix, uri);
+        }
+    }
+
+    private boolean pushNamespace(String prefix, String uri, int depth) {
+        if (prefix.startsWith(XMLConstants.XML_NS_PREFIX)) {
+            return false;
+        }
+        Deque<Mapping> stack = namespaces.get(prefix);
+        if (stack == null) {
+            stack = new ArrayDeque<Mapping>();
+            namespaces.put(prefix, stack);
+        }
+        if (!stack.isEmpty() && uri.equals(stack.peek().uri)) {
+            return false;
+        }
+        Mapping mapping = new Mapping(prefix, uri, depth);
+        stack.push(mapping);
+        if (depth > 0) {
+            declarations.push(mapping);
+        }
+        return true;
+    }
+
+    /**
+     * {@code p:a:b} → {@code p:b}; önek boş URI'ye bağlıysa yalnız yerel ad.
+     */
+    private String patchName(String qname) {
+        int lastColon = qname.lastIndexOf(':');
+        if (lastColon > 0) {
+            int firstColon = qname.indexOf(':');
+            String prefix = qname.substring(0, firstColon);
+            String localName = qname.substring(lastColon + 1);
+            Deque<Mapping> stack = namespaces.get(prefix);
+            String uri = stack == null || stack.isEmpty() ? null : stack.peek().uri;
+            if (uri != null && uri.isEmpty()) {
+                return localName;
+            } else if (firstColon != lastColon) {
+                return prefix + ':' + localName;
+            }
+        }
+        return qname;
+    }
+
+    private void closeStartTag() throws IOException {
+        if (startTagOpen) {
+            writeAttributes();
+            out.write('>');
+            startTagOpen = false;
+        }
+    }
+
+    private void closeCdata() throws IOException {
+        if (cdataOpen) {
+            out.write(CDATA_CLOSE);
+            cdataOpen = false;
+        }
+    }
+
+    private void writeAttributes() throws IOException {
+        for (Map.Entry<String, String> attribute : pendingAttributes.entrySet()) {
+            out.write(' ');
+            out.write(attribute.getKey());
+            out.write("=\"");
+            writeAttributeValue(attribute.getValue());
+            out.write('"');
+        }
+        pendingAttributes.clear();
+    }
+
+    private void writeAttributeValue(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '&') {
+                out.write("&amp;");
+            } else if (c == '<') {
+                out.write("&lt;");
+            } else if (c == '>') {
+                out.write("&gt;");
+            } else if (c == '"') {
+                out.write("&quot;");
+            } else if (c < 0x20) {
+                writeCharRef(c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()) {
+                writeCharRef(Character.toCodePoint(c, value.charAt(++i)));
+            } else {
+                out.write(c);
+            }
+        }
+    }
+
+    private void writeCharRef(int codePoint) throws IOException {
+        out.write("&#");
+        out.write(Integer.toString(codePoint));
+        out.write(';');
+    }
+
+    /** {@code \t \n \r} dışındaki C0 kontrol karakterleri. */
+    private static boolean isRestrictedControl(char c) {
+        return c < 0x20 && c != '\t' && c != '\n' && c != '\r';
+    }
+
+    /** Önek → URI bağı ve bildirildiği element derinliği. */
+    private static final class Mapping {
+        final String prefix;
+        final String uri;
+        final int depth;
+
+        Mapping(String prefix, String uri, int depth) {
+            this.prefix = prefix;
+            this.uri = uri;
+            this.depth = depth;
+        }
+    }
+}
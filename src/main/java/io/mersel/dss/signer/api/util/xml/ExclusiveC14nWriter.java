@@ -0,0 +1,140 @@
+package io.mersel.dss.signer.api.util.xml;
+
+import javax.xml.XMLConstants;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Exclusive XML Canonicalization 1.0 (yorumsuz, boş {@code InclusiveNamespaces})
+ * akış yazıcısı. Bir element alt ağacını olay olay alır ve kanonik byte'ları
+ * doğrudan hedef akışa (tipik olarak bir {@link java.security.DigestOutputStream})
+ * yazar; alt ağaç bellekte tutulmaz.
+ *
+ * <p>Çıktı, Apache Santuario'nun
+ * {@code Canonicalizer.canonicalizeSubtree} ile aynı alt ağaç için
+ * ürettiğiyle byte düzeyinde aynıdır: namespace bildirimleri yalnızca
+ * görünür kullanıldıkları (element ya da attribute öneki) ve henüz bir
+ * çıktı atasında render edilmedikleri yerde yazılır; atalardaki bildirimler
+ * {@link #addAncestor} ile sembol tablosuna önceden yüklenir.</p>
+ *
+ * <p>Thread-safe değildir.</p>
+ */
+public final class ExclusiveC14nWriter extends CanonicalXmlWriter {
+
+    private final Deque<Map<String, Binding>> savedScopes = new ArrayDeque<Map<String, Binding>>();
+    private Map<String, Binding> scope = new HashMap<String, Binding>();
+    /** {@code true} → {@link #scope} bir üst seviyeyle paylaşılıyor; yazmadan önce kopyalanmalı. */
+    private boolean scopeShared;
+
+    public ExclusiveC14nWriter(OutputStream out) {
+        super(out);
+        scope.put(DEFAULT_KEY, new Binding("", null, true, ""));
+    }
+
+    /**
+     * Kanonikleştirilecek alt ağacın bir atasını bildirir (kökten başlayarak
+     * sırayla). Atanın namespace bildirimleri ve kendi namespace'i tabloya
+     * girer; çıktıya bir şey yazılmaz.
+     */
+    public void addAncestor(String qname, String namespaceUri, List<XmlAttribute> attributes) {
+        for (XmlAttribute attribute : attributes) {
+            if (attribute.isNamespaceDeclaration() && !isXmlPrefixDeclaration(attribute)) {
+                addBinding(declaredPrefix(attribute), attribute.getValue(), attribute.getQname());
+            }
+        }
+        if (namespaceUri != null && !namespaceUri.isEmpty()) {
+            String prefix = prefixOf(qname);
+            addBinding(prefix == null ? DEFAULT_KEY : prefix, namespaceUri,
+                    prefix == null ? XMLConstants.XMLNS_ATTRIBUTE : XMLConstants.XMLNS_ATTRIBUTE + ":" + prefix);
+        }
+    }
+
+    public void startElement(String qname, String namespaceUri, List<XmlAttribute> attributes) throws IOException {
+        savedScopes.push(scope);
+        scopeShared = true;
+
+        TreeSet<XmlAttribute> output = new TreeSet<XmlAttribute>(C14N_ATTRIBUTE_ORDER);
+        TreeSet<String> visiblyUtilized = new TreeSet<String>();
+        for (XmlAttribute attribute : attributes) {
+            if (!attribute.isNamespaceDeclaration()) {
+                String prefix = attribute.getPrefix();
+                if (prefix != null && !XMLConstants.XML_NS_PREFIX.equals(prefix)
+                        && !XMLConstants.XMLNS_ATTRIBUTE.equals(prefix)) {
+                    visiblyUtilized.add(prefix);
+                }
+                output.add(attribute);
+            } else if (!isXmlPrefixDeclaration(attribute)) {
+                addBinding(declaredPrefix(attribute), attribute.getValue(), attribute.getQname());
+            }
+        }
+        String elementPrefix = namespaceUri != null && !namespaceUri.isEmpty() ? prefixOf(qname) : null;
+        visiblyUtilized.add(elementPrefix == null ? DEFAULT_KEY : elementPrefix);
+        for (String prefix : visiblyUtilized) {
+            XmlAttribute declaration = render(prefix);
+            if (declaration != null) {
+                output.add(declaration);
+            }
+        }
+        writeStartTag(qname, output);
+    }
+
+    @Override
+    public void endElement() throws IOException {
+        super.endElement();
+        scope = savedScopes.pop();
+        scopeShared = true;
+    }
+
+    /**
+     * Öneki yeni URI'ye bağlar; aynı URI'ye zaten bağlıysa değişiklik yok.
+     * Bir çıktı atasında aynı URI render edildiyse bağ render edilmiş sayılır.
+     */
+    private void addBinding(String prefix, String uri, String declarationName) {
+        Binding previous = scope.get(prefix);
+        if (previous != null && uri.equals(previous.uri)) {
+            return;
+        }
+        String lastRendered = previous == null ? null : previous.lastRendered;
+        writableScope().put(prefix, new Binding(uri, declarationName, uri.equals(lastRendered), lastRendered));
+    }
+
+    /** Henüz render edilmemiş bağı render edilmiş olarak işaretler ve bildirimini döner. */
+    private XmlAttribute render(String prefix) {
+        Binding binding = scope.get(prefix);
+        if (binding == null || binding.rendered) {
+            return null;
+        }
+        writableScope().put(prefix, new Binding(binding.uri, binding.declarationName, true, binding.uri));
+        return new XmlAttribute(binding.declarationName, XMLConstants.XMLNS_ATTRIBUTE_NS_URI, binding.uri);
+    }
+
+    private Map<String, Binding> writableScope() {
+        if (scopeShared) {
+            scope = new HashMap<String, Binding>(scope);
+            scopeShared = false;
+        }
+        return scope;
+    }
+
+    /** Sembol tablosu girdisi; yalnız kopyalanarak değiştirilir. */
+    private static final class Binding {
+        final String uri;
+        final String declarationName;
+        final boolean rendered;
+        /** Bu önek için en yakın çıktı atasında render edilmiş URI. */
+        final String lastRendered;
+
+        Binding(String uri, String declarationName, boolean rendered, String lastRendered) {
+            this.uri = uri;
+            this.declarationName = declarationName;
+            this.rendered = rendered;
+            this.lastRendered = lastRendered;
+        }
+    }
+}
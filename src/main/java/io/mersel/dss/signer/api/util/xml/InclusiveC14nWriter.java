@@ -0,0 +1,83 @@
+package io.mersel.dss.signer.api.util.xml;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Canonical XML 1.0 (inclusive, yorumsuz) akış yazıcısı; bütün bir belgeyi
+ * olay olay alır ve kanonik byte'ları doğrudan hedef akışa yazar.
+ *
+ * <p>Çıktı, Apache Santuario'nun
+ * {@code Canonicalizer20010315OmitComments} ile belge düğümü için
+ * ürettiğiyle byte düzeyinde aynıdır. Belgenin tamamı çıktıda olduğundan
+ * kural basittir: bir namespace bildirimi, üst elementteki kapsamda aynı
+ * önek farklı bir URI'ye bağlıysa yazılır ({@code xmlns=""} de kapsamda boş
+ * olmayan bir varsayılan namespace varsa). Yorumlar çağıran tarafından hiç
+ * iletilmez; belge düzeyindeki işlem talimatları kök elementten önce ise
+ * ardından, sonra ise önünden satır sonu alır.</p>
+ *
+ * <p>Thread-safe değildir.</p>
+ */
+public final class InclusiveC14nWriter extends CanonicalXmlWriter {
+
+    private final Deque<Map<String, String>> savedScopes = new ArrayDeque<Map<String, String>>();
+    private Map<String, String> scope = new HashMap<String, String>();
+    /** {@code true} → {@link #scope} bir üst seviyeyle paylaşılıyor; yazmadan önce kopyalanmalı. */
+    private boolean scopeShared;
+    private boolean rootStarted;
+
+    public InclusiveC14nWriter(OutputStream out) {
+        super(out);
+        scope.put(DEFAULT_KEY, "");
+    }
+
+    public void startElement(String qname, List<XmlAttribute> attributes) throws IOException {
+        rootStarted = true;
+        savedScopes.push(scope);
+        scopeShared = true;
+
+        TreeSet<XmlAttribute> output = new TreeSet<XmlAttribute>(C14N_ATTRIBUTE_ORDER);
+        for (XmlAttribute attribute : attributes) {
+            if (!attribute.isNamespaceDeclaration()) {
+                output.add(attribute);
+            } else if (!isXmlPrefixDeclaration(attribute)) {
+                String prefix = declaredPrefix(attribute);
+                if (!attribute.getValue().equals(scope.get(prefix))) {
+                    if (scopeShared) {
+                        scope = new HashMap<String, String>(scope);
+                        scopeShared = false;
+                    }
+                    scope.put(prefix, attribute.getValue());
+                    output.add(attribute);
+                }
+            }
+        }
+        writeStartTag(qname, output);
+    }
+
+    @Override
+    public void endElement() throws IOException {
+        super.endElement();
+        scope = savedScopes.pop();
+        scopeShared = true;
+    }
+
+    @Override
+    public void processingInstruction(String target, String data) throws IOException {
+        if (depth() > 0) {
+            super.processingInstruction(target, data);
+        } else if (rootStarted) {
+            out.write('\n');
+            super.processingInstruction(target, data);
+        } else {
+            super.processingInstruction(target, data);
+            out.write('\n');
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package io.mersel.dss.signer.api.util.xml;
 
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.SAXNotSupportedException;
+
 import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
 
@@ -11,8 +16,10 @@ import javax.xml.transform.TransformerFactory;
  * yardımcı sınıf.
  *
  * <p>Bu sınıf <b>tek meşru kaynaktır</b>: production kodunda
- * {@link DocumentBuilderFactory#newInstance()} veya
- * {@link TransformerFactory#newInstance()} doğrudan ÇAĞRILMAMALIDIR.
+ * {@link DocumentBuilderFactory#newInstance()},
+ * {@link TransformerFactory#newInstance()},
+ * {@link XMLInputFactory#newInstance()} veya
+ * {@link SAXParserFactory#newInstance()} doğrudan ÇAĞRILMAMALIDIR.
  * Bunun yerine bu sınıfın factory metotları kullanılmalıdır.</p>
  *
  * <h2>Kapatılan saldırı vektörleri</h2>
@@ -94,6 +101,47 @@ public final class SecureXmlFactories {
         return factory;
     }
 
+    /**
+     * Namespace-aware, XXE-güvenli StAX {@link XMLInputFactory}.
+     *
+     * <p>DTD desteği kapalıdır: {@code <!DOCTYPE>} işlenmez, tanımsız entity
+     * referansı parse hatası verir. {@code DTD} olayını görmek ve belgeyi
+     * reddetmek çağıranın işidir (DOM yolundaki
+     * {@code disallow-doctype-decl} ile aynı sonuç). CDATA ve metin olayları
+     * birleştirilmez; akış okuyucusu belleği belge boyutundan bağımsız
+     * tutabilir.</p>
+     *
+     * @return hardened factory
+     */
+    public static XMLInputFactory newXMLInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+        return factory;
+    }
+
+    /**
+     * Namespace-aware, XXE-güvenli {@link SAXParserFactory}; DOM factory'si
+     * ile aynı feature setini kullanır ({@code <!DOCTYPE>} parse hatasıdır).
+     *
+     * @return hardened factory
+     */
+    public static SAXParserFactory newSAXParserFactory() {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setXIncludeAware(false);
+
+        trySetFeature(factory, FEATURE_DISALLOW_DOCTYPE, true);
+        trySetFeature(factory, XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        trySetFeature(factory, FEATURE_EXTERNAL_GENERAL_ENTITIES, false);
+        trySetFeature(factory, FEATURE_EXTERNAL_PARAMETER_ENTITIES, false);
+        trySetFeature(factory, FEATURE_LOAD_EXTERNAL_DTD, false);
+
+        return factory;
+    }
+
     /**
      * XSLT injection ve external DTD erişimine kapalı {@link TransformerFactory}.
      *
@@ -139,6 +187,19 @@ public final class SecureXmlFactories {
         }
     }
 
+    private static void trySetFeature(SAXParserFactory factory,
+                                      String feature,
+                                      boolean value) {
+        try {
+            factory.setFeature(feature, value);
+        } catch (ParserConfigurationException | SAXNotRecognizedException | SAXNotSupportedException e) {
+            throw new IllegalStateException(
+                    "SAXParserFactory hardening başarısız (feature=" + feature
+                            + ", value=" + value + "); JAXP implementasyonu güvenli değil",
+                    e);
+        }
+    }
+
     private static void trySetAttribute(TransformerFactory factory,
                                         String attribute,
                                         Object value) {
@@ -0,0 +1,117 @@
+package io.mersel.dss.signer.api.util.xml;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.xml.sax.Attributes;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Akış yazıcılarına ({@link DomCompatibleXmlWriter},
+ * {@link ExclusiveC14nWriter}, {@link InclusiveC14nWriter}) taşınan tek
+ * attribute. Namespace bildirimleri de DOM'daki gibi {@code xmlns}/{@code xmlns:p}
+ * adlı attribute olarak temsil edilir; böylece yazıcılar StAX/SAX olayından
+ * da DOM elementinden de aynı girdiyi alır.
+ */
+public final class XmlAttribute {
+
+    private final String qname;
+    private final String namespaceUri;
+    private final String value;
+
+    public XmlAttribute(String qname, String namespaceUri, String value) {
+        this.qname = qname;
+        this.namespaceUri = namespaceUri == null || namespaceUri.isEmpty() ? null : namespaceUri;
+        this.value = value;
+    }
+
+    public String getQname() {
+        return qname;
+    }
+
+    /** Namespace'siz attribute için {@code null}. */
+    public String getNamespaceUri() {
+        return namespaceUri;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /** Önek; öneksiz ad için {@code null}. */
+    public String getPrefix() {
+        int colon = qname.indexOf(':');
+        return colon > 0 ? qname.substring(0, colon) : null;
+    }
+
+    public String getLocalName() {
+        return qname.substring(qname.indexOf(':') + 1);
+    }
+
+    public boolean isNamespaceDeclaration() {
+        return XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(namespaceUri);
+    }
+
+    /**
+     * Okuyucunun bulunduğu START_ELEMENT'in namespace bildirimleri ve
+     * attribute'ları (kaynaktaki sırayla).
+     */
+    public static List<XmlAttribute> fromReader(XMLStreamReader reader) {
+        int nsCount = reader.getNamespaceCount();
+        int attrCount = reader.getAttributeCount();
+        List<XmlAttribute> attributes = new ArrayList<XmlAttribute>(nsCount + attrCount);
+        for (int i = 0; i < nsCount; i++) {
+            String prefix = reader.getNamespacePrefix(i);
+            String uri = reader.getNamespaceURI(i);
+            attributes.add(new XmlAttribute(
+                    prefix == null || prefix.isEmpty() ? "xmlns" : "xmlns:" + prefix,
+                    XMLConstants.XMLNS_ATTRIBUTE_NS_URI,
+                    uri == null ? "" : uri));
+        }
+        for (int i = 0; i < attrCount; i++) {
+            String prefix = reader.getAttributePrefix(i);
+            String localName = reader.getAttributeLocalName(i);
+            attributes.add(new XmlAttribute(
+                    prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName,
+                    reader.getAttributeNamespace(i),
+                    reader.getAttributeValue(i)));
+        }
+        return attributes;
+    }
+
+    /**
+     * SAX {@code startElement} attribute'ları; namespace bildirimleri
+     * ({@code startPrefixMapping} ile toplanmış) başa eklenir.
+     *
+     * @param declarations önek → URI; varsayılan namespace için önek {@code ""}
+     */
+    public static List<XmlAttribute> fromSax(List<String[]> declarations, Attributes attrs) {
+        List<XmlAttribute> attributes = new ArrayList<XmlAttribute>(declarations.size() + attrs.getLength());
+        for (String[] declaration : declarations) {
+            String prefix = declaration[0];
+            attributes.add(new XmlAttribute(
+                    prefix.isEmpty() ? "xmlns" : "xmlns:" + prefix,
+                    XMLConstants.XMLNS_ATTRIBUTE_NS_URI,
+                    declaration[1]));
+        }
+        for (int i = 0; i < attrs.getLength(); i++) {
+            attributes.add(new XmlAttribute(attrs.getQName(i), attrs.getURI(i), attrs.getValue(i)));
+        }
+        return attributes;
+    }
+
+    /** DOM elementinin attribute'ları ({@link NamedNodeMap} sırasıyla). */
+    public static List<XmlAttribute> fromElement(Element element) {
+        NamedNodeMap map = element.getAttributes();
+        List<XmlAttribute> attributes = new ArrayList<XmlAttribute>(map.getLength());
+        for (int i = 0; i < map.getLength(); i++) {
+            Attr attr = (Attr) map.item(i);
+            attributes.add(new XmlAttribute(attr.getNodeName(), attr.getNamespaceURI(), attr.getValue()));
+        }
+        return attributes;
+    }
+}
@@ -0,0 +1,241 @@
+package io.mersel.dss.signer.api.util.xml;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Result;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link SecureXmlFactories} ile sertleştirilmiş {@link DocumentBuilder} ve
+ * {@link Transformer} örneklerini thread başına önbelleğe alan havuz.
+ *
+ * <p>Her istekte {@code DocumentBuilderFactory.newInstance()} /
+ * {@code TransformerFactory.newInstance()} çağırmak service-loader taraması ve
+ * güvenlik feature'larının yeniden uygulanması demektir; imza yolunda bu
+ * maliyet belge başına birkaç kez ödeniyordu. Factory'ler burada bir kez
+ * oluşturulur, örnekler thread başına bir kez üretilir ve her kullanım
+ * sonunda {@code reset()} edilerek iade edilir. {@code reset()} örneği
+ * factory'den çıktığı ayarlara döndürür; XXE hardening factory'de tanımlı
+ * olduğu için korunur.</p>
+ *
+ * <h2>Thread-safety</h2>
+ * <p>{@code DocumentBuilder} ve {@code Transformer} thread-safe değildir; bu
+ * yüzden havuz thread başınadır ve bir örnek aynı anda tek kullanıcıya
+ * verilir. Aynı thread iç içe çağrı yaparsa (örn. serileştirme sırasında
+ * parse) ikinci çağrı geçici bir örnek alır ve miss olarak sayılır.</p>
+ *
+ * <p>Havuz isabet/ıska sayaçları
+ * {@link io.mersel.dss.signer.api.services.metrics.XmlProcessingMetrics}
+ * tarafından Micrometer'a yayınlanır.</p>
+ */
+public final class XmlProcessorPool {
+
+    private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY =
+            SecureXmlFactories.newDocumentBuilderFactory();
+    private static final TransformerFactory TRANSFORMER_FACTORY =
+            SecureXmlFactories.newTransformerFactory();
+
+    private static final PerThreadPool<DocumentBuilder> DOCUMENT_BUILDERS =
+            new PerThreadPool<DocumentBuilder>() {
+                @Override
+                DocumentBuilder create() throws ParserConfigurationException {
+                    synchronized (DOCUMENT_BUILDER_FACTORY) {
+                        return DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+                    }
+                }
+
+                @Override
+                void reset(DocumentBuilder builder) {
+                    builder.reset();
+                }
+            };
+
+    private static final PerThreadPool<Transformer> TRANSFORMERS =
+            new PerThreadPool<Transformer>() {
+                @Override
+                Transformer create() throws TransformerConfigurationException {
+                    synchronized (TRANSFORMER_FACTORY) {
+                        return TRANSFORMER_FACTORY.newTransformer();
+                    }
+                }
+
+                @Override
+                void reset(Transformer transformer) {
+                    transformer.reset();
+                }
+            };
+
+    private XmlProcessorPool() {
+    }
+
+    /**
+     * Namespace-aware, XXE-güvenli parse.
+     *
+     * @param xmlBytes XML içeriği
+     * @return yeni DOM belgesi
+     */
+    public static Document parse(byte[] xmlBytes) throws SAXException, IOException {
+        return parse(new InputSource(new ByteArrayInputStream(xmlBytes)));
+    }
+
+    /**
+     * Namespace-aware, XXE-güvenli parse.
+     *
+     * @param source XML kaynağı
+     * @return yeni DOM belgesi
+     */
+    public static Document parse(InputSource source) throws SAXException, IOException {
+        DocumentBuilder builder = borrow(DOCUMENT_BUILDERS);
+        try {
+            return builder.parse(source);
+        } finally {
+            DOCUMENT_BUILDERS.release(builder);
+        }
+    }
+
+    /**
+     * Boş, namespace-aware DOM belgesi.
+     *
+     * @return yeni DOM belgesi
+     */
+    public static Document newDocument() {
+        DocumentBuilder builder = borrow(DOCUMENT_BUILDERS);
+        try {
+            return builder.newDocument();
+        } finally {
+            DOCUMENT_BUILDERS.release(builder);
+        }
+    }
+
+    /**
+     * Düğümü XML bildirimi ile UTF-8 olarak serileştirir.
+     *
+     * @param node belge veya eleman
+     * @return serileştirilmiş byte'lar
+     */
+    public static byte[] serialize(Node node) throws TransformerException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serialize(node, new StreamResult(out));
+        return out.toByteArray();
+    }
+
+    /**
+     * Düğümü XML bildirimi ile UTF-8 olarak verilen hedefe serileştirir.
+     *
+     * @param node   belge veya eleman
+     * @param result hedef
+     */
+    public static void serialize(Node node, Result result) throws TransformerException {
+        Transformer transformer = borrow(TRANSFORMERS);
+        try {
+            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
+            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+            transformer.transform(new DOMSource(node), result);
+        } finally {
+            TRANSFORMERS.release(transformer);
+        }
+    }
+
+    /** {@link DocumentBuilder} havuzu istatistikleri. */
+    public static Stats documentBuilderStats() {
+        return DOCUMENT_BUILDERS;
+    }
+
+    /** {@link Transformer} havuzu istatistikleri. */
+    public static Stats transformerStats() {
+        return TRANSFORMERS;
+    }
+
+    private static <T> T borrow(PerThreadPool<T> pool) {
+        try {
+            return pool.borrow();
+        } catch (Exception e) {
+            // Factory'ler sınıf yüklenirken sertleştirildi; örnek üretimi ancak
+            // JAXP implementasyonu bozuksa başarısız olur.
+            throw new IllegalStateException("XML işlemci örneği oluşturulamadı", e);
+        }
+    }
+
+    /** Havuz isabet/ıska sayaçları. */
+    public interface Stats {
+
+        /** Thread'in önbellekteki örneği yeniden kullanıldı. */
+        long getHits();
+
+        /** Yeni örnek üretildi (thread'in ilk kullanımı, iç içe çağrı veya reset hatası). */
+        long getMisses();
+    }
+
+    private abstract static class PerThreadPool<T> implements Stats {
+
+        private final ThreadLocal<Slot<T>> slots = ThreadLocal.withInitial(Slot::new);
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        abstract T create() throws Exception;
+
+        abstract void reset(T instance);
+
+        T borrow() throws Exception {
+            Slot<T> slot = slots.get();
+            if (slot.instance != null && !slot.inUse) {
+                slot.inUse = true;
+                hits.increment();
+                return slot.instance;
+            }
+            misses.increment();
+            T created = create();
+            if (slot.instance == null) {
+                slot.instance = created;
+                slot.inUse = true;
+            }
+            return created;
+        }
+
+        void release(T instance) {
+            Slot<T> slot = slots.get();
+            if (slot.instance != instance) {
+                // İç içe çağrıda verilen geçici örnek; önbelleğe alınmaz.
+                return;
+            }
+            try {
+                reset(instance);
+            } catch (RuntimeException e) {
+                // Reset edilemeyen örnek bir sonraki kullanıcıya durum sızdırabilir.
+                slot.instance = null;
+            }
+            slot.inUse = false;
+        }
+
+        @Override
+        public long getHits() {
+            return hits.sum();
+        }
+
+        @Override
+        public long getMisses() {
+            return misses.sum();
+        }
+    }
+
+    private static final class Slot<T> {
+        T instance;
+        boolean inUse;
+    }
+}
@@ -0,0 +1,129 @@
+package eu.europa.esig.dss.xades.signature;
+
+import eu.europa.esig.dss.crl.CRLUtils;
+import eu.europa.esig.dss.crl.stream.impl.CRLMetadata;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.CRLNumber;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509CRL;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * {@link CRLMetadataCache} / {@link CRLMetadata}: CRL başlık bilgisi akış
+ * üzerinden X509CRL ile aynı okunur ve CRL sürümü başına bir kez okunur.
+ */
+@Epic("XAdES Conformance")
+@Feature("CRL References")
+@Severity(SeverityLevel.NORMAL)
+class CRLMetadataCacheTest {
+
+    private static KeyPair caKeys;
+    private static CertificateToken caToken;
+
+    @BeforeAll
+    static void createIssuer() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        caKeys = generator.generateKeyPair();
+        X500Name name = new X500Name("CN=Test CRL Issuer, O=Mersel, C=TR");
+        Date notBefore = new Date(System.currentTimeMillis() - 60_000L);
+        X509v3CertificateBuilder builder = new X509v3CertificateBuilder(
+                name, BigInteger.ONE, notBefore, new Date(notBefore.getTime() + 86_400_000L), name,
+                SubjectPublicKeyInfo.getInstance(caKeys.getPublic().getEncoded()));
+        caToken = new CertificateToken(new JcaX509CertificateConverter().getCertificate(
+                builder.build(signer())));
+    }
+
+    @BeforeEach
+    void clearCache() {
+        CRLMetadataCache.clear();
+    }
+
+    @Test
+    @DisplayName("Akış okuması CRL numarası, tarihler ve issuer için X509CRL ile aynı sonucu verir")
+    void streamingReadMatchesX509Crl() throws Exception {
+        byte[] der = crl(new BigInteger("123456789012345678901234567890"), 2_000);
+        X509CRL x509 = (X509CRL) CertificateFactory.getInstance("X.509")
+                .generateCRL(new ByteArrayInputStream(der));
+
+        CRLMetadata metadata = CRLMetadata.read(new ByteArrayInputStream(der));
+
+        assertEquals(XadesUtil.extractCrlNumber(x509), metadata.getCrlNumber());
+        assertEquals(x509.getThisUpdate(), metadata.getThisUpdate());
+        assertEquals(x509.getNextUpdate(), metadata.getNextUpdate());
+        assertEquals(x509.getIssuerX500Principal(), metadata.getIssuer());
+    }
+
+    @Test
+    @DisplayName("Aynı CRL sürümü ikinci kez okunmaz; yeni sürüm okunur")
+    void parsesOncePerCrlVersion() throws Exception {
+        CRLToken first = token(crl(BigInteger.valueOf(41), 100));
+        // Aynı CRL'in yeniden indirilmesi: aynı baytlar, farklı token örneği
+        CRLToken sameVersionOtherToken = token(first.getEncoded());
+        CRLToken nextVersion = token(crl(BigInteger.valueOf(42), 100));
+        long before = CRLMetadataCache.getParseCount();
+
+        CRLMetadata metadata = CRLMetadataCache.get(first);
+        assertSame(metadata, CRLMetadataCache.get(first));
+        assertSame(metadata, CRLMetadataCache.get(sameVersionOtherToken));
+        assertEquals(1, CRLMetadataCache.getParseCount() - before);
+
+        assertEquals("42", CRLMetadataCache.get(nextVersion).getCrlNumber());
+        assertEquals(2, CRLMetadataCache.getParseCount() - before);
+    }
+
+    @Test
+    @DisplayName("CRL numarası uzantısı olmayan CRL için numara boş döner")
+    void missingCrlNumberYieldsNull() throws Exception {
+        assertNull(CRLMetadataCache.get(token(crl(null, 1))).getCrlNumber());
+    }
+
+    private static CRLToken token(byte[] der) throws Exception {
+        return new CRLToken(caToken, CRLUtils.buildCRLValidity(CRLUtils.buildCRLBinary(der), caToken));
+    }
+
+    private static byte[] crl(BigInteger number, int revoked) throws Exception {
+        Date thisUpdate = new Date((System.currentTimeMillis() / 1000) * 1000 - 3_600_000L);
+        X509v2CRLBuilder builder = new X509v2CRLBuilder(
+                new X500Name(caToken.getSubject().getRFC2253()), thisUpdate);
+        builder.setNextUpdate(new Date(thisUpdate.getTime() + 86_400_000L));
+        for (int i = 0; i < revoked; i++) {
+            builder.addCRLEntry(BigInteger.valueOf(1000 + i), thisUpdate, CRLReason.keyCompromise);
+        }
+        if (number != null) {
+            builder.addExtension(Extension.cRLNumber, false, new CRLNumber(number));
+        }
+        return builder.build(signer()).getEncoded();
+    }
+
+    private static ContentSigner signer() throws Exception {
+        return new JcaContentSignerBuilder("SHA256withRSA").build(caKeys.getPrivate());
+    }
+}
@@ -2,6 +2,7 @@ package io.mersel.dss.signer.api;
 
 import io.mersel.dss.signer.api.exceptions.CertificateValidationException;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.exceptions.SigningCapacityException;
 import io.mersel.dss.signer.api.exceptions.TimestampException;
 import io.mersel.dss.signer.api.models.ErrorModel;
 import io.qameta.allure.Epic;
@@ -10,6 +11,7 @@ import io.qameta.allure.Severity;
 import io.qameta.allure.SeverityLevel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -99,6 +101,30 @@ class GlobalExceptionHandlerTest {
         assertEquals("TIMESTAMP_ERROR", response.getBody().getCode());
     }
 
+    @Test
+    void testHandleSigningCapacityException_queueFull_returns429WithRetryAfter() {
+        SigningCapacityException exception = new SigningCapacityException(
+            SigningCapacityException.Reason.QUEUE_FULL, 4, "İmza kuyruğu dolu");
+
+        ResponseEntity<ErrorModel> response = exceptionHandler.handleSigningCapacityException(exception);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("4", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("SIGNING_QUEUE_FULL", response.getBody().getCode());
+    }
+
+    @Test
+    void testHandleSigningCapacityException_timeout_returns503WithRetryAfter() {
+        SigningCapacityException exception = new SigningCapacityException(
+            SigningCapacityException.Reason.TIMEOUT, 1, "İmza permit'i alınamadı");
+
+        ResponseEntity<ErrorModel> response = exceptionHandler.handleSigningCapacityException(exception);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("SIGNING_TIMEOUT", response.getBody().getCode());
+    }
+
     @Test
     void testHandleGenericException() {
         // Given
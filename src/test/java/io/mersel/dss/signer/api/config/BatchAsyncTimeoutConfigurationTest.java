@@ -0,0 +1,101 @@
+package io.mersel.dss.signer.api.config;
+
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * {@link BatchAsyncTimeoutConfiguration}: uzun async zaman aşımı yalnızca
+ * toplu ZIP endpoint'lerine uygulanır; diğer streaming yanıtlar global
+ * değerle kalır.
+ */
+@Epic("HTTP API Contract")
+@Feature("Async Request Timeout")
+@Severity(SeverityLevel.NORMAL)
+class BatchAsyncTimeoutConfigurationTest {
+
+    private static final long GLOBAL_TIMEOUT_MS = 30_000L;
+    private static final long BATCH_TIMEOUT_MS = 7_200_000L;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.register(WebConfig.class, BatchAsyncTimeoutConfiguration.class, StreamingController.class);
+        TestPropertyValues.of("XADES_BATCH_REQUEST_TIMEOUT_MS=" + BATCH_TIMEOUT_MS).applyTo(context);
+        context.refresh();
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    @DisplayName("Toplu imza ve toplu yükseltme endpoint'leri uzun zaman aşımı alır")
+    void batchEndpointsGetLongTimeout() throws Exception {
+        assertEquals(BATCH_TIMEOUT_MS, asyncTimeout("/v1/xadessign/batch"));
+        assertEquals(BATCH_TIMEOUT_MS, asyncTimeout("/v1/xades/upgrade/batch"));
+    }
+
+    @Test
+    @DisplayName("Diğer streaming endpoint'ler global zaman aşımıyla kalır")
+    void otherStreamingEndpointsKeepGlobalTimeout() throws Exception {
+        assertEquals(GLOBAL_TIMEOUT_MS, asyncTimeout("/v1/padessign"));
+    }
+
+    private long asyncTimeout(String path) throws Exception {
+        MvcResult result = mockMvc.perform(post(path))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return result.getRequest().getAsyncContext().getTimeout();
+    }
+
+    /** Global async zaman aşımı ({@code spring.mvc.async.request-timeout} karşılığı). */
+    @Configuration
+    @EnableWebMvc
+    static class WebConfig implements WebMvcConfigurer {
+        @Override
+        public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+            configurer.setDefaultTimeout(GLOBAL_TIMEOUT_MS);
+        }
+    }
+
+    @RestController
+    static class StreamingController {
+
+        @PostMapping("/v1/xadessign/batch")
+        StreamingResponseBody signBatch() {
+            return out -> out.write('z');
+        }
+
+        @PostMapping("/v1/xades/upgrade/batch")
+        StreamingResponseBody upgradeBatch() {
+            return out -> out.write('z');
+        }
+
+        @PostMapping("/v1/padessign")
+        StreamingResponseBody pades() {
+            return out -> out.write('p');
+        }
+    }
+}
@@ -2,11 +2,13 @@ package io.mersel.dss.signer.api.controllers;
 
 import io.mersel.dss.signer.api.dtos.SignCadesDto;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.exceptions.SigningCapacityException;
 import io.mersel.dss.signer.api.models.ErrorModel;
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
 import io.mersel.dss.signer.api.services.notification.SignerNotifier;
 import io.mersel.dss.signer.api.services.signature.cades.CAdESSignatureService;
+import io.mersel.dss.signer.api.services.signature.cades.SpooledCmsSignature;
 import io.qameta.allure.Epic;
 import io.qameta.allure.Feature;
 import io.qameta.allure.Severity;
@@ -19,8 +21,12 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -45,15 +51,23 @@ class CadesControllerTest {
                 new io.micrometer.core.instrument.simple.SimpleMeterRegistry()));
     }
 
+    private static SpooledCmsSignature mockSpooledSignature(byte[] cms) throws IOException {
+        SpooledCmsSignature spooled = mock(SpooledCmsSignature.class);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write(cms);
+            return null;
+        }).when(spooled).writeTo(any(OutputStream.class));
+        return spooled;
+    }
+
     @Nested
     class SuccessfulRequests {
-
         @Test
-        void attachedMode_shouldReturnOkWithOctetStream() throws Exception {
+        void attachedMode_shouldStreamSpooledSignature() throws Exception {
             byte[] signedBytes = "signed-data".getBytes();
-            SignResponse mockResponse = new SignResponse(signedBytes, "base64sig");
-            when(cadesSignatureService.signData(any(InputStream.class), eq(false), eq(signingMaterial)))
-                    .thenReturn(mockResponse);
+            SpooledCmsSignature spooled = mockSpooledSignature(signedBytes);
+            when(cadesSignatureService.signEnveloping(any(InputStream.class), eq(signingMaterial)))
+                    .thenReturn(spooled);
 
             SignCadesDto dto = new SignCadesDto();
             dto.setDocument(new MockMultipartFile("document", "file.pdf", "application/pdf", "pdf-content".getBytes()));
@@ -63,7 +77,30 @@ class CadesControllerTest {
 
             assertEquals(HttpStatus.OK, response.getStatusCode());
             assertEquals("application/octet-stream", response.getHeaders().getContentType().toString());
-            assertArrayEquals(signedBytes, (byte[]) response.getBody());
+            assertTrue(response.getBody() instanceof StreamingResponseBody);
+            verify(spooled, never()).close();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ((StreamingResponseBody) response.getBody()).writeTo(out);
+            assertArrayEquals(signedBytes, out.toByteArray());
+            verify(spooled).close();
+            verify(cadesSignatureService, never()).signData(any(), anyBoolean(), any());
+        }
+
+        @Test
+        void attachedMode_writeFailure_shouldStillDeleteSpool() throws Exception {
+            SpooledCmsSignature spooled = mock(SpooledCmsSignature.class);
+            doThrow(new IOException("client gone")).when(spooled).writeTo(any(OutputStream.class));
+            when(cadesSignatureService.signEnveloping(any(InputStream.class), any())).thenReturn(spooled);
+
+            SignCadesDto dto = new SignCadesDto();
+            dto.setDocument(new MockMultipartFile("document", "file.pdf", "application/pdf", "content".getBytes()));
+
+            ResponseEntity<?> response = controller.signCades(dto);
+
+            assertThrows(IOException.class,
+                    () -> ((StreamingResponseBody) response.getBody()).writeTo(new ByteArrayOutputStream()));
+            verify(spooled).close();
         }
 
         @Test
@@ -85,9 +122,9 @@ class CadesControllerTest {
 
         @Test
         void attachedMode_shouldNotIncludeSignatureValueHeader() throws Exception {
-            SignResponse mockResponse = new SignResponse("attached-data".getBytes(), "big-base64");
-            when(cadesSignatureService.signData(any(InputStream.class), eq(false), eq(signingMaterial)))
-                    .thenReturn(mockResponse);
+            SpooledCmsSignature spooled = mockSpooledSignature("attached-data".getBytes());
+            when(cadesSignatureService.signEnveloping(any(InputStream.class), eq(signingMaterial)))
+                    .thenReturn(spooled);
 
             SignCadesDto dto = new SignCadesDto();
             dto.setDocument(new MockMultipartFile("document", "file.pdf", "application/pdf", "content".getBytes()));
@@ -100,8 +137,8 @@ class CadesControllerTest {
 
         @Test
         void shouldReturnContentDispositionWithP7sExtension() throws Exception {
-            SignResponse mockResponse = new SignResponse("data".getBytes(), "sig");
-            when(cadesSignatureService.signData(any(), anyBoolean(), any())).thenReturn(mockResponse);
+            SpooledCmsSignature spooled = mockSpooledSignature("data".getBytes());
+            when(cadesSignatureService.signEnveloping(any(), any())).thenReturn(spooled);
 
             SignCadesDto dto = new SignCadesDto();
             dto.setDocument(new MockMultipartFile("document", "file.pdf", "application/pdf", "content".getBytes()));
@@ -115,9 +152,9 @@ class CadesControllerTest {
 
         @Test
         void nullDetachedFlag_shouldDefaultToAttached() throws Exception {
-            SignResponse mockResponse = new SignResponse("data".getBytes(), "sig");
-            when(cadesSignatureService.signData(any(InputStream.class), eq(false), eq(signingMaterial)))
-                    .thenReturn(mockResponse);
+            SpooledCmsSignature spooled = mockSpooledSignature("data".getBytes());
+            when(cadesSignatureService.signEnveloping(any(InputStream.class), eq(signingMaterial)))
+                    .thenReturn(spooled);
 
             SignCadesDto dto = new SignCadesDto();
             dto.setDocument(new MockMultipartFile("document", "file.pdf", "application/pdf", "content".getBytes()));
@@ -126,7 +163,7 @@ class CadesControllerTest {
             ResponseEntity<?> response = controller.signCades(dto);
 
             assertEquals(HttpStatus.OK, response.getStatusCode());
-            verify(cadesSignatureService).signData(any(InputStream.class), eq(false), any());
+            verify(cadesSignatureService).signEnveloping(any(InputStream.class), any());
         }
     }
 
@@ -163,6 +200,8 @@ class CadesControllerTest {
         void serviceException_shouldReturnInternalServerError() throws Exception {
             when(cadesSignatureService.signData(any(), anyBoolean(), any()))
                     .thenThrow(new SignatureException("CADES_SIGN_ERROR", "CAdES failed"));
+            when(cadesSignatureService.signEnveloping(any(), any()))
+                    .thenThrow(new SignatureException("CADES_SIGN_ERROR", "CAdES failed"));
 
             SignCadesDto dto = new SignCadesDto();
             dto.setDocument(new MockMultipartFile("document", "file.pdf", "application/pdf", "content".getBytes()));
@@ -177,6 +216,8 @@ class CadesControllerTest {
         void unexpectedException_shouldReturnInternalServerError() throws Exception {
             when(cadesSignatureService.signData(any(), anyBoolean(), any()))
                     .thenThrow(new RuntimeException("Unexpected"));
+            when(cadesSignatureService.signEnveloping(any(), any()))
+                    .thenThrow(new RuntimeException("Unexpected"));
 
             SignCadesDto dto = new SignCadesDto();
             dto.setDocument(new MockMultipartFile("document", "file.pdf", "application/pdf", "content".getBytes()));
@@ -185,5 +226,21 @@ class CadesControllerTest {
 
             assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         }
+
+        @Test
+        void capacityRejection_shouldPropagateWithoutNotification() throws Exception {
+            SigningCapacityException overload = new SigningCapacityException(
+                    SigningCapacityException.Reason.QUEUE_FULL, 3, "İmza kuyruğu dolu");
+            when(cadesSignatureService.signEnveloping(any(), any()))
+                    .thenThrow(new SignatureException("CADES_SIGN_ERROR", "CAdES failed", overload));
+
+            SignCadesDto dto = new SignCadesDto();
+            dto.setDocument(new MockMultipartFile("document", "file.pdf", "application/pdf", "content".getBytes()));
+
+            SigningCapacityException thrown =
+                    assertThrows(SigningCapacityException.class, () -> controller.signCades(dto));
+            assertSame(overload, thrown);
+            verifyNoInteractions(signerNotifier);
+        }
     }
 }
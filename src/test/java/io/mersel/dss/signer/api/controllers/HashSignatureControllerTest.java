@@ -1,9 +1,12 @@
 package io.mersel.dss.signer.api.controllers;
 
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import io.mersel.dss.signer.api.dtos.SignHashBatchDto;
+import io.mersel.dss.signer.api.dtos.SignHashBatchResponseDto;
 import io.mersel.dss.signer.api.dtos.SignHashDto;
 import io.mersel.dss.signer.api.dtos.SignHashResponseDto;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.BatchSignResult;
 import io.mersel.dss.signer.api.models.ErrorModel;
 import io.mersel.dss.signer.api.services.notification.SignerNotifier;
 import io.mersel.dss.signer.api.services.signature.raw.RawHashSignatureService;
@@ -16,13 +19,19 @@ import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -228,4 +237,89 @@ class HashSignatureControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode(),
             "Whitespace trim edilmeli, geçerli base64 olarak işlenmeli");
     }
+
+    // ──────────────── /v1/hashsign/batch ────────────────
+
+    @Test
+    void signHashBatch_partialFailure_returns200WithPerItemResults() {
+        when(service.signDigestBatch(anyList(), eq(DigestAlgorithm.SHA256)))
+            .thenReturn(Arrays.asList(
+                BatchSignResult.success(new byte[] { 0x01 }),
+                BatchSignResult.failure("CKR_DEVICE_ERROR"),
+                BatchSignResult.success(new byte[] { 0x03 })));
+
+        ResponseEntity<?> response = controller.signHashBatch(batchDto(3));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        SignHashBatchResponseDto body = (SignHashBatchResponseDto) response.getBody();
+        assertNotNull(body);
+        assertEquals(2, body.getSuccessCount());
+        assertEquals(1, body.getFailureCount());
+        assertEquals(3, body.getResults().size());
+        assertEquals(Base64.getEncoder().encodeToString(new byte[] { 0x03 }),
+            body.getResults().get(2).getBase64EncodedSignature());
+        assertNull(body.getResults().get(1).getBase64EncodedSignature());
+        assertEquals("CKR_DEVICE_ERROR", body.getResults().get(1).getErrorMessage());
+        // kısmi hata → istek başına tek bildirim
+        verify(signerNotifier).notifyOnSignatureFailure(
+            eq("/v1/hashsign/batch"), eq("Hash"), any(), any(), any(), any());
+    }
+
+    @Test
+    void signHashBatch_allSucceeded_noNotification() {
+        when(service.signDigestBatch(anyList(), any()))
+            .thenReturn(Arrays.asList(BatchSignResult.success(new byte[] { 0x01 })));
+
+        ResponseEntity<?> response = controller.signHashBatch(batchDto(1));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(0, ((SignHashBatchResponseDto) response.getBody()).getFailureCount());
+        verify(signerNotifier, never()).notifyOnSignatureFailure(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void signHashBatch_emptyList_returns400() {
+        SignHashBatchDto dto = new SignHashBatchDto();
+        dto.setBase64EncodedDigests(Collections.<String>emptyList());
+
+        ResponseEntity<?> response = controller.signHashBatch(dto);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("INVALID_INPUT", ((ErrorModel) response.getBody()).getCode());
+        verify(service, never()).signDigestBatch(any(), any());
+    }
+
+    @Test
+    void signHashBatch_invalidBase64Item_returns400WithIndex() {
+        SignHashBatchDto dto = batchDto(2);
+        dto.setBase64EncodedDigests(Arrays.asList(
+            dto.getBase64EncodedDigests().get(0), "***geçersiz***"));
+
+        ResponseEntity<?> response = controller.signHashBatch(dto);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertTrue(((ErrorModel) response.getBody()).getMessage().contains("[1]"));
+        verify(service, never()).signDigestBatch(any(), any());
+    }
+
+    @Test
+    void signHashBatch_wholeCallFailure_returns500() {
+        when(service.signDigestBatch(anyList(), any()))
+            .thenThrow(new SignatureException("Köprü IPC hatası"));
+
+        ResponseEntity<?> response = controller.signHashBatch(batchDto(2));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("SIGNATURE_FAILED", ((ErrorModel) response.getBody()).getCode());
+    }
+
+    private static SignHashBatchDto batchDto(int count) {
+        List<String> digests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            digests.add(Base64.getEncoder().encodeToString(new byte[32]));
+        }
+        SignHashBatchDto dto = new SignHashBatchDto();
+        dto.setBase64EncodedDigests(digests);
+        return dto;
+    }
 }
@@ -3,10 +3,10 @@ package io.mersel.dss.signer.api.controllers;
 import io.mersel.dss.signer.api.dtos.SignPadesDto;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
 import io.mersel.dss.signer.api.models.ErrorModel;
-import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
 import io.mersel.dss.signer.api.services.notification.SignerNotifier;
 import io.mersel.dss.signer.api.services.signature.pades.PAdESSignatureService;
+import io.mersel.dss.signer.api.services.signature.pades.SpooledPdfSignature;
 import io.qameta.allure.Epic;
 import io.qameta.allure.Feature;
 import io.qameta.allure.Severity;
@@ -19,8 +19,12 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.AdditionalMatchers.aryEq;
@@ -33,10 +37,9 @@ import static org.mockito.Mockito.*;
  * <p>G grubu (HTTP/API kontratı) kapsamı:
  * <ul>
  *   <li><b>G3</b>: Empty / null document → 400 INVALID_INPUT</li>
- *   <li><b>G6</b>: Response gövdesi {@code byte[]} olarak döner
- *       (Spring tarafından chunked değil, Content-Length set edilen
- *       formatta serialize edilir). Cosmetic — bağlantıyı uzun süreli
- *       açık tutmaz, proxy/load balancer ile uyumlu.</li>
+ *   <li><b>G6</b>: İmzalı PDF diskten akıtılır ama yanıt
+ *       {@code Content-Length} taşır (chunked değil). Cosmetic — bağlantıyı
+ *       uzun süreli açık tutmaz, proxy/load balancer ile uyumlu.</li>
  *   <li>Cades/Xades controller'larıyla parite (Content-Disposition,
  *       service exception → 500, attachment davranışı).</li>
  * </ul>
@@ -67,15 +70,33 @@ class PadesControllerTest {
                 new io.micrometer.core.instrument.simple.SimpleMeterRegistry()));
     }
 
+    private static SpooledPdfSignature spooledPdf(byte[] pdf) throws IOException {
+        SpooledPdfSignature spooled = mock(SpooledPdfSignature.class);
+        when(spooled.getContentLength()).thenReturn((long) pdf.length);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write(pdf);
+            return null;
+        }).when(spooled).writeTo(any(OutputStream.class));
+        return spooled;
+    }
+
+    private static byte[] writeBody(ResponseEntity<?> response) throws IOException {
+        assertTrue(response.getBody() instanceof StreamingResponseBody);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingResponseBody) response.getBody()).writeTo(out);
+        return out.toByteArray();
+    }
+
     @Nested
     class SuccessfulRequests {
 
         @Test
         void shouldReturnOkWithPdfBytes() throws Exception {
             byte[] signedPdf = "%PDF-1.4 signed".getBytes();
-            when(padesSignatureService.signPdf(
+            SpooledPdfSignature spooled = spooledPdf(signedPdf);
+            when(padesSignatureService.signPdfToFile(
                     any(InputStream.class), isNull(), isNull(), eq(false), eq(signingMaterial)))
-                .thenReturn(new SignResponse(signedPdf, null));
+                .thenReturn(spooled);
 
             SignPadesDto dto = new SignPadesDto();
             dto.setDocument(new MockMultipartFile(
@@ -85,13 +106,15 @@ class PadesControllerTest {
             ResponseEntity<?> response = controller.signPades(dto);
 
             assertEquals(HttpStatus.OK, response.getStatusCode());
-            assertArrayEquals(signedPdf, (byte[]) response.getBody());
+            assertArrayEquals(signedPdf, writeBody(response));
+            verify(spooled).close();
         }
 
         @Test
         void shouldIncludeContentDispositionWithPdfExtension() throws Exception {
-            when(padesSignatureService.signPdf(any(), any(), any(), anyBoolean(), any()))
-                .thenReturn(new SignResponse("pdf".getBytes(), null));
+            SpooledPdfSignature spooled = spooledPdf("pdf".getBytes());
+            when(padesSignatureService.signPdfToFile(any(), any(), any(), anyBoolean(), any()))
+                .thenReturn(spooled);
 
             SignPadesDto dto = new SignPadesDto();
             dto.setDocument(new MockMultipartFile(
@@ -109,8 +132,9 @@ class PadesControllerTest {
 
         @Test
         void appendMode_truePassedToService() throws Exception {
-            when(padesSignatureService.signPdf(any(), any(), any(), anyBoolean(), any()))
-                .thenReturn(new SignResponse("x".getBytes(), null));
+            SpooledPdfSignature spooled = spooledPdf("x".getBytes());
+            when(padesSignatureService.signPdfToFile(any(), any(), any(), anyBoolean(), any()))
+                .thenReturn(spooled);
 
             SignPadesDto dto = new SignPadesDto();
             dto.setDocument(new MockMultipartFile(
@@ -119,14 +143,15 @@ class PadesControllerTest {
 
             controller.signPades(dto);
 
-            verify(padesSignatureService).signPdf(
+            verify(padesSignatureService).signPdfToFile(
                 any(InputStream.class), isNull(), isNull(), eq(true), eq(signingMaterial));
         }
 
         @Test
         void appendMode_nullDefaultsToFalse() throws Exception {
-            when(padesSignatureService.signPdf(any(), any(), any(), anyBoolean(), any()))
-                .thenReturn(new SignResponse("x".getBytes(), null));
+            SpooledPdfSignature spooled = spooledPdf("x".getBytes());
+            when(padesSignatureService.signPdfToFile(any(), any(), any(), anyBoolean(), any()))
+                .thenReturn(spooled);
 
             SignPadesDto dto = new SignPadesDto();
             dto.setDocument(new MockMultipartFile(
@@ -135,17 +160,18 @@ class PadesControllerTest {
 
             controller.signPades(dto);
 
-            verify(padesSignatureService).signPdf(
+            verify(padesSignatureService).signPdfToFile(
                 any(InputStream.class), isNull(), isNull(), eq(false), eq(signingMaterial));
         }
 
         @Test
         void attachmentBytes_passedThroughToService() throws Exception {
             byte[] attachmentBytes = "xml-payload".getBytes();
-            when(padesSignatureService.signPdf(
+            SpooledPdfSignature spooled = spooledPdf("pdf".getBytes());
+            when(padesSignatureService.signPdfToFile(
                     any(InputStream.class), aryEq(attachmentBytes), eq("invoice.xml"),
                     anyBoolean(), any()))
-                .thenReturn(new SignResponse("pdf".getBytes(), null));
+                .thenReturn(spooled);
 
             SignPadesDto dto = new SignPadesDto();
             dto.setDocument(new MockMultipartFile(
@@ -157,22 +183,41 @@ class PadesControllerTest {
             ResponseEntity<?> response = controller.signPades(dto);
 
             assertEquals(HttpStatus.OK, response.getStatusCode());
-            verify(padesSignatureService).signPdf(
+            verify(padesSignatureService).signPdfToFile(
                 any(InputStream.class), aryEq(attachmentBytes), eq("invoice.xml"),
                 anyBoolean(), any());
         }
 
         /**
-         * G6 (chunked streaming kontratı): Response gövdesi gerçek bir
-         * {@code byte[]} olmalı; Spring tarafından otomatik Content-Length
-         * ile serialize edilir (chunked encoding değil). Bu, proxy/LB
-         * uyumluluğu için kritik — chunked yanıtlar bazı katmanlarda
-         * cache miss veya buffer'lanma yapabilir.
+         * G6 (chunked streaming kontratı): imzalı PDF diskten akıtılsa da
+         * yanıt {@code Content-Length} taşımalı; böylece chunked encoding'e
+         * düşmez. Bu, proxy/LB uyumluluğu için kritik — chunked yanıtlar bazı
+         * katmanlarda cache miss veya buffer'lanma yapabilir.
          */
         @Test
-        void g6_chunkedStreamingContract_bodyIsByteArrayNotStream() throws Exception {
-            when(padesSignatureService.signPdf(any(), any(), any(), anyBoolean(), any()))
-                .thenReturn(new SignResponse("pdf-body".getBytes(), null));
+        void g6_chunkedStreamingContract_contentLengthIsSet() throws Exception {
+            SpooledPdfSignature spooled = spooledPdf("pdf-body".getBytes());
+            when(padesSignatureService.signPdfToFile(any(), any(), any(), anyBoolean(), any()))
+                .thenReturn(spooled);
+
+            SignPadesDto dto = new SignPadesDto();
+            dto.setDocument(new MockMultipartFile(
+                "document", "in.pdf", "application/pdf", "x".getBytes()));
+
+            ResponseEntity<?> response = controller.signPades(dto);
+
+            assertEquals("pdf-body".length(), response.getHeaders().getContentLength(),
+                "Content-Length set edilmeli — aksi halde yanıt chunked encoding ile gider");
+            assertArrayEquals("pdf-body".getBytes(), writeBody(response));
+        }
+
+        @Test
+        void writeFailure_shouldStillDeleteSignedPdf() throws Exception {
+            SpooledPdfSignature spooled = mock(SpooledPdfSignature.class);
+            when(spooled.getContentLength()).thenReturn(10L);
+            doThrow(new IOException("client gone")).when(spooled).writeTo(any(OutputStream.class));
+            when(padesSignatureService.signPdfToFile(any(), any(), any(), anyBoolean(), any()))
+                .thenReturn(spooled);
 
             SignPadesDto dto = new SignPadesDto();
             dto.setDocument(new MockMultipartFile(
@@ -180,9 +225,8 @@ class PadesControllerTest {
 
             ResponseEntity<?> response = controller.signPades(dto);
 
-            assertNotNull(response.getBody());
-            assertTrue(response.getBody() instanceof byte[],
-                "Response gövdesi byte[] olmalı — InputStream yanıtı chunked encoding tetikler");
+            assertThrows(IOException.class, () -> writeBody(response));
+            verify(spooled).close();
         }
     }
 
@@ -212,7 +256,7 @@ class PadesControllerTest {
 
         @Test
         void serviceException_shouldReturnInternalServerError() {
-            when(padesSignatureService.signPdf(any(), any(), any(), anyBoolean(), any()))
+            when(padesSignatureService.signPdfToFile(any(), any(), any(), anyBoolean(), any()))
                 .thenThrow(new SignatureException("PADES_SIGN_ERROR", "iText failed"));
 
             SignPadesDto dto = new SignPadesDto();
@@ -228,7 +272,7 @@ class PadesControllerTest {
 
         @Test
         void unexpectedException_shouldReturnInternalServerError() {
-            when(padesSignatureService.signPdf(any(), any(), any(), anyBoolean(), any()))
+            when(padesSignatureService.signPdfToFile(any(), any(), any(), anyBoolean(), any()))
                 .thenThrow(new RuntimeException("Unexpected"));
 
             SignPadesDto dto = new SignPadesDto();
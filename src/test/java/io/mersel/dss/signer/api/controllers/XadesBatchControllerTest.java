@@ -0,0 +1,143 @@
+package io.mersel.dss.signer.api.controllers;
+
+import io.mersel.dss.signer.api.dtos.SignXadesBatchDto;
+import io.mersel.dss.signer.api.models.BatchManifest;
+import io.mersel.dss.signer.api.models.ErrorModel;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.models.enums.XadesSignatureLevel;
+import io.mersel.dss.signer.api.services.metrics.SignatureMetrics;
+import io.mersel.dss.signer.api.services.notification.SignerNotifier;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESBatchSignatureService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link XadesBatchController} HTTP kontrat testleri. Toplu imza servisi
+ * mock'lanır; girdi doğrulaması, akış gövdesinin servise bağlanması ve
+ * bildirim davranışı izole edilir.
+ */
+@Epic("HTTP API Contract")
+@Feature("XAdES Batch Endpoint")
+@Severity(SeverityLevel.CRITICAL)
+class XadesBatchControllerTest {
+
+    private XAdESBatchSignatureService batchService;
+    private SignerNotifier signerNotifier;
+    private XadesBatchController controller;
+
+    @BeforeEach
+    void setUp() {
+        batchService = mock(XAdESBatchSignatureService.class);
+        signerNotifier = mock(SignerNotifier.class);
+        controller = new XadesBatchController(batchService, null, signerNotifier,
+            new SignatureMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void missingDocument_returns400() {
+        SignXadesBatchDto dto = new SignXadesBatchDto();
+        dto.setDocumentType(DocumentType.UblDocument);
+
+        ResponseEntity<?> response = controller.signXadesBatch(dto);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("INVALID_INPUT", ((ErrorModel) response.getBody()).getCode());
+        verifyNoInteractions(batchService);
+    }
+
+    @Test
+    void noneDocumentType_returns400() {
+        SignXadesBatchDto dto = dto();
+        dto.setDocumentType(DocumentType.None);
+
+        assertEquals(HttpStatus.BAD_REQUEST, controller.signXadesBatch(dto).getStatusCode());
+    }
+
+    @Test
+    void success_streamsServiceOutputAsZip() throws Exception {
+        when(batchService.signZip(any(InputStream.class), any(OutputStream.class),
+                eq(DocumentType.UblDocument), any(), eq(XadesSignatureLevel.XADES_BES)))
+            .thenAnswer(inv -> {
+                ((OutputStream) inv.getArgument(1)).write(new byte[] {'P', 'K'});
+                BatchManifest manifest = new BatchManifest("UblDocument", "XADES_BES");
+                manifest.addSigned(0, "a.xml", "a.xml", "sig");
+                return manifest;
+            });
+
+        ResponseEntity<?> response = controller.signXadesBatch(dto());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/zip", response.getHeaders().getContentType().toString());
+        assertTrue(response.getHeaders().getFirst("Content-Disposition").contains(".zip"));
+        assertInstanceOf(StreamingResponseBody.class, response.getBody());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingResponseBody) response.getBody()).writeTo(out);
+        assertEquals("PK", out.toString("ISO-8859-1"));
+        verify(signerNotifier, never()).notifyOnSignatureFailure(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void partialFailure_notifiesOncePerBatch() throws Exception {
+        when(batchService.signZip(any(), any(), any(), any(), any())).thenAnswer(inv -> {
+            BatchManifest manifest = new BatchManifest("UblDocument", "XADES_BES");
+            manifest.addSigned(0, "a.xml", "a.xml", "sig");
+            manifest.addFailed(1, "b.xml", "HSM erişilemez");
+            manifest.addFailed(2, "c.xml", "HSM erişilemez");
+            return manifest;
+        });
+
+        ResponseEntity<?> response = controller.signXadesBatch(dto());
+        ((StreamingResponseBody) response.getBody()).writeTo(new ByteArrayOutputStream());
+
+        verify(signerNotifier).notifyOnSignatureFailure(
+            eq("/v1/xadessign/batch"), eq("XAdES"), any(), eq(null), eq("faturalar.zip"), eq("application/zip"));
+    }
+
+    @Test
+    void streamFailure_propagatesAndNotifies() throws Exception {
+        when(batchService.signZip(any(), any(), any(), any(), any()))
+            .thenThrow(new IOException("Broken pipe"));
+
+        ResponseEntity<?> response = controller.signXadesBatch(dto());
+
+        assertThrows(IOException.class,
+            () -> ((StreamingResponseBody) response.getBody()).writeTo(new ByteArrayOutputStream()));
+        verify(signerNotifier).notifyOnSignatureFailure(
+            eq("/v1/xadessign/batch"), eq("XAdES"), any(IOException.class), eq(null), any(), any());
+    }
+
+    private static SignXadesBatchDto dto() {
+        SignXadesBatchDto dto = new SignXadesBatchDto();
+        dto.setDocument(new MockMultipartFile("document", "faturalar.zip", "application/zip",
+            new byte[] {'P', 'K', 3, 4}));
+        dto.setDocumentType(DocumentType.UblDocument);
+        return dto;
+    }
+}
@@ -1,12 +1,19 @@
 package io.mersel.dss.signer.api.controllers;
 
+import io.mersel.dss.signer.api.dtos.XadesUpgradeJobDto;
+import io.mersel.dss.signer.api.models.ErrorModel;
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.XadesUpgradeJob;
 import io.mersel.dss.signer.api.models.enums.DocumentType;
 import io.mersel.dss.signer.api.models.enums.XadesSignatureLevel;
 import io.mersel.dss.signer.api.services.notification.SignerNotifier;
+import io.mersel.dss.signer.api.services.signature.wssecurity.StreamingWsSecurityEnvelope;
 import io.mersel.dss.signer.api.services.signature.wssecurity.WsSecuritySignatureService;
+import io.mersel.dss.signer.api.services.signature.xades.StreamingXadesDocument;
 import io.mersel.dss.signer.api.services.signature.xades.XAdESSignatureService;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESUpgradeJobService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.qameta.allure.Epic;
 import io.qameta.allure.Feature;
 import io.qameta.allure.Severity;
@@ -15,11 +22,17 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.w3c.dom.Element;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.lang.reflect.Constructor;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -46,9 +59,12 @@ class XadesControllerTest {
 
     private XadesController controller;
 
+    private SimpleMeterRegistry meterRegistry;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
         controller = new XadesController(
             xadesSignatureService,
             wsSecuritySignatureService,
@@ -56,8 +72,7 @@ class XadesControllerTest {
             "testAlias",
             "testPin".toCharArray(),
             signerNotifier,
-            new io.mersel.dss.signer.api.services.metrics.SignatureMetrics(
-                new io.micrometer.core.instrument.simple.SimpleMeterRegistry())
+            new io.mersel.dss.signer.api.services.metrics.SignatureMetrics(meterRegistry)
         );
     }
 
@@ -370,4 +385,165 @@ class XadesControllerTest {
         );
     }
 
+    @Test
+    void testSignXadesAsyncUpgradeSignsBesAndReturnsAccepted() throws Exception {
+        // Given: asyncUpgrade=true + XADES_A → BES senkron imzalanır, yükseltme kuyruğa gider.
+        XAdESUpgradeJobService upgradeJobService = mock(XAdESUpgradeJobService.class);
+        XadesController asyncController = new XadesController(
+            xadesSignatureService,
+            wsSecuritySignatureService,
+            signingMaterial,
+            "testAlias",
+            "testPin".toCharArray(),
+            signerNotifier,
+            new io.mersel.dss.signer.api.services.metrics.SignatureMetrics(
+                new io.micrometer.core.instrument.simple.SimpleMeterRegistry()),
+            upgradeJobService
+        );
+        String xmlContent = "<?xml version=\"1.0\"?><invoice/>";
+        MockMultipartFile file = new MockMultipartFile(
+            "document", "invoice.xml", "text/xml", xmlContent.getBytes());
+        when(xadesSignatureService.signXml(
+            any(InputStream.class), any(DocumentType.class), any(), anyBoolean(), any(),
+            any(XadesSignatureLevel.class)
+        )).thenReturn(new SignResponse(xmlContent.getBytes(), "sig-bes"));
+
+        XadesUpgradeJob job = new XadesUpgradeJob();
+        job.setJobId("3f2b6c1e-8a4d-4c2b-9f1e-2d7a5b9c0e11");
+        job.setStatus(XadesUpgradeJob.Status.PENDING);
+        job.setCreatedAt(System.currentTimeMillis());
+        when(upgradeJobService.submit(any(byte[].class), eq(DocumentType.UblDocument), eq(false), eq("sig-bes")))
+            .thenReturn(job);
+
+        io.mersel.dss.signer.api.dtos.SignXadesDto dto =
+            new io.mersel.dss.signer.api.dtos.SignXadesDto();
+        dto.setDocument(file);
+        dto.setDocumentType(DocumentType.UblDocument);
+        dto.setZipFile(false);
+        dto.setSignatureLevel(XadesSignatureLevel.XADES_A);
+        dto.setAsyncUpgrade(true);
+
+        // When
+        ResponseEntity<?> response = asyncController.signXades(dto);
+
+        // Then
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals("/v1/xades/jobs/3f2b6c1e-8a4d-4c2b-9f1e-2d7a5b9c0e11",
+            response.getHeaders().getFirst("Location"));
+        assertEquals("sig-bes", response.getHeaders().getFirst("x-signature-value"));
+        assertEquals("PENDING", ((XadesUpgradeJobDto) response.getBody()).getStatus());
+        verify(upgradeJobService).ensureAccepting();
+        verify(xadesSignatureService).signXml(
+            any(InputStream.class),
+            eq(DocumentType.UblDocument),
+            isNull(),
+            eq(false),
+            eq(signingMaterial),
+            eq(XadesSignatureLevel.XADES_BES)
+        );
+    }
+
+    @Test
+    void testSignXadesAsyncUpgradeWithoutJobServiceReturnsBadRequest() {
+        // Given: XADES_ASYNC_UPGRADE_ENABLED ayarlı değil (varsayılan) → job servisi yok.
+        MockMultipartFile file = new MockMultipartFile(
+            "document", "invoice.xml", "text/xml", "<invoice/>".getBytes());
+        io.mersel.dss.signer.api.dtos.SignXadesDto dto =
+            new io.mersel.dss.signer.api.dtos.SignXadesDto();
+        dto.setDocument(file);
+        dto.setDocumentType(DocumentType.UblDocument);
+        dto.setSignatureLevel(XadesSignatureLevel.XADES_A);
+        dto.setAsyncUpgrade(true);
+
+        // When
+        ResponseEntity<?> response = controller.signXades(dto);
+
+        // Then: imza hiç başlatılmaz.
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("ASYNC_UPGRADE_DISABLED", ((ErrorModel) response.getBody()).getCode());
+        verifyNoInteractions(xadesSignatureService);
+    }
+
+    @Test
+    void testStreamingXadesRecordsFailureWhenResponseWriteFails() throws Exception {
+        // Given: imza hesaplandı, fakat ikinci geçişte multipart geçici dosyası yok.
+        MockMultipartFile file = new MockMultipartFile(
+            "document", "big.xml", "text/xml", "<big/>".getBytes());
+        StreamingXadesDocument streamed = streamingDocument(() -> {
+            throw new FileNotFoundException("upload_tmp.xml");
+        });
+        when(xadesSignatureService.isStreamingEligible(anyLong())).thenReturn(true);
+        when(xadesSignatureService.prepareStreaming(
+            any(InputStreamSource.class), eq(DocumentType.UblDocument), isNull(), eq(signingMaterial)))
+            .thenReturn(streamed);
+        io.mersel.dss.signer.api.dtos.SignXadesDto dto =
+            new io.mersel.dss.signer.api.dtos.SignXadesDto();
+        dto.setDocument(file);
+        dto.setDocumentType(DocumentType.UblDocument);
+
+        // When
+        ResponseEntity<?> response = controller.signXades(dto);
+
+        // Then: yanıt dönene kadar metrik kaydedilmez; yazma hatası failure sayılır.
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(0, signatureCount("success") + signatureCount("failure"));
+        StreamingResponseBody body = (StreamingResponseBody) response.getBody();
+        assertThrows(FileNotFoundException.class, () -> body.writeTo(new ByteArrayOutputStream()));
+        assertEquals(0, signatureCount("success"));
+        assertEquals(1, signatureCount("failure"));
+    }
+
+    @Test
+    void testStreamingWsSecurityRecordsFailureWhenResponseWriteFails() throws Exception {
+        // Given: imza hesaplandı, fakat ikinci geçişte multipart geçici dosyası yok.
+        String soap = "<s:Envelope xmlns:s=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+            + "<s:Header/><s:Body/></s:Envelope>";
+        MockMultipartFile file = new MockMultipartFile(
+            "document", "defter.xml", "text/xml", soap.getBytes());
+        StreamingWsSecurityEnvelope streamed = streamingEnvelope(() -> {
+            throw new FileNotFoundException("upload_tmp.xml");
+        });
+        when(wsSecuritySignatureService.isStreamingEligible(anyLong())).thenReturn(true);
+        when(wsSecuritySignatureService.prepareStreaming(
+            any(InputStreamSource.class), eq(false), eq(signingMaterial)))
+            .thenReturn(streamed);
+        io.mersel.dss.signer.api.dtos.SignWsSecurityDto dto =
+            new io.mersel.dss.signer.api.dtos.SignWsSecurityDto();
+        dto.setDocument(file);
+
+        // When
+        ResponseEntity<?> response = controller.signWsSecurity(dto);
+
+        // Then: yanıt dönene kadar metrik kaydedilmez; yazma hatası failure sayılır.
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(0, signatureCount("success") + signatureCount("failure"));
+        StreamingResponseBody body = (StreamingResponseBody) response.getBody();
+        assertThrows(FileNotFoundException.class, () -> body.writeTo(new ByteArrayOutputStream()));
+        assertEquals(0, signatureCount("success"));
+        assertEquals(1, signatureCount("failure"));
+    }
+
+    private double signatureCount(String outcome) {
+        io.micrometer.core.instrument.Counter counter = meterRegistry.find("signer.signatures")
+            .tag("outcome", outcome).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    /** StreamingXadesDocument final ve paket-özel; Mockito ile mock edilemiyor. */
+    private static StreamingXadesDocument streamingDocument(InputStreamSource source) throws Exception {
+        Constructor<StreamingXadesDocument> ctor = StreamingXadesDocument.class.getDeclaredConstructor(
+            InputStreamSource.class, DocumentType.class, String.class, boolean.class,
+            Element.class, String.class);
+        ctor.setAccessible(true);
+        return ctor.newInstance(source, DocumentType.UblDocument, "UTF-8", false, null, "c2ln");
+    }
+
+    /** StreamingWsSecurityEnvelope final ve paket-özel; Mockito ile mock edilemiyor. */
+    private static StreamingWsSecurityEnvelope streamingEnvelope(InputStreamSource source) throws Exception {
+        Constructor<StreamingWsSecurityEnvelope> ctor = StreamingWsSecurityEnvelope.class.getDeclaredConstructor(
+            InputStreamSource.class, String.class, boolean.class, Element.class);
+        ctor.setAccessible(true);
+        return ctor.newInstance(source, "http://schemas.xmlsoap.org/soap/envelope/", true, null);
+    }
+
 }
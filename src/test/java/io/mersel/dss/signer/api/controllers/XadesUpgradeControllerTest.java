@@ -0,0 +1,167 @@
+package io.mersel.dss.signer.api.controllers;
+
+import io.mersel.dss.signer.api.dtos.UpgradeXadesDto;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.exceptions.TimestampException;
+import io.mersel.dss.signer.api.models.BatchManifest;
+import io.mersel.dss.signer.api.models.ErrorModel;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.services.metrics.SignatureMetrics;
+import io.mersel.dss.signer.api.services.notification.SignerNotifier;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESBatchSignatureService;
+import io.mersel.dss.signer.api.services.signature.xades.XAdESSignatureService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link XadesUpgradeController} HTTP kontrat testleri. Yükseltme servisleri
+ * mock'lanır; girdi doğrulaması, belge tipi varsayılanı, hata eşlemesi ve
+ * akış gövdesinin servise bağlanması izole edilir.
+ */
+@Epic("HTTP API Contract")
+@Feature("XAdES Upgrade Endpoint")
+@Severity(SeverityLevel.CRITICAL)
+class XadesUpgradeControllerTest {
+
+    private static final byte[] BES = "<Invoice><ds:Signature/></Invoice>".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ARCHIVE = "<Invoice><ds:Signature>A</ds:Signature></Invoice>"
+        .getBytes(StandardCharsets.UTF_8);
+
+    private XAdESSignatureService xadesSignatureService;
+    private XAdESBatchSignatureService batchService;
+    private SignerNotifier signerNotifier;
+    private XadesUpgradeController controller;
+
+    @BeforeEach
+    void setUp() {
+        xadesSignatureService = mock(XAdESSignatureService.class);
+        batchService = mock(XAdESBatchSignatureService.class);
+        signerNotifier = mock(SignerNotifier.class);
+        controller = new XadesUpgradeController(xadesSignatureService, batchService, null, signerNotifier,
+            new SignatureMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void missingDocument_returns400() {
+        ResponseEntity<?> response = controller.upgradeXades(new UpgradeXadesDto());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("INVALID_INPUT", ((ErrorModel) response.getBody()).getCode());
+        verifyNoInteractions(xadesSignatureService);
+    }
+
+    @Test
+    void single_returnsUpgradedXml() {
+        when(xadesSignatureService.upgradeToArchive(eq(BES), eq(DocumentType.UblDocument), isNull()))
+            .thenReturn(ARCHIVE);
+        UpgradeXadesDto dto = dto("fatura.xml", BES);
+        dto.setDocumentType(DocumentType.UblDocument);
+
+        ResponseEntity<?> response = controller.upgradeXades(dto);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_XML, response.getHeaders().getContentType());
+        assertArrayEquals(ARCHIVE, (byte[]) response.getBody());
+    }
+
+    @Test
+    void single_missingDocumentType_defaultsToOtherXmlDocument() {
+        when(xadesSignatureService.upgradeToArchive(any(byte[].class), eq(DocumentType.OtherXmlDocument), isNull()))
+            .thenReturn(ARCHIVE);
+
+        ResponseEntity<?> response = controller.upgradeXades(dto("belge.xml", BES));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void single_timestampFailure_isRethrownFor503AndNotified() {
+        when(xadesSignatureService.upgradeToArchive(any(byte[].class), any(), any()))
+            .thenThrow(new TimestampException("TSA erişilemez"));
+
+        assertThrows(TimestampException.class, () -> controller.upgradeXades(dto("fatura.xml", BES)));
+        verify(signerNotifier).notifyOnSignatureFailure(eq("/v1/xades/upgrade"), eq("XAdES"),
+            any(TimestampException.class), isNull(), eq("fatura.xml"), eq("text/xml"));
+    }
+
+    @Test
+    void single_otherFailure_returns500UpgradeFailed() {
+        when(xadesSignatureService.upgradeToArchive(any(byte[].class), any(), any()))
+            .thenThrow(new SignatureException("XAdES-A yükseltmesi yapılamadı"));
+
+        ResponseEntity<?> response = controller.upgradeXades(dto("fatura.xml", BES));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("UPGRADE_FAILED", ((ErrorModel) response.getBody()).getCode());
+    }
+
+    @Test
+    void batch_streamsServiceOutputAsZip() throws Exception {
+        when(batchService.upgradeZip(any(InputStream.class), any(OutputStream.class),
+                eq(DocumentType.OtherXmlDocument), isNull()))
+            .thenAnswer(inv -> {
+                ((OutputStream) inv.getArgument(1)).write(new byte[] {'P', 'K'});
+                BatchManifest manifest = new BatchManifest("OtherXmlDocument", "XADES_A");
+                manifest.addSigned(0, "a.xml", "a.xml", null);
+                return manifest;
+            });
+
+        ResponseEntity<?> response = controller.upgradeXadesBatch(dto("arsiv.zip", new byte[] {1}));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/zip", response.getHeaders().getContentType().toString());
+        assertInstanceOf(StreamingResponseBody.class, response.getBody());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingResponseBody) response.getBody()).writeTo(out);
+        assertEquals("PK", out.toString("ISO-8859-1"));
+    }
+
+    @Test
+    void batch_partialFailure_notifiesOncePerBatch() throws Exception {
+        when(batchService.upgradeZip(any(), any(), any(), any())).thenAnswer(inv -> {
+            BatchManifest manifest = new BatchManifest("UblDocument", "XADES_A");
+            manifest.addSigned(0, "a.xml", "a.xml", null);
+            manifest.addFailed(1, "b.xml", "TSA erişilemez");
+            return manifest;
+        });
+
+        ResponseEntity<?> response = controller.upgradeXadesBatch(dto("arsiv.zip", new byte[] {1}));
+        ((StreamingResponseBody) response.getBody()).writeTo(new ByteArrayOutputStream());
+
+        verify(signerNotifier).notifyOnSignatureFailure(eq("/v1/xades/upgrade/batch"), eq("XAdES"),
+            any(SignatureException.class), isNull(), eq("arsiv.zip"), eq("application/zip"));
+    }
+
+    private static UpgradeXadesDto dto(String fileName, byte[] content) {
+        UpgradeXadesDto dto = new UpgradeXadesDto();
+        dto.setDocument(new MockMultipartFile("document", fileName, "text/xml", content));
+        return dto;
+    }
+}
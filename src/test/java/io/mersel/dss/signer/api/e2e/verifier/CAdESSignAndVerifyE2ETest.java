@@ -4,6 +4,7 @@ import eu.europa.esig.dss.cades.signature.CAdESService;
 import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter;
 import io.mersel.dss.signer.api.services.crypto.CryptoSignerService;
 import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
 import io.mersel.dss.signer.api.services.crypto.SignatureAlgorithmResolverService;
@@ -70,7 +71,7 @@ class CAdESSignAndVerifyE2ETest extends AbstractVerifierE2ETest {
 
         cadesSignatureService = new CAdESSignatureService(
                 cadesService, crypto, digestResolver,
-                new java.util.concurrent.Semaphore(2));
+                new FixedSigningLimiter(2));
     }
 
     static Stream<Arguments> pfxAndModeMatrix() {
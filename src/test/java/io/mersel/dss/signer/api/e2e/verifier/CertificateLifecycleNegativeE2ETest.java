@@ -7,6 +7,7 @@ import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
 import io.mersel.dss.signer.api.models.enums.DocumentType;
 import io.mersel.dss.signer.api.models.enums.XadesSignatureLevel;
+import io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter;
 import io.mersel.dss.signer.api.services.crypto.CryptoSignerService;
 import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
 import io.mersel.dss.signer.api.services.crypto.SignatureAlgorithmResolverService;
@@ -48,7 +49,6 @@ import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.Semaphore;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -152,15 +152,15 @@ class CertificateLifecycleNegativeE2ETest extends AbstractVerifierE2ETest {
 
         xadesService = new XAdESSignatureService(
                 dssXades, paramsBuilder, xmlProcessor, placement,
-                upgrade, crypto, verifier, compression, new Semaphore(2));
+                upgrade, crypto, verifier, compression, new FixedSigningLimiter(2));
 
         CAdESService dssCades = new CAdESService(verifier);
         cadesService = new CAdESSignatureService(
-                dssCades, crypto, digestResolver, new Semaphore(2));
+                dssCades, crypto, digestResolver, new FixedSigningLimiter(2));
 
-        padesService = new PAdESSignatureService(new Semaphore(2), digestResolver);
+        padesService = new PAdESSignatureService(new FixedSigningLimiter(2), digestResolver);
 
-        wsService = new WsSecuritySignatureService(new Semaphore(2), digestResolver);
+        wsService = new WsSecuritySignatureService(new FixedSigningLimiter(2), digestResolver);
     }
 
     // ════════════════════════════════════════════════════════════════════
@@ -2,6 +2,7 @@ package io.mersel.dss.signer.api.e2e.verifier;
 
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter;
 import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
 import io.mersel.dss.signer.api.services.signature.pades.PAdESSignatureService;
 import io.mersel.dss.signer.api.testsupport.SignedArtifactExporter;
@@ -16,7 +17,6 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 
 import java.io.ByteArrayInputStream;
-import java.util.concurrent.Semaphore;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -54,7 +54,7 @@ class PAdESDocumentVariationsE2ETest extends AbstractVerifierE2ETest {
     @BeforeAll
     static void initSigningStack() {
         padesSignatureService = new PAdESSignatureService(
-                new Semaphore(2),
+                new FixedSigningLimiter(2),
                 new DigestAlgorithmResolverService());
         defaultMaterial = E2eSigningBackend.PFX_JCA.load(PfxTestKey.positiveValues()[0]);
     }
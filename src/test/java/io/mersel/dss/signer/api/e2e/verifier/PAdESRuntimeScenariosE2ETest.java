@@ -14,6 +14,7 @@ import com.itextpdf.text.pdf.TextField;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter;
 import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
 import io.mersel.dss.signer.api.services.signature.pades.PAdESSignatureService;
 import io.mersel.dss.signer.api.testsupport.SignedArtifactExporter;
@@ -35,7 +36,6 @@ import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Semaphore;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -59,7 +59,7 @@ import static org.junit.jupiter.api.Assertions.fail;
  *       signature dictionary görmeli.</li>
  *   <li><b>Encrypted PDF (B-encrypted)</b> — User password ile şifrelenmiş
  *       PDF'i signer'a gönderdiğinde davranış. Signer şu an
- *       {@code new PdfReader(stream)} kullanır (password vermez);
+ *       {@code PdfReader}'ı password vermeden açar;
  *       şifreli PDF için {@link SignatureException} fırlatması beklenir.
  *       Sessiz bir başarı olursa imza kullanılamaz hâle gelir, bu
  *       prod-tetikleyici regression — açıkça fail.</li>
@@ -91,7 +91,7 @@ class PAdESRuntimeScenariosE2ETest {
     @BeforeAll
     static void initSigningStack() {
         padesSignatureService = new PAdESSignatureService(
-                new Semaphore(2),
+                new FixedSigningLimiter(2),
                 new DigestAlgorithmResolverService());
         defaultMaterial = E2eSigningBackend.PFX_JCA.load(PfxTestKey.positiveValues()[0]);
     }
@@ -145,7 +145,7 @@ class PAdESRuntimeScenariosE2ETest {
     /**
      * B-encrypted: User-password ile şifreli PDF için signer davranışı.
      *
-     * <p>Şu an signer {@code new PdfReader(stream)} kullanıyor — password
+     * <p>Şu an signer spool dosyasını {@code PdfReader} ile açıyor — password
      * vermeden. iText 5.x bu durumda <b>BadPasswordException</b>
      * (IOException alt sınıfı) fırlatır; service bunu yakalayıp
      * {@link SignatureException} olarak sarar (gözlem: catch (Exception)
@@ -2,6 +2,7 @@ package io.mersel.dss.signer.api.e2e.verifier;
 
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter;
 import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
 import io.mersel.dss.signer.api.services.signature.pades.PAdESSignatureService;
 import io.mersel.dss.signer.api.testsupport.SignedArtifactExporter;
@@ -17,7 +18,6 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.io.ByteArrayInputStream;
-import java.util.concurrent.Semaphore;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -49,7 +49,7 @@ class PAdESSignAndVerifyE2ETest extends AbstractVerifierE2ETest {
     static void initSigningStack() {
         DigestAlgorithmResolverService digestResolver = new DigestAlgorithmResolverService();
         padesSignatureService = new PAdESSignatureService(
-                new Semaphore(2), digestResolver);
+                new FixedSigningLimiter(2), digestResolver);
     }
 
     static Stream<Arguments> pfxAndBackendMatrix() {
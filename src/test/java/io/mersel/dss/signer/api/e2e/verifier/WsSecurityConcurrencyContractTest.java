@@ -2,6 +2,7 @@ package io.mersel.dss.signer.api.e2e.verifier;
 
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter;
 import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
 import io.mersel.dss.signer.api.services.signature.wssecurity.WsSecuritySignatureService;
 import io.mersel.dss.signer.api.testsupport.SignedArtifactExporter;
@@ -40,7 +41,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
  *
  * <p>D grubu (WSS ek) için son madde: 10 paralel iş yükü altında
  * {@link WsSecuritySignatureService} hem doğru imza üretmeli hem
- * de paylaşılan {@code signatureSemaphore} bean'inin permits
+ * de paylaşılan {@code signingLimiter} bean'inin permits
  * limitini aşmamalı.</p>
  *
  * <p><b>WSS neden ayrı tutuldu?</b> CAdES için
@@ -76,7 +77,7 @@ class WsSecurityConcurrencyContractTest {
     static void initSigningStack() {
         sharedSemaphore = new Semaphore(SEMAPHORE_PERMITS);
         wsService = new WsSecuritySignatureService(
-                sharedSemaphore,
+                new FixedSigningLimiter(sharedSemaphore),
                 new DigestAlgorithmResolverService());
         defaultMaterial = E2eSigningBackend.PFX_JCA.load(PfxTestKey.positiveValues()[0]);
     }
@@ -2,6 +2,7 @@ package io.mersel.dss.signer.api.e2e.verifier;
 
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter;
 import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
 import io.mersel.dss.signer.api.services.signature.wssecurity.WsSecuritySignatureService;
 import io.mersel.dss.signer.api.testsupport.SignedArtifactExporter;
@@ -26,7 +27,6 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Semaphore;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -84,7 +84,7 @@ class WsSecurityContractE2ETest {
     @BeforeAll
     static void initSigningStack() {
         wsService = new WsSecuritySignatureService(
-                new Semaphore(2),
+                new FixedSigningLimiter(2),
                 new DigestAlgorithmResolverService());
         // Default: ilk PfxTestKey (deterministic) + PFX/JCA backend (kontrat
         // HSM yolu için de aynıdır, JCA daha hızlı koşar).
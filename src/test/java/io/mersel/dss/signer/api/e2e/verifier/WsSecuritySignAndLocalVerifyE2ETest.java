@@ -2,6 +2,7 @@ package io.mersel.dss.signer.api.e2e.verifier;
 
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter;
 import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
 import io.mersel.dss.signer.api.services.keystore.iaik.Pkcs11EcdsaSignatureEncoder;
 import io.mersel.dss.signer.api.services.signature.wssecurity.WsSecuritySignatureService;
@@ -27,7 +28,6 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.ByteArrayInputStream;
 import java.security.interfaces.ECPublicKey;
 import java.util.Base64;
-import java.util.concurrent.Semaphore;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -97,7 +97,7 @@ class WsSecuritySignAndLocalVerifyE2ETest {
     @BeforeAll
     static void initSigningStack() {
         wsService = new WsSecuritySignatureService(
-                new Semaphore(2),
+                new FixedSigningLimiter(2),
                 new DigestAlgorithmResolverService());
     }
 
@@ -10,6 +10,7 @@ import io.mersel.dss.signer.api.models.enums.XadesSignatureLevel;
 import io.mersel.dss.signer.api.services.SigningMaterialFactory;
 import io.mersel.dss.signer.api.services.certificate.CertificateChainBuilderService;
 import io.mersel.dss.signer.api.services.certificate.CertificateValidatorService;
+import io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter;
 import io.mersel.dss.signer.api.services.crypto.CryptoSignerService;
 import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
 import io.mersel.dss.signer.api.services.crypto.SignatureAlgorithmResolverService;
@@ -46,7 +47,6 @@ import java.util.EnumMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.Semaphore;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -299,6 +299,6 @@ class XadesSoftHsmVerifierE2ETest extends AbstractVerifierE2ETest {
                 crypto,
                 verifier,
                 compression,
-                new Semaphore(2));
+                new FixedSigningLimiter(2));
     }
 }
@@ -1,5 +1,6 @@
 package io.mersel.dss.signer.api.models;
 
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.enumerations.SignatureAlgorithm;
 import eu.europa.esig.dss.model.x509.CertificateToken;
 import io.mersel.dss.signer.api.services.keystore.iaik.Pkcs11Signer;
@@ -7,7 +8,17 @@ import io.qameta.allure.Epic;
 import io.qameta.allure.Feature;
 import io.qameta.allure.Severity;
 import io.qameta.allure.SeverityLevel;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.DERSet;
+import org.bouncycastle.asn1.cms.Attribute;
+import org.bouncycastle.asn1.ess.ESSCertIDv2;
+import org.bouncycastle.asn1.ess.SigningCertificateV2;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
 import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.IssuerSerial;
 import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
 import org.bouncycastle.cert.X509v3CertificateBuilder;
 import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
@@ -20,6 +31,7 @@ import org.junit.jupiter.api.Test;
 import java.math.BigInteger;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
 import java.security.PrivateKey;
 import java.security.Signature;
 import java.security.cert.X509Certificate;
@@ -28,9 +40,11 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -177,6 +191,25 @@ class SigningMaterialTest {
             assertSame(expected, result);
         }
 
+        @Test
+        void withSigningBackend_routesSignButKeepsKeyBackend() {
+            // Mikro-toplu dispatcher takıldığında imza sarmalayıcıdan geçmeli,
+            // heartbeat'in kullandığı Pkcs11Signer ise değişmemeli.
+            Pkcs11Signer hsm = mock(Pkcs11Signer.class);
+            SigningBackend wrapper = mock(SigningBackend.class);
+            byte[] expected = new byte[]{0x03};
+            when(wrapper.sign(any(byte[].class), any(SignatureAlgorithm.class))).thenReturn(expected);
+            SigningMaterial material = new SigningMaterial(hsm, selfSignedCert,
+                Collections.singletonList(selfSignedCert));
+
+            SigningMaterial wrapped = material.withSigningBackend(wrapper);
+
+            assertSame(expected, wrapped.sign(new byte[]{0x10}, SignatureAlgorithm.RSA_SHA256));
+            assertSame(wrapper, wrapped.getSigningBackend());
+            assertSame(hsm, wrapped.getPkcs11Signer());
+            assertSame(selfSignedCert, wrapped.getSigningCertificate());
+        }
+
     }
 
     // ----------------------------------------------------------------
@@ -209,6 +242,56 @@ class SigningMaterialTest {
         }
     }
 
+    // ----------------------------------------------------------------
+    // Sertifika ön hesaplamaları
+    // ----------------------------------------------------------------
+
+    @Nested
+    @DisplayName("Sertifika ön hesaplamaları")
+    class PrecomputedCertificate {
+
+        @Test
+        void shouldMatchFreshlyBuiltSigningCertificateV2() throws Exception {
+            SigningMaterial material = new SigningMaterial(
+                rsaKeyPair.getPrivate(), selfSignedCert,
+                Collections.singletonList(selfSignedCert));
+
+            PrecomputedSigningCertificate precomputed =
+                material.getPrecomputedCertificate(DigestAlgorithm.SHA256);
+
+            byte[] expectedDigest = MessageDigest.getInstance("SHA-256").digest(selfSignedCert.getEncoded());
+            assertArrayEquals(expectedDigest, precomputed.getCertificateDigest());
+            IssuerSerial issuerSerial = new IssuerSerial(
+                new GeneralNames(new GeneralName(
+                    X500Name.getInstance(selfSignedCert.getIssuerX500Principal().getEncoded()))),
+                selfSignedCert.getSerialNumber());
+            Attribute expected = new Attribute(PKCSObjectIdentifiers.id_aa_signingCertificateV2,
+                new DERSet(new SigningCertificateV2(new ESSCertIDv2[]{new ESSCertIDv2(
+                    new AlgorithmIdentifier(new ASN1ObjectIdentifier(DigestAlgorithm.SHA256.getOid())),
+                    expectedDigest, issuerSerial)})));
+            assertArrayEquals(expected.getEncoded(), precomputed.getSigningCertificateV2().getEncoded());
+            assertEquals(1, precomputed.getCertificateStore().getMatches(null).size());
+        }
+
+        @Test
+        void shouldBeComputedOncePerDigestAlgorithmAndSharedWithBackendCopies() {
+            SigningMaterial material = new SigningMaterial(
+                rsaKeyPair.getPrivate(), selfSignedCert,
+                Collections.singletonList(selfSignedCert));
+            SigningMaterial dispatched = material.withSigningBackend(mock(SigningBackend.class));
+
+            PrecomputedSigningCertificate sha256 = material.getPrecomputedCertificate(DigestAlgorithm.SHA256);
+            PrecomputedSigningCertificate sha384 = material.getPrecomputedCertificate(DigestAlgorithm.SHA384);
+
+            assertSame(sha256, material.getPrecomputedCertificate(DigestAlgorithm.SHA256));
+            assertSame(sha256, dispatched.getPrecomputedCertificate(DigestAlgorithm.SHA256),
+                "withSigningBackend kopyası aynı ön hesaplamaları paylaşmalı");
+            assertNotSame(sha256, sha384);
+            assertEquals(DigestAlgorithm.SHA384, sha384.getDigestAlgorithm());
+            assertEquals(48, sha384.getCertificateDigest().length);
+        }
+    }
+
     // ----------------------------------------------------------------
     // Immutability garantileri
     // ----------------------------------------------------------------
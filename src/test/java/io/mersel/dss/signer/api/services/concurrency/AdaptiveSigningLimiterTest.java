@@ -0,0 +1,240 @@
+package io.mersel.dss.signer.api.services.concurrency;
+
+import io.mersel.dss.signer.api.exceptions.SigningCapacityException;
+import io.mersel.dss.signer.api.models.enums.SignatureFormat;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link AdaptiveSigningLimiter} sözleşme testleri: limit uygulaması, sınırlı
+ * kuyruk ve zaman aşımı reddi, öncelik sırası, AIMD limit güncellemesi ve
+ * thread'den bağımsız gecikme ölçümü; {@link FixedSigningLimiter} sarmalaması.
+ *
+ * <p>AIMD testleri {@code recordSample} ile sentetik gecikme örneği verir;
+ * gerçek uyku süresine bağlı değildir.</p>
+ */
+@Epic("Concurrency")
+@Feature("Adaptive Signing Limiter")
+@Severity(SeverityLevel.CRITICAL)
+class AdaptiveSigningLimiterTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static AdaptiveSigningLimiter limiter(int min, int max, int queue, long timeoutMs) {
+        return new AdaptiveSigningLimiter(min, max, queue, timeoutMs, 100, 0.5,
+                Collections.<SignatureFormat, AdaptiveSigningLimiter.Priority>emptyMap());
+    }
+
+    @Test
+    @DisplayName("Limit kadar permit verilir, fazlası beklemeden alınamaz")
+    void enforcesLimit() throws Exception {
+        AdaptiveSigningLimiter limiter = limiter(1, 2, 0, 1000);
+
+        long first = limiter.acquire(SignatureFormat.XADES);
+        limiter.acquire(SignatureFormat.CADES);
+
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(0, limiter.availablePermits());
+        assertThrows(SigningCapacityException.class, () -> limiter.acquire(SignatureFormat.PADES));
+
+        limiter.release(first);
+        assertEquals(1, limiter.availablePermits());
+        limiter.acquire(SignatureFormat.PADES);
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Kuyruk doluyken gelen istek QUEUE_FULL ile reddedilir ve format bazında sayılır")
+    void rejectsWhenQueueFull() throws Exception {
+        AdaptiveSigningLimiter limiter = limiter(1, 1, 0, 1000);
+        limiter.acquire(SignatureFormat.XADES);
+
+        SigningCapacityException ex = assertThrows(SigningCapacityException.class,
+                () -> limiter.acquire(SignatureFormat.PADES));
+
+        assertEquals(SigningCapacityException.Reason.QUEUE_FULL, ex.getReason());
+        assertEquals("SIGNING_QUEUE_FULL", ex.getErrorCode());
+        assertTrue(ex.getRetryAfterSeconds() >= 1);
+        assertEquals(1, limiter.getRejections(SigningCapacityException.Reason.QUEUE_FULL, SignatureFormat.PADES));
+        assertEquals(0, limiter.getRejections(SigningCapacityException.Reason.QUEUE_FULL, SignatureFormat.XADES));
+        assertEquals(1, limiter.getInFlight(), "Reddedilen istek permit tutmamalı");
+    }
+
+    @Test
+    @DisplayName("Zaman aşımı içinde permit alınamazsa TIMEOUT fırlatılır ve kuyruk boşalır")
+    void timesOutWhileQueued() throws Exception {
+        AdaptiveSigningLimiter limiter = limiter(1, 1, 5, 50);
+        limiter.acquire(SignatureFormat.XADES);
+
+        SigningCapacityException ex = assertThrows(SigningCapacityException.class,
+                () -> limiter.acquire(SignatureFormat.CADES));
+
+        assertEquals(SigningCapacityException.Reason.TIMEOUT, ex.getReason());
+        assertEquals("SIGNING_TIMEOUT", ex.getErrorCode());
+        assertEquals(0, limiter.getQueueDepth());
+        assertEquals(1, limiter.getRejections(SigningCapacityException.Reason.TIMEOUT, SignatureFormat.CADES));
+    }
+
+    @Test
+    @DisplayName("Boşalan permit önce yüksek öncelikli bekleyene, aynı öncelikte geliş sırasına verilir")
+    void servesWaitersByPriorityThenArrival() throws Exception {
+        Map<SignatureFormat, AdaptiveSigningLimiter.Priority> priorities =
+                AdaptiveSigningLimiter.parsePriorities("WSSECURITY:HIGH,PADES:LOW");
+        AdaptiveSigningLimiter limiter = new AdaptiveSigningLimiter(1, 1, 10, 5000, 1000, 0.5, priorities);
+        long held = limiter.acquire(SignatureFormat.XADES);
+
+        List<SignatureFormat> order = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            SignatureFormat[] arrivals = {SignatureFormat.PADES, SignatureFormat.XADES,
+                    SignatureFormat.CADES, SignatureFormat.WSSECURITY};
+            Future<?>[] futures = new Future<?>[arrivals.length];
+            for (int i = 0; i < arrivals.length; i++) {
+                SignatureFormat format = arrivals[i];
+                futures[i] = executor.submit(() -> {
+                    long permit = limiter.acquire(format);
+                    order.add(format);
+                    limiter.release(permit);
+                    return null;
+                });
+                awaitQueueDepth(limiter, i + 1);
+            }
+
+            limiter.release(held);
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(Arrays.asList(SignatureFormat.WSSECURITY, SignatureFormat.XADES,
+                SignatureFormat.CADES, SignatureFormat.PADES), order);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Eşiği aşan gecikme limiti çarpımsal düşürür; aynı dalgadaki örnekler tekrar düşürmez")
+    void multiplicativeDecreaseOncePerWave() {
+        AdaptiveSigningLimiter limiter = limiter(1, 8, 0, 1000);
+        long start = System.nanoTime() + MS;
+
+        limiter.recordSample(start, start + 500 * MS, true);
+        assertEquals(4, limiter.getLimit());
+
+        // Düşüşten önce başlamış yavaş çağrı: aynı aşırı yük dalgası.
+        limiter.recordSample(start + MS, start + 501 * MS, true);
+        assertEquals(4, limiter.getLimit());
+
+        // Düşüşten sonra başlamış yavaş çağrı: yeni kanıt.
+        limiter.recordSample(start + 600 * MS, start + 1200 * MS, true);
+        assertEquals(2, limiter.getLimit());
+
+        limiter.recordSample(start + 1300 * MS, start + 1900 * MS, true);
+        limiter.recordSample(start + 2000 * MS, start + 2600 * MS, true);
+        assertEquals(1, limiter.getLimit(), "Limit minLimit altına inmemeli");
+    }
+
+    @Test
+    @DisplayName("Doygun durumda hızlı örnekler limiti eklemeli olarak maxLimit'e kadar artırır")
+    void additiveIncreaseWhenSaturated() {
+        AdaptiveSigningLimiter limiter = limiter(1, 4, 0, 1000);
+        long start = System.nanoTime() + MS;
+        limiter.recordSample(start, start + 500 * MS, true);
+        assertEquals(2, limiter.getLimit());
+
+        long t = start + 600 * MS;
+        // Doygun değilken hızlı örnekler limiti değiştirmez.
+        for (int i = 0; i < 10; i++) {
+            limiter.recordSample(t, t + 5 * MS, false);
+        }
+        assertEquals(2, limiter.getLimit());
+
+        // 2 → 2.5 → 2.9 → 3.24: yaklaşık "limit kadar" örnekte bir permit.
+        for (int i = 0; i < 3; i++) {
+            limiter.recordSample(t, t + 5 * MS, true);
+        }
+        assertEquals(3, limiter.getLimit());
+
+        for (int i = 0; i < 20; i++) {
+            limiter.recordSample(t, t + 5 * MS, true);
+        }
+        assertEquals(4, limiter.getLimit(), "Limit maxLimit üstüne çıkmamalı");
+    }
+
+    @Test
+    @DisplayName("Permit başka thread'de bırakılsa da gecikme örneği acquire anından ölçülür")
+    void releaseOnAnotherThreadRecordsLatency() throws Exception {
+        AdaptiveSigningLimiter limiter = limiter(1, 2, 0, 1000);
+        long permit = limiter.acquire(SignatureFormat.XADES);
+        Thread.sleep(20);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> limiter.release(permit)).get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, limiter.getInFlight());
+        assertTrue(limiter.getAverageLatencyMillis() >= 20,
+                "örnek kaybolmamalı; ortalama=" + limiter.getAverageLatencyMillis());
+    }
+
+    @Test
+    @DisplayName("Sabit limiter semaphore permit'lerini tüketir ve iade eder")
+    void fixedLimiterWrapsSemaphore() throws Exception {
+        Semaphore permits = new Semaphore(1);
+        FixedSigningLimiter fixed = new FixedSigningLimiter(permits);
+
+        long permit = fixed.acquire(SignatureFormat.PADES);
+        assertEquals(0, permits.availablePermits());
+
+        fixed.release(permit);
+        assertEquals(1, fixed.availablePermits());
+    }
+
+    @Test
+    @DisplayName("Öncelik tanımı çözülür; bilinmeyen format veya öncelik reddedilir")
+    void parsesPriorities() {
+        Map<SignatureFormat, AdaptiveSigningLimiter.Priority> parsed =
+                AdaptiveSigningLimiter.parsePriorities(" wssecurity:high , PADES:LOW ");
+
+        assertEquals(AdaptiveSigningLimiter.Priority.HIGH, parsed.get(SignatureFormat.WSSECURITY));
+        assertEquals(AdaptiveSigningLimiter.Priority.LOW, parsed.get(SignatureFormat.PADES));
+        assertEquals(2, parsed.size());
+        assertTrue(AdaptiveSigningLimiter.parsePriorities("").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> AdaptiveSigningLimiter.parsePriorities("XADES"));
+        assertThrows(IllegalArgumentException.class, () -> AdaptiveSigningLimiter.parsePriorities("ODF:HIGH"));
+        assertThrows(IllegalArgumentException.class, () -> AdaptiveSigningLimiter.parsePriorities("XADES:URGENT"));
+    }
+
+    private static void awaitQueueDepth(AdaptiveSigningLimiter limiter, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.getQueueDepth() < expected) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Kuyruk derinliği " + expected + " olmadı");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
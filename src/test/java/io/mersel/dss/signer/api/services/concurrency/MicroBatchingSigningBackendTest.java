@@ -0,0 +1,329 @@
+package io.mersel.dss.signer.api.services.concurrency;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.SignatureAlgorithm;
+import io.mersel.dss.signer.api.models.BatchSignResult;
+import io.mersel.dss.signer.api.models.SigningBackend;
+import io.mersel.dss.signer.api.models.enums.SignatureFormat;
+import io.mersel.dss.signer.api.services.metrics.SigningMicroBatchMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link MicroBatchingSigningBackend} sözleşme testleri: eş zamanlı tekil
+ * çağrıların tek toplu işte birleşmesi, her çağıranın kendi imzasını alması,
+ * algoritmaya göre gruplama ve öğe hatasının tekil yoldan yeniden denenmesi.
+ *
+ * <p>Sahte backend imza olarak {@code "<mod>:<payload>"} döner; böylece
+ * sonucun doğru çağırana gittiği byte düzeyinde doğrulanır.</p>
+ */
+@Epic("Concurrency")
+@Feature("Signing Micro-Batching")
+@Severity(SeverityLevel.CRITICAL)
+class MicroBatchingSigningBackendTest {
+
+    private MicroBatchingSigningBackend dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Pencerede gelen eş zamanlı çağrılar tek toplu işte birleşir, herkes kendi imzasını alır")
+    void coalescesConcurrentCalls() throws Exception {
+        RecordingBackend backend = new RecordingBackend();
+        // Geniş pencere; erken kapanış maxBatchSize ile tetiklenir.
+        dispatcher = new MicroBatchingSigningBackend(backend, 2_000_000, 8, 4, null,
+                new SigningMicroBatchMetrics(new SimpleMeterRegistry()));
+
+        List<String> results = signConcurrently(8, i -> new String(
+                dispatcher.sign(bytes("doc-" + i), SignatureAlgorithm.RSA_SHA256), StandardCharsets.UTF_8));
+
+        for (int i = 0; i < 8; i++) {
+            assertEquals("raw:doc-" + i, results.get(i));
+        }
+        assertEquals(1, backend.batchSizes.size(), "Tek toplu iş bekleniyordu: " + backend.batchSizes);
+        assertEquals(8, backend.batchSizes.get(0).intValue());
+        assertEquals(0, backend.singleCalls.size());
+    }
+
+    @Test
+    @DisplayName("Farklı mod ve algoritmalar ayrı toplu işlere gruplanır")
+    void groupsByModeAndAlgorithm() throws Exception {
+        RecordingBackend backend = new RecordingBackend();
+        dispatcher = new MicroBatchingSigningBackend(backend, 2_000_000, 4, 4, null, null);
+
+        List<String> results = signConcurrently(4, i -> new String(i % 2 == 0
+                ? dispatcher.sign(bytes("d" + i), SignatureAlgorithm.RSA_SHA256)
+                : dispatcher.signDigest(bytes("h" + i), DigestAlgorithm.SHA256), StandardCharsets.UTF_8));
+
+        assertEquals("raw:d0", results.get(0));
+        assertEquals("digest:h1", results.get(1));
+        assertEquals("raw:d2", results.get(2));
+        assertEquals("digest:h3", results.get(3));
+        assertEquals(2, backend.batchSizes.size());
+        assertEquals(4, backend.batchSizes.stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    @DisplayName("Eş zamanlı toplu iş sayısı dispatcher thread sayısını aşmaz")
+    void dispatcherPoolIsBounded() throws Exception {
+        RecordingBackend backend = new RecordingBackend();
+        backend.batchDelayMillis = 100;
+        dispatcher = new MicroBatchingSigningBackend(backend, 2_000_000, 4, 1, null, null);
+
+        // Tek pencerede iki grup (raw + digest) oluşur; tek dispatcher thread'i sırayla imzalar.
+        List<String> results = signConcurrently(4, i -> new String(i % 2 == 0
+                ? dispatcher.sign(bytes("d" + i), SignatureAlgorithm.RSA_SHA256)
+                : dispatcher.signDigest(bytes("h" + i), DigestAlgorithm.SHA256), StandardCharsets.UTF_8));
+
+        assertEquals("digest:h3", results.get(3));
+        assertEquals(2, backend.batchSizes.size());
+        assertEquals(1, backend.peakBatches.get(), "Toplu işler paralel çalışmamalı");
+    }
+
+    @Test
+    @DisplayName("Adaptif limiter ile: pencere beklemesi gecikme örneğine girmez, limit düşmez")
+    void windowWaitIsNotSampledByAdaptiveLimiter() throws Exception {
+        RecordingBackend backend = new RecordingBackend();
+        // Eşik 50 ms, pencere 300 ms: pencere örneğe girseydi limit 8 → 4 düşerdi.
+        AdaptiveSigningLimiter limiter = new AdaptiveSigningLimiter(1, 8, 100, 0, 50, 0.5, null);
+        dispatcher = new MicroBatchingSigningBackend(backend, 300_000, 8, 4, limiter, null);
+
+        List<String> results = signConcurrently(4, i -> {
+            try {
+                long permit = limiter.acquire(SignatureFormat.XADES);
+                try {
+                    return new String(dispatcher.sign(bytes("doc-" + i), SignatureAlgorithm.RSA_SHA256),
+                            StandardCharsets.UTF_8);
+                } finally {
+                    limiter.release(permit);
+                }
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertEquals("raw:doc-3", results.get(3));
+        assertEquals(1, backend.batchSizes.size(), "Pencere tek toplu işte birleşmeli: " + backend.batchSizes);
+        assertEquals(4, backend.batchSizes.get(0).intValue());
+        assertEquals(8, limiter.getLimit(), "Pencere beklemesi limiti düşürmemeli");
+        assertTrue(limiter.getAverageLatencyMillis() < 50,
+                "Örnek yalnızca HSM süresi olmalı: " + limiter.getAverageLatencyMillis());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Adaptif limiter ile: doğrudan iletilen büyük toplu çağrı limiti ve gecikme ortalamasını etkilemez")
+    void passThroughBatchIsNotSampled() {
+        RecordingBackend backend = new RecordingBackend();
+        backend.batchDelayMillis = 100;
+        AdaptiveSigningLimiter limiter = new AdaptiveSigningLimiter(1, 8, 100, 0, 50, 0.5, null);
+        dispatcher = new MicroBatchingSigningBackend(backend, 1_000, 8, 4, limiter, null);
+
+        List<byte[]> digests = new ArrayList<byte[]>();
+        for (int i = 0; i < 1000; i++) {
+            digests.add(bytes("h" + i));
+        }
+        List<BatchSignResult> results = dispatcher.signDigestBatch(digests, DigestAlgorithm.SHA256);
+
+        assertEquals(1000, results.size());
+        assertEquals(8, limiter.getLimit(), "Permit tutmayan toplu çağrı limiti düşürmemeli");
+        assertEquals(0.0, limiter.getAverageLatencyMillis());
+    }
+
+    @Test
+    @DisplayName("Toplu işte başarısız öğe tekil yoldan denenir; çağıran tekil exception tipini görür")
+    void failedItemIsRetriedSingly() throws Exception {
+        RecordingBackend backend = new RecordingBackend();
+        backend.rejectPayload = "bad";
+        dispatcher = new MicroBatchingSigningBackend(backend, 2_000_000, 3, 4, null, null);
+
+        List<Object> outcomes = new CopyOnWriteArrayList<Object>();
+        signConcurrently(3, i -> {
+            try {
+                return new String(dispatcher.signDigest(bytes(i == 1 ? "bad" : "ok" + i), DigestAlgorithm.SHA256),
+                        StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                outcomes.add(e);
+                return "rejected";
+            }
+        });
+
+        assertEquals(1, outcomes.size());
+        assertEquals(1, backend.singleCalls.size(), "Yalnız başarısız öğe tekil denenmeli");
+        assertEquals("bad", backend.singleCalls.get(0));
+    }
+
+    @Test
+    @DisplayName("Toplu çağrının kendisi hata verirse tüm bekleyenler aynı hatayı alır")
+    void batchFailurePropagatesToAllCallers() throws Exception {
+        RecordingBackend backend = new RecordingBackend();
+        backend.failBatch = true;
+        dispatcher = new MicroBatchingSigningBackend(backend, 2_000_000, 2, 4, null, null);
+
+        List<String> outcomes = signConcurrently(2, i -> {
+            try {
+                dispatcher.sign(bytes("x" + i), SignatureAlgorithm.RSA_SHA256);
+                return "signed";
+            } catch (IllegalStateException e) {
+                return e.getMessage();
+            }
+        });
+
+        assertEquals("token kapalı", outcomes.get(0));
+        assertEquals("token kapalı", outcomes.get(1));
+    }
+
+    @Test
+    @DisplayName("Tek başına gelen çağrı pencere dolunca tekil yoldan imzalanır")
+    void lonelyCallIsSignedAfterWindow() {
+        RecordingBackend backend = new RecordingBackend();
+        dispatcher = new MicroBatchingSigningBackend(backend, 1_000, 8, 4, null, null);
+
+        byte[] signature = dispatcher.sign(bytes("solo"), SignatureAlgorithm.RSA_SHA256);
+
+        assertArrayEquals(bytes("raw:solo"), signature);
+        assertEquals(1, backend.singleCalls.size());
+        assertTrue(backend.batchSizes.isEmpty());
+    }
+
+    @Test
+    @DisplayName("shutdown sonrası çağrılar doğrudan delegate'e gider")
+    void afterShutdownCallsGoDirect() {
+        RecordingBackend backend = new RecordingBackend();
+        dispatcher = new MicroBatchingSigningBackend(backend, 1_000, 8, 4, null, null);
+        dispatcher.shutdown();
+
+        assertArrayEquals(bytes("digest:z"), dispatcher.signDigest(bytes("z"), DigestAlgorithm.SHA256));
+        assertEquals(1, backend.singleCalls.size());
+    }
+
+    private interface IndexedCall {
+        String call(int index);
+    }
+
+    /** {@code n} çağrıyı aynı anda başlatır; sonuçlar çağrı sırasıyla döner. */
+    private static List<String> signConcurrently(int n, IndexedCall call) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(n);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> futures = new ArrayList<Future<String>>();
+            for (int i = 0; i < n; i++) {
+                final int index = i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return call.call(index);
+                }));
+            }
+            start.countDown();
+            List<String> results = new ArrayList<String>();
+            for (Future<String> f : futures) {
+                results.add(f.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Toplu ve tekil çağrıları kaydeden sahte backend. */
+    private static final class RecordingBackend implements SigningBackend {
+        final List<Integer> batchSizes = new CopyOnWriteArrayList<Integer>();
+        final List<String> singleCalls = new CopyOnWriteArrayList<String>();
+        final AtomicInteger activeBatches = new AtomicInteger();
+        final AtomicInteger peakBatches = new AtomicInteger();
+        volatile String rejectPayload;
+        volatile boolean failBatch;
+        volatile long batchDelayMillis;
+
+        @Override
+        public String getName() {
+            return "test";
+        }
+
+        @Override
+        public boolean isPkcs11() {
+            return true;
+        }
+
+        @Override
+        public byte[] sign(byte[] dataToSign, SignatureAlgorithm signatureAlgorithm) {
+            singleCalls.add(new String(dataToSign, StandardCharsets.UTF_8));
+            return signOne("raw:", dataToSign);
+        }
+
+        @Override
+        public byte[] signDigest(byte[] digest, DigestAlgorithm digestAlgorithm) {
+            singleCalls.add(new String(digest, StandardCharsets.UTF_8));
+            return signOne("digest:", digest);
+        }
+
+        @Override
+        public List<BatchSignResult> signBatch(List<byte[]> dataToSign, SignatureAlgorithm signatureAlgorithm) {
+            return batch("raw:", dataToSign);
+        }
+
+        @Override
+        public List<BatchSignResult> signDigestBatch(List<byte[]> digests, DigestAlgorithm digestAlgorithm) {
+            return batch("digest:", digests);
+        }
+
+        private List<BatchSignResult> batch(String prefix, List<byte[]> items) {
+            if (failBatch) {
+                throw new IllegalStateException("token kapalı");
+            }
+            batchSizes.add(items.size());
+            int active = activeBatches.incrementAndGet();
+            peakBatches.accumulateAndGet(active, Math::max);
+            try {
+                if (batchDelayMillis > 0) {
+                    Thread.sleep(batchDelayMillis);
+                }
+                return BatchSignResult.sequential(items, item -> signOne(prefix, item));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("kesildi", e);
+            } finally {
+                activeBatches.decrementAndGet();
+            }
+        }
+
+        private byte[] signOne(String prefix, byte[] payload) {
+            String text = new String(payload, StandardCharsets.UTF_8);
+            if (text.equals(rejectPayload)) {
+                throw new IllegalArgumentException("geçersiz digest: " + text);
+            }
+            return bytes(prefix + text);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package io.mersel.dss.signer.api.services.keystore.iaik;
+
+import io.mersel.dss.signer.api.models.BatchSignResult;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link IaikPkcs11Module#signBatchOnSessions} fan-out davranışı.
+ *
+ * <p>Gerçek HSM gerekmez: modül hiç initialize edilmeden yalnızca toplu
+ * dağıtım mantığı (sıra koruma, öğe bazında hata, session sayısı kadar
+ * paralellik) doğrulanır.</p>
+ */
+@Epic("PKCS#11 Integration")
+@Feature("IAIK Module — Batch Sign")
+@Severity(SeverityLevel.CRITICAL)
+class IaikPkcs11ModuleBatchSignTest {
+
+    private final IaikPkcs11Module module = new IaikPkcs11Module("stub", null, null, null, false, 4);
+
+    @AfterEach
+    void tearDown() {
+        module.destroy();
+    }
+
+    @Test
+    @DisplayName("Sonuçlar girdi sırasıyla döner")
+    void resultsPreserveInputOrder() {
+        List<byte[]> items = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            items.add(new byte[]{(byte) i});
+        }
+
+        List<BatchSignResult> results = module.signBatchOnSessions(items, d -> {
+            sleep(d[0] % 3);
+            return new byte[]{d[0], (byte) 0x7F};
+        });
+
+        assertEquals(50, results.size());
+        for (int i = 0; i < 50; i++) {
+            assertTrue(results.get(i).isSuccess());
+            assertArrayEquals(new byte[]{(byte) i, (byte) 0x7F}, results.get(i).getSignature());
+        }
+    }
+
+    @Test
+    @DisplayName("Tek öğenin hatası diğerlerini etkilemez; hata öğe bazında raporlanır")
+    void failureIsReportedPerItem() {
+        List<byte[]> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            items.add(new byte[]{(byte) i});
+        }
+
+        List<BatchSignResult> results = module.signBatchOnSessions(items, d -> {
+            if (d[0] == 3) {
+                throw new IllegalStateException("CKR_DEVICE_ERROR");
+            }
+            return d;
+        });
+
+        for (int i = 0; i < 10; i++) {
+            if (i == 3) {
+                assertFalse(results.get(i).isSuccess());
+                assertTrue(results.get(i).getErrorMessage().contains("CKR_DEVICE_ERROR"));
+            } else {
+                assertTrue(results.get(i).isSuccess(), "öğe " + i);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Paralellik session havuzu boyutuyla sınırlanır")
+    void parallelismIsBoundedBySessionPool() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<byte[]> items = Collections.nCopies(40, new byte[]{1});
+
+        module.signBatchOnSessions(items, d -> {
+            int now = inFlight.incrementAndGet();
+            peak.accumulateAndGet(now, Math::max);
+            sleep(5);
+            inFlight.decrementAndGet();
+            return d;
+        });
+
+        assertTrue(peak.get() > 1, "toplu imza paralel çalışmalı, peak=" + peak.get());
+        assertTrue(peak.get() <= 4, "session havuzu (4) aşılmamalı, peak=" + peak.get());
+    }
+
+    @Test
+    @DisplayName("Boş liste boş sonuç döner")
+    void emptyBatch() {
+        assertTrue(module.signBatchOnSessions(Collections.<byte[]>emptyList(), d -> d).isEmpty());
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -190,7 +190,7 @@ class SoftHsm2Pkcs11IntegrationTest {
     /**
      * H1: SoftHSM token üzerinde 2 thread paralel sign çağrısı. IAIK
      * PKCS#11 wrapper'ı kendi içinde session pool'u kontrol ediyor;
-     * dış servis katmanı {@code signatureSemaphore} ile sınırlandırıyor.
+     * dış servis katmanı {@code signingLimiter} ile sınırlandırıyor.
      *
      * <p>Bu test direkt {@link CryptoSignerService} çağırır (semaphore
      * yok). Amaç: alt katman IAIK + SoftHSM2 stack'i {@code C_Login} +
@@ -5,12 +5,18 @@ import io.mersel.dss.signer.api.services.keystore.iaik.bridge.Pkcs11BridgeDecisi
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.mock.env.MockEnvironment;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * {@link Pkcs11BridgeDecision} karar matrisi — özellikle <b>fail-safe</b>
@@ -68,6 +74,25 @@ class Pkcs11BridgeDecisionTest {
             Pkcs11BridgeDecision.decide(mismatchedDll.toString(), "auto", true));
     }
 
+    @Test
+    @DisplayName("Enabled koşulu: PKCS11_LIBRARY yoksa (PFX) pasif, in-process ve remote'ta aktif")
+    void enabledConditionFollowsStrategy() {
+        Pkcs11BridgeConditions.Enabled enabled = new Pkcs11BridgeConditions.Enabled();
+        assertFalse(enabled.matches(context(new MockEnvironment()), null));
+        assertTrue(enabled.matches(context(new MockEnvironment()
+            .withProperty("PKCS11_LIBRARY", "/yok/olmayan.dll")
+            .withProperty("PKCS11_BRIDGE_MODE", "in-process")), null));
+        assertTrue(enabled.matches(context(new MockEnvironment()
+            .withProperty("PKCS11_LIBRARY", "/yok/olmayan.dll")
+            .withProperty("PKCS11_BRIDGE_MODE", "remote")), null));
+    }
+
+    private static ConditionContext context(MockEnvironment environment) {
+        ConditionContext context = mock(ConditionContext.class);
+        when(context.getEnvironment()).thenReturn(environment);
+        return context;
+    }
+
     /**
      * Çalışan JVM'in <b>tersi</b> bitness'inde minimal geçerli bir PE/COFF
      * dosyası üretir; böylece auto modda deterministik "uyumsuz" kararı alınır.
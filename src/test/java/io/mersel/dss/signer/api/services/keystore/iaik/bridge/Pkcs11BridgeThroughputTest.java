@@ -0,0 +1,144 @@
+package io.mersel.dss.signer.api.services.keystore.iaik.bridge;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Köprü throughput ölçümü: aynı soket bütçesiyle (2 bağlantı) protokol v1
+ * (bağlantı başına tek istek) ve v2 (pipelined, {@code requestId} ile
+ * çoklama) için eşzamanlılığa göre ops/sn.
+ *
+ * <p>{@link StubPkcs11Module} 8 "HSM session"ı ve imza başına
+ * {@value #SIGN_LATENCY_MS} ms gecikmeyi taklit eder. v1'de 2 soket en fazla
+ * 2 session'ı meşgul edebilir; v2'de aynı 2 soket 8 session'ın hepsini
+ * doyurur — fark eşzamanlılık arttıkça açılır.</p>
+ *
+ * <p>Çalıştırma: {@code mvn test -Dgroups=bridge-throughput -DexcludedGroups=}</p>
+ */
+@Tag("bridge-throughput")
+class Pkcs11BridgeThroughputTest {
+
+    private static final String TOKEN = "throughput-token";
+    private static final int HSM_SESSIONS = 8;
+    private static final long SIGN_LATENCY_MS = 5;
+    private static final int SOCKETS = 2;
+    private static final long MEASURE_MS = 500;
+    private static final int[] CONCURRENCY = {1, 2, 4, 8, 16};
+
+    private Pkcs11HelperServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Pipelined (v2) köprü aynı soket sayısıyla v1'den belirgin yüksek ops/sn verir")
+    void pipelinedOutperformsSerialAtEqualSocketBudget() throws Exception {
+        int port = startServer();
+
+        Map<Integer, Double> v1 = new LinkedHashMap<>();
+        Map<Integer, Double> v2 = new LinkedHashMap<>();
+        try (Pkcs11ConnectionPool serial = new Pkcs11ConnectionPool(
+                target(port), SOCKETS, 2000, 10_000, 60_000L, 0L, 0);
+             Pkcs11ConnectionPool pipelined = new Pkcs11ConnectionPool(
+                target(port), 16, 2000, 10_000, 60_000L, 0L, SOCKETS)) {
+            for (int c : CONCURRENCY) {
+                v1.put(c, measure(serial, c));
+                v2.put(c, measure(pipelined, c));
+            }
+        }
+
+        System.out.println("---- PKCS#11 köprü throughput (sockets=" + SOCKETS + ", hsmSessions="
+            + HSM_SESSIONS + ", latency=" + SIGN_LATENCY_MS + "ms) ----");
+        System.out.println(String.format("%12s %12s %12s", "concurrency", "v1 ops/sn", "v2 ops/sn"));
+        for (int c : CONCURRENCY) {
+            System.out.println(String.format("%12d %12.0f %12.0f", c, v1.get(c), v2.get(c)));
+        }
+
+        // Teorik tavan: v1 ≈ SOCKETS / latency, v2 ≈ HSM_SESSIONS / latency (4×).
+        assertTrue(v2.get(8) > 2 * v1.get(8),
+            "c=8'de v2 v1'in en az 2 katı olmalıydı: v1=" + v1.get(8) + ", v2=" + v2.get(8));
+    }
+
+    private double measure(Pkcs11ConnectionPool pool, int concurrency) throws Exception {
+        int signerId = Pkcs11ConnectionPoolTest.findSigner(pool);
+        byte[] digest = "throughput".getBytes(StandardCharsets.UTF_8);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            AtomicBoolean stop = new AtomicBoolean(false);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    int ops = 0;
+                    while (!stop.get()) {
+                        Pkcs11ConnectionPoolTest.signDigest(pool, signerId, digest);
+                        ops++;
+                    }
+                    return ops;
+                }));
+            }
+            long t0 = System.nanoTime();
+            start.countDown();
+            Thread.sleep(MEASURE_MS);
+            stop.set(true);
+            int total = 0;
+            for (Future<Integer> f : futures) {
+                total += f.get(10, TimeUnit.SECONDS);
+            }
+            double seconds = (System.nanoTime() - t0) / 1e9;
+            return total / seconds;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int startServer() throws Exception {
+        server = new Pkcs11HelperServer(new StubPkcs11Module(HSM_SESSIONS, SIGN_LATENCY_MS),
+            TOKEN, "127.0.0.1", 0, HSM_SESSIONS);
+        int port = server.start();
+        Thread t = new Thread(server::serve, "throughput-helper-accept");
+        t.setDaemon(true);
+        t.start();
+        return port;
+    }
+
+    private static Pkcs11ConnectionPool.Target target(int port) {
+        return new Pkcs11ConnectionPool.Target() {
+            @Override
+            public String getBindHost() {
+                return "127.0.0.1";
+            }
+
+            @Override
+            public int getPort() {
+                return port;
+            }
+
+            @Override
+            public String getToken() {
+                return TOKEN;
+            }
+        };
+    }
+}
@@ -0,0 +1,476 @@
+package io.mersel.dss.signer.api.services.keystore.iaik.bridge;
+
+import io.mersel.dss.signer.api.exceptions.KeyStoreException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link Pkcs11ConnectionPool} sözleşmesi: auth'un bağlantı başına bir kez
+ * ödenmesi, üst sınır, idle eviction ve helper restart'ı (port değişimi)
+ * sonrası şeffaf reconnect. Native DLL gerekmez — gerçek
+ * {@link Pkcs11HelperServer} yalnızca {@code OP_PING} için ayağa kaldırılır
+ * (PING modüle dokunmaz). Pipelining (protokol v2) testleri
+ * {@link StubPkcs11Module} ile imza yolunu da çalıştırır.
+ */
+class Pkcs11ConnectionPoolTest {
+
+    private static final String TOKEN = "test-token";
+
+    private final List<Pkcs11HelperServer> servers = new ArrayList<>();
+    private Pkcs11ConnectionPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+        servers.forEach(Pkcs11HelperServer::stop);
+    }
+
+    @Test
+    @DisplayName("Ardışık çağrılar tek auth edilmiş bağlantıyı yeniden kullanır")
+    void sequentialCallsReuseSingleConnection() throws Exception {
+        MutableTarget target = new MutableTarget(startServer(), TOKEN);
+        pool = new Pkcs11ConnectionPool(target, 4, 2000, 5000, 60_000L, 0L);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Pkcs11WireProtocol.STATUS_OK, pool.roundTrip(ping(), "ping")[0]);
+        }
+
+        assertEquals(1, pool.getMisses(), "yalnızca ilk çağrı connect + auth ödemeli");
+        assertEquals(4, pool.getHits());
+        assertEquals(1, pool.getOpenConnections());
+        assertEquals(1, pool.getIdleConnections());
+        assertEquals(0, pool.getLeasedConnections());
+    }
+
+    @Test
+    @DisplayName("Eş zamanlı çağrılar havuz üst sınırını aşmaz")
+    void concurrentCallsRespectMaxSize() throws Exception {
+        MutableTarget target = new MutableTarget(startServer(), TOKEN);
+        pool = new Pkcs11ConnectionPool(target, 2, 2000, 5000, 60_000L, 0L);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Byte>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return pool.roundTrip(ping(), "ping")[0];
+                }));
+            }
+            start.countDown();
+            for (Future<Byte> f : futures) {
+                assertEquals(Pkcs11WireProtocol.STATUS_OK, f.get(10, TimeUnit.SECONDS).byteValue());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(pool.getOpenConnections() <= 2, "open=" + pool.getOpenConnections());
+        assertEquals(64, pool.getHits() + pool.getMisses());
+    }
+
+    @Test
+    @DisplayName("Yanlış token → KeyStoreException, bağlantı havuza girmez")
+    void wrongTokenIsRejected() throws Exception {
+        MutableTarget target = new MutableTarget(startServer(), "yanlis");
+        pool = new Pkcs11ConnectionPool(target, 2, 2000, 5000, 60_000L, 0L);
+
+        assertThrows(KeyStoreException.class, () -> pool.roundTrip(ping(), "ping"));
+        assertEquals(0, pool.getOpenConnections());
+        assertEquals(0, pool.getLeasedConnections());
+    }
+
+    @Test
+    @DisplayName("Helper restart (port değişimi) sonrası eski bağlantı atılır, yenisi açılır")
+    void helperRestartIsTransparent() throws Exception {
+        MutableTarget target = new MutableTarget(startServer(), TOKEN);
+        pool = new Pkcs11ConnectionPool(target, 2, 2000, 5000, 60_000L, 0L);
+        pool.roundTrip(ping(), "ping");
+
+        target.port = startServer();
+
+        assertEquals(Pkcs11WireProtocol.STATUS_OK, pool.roundTrip(ping(), "ping")[0]);
+        assertEquals(2, pool.getMisses());
+        assertEquals(1, pool.getOpenConnections(), "eski porta bağlı bağlantı kapatılmalı");
+    }
+
+    @Test
+    @DisplayName("Idle timeout'u aşan boştaki bağlantılar evict edilir")
+    void idleConnectionsAreEvicted() throws Exception {
+        MutableTarget target = new MutableTarget(startServer(), TOKEN);
+        pool = new Pkcs11ConnectionPool(target, 2, 2000, 5000, 1L, 0L);
+        pool.roundTrip(ping(), "ping");
+        Thread.sleep(10);
+
+        pool.evictIdle();
+
+        assertEquals(0, pool.getIdleConnections());
+        assertEquals(0, pool.getOpenConnections());
+        assertEquals(1, pool.getEvictions());
+    }
+
+    @Test
+    @DisplayName("v2 müzakere edilir; tek soketteki eş zamanlı imzalar doğru requestId'ye eşlenir")
+    void pipelinedCallsShareOneConnection() throws Exception {
+        StubPkcs11Module module = new StubPkcs11Module(8, 5);
+        MutableTarget target = new MutableTarget(startServer(module, 8), TOKEN);
+        pool = new Pkcs11ConnectionPool(target, 16, 2000, 5000, 60_000L, 0L, 1);
+        int signerId = findSigner(pool);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<byte[]>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                byte[] digest = ("digest-" + i).getBytes(StandardCharsets.UTF_8);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return signDigest(pool, signerId, digest);
+                }));
+            }
+            start.countDown();
+            for (int i = 0; i < 64; i++) {
+                assertArrayEquals(("digest-" + i).getBytes(StandardCharsets.UTF_8),
+                    futures.get(i).get(10, TimeUnit.SECONDS), "yanıt başka isteğe eşlendi: " + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(pool.isPipelined());
+        assertEquals(1, pool.getPipelinedConnections());
+        assertEquals(1, pool.getOpenConnections());
+        assertTrue(module.getPeakConcurrency() > 1,
+            "tek soket üzerinden HSM session'ları paralel kullanılmalı; peak=" + module.getPeakConcurrency());
+    }
+
+    @Test
+    @DisplayName("v2 bağlantısı koptuğunda eş zamanlı retry'lar pipelined bağlantı üst sınırını aşmaz")
+    void pipelinedReconnectRespectsConnectionCap() throws Exception {
+        StubPkcs11Module module = new StubPkcs11Module(16, 500);
+        SeverableProxy proxy = new SeverableProxy(startServer(module, 16));
+        MutableTarget target = new MutableTarget(proxy.port(), TOKEN);
+        pool = new Pkcs11ConnectionPool(target, 16, 2000, 5000, 60_000L, 0L, 1);
+        int signerId = findSigner(pool);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<byte[]>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                byte[] digest = ("digest-" + i).getBytes(StandardCharsets.UTF_8);
+                futures.add(executor.submit(() -> signDigest(pool, signerId, digest)));
+            }
+            Thread.sleep(200);
+            proxy.severAll();
+            for (int i = 0; i < 16; i++) {
+                assertArrayEquals(("digest-" + i).getBytes(StandardCharsets.UTF_8),
+                    futures.get(i).get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+            proxy.close();
+        }
+
+        assertEquals(16, pool.getReconnects());
+        assertEquals(2, pool.getMisses(), "retry'lar tek taze bağlantıyı paylaşmalı");
+        assertEquals(1, pool.getPipelinedConnections());
+    }
+
+    @Test
+    @DisplayName("Worker kuyruğu dolunca helper imzayı okuyucu thread'de çalıştırmaz, HELPER_BUSY döner")
+    void fullWorkerQueueRejectsWithBusyFrame() throws Exception {
+        StubPkcs11Module module = new StubPkcs11Module(1, 20);
+        MutableTarget target = new MutableTarget(startServer(module, 1), TOKEN);
+        pool = new Pkcs11ConnectionPool(target, 200, 2000, 30_000, 60_000L, 0L, 1);
+        int signerId = findSigner(pool);
+
+        int requests = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        List<byte[]> responses = new ArrayList<>();
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<byte[]>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                byte[] digest = ("digest-" + i).getBytes(StandardCharsets.UTF_8);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return pool.roundTrip(Pkcs11WireProtocol.newPayload()
+                        .writeByte(Pkcs11WireProtocol.OP_SIGN_DIGEST)
+                        .writeInt(signerId)
+                        .writeString("SHA256")
+                        .writeBytes(digest)
+                        .toByteArray(), "sign-digest");
+                }));
+            }
+            start.countDown();
+            for (Future<byte[]> future : futures) {
+                responses.add(future.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int busy = 0;
+        for (byte[] resp : responses) {
+            Pkcs11WireProtocol.PayloadReader r = new Pkcs11WireProtocol.PayloadReader(resp);
+            if (r.readByte() != Pkcs11WireProtocol.STATUS_OK) {
+                assertTrue(r.readString().startsWith(Pkcs11WireProtocol.HELPER_BUSY_MARKER));
+                busy++;
+            }
+        }
+        assertTrue(busy > 0, "kuyruk taşınca istekler reddedilmeli");
+        assertEquals(1, module.getPeakConcurrency(), "imza yalnız worker'da çalışmalı");
+        assertEquals(1, pool.getPipelinedConnections());
+    }
+
+    @Test
+    @DisplayName("Sürüm alanını bilmeyen eski helper → havuz v1 moduna düşer")
+    void legacyHelperFallsBackToV1() throws Exception {
+        ServerSocket legacy = new ServerSocket(0, 8, InetAddress.getByName("127.0.0.1"));
+        Thread t = new Thread(() -> serveLegacy(legacy), "test-legacy-helper");
+        t.setDaemon(true);
+        t.start();
+        try {
+            MutableTarget target = new MutableTarget(legacy.getLocalPort(), TOKEN);
+            pool = new Pkcs11ConnectionPool(target, 4, 2000, 5000, 60_000L, 0L, 2);
+
+            assertEquals(Pkcs11WireProtocol.STATUS_OK, pool.roundTrip(ping(), "ping")[0]);
+            assertEquals(Pkcs11WireProtocol.STATUS_OK, pool.roundTrip(ping(), "ping")[0]);
+
+            assertFalse(pool.isPipelined());
+            assertEquals(0, pool.getPipelinedConnections());
+            assertEquals(1, pool.getOpenConnections());
+        } finally {
+            legacy.close();
+        }
+    }
+
+    @Test
+    @DisplayName("OP_SIGN_BATCH: tek frame'de çok öğe, sıra korunur, hata öğe bazında döner")
+    void signBatchReturnsPerItemResultsInOrder() throws Exception {
+        StubPkcs11Module module = new StubPkcs11Module(4, 1);
+        MutableTarget target = new MutableTarget(startServer(module, 4), TOKEN);
+        pool = new Pkcs11ConnectionPool(target, 4, 2000, 5000, 60_000L, 0L, 1);
+        int signerId = findSigner(pool);
+
+        Pkcs11WireProtocol.PayloadWriter w = Pkcs11WireProtocol.newPayload()
+            .writeByte(Pkcs11WireProtocol.OP_SIGN_BATCH)
+            .writeInt(signerId)
+            .writeByte(Pkcs11WireProtocol.BATCH_MODE_DIGEST)
+            .writeString("SHA256")
+            .writeInt(5);
+        for (int i = 0; i < 5; i++) {
+            w.writeBytes(i == 2 ? new byte[0] : ("digest-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        Pkcs11WireProtocol.PayloadReader r =
+            new Pkcs11WireProtocol.PayloadReader(pool.roundTrip(w.toByteArray(), "sign-batch"));
+
+        assertEquals(Pkcs11WireProtocol.STATUS_OK, r.readByte());
+        assertEquals(5, r.readInt());
+        for (int i = 0; i < 5; i++) {
+            byte itemStatus = r.readByte();
+            if (i == 2) {
+                assertEquals(Pkcs11WireProtocol.ITEM_ERROR, itemStatus);
+                assertTrue(r.readString().contains("boş veri"));
+            } else {
+                assertEquals(Pkcs11WireProtocol.ITEM_OK, itemStatus);
+                assertArrayEquals(("digest-" + i).getBytes(StandardCharsets.UTF_8), r.readBytes());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("OP_SIGN_BATCH: bilinmeyen signerId → UNKNOWN_SIGNER işaretli hata")
+    void signBatchUnknownSigner() throws Exception {
+        MutableTarget target = new MutableTarget(startServer(new StubPkcs11Module(1, 0), 1), TOKEN);
+        pool = new Pkcs11ConnectionPool(target, 2, 2000, 5000, 60_000L, 0L);
+
+        byte[] resp = pool.roundTrip(Pkcs11WireProtocol.newPayload()
+            .writeByte(Pkcs11WireProtocol.OP_SIGN_BATCH)
+            .writeInt(999)
+            .writeByte(Pkcs11WireProtocol.BATCH_MODE_SIGN)
+            .writeString("RSA_SHA256")
+            .writeInt(1)
+            .writeBytes(new byte[]{1})
+            .toByteArray(), "sign-batch");
+
+        Pkcs11WireProtocol.PayloadReader r = new Pkcs11WireProtocol.PayloadReader(resp);
+        assertEquals(Pkcs11WireProtocol.STATUS_ERROR, r.readByte());
+        assertTrue(r.readString().startsWith(Pkcs11WireProtocol.UNKNOWN_SIGNER_MARKER),
+            "client stale signerId'yi tanıyıp yeniden çözebilmeli");
+    }
+
+    /** Sürüm müzakeresinden önceki helper: AUTH'taki fazla alanı yok sayar, yalnız OK döner. */
+    private static void serveLegacy(ServerSocket legacy) {
+        while (!legacy.isClosed()) {
+            try (Socket socket = legacy.accept()) {
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                while (true) {
+                    Pkcs11WireProtocol.readFrame(in);
+                    Pkcs11WireProtocol.writeFrame(out, new byte[]{Pkcs11WireProtocol.STATUS_OK});
+                }
+            } catch (IOException ignored) {
+                // client kapandı / sunucu kapandı
+            }
+        }
+    }
+
+    static int findSigner(Pkcs11ConnectionPool pool) throws IOException {
+        byte[] resp = pool.roundTrip(Pkcs11WireProtocol.newPayload()
+            .writeByte(Pkcs11WireProtocol.OP_FIND_SIGNER)
+            .writeString("stub")
+            .writeString(null)
+            .toByteArray(), "find-signer");
+        Pkcs11WireProtocol.PayloadReader r = new Pkcs11WireProtocol.PayloadReader(resp);
+        assertEquals(Pkcs11WireProtocol.STATUS_OK, r.readByte());
+        return r.readInt();
+    }
+
+    static byte[] signDigest(Pkcs11ConnectionPool pool, int signerId, byte[] digest) throws IOException {
+        byte[] resp = pool.roundTrip(Pkcs11WireProtocol.newPayload()
+            .writeByte(Pkcs11WireProtocol.OP_SIGN_DIGEST)
+            .writeInt(signerId)
+            .writeString("SHA256")
+            .writeBytes(digest)
+            .toByteArray(), "sign-digest");
+        Pkcs11WireProtocol.PayloadReader r = new Pkcs11WireProtocol.PayloadReader(resp);
+        assertEquals(Pkcs11WireProtocol.STATUS_OK, r.readByte());
+        return r.readBytes();
+    }
+
+    private int startServer() throws Exception {
+        return startServer(null, 1);
+    }
+
+    private int startServer(StubPkcs11Module module, int workers) throws Exception {
+        Pkcs11HelperServer server = new Pkcs11HelperServer(module, TOKEN, "127.0.0.1", 0, workers);
+        int port = server.start();
+        Thread t = new Thread(server::serve, "test-helper-accept");
+        t.setDaemon(true);
+        t.start();
+        servers.add(server);
+        return port;
+    }
+
+    private static byte[] ping() {
+        return Pkcs11WireProtocol.newPayload().writeByte(Pkcs11WireProtocol.OP_PING).toByteArray();
+    }
+
+    /** Helper'ın önünde duran, tüm bağlantıları tek hamlede koparabilen TCP aktarıcı. */
+    private static final class SeverableProxy implements AutoCloseable {
+        private final ServerSocket listener;
+        private final int helperPort;
+        private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+
+        SeverableProxy(int helperPort) throws IOException {
+            this.helperPort = helperPort;
+            this.listener = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread t = new Thread(this::acceptLoop, "test-proxy-accept");
+            t.setDaemon(true);
+            t.start();
+        }
+
+        int port() {
+            return listener.getLocalPort();
+        }
+
+        private void acceptLoop() {
+            while (!listener.isClosed()) {
+                try {
+                    Socket client = listener.accept();
+                    Socket upstream = new Socket(InetAddress.getLoopbackAddress(), helperPort);
+                    sockets.add(client);
+                    sockets.add(upstream);
+                    pump(client, upstream);
+                    pump(upstream, client);
+                } catch (IOException ignored) {
+                    // dinleyici kapandı
+                }
+            }
+        }
+
+        private static void pump(Socket from, Socket to) {
+            Thread t = new Thread(() -> {
+                byte[] buf = new byte[8192];
+                try {
+                    int n;
+                    while ((n = from.getInputStream().read(buf)) >= 0) {
+                        to.getOutputStream().write(buf, 0, n);
+                    }
+                } catch (IOException ignored) {
+                    // karşı uç kapandı
+                } finally {
+                    try { from.close(); } catch (IOException ignored) { }
+                    try { to.close(); } catch (IOException ignored) { }
+                }
+            }, "test-proxy-pump");
+            t.setDaemon(true);
+            t.start();
+        }
+
+        void severAll() {
+            for (Socket socket : sockets) {
+                try { socket.close(); } catch (IOException ignored) { }
+            }
+            sockets.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            listener.close();
+            severAll();
+        }
+    }
+
+    private static final class MutableTarget implements Pkcs11ConnectionPool.Target {
+        volatile int port;
+        final String token;
+
+        MutableTarget(int port, String token) {
+            this.port = port;
+            this.token = token;
+        }
+
+        @Override
+        public String getBindHost() {
+            return "127.0.0.1";
+        }
+
+        @Override
+        public int getPort() {
+            return port;
+        }
+
+        @Override
+        public String getToken() {
+            return token;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.mersel.dss.signer.api.services.keystore.iaik.bridge;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.SignatureAlgorithm;
+import io.mersel.dss.signer.api.services.keystore.iaik.IaikPkcs11Module;
+import io.mersel.dss.signer.api.services.keystore.iaik.Pkcs11Signer;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Native DLL'siz test modülü: {@code sessions} adet "HSM session"ı bir
+ * {@link Semaphore} ile, imza gecikmesini {@code signLatencyMs} uyku ile
+ * taklit eder. İmza = gelen verinin kendisi (yankı) — pipelined yanıtların
+ * doğru {@code requestId}'ye eşlendiğini doğrulamak için yeterli. Boş
+ * girdi hata fırlatır (toplu imzada öğe bazında hata senaryosu).
+ */
+final class StubPkcs11Module extends IaikPkcs11Module {
+
+    private final Semaphore sessions;
+    private final long signLatencyMs;
+    private final X509Certificate certificate;
+    private final AtomicInteger peakConcurrency = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    StubPkcs11Module(int sessions, long signLatencyMs) {
+        super("stub", null, null, null);
+        this.sessions = new Semaphore(sessions);
+        this.signLatencyMs = signLatencyMs;
+        this.certificate = selfSigned();
+    }
+
+    @Override
+    public Pkcs11Signer findSigner(String alias, String serialHex) {
+        return new Pkcs11Signer() {
+            @Override
+            public String getAlias() {
+                return alias != null ? alias : "stub";
+            }
+
+            @Override
+            public X509Certificate getCertificate() {
+                return certificate;
+            }
+
+            @Override
+            public List<X509Certificate> getCertificateChain() {
+                return Collections.singletonList(certificate);
+            }
+
+            @Override
+            public byte[] sign(byte[] dataToSign, SignatureAlgorithm signatureAlgorithm) {
+                return onSession(dataToSign);
+            }
+
+            @Override
+            public byte[] signDigest(byte[] digest, DigestAlgorithm digestAlgorithm) {
+                return onSession(digest);
+            }
+        };
+    }
+
+    int getPeakConcurrency() {
+        return peakConcurrency.get();
+    }
+
+    private byte[] onSession(byte[] data) {
+        if (data.length == 0) {
+            // Öğe bazında hata yolunu (OP_SIGN_BATCH) test etmek için.
+            throw new IllegalArgumentException("boş veri imzalanamaz");
+        }
+        sessions.acquireUninterruptibly();
+        int now = active.incrementAndGet();
+        peakConcurrency.accumulateAndGet(now, Math::max);
+        try {
+            TimeUnit.MILLISECONDS.sleep(signLatencyMs);
+            return data.clone();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            active.decrementAndGet();
+            sessions.release();
+        }
+    }
+
+    private static X509Certificate selfSigned() {
+        try {
+            KeyPairGenerator kpg = KeyPairGenerator.getInstance("RSA");
+            kpg.initialize(2048);
+            KeyPair kp = kpg.generateKeyPair();
+            X500Name subject = new X500Name("CN=Bridge Stub, O=Mersel, C=TR");
+            Date notBefore = new Date();
+            Date notAfter = new Date(notBefore.getTime() + 24L * 60 * 60 * 1000);
+            X509v3CertificateBuilder builder = new X509v3CertificateBuilder(subject, BigInteger.ONE,
+                notBefore, notAfter, subject, SubjectPublicKeyInfo.getInstance(kp.getPublic().getEncoded()));
+            return new JcaX509CertificateConverter().getCertificate(
+                builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(kp.getPrivate())));
+        } catch (Exception e) {
+            throw new IllegalStateException("Stub sertifika üretilemedi", e);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.mersel.dss.signer.api.config.LogHeadersFilter;
 import io.mersel.dss.signer.api.config.SignerNotificationConfiguration;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.models.XadesUpgradeJob;
 import okhttp3.OkHttpClient;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
@@ -343,6 +344,84 @@ class SignerNotifierTest {
         assertEquals("signature-failure", req.getHeader("X-Mersel-Event"));
     }
 
+    // =====================================================================
+    // XAdES-A upgrade job dispatch
+    // =====================================================================
+
+    @Test
+    void xadesUpgrade_failedJob_postsJsonPayloadWithJobAndLogHeaders() throws Exception {
+        config.setWebhookUrl(mockServer.url("/webhook").toString());
+        config.setXadesUpgradeEnabled(true);
+        mockServer.enqueue(new MockResponse().setResponseCode(200));
+        initNotifier();
+
+        XadesUpgradeJob job = upgradeJob(XadesUpgradeJob.Status.FAILED);
+        job.setErrorCode("TIMESTAMP_ERROR");
+        job.setErrorMessage("TSA yanıt vermedi");
+        job.setLogHeaders(Collections.singletonMap("x-log-request-id", "req-42"));
+        notifier.notifyOnXadesUpgradeJob(job, new RuntimeException("TSA yanıt vermedi"));
+
+        RecordedRequest req = mockServer.takeRequest(2, TimeUnit.SECONDS);
+        assertNotNull(req);
+        assertEquals("xades-upgrade-failed", req.getHeader("X-Mersel-Event"));
+        assertEquals("req-42", req.getHeader("x-log-request-id"));
+        JsonNode body = OBJECT_MAPPER.readTree(req.getBody().readUtf8());
+        assertEquals("xades-upgrade-failed", body.path("event").asText());
+        JsonNode upgrade = body.path("xadesUpgrade");
+        assertEquals("3f2b6c1e-8a4d-4c2b-9f1e-2d7a5b9c0e11", upgrade.path("jobId").asText());
+        assertEquals("FAILED", upgrade.path("status").asText());
+        assertEquals(3, upgrade.path("attempts").asInt());
+        assertEquals("TIMESTAMP_ERROR", upgrade.path("errorCode").asText());
+        assertFalse(body.has("signatureFailure"),
+            "Yükseltme event'inde signatureFailure alanı OLMAMALI");
+    }
+
+    @Test
+    void xadesUpgrade_nonTerminalJob_skipsDispatch() throws Exception {
+        config.setWebhookUrl(mockServer.url("/webhook").toString());
+        config.setXadesUpgradeEnabled(true);
+        initNotifier();
+
+        notifier.notifyOnXadesUpgradeJob(upgradeJob(XadesUpgradeJob.Status.RUNNING), null);
+
+        assertNull(mockServer.takeRequest(500, TimeUnit.MILLISECONDS),
+            "Bitmemiş iş için bildirim gönderilmemeli");
+    }
+
+    @Test
+    void xadesUpgrade_disabledFlag_skipsDispatch() throws Exception {
+        config.setWebhookUrl(mockServer.url("/webhook").toString());
+        config.setXadesUpgradeEnabled(false);
+        initNotifier();
+
+        notifier.notifyOnXadesUpgradeJob(upgradeJob(XadesUpgradeJob.Status.COMPLETED), null);
+
+        assertNull(mockServer.takeRequest(500, TimeUnit.MILLISECONDS),
+            "xadesUpgradeEnabled=false iken dispatch olmamalı");
+    }
+
+    @Test
+    void xadesUpgrade_failedJob_usesWarningColorInSlack() {
+        String slackBody = notifier.buildSlackBodyForXadesUpgradeFailure(
+            upgradeJob(XadesUpgradeJob.Status.FAILED), Collections.emptyMap());
+
+        assertTrue(slackBody.contains(SignerNotifier.SLACK_WARNING_COLOR),
+            "Başarısız yükseltme rengi turuncu/warning olmalı");
+        assertTrue(slackBody.contains("3f2b6c1e-8a4d-4c2b-9f1e-2d7a5b9c0e11"));
+    }
+
+    private static XadesUpgradeJob upgradeJob(XadesUpgradeJob.Status status) {
+        XadesUpgradeJob job = new XadesUpgradeJob();
+        job.setJobId("3f2b6c1e-8a4d-4c2b-9f1e-2d7a5b9c0e11");
+        job.setStatus(status);
+        job.setDocumentType("UblDocument");
+        job.setAttempts(3);
+        job.setCreatedAt(1_699_999_000_000L);
+        job.setUpdatedAt(1_700_000_000_000L);
+        job.setCompletedAt(status.isTerminal() ? 1_700_000_000_000L : null);
+        return job;
+    }
+
     // =====================================================================
     // Slack incoming webhook
     // =====================================================================
@@ -0,0 +1,202 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.TimestampBinary;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.x509.CommonTrustedCertificateSource;
+import eu.europa.esig.dss.spi.x509.ListCertificateSource;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLSource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPSource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+import eu.europa.esig.dss.spi.x509.tsp.TSPSource;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.bouncycastle.cert.jcajce.JcaCertStore;
+import org.bouncycastle.cms.CMSProcessableByteArray;
+import org.bouncycastle.cms.CMSSignedDataGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link ParallelRevocationFetcher} sözleşmesi: zincirin iptal verisi havuzda
+ * önceden çekilir, istek yolu aynı token'ı alır; süren isteğe katılan istek
+ * yolu online kaynağa ikinci kez gitmez.
+ */
+@Epic("Service Layer")
+@Feature("Revocation Prefetch")
+@Severity(SeverityLevel.CRITICAL)
+class ParallelRevocationFetcherTest {
+
+    private static List<CertificateToken> chain;
+    private static CertificateToken leaf;
+    private static CertificateToken ca;
+    private static CertificateToken root;
+
+    private OCSPSource onlineOcsp;
+    private CRLSource onlineCrl;
+    private CachingOCSPSource ocspSource;
+    private CachingCRLSource crlSource;
+    private ParallelRevocationFetcher fetcher;
+
+    @BeforeAll
+    static void createChain() throws Exception {
+        chain = TestChain.create();
+        leaf = chain.get(0);
+        ca = chain.get(1);
+        root = chain.get(2);
+    }
+
+    @BeforeEach
+    void setUp() {
+        RevocationTokenCache cache = new RevocationTokenCache(300_000L, 60_000L, 120_000L);
+        onlineOcsp = mock(OCSPSource.class);
+        onlineCrl = mock(CRLSource.class);
+        ocspSource = new CachingOCSPSource(onlineOcsp, cache);
+        crlSource = new CachingCRLSource(onlineCrl, cache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (fetcher != null) {
+            fetcher.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Önceden çekilen yanıt istek yolunda aynı token olarak, online kaynağa gitmeden verilir")
+    void requestPathGetsPrefetchedToken() throws Exception {
+        OCSPToken leafOcsp = validOcsp();
+        OCSPToken caOcsp = validOcsp();
+        when(onlineOcsp.getRevocationToken(leaf, ca)).thenReturn(leafOcsp);
+        when(onlineOcsp.getRevocationToken(ca, root)).thenReturn(caOcsp);
+        fetcher = new ParallelRevocationFetcher(ocspSource, crlSource, null, 4, 16);
+
+        awaitAll(fetcher.fetchAsync(chain));
+
+        assertSame(leafOcsp, ocspSource.getRevocationToken(leaf, ca));
+        assertSame(caOcsp, ocspSource.getRevocationToken(ca, root));
+        verify(onlineOcsp, times(1)).getRevocationToken(leaf, ca);
+        verify(onlineOcsp, times(1)).getRevocationToken(ca, root);
+        verify(onlineCrl, never()).getRevocationToken(any(), any());
+    }
+
+    @Test
+    @DisplayName("Süren önceden çekmeye katılan istek yolu aynı token'ı alır; online kaynağa tek istek gider")
+    void requestPathJoinsInFlightFetch() throws Exception {
+        OCSPToken token = validOcsp();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(onlineOcsp.getRevocationToken(leaf, ca)).thenAnswer(inv -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return token;
+        });
+        fetcher = new ParallelRevocationFetcher(ocspSource, crlSource, null, 4, 16);
+
+        List<Future<?>> prefetch = fetcher.fetchAsync(Arrays.asList(leaf, ca));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        ExecutorService requestThread = Executors.newSingleThreadExecutor();
+        try {
+            Future<OCSPToken> requestPath = requestThread.submit(() -> ocspSource.getRevocationToken(leaf, ca));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertSame(token, requestPath.get(5, TimeUnit.SECONDS));
+            awaitAll(prefetch);
+        } finally {
+            requestThread.shutdownNow();
+        }
+        verify(onlineOcsp, times(1)).getRevocationToken(leaf, ca);
+    }
+
+    @Test
+    @DisplayName("Issuer zincirde yoksa güvenilir kaynakta aranır; güvenilir sertifikanın kendisi çekilmez")
+    void resolvesIssuerFromTrustedSource() throws Exception {
+        when(onlineOcsp.getRevocationToken(any(), any())).thenAnswer(inv -> validOcsp());
+        CommonTrustedCertificateSource trusted = new CommonTrustedCertificateSource();
+        trusted.addCertificate(ca);
+        fetcher = new ParallelRevocationFetcher(ocspSource, crlSource,
+                new ListCertificateSource(trusted), 2, 16);
+
+        awaitAll(fetcher.fetchAsync(Arrays.asList(leaf, ca)));
+
+        verify(onlineOcsp, times(1)).getRevocationToken(leaf, ca);
+        verify(onlineOcsp, never()).getRevocationToken(ca, root);
+    }
+
+    @Test
+    @DisplayName("Havuz doluysa iş atlanır, çağıran bloklanmaz ve hata almaz")
+    void skipsWhenPoolIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(onlineOcsp.getRevocationToken(any(), any())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return validOcsp();
+        });
+        fetcher = new ParallelRevocationFetcher(ocspSource, crlSource, null, 1, 1);
+
+        List<Future<?>> first = fetcher.fetchAsync(chain);
+        List<Future<?>> second = fetcher.fetchAsync(Collections.singletonList(leaf));
+        release.countDown();
+
+        assertEquals(2, first.size());
+        assertEquals(0, second.size());
+        awaitAll(first);
+    }
+
+    @Test
+    @DisplayName("Zaman damgası gelir gelmez token'daki TSA zincirinin iptal verisi çekilir")
+    void timestampResponseTriggersTsaChainFetch() throws Exception {
+        when(onlineOcsp.getRevocationToken(any(), any())).thenAnswer(inv -> validOcsp());
+        CMSSignedDataGenerator generator = new CMSSignedDataGenerator();
+        generator.addCertificates(new JcaCertStore(Arrays.asList(
+                leaf.getCertificate(), ca.getCertificate())));
+        TimestampBinary timestamp = new TimestampBinary(
+                generator.generate(new CMSProcessableByteArray(new byte[]{1})).getEncoded());
+        TSPSource tsa = mock(TSPSource.class);
+        when(tsa.getTimeStampResponse(any(), any())).thenReturn(timestamp);
+        fetcher = new ParallelRevocationFetcher(ocspSource, crlSource, null, 2, 16);
+
+        assertSame(timestamp, fetcher.decorate(tsa).getTimeStampResponse(DigestAlgorithm.SHA256, new byte[32]));
+
+        verify(onlineOcsp, timeout(5_000)).getRevocationToken(leaf, ca);
+    }
+
+    private static void awaitAll(List<Future<?>> futures) throws Exception {
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static OCSPToken validOcsp() {
+        OCSPToken token = mock(OCSPToken.class);
+        when(token.isValid()).thenReturn(true);
+        when(token.getThisUpdate()).thenReturn(new Date());
+        return token;
+    }
+}
@@ -0,0 +1,131 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.mersel.dss.signer.api.services.metrics.RevocationHttpMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link PooledRevocationDataLoader} taşıma kontratı: OCSP/CRL/AIA istekleri
+ * host başına tek havuzu keep-alive ile paylaşır, içerik tipi yalnızca POST'ta
+ * gönderilir, boyut sınırını aşan yanıt reddedilir ve süreler host
+ * etiketiyle kaydedilir.
+ */
+@Epic("Service Layer")
+@Feature("Revocation — HTTP Contract")
+@Severity(SeverityLevel.NORMAL)
+class PooledRevocationDataLoaderTest {
+
+    private static final byte[] SMALL = new byte[]{1, 2, 3, 4};
+    private static final byte[] LARGE = new byte[64 * 1024];
+
+    private HttpServer httpServer;
+    private String baseUrl;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final List<String> contentTypes = new CopyOnWriteArrayList<>();
+
+    private SimpleMeterRegistry registry;
+    private PooledRevocationDataLoader loader;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        httpServer.createContext("/small", exchange -> reply(exchange, SMALL, false));
+        httpServer.createContext("/large", exchange -> reply(exchange, LARGE, false));
+        httpServer.createContext("/large-chunked", exchange -> reply(exchange, LARGE, true));
+        httpServer.start();
+        baseUrl = "http://127.0.0.1:" + httpServer.getAddress().getPort();
+        registry = new SimpleMeterRegistry();
+        loader = new PooledRevocationDataLoader(new RevocationHttpMetrics(registry));
+        loader.setMaxResponseBytes(16 * 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        loader.close();
+        httpServer.stop(0);
+    }
+
+    @Test
+    @DisplayName("CRL/AIA GET ve OCSP POST istekleri aynı keep-alive bağlantıyı kullanır")
+    void getAndPostShareConnection() {
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(SMALL, loader.get(baseUrl + "/small"));
+        }
+        assertArrayEquals(SMALL, loader.post(baseUrl + "/small", new byte[]{9}));
+
+        assertEquals(1, clientPorts.size(), "Her istek yeni TCP bağlantısı açmamalı: " + clientPorts);
+        assertEquals(4, registry.get("signer.revocation.http.request")
+                .tag("host", "127.0.0.1").tag("outcome", "success").timer().count());
+        assertEquals(4, registry.get("signer.revocation.http.pool.lease").timer().count());
+    }
+
+    @Test
+    @DisplayName("İçerik tipi yalnızca OCSP POST isteğinde gönderilir")
+    void contentTypeOnlyOnPost() {
+        loader.get(baseUrl + "/small");
+        loader.post(baseUrl + "/small", new byte[]{9});
+
+        assertNull(contentTypes.get(0));
+        assertEquals(PooledRevocationDataLoader.OCSP_CONTENT_TYPE, contentTypes.get(1));
+    }
+
+    @Test
+    @DisplayName("Boyut sınırını aşan yanıt (Content-Length veya chunked) reddedilir; havuz kullanılabilir kalır")
+    void oversizedResponseRejected() {
+        assertThrows(RuntimeException.class, () -> loader.get(baseUrl + "/large"));
+        assertThrows(RuntimeException.class, () -> loader.get(baseUrl + "/large-chunked"));
+        assertArrayEquals(SMALL, loader.get(baseUrl + "/small"));
+
+        assertEquals(2, registry.get("signer.revocation.http.response.rejected").counter().count());
+        assertEquals(2, registry.get("signer.revocation.http.request").tag("outcome", "error").timer().count());
+        assertEquals(1, registry.get("signer.revocation.http.request").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    @DisplayName("Sınır kapalıyken (<=0) büyük yanıt okunur")
+    void unlimitedWhenDisabled() {
+        loader.setMaxResponseBytes(0);
+
+        assertEquals(LARGE.length, loader.get(baseUrl + "/large").length);
+    }
+
+    private void reply(HttpExchange exchange, byte[] body, boolean chunked) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        contentTypes.add(exchange.getRequestHeaders().getFirst("Content-Type"));
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[1024];
+            while (in.read(buffer) != -1) {
+                // istek gövdesini tüket; keep-alive için gerekli
+            }
+        }
+        exchange.sendResponseHeaders(200, chunked ? 0 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        } catch (IOException e) {
+            // istemci sınırı aşınca bağlantıyı kesebilir
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLSource;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPSource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link RevocationPrefetcher} sözleşmesi: zincirdeki her (sertifika, issuer)
+ * çifti için önce OCSP, yoksa CRL önceden çekilir; istek yolundaki
+ * {@link CachingOCSPSource} / {@link CachingCRLSource} sıcak yanıtı
+ * online kaynağa gitmeden verir.
+ */
+@Epic("Service Layer")
+@Feature("Revocation Prefetch")
+@Severity(SeverityLevel.CRITICAL)
+class RevocationPrefetcherTest {
+
+    private static List<CertificateToken> chain;
+    private static CertificateToken leaf;
+    private static CertificateToken ca;
+    private static CertificateToken root;
+
+    private OCSPSource onlineOcsp;
+    private CRLSource onlineCrl;
+    private CachingOCSPSource ocspSource;
+    private CachingCRLSource crlSource;
+
+    @BeforeAll
+    static void createChain() throws Exception {
+        chain = TestChain.create();
+        leaf = chain.get(0);
+        ca = chain.get(1);
+        root = chain.get(2);
+    }
+
+    @BeforeEach
+    void setUp() {
+        RevocationTokenCache store = new RevocationTokenCache(300_000L, 60_000L, 120_000L);
+        onlineOcsp = mock(OCSPSource.class);
+        onlineCrl = mock(CRLSource.class);
+        ocspSource = new CachingOCSPSource(onlineOcsp, store);
+        crlSource = new CachingCRLSource(onlineCrl, store);
+    }
+
+    @Test
+    @DisplayName("Zincir issuer'ıyla eşlenir; kendinden imzalı kök atlanır")
+    void pairsChainWithIssuers() {
+        List<CertificateToken[]> pairs = RevocationPrefetcher.issuerPairs(chain);
+
+        assertEquals(2, pairs.size());
+        assertSame(leaf, pairs.get(0)[0]);
+        assertSame(ca, pairs.get(0)[1]);
+        assertSame(ca, pairs.get(1)[0]);
+        assertSame(root, pairs.get(1)[1]);
+    }
+
+    @Test
+    @DisplayName("Önceden çekilen OCSP yanıtı istek yolunda online kaynağa gitmeden verilir")
+    void requestPathServesPrefetchedOcsp() {
+        OCSPToken leafOcsp = validOcsp();
+        OCSPToken caOcsp = validOcsp();
+        when(onlineOcsp.getRevocationToken(leaf, ca)).thenReturn(leafOcsp);
+        when(onlineOcsp.getRevocationToken(ca, root)).thenReturn(caOcsp);
+
+        prefetcher().refresh();
+
+        assertSame(leafOcsp, ocspSource.getRevocationToken(leaf, ca));
+        assertSame(caOcsp, ocspSource.getRevocationToken(ca, root));
+        verify(onlineOcsp, times(1)).getRevocationToken(leaf, ca);
+        verify(onlineOcsp, times(1)).getRevocationToken(ca, root);
+        verify(onlineCrl, never()).getRevocationToken(any(), any());
+    }
+
+    @Test
+    @DisplayName("Yenileme zamanı gelmemiş yanıt sonraki turda tekrar çekilmez")
+    void skipsPairsThatDoNotNeedRefresh() {
+        when(onlineOcsp.getRevocationToken(any(), any())).thenAnswer(inv -> validOcsp());
+
+        RevocationPrefetcher prefetcher = prefetcher();
+        prefetcher.refresh();
+        prefetcher.refresh();
+
+        verify(onlineOcsp, times(2)).getRevocationToken(any(), any());
+    }
+
+    @Test
+    @DisplayName("OCSP yanıtı alınamayan çift için CRL önceden çekilir")
+    void fallsBackToCrlWhenOcspUnavailable() {
+        CRLToken crl = mock(CRLToken.class);
+        when(crl.isValid()).thenReturn(true);
+        when(crl.getThisUpdate()).thenReturn(new Date(System.currentTimeMillis() - 3_600_000L));
+        when(crl.getNextUpdate()).thenReturn(new Date(System.currentTimeMillis() + 3_600_000L));
+        OCSPToken caOcsp = validOcsp();
+        when(onlineCrl.getRevocationToken(leaf, ca)).thenReturn(crl);
+        when(onlineOcsp.getRevocationToken(ca, root)).thenReturn(caOcsp);
+
+        prefetcher().refresh();
+
+        assertSame(crl, crlSource.getRevocationToken(leaf, ca));
+        verify(onlineCrl, times(1)).getRevocationToken(leaf, ca);
+        verify(onlineCrl, never()).getRevocationToken(ca, root);
+    }
+
+    @Test
+    @DisplayName("Bir çiftteki hata diğer çiftlerin ön yüklemesini durdurmaz")
+    void failureOnOnePairDoesNotStopOthers() {
+        OCSPToken caOcsp = validOcsp();
+        when(onlineOcsp.getRevocationToken(leaf, ca)).thenThrow(new IllegalStateException("OCSP kapalı"));
+        when(onlineOcsp.getRevocationToken(ca, root)).thenReturn(caOcsp);
+
+        prefetcher().refresh();
+
+        assertSame(caOcsp, ocspSource.getRevocationToken(ca, root));
+    }
+
+    @Test
+    @DisplayName("Depoda yanıt yoksa istek yolu online kaynağa düşer ve sonucu depolar")
+    void requestPathFallsBackToOnlineSource() {
+        OCSPToken token = validOcsp();
+        when(onlineOcsp.getRevocationToken(leaf, ca)).thenReturn(token);
+
+        assertSame(token, ocspSource.getRevocationToken(leaf, ca));
+        assertSame(token, ocspSource.getRevocationToken(leaf, ca));
+
+        verify(onlineOcsp, times(1)).getRevocationToken(leaf, ca);
+    }
+
+    private RevocationPrefetcher prefetcher() {
+        return new RevocationPrefetcher(chain, ocspSource, crlSource, 30_000L);
+    }
+
+    private static OCSPToken validOcsp() {
+        OCSPToken token = mock(OCSPToken.class);
+        when(token.isValid()).thenReturn(true);
+        when(token.getThisUpdate()).thenReturn(new Date());
+        return token;
+    }
+}
@@ -0,0 +1,185 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link RevocationTokenCache} tazelik kuralı: yanıt yalnızca DSS'in
+ * azami tazelik / {@code nextUpdate} kontrolünü güvenle geçeceği sürece
+ * verilir, sınırdan {@code refreshAhead} önce yenilenmeli sayılır; süresi
+ * dolan veya kapasiteyi aşan kayıt silinir.
+ */
+@Epic("Service Layer")
+@Feature("Revocation Prefetch")
+@Severity(SeverityLevel.CRITICAL)
+class RevocationTokenCacheTest {
+
+    private static final long MIN = 60_000L;
+    private static final long FRESHNESS = 5 * MIN;
+    private static final long MARGIN = MIN;
+    private static final long AHEAD = 2 * MIN;
+
+    private static CertificateToken leaf;
+    private static CertificateToken issuer;
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000_000L);
+    private final RevocationTokenCache store =
+            new RevocationTokenCache(FRESHNESS, MARGIN, AHEAD, now::get);
+
+    @BeforeAll
+    static void chain() throws Exception {
+        List<CertificateToken> chain = TestChain.create();
+        leaf = chain.get(0);
+        issuer = chain.get(1);
+    }
+
+    @Test
+    @DisplayName("Taze OCSP yanıtı thisUpdate + tazelik - pay anına kadar verilir")
+    void freshOcspServedWithinFreshnessWindow() {
+        OCSPToken token = ocsp(now.get() - 10_000L, null, true);
+
+        assertTrue(store.putOcsp(leaf, issuer, token));
+        assertSame(token, store.getOcsp(leaf, issuer));
+
+        now.addAndGet(4 * MIN - 10_001L);
+        assertSame(token, store.getOcsp(leaf, issuer));
+
+        now.addAndGet(1);
+        assertNull(store.getOcsp(leaf, issuer), "Pay içinde kalan yanıt verilmemeli");
+        assertEquals(2, store.getHits());
+        assertEquals(1, store.getMisses());
+    }
+
+    @Test
+    @DisplayName("Yanıt, verilebilir sürenin bitişinden refreshAhead önce yenilenmeli sayılır")
+    void needsRefreshAheadOfExpiry() {
+        assertTrue(store.needsOcspRefresh(leaf, issuer), "Boş depo yenilenmeli");
+
+        store.putOcsp(leaf, issuer, ocsp(now.get(), null, true));
+        assertFalse(store.needsOcspRefresh(leaf, issuer));
+
+        // servableUntil = thisUpdate + 4 dk; yenileme 2 dk'da.
+        now.addAndGet(2 * MIN - 1);
+        assertFalse(store.needsOcspRefresh(leaf, issuer));
+        now.addAndGet(1);
+        assertTrue(store.needsOcspRefresh(leaf, issuer));
+        assertSame(store.getOcsp(leaf, issuer), store.getOcsp(leaf, issuer), "Yenileme anında yanıt hâlâ verilir");
+    }
+
+    @Test
+    @DisplayName("Çekildiğinde zaten pencere dışında olan CRL nextUpdate - pay anına kadar verilir")
+    void staleCrlServedUntilNextUpdate() {
+        long nextUpdate = now.get() + 60 * MIN;
+        CRLToken token = crl(now.get() - 6 * 60 * MIN, nextUpdate, true);
+
+        assertTrue(store.putCrl(leaf, issuer, token));
+        now.set(nextUpdate - MARGIN - 1);
+        assertSame(token, store.getCrl(leaf, issuer));
+        now.set(nextUpdate - MARGIN);
+        assertNull(store.getCrl(leaf, issuer));
+    }
+
+    @Test
+    @DisplayName("nextUpdate tazelik penceresinden önceyse sınır nextUpdate olur")
+    void nextUpdateCapsFreshWindow() {
+        OCSPToken token = ocsp(now.get(), new Date(now.get() + 2 * MIN), true);
+
+        store.putOcsp(leaf, issuer, token);
+        now.addAndGet(MIN - 1);
+        assertSame(token, store.getOcsp(leaf, issuer));
+        now.addAndGet(1);
+        assertNull(store.getOcsp(leaf, issuer));
+    }
+
+    @Test
+    @DisplayName("İmzası doğrulanamayan veya kullanım süresi geçmiş yanıt depoya alınmaz")
+    void rejectsInvalidOrExpiredTokens() {
+        assertFalse(store.putOcsp(leaf, issuer, ocsp(now.get(), null, false)));
+        assertFalse(store.putOcsp(leaf, issuer, ocsp(now.get() - 10 * MIN, new Date(now.get() - MIN), true)));
+        assertFalse(store.putOcsp(leaf, issuer, null));
+        assertNull(store.getOcsp(leaf, issuer));
+    }
+
+    @Test
+    @DisplayName("Yanıtlar (sertifika, issuer) çiftine ve türe göre ayrı tutulur")
+    void entriesAreKeyedByPairAndType() {
+        store.putOcsp(leaf, issuer, ocsp(now.get(), null, true));
+
+        assertNull(store.getOcsp(issuer, leaf));
+        assertNull(store.getCrl(leaf, issuer));
+    }
+
+    @Test
+    @DisplayName("Süresi dolan kayıt okunurken silinir ve tahliye sayılır")
+    void expiredEntryEvictedOnRead() {
+        store.putOcsp(leaf, issuer, ocsp(now.get(), null, true));
+        assertEquals(1, store.getOcspSize());
+
+        now.addAndGet(4 * MIN);
+        assertNull(store.getOcsp(leaf, issuer));
+
+        assertEquals(0, store.getOcspSize());
+        assertEquals(1, store.getExpiredEvictions());
+        assertEquals(0, store.getCapacityEvictions());
+    }
+
+    @Test
+    @DisplayName("Kapasite aşılınca önce süresi dolan, sonra süresi en erken dolacak kayıt silinir")
+    void capacityEvictsExpiredThenEarliestExpiring() {
+        RevocationTokenCache bounded = new RevocationTokenCache(FRESHNESS, MARGIN, AHEAD, 2, now::get);
+        OCSPToken older = ocsp(now.get() - 2 * MIN, null, true);
+        OCSPToken newer = ocsp(now.get(), null, true);
+        bounded.putOcsp(leaf, issuer, older);
+        bounded.putOcsp(issuer, leaf, newer);
+
+        bounded.putOcsp(leaf, null, ocsp(now.get(), null, true));
+
+        assertEquals(2, bounded.getOcspSize());
+        assertEquals(1, bounded.getCapacityEvictions());
+        assertNull(bounded.getOcsp(leaf, issuer), "Süresi en erken dolacak kayıt silinmeli");
+        assertSame(newer, bounded.getOcsp(issuer, leaf));
+
+        now.addAndGet(4 * MIN);
+        bounded.putOcsp(leaf, issuer, ocsp(now.get(), null, true));
+
+        assertEquals(1, bounded.getOcspSize());
+        assertEquals(2, bounded.getExpiredEvictions());
+        assertEquals(1, bounded.getCapacityEvictions());
+    }
+
+    private static OCSPToken ocsp(long thisUpdate, Date nextUpdate, boolean valid) {
+        OCSPToken token = mock(OCSPToken.class);
+        when(token.isValid()).thenReturn(valid);
+        when(token.getThisUpdate()).thenReturn(new Date(thisUpdate));
+        when(token.getNextUpdate()).thenReturn(nextUpdate);
+        return token;
+    }
+
+    private static CRLToken crl(long thisUpdate, long nextUpdate, boolean valid) {
+        CRLToken token = mock(CRLToken.class);
+        when(token.isValid()).thenReturn(valid);
+        when(token.getThisUpdate()).thenReturn(new Date(thisUpdate));
+        when(token.getNextUpdate()).thenReturn(new Date(nextUpdate));
+        return token;
+    }
+}
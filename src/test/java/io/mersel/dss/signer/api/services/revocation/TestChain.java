@@ -0,0 +1,57 @@
+package io.mersel.dss.signer.api.services.revocation;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Revocation testleri için üç seviyeli (leaf → ara CA → kök) sentetik zincir.
+ */
+final class TestChain {
+
+    private TestChain() {
+    }
+
+    /** @return {@code [leaf, ara CA, kök]} */
+    static List<CertificateToken> create() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair rootKeys = generator.generateKeyPair();
+        KeyPair caKeys = generator.generateKeyPair();
+        KeyPair leafKeys = generator.generateKeyPair();
+
+        X500Name rootName = new X500Name("CN=Test Root");
+        X500Name caName = new X500Name("CN=Test CA");
+        X509Certificate root = issue(rootName, rootName, rootKeys, rootKeys.getPrivate(), true);
+        X509Certificate ca = issue(caName, rootName, caKeys, rootKeys.getPrivate(), true);
+        X509Certificate leaf = issue(new X500Name("CN=Test Signer"), caName, leafKeys, caKeys.getPrivate(), false);
+
+        return Arrays.asList(new CertificateToken(leaf), new CertificateToken(ca), new CertificateToken(root));
+    }
+
+    private static X509Certificate issue(X500Name subject, X500Name issuer, KeyPair subjectKeys,
+                                         PrivateKey issuerKey, boolean ca) throws Exception {
+        Date notBefore = new Date(System.currentTimeMillis() - 60_000L);
+        Date notAfter = new Date(notBefore.getTime() + 365L * 24 * 60 * 60 * 1000);
+        X509v3CertificateBuilder builder = new X509v3CertificateBuilder(
+                issuer, BigInteger.valueOf(System.nanoTime()), notBefore, notAfter, subject,
+                SubjectPublicKeyInfo.getInstance(subjectKeys.getPublic().getEncoded()));
+        builder.addExtension(Extension.basicConstraints, true, new BasicConstraints(ca));
+        return new JcaX509CertificateConverter().getCertificate(
+                builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(issuerKey)));
+    }
+}
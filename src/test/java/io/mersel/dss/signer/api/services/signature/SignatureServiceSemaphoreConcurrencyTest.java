@@ -10,6 +10,7 @@ import eu.europa.esig.dss.model.SignatureValue;
 import eu.europa.esig.dss.model.ToBeSigned;
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter;
 import io.mersel.dss.signer.api.services.crypto.CryptoSignerService;
 import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
 import io.mersel.dss.signer.api.services.signature.cades.CAdESSignatureService;
@@ -52,8 +53,8 @@ import static org.mockito.Mockito.when;
  *
  * <p>G grubu (HTTP/API concurrent 50 istek) ve H grubu (PKCS#11 2 paralel)
  * için <b>shared infrastructure</b>: tüm imza servisleri aynı
- * {@code signatureSemaphore} bean'ini paylaşır ve kritik bölgeyi
- * {@code semaphore.acquire() … release()} bloğu ile sarar. Bu test, gerçekten
+ * {@code signingLimiter} bean'ini paylaşır ve kritik bölgeyi (HSM/PFX imza
+ * çağrısı) {@code semaphore.acquire() … release()} bloğu ile sarar. Bu test, gerçekten
  * paralel yükle servisin <b>asla</b> permits sayısını aşmadığını doğrular —
  * HSM session pool kullanımının sessizce kırılmasına karşı regression guard.</p>
  *
@@ -106,23 +107,23 @@ class SignatureServiceSemaphoreConcurrencyTest {
         AtomicInteger highWaterMark = new AtomicInteger(0);
         AtomicInteger totalCompleted = new AtomicInteger(0);
 
-        // Mock DSS service — kritik bölgenin (acquire-release arası) içinde
-        // çalışır. Sleep + atomic counter ile yüksek su seviyesi izlenir.
         CAdESService dssService = mock(CAdESService.class);
         when(dssService.getDataToSign(any(DSSDocument.class), any(CAdESSignatureParameters.class)))
+            .thenReturn(new ToBeSigned(new byte[]{1, 2, 3}));
+
+        // Mock HSM imzası — kritik bölgenin (acquire-release arası) içinde
+        // çalışır. Sleep + atomic counter ile yüksek su seviyesi izlenir.
+        CryptoSignerService cryptoSigner = mock(CryptoSignerService.class);
+        when(cryptoSigner.sign(any(ToBeSigned.class), any(SigningMaterial.class),
+            any(DigestAlgorithm.class)))
             .thenAnswer(invocation -> {
                 int active = concurrentActive.incrementAndGet();
                 highWaterMark.updateAndGet(prev -> Math.max(prev, active));
                 Thread.sleep(WORK_DELAY_MS);
                 concurrentActive.decrementAndGet();
-                return new ToBeSigned(new byte[]{1, 2, 3});
+                return new SignatureValue(SignatureAlgorithm.RSA_SHA256, new byte[]{9, 9, 9});
             });
 
-        CryptoSignerService cryptoSigner = mock(CryptoSignerService.class);
-        when(cryptoSigner.sign(any(ToBeSigned.class), any(SigningMaterial.class),
-            any(DigestAlgorithm.class)))
-            .thenReturn(new SignatureValue(SignatureAlgorithm.RSA_SHA256, new byte[]{9, 9, 9}));
-
         when(dssService.signDocument(any(DSSDocument.class),
             any(CAdESSignatureParameters.class), any(SignatureValue.class)))
             .thenReturn(new InMemoryDocument("signed".getBytes(), "out.p7s"));
@@ -133,7 +134,7 @@ class SignatureServiceSemaphoreConcurrencyTest {
 
         Semaphore semaphore = new Semaphore(PERMITS);
         CAdESSignatureService service = new CAdESSignatureService(
-            dssService, cryptoSigner, digestResolver, semaphore);
+            dssService, cryptoSigner, digestResolver, new FixedSigningLimiter(semaphore));
 
         SigningMaterial material = new SigningMaterial(
             testKeyPair.getPrivate(),
@@ -187,18 +188,18 @@ class SignatureServiceSemaphoreConcurrencyTest {
 
         CAdESService dssService = mock(CAdESService.class);
         when(dssService.getDataToSign(any(DSSDocument.class), any(CAdESSignatureParameters.class)))
+            .thenReturn(new ToBeSigned(new byte[]{1}));
+
+        CryptoSignerService cryptoSigner = mock(CryptoSignerService.class);
+        when(cryptoSigner.sign(any(ToBeSigned.class), any(SigningMaterial.class),
+            any(DigestAlgorithm.class)))
             .thenAnswer(invocation -> {
                 int active = concurrentActive.incrementAndGet();
                 highWaterMark.updateAndGet(prev -> Math.max(prev, active));
                 Thread.sleep(WORK_DELAY_MS * 2);
                 concurrentActive.decrementAndGet();
-                return new ToBeSigned(new byte[]{1});
+                return new SignatureValue(SignatureAlgorithm.RSA_SHA256, new byte[]{1});
             });
-
-        CryptoSignerService cryptoSigner = mock(CryptoSignerService.class);
-        when(cryptoSigner.sign(any(ToBeSigned.class), any(SigningMaterial.class),
-            any(DigestAlgorithm.class)))
-            .thenReturn(new SignatureValue(SignatureAlgorithm.RSA_SHA256, new byte[]{1}));
         when(dssService.signDocument(any(), any(), any()))
             .thenReturn(new InMemoryDocument(new byte[]{1}, "s.p7s"));
 
@@ -208,7 +209,7 @@ class SignatureServiceSemaphoreConcurrencyTest {
 
         Semaphore semaphore = new Semaphore(PERMITS);
         CAdESSignatureService service = new CAdESSignatureService(
-            dssService, cryptoSigner, digestResolver, semaphore);
+            dssService, cryptoSigner, digestResolver, new FixedSigningLimiter(semaphore));
 
         SigningMaterial material = new SigningMaterial(
             testKeyPair.getPrivate(), testCertificate,
@@ -242,7 +243,7 @@ class SignatureServiceSemaphoreConcurrencyTest {
     /**
      * Birden fazla servis aynı semaphore bean'ini paylaşırsa permits'ler
      * <b>cross-service</b> kısıtlamalı. Bu, prod'da PAdES + CAdES + XAdES
-     * + WSS servislerinin signatureSemaphore bean'i ile aynı HSM session
+     * + WSS servislerinin signingLimiter bean'i ile aynı HSM session
      * havuzunu paylaşması demek. Test: tek bir semaphore'u iki ayrı service
      * instance'ına inject et, paralel başlat → toplam active hâlâ ≤ permits.
      *
@@ -294,20 +295,20 @@ class SignatureServiceSemaphoreConcurrencyTest {
             Semaphore shared, AtomicInteger active, AtomicInteger highWaterMark) {
         CAdESService dssService = mock(CAdESService.class);
         when(dssService.getDataToSign(any(DSSDocument.class), any(CAdESSignatureParameters.class)))
-            .thenAnswer(invocation -> {
-                int curr = active.incrementAndGet();
-                highWaterMark.updateAndGet(prev -> Math.max(prev, curr));
-                Thread.sleep(WORK_DELAY_MS);
-                active.decrementAndGet();
-                return new ToBeSigned(new byte[]{1});
-            });
+            .thenReturn(new ToBeSigned(new byte[]{1}));
         CryptoSignerService cryptoSigner = mock(CryptoSignerService.class);
         try {
             when(cryptoSigner.sign(any(ToBeSigned.class), any(SigningMaterial.class),
                 any(DigestAlgorithm.class)))
-                .thenReturn(new SignatureValue(SignatureAlgorithm.RSA_SHA256, new byte[]{1}));
+                .thenAnswer(invocation -> {
+                    int curr = active.incrementAndGet();
+                    highWaterMark.updateAndGet(prev -> Math.max(prev, curr));
+                    Thread.sleep(WORK_DELAY_MS);
+                    active.decrementAndGet();
+                    return new SignatureValue(SignatureAlgorithm.RSA_SHA256, new byte[]{1});
+                });
         } catch (Exception ignored) {
-            // Mockito.when ile thenReturn — Exception fırlatmıyor
+            // Mockito.when ile thenAnswer — Exception fırlatmıyor
         }
         when(dssService.signDocument(any(), any(), any()))
             .thenReturn(new InMemoryDocument(new byte[]{1}, "s.p7s"));
@@ -315,6 +316,6 @@ class SignatureServiceSemaphoreConcurrencyTest {
         when(digestResolver.resolveDigestAlgorithm(any(X509Certificate.class)))
             .thenReturn(DigestAlgorithm.SHA256);
 
-        return new CAdESSignatureService(dssService, cryptoSigner, digestResolver, shared);
+        return new CAdESSignatureService(dssService, cryptoSigner, digestResolver, new FixedSigningLimiter(shared));
     }
 }
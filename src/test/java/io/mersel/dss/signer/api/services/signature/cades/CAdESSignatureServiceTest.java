@@ -7,9 +7,11 @@ import eu.europa.esig.dss.enumerations.SignatureAlgorithm;
 import eu.europa.esig.dss.enumerations.SignatureLevel;
 import eu.europa.esig.dss.enumerations.SignaturePackaging;
 import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DigestDocument;
 import eu.europa.esig.dss.model.InMemoryDocument;
 import eu.europa.esig.dss.model.SignatureValue;
 import eu.europa.esig.dss.model.ToBeSigned;
+import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
@@ -17,12 +19,18 @@ import io.qameta.allure.Epic;
 import io.qameta.allure.Feature;
 import io.qameta.allure.Severity;
 import io.qameta.allure.SeverityLevel;
+import io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter;
 import io.mersel.dss.signer.api.services.crypto.CryptoSignerService;
 import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
+import io.mersel.dss.signer.api.services.crypto.SignatureAlgorithmResolverService;
 import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
 import org.bouncycastle.cert.X509v3CertificateBuilder;
 import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cms.CMSProcessableByteArray;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
 import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -33,15 +41,25 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
 import java.security.cert.X509Certificate;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Set;
 import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -88,7 +106,7 @@ class CAdESSignatureServiceTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
         semaphore = new Semaphore(2);
-        service = new CAdESSignatureService(cadesService, cryptoSigner, digestAlgorithmResolver, semaphore);
+        service = new CAdESSignatureService(cadesService, cryptoSigner, digestAlgorithmResolver, new FixedSigningLimiter(semaphore));
     }
 
     private SigningMaterial createTestMaterial() {
@@ -315,6 +333,36 @@ class CAdESSignatureServiceTest {
     @Nested
     class SemaphoreManagement {
 
+        @Test
+        void shouldHoldPermitOnlyDuringCryptoSign() throws Exception {
+            setupDefaultMocks();
+            int permits = semaphore.availablePermits();
+            int[] observed = new int[3];
+            when(cadesService.getDataToSign(any(DSSDocument.class), any(CAdESSignatureParameters.class)))
+                    .thenAnswer(invocation -> {
+                        observed[0] = semaphore.availablePermits();
+                        return new ToBeSigned(new byte[]{1, 2, 3});
+                    });
+            when(cryptoSigner.sign(any(ToBeSigned.class), any(SigningMaterial.class),
+                    any(DigestAlgorithm.class)))
+                    .thenAnswer(invocation -> {
+                        observed[1] = semaphore.availablePermits();
+                        return new SignatureValue(SignatureAlgorithm.RSA_SHA256, new byte[]{10, 20, 30});
+                    });
+            when(cadesService.signDocument(any(DSSDocument.class), any(CAdESSignatureParameters.class),
+                    any(SignatureValue.class)))
+                    .thenAnswer(invocation -> {
+                        observed[2] = semaphore.availablePermits();
+                        return new InMemoryDocument("signed".getBytes(), "signed.p7s");
+                    });
+
+            service.signData(new ByteArrayInputStream("test".getBytes()), false, createTestMaterial());
+
+            assertEquals(permits, observed[0], "getDataToSign permit dışında çalışmalı");
+            assertEquals(permits - 1, observed[1], "yalnızca imza çağrısı permit tutmalı");
+            assertEquals(permits, observed[2], "signDocument permit dışında çalışmalı");
+        }
+
         @Test
         void shouldReleaseSemaphoreAfterSuccess() throws Exception {
             setupDefaultMocks();
@@ -415,4 +463,110 @@ class CAdESSignatureServiceTest {
             assertEquals("HSM_ERROR", ex.getErrorCode());
         }
     }
+
+    /**
+     * Gerçek DSS {@link CAdESService} ile uçtan uca: ayrık mod digest-only belge
+     * üzerinden imzalar, gömülü mod spool dosyasından akış halinde yazılır.
+     */
+    @Nested
+    class StreamingSigning {
+
+        private final byte[] content = "akış halinde imzalanacak içerik".getBytes(StandardCharsets.UTF_8);
+
+        private CAdESSignatureService realService() {
+            return new CAdESSignatureService(
+                    new CAdESService(new CommonCertificateVerifier()),
+                    new CryptoSignerService(new SignatureAlgorithmResolverService()),
+                    new DigestAlgorithmResolverService(),
+                    new FixedSigningLimiter(semaphore));
+        }
+
+        @Test
+        void detachedMode_shouldSignDigestOnlyDocument() throws Exception {
+            setupDefaultMocks();
+            ArgumentCaptor<DSSDocument> documentCaptor = ArgumentCaptor.forClass(DSSDocument.class);
+
+            service.signData(new ByteArrayInputStream(content), true, createTestMaterial());
+
+            verify(cadesService).getDataToSign(documentCaptor.capture(), any(CAdESSignatureParameters.class));
+            DSSDocument document = documentCaptor.getValue();
+            assertTrue(document instanceof DigestDocument);
+            assertEquals(
+                    Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(content)),
+                    ((DigestDocument) document).getDigest(DigestAlgorithm.SHA256).getBase64Value());
+        }
+
+        @Test
+        void detachedMode_realDss_shouldVerifyAgainstContent() throws Exception {
+            SignResponse response = realService()
+                    .signData(new ByteArrayInputStream(content), true, createTestMaterial());
+
+            CMSSignedData cms = new CMSSignedData(new CMSProcessableByteArray(content),
+                    response.getSignedDocument());
+            assertTrue(cms.isDetachedSignature());
+            assertVerifies(cms);
+        }
+
+        @Test
+        void envelopingMode_shouldStreamVerifiableAttachedCms() throws Exception {
+            SpooledCmsSignature spooled = realService()
+                    .signEnveloping(new ByteArrayInputStream(content), createTestMaterial());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                assertEquals(content.length, spooled.getContentLength());
+                spooled.writeTo(out);
+            } finally {
+                spooled.close();
+            }
+
+            CMSSignedData cms = new CMSSignedData(out.toByteArray());
+            assertFalse(cms.isDetachedSignature());
+            assertArrayEquals(content, (byte[]) cms.getSignedContent().getContent());
+            assertFalse(spooled.getSignatureValue().isEmpty());
+            assertVerifies(cms);
+        }
+
+        @Test
+        void envelopingMode_closeShouldDeleteSpoolFile() throws Exception {
+            Path tmp = Paths.get(System.getProperty("java.io.tmpdir"));
+            Set<Path> before = listSpools(tmp);
+
+            SpooledCmsSignature spooled = realService()
+                    .signEnveloping(new ByteArrayInputStream(content), createTestMaterial());
+            assertEquals(before.size() + 1, listSpools(tmp).size());
+
+            spooled.close();
+            assertEquals(before, listSpools(tmp));
+        }
+
+        @Test
+        void envelopingMode_failure_shouldDeleteSpoolAndReleaseSemaphore() throws Exception {
+            when(digestAlgorithmResolver.resolveDigestAlgorithm(any(X509Certificate.class)))
+                    .thenReturn(DigestAlgorithm.SHA256);
+            when(cadesService.getDataToSign(any(DSSDocument.class), any(CAdESSignatureParameters.class)))
+                    .thenThrow(new RuntimeException("DSS error"));
+            Path tmp = Paths.get(System.getProperty("java.io.tmpdir"));
+            Set<Path> before = listSpools(tmp);
+            int permitsBefore = semaphore.availablePermits();
+
+            SignatureException ex = assertThrows(SignatureException.class,
+                    () -> service.signEnveloping(new ByteArrayInputStream(content), createTestMaterial()));
+
+            assertEquals("CADES_SIGN_ERROR", ex.getErrorCode());
+            assertEquals(before, listSpools(tmp));
+            assertEquals(permitsBefore, semaphore.availablePermits());
+        }
+
+        private void assertVerifies(CMSSignedData cms) throws Exception {
+            SignerInformation signer = cms.getSignerInfos().getSigners().iterator().next();
+            assertTrue(signer.verify(new JcaSimpleSignerInfoVerifierBuilder().build(testCertificate)));
+        }
+
+        private Set<Path> listSpools(Path dir) throws IOException {
+            try (Stream<Path> files = Files.list(dir)) {
+                return files.filter(p -> p.getFileName().toString().startsWith("cades-spool-"))
+                        .collect(Collectors.toSet());
+            }
+        }
+    }
 }
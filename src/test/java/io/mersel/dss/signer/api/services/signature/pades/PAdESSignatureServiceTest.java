@@ -2,7 +2,18 @@ package io.mersel.dss.signer.api.services.signature.pades;
 
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.enumerations.SignatureAlgorithm;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.AcroFields;
+import com.itextpdf.text.pdf.PdfArray;
+import com.itextpdf.text.pdf.PdfDictionary;
+import com.itextpdf.text.pdf.PdfName;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfWriter;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter;
 import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
 import io.mersel.dss.signer.api.services.crypto.SigningMaterialContentSigner;
 import io.mersel.dss.signer.api.services.keystore.iaik.Pkcs11Signer;
@@ -14,24 +25,42 @@ import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
 import org.bouncycastle.cert.X509v3CertificateBuilder;
 import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cms.CMSProcessableByteArray;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
 import org.bouncycastle.operator.ContentSigner;
 import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.cert.X509Certificate;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -108,7 +137,7 @@ class PAdESSignatureServiceTest {
             Collections.singletonList(rsaCert));
 
         PAdESSignatureService service = new PAdESSignatureService(
-            new Semaphore(1), resolver);
+            new FixedSigningLimiter(1), resolver);
 
         // buildContentSigner private; reflektif olarak çağırıp dönen ContentSigner'ın
         // algorithmIdentifier'ını kontrol et. Bu, PAdES'in HSM yolunda doğru
@@ -153,7 +182,7 @@ class PAdESSignatureServiceTest {
         SigningMaterial material = new SigningMaterial(signer, rsaCert,
             Collections.singletonList(rsaCert));
 
-        PAdESSignatureService service = new PAdESSignatureService(new Semaphore(1), resolver);
+        PAdESSignatureService service = new PAdESSignatureService(new FixedSigningLimiter(1), resolver);
         Method buildMethod = PAdESSignatureService.class.getDeclaredMethod(
             "buildContentSigner", SigningMaterial.class, DigestAlgorithm.class);
         buildMethod.setAccessible(true);
@@ -177,7 +206,7 @@ class PAdESSignatureServiceTest {
         SigningMaterial material = new SigningMaterial(rsaPair.getPrivate(), rsaCert,
             Collections.singletonList(rsaCert));
         PAdESSignatureService service = new PAdESSignatureService(
-            new Semaphore(1), new DigestAlgorithmResolverService());
+            new FixedSigningLimiter(1), new DigestAlgorithmResolverService());
 
         Method buildMethod = PAdESSignatureService.class.getDeclaredMethod(
             "buildContentSigner", SigningMaterial.class, DigestAlgorithm.class);
@@ -190,4 +219,132 @@ class PAdESSignatureServiceTest {
         cs.getOutputStream().write(new byte[]{0x01, 0x02});
         assertTrue(cs.getSignature().length > 0);
     }
+
+    @Test
+    @DisplayName("Dosya tabanlı imza: byte aralıkları diskten okunur, imza doğrulanır")
+    void signPdfToFile_producesVerifiableSignature() throws Exception {
+        PAdESSignatureService service = new PAdESSignatureService(
+            new FixedSigningLimiter(1), new DigestAlgorithmResolverService());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SpooledPdfSignature signed = service.signPdfToFile(
+                new ByteArrayInputStream(buildSimplePdf()), null, null, false, pfxMaterial())) {
+            signed.writeTo(out);
+            assertEquals(out.size(), signed.getContentLength());
+        }
+
+        assertSingleValidSignature(out.toByteArray());
+    }
+
+    @Test
+    @DisplayName("Ekleme modunda orijinal byte'lar aynen korunur ve imza doğrulanır")
+    void signPdfToFile_appendModeKeepsOriginalRevision() throws Exception {
+        PAdESSignatureService service = new PAdESSignatureService(
+            new FixedSigningLimiter(1), new DigestAlgorithmResolverService());
+        byte[] original = buildSimplePdf();
+
+        byte[] signed = service.signPdf(
+            new ByteArrayInputStream(original), null, null, true, pfxMaterial()).getSignedDocument();
+
+        assertArrayEquals(original, Arrays.copyOf(signed, original.length));
+        assertSingleValidSignature(signed);
+    }
+
+    @Test
+    @DisplayName("Geçici dosyalar başarıda close() ile, hatada hemen silinir")
+    void signPdfToFile_cleansUpTempFiles() throws Exception {
+        PAdESSignatureService service = new PAdESSignatureService(
+            new FixedSigningLimiter(1), new DigestAlgorithmResolverService());
+        Set<Path> before = listTempFiles();
+
+        SpooledPdfSignature signed = service.signPdfToFile(
+            new ByteArrayInputStream(buildSimplePdf()), null, null, false, pfxMaterial());
+        assertEquals(before.size() + 1, listTempFiles().size(),
+            "Başarılı imzadan sonra yalnızca imzalı çıktı kalmalı");
+        signed.close();
+        assertEquals(before, listTempFiles());
+
+        assertThrows(SignatureException.class, () -> service.signPdfToFile(
+            new ByteArrayInputStream("not a pdf".getBytes()), null, null, false, pfxMaterial()));
+        assertEquals(before, listTempFiles());
+    }
+
+    @Test
+    @DisplayName("İmza permit'i yalnızca HSM imza çağrısı süresince tutulur")
+    void signPdf_holdsPermitOnlyDuringHsmCall() throws Exception {
+        Semaphore semaphore = new Semaphore(1);
+        List<Integer> permitsDuringSign = new ArrayList<>();
+
+        Pkcs11Signer signer = mock(Pkcs11Signer.class);
+        when(signer.getCertificate()).thenReturn(rsaCert);
+        when(signer.sign(any(byte[].class), any(SignatureAlgorithm.class))).thenAnswer(invocation -> {
+            permitsDuringSign.add(semaphore.availablePermits());
+            Signature rsa = Signature.getInstance("SHA256withRSA");
+            rsa.initSign(rsaPair.getPrivate());
+            rsa.update(invocation.<byte[]>getArgument(0));
+            return rsa.sign();
+        });
+        SigningMaterial material = new SigningMaterial(signer, rsaCert,
+            Collections.singletonList(rsaCert));
+        PAdESSignatureService service = new PAdESSignatureService(
+            new FixedSigningLimiter(semaphore), new DigestAlgorithmResolverService());
+
+        byte[] signed = service.signPdf(
+            new ByteArrayInputStream(buildSimplePdf()), null, null, false, material).getSignedDocument();
+
+        assertEquals(Collections.singletonList(0), permitsDuringSign,
+            "HSM çağrısı permit tutarak yapılmalı");
+        assertEquals(1, semaphore.availablePermits(),
+            "Digest ve CMS kodlaması bittiğinde permit iade edilmiş olmalı");
+        assertSingleValidSignature(signed);
+    }
+
+    private static SigningMaterial pfxMaterial() {
+        return new SigningMaterial(rsaPair.getPrivate(), rsaCert, Collections.singletonList(rsaCert));
+    }
+
+    private static void assertSingleValidSignature(byte[] pdf) throws Exception {
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            AcroFields fields = reader.getAcroFields();
+            List<String> names = fields.getSignatureNames();
+            assertEquals(1, names.size());
+            assertTrue(fields.signatureCoversWholeDocument(names.get(0)));
+
+            // iText 5.4.1'in PdfPKCS7 doğrulayıcısı güncel BouncyCastle ile
+            // uyumsuz; /ByteRange ve /Contents ile BC üzerinden doğrulanır.
+            PdfDictionary signature = fields.getSignatureDictionary(names.get(0));
+            PdfArray byteRange = signature.getAsArray(PdfName.BYTERANGE);
+            ByteArrayOutputStream signedRange = new ByteArrayOutputStream();
+            for (int i = 0; i < byteRange.size(); i += 2) {
+                signedRange.write(pdf, byteRange.getAsNumber(i).intValue(),
+                    byteRange.getAsNumber(i + 1).intValue());
+            }
+            CMSSignedData cms = new CMSSignedData(
+                new CMSProcessableByteArray(signedRange.toByteArray()),
+                signature.getAsString(PdfName.CONTENTS).getOriginalBytes());
+            SignerInformation signer = cms.getSignerInfos().getSigners().iterator().next();
+            assertTrue(signer.verify(new JcaSimpleSignerInfoVerifierBuilder().build(rsaCert)),
+                "Diskten okunan byte aralıkları üzerinden üretilen imza doğrulanmalı");
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static byte[] buildSimplePdf() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Document document = new Document(PageSize.A4);
+        PdfWriter.getInstance(document, out);
+        document.open();
+        document.add(new Paragraph("Dosya tabanlı PAdES imza testi"));
+        document.close();
+        return out.toByteArray();
+    }
+
+    private static Set<Path> listTempFiles() throws Exception {
+        try (Stream<Path> files = Files.list(Paths.get(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(p -> p.getFileName().toString().startsWith("pades-"))
+                .collect(Collectors.toSet());
+        }
+    }
 }
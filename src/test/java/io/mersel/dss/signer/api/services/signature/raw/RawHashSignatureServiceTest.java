@@ -3,6 +3,7 @@ package io.mersel.dss.signer.api.services.signature.raw;
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import io.mersel.dss.signer.api.e2e.verifier.E2eSigningMaterialFactory;
 import io.mersel.dss.signer.api.e2e.verifier.PfxTestKey;
+import io.mersel.dss.signer.api.models.BatchSignResult;
 import io.mersel.dss.signer.api.models.SigningMaterial;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
@@ -16,6 +17,7 @@ import java.security.PublicKey;
 import java.security.Signature;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -256,6 +258,63 @@ class RawHashSignatureServiceTest {
             "Service'in çıktısı SHA-256(SHA-256(content)) imzası — double-hash bug regresyonu");
     }
 
+    @ParameterizedTest(name = "{0} + {1}: toplu imza → her öğe kendi içeriğiyle doğrulanır")
+    @MethodSource("matrix")
+    @DisplayName("Toplu imza: sonuçlar girdi sırasıyla ve doğrulanabilir")
+    void signDigestBatch_preservesOrderAndVerifies(Backend backend, PfxTestKey key) throws Exception {
+        SigningMaterial material = backend.load(key);
+        RawHashSignatureService service = new RawHashSignatureService(material);
+
+        List<byte[]> contents = new ArrayList<>();
+        List<byte[]> digests = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            byte[] content = ("toplu imza öğesi " + i).getBytes("UTF-8");
+            contents.add(content);
+            digests.add(sha256(content));
+        }
+
+        List<BatchSignResult> results = service.signDigestBatch(digests, DigestAlgorithm.SHA256);
+
+        assertEquals(12, results.size());
+        for (int i = 0; i < 12; i++) {
+            assertTrue(results.get(i).isSuccess(), "öğe " + i + ": " + results.get(i).getErrorMessage());
+            assertTrue(verifyContent(material.getSigningCertificate(), contents.get(i),
+                results.get(i).getSignature(), "SHA-256"),
+                "öğe " + i + " başka bir digest'in imzasıyla eşleşti (backend=" + backend + ")");
+        }
+    }
+
+    @Test
+    @DisplayName("Toplu imza: geçersiz öğe tüm isteği indeksli mesajla reddeder")
+    void signDigestBatch_invalidItemRejectsWholeBatch() throws Exception {
+        SigningMaterial material = E2eSigningMaterialFactory.load(PfxTestKey.KURUM01_RSA2048);
+        RawHashSignatureService service = new RawHashSignatureService(material);
+
+        List<byte[]> digests = new ArrayList<>();
+        digests.add(sha256("a".getBytes("UTF-8")));
+        digests.add(new byte[20]);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+            () -> service.signDigestBatch(digests, DigestAlgorithm.SHA256));
+        assertTrue(ex.getMessage().startsWith("digests[1]"),
+            "Hata mesajı öğe indeksini içermeli: " + ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("Toplu imza: boş liste ve üst sınır aşımı → IllegalArgumentException")
+    void signDigestBatch_emptyOrOversizedRejected() throws Exception {
+        SigningMaterial material = E2eSigningMaterialFactory.load(PfxTestKey.KURUM01_RSA2048);
+        RawHashSignatureService service = new RawHashSignatureService(material, 2);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> service.signDigestBatch(new ArrayList<>(), DigestAlgorithm.SHA256));
+
+        byte[] digest = sha256("x".getBytes("UTF-8"));
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+            () -> service.signDigestBatch(Arrays.asList(digest, digest, digest), DigestAlgorithm.SHA256));
+        assertTrue(ex.getMessage().contains("en fazla 2"), ex.getMessage());
+    }
+
     // ──────────────── Yardımcılar ────────────────
 
     private static byte[] sha256(byte[] content) throws Exception {
@@ -6,6 +6,7 @@ import io.mersel.dss.signer.api.e2e.verifier.SoapEnvelopeFixture;
 import io.mersel.dss.signer.api.e2e.verifier.WsSecurityLocalXmlDsigVerifier;
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter;
 import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
 import io.mersel.dss.signer.api.testsupport.SignedArtifactExporter;
 import io.qameta.allure.Epic;
@@ -24,7 +25,6 @@ import org.w3c.dom.NodeList;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.ByteArrayInputStream;
-import java.util.concurrent.Semaphore;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -92,7 +92,7 @@ class WsSecurityEnvelopeShapeParityTest {
     @BeforeAll
     static void initStack() {
         service = new WsSecuritySignatureService(
-                new Semaphore(2), new DigestAlgorithmResolverService());
+                new FixedSigningLimiter(2), new DigestAlgorithmResolverService());
         rsa2048Material = E2eSigningMaterialFactory.load(PfxTestKey.KURUM01_RSA2048);
     }
 
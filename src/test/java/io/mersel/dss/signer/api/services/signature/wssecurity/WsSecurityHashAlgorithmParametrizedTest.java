@@ -7,6 +7,7 @@ import io.mersel.dss.signer.api.e2e.verifier.SoapEnvelopeFixture;
 import io.mersel.dss.signer.api.e2e.verifier.WsSecurityLocalXmlDsigVerifier;
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter;
 import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
 import io.mersel.dss.signer.api.testsupport.SignedArtifactExporter;
 import io.qameta.allure.Epic;
@@ -27,7 +28,6 @@ import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.ByteArrayInputStream;
 import java.security.cert.X509Certificate;
-import java.util.concurrent.Semaphore;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -116,7 +116,7 @@ class WsSecurityHashAlgorithmParametrizedTest {
         when(mockResolver.resolveDigestAlgorithm(any(X509Certificate.class))).thenReturn(hashAlgo);
 
         WsSecuritySignatureService service = new WsSecuritySignatureService(
-                new Semaphore(2), mockResolver);
+                new FixedSigningLimiter(2), mockResolver);
 
         Document soapDoc = parseXmlSecurely(baselineSoap);
         SignResponse signed = service.signSoapEnvelope(
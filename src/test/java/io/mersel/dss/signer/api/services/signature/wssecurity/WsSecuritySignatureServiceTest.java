@@ -4,10 +4,12 @@ import eu.europa.esig.dss.enumerations.SignatureAlgorithm;
 import io.mersel.dss.signer.api.exceptions.SignatureException;
 import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter;
 import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
 import io.mersel.dss.signer.api.services.keystore.iaik.Pkcs11EcdsaSignatureEncoder;
 import io.mersel.dss.signer.api.services.keystore.iaik.Pkcs11Signer;
 import io.mersel.dss.signer.api.testsupport.SignedArtifactExporter;
+import io.mersel.dss.signer.api.util.Utilities;
 import io.qameta.allure.Epic;
 import io.qameta.allure.Feature;
 import io.qameta.allure.Severity;
@@ -22,6 +24,10 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.core.io.ByteArrayResource;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
@@ -39,23 +45,31 @@ import javax.xml.crypto.dsig.keyinfo.KeyInfo;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.PublicKey;
 import java.security.Signature;
 import java.security.cert.X509Certificate;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -83,7 +97,7 @@ class WsSecuritySignatureServiceTest {
     private static X509Certificate ecCert;
 
     private final WsSecuritySignatureService service = new WsSecuritySignatureService(
-        new Semaphore(4),
+        new FixedSigningLimiter(4),
         new DigestAlgorithmResolverService());
 
     @BeforeAll
@@ -238,10 +252,164 @@ class WsSecuritySignatureServiceTest {
         }
     }
 
+    // -------------------------------------------------------------------
+    // İmza permit'i (kritik bölge yalnızca backend imzası)
+    // -------------------------------------------------------------------
+
+    @Nested
+    @DisplayName("İmza permit'i")
+    class SigningPermit {
+
+        @Test
+        @DisplayName("Permit alındığında referans digest'leri zaten hesaplanmış olmalı; imzadan sonra geri verilmeli")
+        void permitCoversOnlyBackendSign() throws Exception {
+            Document soap = loadSoapEnvelope();
+            List<String> digestsAtAcquire = new ArrayList<>();
+            AtomicInteger acquisitions = new AtomicInteger();
+            Semaphore recording = new Semaphore(1) {
+                @Override
+                public void acquire() throws InterruptedException {
+                    acquisitions.incrementAndGet();
+                    NodeList values = soap.getElementsByTagNameNS(
+                        "http://www.w3.org/2000/09/xmldsig#", "DigestValue");
+                    for (int i = 0; i < values.getLength(); i++) {
+                        digestsAtAcquire.add(values.item(i).getTextContent());
+                    }
+                    super.acquire();
+                }
+            };
+            WsSecuritySignatureService narrow = new WsSecuritySignatureService(
+                new FixedSigningLimiter(recording), new DigestAlgorithmResolverService());
+
+            SignResponse response = narrow.signSoapEnvelope(
+                soap, false, pfxMaterial(rsaPair, rsaCert), "test", new char[0]);
+
+            assertEquals(1, acquisitions.get());
+            assertEquals(2, digestsAtAcquire.size(), "Timestamp + Body referansları bekleniyor");
+            for (String digest : digestsAtAcquire) {
+                assertFalse(digest.isEmpty(), "Digest permit alınmadan önce hesaplanmalı");
+            }
+            assertEquals(1, recording.availablePermits(), "Permit imzadan sonra geri verilmeli");
+            assertSignatureValid(parseXml(response.getSignedDocument()), rsaCert.getPublicKey());
+        }
+    }
+
+    @Nested
+    @DisplayName("Akış modu (StAX, DOM'suz)")
+    class StreamingMode {
+
+        private final WsSecuritySignatureService streaming = fixedClockService();
+
+        @ParameterizedTest(name = "{0}")
+        @MethodSource("io.mersel.dss.signer.api.services.signature.wssecurity.WsSecuritySignatureServiceTest#streamingEnvelopes")
+        @DisplayName("Akış modu çıktısı DOM yolunun çıktısıyla byte düzeyinde aynı olmalı ve doğrulanmalı")
+        void streamingOutputMatchesDomPath(String name, boolean soap12, byte[] envelope) throws Exception {
+            SigningMaterial material = pfxMaterial(rsaPair, rsaCert);
+            byte[] expected = streaming.signSoapEnvelope(
+                Utilities.LoadXMLFromInputStream(new ByteArrayInputStream(envelope)),
+                soap12, material, "test", new char[0]).getSignedDocument();
+
+            StreamingWsSecurityEnvelope prepared = streaming.prepareStreaming(
+                new ByteArrayResource(envelope), soap12, material);
+            assertNotNull(prepared, "Zarf akış modunda imzalanabilmeli");
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            prepared.writeTo(out);
+
+            assertEquals(new String(expected, StandardCharsets.UTF_8), out.toString("UTF-8"));
+            assertArrayEquals(expected, out.toByteArray());
+            assertSignatureValid(parseXml(out.toByteArray()), rsaCert.getPublicKey());
+        }
+
+        @Test
+        @DisplayName("Mevcut Security başlığı, DOCTYPE, çakışan Id veya UTF-8 dışı kodlama → null (DOM yoluna düşülür)")
+        void unsupportedStructuresFallBackToDom() {
+            SigningMaterial material = pfxMaterial(rsaPair, rsaCert);
+            String withSecurity = "<s:Envelope xmlns:s=\"" + SOAP11 + "\"><s:Header>"
+                + "<wsse:Security xmlns:wsse=\"http://docs.oasis-open.org/wss/2004/01/"
+                + "oasis-200401-wss-wssecurity-secext-1.0.xsd\"/></s:Header><s:Body/></s:Envelope>";
+            String withDoctype = "<!DOCTYPE s:Envelope><s:Envelope xmlns:s=\"" + SOAP11 + "\"><s:Body/></s:Envelope>";
+            String collidingId = "<s:Envelope xmlns:s=\"" + SOAP11 + "\"><s:Header>"
+                + "<a Id=\"SignedSoapBodyContent\"/></s:Header><s:Body/></s:Envelope>";
+
+            String latin5 = "<?xml version=\"1.0\" encoding=\"ISO-8859-9\"?><s:Envelope xmlns:s=\""
+                + SOAP11 + "\"><s:Body/></s:Envelope>";
+
+            for (String envelope : new String[] {withSecurity, withDoctype, collidingId, latin5, "<yarım"}) {
+                assertNull(streaming.prepareStreaming(
+                    new ByteArrayResource(envelope.getBytes(StandardCharsets.UTF_8)), false, material), envelope);
+            }
+        }
+
+        @Test
+        @DisplayName("Eşik 0 iken akış modu kapalı")
+        void streamingDisabledByDefault() {
+            assertFalse(streaming.isStreamingEligible(Long.MAX_VALUE));
+        }
+    }
+
     // -------------------------------------------------------------------
     // Yardımcılar
     // -------------------------------------------------------------------
 
+    private static final String SOAP11 = "http://schemas.xmlsoap.org/soap/envelope/";
+    private static final String SOAP12 = "http://www.w3.org/2003/05/soap-envelope";
+
+    private static WsSecuritySignatureService fixedClockService() {
+        WsSecuritySignatureService service = new WsSecuritySignatureService(
+            new FixedSigningLimiter(4), new DigestAlgorithmResolverService());
+        service.setClock(Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC));
+        return service;
+    }
+
+    /** DOM ve akış yollarının karşılaştırıldığı zarflar: ad, SOAP 1.2 mi, byte'lar. */
+    static Stream<Arguments> streamingEnvelopes() {
+        StringBuilder largeText = new StringBuilder();
+        StringBuilder largeCdata = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            largeText.append("satır ").append(i).append(" &amp; \uD83D\uDE00 ğüşiöç\n");
+            largeCdata.append("<kayıt no=\"").append(i).append("\"/>\n");
+        }
+        String bigBody = "<s:Envelope xmlns:s=\"" + SOAP11 + "\"><s:Body><p:Data xmlns:p=\"urn:p\">"
+            + largeText + "<![CDATA[" + largeCdata + "]]></p:Data></s:Body></s:Envelope>";
+
+        return Stream.of(
+            envelope("boş Header", false,
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<soapenv:Envelope xmlns:soapenv=\"" + SOAP11 + "\"><soapenv:Header/>"
+                + "<soapenv:Body><test:Request xmlns:test=\"urn:test\">"
+                + "<test:Data>WS-Security test payload</test:Data></test:Request></soapenv:Body>"
+                + "</soapenv:Envelope>"),
+            envelope("Header yok, farklı önek, Body attribute temizliği", false,
+                "<s:Envelope xmlns:s=\"" + SOAP11 + "\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">"
+                + "<s:Body xmlns:wsu=\"http://docs.oasis-open.org/wss/2004/01/"
+                + "oasis-200401-wss-wssecurity-utility-1.0.xsd\" wsu:Id=\"eski\" b=\"2\" a=\"1\""
+                + " xmlns:xsd=\"http://www.w3.org/2001/XMLSchema\">"
+                + "<r xmlns=\"urn:varsayilan\"><ic xsi:type=\"xsd:string\">x</ic>"
+                + "<bos xmlns=\"\"/><c:d xmlns:c=\"urn:c\" c:e=\"f\" z=\"1\"/></r></s:Body></s:Envelope>"),
+            envelope("SOAP 1.2, dolu Header, yorum, PI, CDATA, özel karakterler", true,
+                "<!-- önce --><?ps veri ?><soap:Envelope xmlns:soap=\"" + SOAP12 + "\">\n"
+                + "  <soap:Header><h:Kimlik xmlns:h=\"urn:h\" xml:lang=\"tr\">Ağ</h:Kimlik></soap:Header>\n"
+                + "  <soap:Body Id=\"eski\">\n    <!-- gövde yorumu --><?gövde-pi  a=b?>"
+                + "<m:Mesaj xmlns:m=\"urn:m\" m:tür=\"a&#9;b&#10;c&#13;d&lt;&amp;&quot;&gt;\" alan=\"&#x85;\uD83D\uDE00\">"
+                + "&lt;&amp;&gt;\"'\t\r\n\r&#13;&#x85;&#x2028;\uD83D\uDE00 ğüşıöçİ"
+                + "<![CDATA[<ham> & ]] \u00e7]]><![CDATA[]]><![CDATA[\uD83D\uDE00x]]><e/><e> </e>"
+                + "</m:Mesaj>\n  </soap:Body>\n</soap:Envelope><!-- sonra -->"),
+            envelope("Zarfta wsse/wsu ve kullanılmayan bildirimler, önek gölgeleme", false,
+                "<soapenv:Envelope xmlns:soapenv=\"" + SOAP11 + "\""
+                + " xmlns:wsse=\"http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-secext-1.0.xsd\""
+                + " xmlns:wsu=\"http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-utility-1.0.xsd\""
+                + " xmlns:ds=\"urn:baska-ds\" xmlns:kullanilmayan=\"urn:u\" xmlns=\"urn:kok-varsayilan\">"
+                + "<soapenv:Header><x>1</x></soapenv:Header>"
+                + "<soapenv:Body><ds:a><soapenv:b xmlns:soapenv=\"urn:golge\"><c wsu:Id=\"c1\"/></soapenv:b>"
+                + "</ds:a><y xmlns=\"\"><z/></y></soapenv:Body></soapenv:Envelope>"),
+            envelope("Büyük gövde (metin ve CDATA parçalanması)", false, bigBody)
+        ).map(Arguments::of);
+    }
+
+    private static Object[] envelope(String name, boolean soap12, String xml) {
+        return new Object[] {name, soap12, xml.getBytes(StandardCharsets.UTF_8)};
+    }
+
     private static Document loadSoapEnvelope() throws Exception {
         String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
             + "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\">"
@@ -0,0 +1,459 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.exceptions.SigningCapacityException;
+import io.mersel.dss.signer.api.models.BatchManifest;
+import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.models.enums.XadesSignatureLevel;
+import io.mersel.dss.signer.api.services.util.CompressionService;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link XAdESBatchSignatureService} pipeline sözleşmesi: sıra koruma, belge
+ * bazında hata izolasyonu, manifest içeriği, girdi adı güvenliği ve sınırlar.
+ * Tek belge imzası mock'lanır — kriptografik doğruluk
+ * {@link XAdESSignatureService} testlerinin kapsamındadır.
+ */
+@Epic("Service Layer")
+@Feature("XAdES Batch Sign")
+@Severity(SeverityLevel.CRITICAL)
+class XAdESBatchSignatureServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+
+    private XAdESSignatureService xadesSignatureService;
+    private XAdESBatchSignatureService service;
+
+    @BeforeEach
+    void setUp() {
+        xadesSignatureService = mock(XAdESSignatureService.class);
+        when(xadesSignatureService.signXml(any(InputStream.class), eq(DocumentType.UblDocument),
+                isNull(), anyBoolean(), any(), eq(XadesSignatureLevel.XADES_BES)))
+            .thenAnswer(inv -> {
+                int now = inFlight.incrementAndGet();
+                peak.accumulateAndGet(now, Math::max);
+                try {
+                    String xml = IOUtils.toString((InputStream) inv.getArgument(0), StandardCharsets.UTF_8);
+                    if (xml.contains("bozuk")) {
+                        throw new SignatureException("XAdES imzası oluşturulamadı",
+                            new IllegalStateException("XML parse hatası"));
+                    }
+                    Thread.sleep(2);
+                    return new SignResponse(("<signed>" + xml + "</signed>").getBytes(StandardCharsets.UTF_8),
+                        "sig-" + xml);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        service = newService(3, 100, 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("İmzalı belgeler girdi sırasıyla ve aynı adlarla yazılır; manifest son girdidir")
+    void signsAllEntriesInOrder() throws Exception {
+        Map<String, String> input = new LinkedHashMap<>();
+        for (int i = 0; i < 25; i++) {
+            input.put("fatura-" + i + ".xml", "<Invoice>" + i + "</Invoice>");
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchManifest manifest = service.signZip(zip(input), out,
+            DocumentType.UblDocument, null, XadesSignatureLevel.XADES_BES);
+
+        assertEquals(25, manifest.getSigned());
+        assertEquals(0, manifest.getFailed());
+        assertNull(manifest.getError());
+
+        Map<String, String> output = unzip(out.toByteArray());
+        String[] names = output.keySet().toArray(new String[0]);
+        assertEquals(26, names.length);
+        for (int i = 0; i < 25; i++) {
+            assertEquals("fatura-" + i + ".xml", names[i]);
+            assertEquals("<signed><Invoice>" + i + "</Invoice></signed>", output.get(names[i]));
+        }
+        assertEquals(XAdESBatchSignatureService.MANIFEST_ENTRY_NAME, names[25]);
+
+        JsonNode json = objectMapper.readTree(output.get(XAdESBatchSignatureService.MANIFEST_ENTRY_NAME));
+        assertEquals(25, json.get("total").asInt());
+        assertEquals("SIGNED", json.get("entries").get(3).get("status").asText());
+        assertEquals("sig-<Invoice>3</Invoice>", json.get("entries").get(3).get("signatureValue").asText());
+    }
+
+    @Test
+    @DisplayName("Paralellik worker sayısıyla sınırlıdır")
+    void parallelismIsBounded() throws Exception {
+        Map<String, String> input = new LinkedHashMap<>();
+        for (int i = 0; i < 40; i++) {
+            input.put(i + ".xml", "<a>" + i + "</a>");
+        }
+
+        service.signZip(zip(input), new ByteArrayOutputStream(),
+            DocumentType.UblDocument, null, XadesSignatureLevel.XADES_BES);
+
+        assertTrue(peak.get() <= 3, "worker sayısı (3) aşılmamalı, peak=" + peak.get());
+    }
+
+    @Test
+    @DisplayName("Bir belgenin hatası diğerlerini etkilemez; manifest'te FAILED ve kök neden yer alır")
+    void failedEntryIsIsolated() throws Exception {
+        Map<String, String> input = new LinkedHashMap<>();
+        input.put("a.xml", "<a/>");
+        input.put("b.xml", "<bozuk");
+        input.put("c.xml", "<c/>");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchManifest manifest = service.signZip(zip(input), out,
+            DocumentType.UblDocument, null, XadesSignatureLevel.XADES_BES);
+
+        assertEquals(2, manifest.getSigned());
+        assertEquals(1, manifest.getFailed());
+        BatchManifest.Entry failed = manifest.getEntries().get(1);
+        assertEquals(BatchManifest.STATUS_FAILED, failed.getStatus());
+        assertEquals("b.xml", failed.getName());
+        assertNull(failed.getSignedEntry());
+        assertTrue(failed.getError().contains("XML parse hatası"), failed.getError());
+
+        Map<String, String> output = unzip(out.toByteArray());
+        assertTrue(output.containsKey("a.xml"));
+        assertTrue(output.containsKey("c.xml"));
+        assertEquals(3, output.size());
+    }
+
+    @Test
+    @DisplayName("Kapasite reddi FAILED yazılmaz; belge Retry-After sonrası yeniden denenir")
+    void capacityRejectionIsRetried() throws Exception {
+        AtomicInteger rejections = new AtomicInteger();
+        when(xadesSignatureService.signXml(any(InputStream.class), eq(DocumentType.UblDocument),
+                isNull(), anyBoolean(), any(), eq(XadesSignatureLevel.XADES_BES)))
+            .thenAnswer(inv -> {
+                String xml = IOUtils.toString((InputStream) inv.getArgument(0), StandardCharsets.UTF_8);
+                if (xml.contains("kapasite") && rejections.getAndIncrement() < 2) {
+                    throw new SignatureException("XAdES imzası oluşturulamadı",
+                        new SigningCapacityException(SigningCapacityException.Reason.QUEUE_FULL, 0,
+                            "İmza kuyruğu dolu"));
+                }
+                return new SignResponse(("<signed>" + xml + "</signed>").getBytes(StandardCharsets.UTF_8),
+                    "sig-" + xml);
+            });
+        Map<String, String> input = new LinkedHashMap<>();
+        input.put("a.xml", "<a/>");
+        input.put("b.xml", "<kapasite/>");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchManifest manifest = service.signZip(zip(input), out,
+            DocumentType.UblDocument, null, XadesSignatureLevel.XADES_BES);
+
+        assertEquals(2, manifest.getSigned());
+        assertEquals(0, manifest.getFailed());
+        assertEquals(3, rejections.get(), "iki red + bir başarılı deneme");
+        assertEquals("<signed><kapasite/></signed>", unzip(out.toByteArray()).get("b.xml"));
+    }
+
+    @Test
+    @DisplayName("Süregelen kapasite reddi: deneme sınırı aşılınca girdi kapasite nedeniyle FAILED olur")
+    void capacityRetriesAreCapped() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        when(xadesSignatureService.signXml(any(InputStream.class), eq(DocumentType.UblDocument),
+                isNull(), anyBoolean(), any(), eq(XadesSignatureLevel.XADES_BES)))
+            .thenAnswer(inv -> {
+                String xml = IOUtils.toString((InputStream) inv.getArgument(0), StandardCharsets.UTF_8);
+                if (xml.contains("kapasite")) {
+                    attempts.incrementAndGet();
+                    throw new SigningCapacityException(SigningCapacityException.Reason.QUEUE_FULL, 0,
+                        "İmza kuyruğu dolu");
+                }
+                return new SignResponse(xml.getBytes(StandardCharsets.UTF_8), "sig");
+            });
+        Map<String, String> input = new LinkedHashMap<>();
+        input.put("a.xml", "<a/>");
+        input.put("b.xml", "<kapasite/>");
+
+        BatchManifest manifest = service.signZip(zip(input), new ByteArrayOutputStream(),
+            DocumentType.UblDocument, null, XadesSignatureLevel.XADES_BES);
+
+        assertEquals(1, manifest.getSigned());
+        assertEquals(1, manifest.getFailed());
+        assertEquals(XAdESBatchSignatureService.MAX_CAPACITY_ATTEMPTS, attempts.get());
+        String error = manifest.getEntries().get(1).getError();
+        assertTrue(error.contains("QUEUE_FULL") && error.contains("İmza kuyruğu dolu"), error);
+    }
+
+    @Test
+    @DisplayName("Zip-slip adları temizlenir, çakışan adlar ve manifest.json yeniden adlandırılır")
+    void entryNamesAreSanitizedAndUnique() throws Exception {
+        Map<String, String> input = new LinkedHashMap<>();
+        input.put("../../etc/x.xml", "<1/>");
+        input.put("etc/x.xml", "<2/>");
+        input.put("manifest.json", "<3/>");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchManifest manifest = service.signZip(zip(input), out,
+            DocumentType.UblDocument, null, XadesSignatureLevel.XADES_BES);
+
+        assertEquals("etc/x.xml", manifest.getEntries().get(0).getSignedEntry());
+        assertEquals("etc/x-2.xml", manifest.getEntries().get(1).getSignedEntry());
+        assertEquals("manifest-2.json", manifest.getEntries().get(2).getSignedEntry());
+        assertEquals("../../etc/x.xml", manifest.getEntries().get(0).getName());
+        assertEquals(4, unzip(out.toByteArray()).size());
+    }
+
+    @Test
+    @DisplayName("Girdi sınırı aşılırsa toplu iş kesilir, o ana kadar imzalananlar yazılır")
+    void maxEntriesStopsBatch() throws Exception {
+        service.shutdown();
+        service = newService(2, 3, 1024);
+        Map<String, String> input = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) {
+            input.put(i + ".xml", "<a>" + i + "</a>");
+        }
+
+        BatchManifest manifest = service.signZip(zip(input), new ByteArrayOutputStream(),
+            DocumentType.UblDocument, null, XadesSignatureLevel.XADES_BES);
+
+        assertEquals(3, manifest.getSigned());
+        assertNotNull(manifest.getError());
+        assertTrue(manifest.getError().contains("en fazla 3"), manifest.getError());
+    }
+
+    @Test
+    @DisplayName("Boyut sınırını aşan girdi FAILED olur, sonraki girdiler işlenir")
+    void oversizedEntryFails() throws Exception {
+        Map<String, String> input = new LinkedHashMap<>();
+        StringBuilder big = new StringBuilder("<big>");
+        for (int i = 0; i < 2000; i++) {
+            big.append('x');
+        }
+        input.put("big.xml", big.append("</big>").toString());
+        input.put("small.xml", "<s/>");
+
+        BatchManifest manifest = service.signZip(zip(input), new ByteArrayOutputStream(),
+            DocumentType.UblDocument, null, XadesSignatureLevel.XADES_BES);
+
+        assertEquals(BatchManifest.STATUS_FAILED, manifest.getEntries().get(0).getStatus());
+        assertTrue(manifest.getEntries().get(0).getError().contains("boyut"));
+        assertEquals(BatchManifest.STATUS_SIGNED, manifest.getEntries().get(1).getStatus());
+    }
+
+    @Test
+    @DisplayName("Çıkış akışı hatası: okunamayan girdi pencerede olsa da IOException yayılır, bekleyen imzalar iptal edilir")
+    void outputFailureCancelsPendingDespiteFailedEntry() throws Exception {
+        CountDownLatch started = new CountDownLatch(3);
+        CountDownLatch interrupted = new CountDownLatch(3);
+        when(xadesSignatureService.signXml(any(InputStream.class), eq(DocumentType.UblDocument),
+                isNull(), anyBoolean(), any(), eq(XadesSignatureLevel.XADES_BES)))
+            .thenAnswer(inv -> {
+                String xml = IOUtils.toString((InputStream) inv.getArgument(0), StandardCharsets.UTF_8);
+                if (xml.contains("bekle")) {
+                    started.countDown();
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                        throw e;
+                    }
+                }
+                return new SignResponse(xml.getBytes(StandardCharsets.UTF_8), "sig");
+            });
+        StringBuilder big = new StringBuilder("<big>");
+        for (int i = 0; i < 2000; i++) {
+            big.append('x');
+        }
+        Map<String, String> input = new LinkedHashMap<>();
+        input.put("0.xml", "<ok/>");
+        input.put("big.xml", big.append("</big>").toString());
+        for (int i = 1; i <= 4; i++) {
+            input.put(i + ".xml", "<bekle/>");
+        }
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                try {
+                    // Üç worker'ın hepsi imzadayken bağlantı kopar.
+                    started.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("istemci bağlantıyı kapattı");
+            }
+        };
+
+        IOException error = assertThrows(IOException.class, () -> service.signZip(zip(input), broken,
+            DocumentType.UblDocument, null, XadesSignatureLevel.XADES_BES));
+
+        assertEquals("istemci bağlantıyı kapattı", error.getMessage());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "çalışan imzalar iptal edilmeli");
+    }
+
+    @Test
+    @DisplayName("ZIP olmayan / boş girdi → manifest hatası, imza çağrısı yok")
+    void emptyOrInvalidZip() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchManifest manifest = service.signZip(
+            new ByteArrayInputStream("bu bir zip değil".getBytes(StandardCharsets.UTF_8)), out,
+            DocumentType.UblDocument, null, XadesSignatureLevel.XADES_BES);
+
+        assertEquals(0, manifest.getTotal());
+        assertNotNull(manifest.getError());
+        assertEquals(1, unzip(out.toByteArray()).size(), "yalnız manifest yazılmalı");
+    }
+
+    @Test
+    @DisplayName("Toplu yükseltme: belgeler yeniden imzalanmadan XAdES-A'ya yükseltilir, hata izole kalır")
+    void upgradesAllEntriesInOrder() throws Exception {
+        when(xadesSignatureService.upgradeToArchive(any(byte[].class), eq(DocumentType.UblDocument), isNull()))
+            .thenAnswer(inv -> {
+                String xml = new String((byte[]) inv.getArgument(0), StandardCharsets.UTF_8);
+                if (xml.contains("imzasiz")) {
+                    throw new SignatureException("XAdES-A yükseltmesi yapılamadı",
+                        new IllegalStateException("Belgede imza bulunamadı"));
+                }
+                return ("<A>" + xml + "</A>").getBytes(StandardCharsets.UTF_8);
+            });
+        Map<String, String> input = new LinkedHashMap<>();
+        input.put("a.xml", "<bes>a</bes>");
+        input.put("b.xml", "<imzasiz/>");
+        input.put("c.xml", "<bes>c</bes>");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchManifest manifest = service.upgradeZip(zip(input), out, DocumentType.UblDocument, null);
+
+        assertEquals("XADES_A", manifest.getSignatureLevel());
+        assertEquals(2, manifest.getSigned());
+        assertEquals(1, manifest.getFailed());
+        assertTrue(manifest.getEntries().get(1).getError().contains("imza bulunamadı"),
+            manifest.getEntries().get(1).getError());
+        Map<String, String> output = unzip(out.toByteArray());
+        assertEquals("<A><bes>a</bes></A>", output.get("a.xml"));
+        assertEquals("<A><bes>c</bes></A>", output.get("c.xml"));
+        assertNull(output.get("b.xml"));
+        verify(xadesSignatureService, never()).signXml(any(InputStream.class), any(), any(), anyBoolean(),
+            any(), any());
+    }
+
+    @Test
+    @DisplayName("Toplu yükseltme: belgeler tamamlanma sırasıyla yazılır, yavaş belge diğerlerini bekletmez")
+    void upgradeWritesInCompletionOrder() throws Exception {
+        CountDownLatch fastDone = new CountDownLatch(10);
+        when(xadesSignatureService.upgradeToArchive(any(byte[].class), eq(DocumentType.UblDocument), isNull()))
+            .thenAnswer(inv -> {
+                String xml = new String((byte[]) inv.getArgument(0), StandardCharsets.UTF_8);
+                if (xml.contains("yavas")) {
+                    // Girdi sırası korunsaydı pencere dolup okuyucu bu belgeyi
+                    // beklerdi ve hızlı belgelerin hepsi hiç gönderilmezdi.
+                    assertTrue(fastDone.await(10, TimeUnit.SECONDS), "yavaş belge pencereyi kilitledi");
+                    // countDown dönüşten önce yapılır; son hızlı belgenin
+                    // future'ı tamamlanana kadar kısa bir pay bırakılır.
+                    Thread.sleep(200);
+                } else {
+                    fastDone.countDown();
+                }
+                return ("<A>" + xml + "</A>").getBytes(StandardCharsets.UTF_8);
+            });
+        Map<String, String> input = new LinkedHashMap<>();
+        input.put("yavas.xml", "<yavas/>");
+        for (int i = 0; i < 10; i++) {
+            input.put(i + ".xml", "<bes>" + i + "</bes>");
+        }
+        service.shutdown();
+        service = new XAdESBatchSignatureService(xadesSignatureService, new CompressionService(),
+            3, 5, 100, 1024, 2);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchManifest manifest = service.upgradeZip(zip(input), out, DocumentType.UblDocument, null);
+
+        assertEquals(11, manifest.getSigned());
+        String[] names = unzip(out.toByteArray()).keySet().toArray(new String[0]);
+        assertEquals(12, names.length);
+        assertEquals("yavas.xml", names[10], "yavaş belge en son tamamlanır");
+        assertEquals(XAdESBatchSignatureService.MANIFEST_ENTRY_NAME, names[11]);
+        for (int i = 0; i < 11; i++) {
+            assertEquals(i, manifest.getEntries().get(i).getIndex(), "manifest girdi sırasında olmalı");
+        }
+        assertEquals("yavas.xml", manifest.getEntries().get(0).getSignedEntry());
+    }
+
+    @Test
+    @DisplayName("safeEntryName: kök, '.', '..' segmentleri atılır; boş ad sıra numarasından üretilir")
+    void safeEntryName() {
+        assertEquals("a/b.xml", XAdESBatchSignatureService.safeEntryName("/a/./../b.xml", 0));
+        assertEquals("x.xml", XAdESBatchSignatureService.safeEntryName("..\\..\\x.xml", 0));
+        assertEquals("document-7.xml", XAdESBatchSignatureService.safeEntryName("../..", 7));
+    }
+
+    private XAdESBatchSignatureService newService(int parallelism, int maxEntries, long maxEntryBytes) {
+        return new XAdESBatchSignatureService(xadesSignatureService, new CompressionService(),
+            parallelism, 5, maxEntries, maxEntryBytes);
+    }
+
+    private static InputStream zip(Map<String, String> entries) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+            zos.putNextEntry(new ZipEntry("klasor/"));
+            zos.closeEntry();
+            for (Map.Entry<String, String> e : entries.entrySet()) {
+                zos.putNextEntry(new ZipEntry(e.getKey()));
+                zos.write(e.getValue().getBytes(StandardCharsets.UTF_8));
+                zos.closeEntry();
+            }
+        }
+        return new ByteArrayInputStream(baos.toByteArray());
+    }
+
+    private static Map<String, String> unzip(byte[] bytes) throws IOException {
+        Map<String, String> result = new LinkedHashMap<>();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(bytes))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                result.put(entry.getName(), IOUtils.toString(zis, StandardCharsets.UTF_8));
+            }
+        }
+        return result;
+    }
+}
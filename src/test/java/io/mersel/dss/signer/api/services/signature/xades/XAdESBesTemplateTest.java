@@ -0,0 +1,207 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import eu.europa.esig.dss.alert.SilentOnStatusAlert;
+import eu.europa.esig.dss.model.ToBeSigned;
+import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.xades.XAdESSignatureParameters;
+import eu.europa.esig.dss.xades.signature.XAdESService;
+import io.mersel.dss.signer.api.e2e.verifier.E2eSigningMaterialFactory;
+import io.mersel.dss.signer.api.e2e.verifier.PfxTestKey;
+import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.models.enums.XadesSignatureLevel;
+import io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter;
+import io.mersel.dss.signer.api.services.crypto.CryptoSignerService;
+import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
+import io.mersel.dss.signer.api.services.crypto.SignatureAlgorithmResolverService;
+import io.mersel.dss.signer.api.services.timestamp.TimestampConfigurationService;
+import io.mersel.dss.signer.api.services.util.CompressionService;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+/**
+ * XAdES-BES şablon hızlı yolunun ({@link XAdESBesTemplate}) DSS yoluyla
+ * aynı imzalanacak veriyi ve aynı belgeyi ürettiğini doğrular.
+ *
+ * <p>İmza zamanı ve belge referansının Id'si sabitlenir. RSA PKCS#1 v1.5
+ * deterministik olduğundan çıktılar byte düzeyinde aynı olmalıdır; ECDSA
+ * imzası rastgele olduğundan EC anahtarında SignatureValue maskelenerek
+ * karşılaştırılır.</p>
+ */
+@Epic("XAdES Conformance")
+@Feature("XAdES-BES Template Fast Path")
+@Severity(SeverityLevel.CRITICAL)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class XAdESBesTemplateTest {
+
+    private static final String FIXTURES = "resources/test-fixtures/xades/";
+    private static final Date SIGNING_DATE = new Date(1767225600000L);
+    private static final String REFERENCE_ID = "Reference-Id-template-test";
+    private static final String SIGNATURE_ID = "Signature_template_test";
+
+    private final List<byte[]> dataToSign = new CopyOnWriteArrayList<byte[]>();
+    private XAdESSignatureService dssService;
+    private XAdESSignatureService templateService;
+
+    @BeforeAll
+    void setUp() {
+        CommonCertificateVerifier verifier = new CommonCertificateVerifier();
+        verifier.setAlertOnMissingRevocationData(new SilentOnStatusAlert());
+        verifier.setAlertOnNoRevocationAfterBestSignatureTime(new SilentOnStatusAlert());
+        verifier.setAlertOnRevokedCertificate(new SilentOnStatusAlert());
+        verifier.setAlertOnInvalidTimestamp(new SilentOnStatusAlert());
+        verifier.setAlertOnExpiredCertificate(new SilentOnStatusAlert());
+        verifier.setAlertOnNotYetValidCertificate(new SilentOnStatusAlert());
+
+        XAdESParametersBuilderService paramsBuilder =
+                spy(new XAdESParametersBuilderService(new DigestAlgorithmResolverService()));
+        doAnswer(invocation -> {
+            XAdESSignatureParameters parameters = (XAdESSignatureParameters) invocation.callRealMethod();
+            parameters.bLevel().setSigningDate(SIGNING_DATE);
+            parameters.getReferences().get(0).setId(REFERENCE_ID);
+            parameters.getDataObjectFormatList().get(0).setObjectReference("#" + REFERENCE_ID);
+            return parameters;
+        }).when(paramsBuilder).buildParameters(any(), any(), any(), any());
+
+        CryptoSignerService cryptoSigner = spy(new CryptoSignerService(new SignatureAlgorithmResolverService()));
+        doAnswer(invocation -> {
+            dataToSign.add(((ToBeSigned) invocation.getArgument(0)).getBytes());
+            return invocation.callRealMethod();
+        }).when(cryptoSigner).sign(any(), any(), any());
+
+        TimestampConfigurationService tsConfig = new TimestampConfigurationService("", "", "", false);
+        dssService = new XAdESSignatureService(
+                new XAdESService(verifier), paramsBuilder, new XmlProcessingService(),
+                new XAdESDocumentPlacementService(), new XAdESLevelUpgradeService(verifier, tsConfig),
+                cryptoSigner, verifier, new CompressionService(), new FixedSigningLimiter(2));
+        templateService = new XAdESSignatureService(
+                new XAdESService(verifier), paramsBuilder, new XmlProcessingService(),
+                new XAdESDocumentPlacementService(), new XAdESLevelUpgradeService(verifier, tsConfig),
+                cryptoSigner, verifier, new CompressionService(), new FixedSigningLimiter(2));
+        templateService.setBesTemplateEnabled(true);
+    }
+
+    static Stream<Arguments> ublDocuments() throws IOException {
+        List<Arguments> documents = new ArrayList<Arguments>();
+        for (PfxTestKey key : new PfxTestKey[] {PfxTestKey.KURUM01_RSA2048, PfxTestKey.KURUM02_EC384}) {
+            for (String name : new String[] {"efatura.xml", "efatura-mixed-newlines.xml",
+                    "efatura-unicode-emoji.xml", "efatura-with-bom.xml", "eirsaliye.xml",
+                    "emustahsil.xml", "xml-with-comments.xml"}) {
+                documents.add(Arguments.of(name, key, read(name)));
+            }
+            documents.add(Arguments.of("ubl-extensions-yok", key, utf8(
+                    "<Invoice xmlns=\"urn:oasis:names:specification:ubl:schema:xsd:Invoice-2\""
+                    + " xmlns:cbc=\"urn:oasis:names:specification:ubl:schema:xsd:CommonBasicComponents-2\">"
+                    + "<cbc:ID>1</cbc:ID></Invoice>")));
+            documents.add(Arguments.of("ubl-kokte-ext-yok", key, utf8(
+                    "<Invoice xmlns=\"urn:oasis:names:specification:ubl:schema:xsd:Invoice-2\">"
+                    + "<ext:UBLExtensions xmlns:ext=\"urn:oasis:names:specification:ubl:schema:xsd:"
+                    + "CommonExtensionComponents-2\"><ext:UBLExtension><ext:ExtensionContent/>"
+                    + "</ext:UBLExtension></ext:UBLExtensions><ID>1</ID></Invoice>")));
+        }
+        return documents.stream();
+    }
+
+    @ParameterizedTest(name = "{0} / {1}")
+    @MethodSource("ublDocuments")
+    @DisplayName("Şablon yolu DSS yoluyla aynı SignedInfo'yu imzalamalı ve aynı belgeyi üretmeli")
+    void templateOutputMatchesDssPath(String name, PfxTestKey key, byte[] xml) throws Exception {
+        SigningMaterial material = E2eSigningMaterialFactory.load(key);
+
+        dataToSign.clear();
+        SignResponse expected = dssService.signXml(new ByteArrayInputStream(xml), DocumentType.UblDocument,
+                SIGNATURE_ID, false, material, XadesSignatureLevel.XADES_BES);
+        SignResponse actual = templateService.signXml(new ByteArrayInputStream(xml), DocumentType.UblDocument,
+                SIGNATURE_ID, false, material, XadesSignatureLevel.XADES_BES);
+
+        assertEquals(2, dataToSign.size());
+        assertFalse(((Map<?, ?>) ReflectionTestUtils.getField(templateService, "besTemplates")).isEmpty(),
+                "Şablon yolu kullanılmalı");
+        assertEquals(new String(dataToSign.get(0), StandardCharsets.UTF_8),
+                new String(dataToSign.get(1), StandardCharsets.UTF_8));
+        assertEquals(
+                maskSignatureValue(expected.getSignedDocument(), expected.getSignatureValue()),
+                maskSignatureValue(actual.getSignedDocument(), actual.getSignatureValue()));
+        if (key == PfxTestKey.KURUM01_RSA2048) {
+            assertArrayEquals(expected.getSignedDocument(), actual.getSignedDocument());
+        }
+    }
+
+    @Test
+    @DisplayName("Zaten imzalı belge DSS yoluna düşer ve aynı sonucu verir")
+    void alreadySignedDocumentFallsBackToDss() throws Exception {
+        SigningMaterial material = E2eSigningMaterialFactory.load(PfxTestKey.KURUM01_RSA2048);
+        byte[] xml = read("already-signed-but-not-valid.xml");
+
+        byte[] expected = outcome(dssService, xml, material);
+        byte[] actual = outcome(templateService, xml, material);
+        assertEquals(new String(expected, StandardCharsets.UTF_8), new String(actual, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("XADES_BES_TEMPLATE_ENABLED varsayılanı kapalı; UBL dışı belgeler DSS'ten geçer")
+    void templateDisabledByDefaultAndOnlyForUbl() throws Exception {
+        SigningMaterial material = E2eSigningMaterialFactory.load(PfxTestKey.KURUM01_RSA2048);
+        XAdESSignatureService service = new XAdESSignatureService(null, null, null, null, null, null, null,
+                null, new FixedSigningLimiter(1));
+        assertFalse((Boolean) ReflectionTestUtils.getField(service, "besTemplateEnabled"));
+
+        byte[] xml = read("earsiv-raporu.xml");
+        SignResponse expected = dssService.signXml(new ByteArrayInputStream(xml), DocumentType.EArchiveReport,
+                SIGNATURE_ID, false, material, XadesSignatureLevel.XADES_BES);
+        SignResponse actual = templateService.signXml(new ByteArrayInputStream(xml), DocumentType.EArchiveReport,
+                SIGNATURE_ID, false, material, XadesSignatureLevel.XADES_BES);
+        assertArrayEquals(expected.getSignedDocument(), actual.getSignedDocument());
+    }
+
+    private static byte[] outcome(XAdESSignatureService service, byte[] xml, SigningMaterial material) {
+        try {
+            return service.signXml(new ByteArrayInputStream(xml), DocumentType.UblDocument,
+                    SIGNATURE_ID, false, material, XadesSignatureLevel.XADES_BES).getSignedDocument();
+        } catch (Exception e) {
+            return (e.getClass().getName() + ": " + e.getMessage()).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String maskSignatureValue(byte[] signedDocument, String signatureValue) {
+        return new String(signedDocument, StandardCharsets.UTF_8).replace(signatureValue, "<imza-degeri>");
+    }
+
+    private static byte[] read(String name) throws IOException {
+        return Files.readAllBytes(Paths.get(FIXTURES + name));
+    }
+
+    private static byte[] utf8(String xml) {
+        return xml.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -11,6 +11,7 @@ import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
 import io.mersel.dss.signer.api.models.enums.DocumentType;
 import io.mersel.dss.signer.api.models.enums.XadesSignatureLevel;
+import io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter;
 import io.mersel.dss.signer.api.services.crypto.CryptoSignerService;
 import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
 import io.mersel.dss.signer.api.services.crypto.SignatureAlgorithmResolverService;
@@ -37,7 +38,6 @@ import java.io.ByteArrayInputStream;
 import java.io.StringReader;
 import java.util.Base64;
 import java.util.UUID;
-import java.util.concurrent.Semaphore;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -91,7 +91,7 @@ class XAdESEcdsaSignatureFormatTest {
         CompressionService compression = new CompressionService();
         return new XAdESSignatureService(
                 dssService, paramsBuilder, xmlProcessor, placement, upgrade,
-                crypto, verifier, compression, new Semaphore(2));
+                crypto, verifier, compression, new FixedSigningLimiter(2));
     }
 
     @ParameterizedTest(name = "[{index}] {0}")
@@ -0,0 +1,128 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import eu.europa.esig.dss.alert.SilentOnStatusAlert;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.InMemoryDocument;
+import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.xades.signature.XAdESDomDocument;
+import eu.europa.esig.dss.xades.signature.XAdESService;
+import io.mersel.dss.signer.api.e2e.verifier.E2eFixtures;
+import io.mersel.dss.signer.api.e2e.verifier.E2eSigningMaterialFactory;
+import io.mersel.dss.signer.api.e2e.verifier.PfxTestKey;
+import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.models.enums.XadesSignatureLevel;
+import io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter;
+import io.mersel.dss.signer.api.services.crypto.CryptoSignerService;
+import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
+import io.mersel.dss.signer.api.services.crypto.SignatureAlgorithmResolverService;
+import io.mersel.dss.signer.api.services.timestamp.TimestampConfigurationService;
+import io.mersel.dss.signer.api.services.util.CompressionService;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+/**
+ * İmza yerleştirmenin serileştir → yeniden parse et turu olmadan
+ * (builder DOM'u üzerinden) yapıldığını ve çıktının eski yol ile
+ * byte byte aynı kaldığını doğrular.
+ *
+ * <p>Gerçek imza akışı çalıştırılır; {@code placeSignature} çağrısı
+ * araya girilerek aynı imzalı belge hem eski (byte → parse) hem yeni
+ * (DOM) yoldan ana belgenin birer kopyasına yerleştirilir. İki yol aynı
+ * imza üzerinde çalıştığı için zaman/ID farkı oluşmaz.</p>
+ */
+@Epic("XAdES Conformance")
+@Feature("İmza Yerleştirme (DOM yolu)")
+@Severity(SeverityLevel.CRITICAL)
+class XAdESSignaturePlacementTest {
+
+    private XAdESSignatureService service;
+    private SigningMaterial material;
+
+    @BeforeEach
+    void setUp() {
+        CommonCertificateVerifier verifier = new CommonCertificateVerifier();
+        verifier.setAlertOnMissingRevocationData(new SilentOnStatusAlert());
+        verifier.setAlertOnNoRevocationAfterBestSignatureTime(new SilentOnStatusAlert());
+        verifier.setAlertOnRevokedCertificate(new SilentOnStatusAlert());
+        verifier.setAlertOnExpiredCertificate(new SilentOnStatusAlert());
+        verifier.setAlertOnNotYetValidCertificate(new SilentOnStatusAlert());
+
+        XAdESLevelUpgradeService upgrade = new XAdESLevelUpgradeService(verifier,
+                new TimestampConfigurationService("", "", "", false));
+        service = new XAdESSignatureService(
+                new XAdESService(verifier),
+                new XAdESParametersBuilderService(new DigestAlgorithmResolverService()),
+                new XmlProcessingService(),
+                new XAdESDocumentPlacementService(),
+                upgrade,
+                new CryptoSignerService(new SignatureAlgorithmResolverService()),
+                verifier,
+                new CompressionService(),
+                new FixedSigningLimiter(2));
+        material = E2eSigningMaterialFactory.load(PfxTestKey.KURUM01_RSA2048);
+    }
+
+    @Test
+    @DisplayName("UBL: DOM üzerinden yerleştirme eski byte → parse yolu ile aynı çıktıyı üretir")
+    void ublPlacementMatchesLegacyPath() throws Exception {
+        assertSameAsLegacy(E2eFixtures.efaturaXml(), DocumentType.UblDocument);
+    }
+
+    @Test
+    @DisplayName("Genel XML: DOM üzerinden yerleştirme eski byte → parse yolu ile aynı çıktıyı üretir")
+    void genericXmlPlacementMatchesLegacyPath() throws Exception {
+        assertSameAsLegacy(E2eFixtures.genericXml(), DocumentType.OtherXmlDocument);
+    }
+
+    private void assertSameAsLegacy(byte[] xml, DocumentType documentType) throws Exception {
+        XAdESSignatureService spied = spy(service);
+        XmlProcessingService xmlProcessor = new XmlProcessingService();
+        AtomicReference<byte[]> legacy = new AtomicReference<>();
+        AtomicReference<byte[]> direct = new AtomicReference<>();
+
+        // Her iki yol da ana belgenin kopyası üzerinde çalışır: cloneNode
+        // XML bildirimindeki encoding bilgisini taşımadığından kopya ile
+        // özgün belgenin karşılaştırılması yanıltıcı olur.
+        doAnswer(inv -> {
+            Document mainDocument = inv.getArgument(0);
+            DSSDocument signedDocument = inv.getArgument(1);
+            assertInstanceOf(XAdESDomDocument.class, signedDocument,
+                    "BES akışında builder imzalı DOM'u döndürmeli");
+
+            // Eski yol: imzalı belge byte'a serileştirilip yeniden parse edilir.
+            // Yerleştirme imzayı kaynak DOM'dan ayırdığı için önce bu çalışır.
+            DSSDocument asBytes = new InMemoryDocument(xmlProcessor.dssDocumentToBytes(signedDocument));
+            legacy.set(service.placeSignature((Document) mainDocument.cloneNode(true),
+                    asBytes, documentType));
+            direct.set(service.placeSignature((Document) mainDocument.cloneNode(true),
+                    signedDocument, documentType));
+            return inv.callRealMethod();
+        }).when(spied).placeSignature(any(), any(), any());
+
+        SignResponse response = spied.signXml(new ByteArrayInputStream(xml), documentType,
+                null, false, material, XadesSignatureLevel.XADES_BES);
+
+        assertNotNull(response.getSignedDocument());
+        assertNotNull(legacy.get(), "placeSignature çağrılmadı");
+        assertArrayEquals(legacy.get(), direct.get(),
+                "DOM yolu ile eski byte → parse yolu farklı çıktı üretti");
+    }
+}
@@ -11,6 +11,7 @@ import io.mersel.dss.signer.api.models.SignResponse;
 import io.mersel.dss.signer.api.models.SigningMaterial;
 import io.mersel.dss.signer.api.models.enums.DocumentType;
 import io.mersel.dss.signer.api.models.enums.XadesSignatureLevel;
+import io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter;
 import io.mersel.dss.signer.api.services.crypto.CryptoSignerService;
 import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
 import io.mersel.dss.signer.api.services.crypto.SignatureAlgorithmResolverService;
@@ -35,7 +36,6 @@ import java.io.StringReader;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.util.UUID;
-import java.util.concurrent.Semaphore;
 import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -103,7 +103,7 @@ class XAdESSigningTimeFormatTest {
         CompressionService compression = new CompressionService();
         return new XAdESSignatureService(
                 dssService, paramsBuilder, xmlProcessor, placement, upgrade,
-                crypto, verifier, compression, new Semaphore(2));
+                crypto, verifier, compression, new FixedSigningLimiter(2));
     }
 
     private XAdESSignatureService serviceOrInit() {
@@ -0,0 +1,203 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import eu.europa.esig.dss.alert.SilentOnStatusAlert;
+import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.xades.XAdESSignatureParameters;
+import eu.europa.esig.dss.xades.signature.XAdESService;
+import io.mersel.dss.signer.api.e2e.verifier.E2eSigningMaterialFactory;
+import io.mersel.dss.signer.api.e2e.verifier.PfxTestKey;
+import io.mersel.dss.signer.api.models.SignResponse;
+import io.mersel.dss.signer.api.models.SigningMaterial;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.models.enums.XadesSignatureLevel;
+import io.mersel.dss.signer.api.services.concurrency.FixedSigningLimiter;
+import io.mersel.dss.signer.api.services.crypto.CryptoSignerService;
+import io.mersel.dss.signer.api.services.crypto.DigestAlgorithmResolverService;
+import io.mersel.dss.signer.api.services.crypto.SignatureAlgorithmResolverService;
+import io.mersel.dss.signer.api.services.timestamp.TimestampConfigurationService;
+import io.mersel.dss.signer.api.services.util.CompressionService;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Date;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+/**
+ * XAdES akış modunun ({@link XAdESSignatureService#prepareStreaming})
+ * DOM yoluyla ({@link XAdESSignatureService#signXml}) byte düzeyinde aynı
+ * belgeyi ürettiğini doğrular.
+ *
+ * <p>İki yolun karşılaştırılabilmesi için imza zamanı ve belge referansının
+ * Id'si sabitlenir (parametre oluşturucu spy'ı); RSA PKCS#1 v1.5 imzası
+ * deterministik olduğundan geri kalan her byte aynı olmalıdır. Digest veya
+ * kök namespace kapsamı farklı olsaydı SignedInfo ve imza değeri de farklı
+ * çıkardı.</p>
+ */
+@Epic("XAdES Conformance")
+@Feature("XAdES Streaming Mode")
+@Severity(SeverityLevel.CRITICAL)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class XAdESStreamingSignatureTest {
+
+    private static final String FIXTURES = "resources/test-fixtures/xades/";
+    private static final Date SIGNING_DATE = new Date(1767225600000L);
+    private static final String REFERENCE_ID = "Reference-Id-streaming-test";
+    private static final String SIGNATURE_ID = "Signature_streaming_test";
+
+    private XAdESSignatureService service;
+    private SigningMaterial material;
+
+    @BeforeAll
+    void setUp() {
+        CommonCertificateVerifier verifier = new CommonCertificateVerifier();
+        verifier.setAlertOnMissingRevocationData(new SilentOnStatusAlert());
+        verifier.setAlertOnNoRevocationAfterBestSignatureTime(new SilentOnStatusAlert());
+        verifier.setAlertOnRevokedCertificate(new SilentOnStatusAlert());
+        verifier.setAlertOnInvalidTimestamp(new SilentOnStatusAlert());
+        verifier.setAlertOnExpiredCertificate(new SilentOnStatusAlert());
+        verifier.setAlertOnNotYetValidCertificate(new SilentOnStatusAlert());
+
+        XAdESParametersBuilderService paramsBuilder =
+                spy(new XAdESParametersBuilderService(new DigestAlgorithmResolverService()));
+        doAnswer(invocation -> {
+            XAdESSignatureParameters parameters = (XAdESSignatureParameters) invocation.callRealMethod();
+            parameters.bLevel().setSigningDate(SIGNING_DATE);
+            parameters.getReferences().get(0).setId(REFERENCE_ID);
+            parameters.getDataObjectFormatList().get(0).setObjectReference("#" + REFERENCE_ID);
+            return parameters;
+        }).when(paramsBuilder).buildParameters(any(), any(), any(), any());
+
+        TimestampConfigurationService tsConfig = new TimestampConfigurationService("", "", "", false);
+        service = new XAdESSignatureService(
+                new XAdESService(verifier), paramsBuilder, new XmlProcessingService(),
+                new XAdESDocumentPlacementService(), new XAdESLevelUpgradeService(verifier, tsConfig),
+                new CryptoSignerService(new SignatureAlgorithmResolverService()), verifier,
+                new CompressionService(), new FixedSigningLimiter(2));
+        material = E2eSigningMaterialFactory.load(PfxTestKey.KURUM01_RSA2048);
+    }
+
+    static Stream<Arguments> streamableDocuments() throws IOException {
+        StringBuilder largeReport = new StringBuilder(
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<earsiv:eArsivRaporu xmlns:earsiv=\"http://earsiv.efatura.gov.tr\" xml:lang=\"tr\">\n"
+                + "  <earsiv:baslik><earsiv:bolumNo>1</earsiv:bolumNo></earsiv:baslik>\n");
+        for (int i = 0; i < 20000; i++) {
+            largeReport.append("  <earsiv:fatura no=\"").append(i)
+                    .append("\"><earsiv:tutar>1&amp;2 &lt; ").append(i).append("</earsiv:tutar></earsiv:fatura>\n");
+        }
+        largeReport.append("  <not><![CDATA[");
+        for (int i = 0; i < 5000; i++) {
+            largeReport.append("uzun <CDATA> içeriği ").append(i).append('\n');
+        }
+        largeReport.append("]]></not>\n</earsiv:eArsivRaporu>\n");
+
+        return Stream.of(
+                fixture("efatura.xml", DocumentType.UblDocument),
+                fixture("efatura-mixed-newlines.xml", DocumentType.UblDocument),
+                fixture("efatura-unicode-emoji.xml", DocumentType.UblDocument),
+                fixture("efatura-with-bom.xml", DocumentType.UblDocument),
+                fixture("eirsaliye.xml", DocumentType.UblDocument),
+                fixture("emustahsil.xml", DocumentType.UblDocument),
+                fixture("earsiv-raporu.xml", DocumentType.EArchiveReport),
+                fixture("xml-foreign-namespace-prefix.xml", DocumentType.OtherXmlDocument),
+                fixture("xml-with-cdata.xml", DocumentType.OtherXmlDocument),
+                fixture("xml-with-comments.xml", DocumentType.OtherXmlDocument),
+                fixture("xml-with-comments.xml", DocumentType.UblDocument),
+                Arguments.of("ubl-kokte-ext-yok", DocumentType.UblDocument, utf8(
+                        "<Invoice xmlns=\"urn:oasis:names:specification:ubl:schema:xsd:Invoice-2\">"
+                        + "<ext:UBLExtensions xmlns:ext=\"urn:oasis:names:specification:ubl:schema:xsd:"
+                        + "CommonExtensionComponents-2\"><ext:UBLExtension><ext:ExtensionContent/>"
+                        + "</ext:UBLExtension></ext:UBLExtensions><ID>1</ID></Invoice>")),
+                Arguments.of("ebilet-prolog-ve-standalone", DocumentType.EBiletReport, utf8(
+                        "<?xml version=\"1.0\" standalone=\"yes\"?>\n<!-- önsöz -->\n<?isle veri?>\n"
+                        + "<r:rapor xmlns:r=\"http://ebilet.efatura.gov.tr\" xmlns=\"urn:varsayilan\">"
+                        + "<r:baslik a=\"1\"><x xmlns=\"\">metin\r\n</x></r:baslik>"
+                        + "<y xmlns:p=\"urn:p\" p:b=\"&quot;\t\" c=\"2\"/></r:rapor>\n<!-- son --><?son-isle?>")),
+                Arguments.of("buyuk-earsiv-raporu", DocumentType.EArchiveReport, utf8(largeReport.toString())));
+    }
+
+    @ParameterizedTest(name = "{0} / {1}")
+    @MethodSource("streamableDocuments")
+    @DisplayName("Akış modu çıktısı ve imza değeri DOM yolunun çıktısıyla byte düzeyinde aynı olmalı")
+    void streamingOutputMatchesDomPath(String name, DocumentType documentType, byte[] xml) throws Exception {
+        SignResponse expected = service.signXml(new ByteArrayInputStream(xml), documentType,
+                SIGNATURE_ID, false, material, XadesSignatureLevel.XADES_BES);
+
+        StreamingXadesDocument prepared = service.prepareStreaming(
+                new ByteArrayResource(xml), documentType, SIGNATURE_ID, material);
+        assertNotNull(prepared, "Belge akış modunda imzalanabilmeli");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        prepared.writeTo(out);
+
+        assertEquals(new String(expected.getSignedDocument(), StandardCharsets.UTF_8), out.toString("UTF-8"));
+        assertArrayEquals(expected.getSignedDocument(), out.toByteArray());
+        assertEquals(expected.getSignatureValue(), prepared.getSignatureValue());
+    }
+
+    @Test
+    @DisplayName("HrXml, mevcut imza, ExtensionContent'siz UBL, hedefsiz rapor, DOCTYPE, UTF-8 dışı kodlama → null")
+    void unsupportedDocumentsFallBackToDom() throws IOException {
+        assertNull(service.prepareStreaming(new ByteArrayResource(read("hrxml.xml")),
+                DocumentType.HrXml, null, material));
+        assertNull(service.prepareStreaming(new ByteArrayResource(read("already-signed-but-not-valid.xml")),
+                DocumentType.UblDocument, null, material));
+
+        String[][] cases = {
+            {"UblDocument", "<Invoice xmlns=\"urn:oasis:names:specification:ubl:schema:xsd:Invoice-2\"><ID/></Invoice>"},
+            {"UblDocument", "<Invoice xmlns:ext=\"urn:baska\"><ext:ExtensionContent xmlns:ext=\"urn:oasis:names:"
+                + "specification:ubl:schema:xsd:CommonExtensionComponents-2\"/></Invoice>"},
+            {"EArchiveReport", "<r xmlns=\"http://earsiv.efatura.gov.tr\"><fatura/></r>"},
+            {"OtherXmlDocument", "<!DOCTYPE a><a/>"},
+            {"OtherXmlDocument", "<?xml version=\"1.0\" encoding=\"ISO-8859-9\"?><a/>"},
+            {"OtherXmlDocument", "<a xmlns=\"goreli/uri\"/>"},
+            {"OtherXmlDocument", "<yarım"},
+        };
+        for (String[] c : cases) {
+            assertNull(service.prepareStreaming(new ByteArrayResource(utf8(c[1])),
+                    DocumentType.valueOf(c[0]), null, material), c[1]);
+        }
+    }
+
+    @Test
+    @DisplayName("Eşik 0 iken akış modu kapalı")
+    void streamingDisabledByDefault() {
+        assertFalse(service.isStreamingEligible(Long.MAX_VALUE));
+    }
+
+    private static Arguments fixture(String name, DocumentType documentType) throws IOException {
+        return Arguments.of(name, documentType, read(name));
+    }
+
+    private static byte[] read(String name) throws IOException {
+        return Files.readAllBytes(Paths.get(FIXTURES + name));
+    }
+
+    private static byte[] utf8(String xml) {
+        return xml.getBytes(StandardCharsets.UTF_8);
+    }
+}
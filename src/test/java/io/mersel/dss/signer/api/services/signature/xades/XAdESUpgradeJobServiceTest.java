@@ -0,0 +1,305 @@
+package io.mersel.dss.signer.api.services.signature.xades;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mersel.dss.signer.api.exceptions.SignatureException;
+import io.mersel.dss.signer.api.exceptions.SigningCapacityException;
+import io.mersel.dss.signer.api.exceptions.TimestampException;
+import io.mersel.dss.signer.api.models.XadesUpgradeJob;
+import io.mersel.dss.signer.api.models.enums.DocumentType;
+import io.mersel.dss.signer.api.services.metrics.XadesUpgradeJobMetrics;
+import io.mersel.dss.signer.api.services.notification.SignerNotifier;
+import io.mersel.dss.signer.api.services.timestamp.TimestampConfigurationService;
+import io.mersel.dss.signer.api.services.util.CompressionService;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link XAdESUpgradeJobService} kuyruk sözleşmesi: kalıcılık, yeniden
+ * deneme, açılışta kurtarma, kapasite sınırı ve bildirim. Yükseltmenin
+ * kendisi mock'lanır — TSA/OCSP akışı {@link XAdESLevelUpgradeServiceTest}
+ * kapsamındadır.
+ */
+@Epic("Service Layer")
+@Feature("XAdES Async Upgrade")
+@Severity(SeverityLevel.CRITICAL)
+class XAdESUpgradeJobServiceTest {
+
+    private static final byte[] BES = "<Invoice><ds:Signature/></Invoice>".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ARCHIVE = "<Invoice><ds:Signature>A</ds:Signature></Invoice>"
+        .getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path jobDir;
+
+    private XAdESSignatureService xadesSignatureService;
+    private TimestampConfigurationService timestampService;
+    private SignerNotifier signerNotifier;
+    private SimpleMeterRegistry meterRegistry;
+    private final List<XAdESUpgradeJobService> services = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        xadesSignatureService = mock(XAdESSignatureService.class);
+        timestampService = mock(TimestampConfigurationService.class);
+        signerNotifier = mock(SignerNotifier.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(timestampService.isAvailable()).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (XAdESUpgradeJobService service : services) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("İş dizini oluşturulamazsa servis açılır, yeni işler ASYNC_JOB_STORE_ERROR ile reddedilir")
+    void unusableJobDirectoryDoesNotFailStartup() throws Exception {
+        Path notADirectory = Files.write(jobDir.resolve("dosya"), new byte[0]);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<XadesUpgradeJobMetrics> metrics = mock(ObjectProvider.class);
+        XAdESUpgradeJobService service = new XAdESUpgradeJobService(xadesSignatureService, timestampService,
+            null, new CompressionService(), signerNotifier, metrics,
+            notADirectory.resolve("jobs").toString(), 1, 10, 3, 0, 60_000);
+        services.add(service);
+
+        service.recover();
+        service.purgeExpiredJobs();
+        assertNull(service.find(UUID.randomUUID().toString()));
+        SignatureException rejected = assertThrows(SignatureException.class, service::ensureAccepting);
+        assertEquals("ASYNC_JOB_STORE_ERROR", rejected.getErrorCode());
+        assertThrows(SignatureException.class,
+            () -> service.submit(BES, DocumentType.UblDocument, false, "sig-value"));
+        assertEquals(0, service.getActiveJobs());
+    }
+
+    @Test
+    @DisplayName("Kabul edilen iş yükseltilir, sonuç diske yazılır ve webhook tetiklenir")
+    void completesJobAndWritesResult() throws Exception {
+        when(xadesSignatureService.upgradeToArchive(any(byte[].class), eq(DocumentType.UblDocument), isNull()))
+            .thenReturn(ARCHIVE);
+        XAdESUpgradeJobService service = newService(10, 3);
+
+        XadesUpgradeJob accepted = service.submit(BES, DocumentType.UblDocument, false, "sig-value");
+        assertEquals(XadesUpgradeJob.Status.PENDING, accepted.getStatus());
+
+        XadesUpgradeJob job = awaitTerminal(service, accepted.getJobId());
+        assertEquals(XadesUpgradeJob.Status.COMPLETED, job.getStatus());
+        assertEquals(1, job.getAttempts());
+        assertEquals("sig-value", job.getSignatureValue());
+        assertEquals(Long.valueOf(ARCHIVE.length), job.getResultSizeBytes());
+        assertArrayEquals(ARCHIVE, Files.readAllBytes(service.resultPath(job.getJobId())));
+        assertFalse(Files.exists(jobDir.resolve(job.getJobId()).resolve("signed-bes.xml")),
+            "Tamamlanan işin BES kopyası silinmeli");
+        verify(signerNotifier, timeout(2000)).notifyOnXadesUpgradeJob(any(XadesUpgradeJob.class), isNull());
+        assertEquals(0, service.getActiveJobs());
+        assertEquals(1L, meterRegistry.get("signer.xades.upgrade.job.attempt")
+            .tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    @DisplayName("ZIP'li iş açılarak yükseltilir ve sonuç yine ZIP olarak saklanır")
+    void zippedJobRoundTrips() throws Exception {
+        when(xadesSignatureService.upgradeToArchive(eq(BES), eq(DocumentType.UblDocument), isNull()))
+            .thenReturn(ARCHIVE);
+        CompressionService compression = new CompressionService();
+        XAdESUpgradeJobService service = newService(10, 3);
+
+        byte[] zippedBes = compression.zipBytes(XAdESSignatureService.ZIP_ENTRY_NAME, BES);
+        XadesUpgradeJob job = awaitTerminal(service,
+            service.submit(zippedBes, DocumentType.UblDocument, true, "sig").getJobId());
+
+        assertEquals(XadesUpgradeJob.Status.COMPLETED, job.getStatus());
+        byte[] result = Files.readAllBytes(service.resultPath(job.getJobId()));
+        assertArrayEquals(ARCHIVE, compression.unzipFirstEntry(new ByteArrayInputStream(result)));
+    }
+
+    @Test
+    @DisplayName("Başarısız deneme yeniden denenir; hak bitince iş FAILED olur ve hata bildirilir")
+    void retriesThenFails() throws Exception {
+        when(xadesSignatureService.upgradeToArchive(any(byte[].class), any(DocumentType.class), isNull()))
+            .thenThrow(new SignatureException("TIMESTAMP_ERROR", "TSA yanıt vermedi"));
+        XAdESUpgradeJobService service = newService(10, 3);
+
+        XadesUpgradeJob job = awaitTerminal(service,
+            service.submit(BES, DocumentType.UblDocument, false, "sig").getJobId());
+
+        assertEquals(XadesUpgradeJob.Status.FAILED, job.getStatus());
+        assertEquals(3, job.getAttempts());
+        assertEquals("TIMESTAMP_ERROR", job.getErrorCode());
+        assertEquals("TSA yanıt vermedi", job.getErrorMessage());
+        assertNotNull(job.getCompletedAt());
+        verify(signerNotifier, timeout(2000))
+            .notifyOnXadesUpgradeJob(any(XadesUpgradeJob.class), any(SignatureException.class));
+        assertEquals(0, service.getActiveJobs());
+        verify(xadesSignatureService, times(3))
+            .upgradeToArchive(any(byte[].class), any(DocumentType.class), isNull());
+        assertEquals(2L, meterRegistry.get("signer.xades.upgrade.job.attempt")
+            .tag("outcome", "retry").timer().count());
+    }
+
+    @Test
+    @DisplayName("Geçici hatadan sonra ikinci denemede tamamlanır")
+    void recoversAfterTransientFailure() throws Exception {
+        when(xadesSignatureService.upgradeToArchive(any(byte[].class), any(DocumentType.class), isNull()))
+            .thenThrow(new TimestampException("TSA geçici olarak erişilemez"))
+            .thenReturn(ARCHIVE);
+        XAdESUpgradeJobService service = newService(10, 3);
+
+        XadesUpgradeJob job = awaitTerminal(service,
+            service.submit(BES, DocumentType.UblDocument, false, "sig").getJobId());
+
+        assertEquals(XadesUpgradeJob.Status.COMPLETED, job.getStatus());
+        assertEquals(2, job.getAttempts());
+        assertNull(job.getErrorMessage());
+    }
+
+    @Test
+    @DisplayName("Önceki süreçten kalan PENDING/RUNNING işler açılışta yeniden kuyruğa alınır")
+    void recoversUnfinishedJobsOnStartup() throws Exception {
+        when(xadesSignatureService.upgradeToArchive(any(byte[].class), any(DocumentType.class), isNull()))
+            .thenReturn(ARCHIVE);
+        XAdESUpgradeJobStore store = new XAdESUpgradeJobStore(jobDir);
+        String pendingId = persistJob(store, XadesUpgradeJob.Status.PENDING, 0);
+        String runningId = persistJob(store, XadesUpgradeJob.Status.RUNNING, 1);
+
+        XAdESUpgradeJobService service = newService(10, 3);
+
+        XadesUpgradeJob pending = awaitTerminal(service, pendingId);
+        XadesUpgradeJob running = awaitTerminal(service, runningId);
+        assertEquals(XadesUpgradeJob.Status.COMPLETED, pending.getStatus());
+        assertEquals(XadesUpgradeJob.Status.COMPLETED, running.getStatus());
+        assertEquals(2, running.getAttempts(), "Yarıda kalan deneme sayılmış olmalı");
+        verify(signerNotifier, timeout(2000).times(2)).notifyOnXadesUpgradeJob(any(XadesUpgradeJob.class), isNull());
+        assertEquals(0, service.getActiveJobs());
+    }
+
+    @Test
+    @DisplayName("Aktif iş sınırı doluysa yeni iş HSM'e gitmeden reddedilir")
+    void rejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(xadesSignatureService.upgradeToArchive(any(byte[].class), any(DocumentType.class), isNull()))
+            .thenAnswer(inv -> {
+                release.await(5, TimeUnit.SECONDS);
+                return ARCHIVE;
+            });
+        XAdESUpgradeJobService service = newService(1, 3);
+        try {
+            service.ensureAccepting();
+            service.submit(BES, DocumentType.UblDocument, false, "sig");
+
+            SigningCapacityException ex = assertThrows(SigningCapacityException.class, service::ensureAccepting);
+            assertEquals(SigningCapacityException.Reason.QUEUE_FULL, ex.getReason());
+            assertThrows(SigningCapacityException.class,
+                () -> service.submit(BES, DocumentType.UblDocument, false, "sig"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("TSA yapılandırılmamışsa iş kabul edilmez")
+    void rejectsWithoutTimestampServer() throws Exception {
+        when(timestampService.isAvailable()).thenReturn(false);
+        XAdESUpgradeJobService service = newService(10, 3);
+
+        assertThrows(TimestampException.class, service::ensureAccepting);
+    }
+
+    @Test
+    @DisplayName("Geçersiz veya bilinmeyen iş kimliği null döner; yol dışına çıkılmaz")
+    void unknownOrInvalidJobIdReturnsNull() throws Exception {
+        XAdESUpgradeJobService service = newService(10, 3);
+
+        assertNull(service.find(UUID.randomUUID().toString()));
+        assertNull(service.find("../etc/passwd"));
+        assertNull(service.find(null));
+    }
+
+    @Test
+    @DisplayName("Saklama süresi dolan bitmiş işler silinir, aktif işlere dokunulmaz")
+    void purgesExpiredTerminalJobs() throws Exception {
+        XAdESUpgradeJobStore store = new XAdESUpgradeJobStore(jobDir);
+        String completedId = persistJob(store, XadesUpgradeJob.Status.COMPLETED, 1);
+        XAdESUpgradeJobService service = new XAdESUpgradeJobService(xadesSignatureService, timestampService,
+            null, new CompressionService(), signerNotifier, null, store, 1, 10, 3, 0, 1000);
+        services.add(service);
+        service.setClock(() -> System.currentTimeMillis() + 5000);
+
+        service.purgeExpiredJobs();
+
+        assertNull(service.find(completedId));
+    }
+
+    private XAdESUpgradeJobService newService(int maxActiveJobs, int maxAttempts) throws Exception {
+        XAdESUpgradeJobService service = new XAdESUpgradeJobService(xadesSignatureService, timestampService,
+            null, new CompressionService(), signerNotifier, new XadesUpgradeJobMetrics(meterRegistry),
+            new XAdESUpgradeJobStore(jobDir), 2, maxActiveJobs, maxAttempts, 0, 60_000);
+        services.add(service);
+        service.recover();
+        return service;
+    }
+
+    private static String persistJob(XAdESUpgradeJobStore store, XadesUpgradeJob.Status status, int attempts)
+            throws Exception {
+        long now = System.currentTimeMillis();
+        XadesUpgradeJob job = new XadesUpgradeJob();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setStatus(status);
+        job.setDocumentType(DocumentType.UblDocument.name());
+        job.setAttempts(attempts);
+        job.setCreatedAt(now);
+        job.setUpdatedAt(now);
+        store.create(job, BES);
+        return job.getJobId();
+    }
+
+    private static XadesUpgradeJob awaitTerminal(XAdESUpgradeJobService service, String jobId)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            XadesUpgradeJob job = service.find(jobId);
+            if (job != null && job.getStatus().isTerminal()) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        fail("İş zamanında bitmedi: " + jobId);
+        return null;
+    }
+}
@@ -0,0 +1,171 @@
+package io.mersel.dss.signer.api.services.timestamp;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.mersel.dss.signer.api.services.metrics.TimestampHttpMetrics;
+import io.mersel.dss.signer.api.services.timestamp.tubitak.TubitakTimestampDataLoader;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.bouncycastle.asn1.nist.NISTObjectIdentifiers;
+import org.bouncycastle.tsp.TimeStampRequestGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link PooledTimestampDataLoader} taşıma kontratı: ardışık TSA istekleri
+ * aynı keep-alive bağlantıyı kullanır, hata sonrası havuz kullanılabilir
+ * kalır ve lease / istek süreleri histogram olarak kaydedilir.
+ *
+ * <p>Bağlantı yeniden kullanımı, JDK {@link HttpServer}'ının gördüğü istemci
+ * kaynak port'ları sayılarak doğrulanır.</p>
+ */
+@Epic("Service Layer")
+@Feature("Timestamp Service — HTTP Contract")
+@Severity(SeverityLevel.NORMAL)
+class PooledTimestampDataLoaderTest {
+
+    private static final byte[] REPLY = "tsr".getBytes(StandardCharsets.US_ASCII);
+
+    private HttpServer httpServer;
+    private String url;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final List<HttpExchangeHeaders> seenHeaders = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failNext = new AtomicInteger();
+
+    private SimpleMeterRegistry registry;
+    private PooledTimestampDataLoader loader;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        httpServer.createContext("/tsp", this::handle);
+        httpServer.start();
+        url = "http://127.0.0.1:" + httpServer.getAddress().getPort() + "/tsp";
+        registry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (loader != null) {
+            loader.close();
+        }
+        httpServer.stop(0);
+    }
+
+    @Test
+    @DisplayName("Ardışık TSA istekleri tek keep-alive bağlantı üzerinden gider")
+    void sequentialRequestsReuseConnection() {
+        loader = new PooledTimestampDataLoader(new TimestampHttpMetrics(registry));
+
+        for (int i = 0; i < 5; i++) {
+            assertArrayEquals(REPLY, loader.post(url, ("req-" + i).getBytes(StandardCharsets.US_ASCII)));
+        }
+
+        assertEquals(1, clientPorts.size(), "Her istek yeni TCP bağlantısı açmamalı: " + clientPorts);
+        assertEquals(5, registry.get("signer.tsa.pool.lease").timer().count());
+        Timer success = registry.get("signer.tsa.request")
+                .tag("outcome", "success").tag("host", "127.0.0.1").timer();
+        assertEquals(5, success.count());
+        assertEquals("application/timestamp-query", seenHeaders.get(0).contentType);
+    }
+
+    @Test
+    @DisplayName("HTTP hatası error olarak kaydedilir; havuz sonraki istekte kullanılabilir kalır")
+    void failureDoesNotPoisonPool() {
+        loader = new PooledTimestampDataLoader(new TimestampHttpMetrics(registry));
+        failNext.set(1);
+
+        assertThrows(RuntimeException.class, () -> loader.post(url, new byte[]{1}));
+        assertArrayEquals(REPLY, loader.post(url, new byte[]{2}));
+
+        assertEquals(1, registry.get("signer.tsa.request").tag("outcome", "error").timer().count());
+        assertEquals(1, registry.get("signer.tsa.request").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    @DisplayName("Metrik verilmezse istekler metriksiz, aynı havuz davranışıyla yürür")
+    void worksWithoutMetrics() {
+        loader = new PooledTimestampDataLoader(null);
+
+        loader.post(url, new byte[]{1});
+        loader.post(url, new byte[]{2});
+
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    @DisplayName("TÜBİTAK loader kimlik header'larını paylaşılan havuz üzerinden gönderir")
+    void tubitakLoaderUsesPool() throws Exception {
+        loader = new TubitakTimestampDataLoader(12345, "parola", new TimestampHttpMetrics(registry));
+        byte[] tsq = new TimeStampRequestGenerator()
+                .generate(NISTObjectIdentifiers.id_sha256, new byte[32])
+                .getEncoded();
+
+        loader.post(url, tsq);
+        loader.post(url, tsq);
+
+        assertEquals(1, clientPorts.size());
+        assertNotNull(seenHeaders.get(0).identity, "identity header gönderilmeli");
+        assertEquals("UEKAE TSS Client", seenHeaders.get(0).userAgent);
+        assertEquals("application/timestamp-query", seenHeaders.get(0).contentType);
+        assertEquals(2, registry.get("signer.tsa.request").tag("outcome", "success").timer().count());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        seenHeaders.add(new HttpExchangeHeaders(
+                exchange.getRequestHeaders().getFirst("Content-Type"),
+                exchange.getRequestHeaders().getFirst("identity"),
+                exchange.getRequestHeaders().getFirst("User-Agent")));
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[1024];
+            while (in.read(buffer) != -1) {
+                // istek gövdesini tüket; keep-alive için gerekli
+            }
+        }
+        if (failNext.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/timestamp-reply");
+        exchange.sendResponseHeaders(200, REPLY.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(REPLY);
+        }
+    }
+
+    private static final class HttpExchangeHeaders {
+        private final String contentType;
+        private final String identity;
+        private final String userAgent;
+
+        HttpExchangeHeaders(String contentType, String identity, String userAgent) {
+            this.contentType = contentType;
+            this.identity = identity;
+            this.userAgent = userAgent;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package io.mersel.dss.signer.api.services.timestamp;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.spi.client.http.DataLoader;
+import io.mersel.dss.signer.api.exceptions.TimestampException;
+import io.mersel.dss.signer.api.services.metrics.TimestampHttpMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link ThrottledOnlineTSPSource} eş zamanlılık kontratı: TSA'ya aynı anda
+ * en fazla {@code maxConcurrent} istek gider, sıra bekleme süresi aşılırsa
+ * istek TSA'ya hiç gönderilmeden {@link TimestampException} ile düşer.
+ *
+ * <p>TSA yanıtı geçersiz byte'lardır; DSS ayrıştırmada hata fırlatır. Sınır
+ * yalnızca {@link DataLoader#post} çağrısının sayılmasıyla doğrulanır ve
+ * izin hata yolunda da geri verilmelidir.</p>
+ */
+@Epic("Service Layer")
+@Feature("Timestamp Service — HTTP Contract")
+@Severity(SeverityLevel.NORMAL)
+class ThrottledOnlineTSPSourceTest {
+
+    private static final byte[] DIGEST = new byte[32];
+
+    @Test
+    @DisplayName("TSA'ya aynı anda en fazla maxConcurrent istek gider; hata yolunda izin geri verilir")
+    void limitsConcurrentRequests() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        AtomicInteger calls = new AtomicInteger();
+        DataLoader loader = mock(DataLoader.class);
+        when(loader.post(anyString(), any(byte[].class))).thenAnswer(inv -> {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(20);
+                return new byte[] {1, 2, 3};
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        ThrottledOnlineTSPSource source = new ThrottledOnlineTSPSource("http://tsa.invalid", loader, 2, 5_000,
+            new TimestampHttpMetrics(new SimpleMeterRegistry()));
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(pool.submit(() -> {
+                    try {
+                        source.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST);
+                    } catch (RuntimeException expected) {
+                        // Sahte yanıt ayrıştırılamaz; burada yalnız sınır ölçülür.
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(16, calls.get());
+        assertTrue(peak.get() <= 2, "Eş zamanlı TSA isteği sınırı aşıldı: " + peak.get());
+        assertEquals(0, source.getInFlight(), "Tüm izinler geri verilmeli");
+    }
+
+    @Test
+    @DisplayName("Sıra bekleme süresi aşılırsa istek TSA'ya gitmeden TimestampException ile düşer")
+    void failsFastWhenWaitExpires() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DataLoader slowLoader = mock(DataLoader.class);
+        when(slowLoader.post(anyString(), any(byte[].class))).thenAnswer(inv -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new byte[] {1};
+        });
+        ThrottledOnlineTSPSource source = new ThrottledOnlineTSPSource("http://tsa.invalid", slowLoader, 1, 50, null);
+
+        Thread holder = new Thread(() -> {
+            try {
+                source.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST);
+            } catch (RuntimeException ignored) {
+                // sahte yanıt
+            }
+        });
+        holder.start();
+        try {
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            DataLoader secondLoader = mock(DataLoader.class);
+            source.setDataLoader(secondLoader);
+
+            TimestampException ex = assertThrows(TimestampException.class,
+                () -> source.getTimeStampResponse(DigestAlgorithm.SHA256, DIGEST));
+            assertTrue(ex.getMessage().contains("eş zamanlı istek sınırı"));
+            verify(secondLoader, never()).post(anyString(), any(byte[].class));
+        } finally {
+            release.countDown();
+            holder.join(5_000);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package io.mersel.dss.signer.api.services.timestamp.tubitak;
+
+import io.mersel.dss.signer.api.util.CryptoUtils;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.ASN1Sequence;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * {@link TubitakIdentityTokenFactory} sözleşmesi: token TÜBİTAK'ın beklediği
+ * ASN.1 yapısındadır ve sunucu tarafı gibi çözülebilir, anahtar süre / istek
+ * sınırına göre yenilenir, önceden kodlanan alanlar
+ * {@link TubitakAuthenticationHelper} çıktısıyla bayt bayt aynıdır.
+ */
+@Epic("Service Layer")
+@Feature("Timestamp Service — TÜBİTAK Authentication")
+@Severity(SeverityLevel.CRITICAL)
+class TubitakIdentityTokenFactoryTest {
+
+    private static final int CUSTOMER_ID = 12345;
+    private static final String PASSWORD = "parola";
+    private static final byte[] HASH = new byte[32];
+
+    static {
+        for (int i = 0; i < HASH.length; i++) {
+            HASH[i] = (byte) i;
+        }
+    }
+
+    @Test
+    @DisplayName("Token, içindeki salt ve IV ile türetilen anahtarla veri hash'ine çözülür")
+    void tokenDecryptsToDataHash() throws Exception {
+        TubitakIdentityTokenFactory factory = new TubitakIdentityTokenFactory(CUSTOMER_ID, PASSWORD, 0, 0);
+
+        ParsedToken token = parse(factory.createToken(HASH));
+
+        assertEquals(CUSTOMER_ID, token.customerId);
+        assertEquals(TubitakAuthenticationHelper.DEFAULT_ITERATION_COUNT, token.iterationCount);
+        assertEquals(TubitakAuthenticationHelper.SALT_SIZE, token.salt.length);
+        assertEquals(TubitakAuthenticationHelper.IV_SIZE, token.iv.length);
+        assertArrayEquals(HASH, decrypt(token));
+    }
+
+    @Test
+    @DisplayName("Aynı anahtarla üretilen token'lar salt'ı paylaşır, IV her istekte yenidir")
+    void cachedKeyUsesFreshIvPerToken() throws Exception {
+        TubitakIdentityTokenFactory factory = new TubitakIdentityTokenFactory(CUSTOMER_ID, PASSWORD, 0, 0);
+
+        ParsedToken first = parse(factory.createToken(HASH));
+        ParsedToken second = parse(factory.createToken(HASH));
+
+        assertArrayEquals(first.salt, second.salt);
+        assertFalse(Arrays.equals(first.iv, second.iv));
+        assertArrayEquals(HASH, decrypt(second));
+        assertEquals(1, factory.getDerivationCount());
+    }
+
+    @Test
+    @DisplayName("İstek sınırı dolunca yeni salt ile anahtar yeniden türetilir")
+    void rotatesAfterRequestLimit() throws Exception {
+        TubitakIdentityTokenFactory factory = new TubitakIdentityTokenFactory(CUSTOMER_ID, PASSWORD, 0, 3);
+
+        List<ParsedToken> tokens = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            tokens.add(parse(factory.createToken(HASH)));
+        }
+
+        assertEquals(3, factory.getDerivationCount());
+        assertArrayEquals(tokens.get(0).salt, tokens.get(2).salt);
+        assertNotEquals(CryptoUtils.bytesToHex(tokens.get(2).salt), CryptoUtils.bytesToHex(tokens.get(3).salt));
+        assertArrayEquals(tokens.get(3).salt, tokens.get(5).salt);
+        for (ParsedToken token : tokens) {
+            assertArrayEquals(HASH, decrypt(token));
+        }
+    }
+
+    @Test
+    @DisplayName("İstek sınırı 1 iken her token yeni salt ile üretilir (önbelleksiz davranış)")
+    void rotationOfOneDerivesPerRequest() throws Exception {
+        TubitakIdentityTokenFactory factory = new TubitakIdentityTokenFactory(CUSTOMER_ID, PASSWORD, 0, 1);
+
+        ParsedToken first = parse(factory.createToken(HASH));
+        ParsedToken second = parse(factory.createToken(HASH));
+
+        assertFalse(Arrays.equals(first.salt, second.salt));
+        assertEquals(2, factory.getDerivationCount());
+    }
+
+    @Test
+    @DisplayName("Süre sınırı dolunca anahtar yenilenir")
+    void rotatesAfterTimeLimit() throws Exception {
+        TubitakIdentityTokenFactory factory = new TubitakIdentityTokenFactory(CUSTOMER_ID, PASSWORD, 20, 0);
+
+        ParsedToken first = parse(factory.createToken(HASH));
+        Thread.sleep(40);
+        ParsedToken second = parse(factory.createToken(HASH));
+
+        assertFalse(Arrays.equals(first.salt, second.salt));
+        assertEquals(2, factory.getDerivationCount());
+    }
+
+    @Test
+    @DisplayName("Eş zamanlı isteklerde anahtar bir kez türetilir ve tüm token'lar çözülebilir")
+    void concurrentTokensShareOneDerivation() throws Exception {
+        TubitakIdentityTokenFactory factory = new TubitakIdentityTokenFactory(CUSTOMER_ID, PASSWORD, 0, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            Callable<String> task = () -> factory.createToken(HASH);
+            for (int i = 0; i < 64; i++) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<String> future : futures) {
+                assertArrayEquals(HASH, decrypt(parse(future.get())));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, factory.getDerivationCount());
+    }
+
+    @Test
+    @DisplayName("Önceden kodlanmış alanlarla kurulan token BouncyCastle DER çıktısıyla aynıdır")
+    void assembledTokenMatchesDerEncoding() throws Exception {
+        byte[] salt = new byte[TubitakAuthenticationHelper.SALT_SIZE];
+        byte[] iv = new byte[TubitakAuthenticationHelper.IV_SIZE];
+        salt[0] = (byte) 0x80;
+        iv[15] = 7;
+        byte[] fixed = TubitakAuthenticationHelper.encodeFixedFields(CUSTOMER_ID, salt, 100);
+
+        // Kısa, 1 bayt ve 2 bayt uzunluk kodlaması gerektiren gövdeler.
+        for (int size : new int[]{0, 48, 127, 128, 200, 300, 70_000}) {
+            byte[] encrypted = new byte[size];
+            assertArrayEquals(
+                    TubitakAuthenticationHelper.buildAuthenticationToken(CUSTOMER_ID, salt, 100, iv, encrypted),
+                    TubitakAuthenticationHelper.assembleAuthenticationToken(fixed, iv, encrypted),
+                    "Gövde uzunluğu " + size);
+        }
+    }
+
+    private static ParsedToken parse(String hex) {
+        ASN1Sequence seq = ASN1Sequence.getInstance(CryptoUtils.hexToBytes(hex));
+        ParsedToken token = new ParsedToken();
+        token.customerId = ASN1Integer.getInstance(seq.getObjectAt(0)).intValueExact();
+        token.salt = ASN1OctetString.getInstance(seq.getObjectAt(1)).getOctets();
+        token.iterationCount = ASN1Integer.getInstance(seq.getObjectAt(2)).intValueExact();
+        token.iv = ASN1OctetString.getInstance(seq.getObjectAt(3)).getOctets();
+        token.encrypted = ASN1OctetString.getInstance(seq.getObjectAt(4)).getOctets();
+        return token;
+    }
+
+    private static byte[] decrypt(ParsedToken token) throws Exception {
+        SecretKey key = TubitakAuthenticationHelper.deriveKey(PASSWORD, token.salt, token.iterationCount);
+        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(token.iv));
+        return cipher.doFinal(token.encrypted);
+    }
+
+    private static final class ParsedToken {
+        private int customerId;
+        private byte[] salt;
+        private int iterationCount;
+        private byte[] iv;
+        private byte[] encrypted;
+    }
+}
@@ -0,0 +1,146 @@
+package io.mersel.dss.signer.api.util.xml;
+
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Severity;
+import io.qameta.allure.SeverityLevel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXParseException;
+
+import javax.xml.transform.Result;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link XmlProcessorPool} sözleşme testleri: thread başına yeniden kullanım,
+ * iç içe çağrı güvenliği ve {@link SecureXmlFactories} hardening'inin
+ * havuzdan alınan örneklerde korunması.
+ *
+ * <p>Havuz statik olduğundan sayaçlar diğer testlerden etkilenebilir;
+ * doğrulamalar mutlak değer yerine fark üzerinden yapılır.</p>
+ */
+@Epic("XML Security Hardening")
+@Feature("Pooled XML Processors")
+@Severity(SeverityLevel.NORMAL)
+class XmlProcessorPoolTest {
+
+    private static final byte[] XML = "<a xmlns=\"urn:t\"><b>ç</b></a>".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    @DisplayName("Aynı thread'deki ardışık parse çağrıları önbellekteki builder'ı yeniden kullanır")
+    void sequentialParsesHitPool() throws Exception {
+        XmlProcessorPool.parse(XML);
+        long hits = XmlProcessorPool.documentBuilderStats().getHits();
+        long misses = XmlProcessorPool.documentBuilderStats().getMisses();
+
+        for (int i = 0; i < 5; i++) {
+            Document doc = XmlProcessorPool.parse(XML);
+            assertEquals("urn:t", doc.getDocumentElement().getNamespaceURI(),
+                    "Havuzdaki builder namespace-aware olmalı");
+        }
+
+        assertEquals(hits + 5, XmlProcessorPool.documentBuilderStats().getHits());
+        assertEquals(misses, XmlProcessorPool.documentBuilderStats().getMisses());
+    }
+
+    @Test
+    @DisplayName("DOCTYPE içeren XML havuzdaki builder ile de reddedilir (hardening korunur)")
+    void hardeningSurvivesReuse() throws Exception {
+        XmlProcessorPool.parse(XML);
+        byte[] xxe = ("<?xml version=\"1.0\"?><!DOCTYPE r [<!ENTITY x SYSTEM \"file:///etc/passwd\">]>"
+                + "<r>&x;</r>").getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(SAXParseException.class, () -> XmlProcessorPool.parse(xxe));
+        // Hata sonrası örnek reset edilip iade edilmiş olmalı.
+        assertEquals("a", XmlProcessorPool.parse(XML).getDocumentElement().getLocalName());
+    }
+
+    @Test
+    @DisplayName("Serileştirme XML bildirimi ile UTF-8 üretir ve tekrar kullanımda da aynı kalır")
+    void serializeIsStableAcrossReuse() throws Exception {
+        Document doc = XmlProcessorPool.parse(XML);
+
+        byte[] first = XmlProcessorPool.serialize(doc);
+        byte[] second = XmlProcessorPool.serialize(doc);
+
+        String text = new String(first, StandardCharsets.UTF_8);
+        assertTrue(text.startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\""), text);
+        assertTrue(text.contains("<b>ç</b>"), text);
+        assertEquals(text, new String(second, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("İç içe kullanım ayrı örnek alır; önbellekteki örnek paylaşılmaz")
+    void nestedUseGetsSeparateInstance() throws Exception {
+        Document doc = XmlProcessorPool.parse(XML);
+        XmlProcessorPool.serialize(doc);
+        long misses = XmlProcessorPool.transformerStats().getMisses();
+
+        ByteArrayOutputStream inner = new ByteArrayOutputStream();
+        ByteArrayOutputStream outer = new ByteArrayOutputStream();
+        // Dış serileştirme yazarken aynı thread'de ikinci bir serileştirme yapılır.
+        Result reentrant = new StreamResult(new FilterOutputStream(outer) {
+            private boolean nested;
+
+            @Override
+            public void write(int b) throws IOException {
+                if (!nested) {
+                    nested = true;
+                    try {
+                        inner.write(XmlProcessorPool.serialize(doc));
+                    } catch (TransformerException e) {
+                        throw new IOException(e);
+                    }
+                }
+                super.write(b);
+            }
+        });
+        XmlProcessorPool.serialize(doc, reentrant);
+
+        assertEquals(misses + 1, XmlProcessorPool.transformerStats().getMisses());
+        assertEquals(new String(outer.toByteArray(), StandardCharsets.UTF_8),
+                new String(inner.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Eş zamanlı thread'ler birbirinin örneğini kullanmaz")
+    void concurrentThreadsParseIndependently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future<?>[8];
+            for (int t = 0; t < futures.length; t++) {
+                final int id = t;
+                futures[t] = executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        byte[] xml = ("<r id=\"" + id + "-" + i + "\"/>").getBytes(StandardCharsets.UTF_8);
+                        Document doc = XmlProcessorPool.parse(xml);
+                        Node attr = doc.getDocumentElement().getAttributeNode("id");
+                        assertEquals(id + "-" + i, attr.getNodeValue());
+                        String out = new String(XmlProcessorPool.serialize(doc), StandardCharsets.UTF_8);
+                        assertTrue(out.contains("id=\"" + id + "-" + i + "\""), out);
+                    }
+                    return null;
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}